@@ -4,6 +4,7 @@ import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
@@ -22,98 +23,125 @@ public class CacheableQueryRowReader {
     public static CacheableQueryRow createRow(ResultSet cachedRowSet, Set<String> fixedFieldsInEvent, ResponseObjectFactory responseObjectFactory,
                     MarkingFunctions markingFunctions) {
 
-        CacheableQueryRow cqfc = responseObjectFactory.getCacheableQueryRow();
-        cqfc.setMarkingFunctions(markingFunctions);
-
-        ResultSetMetaData metadata;
+        Map<String,Integer> columnToIndexMap = new HashMap<>();
+        Map<String,String> row = new LinkedHashMap<>();
         try {
-            metadata = cachedRowSet.getMetaData();
-
+            ResultSetMetaData metadata = cachedRowSet.getMetaData();
             int numColumns = metadata.getColumnCount();
-            Map<String,Integer> columnToIndexMap = new HashMap<>();
-            Map<String,Set<String>> columnValues = new HashMap<>();
-            Set<String> variableColumnNames = new TreeSet<>();
-            Set<String> fixedColumnNames = CacheableQueryRow.getFixedColumnSet();
-            // lets do a quick size estimate
-            long characters = 0;
             for (int x = 1; x <= numColumns; x++) {
                 String columnLabel = metadata.getColumnLabel(x);
                 columnToIndexMap.put(columnLabel, x);
-                String s = cachedRowSet.getString(x);
-                if (s != null) {
-                    characters += s.length();
-                }
-                if (fixedColumnNames.contains(columnLabel) == false || fixedFieldsInEvent.contains(columnLabel)) {
-                    characters += columnLabel.length();
-                    variableColumnNames.add(columnLabel);
-                    if (s == null) {
-                        columnValues.put(columnLabel, new LinkedHashSet<>());
-                    } else {
-                        Set<String> columnValuesSet = new LinkedHashSet<>();
-                        columnValuesSet.add(s);
-                        columnValues.put(columnLabel, columnValuesSet);
-                    }
-                }
+                row.put(columnLabel, cachedRowSet.getString(x));
             }
+        } catch (SQLException e) {
+            log.error(e.getMessage(), e);
+            CacheableQueryRow cqfc = responseObjectFactory.getCacheableQueryRow();
+            cqfc.setMarkingFunctions(markingFunctions);
+            return cqfc;
+        }
+
+        return createRow(row, columnToIndexMap, fixedFieldsInEvent, responseObjectFactory, markingFunctions);
+    }
 
-            // set the the size of the values in characters...internally converted to approximate bytes
-            cqfc.setSizeInStoredCharacters(characters);
+    /**
+     * Create a row from its column values, such as those read from a {@link ColumnarCachedResultsReader}.
+     *
+     * @param row
+     *            the value of each column of the row, which is null where the row has no value
+     * @param columnToIndexMap
+     *            the column number of each column, as used by the column markings and timestamps of the row
+     * @param fixedFieldsInEvent
+     *            the fixed columns which are also returned as fields of the row
+     * @param responseObjectFactory
+     *            the response object factory
+     * @param markingFunctions
+     *            the marking functions
+     * @return the row
+     */
+    public static CacheableQueryRow createRow(Map<String,String> row, Map<String,Integer> columnToIndexMap, Set<String> fixedFieldsInEvent,
+                    ResponseObjectFactory responseObjectFactory, MarkingFunctions markingFunctions) {
 
-            cqfc.setVariableColumnNames(variableColumnNames);
-            cqfc.setColumnValues(columnValues);
+        CacheableQueryRow cqfc = responseObjectFactory.getCacheableQueryRow();
+        cqfc.setMarkingFunctions(markingFunctions);
 
-            if (columnToIndexMap.get("_user_") != null) {
-                cqfc.setUser(cachedRowSet.getString(columnToIndexMap.get("_user_")));
-            }
-            if (columnToIndexMap.get("_queryId_") != null) {
-                cqfc.setQueryId(cachedRowSet.getString(columnToIndexMap.get("_queryId_")));
-            }
-            if (columnToIndexMap.get("_logicName_") != null) {
-                cqfc.setLogicName(cachedRowSet.getString(columnToIndexMap.get("_logicName_")));
-            }
-            if (columnToIndexMap.get("_datatype_") != null) {
-                cqfc.setDataType(cachedRowSet.getString(columnToIndexMap.get("_datatype_")));
-            }
-            if (columnToIndexMap.get("_eventId_") != null) {
-                cqfc.setEventId(cachedRowSet.getString(columnToIndexMap.get("_eventId_")));
-            }
-            if (columnToIndexMap.get("_row_") != null) {
-                cqfc.setRow(cachedRowSet.getString(columnToIndexMap.get("_row_")));
-            }
-            if (columnToIndexMap.get("_colf_") != null) {
-                cqfc.setColFam(cachedRowSet.getString(columnToIndexMap.get("_colf_")));
-            }
-            if (columnToIndexMap.get("_markings_") != null) {
-                String mStr = cachedRowSet.getString(columnToIndexMap.get("_markings_"));
-                cqfc.setMarkings(MarkingFunctions.Encoding.fromString(mStr));
+        Map<String,Set<String>> columnValues = new HashMap<>();
+        Set<String> variableColumnNames = new TreeSet<>();
+        Set<String> fixedColumnNames = CacheableQueryRow.getFixedColumnSet();
+        // lets do a quick size estimate
+        long characters = 0;
+        for (Map.Entry<String,String> column : row.entrySet()) {
+            String columnLabel = column.getKey();
+            String s = column.getValue();
+            if (s != null) {
+                characters += s.length();
             }
-            if (columnToIndexMap.get("_column_markings_") != null) {
-                String columnMarkings = cachedRowSet.getString(columnToIndexMap.get("_column_markings_"));
-                Map<String,String> combinedColumnMarkings = parseColumnMarkings(columnMarkings, columnToIndexMap);
-                Map<String,Map<String,String>> columnMarkingsMap = new HashMap<>();
-                Map<String,String> columnVisibilityMap = new HashMap<>();
-                for (Map.Entry<String,String> entry : combinedColumnMarkings.entrySet()) {
-                    String columnName = entry.getKey();
-                    String combinedString = entry.getValue();
-                    int x = combinedString.lastIndexOf(":");
-                    if (x >= 0) {
-                        columnMarkingsMap.put(columnName, MarkingFunctions.Encoding.fromString(combinedString.substring(0, x)));
-                        columnVisibilityMap.put(columnName, combinedString.substring(x + 1));
-                    } else {
-                        columnMarkingsMap.put(columnName, MarkingFunctions.Encoding.fromString(combinedString));
-                        columnVisibilityMap.put(columnName, "");
-                    }
+            if (fixedColumnNames.contains(columnLabel) == false || fixedFieldsInEvent.contains(columnLabel)) {
+                characters += columnLabel.length();
+                variableColumnNames.add(columnLabel);
+                if (s == null) {
+                    columnValues.put(columnLabel, new LinkedHashSet<>());
+                } else {
+                    Set<String> columnValuesSet = new LinkedHashSet<>();
+                    columnValuesSet.add(s);
+                    columnValues.put(columnLabel, columnValuesSet);
                 }
-                cqfc.setColumnMarkingsMap(columnMarkingsMap);
-                cqfc.setColumnColumnVisibilityMap(columnVisibilityMap);
-            }
-            if (columnToIndexMap.get("_column_timestamps_") != null) {
-                String columnTimestamps = cachedRowSet.getString(columnToIndexMap.get("_column_timestamps_"));
-                cqfc.setColumnTimestampMap(parseColumnTimestamps(columnTimestamps, columnToIndexMap));
             }
+        }
 
-        } catch (SQLException e) {
-            log.error(e.getMessage(), e);
+        // set the the size of the values in characters...internally converted to approximate bytes
+        cqfc.setSizeInStoredCharacters(characters);
+
+        cqfc.setVariableColumnNames(variableColumnNames);
+        cqfc.setColumnValues(columnValues);
+
+        if (row.containsKey("_user_")) {
+            cqfc.setUser(row.get("_user_"));
+        }
+        if (row.containsKey("_queryId_")) {
+            cqfc.setQueryId(row.get("_queryId_"));
+        }
+        if (row.containsKey("_logicName_")) {
+            cqfc.setLogicName(row.get("_logicName_"));
+        }
+        if (row.containsKey("_datatype_")) {
+            cqfc.setDataType(row.get("_datatype_"));
+        }
+        if (row.containsKey("_eventId_")) {
+            cqfc.setEventId(row.get("_eventId_"));
+        }
+        if (row.containsKey("_row_")) {
+            cqfc.setRow(row.get("_row_"));
+        }
+        if (row.containsKey("_colf_")) {
+            cqfc.setColFam(row.get("_colf_"));
+        }
+        if (row.containsKey("_markings_")) {
+            String mStr = row.get("_markings_");
+            cqfc.setMarkings(MarkingFunctions.Encoding.fromString(mStr));
+        }
+        if (row.containsKey("_column_markings_")) {
+            String columnMarkings = row.get("_column_markings_");
+            Map<String,String> combinedColumnMarkings = parseColumnMarkings(columnMarkings, columnToIndexMap);
+            Map<String,Map<String,String>> columnMarkingsMap = new HashMap<>();
+            Map<String,String> columnVisibilityMap = new HashMap<>();
+            for (Map.Entry<String,String> entry : combinedColumnMarkings.entrySet()) {
+                String columnName = entry.getKey();
+                String combinedString = entry.getValue();
+                int x = combinedString.lastIndexOf(":");
+                if (x >= 0) {
+                    columnMarkingsMap.put(columnName, MarkingFunctions.Encoding.fromString(combinedString.substring(0, x)));
+                    columnVisibilityMap.put(columnName, combinedString.substring(x + 1));
+                } else {
+                    columnMarkingsMap.put(columnName, MarkingFunctions.Encoding.fromString(combinedString));
+                    columnVisibilityMap.put(columnName, "");
+                }
+            }
+            cqfc.setColumnMarkingsMap(columnMarkingsMap);
+            cqfc.setColumnColumnVisibilityMap(columnVisibilityMap);
+        }
+        if (row.containsKey("_column_timestamps_")) {
+            String columnTimestamps = row.get("_column_timestamps_");
+            cqfc.setColumnTimestampMap(parseColumnTimestamps(columnTimestamps, columnToIndexMap));
         }
 
         return cqfc;
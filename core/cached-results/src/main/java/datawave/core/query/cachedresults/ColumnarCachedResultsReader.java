@@ -0,0 +1,738 @@
+package datawave.core.query.cachedresults;
+
+import static datawave.core.query.cachedresults.ColumnarCachedResultsWriter.MANIFEST;
+import static datawave.core.query.cachedresults.ColumnarCachedResultsWriter.VERSION;
+import static datawave.core.query.cachedresults.ColumnarCachedResultsWriter.readString;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.log4j.Logger;
+
+import datawave.core.query.cachedresults.ColumnarCachedResultsWriter.ColumnStats;
+import datawave.core.query.cachedresults.ColumnarCachedResultsWriter.SegmentStats;
+import datawave.webservice.query.cachedresults.CacheableQueryRow;
+
+/**
+ * Reads a result set written by a {@link ColumnarCachedResultsWriter}, filtering, sorting and paging it in process.
+ * <p>
+ * A selection is made with the conditions and order of a cached results query, restricted to what can be evaluated against the dictionary encoded columns: a
+ * conjunction of comparisons of a column with a quoted string (<code>=, !=, &lt;&gt;, &lt;, &lt;=, &gt;, &gt;=</code>) or of <code>IS NULL</code> and
+ * <code>IS NOT NULL</code>, and an order of columns, each optionally <code>ASC</code> or <code>DESC</code>. Comparisons are binary, like a case sensitive
+ * collation, and as in SQL a null never satisfies a comparison and sorts before every value. Anything else is rejected with an
+ * {@link IllegalArgumentException}.
+ * <p>
+ * Segments whose column statistics rule out a condition are skipped without being read. Within a segment each condition becomes a range of dictionary codes,
+ * so rows are matched without decoding their values, and the sort columns are ranked by merging the dictionaries of the matching segments.
+ */
+public class ColumnarCachedResultsReader {
+
+    private static Logger log = Logger.getLogger(ColumnarCachedResultsReader.class);
+
+    public static final String DEFAULT_ORDER = "_eventId_";
+
+    private final Path directory;
+    private final Map<String,Integer> columnIndexes = new LinkedHashMap<>();
+    private final Map<String,Integer> columnNumbers = new LinkedHashMap<>();
+    private final List<SegmentStats> segments = new ArrayList<>();
+
+    /**
+     * @param directory
+     *            the directory of the result set
+     * @throws IOException
+     *             if the manifest cannot be read
+     */
+    public ColumnarCachedResultsReader(Path directory) throws IOException {
+        this.directory = directory;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(directory.resolve(MANIFEST))))) {
+            checkVersion(in.readInt());
+            for (int i = in.readInt(); i > 0; i--) {
+                String column = readString(in);
+                columnIndexes.put(column, columnIndexes.size());
+                columnNumbers.put(column, in.readInt());
+            }
+            for (int i = in.readInt(); i > 0; i--) {
+                segments.add(SegmentStats.read(in));
+            }
+        }
+    }
+
+    /**
+     * @param directory
+     *            a directory
+     * @return true if the directory holds a committed result set
+     */
+    public static boolean exists(Path directory) {
+        return Files.isRegularFile(directory.resolve(MANIFEST));
+    }
+
+    /**
+     * @return the names of the columns, in the order they were first written
+     */
+    public Collection<String> getColumnNames() {
+        return Collections.unmodifiableSet(columnIndexes.keySet());
+    }
+
+    /**
+     * @return the column number of each column in the cached results table layout, used to resolve the column markings and timestamps of a row
+     */
+    public Map<String,Integer> getColumnNumbers() {
+        return Collections.unmodifiableMap(columnNumbers);
+    }
+
+    /**
+     * @return the number of rows in the result set
+     */
+    public int getRowCount() {
+        int rowCount = 0;
+        for (SegmentStats segment : segments) {
+            rowCount += segment.rowCount;
+        }
+        return rowCount;
+    }
+
+    /**
+     * Select the rows of a user.
+     *
+     * @param user
+     *            the user whose rows are selected, or null for all rows
+     * @param conditions
+     *            the conditions the rows must meet, may be null
+     * @param order
+     *            the order of the rows, or null to order by {@value #DEFAULT_ORDER}
+     * @return the selected rows
+     * @throws IllegalArgumentException
+     *             if the conditions or order are not supported, or refer to an unknown column
+     * @throws IOException
+     *             if a segment cannot be read
+     */
+    public Selection select(String user, String conditions, String order) throws IOException {
+        List<Condition> allConditions = new ArrayList<>();
+        if (user != null) {
+            allConditions.add(new Condition("_user_", Operator.EQ, user));
+        }
+        allConditions.addAll(Condition.parse(conditions));
+        List<OrderColumn> orderColumns = OrderColumn.parse(order == null || order.trim().isEmpty() ? DEFAULT_ORDER : order);
+        for (Condition condition : allConditions) {
+            checkColumn(condition.column);
+        }
+        for (OrderColumn orderColumn : orderColumns) {
+            checkColumn(orderColumn.column);
+        }
+
+        List<String> conditionColumns = new ArrayList<>();
+        for (Condition condition : allConditions) {
+            conditionColumns.add(condition.column);
+        }
+
+        // collect the matching rows as the segment in the high word and the row in the low word
+        long[] rows = new long[0];
+        int size = 0;
+        int skipped = 0;
+        for (int segment = 0; segment < segments.size(); segment++) {
+            if (!mayMatch(segment, allConditions)) {
+                skipped++;
+                continue;
+            }
+            Column[] columns = readColumns(segment, conditionColumns);
+            int[][] ranges = ranges(columns, allConditions);
+            if (ranges == null) {
+                skipped++;
+                continue;
+            }
+
+            for (int row = 0; row < segments.get(segment).rowCount; row++) {
+                if (matches(columns, ranges, row)) {
+                    if (size == rows.length) {
+                        rows = Arrays.copyOf(rows, Math.max(16, size * 2));
+                    }
+                    rows[size++] = ((long) segment << Integer.SIZE) | row;
+                }
+            }
+        }
+        rows = Arrays.copyOf(rows, size);
+
+        if (log.isDebugEnabled()) {
+            log.debug("Selected " + size + " rows from " + directory + ", skipped " + skipped + " of " + segments.size() + " segments");
+        }
+        return new Selection(sort(rows, orderColumns));
+    }
+
+    private void checkColumn(String column) {
+        // a fixed column which is null in every row is not written
+        if (!columnIndexes.containsKey(column) && !CacheableQueryRow.getFixedColumnSet().contains(column)) {
+            throw new IllegalArgumentException("Unknown column " + column);
+        }
+    }
+
+    /**
+     * @return false if the column statistics of a segment show that none of its rows can match
+     */
+    private boolean mayMatch(int segment, List<Condition> conditions) {
+        SegmentStats stats = segments.get(segment);
+        for (Condition condition : conditions) {
+            Integer index = columnIndexes.get(condition.column);
+            if (!condition.mayMatch(stats.get(index == null ? -1 : index), stats.rowCount)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The range of codes each condition accepts in a segment, as the first code, the code after the last and a code within them which is excluded
+     *
+     * @return the ranges, or null if no row of the segment can match
+     */
+    private static int[][] ranges(Column[] columns, List<Condition> conditions) {
+        int[][] ranges = new int[conditions.size()][];
+        for (int i = 0; i < ranges.length; i++) {
+            Column column = columns[i];
+            ranges[i] = conditions.get(i).range(column == null ? new String[0] : column.dictionary);
+            if (ranges[i][0] >= ranges[i][1]) {
+                return null;
+            }
+        }
+        return ranges;
+    }
+
+    private static boolean matches(Column[] columns, int[][] ranges, int row) {
+        for (int i = 0; i < columns.length; i++) {
+            int code = columns[i] == null ? 0 : columns[i].code(row);
+            if (code < ranges[i][0] || code >= ranges[i][1] || code == ranges[i][2]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Sort the rows by ranking each value of the sort columns across the segments the rows come from. The sort is stable, so rows which tie are left in the
+     * order they were written.
+     */
+    private long[] sort(long[] rows, List<OrderColumn> orderColumns) throws IOException {
+        List<String> names = new ArrayList<>();
+        for (OrderColumn orderColumn : orderColumns) {
+            names.add(orderColumn.column);
+        }
+        // the sort columns of each segment the rows come from, each segment being read once
+        Map<Integer,Column[]> segmentColumns = new HashMap<>();
+        for (long row : rows) {
+            int segment = (int) (row >>> Integer.SIZE);
+            if (!segmentColumns.containsKey(segment)) {
+                segmentColumns.put(segment, readColumns(segment, names));
+            }
+        }
+
+        int[][] keys = new int[orderColumns.size()][rows.length];
+        for (int k = 0; k < keys.length; k++) {
+            OrderColumn orderColumn = orderColumns.get(k);
+
+            TreeSet<String> values = new TreeSet<>();
+            for (Column[] columns : segmentColumns.values()) {
+                if (columns[k] != null) {
+                    values.addAll(Arrays.asList(columns[k].dictionary));
+                }
+            }
+            String[] ranked = values.toArray(new String[0]);
+
+            // the rank of each code of each segment, with nulls before every value
+            Map<Integer,int[]> ranks = new HashMap<>();
+            for (Map.Entry<Integer,Column[]> e : segmentColumns.entrySet()) {
+                Column column = e.getValue()[k];
+                String[] dictionary = column == null ? new String[0] : column.dictionary;
+                int[] rank = new int[dictionary.length + 1];
+                for (int code = 1; code < rank.length; code++) {
+                    rank[code] = Arrays.binarySearch(ranked, dictionary[code - 1]) + 1;
+                }
+                ranks.put(e.getKey(), rank);
+            }
+
+            for (int i = 0; i < rows.length; i++) {
+                int segment = (int) (rows[i] >>> Integer.SIZE);
+                Column column = segmentColumns.get(segment)[k];
+                int rank = ranks.get(segment)[column == null ? 0 : column.code((int) rows[i])];
+                keys[k][i] = orderColumn.ascending ? rank : -rank;
+            }
+        }
+
+        Integer[] order = new Integer[rows.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> {
+            for (int[] key : keys) {
+                int c = Integer.compare(key[a], key[b]);
+                if (c != 0) {
+                    return c;
+                }
+            }
+            return 0;
+        });
+
+        long[] sorted = new long[rows.length];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = rows[order[i]];
+        }
+        return sorted;
+    }
+
+    /**
+     * Read the columns of a segment, opening the segment once for all of them.
+     *
+     * @return the columns in the order of the names, with a null for each column which is null in every row of the segment
+     */
+    private Column[] readColumns(int segment, List<String> names) throws IOException {
+        Column[] columns = new Column[names.size()];
+        // read the blocks in the order they were written
+        Set<Integer> wanted = new TreeSet<>();
+        for (String name : names) {
+            Integer index = columnIndexes.get(name);
+            if (index != null && segments.get(segment).columns.containsKey(index)) {
+                wanted.add(index);
+            }
+        }
+        if (wanted.isEmpty()) {
+            return columns;
+        }
+
+        try (FileChannel channel = FileChannel.open(directory.resolve(ColumnarCachedResultsWriter.segmentName(segment)))) {
+            DataInputStream header = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            checkVersion(header.readInt());
+            int rowCount = header.readInt();
+            int blockCount = header.readInt();
+            long offset = Integer.BYTES * (3 + 2L * blockCount);
+            Map<Integer,long[]> blocks = new HashMap<>();
+            for (int i = 0; i < blockCount; i++) {
+                int blockIndex = header.readInt();
+                int blockLength = header.readInt();
+                if (wanted.contains(blockIndex)) {
+                    blocks.put(blockIndex, new long[] {offset, blockLength});
+                }
+                offset += blockLength;
+            }
+
+            for (Integer index : wanted) {
+                long[] block = blocks.get(index);
+                if (block == null) {
+                    throw new IOException("Column " + index + " is missing from segment " + segment + " of " + directory);
+                }
+                Column column = readColumn(channel, segment, block[0], (int) block[1], rowCount);
+                // a column may be requested more than once
+                for (int i = 0; i < columns.length; i++) {
+                    if (index.equals(columnIndexes.get(names.get(i)))) {
+                        columns[i] = column;
+                    }
+                }
+            }
+        }
+        return columns;
+    }
+
+    private Column readColumn(FileChannel channel, int segment, long offset, int length, int rowCount) throws IOException {
+        ByteBuffer block = ByteBuffer.allocate(length);
+        while (block.hasRemaining()) {
+            if (channel.read(block, offset + block.position()) < 0) {
+                throw new IOException("Segment " + segment + " of " + directory + " is truncated");
+            }
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(new ByteArrayInputStream(block.array()))))) {
+            return Column.read(in, rowCount);
+        }
+    }
+
+    private static void checkVersion(int version) throws IOException {
+        if (version != VERSION) {
+            throw new IOException("Unsupported columnar cached results version " + version);
+        }
+    }
+
+    /**
+     * The rows selected from a result set, in order. The columns decoded for one call to {@link #getRows(int, int, Collection)} are kept for the next, so that
+     * paging through rows from the same segments decodes each segment once.
+     */
+    public class Selection {
+        private final long[] rows;
+        // the columns decoded for the last range of rows, by segment
+        private List<String> decodedNames = null;
+        private Map<Integer,Column[]> decodedColumns = new HashMap<>();
+
+        private Selection(long[] rows) {
+            this.rows = rows;
+        }
+
+        /**
+         * @return the number of rows selected
+         */
+        public int size() {
+            return rows.length;
+        }
+
+        /**
+         * Get a range of the selected rows.
+         *
+         * @param begin
+         *            the position of the first row, from 0
+         * @param end
+         *            the position after the last row
+         * @param columns
+         *            the columns to return, or null for all columns
+         * @return the values of each row by column name, with a null value for each column the row does not have
+         * @throws IOException
+         *             if a segment cannot be read
+         */
+        public synchronized List<Map<String,String>> getRows(int begin, int end, Collection<String> columns) throws IOException {
+            List<String> names = new ArrayList<>(columns == null ? columnIndexes.keySet() : columns);
+            int first = Math.max(0, begin);
+            int last = Math.min(end, rows.length);
+            if (first >= last) {
+                return new ArrayList<>();
+            }
+
+            // the positions of the rows from each segment, so that each segment is read once however its rows are ordered
+            Map<Integer,List<Integer>> positions = new LinkedHashMap<>();
+            for (int i = first; i < last; i++) {
+                positions.computeIfAbsent((int) (rows[i] >>> Integer.SIZE), segment -> new ArrayList<>()).add(i);
+            }
+
+            if (!names.equals(decodedNames)) {
+                decodedNames = names;
+                decodedColumns = new HashMap<>();
+            }
+            Map<Integer,Column[]> pageColumns = new HashMap<>();
+            List<Map<String,String>> result = new ArrayList<>(Collections.nCopies(last - first, null));
+            for (Map.Entry<Integer,List<Integer>> e : positions.entrySet()) {
+                Column[] segmentColumns = decodedColumns.get(e.getKey());
+                if (segmentColumns == null) {
+                    segmentColumns = readColumns(e.getKey(), names);
+                }
+                pageColumns.put(e.getKey(), segmentColumns);
+                for (int i : e.getValue()) {
+                    int row = (int) rows[i];
+                    Map<String,String> values = new LinkedHashMap<>();
+                    for (int c = 0; c < names.size(); c++) {
+                        values.put(names.get(c), segmentColumns[c] == null ? null : segmentColumns[c].value(row));
+                    }
+                    result.set(i - first, values);
+                }
+            }
+            // only the segments of this range are kept, which are those the next range is most likely to need
+            decodedColumns = pageColumns;
+            return result;
+        }
+    }
+
+    /**
+     * A decoded column of a segment
+     */
+    private static class Column {
+        private final String[] dictionary;
+        private final byte[] byteCodes;
+        private final short[] shortCodes;
+        private final int[] intCodes;
+
+        private Column(String[] dictionary, byte[] byteCodes, short[] shortCodes, int[] intCodes) {
+            this.dictionary = dictionary;
+            this.byteCodes = byteCodes;
+            this.shortCodes = shortCodes;
+            this.intCodes = intCodes;
+        }
+
+        int code(int row) {
+            if (byteCodes != null) {
+                return byteCodes[row] & 0xff;
+            } else if (shortCodes != null) {
+                return shortCodes[row] & 0xffff;
+            }
+            return intCodes[row];
+        }
+
+        String value(int row) {
+            int code = code(row);
+            return code == 0 ? null : dictionary[code - 1];
+        }
+
+        static Column read(DataInputStream in, int rowCount) throws IOException {
+            String[] dictionary = new String[in.readInt()];
+            for (int i = 0; i < dictionary.length; i++) {
+                dictionary[i] = readString(in);
+            }
+            int width = in.readByte();
+            if (width == Byte.BYTES) {
+                byte[] codes = new byte[rowCount];
+                in.readFully(codes);
+                return new Column(dictionary, codes, null, null);
+            } else if (width == Short.BYTES) {
+                short[] codes = new short[rowCount];
+                for (int i = 0; i < rowCount; i++) {
+                    codes[i] = in.readShort();
+                }
+                return new Column(dictionary, null, codes, null);
+            }
+            int[] codes = new int[rowCount];
+            for (int i = 0; i < rowCount; i++) {
+                codes[i] = in.readInt();
+            }
+            return new Column(dictionary, null, null, codes);
+        }
+    }
+
+    private enum Operator {
+        EQ, NE, LT, LE, GT, GE, IS_NULL, IS_NOT_NULL
+    }
+
+    /**
+     * A comparison of a column with a value
+     */
+    private static class Condition {
+        private final String column;
+        private final Operator operator;
+        private final String value;
+
+        Condition(String column, Operator operator, String value) {
+            this.column = column;
+            this.operator = operator;
+            this.value = value;
+        }
+
+        /**
+         * @return false if no row of a segment with these column statistics can match
+         */
+        boolean mayMatch(ColumnStats stats, int rowCount) {
+            switch (operator) {
+                case IS_NULL:
+                    return stats.nullCount > 0;
+                case IS_NOT_NULL:
+                    return stats.nullCount < rowCount;
+                default:
+                    if (stats.min == null) {
+                        return false;
+                    }
+            }
+            switch (operator) {
+                case EQ:
+                    return stats.min.compareTo(value) <= 0 && stats.max.compareTo(value) >= 0;
+                case NE:
+                    return !(stats.min.equals(value) && stats.max.equals(value));
+                case LT:
+                    return stats.min.compareTo(value) < 0;
+                case LE:
+                    return stats.min.compareTo(value) <= 0;
+                case GT:
+                    return stats.max.compareTo(value) > 0;
+                default:
+                    return stats.max.compareTo(value) >= 0;
+            }
+        }
+
+        /**
+         * @return the codes of a dictionary this condition accepts, as the first code, the code after the last and an excluded code
+         */
+        int[] range(String[] dictionary) {
+            int values = dictionary.length + 1;
+            int found = Arrays.binarySearch(dictionary, value == null ? "" : value);
+            // the code of the first value which is not less than the value, and of the first value which is greater
+            int lower = (found >= 0 ? found : -found - 1) + 1;
+            int upper = found >= 0 ? found + 2 : lower;
+            switch (operator) {
+                case IS_NULL:
+                    return new int[] {0, 1, -1};
+                case IS_NOT_NULL:
+                    return new int[] {1, values, -1};
+                case EQ:
+                    return new int[] {lower, upper, -1};
+                case NE:
+                    return new int[] {1, values, found >= 0 ? found + 1 : -1};
+                case LT:
+                    return new int[] {1, lower, -1};
+                case LE:
+                    return new int[] {1, upper, -1};
+                case GT:
+                    return new int[] {upper, values, -1};
+                default:
+                    return new int[] {lower, values, -1};
+            }
+        }
+
+        static List<Condition> parse(String conditions) {
+            List<Condition> result = new ArrayList<>();
+            if (conditions == null || conditions.trim().isEmpty()) {
+                return result;
+            }
+
+            Tokenizer tokens = new Tokenizer(conditions);
+            do {
+                String column = tokens.identifier();
+                Operator operator = tokens.operator();
+                String value = (operator == Operator.IS_NULL || operator == Operator.IS_NOT_NULL) ? null : tokens.string();
+                result.add(new Condition(column, operator, value));
+            } while (tokens.keyword("AND"));
+            tokens.end();
+            return result;
+        }
+    }
+
+    private static class OrderColumn {
+        private final String column;
+        private final boolean ascending;
+
+        OrderColumn(String column, boolean ascending) {
+            this.column = column;
+            this.ascending = ascending;
+        }
+
+        static List<OrderColumn> parse(String order) {
+            List<OrderColumn> result = new ArrayList<>();
+            Tokenizer tokens = new Tokenizer(order);
+            do {
+                String column = tokens.identifier();
+                boolean ascending = !tokens.keyword("DESC");
+                if (ascending) {
+                    tokens.keyword("ASC");
+                }
+                result.add(new OrderColumn(column, ascending));
+            } while (tokens.symbol(","));
+            tokens.end();
+            return result;
+        }
+    }
+
+    /**
+     * Splits conditions and orders into identifiers, optionally quoted with backticks, quoted strings, keywords and symbols
+     */
+    private static class Tokenizer {
+        private final String text;
+        private int position = 0;
+
+        Tokenizer(String text) {
+            this.text = text;
+        }
+
+        private void skipWhitespace() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+        }
+
+        String identifier() {
+            skipWhitespace();
+            if (position < text.length() && text.charAt(position) == '`') {
+                int end = text.indexOf('`', position + 1);
+                if (end < 0) {
+                    throw unsupported();
+                }
+                String identifier = text.substring(position + 1, end);
+                position = end + 1;
+                return identifier;
+            }
+            int start = position;
+            while (position < text.length() && (Character.isLetterOrDigit(text.charAt(position)) || text.charAt(position) == '_'
+                            || text.charAt(position) == '.')) {
+                position++;
+            }
+            if (start == position) {
+                throw unsupported();
+            }
+            return text.substring(start, position);
+        }
+
+        String string() {
+            skipWhitespace();
+            if (position == text.length() || (text.charAt(position) != '\'' && text.charAt(position) != '"')) {
+                throw unsupported();
+            }
+            char quote = text.charAt(position++);
+            StringBuilder value = new StringBuilder();
+            while (true) {
+                if (position == text.length()) {
+                    throw unsupported();
+                }
+                char c = text.charAt(position++);
+                if (c == quote) {
+                    // a doubled quote is a literal quote
+                    if (position < text.length() && text.charAt(position) == quote) {
+                        value.append(quote);
+                        position++;
+                    } else {
+                        return value.toString();
+                    }
+                } else {
+                    value.append(c);
+                }
+            }
+        }
+
+        Operator operator() {
+            if (symbol("<=")) {
+                return Operator.LE;
+            } else if (symbol(">=")) {
+                return Operator.GE;
+            } else if (symbol("!=") || symbol("<>")) {
+                return Operator.NE;
+            } else if (symbol("=")) {
+                return Operator.EQ;
+            } else if (symbol("<")) {
+                return Operator.LT;
+            } else if (symbol(">")) {
+                return Operator.GT;
+            } else if (keyword("IS")) {
+                boolean not = keyword("NOT");
+                if (!keyword("NULL")) {
+                    throw unsupported();
+                }
+                return not ? Operator.IS_NOT_NULL : Operator.IS_NULL;
+            }
+            throw unsupported();
+        }
+
+        boolean symbol(String symbol) {
+            skipWhitespace();
+            if (text.startsWith(symbol, position)) {
+                position += symbol.length();
+                return true;
+            }
+            return false;
+        }
+
+        boolean keyword(String keyword) {
+            skipWhitespace();
+            int end = position + keyword.length();
+            if (end <= text.length() && text.substring(position, end).toUpperCase(Locale.ROOT).equals(keyword)
+                            && (end == text.length() || !Character.isLetterOrDigit(text.charAt(end)))) {
+                position = end;
+                return true;
+            }
+            return false;
+        }
+
+        void end() {
+            skipWhitespace();
+            if (position != text.length()) {
+                throw unsupported();
+            }
+        }
+
+        private IllegalArgumentException unsupported() {
+            return new IllegalArgumentException("Unsupported by the columnar cached results store at position " + position + ": " + text);
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package datawave.core.query.cachedresults;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.log4j.Logger;
+
+import datawave.webservice.query.cachedresults.CacheableQueryRow;
+
+/**
+ * Writes the rows of a cached result set to a directory on local disk as compressed columnar segments, in place of inserting them into a table of the cached
+ * results database. The rows are read back with a {@link ColumnarCachedResultsReader}.
+ * <p>
+ * Each segment holds up to <code>rowsPerSegment</code> rows. Every column of a segment is dictionary encoded, with its distinct values sorted so that the codes
+ * of a column order the same way as its values, and compressed on its own so that a reader only inflates the columns it needs. The manifest, written when the
+ * result set is committed, lists the columns with their column numbers in the cached results table layout and the minimum, maximum and null count of every
+ * column of every segment.
+ * <p>
+ * Closing a writer which has not been committed deletes whatever it has written.
+ */
+public class ColumnarCachedResultsWriter implements Closeable {
+
+    private static Logger log = Logger.getLogger(ColumnarCachedResultsWriter.class);
+
+    public static final int DEFAULT_ROWS_PER_SEGMENT = 65536;
+
+    static final int VERSION = 1;
+    static final String MANIFEST = "manifest";
+    static final String SEGMENT_PREFIX = "segment-";
+
+    private final Path directory;
+    private final int rowsPerSegment;
+
+    // the column buffers of the current segment, by the index of the column in the manifest
+    private final Map<String,Integer> columnIndexes = new LinkedHashMap<>();
+    private final List<String[]> buffers = new ArrayList<>();
+    private int bufferedRows = 0;
+
+    private final List<SegmentStats> segments = new ArrayList<>();
+    private boolean committed = false;
+
+    /**
+     * @param directory
+     *            the directory to write to, which must not already exist
+     * @param rowsPerSegment
+     *            the maximum number of rows in a segment
+     * @throws IOException
+     *             if the directory cannot be created
+     */
+    public ColumnarCachedResultsWriter(Path directory, int rowsPerSegment) throws IOException {
+        this.directory = directory;
+        this.rowsPerSegment = Math.max(1, rowsPerSegment);
+        Files.createDirectories(directory.getParent());
+        Files.createDirectory(directory);
+    }
+
+    /**
+     * Add a row.
+     *
+     * @param row
+     *            the values of the row by column name, including the fixed columns of a {@link CacheableQueryRow}
+     * @throws IOException
+     *             if a full segment cannot be written
+     */
+    public void add(Map<String,String> row) throws IOException {
+        if (committed) {
+            throw new IllegalStateException("Cannot add rows to a committed result set");
+        }
+        for (Map.Entry<String,String> e : row.entrySet()) {
+            if (e.getValue() == null) {
+                continue;
+            }
+            Integer index = columnIndexes.get(e.getKey());
+            if (index == null) {
+                index = columnIndexes.size();
+                columnIndexes.put(e.getKey(), index);
+            }
+            while (buffers.size() <= index) {
+                buffers.add(null);
+            }
+            if (buffers.get(index) == null) {
+                buffers.set(index, new String[rowsPerSegment]);
+            }
+            buffers.get(index)[bufferedRows] = e.getValue();
+        }
+
+        if (++bufferedRows == rowsPerSegment) {
+            flush();
+        }
+    }
+
+    /**
+     * Write the last segment and the manifest, after which the result set can be read.
+     *
+     * @param fieldMap
+     *            the column number of each variable column, as used by the column markings and timestamps of the rows. The fixed columns are numbered from 1
+     *            in the order of {@link CacheableQueryRow#getFixedColumnSet()}.
+     * @throws IOException
+     *             if the result set cannot be written
+     */
+    public void commit(Map<String,Integer> fieldMap) throws IOException {
+        flush();
+
+        Map<String,Integer> columnNumbers = new HashMap<>(fieldMap);
+        int columnNumber = 1;
+        for (String column : CacheableQueryRow.getFixedColumnSet()) {
+            columnNumbers.put(column, columnNumber++);
+        }
+
+        // write to a temporary file first, so that a reader never sees a partial manifest
+        Path tmp = directory.resolve(MANIFEST + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(VERSION);
+            out.writeInt(columnIndexes.size());
+            for (String column : columnIndexes.keySet()) {
+                writeString(out, column);
+                out.writeInt(columnNumbers.getOrDefault(column, -1));
+            }
+            out.writeInt(segments.size());
+            for (SegmentStats segment : segments) {
+                segment.write(out);
+            }
+        }
+        Files.move(tmp, directory.resolve(MANIFEST), StandardCopyOption.ATOMIC_MOVE);
+        committed = true;
+
+        if (log.isDebugEnabled()) {
+            log.debug("Wrote " + segments.size() + " segments with " + columnIndexes.size() + " columns to " + directory);
+        }
+    }
+
+    /**
+     * Release the buffers of this writer, deleting the result set if it has not been committed.
+     */
+    @Override
+    public void close() throws IOException {
+        buffers.clear();
+        if (!committed) {
+            delete(directory);
+        }
+    }
+
+    /**
+     * Delete a result set.
+     *
+     * @param directory
+     *            the directory of the result set
+     * @throws IOException
+     *             if the result set cannot be deleted
+     */
+    public static void delete(Path directory) throws IOException {
+        if (Files.exists(directory)) {
+            try (Stream<Path> paths = Files.walk(directory)) {
+                for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                    Files.delete(path);
+                }
+            }
+        }
+    }
+
+    static String segmentName(int segment) {
+        return String.format("%s%06d", SEGMENT_PREFIX, segment);
+    }
+
+    /**
+     * Write the buffered rows as a segment: a header with the index and compressed length of each column, followed by the compressed columns
+     */
+    private void flush() throws IOException {
+        if (bufferedRows == 0) {
+            return;
+        }
+
+        SegmentStats stats = new SegmentStats(bufferedRows);
+        List<Integer> indexes = new ArrayList<>();
+        List<byte[]> blocks = new ArrayList<>();
+        for (int index = 0; index < buffers.size(); index++) {
+            String[] values = buffers.get(index);
+            if (values != null) {
+                indexes.add(index);
+                blocks.add(encode(values, bufferedRows, index, stats));
+            }
+        }
+
+        Path file = directory.resolve(segmentName(segments.size()));
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(VERSION);
+            out.writeInt(bufferedRows);
+            out.writeInt(blocks.size());
+            for (int i = 0; i < blocks.size(); i++) {
+                out.writeInt(indexes.get(i));
+                out.writeInt(blocks.get(i).length);
+            }
+            for (byte[] block : blocks) {
+                out.write(block);
+            }
+        }
+
+        segments.add(stats);
+        buffers.clear();
+        bufferedRows = 0;
+    }
+
+    /**
+     * Dictionary encode and compress a column. Code 0 is null and code i is the i-th smallest value, and the codes are written with the fewest bytes that can
+     * hold the largest code.
+     */
+    private static byte[] encode(String[] values, int rowCount, int index, SegmentStats stats) throws IOException {
+        TreeSet<String> distinct = new TreeSet<>();
+        int nullCount = 0;
+        for (int row = 0; row < rowCount; row++) {
+            if (values[row] == null) {
+                nullCount++;
+            } else {
+                distinct.add(values[row]);
+            }
+        }
+
+        Map<String,Integer> codes = new HashMap<>();
+        for (String value : distinct) {
+            codes.put(value, codes.size() + 1);
+        }
+        stats.add(index, nullCount, distinct.isEmpty() ? null : distinct.first(), distinct.isEmpty() ? null : distinct.last());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes))) {
+            out.writeInt(distinct.size());
+            for (String value : distinct) {
+                writeString(out, value);
+            }
+            int width = codeWidth(distinct.size());
+            out.writeByte(width);
+            for (int row = 0; row < rowCount; row++) {
+                int code = values[row] == null ? 0 : codes.get(values[row]);
+                if (width == Byte.BYTES) {
+                    out.writeByte(code);
+                } else if (width == Short.BYTES) {
+                    out.writeShort(code);
+                } else {
+                    out.writeInt(code);
+                }
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    static int codeWidth(int dictionarySize) {
+        if (dictionarySize < (1 << Byte.SIZE)) {
+            return Byte.BYTES;
+        } else if (dictionarySize < (1 << Short.SIZE)) {
+            return Short.BYTES;
+        }
+        return Integer.BYTES;
+    }
+
+    static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The row count of a segment, and the minimum, maximum and null count of each of its columns. A column which is not in a segment is null in every row.
+     */
+    static class SegmentStats {
+        final int rowCount;
+        final Map<Integer,ColumnStats> columns = new HashMap<>();
+
+        SegmentStats(int rowCount) {
+            this.rowCount = rowCount;
+        }
+
+        void add(int index, int nullCount, String min, String max) {
+            columns.put(index, new ColumnStats(nullCount, min, max));
+        }
+
+        ColumnStats get(int index) {
+            ColumnStats stats = columns.get(index);
+            return stats == null ? new ColumnStats(rowCount, null, null) : stats;
+        }
+
+        void write(DataOutput out) throws IOException {
+            out.writeInt(rowCount);
+            out.writeInt(columns.size());
+            for (Map.Entry<Integer,ColumnStats> e : columns.entrySet()) {
+                out.writeInt(e.getKey());
+                out.writeInt(e.getValue().nullCount);
+                writeString(out, e.getValue().min);
+                writeString(out, e.getValue().max);
+            }
+        }
+
+        static SegmentStats read(DataInput in) throws IOException {
+            SegmentStats stats = new SegmentStats(in.readInt());
+            for (int i = in.readInt(); i > 0; i--) {
+                int index = in.readInt();
+                int nullCount = in.readInt();
+                stats.add(index, nullCount, readString(in), readString(in));
+            }
+            return stats;
+        }
+    }
+
+    static class ColumnStats {
+        final int nullCount;
+        final String min;
+        final String max;
+
+        ColumnStats(int nullCount, String min, String max) {
+            this.nullCount = nullCount;
+            this.min = min;
+            this.max = max;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package datawave.core.query.cachedresults;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ColumnarCachedResultsTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<Map<String,String>> rows = new ArrayList<>();
+    private Path directory;
+
+    @Before
+    public void setup() throws IOException {
+        Random random = new Random(42);
+        for (int i = 0; i < 500; i++) {
+            Map<String,String> row = new LinkedHashMap<>();
+            row.put("_user_", i % 5 == 0 ? "other" : "user");
+            row.put("_queryId_", "query");
+            row.put("_eventId_", String.format("event%04d", random.nextInt(10000)));
+            row.put("COLOR", Arrays.asList("red", "green", "blue", "Blue").get(random.nextInt(4)));
+            // only some rows have a size, and only the later rows have a shape
+            row.put("SIZE", random.nextBoolean() ? Integer.toString(random.nextInt(100)) : null);
+            if (i > 300) {
+                row.put("SHAPE", random.nextBoolean() ? "square" : "it's round");
+            }
+            rows.add(row);
+        }
+
+        directory = folder.getRoot().toPath().resolve("v1");
+        try (ColumnarCachedResultsWriter writer = new ColumnarCachedResultsWriter(directory, 64)) {
+            for (Map<String,String> row : rows) {
+                writer.add(row);
+            }
+            Map<String,Integer> fieldMap = new HashMap<>();
+            fieldMap.put("COLOR", 11);
+            fieldMap.put("SIZE", 12);
+            fieldMap.put("SHAPE", 13);
+            writer.commit(fieldMap);
+        }
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        ColumnarCachedResultsReader reader = new ColumnarCachedResultsReader(directory);
+        assertEquals(rows.size(), reader.getRowCount());
+        assertEquals(Integer.valueOf(5), reader.getColumnNumbers().get("_eventId_"));
+        assertEquals(Integer.valueOf(12), reader.getColumnNumbers().get("SIZE"));
+
+        ColumnarCachedResultsReader.Selection selection = reader.select(null, null, null);
+        List<Map<String,String>> expected = sorted(r -> true, Comparator.comparing(r -> r.get("_eventId_")));
+        assertEquals(expected.size(), selection.size());
+        List<Map<String,String>> actual = selection.getRows(0, selection.size(), null);
+        for (int i = 0; i < expected.size(); i++) {
+            for (String column : reader.getColumnNames()) {
+                assertEquals(expected.get(i).get(column), actual.get(i).get(column));
+            }
+        }
+    }
+
+    @Test
+    public void testConditions() throws IOException {
+        ColumnarCachedResultsReader reader = new ColumnarCachedResultsReader(directory);
+        Comparator<Map<String,String>> byEvent = Comparator.comparing(r -> r.get("_eventId_"));
+
+        assertSelected(reader, "COLOR = 'blue'", null, r -> "blue".equals(r.get("COLOR")), byEvent);
+        assertSelected(reader, "`COLOR` != 'blue' AND SIZE >= '50'", null,
+                        r -> !"blue".equals(r.get("COLOR")) && r.get("SIZE") != null && r.get("SIZE").compareTo("50") >= 0, byEvent);
+        assertSelected(reader, "SIZE < '3' and COLOR <> 'red'", null,
+                        r -> r.get("SIZE") != null && r.get("SIZE").compareTo("3") < 0 && !"red".equals(r.get("COLOR")), byEvent);
+        assertSelected(reader, "SIZE IS NULL", null, r -> r.get("SIZE") == null, byEvent);
+        assertSelected(reader, "SHAPE IS NOT NULL AND SHAPE <= 'it''s round'", null, r -> "it's round".equals(r.get("SHAPE")), byEvent);
+        assertSelected(reader, "SHAPE = 'triangle'", null, r -> false, byEvent);
+        assertSelected(reader, "SHAPE > \"round\"", null, r -> "square".equals(r.get("SHAPE")), byEvent);
+    }
+
+    @Test
+    public void testOrder() throws IOException {
+        ColumnarCachedResultsReader reader = new ColumnarCachedResultsReader(directory);
+        Comparator<String> nullsFirst = Comparator.nullsFirst(Comparator.<String> naturalOrder());
+
+        assertSelected(reader, null, "COLOR DESC, `_eventId_` ASC", r -> true,
+                        Comparator.<Map<String,String>,String> comparing(r -> r.get("COLOR")).reversed().thenComparing(r -> r.get("_eventId_")));
+        assertSelected(reader, "COLOR = 'red'", "SIZE, _eventId_ desc", r -> "red".equals(r.get("COLOR")),
+                        Comparator.<Map<String,String>,String> comparing(r -> r.get("SIZE"), nullsFirst).thenComparing(r -> r.get("_eventId_"),
+                                        Comparator.reverseOrder()));
+        assertSelected(reader, null, "SHAPE desc", r -> true,
+                        Comparator.<Map<String,String>,String> comparing(r -> r.get("SHAPE"), nullsFirst).reversed());
+    }
+
+    @Test
+    public void testUser() throws IOException {
+        ColumnarCachedResultsReader reader = new ColumnarCachedResultsReader(directory);
+        ColumnarCachedResultsReader.Selection selection = reader.select("other", "COLOR = 'green'", null);
+        assertEquals(rows.stream().filter(r -> "other".equals(r.get("_user_")) && "green".equals(r.get("COLOR"))).count(), selection.size());
+        assertEquals(0, reader.select("nobody", null, null).size());
+    }
+
+    @Test
+    public void testPaging() throws IOException {
+        ColumnarCachedResultsReader reader = new ColumnarCachedResultsReader(directory);
+        ColumnarCachedResultsReader.Selection selection = reader.select("user", null, null);
+        List<Map<String,String>> page = selection.getRows(10, 20, Arrays.asList("_eventId_", "COLOR", "UNKNOWN"));
+        assertEquals(10, page.size());
+        assertEquals(Arrays.asList("_eventId_", "COLOR", "UNKNOWN"), new ArrayList<>(page.get(0).keySet()));
+        assertNull(page.get(0).get("UNKNOWN"));
+        assertEquals(selection.getRows(10, 11, null).get(0).get("_eventId_"), page.get(0).get("_eventId_"));
+        assertEquals(5, selection.getRows(selection.size() - 5, selection.size() + 5, null).size());
+    }
+
+    @Test
+    public void testConsecutivePages() throws IOException {
+        ColumnarCachedResultsReader reader = new ColumnarCachedResultsReader(directory);
+        ColumnarCachedResultsReader.Selection selection = reader.select("user", null, "COLOR, SIZE");
+        List<Map<String,String>> expected = selection.getRows(0, selection.size(), null);
+
+        List<Map<String,String>> paged = new ArrayList<>();
+        for (int begin = 0; begin < selection.size(); begin += 7) {
+            // alternate the columns, so that decoded segments are only reused for the same columns
+            List<String> columns = (begin / 7) % 2 == 0 ? null : new ArrayList<>(reader.getColumnNames());
+            paged.addAll(selection.getRows(begin, begin + 7, columns));
+        }
+        assertEquals(expected, paged);
+    }
+
+    @Test
+    public void testPageReusesDecodedSegments() throws IOException {
+        ColumnarCachedResultsReader reader = new ColumnarCachedResultsReader(directory);
+        ColumnarCachedResultsReader.Selection selection = reader.select("user", null, null);
+        List<Map<String,String>> page = selection.getRows(0, 10, null);
+
+        // the segments of the last page are not read again
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.collect(Collectors.toList())) {
+                if (!file.getFileName().toString().equals(ColumnarCachedResultsWriter.MANIFEST)) {
+                    Files.delete(file);
+                }
+            }
+        }
+        assertEquals(page, selection.getRows(0, 10, null));
+        assertEquals(page.subList(2, 5), selection.getRows(2, 5, null));
+    }
+
+    @Test
+    public void testUnsupported() throws IOException {
+        ColumnarCachedResultsReader reader = new ColumnarCachedResultsReader(directory);
+        for (String conditions : Arrays.asList("COLOR = 'red' OR COLOR = 'blue'", "(COLOR = 'red')", "SIZE > 5", "COLOR LIKE 'r%'", "NOPE = 'x'",
+                        "COLOR = 'red")) {
+            try {
+                reader.select("user", conditions, null);
+                throw new AssertionError("Expected " + conditions + " to be unsupported");
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+        try {
+            reader.select("user", null, "count(COLOR)");
+            throw new AssertionError("Expected a function to be unsupported");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testAbort() throws IOException {
+        Path aborted = folder.getRoot().toPath().resolve("v2");
+        try (ColumnarCachedResultsWriter writer = new ColumnarCachedResultsWriter(aborted, 2)) {
+            for (Map<String,String> row : rows.subList(0, 5)) {
+                writer.add(row);
+            }
+            assertTrue(Files.isDirectory(aborted));
+            assertFalse(ColumnarCachedResultsReader.exists(aborted));
+        }
+        assertFalse(Files.exists(aborted));
+        assertTrue(ColumnarCachedResultsReader.exists(directory));
+    }
+
+    private void assertSelected(ColumnarCachedResultsReader reader, String conditions, String order, Predicate<Map<String,String>> filter,
+                    Comparator<Map<String,String>> comparator) throws IOException {
+        ColumnarCachedResultsReader.Selection selection = reader.select(null, conditions, order);
+        List<String> expected = sorted(filter, comparator).stream().map(r -> r.get("_eventId_") + r.get("COLOR") + r.get("SIZE")).collect(Collectors.toList());
+        List<String> actual = selection.getRows(0, selection.size(), null).stream().map(r -> r.get("_eventId_") + r.get("COLOR") + r.get("SIZE"))
+                        .collect(Collectors.toList());
+        assertEquals(conditions + " " + order, expected, actual);
+    }
+
+    private List<Map<String,String>> sorted(Predicate<Map<String,String>> filter, Comparator<Map<String,String>> comparator) {
+        // a stable sort, like the reader's
+        return rows.stream().filter(filter).sorted(comparator).collect(Collectors.toList());
+    }
+}
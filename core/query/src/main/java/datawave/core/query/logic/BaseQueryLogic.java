@@ -40,6 +40,7 @@ public abstract class BaseQueryLogic<T> implements QueryLogic<T> {
     protected Iterator<T> iterator = (Iterator<T>) Collections.emptyList().iterator();
     private int maxPageSize = 0;
     private long pageByteTrigger = 0;
+    private int prefetchDepth = 1;
     private boolean collectQueryMetrics = true;
     private Set<String> authorizedDNs;
 
@@ -76,6 +77,7 @@ public abstract class BaseQueryLogic<T> implements QueryLogic<T> {
         this.iterator = other.iterator;
         setMaxPageSize(other.getMaxPageSize());
         setPageByteTrigger(other.getPageByteTrigger());
+        setPrefetchDepth(other.getPrefetchDepth());
         setCollectQueryMetrics(other.getCollectQueryMetrics());
         this.authorizedDNs = other.authorizedDNs;
         setRequiredRoles(other.getRequiredRoles());
@@ -212,6 +214,20 @@ public abstract class BaseQueryLogic<T> implements QueryLogic<T> {
         this.pageByteTrigger = pageByteTrigger;
     }
 
+    /**
+     * The number of results a running query may read ahead of its next call. With a depth above 1, results are read on a shared thread while pages are
+     * assembled and returned. Long running queries always read ahead, by at least one result.
+     *
+     * @return the prefetch depth
+     */
+    public int getPrefetchDepth() {
+        return prefetchDepth;
+    }
+
+    public void setPrefetchDepth(int prefetchDepth) {
+        this.prefetchDepth = prefetchDepth;
+    }
+
     @Override
     public int getBaseIteratorPriority() {
         return getConfig().getBaseIteratorPriority();
@@ -21,6 +21,16 @@ public interface QueryLogicTransformer<I,O> extends Transformer<I,O> {
      */
     BaseQueryResponse createResponse(ResultsPage resultList);
 
+    /**
+     * Whether the response created for a page holds the transformed results of the page as they are, so that each result may be written as soon as it is
+     * transformed rather than once the page is complete. Transformers which aggregate or enrich the page are not streamable.
+     *
+     * @return true if the results of a page may be written before the page is complete
+     */
+    default boolean isStreamable() {
+        return false;
+    }
+
     /**
      * Transforms the input object (leaving it unchanged) into some output object.
      *
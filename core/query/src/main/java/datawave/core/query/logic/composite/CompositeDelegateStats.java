@@ -0,0 +1,74 @@
+package datawave.core.query.logic.composite;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The throughput of a single delegate of a {@link CompositeQueryLogic}. A delegate is producing while it holds a thread reading results from its query logic,
+ * and is stalled while its buffer is full and it is waiting for the results to be taken.
+ */
+public class CompositeDelegateStats {
+
+    private final String logicName;
+    private final AtomicLong resultCount = new AtomicLong();
+    private final AtomicLong producingNanos = new AtomicLong();
+    private final AtomicLong stalledNanos = new AtomicLong();
+    private volatile boolean finished = false;
+
+    public CompositeDelegateStats(String logicName) {
+        this.logicName = logicName;
+    }
+
+    public String getLogicName() {
+        return logicName;
+    }
+
+    public long getResultCount() {
+        return resultCount.get();
+    }
+
+    public long getProducingMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(producingNanos.get());
+    }
+
+    public long getStalledMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(stalledNanos.get());
+    }
+
+    /**
+     * @return the results produced per second of producing time
+     */
+    public double getResultsPerSecond() {
+        long nanos = producingNanos.get();
+        return nanos == 0 ? 0.0 : resultCount.get() * (double) TimeUnit.SECONDS.toNanos(1) / nanos;
+    }
+
+    /**
+     * @return true if the delegate has no more results to produce
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    void addResult() {
+        resultCount.incrementAndGet();
+    }
+
+    void addProducingNanos(long nanos) {
+        producingNanos.addAndGet(nanos);
+    }
+
+    void addStalledNanos(long nanos) {
+        stalledNanos.addAndGet(nanos);
+    }
+
+    void setFinished() {
+        this.finished = true;
+    }
+
+    @Override
+    public String toString() {
+        return logicName + ": " + getResultCount() + " results in " + getProducingMillis() + " ms, stalled " + getStalledMillis() + " ms"
+                        + (finished ? ", finished" : "");
+    }
+}
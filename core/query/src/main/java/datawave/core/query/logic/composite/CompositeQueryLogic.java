@@ -13,6 +13,11 @@ import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.accumulo.core.client.AccumuloClient;
 import org.apache.accumulo.core.security.Authorizations;
@@ -50,20 +55,46 @@ import datawave.webservice.result.BaseResponse;
  */
 public class CompositeQueryLogic extends BaseQueryLogic<Object> implements CheckpointableQueryLogic {
 
-    private class QueryLogicHolder extends Thread {
+    public static final int DEFAULT_MAX_DELEGATE_THREADS = 100;
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
+    // shared by the delegates of every composite query in the JVM, a delegate only holds a thread while there is room in its buffer
+    private static final ThreadPoolExecutor delegateExecutor = createDelegateExecutor();
+
+    private static ThreadPoolExecutor createDelegateExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(DEFAULT_MAX_DELEGATE_THREADS, DEFAULT_MAX_DELEGATE_THREADS, 5, TimeUnit.MINUTES,
+                        new LinkedBlockingQueue<>(), r -> {
+                            Thread thread = new Thread(r, "CompositeQueryLogic-delegate-" + threadCount.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private class QueryLogicHolder implements Runnable {
         private String logicName;
         private QueryLogic<?> logic;
         private TransformIterator transformIterator;
 
         private Query settings;
-        private boolean started = false;
+        private volatile boolean started = false;
+        private volatile boolean produced = false;
         private long maxResults;
+        private long resultCount = 0L;
+        private String name;
+
+        private CompositeQueryLogicResults.DelegateBuffer buffer;
+        private volatile Future<?> future;
+        private boolean released = false;
+        // the number of runs in progress, guarded by this holder
+        private int running = 0;
 
         public QueryLogicHolder(String logicName, QueryLogic<?> logic) {
-            this.setDaemon(true);
             this.setLogicName(logicName);
             this.setLogic(logic);
-            this.setName(Thread.currentThread().getName() + "-CompositeQueryLogic-" + logicName);
+            this.name = Thread.currentThread().getName() + "-CompositeQueryLogic-" + logicName;
         }
 
         public boolean wasStarted() {
@@ -106,69 +137,156 @@ public class CompositeQueryLogic extends BaseQueryLogic<Object> implements Check
             this.settings = settings;
         }
 
-        public void run() {
-            long resultCount = 0L;
+        public String getName() {
+            return name;
+        }
 
-            log.debug("Starting thread: " + this.getName());
+        public CompositeDelegateStats getStats() {
+            return buffer != null ? buffer.getStats() : null;
+        }
 
-            if (!started) {
-                startLatch.countDown();
-                started = true;
+        /**
+         * Start reading results from the delegate into its buffer in the results. The delegate counts as started once it is submitted, as it may have to wait
+         * for a thread held by the delegates of other composite queries.
+         */
+        public void start() {
+            log.debug("Starting delegate: " + this.getName());
+            started = true;
+            if (this.getMaxResults() <= 0)
+                this.setMaxResults(Long.MAX_VALUE);
+            this.buffer = results.addDelegate(logicName, this::schedule);
+            schedule();
+            startLatch.countDown();
+        }
+
+        private void schedule() {
+            future = delegateExecutor.submit(this);
+        }
+
+        /**
+         * Read results into the buffer until it is full, the delegate is exhausted, or the composite query is closed. When the buffer is full, the thread is
+         * given back and this is scheduled again once a result has been taken.
+         */
+        public void run() {
+            synchronized (this) {
+                running++;
+            }
+            try {
+                produce();
+            } finally {
+                synchronized (this) {
+                    running--;
+                    notifyAll();
+                }
             }
+        }
 
-            // ensure we start with a reasonable page time
-            resetPageProcessingStartTime();
+        private void produce() {
+            Thread thread = Thread.currentThread();
+            String threadName = thread.getName();
+            thread.setName(name);
+            long start = System.nanoTime();
 
-            // the results queue is also an exception handler
-            setUncaughtExceptionHandler(results);
-            boolean success = false;
+            if (!produced) {
+                produced = true;
+                // ensure we start with a reasonable page time
+                resetPageProcessingStartTime();
+            }
 
+            boolean finished = false;
             try {
-                Object last = new Object();
-                if (this.getMaxResults() <= 0)
-                    this.setMaxResults(Long.MAX_VALUE);
-                // allow us to get 1 more than maxResults so that the RunningQuery can detect the MAX_RESULTS condition.
-                while ((null != last) && !interrupted && transformIterator.hasNext() && (resultCount <= this.getMaxResults())) {
+                while (!interrupted) {
+                    // if the buffer is full, then give back the thread until a result is taken
+                    if (!buffer.hasRoom()) {
+                        log.trace(getName() + ": Buffer full, stalling");
+                        return;
+                    }
+
+                    // allow us to get 1 more than maxResults so that the RunningQuery can detect the MAX_RESULTS condition.
+                    if (!transformIterator.hasNext() || resultCount > this.getMaxResults()) {
+                        break;
+                    }
+
                     try {
-                        last = transformIterator.next();
-                        if (null != last) {
-                            log.debug(Thread.currentThread().getName() + ": Got result");
-
-                            // special logic to deal with intermediate results
-                            if (last instanceof EventBase && ((EventBase) last).isIntermediateResult()) {
-                                // reset the page processing time to avoid getting spammed with these
-                                resetPageProcessingStartTime();
-                                // let the RunningQuery handle timeouts for long-running queries
-                                log.debug(Thread.currentThread().getName() + ": received intermediate result");
-                            } else {
-                                results.add(last);
-                                resultCount++;
-                                log.debug(Thread.currentThread().getName() + ": Added result to queue");
-                            }
-                        } else {
-                            log.debug(Thread.currentThread().getName() + ": Got null result");
-                        }
-                    } catch (InterruptedException e) {
-                        // if this was on purpose, then just log and the loop will naturally exit
-                        if (interrupted) {
-                            log.warn("QueryLogic thread interrupted", e);
+                        Object last = transformIterator.next();
+                        if (null == last) {
+                            log.debug(getName() + ": Got null result");
+                            break;
                         }
-                        // otherwise something else unexpected happened
-                        else {
-                            throw new RuntimeException(e);
+
+                        log.debug(getName() + ": Got result");
+
+                        // special logic to deal with intermediate results
+                        if (last instanceof EventBase && ((EventBase) last).isIntermediateResult()) {
+                            // reset the page processing time to avoid getting spammed with these
+                            resetPageProcessingStartTime();
+                            // let the RunningQuery handle timeouts for long-running queries
+                            log.debug(getName() + ": received intermediate result");
+                        } else {
+                            buffer.add(last);
+                            resultCount++;
+                            log.debug(getName() + ": Added result to buffer");
                         }
                     } catch (EmptyObjectException eoe) {
                         // ignore these
                     }
                 }
-                success = true;
+                finished = true;
             } catch (Exception e) {
-                throw new CompositeLogicException("Failed to retrieve results", getLogicName(), e);
+                // a closed query may have interrupted the delegate, otherwise pass the failure on to the results, which are also an exception handler
+                if (interrupted) {
+                    log.warn("QueryLogic delegate interrupted", e);
+                } else {
+                    results.uncaughtException(thread, new CompositeLogicException("Failed to retrieve results", getLogicName(), e));
+                }
             } finally {
-                if (success) {
-                    completionLatch.countDown();
+                buffer.getStats().addProducingNanos(System.nanoTime() - start);
+                thread.setName(threadName);
+            }
+
+            if (finished) {
+                completionLatch.countDown();
+                buffer.finish();
+                // this delegate is done, so release its resources rather than waiting for the composite query to be closed
+                release();
+                log.debug("Finished delegate: " + this.getName() + " with " + buffer.getStats());
+            } else {
+                log.debug("Failed delegate: " + this.getName());
+            }
+        }
+
+        /**
+         * Close the delegate query logic, if it has not already been closed.
+         */
+        public synchronized void release() {
+            if (!released) {
+                released = true;
+                transformIterator = null;
+                try {
+                    logic.close();
+                } catch (Exception e) {
+                    log.warn("Failed to close " + getLogicName(), e);
+                }
+            }
+        }
+
+        /**
+         * Stop reading results, interrupting the delegate if it is waiting on its query logic, and wait for it to give back its thread.
+         */
+        public void cancel() {
+            Future<?> current = future;
+            if (current != null) {
+                current.cancel(true);
+            }
+            synchronized (this) {
+                try {
+                    while (running > 0) {
+                        wait();
+                    }
+                } catch (InterruptedException e) {
+                    log.error("Interrupted waiting for query logic delegate " + getLogicName(), e);
+                    Thread.currentThread().interrupt();
                 }
-                log.debug("Finished thread: " + this.getName() + " with success = " + success);
             }
         }
 
@@ -325,7 +443,9 @@ public class CompositeQueryLogic extends BaseQueryLogic<Object> implements Check
 
             // if results is already set, then we were merely adding a new query logic to the mix
             if (this.results == null) {
-                this.results = new CompositeQueryLogicResults(this, Math.min(settings.getPagesize() * 2, 1000));
+                // split the results buffered for a page between the delegates
+                int capacity = Math.min(settings.getPagesize() * 2, 1000);
+                this.results = new CompositeQueryLogicResults(this, capacity / Math.max(1, logicState.size()));
             }
 
             if (log.isDebugEnabled()) {
@@ -410,9 +530,9 @@ public class CompositeQueryLogic extends BaseQueryLogic<Object> implements Check
             }
         }
 
-        // Wait until all threads have started
+        // Wait until all delegates have started
         startLatch.await();
-        log.trace("All threads have started.");
+        log.trace("All delegates have started.");
     }
 
     @Override
@@ -476,20 +596,20 @@ public class CompositeQueryLogic extends BaseQueryLogic<Object> implements Check
     public void close() {
         this.interrupted = true;
         for (QueryLogicHolder holder : logicState.values()) {
-            holder.getLogic().close();
-            holder.interrupt();
+            holder.release();
         }
         for (QueryLogicHolder holder : logicState.values()) {
-            try {
-                holder.join();
-            } catch (InterruptedException e) {
-                log.error("Error joining query logic thread", e);
-                throw new RuntimeException("Error joining query logic thread", e);
-            }
+            holder.cancel();
         }
         logicState.clear();
-        if (null != results)
+        if (null != results) {
+            // record how each delegate kept up, which is otherwise lost with the results
+            Map<String,CompositeDelegateStats> stats = results.getDelegateStats();
+            if (!stats.isEmpty()) {
+                log.info("Closing " + getLogicName() + " with delegate stats " + stats.values());
+            }
             results.clear();
+        }
     }
 
     public Map<String,QueryLogic<?>> getQueryLogics() {
@@ -765,6 +885,37 @@ public class CompositeQueryLogic extends BaseQueryLogic<Object> implements Check
         getConfig().setShortCircuitExecution(shortCircuit);
     }
 
+    /**
+     * @return the most threads shared by the delegates of every composite query in the JVM
+     */
+    public int getMaxDelegateThreads() {
+        return delegateExecutor.getMaximumPoolSize();
+    }
+
+    /**
+     * Set the most threads shared by the delegates of every composite query in the JVM, whatever query logic they belong to. Delegates beyond this wait for a
+     * thread, which a delegate gives back whenever its buffer is full or it has no more results. The pool is shared, so the value set last applies to every
+     * composite query logic, and each of them should be configured with the same value.
+     *
+     * @param maxDelegateThreads
+     *            the most delegate threads
+     */
+    public void setMaxDelegateThreads(int maxDelegateThreads) {
+        if (maxDelegateThreads < 1) {
+            throw new IllegalArgumentException("The max delegate threads must be at least 1: " + maxDelegateThreads);
+        }
+        synchronized (delegateExecutor) {
+            // the max may not drop below the core size, so raise the max first when growing and lower the core first when shrinking
+            if (delegateExecutor.getMaximumPoolSize() < maxDelegateThreads) {
+                delegateExecutor.setMaximumPoolSize(maxDelegateThreads);
+                delegateExecutor.setCorePoolSize(maxDelegateThreads);
+            } else {
+                delegateExecutor.setCorePoolSize(maxDelegateThreads);
+                delegateExecutor.setMaximumPoolSize(maxDelegateThreads);
+            }
+        }
+    }
+
     public Query getSettings() {
         return getConfig().getQuery();
     }
@@ -780,4 +931,13 @@ public class CompositeQueryLogic extends BaseQueryLogic<Object> implements Check
     public CountDownLatch getCompletionLatch() {
         return completionLatch;
     }
+
+    /**
+     * Get the throughput of each delegate that has been started.
+     *
+     * @return the stats by logic name
+     */
+    public Map<String,CompositeDelegateStats> getDelegateStats() {
+        return results != null ? results.getDelegateStats() : Collections.emptyMap();
+    }
 }
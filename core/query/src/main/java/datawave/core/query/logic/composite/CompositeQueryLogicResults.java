@@ -1,54 +1,242 @@
 package datawave.core.query.logic.composite;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.commons.collections4.keyvalue.UnmodifiableMapEntry;
 
+/**
+ * The results of the delegates of a {@link CompositeQueryLogic}. Each delegate has its own bounded buffer, so a fast delegate cannot crowd out a slow one, and
+ * results are taken from the delegates in turn. A delegate whose buffer is full gives up its thread, and is resumed once a result is taken from its buffer.
+ */
 public class CompositeQueryLogicResults implements Iterable<Object>, Thread.UncaughtExceptionHandler {
 
+    /**
+     * The buffer of a single delegate.
+     */
+    class DelegateBuffer {
+        private final ArrayDeque<Object> results = new ArrayDeque<>();
+        private final CompositeDelegateStats stats;
+        // schedules the delegate again when it is stalled and room is made in the buffer
+        private final Runnable resume;
+        private boolean finished = false;
+        // the time the delegate stalled on a full buffer, or -1 if it is not stalled
+        private long stalledAt = -1;
+
+        DelegateBuffer(String logicName, Runnable resume) {
+            this.stats = new CompositeDelegateStats(logicName);
+            this.resume = resume;
+        }
+
+        /**
+         * Determine whether the delegate may add another result. If not, then the delegate is stalled and will be resumed when a result is taken.
+         *
+         * @return true if there is room in the buffer
+         */
+        boolean hasRoom() {
+            lock.lock();
+            try {
+                if (results.size() < capacity) {
+                    return true;
+                }
+                stalledAt = System.nanoTime();
+                return false;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void add(Object object) {
+            lock.lock();
+            try {
+                results.add(object);
+                stats.addResult();
+                available.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Mark the delegate as having no more results.
+         */
+        void finish() {
+            lock.lock();
+            try {
+                finished = true;
+                stats.setFinished();
+                available.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        CompositeDelegateStats getStats() {
+            return stats;
+        }
+    }
+
     private final CompositeQueryLogic logic;
-    private final ArrayBlockingQueue<Object> results;
+    private final int capacity;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final List<DelegateBuffer> buffers = new ArrayList<>();
+    // the buffer to take the next result from, if it has one
+    private int cursor = 0;
     private final List<Thread.UncaughtExceptionHandler> handlers;
     private final List<Map.Entry<Thread,Throwable>> exceptions;
 
     public CompositeQueryLogicResults() {
-        this.logic = null;
-        this.results = new ArrayBlockingQueue<>(1);
-        this.handlers = new ArrayList<>();
-        this.exceptions = new ArrayList<>();
+        this(null, 1);
     }
 
-    public CompositeQueryLogicResults(CompositeQueryLogic logic, int pagesize) {
+    /**
+     * @param logic
+     *            the composite query logic
+     * @param capacity
+     *            the most results buffered for each delegate
+     */
+    public CompositeQueryLogicResults(CompositeQueryLogic logic, int capacity) {
         this.logic = logic;
-        this.results = new ArrayBlockingQueue<>(pagesize);
+        this.capacity = Math.max(1, capacity);
         this.handlers = new ArrayList<>();
         this.exceptions = new ArrayList<>();
     }
 
-    public void add(Object object) throws InterruptedException {
-        this.results.put(object);
+    /**
+     * Add the buffer for a delegate.
+     *
+     * @param logicName
+     *            the name of the delegate
+     * @param resume
+     *            schedules the delegate again after it has stalled on a full buffer
+     * @return the buffer
+     */
+    DelegateBuffer addDelegate(String logicName, Runnable resume) {
+        lock.lock();
+        try {
+            DelegateBuffer buffer = new DelegateBuffer(logicName, resume);
+            buffers.add(buffer);
+            return buffer;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Take the next result, taking from each delegate that has results in turn.
+     *
+     * @param timeout
+     *            the longest to wait for a result
+     * @param unit
+     *            the unit of the timeout
+     * @return the next result, or null if no result was available in time
+     * @throws InterruptedException
+     *             if interrupted while waiting
+     */
+    public Object poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long remaining = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (true) {
+                for (int i = 0, size = buffers.size(); i < size; i++) {
+                    int index = (cursor + i) % size;
+                    DelegateBuffer buffer = buffers.get(index);
+                    if (!buffer.results.isEmpty()) {
+                        cursor = (index + 1) % size;
+                        Object result = buffer.results.poll();
+                        if (buffer.stalledAt >= 0) {
+                            buffer.stats.addStalledNanos(System.nanoTime() - buffer.stalledAt);
+                            buffer.stalledAt = -1;
+                            buffer.resume.run();
+                        }
+                        return result;
+                    }
+                }
+                if (remaining <= 0 || isFinished()) {
+                    return null;
+                }
+                remaining = available.awaitNanos(remaining);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // must be called while holding the lock
+    private boolean isFinished() {
+        for (DelegateBuffer buffer : buffers) {
+            if (!buffer.finished) {
+                return false;
+            }
+        }
+        return true;
     }
 
     public void clear() {
-        this.results.clear();
+        lock.lock();
+        try {
+            for (DelegateBuffer buffer : buffers) {
+                buffer.results.clear();
+            }
+        } finally {
+            lock.unlock();
+        }
     }
 
     public int size() {
-        return results.size();
+        lock.lock();
+        try {
+            int size = 0;
+            for (DelegateBuffer buffer : buffers) {
+                size += buffer.results.size();
+            }
+            return size;
+        } finally {
+            lock.unlock();
+        }
     }
 
     public boolean contains(Object o) {
-        return results.contains(o);
+        lock.lock();
+        try {
+            for (DelegateBuffer buffer : buffers) {
+                if (buffer.results.contains(o)) {
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the stats of each delegate, in the order the delegates were added
+     */
+    public Map<String,CompositeDelegateStats> getDelegateStats() {
+        lock.lock();
+        try {
+            Map<String,CompositeDelegateStats> stats = new LinkedHashMap<>();
+            for (DelegateBuffer buffer : buffers) {
+                stats.put(buffer.stats.getLogicName(), buffer.stats);
+            }
+            return stats;
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
     public Iterator<Object> iterator() {
-        CompositeQueryLogicResultsIterator it = new CompositeQueryLogicResultsIterator(logic, this.results);
+        CompositeQueryLogicResultsIterator it = new CompositeQueryLogicResultsIterator(logic, this);
         synchronized (handlers) {
             // first pass any exceptions we have already seen
             for (Map.Entry<Thread,Throwable> exception : exceptions) {
@@ -70,5 +258,12 @@ public class CompositeQueryLogicResults implements Iterable<Object>, Thread.Unca
                 handler.uncaughtException(t, e);
             }
         }
+        // wake up anything waiting on a result
+        lock.lock();
+        try {
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
     }
 }
@@ -1,7 +1,6 @@
 package datawave.core.query.logic.composite;
 
 import java.util.Iterator;
-import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.log4j.Logger;
@@ -17,13 +16,13 @@ public class CompositeQueryLogicResultsIterator implements Iterator<Object>, Thr
 
     private final CompositeQueryLogic logic;
 
-    private final ArrayBlockingQueue<Object> results;
+    private final CompositeQueryLogicResults results;
     private Object nextEntry = null;
     private boolean seenEntries = false;
     private final Object lock = new Object();
     private volatile Throwable failure = null;
 
-    public CompositeQueryLogicResultsIterator(CompositeQueryLogic logic, ArrayBlockingQueue<Object> results) {
+    public CompositeQueryLogicResultsIterator(CompositeQueryLogic logic, CompositeQueryLogicResults results) {
         this.logic = logic;
         this.results = results;
     }
@@ -39,7 +38,7 @@ public class CompositeQueryLogicResultsIterator implements Iterator<Object>, Thr
                     if (failure != null) {
                         Throwables.propagate(failure);
                     }
-                    while (nextEntry == null && failure == null && (!results.isEmpty() || logic.getCompletionLatch().getCount() > 0)) {
+                    while (nextEntry == null && failure == null && (results.size() > 0 || logic.getCompletionLatch().getCount() > 0)) {
                         nextEntry = results.poll(1, TimeUnit.SECONDS);
                     }
                     if (failure != null) {
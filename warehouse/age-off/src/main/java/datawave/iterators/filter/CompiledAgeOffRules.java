@@ -0,0 +1,396 @@
+package datawave.iterators.filter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.log4j.Logger;
+
+import datawave.iterators.filter.ageoff.AppliedRule;
+
+/**
+ * The rules of a {@link ConfigurableAgeOffFilter} compiled for evaluation, so that the ttl of a key is resolved without decoding its columns into strings or
+ * running a regex matcher per rule.
+ * <p>
+ * Consecutive {@link ColumnFamilyRegexFilter}, {@link ColumnQualifierRegexFilter} and {@link ColumnVisibilityRegexFilter} rules on the same column whose
+ * patterns are plain literals, optionally anchored with {@code ^}, are compiled into a single Aho-Corasick automaton over the bytes of that column. One pass
+ * over the column yields the first rule of the group which matches, exactly as if the rules had been evaluated one by one. Every other rule, including regex
+ * rules whose patterns are not literals, is evaluated as before. The first rule which applies to a key decides whether it is accepted, and the default cutoff
+ * applies when none do.
+ * <p>
+ * Literal patterns must be ASCII, so that matching the UTF-8 bytes of a column is equivalent to matching its decoded string. A compiled rule set is immutable,
+ * but the rules it falls back to are not, so it must not be shared between filters which do not share rules.
+ */
+public final class CompiledAgeOffRules {
+    private static final Logger log = Logger.getLogger(CompiledAgeOffRules.class);
+
+    private static final int NOT_APPLIED = -1;
+    private static final int REJECT = 0;
+    private static final int ACCEPT = 1;
+
+    private static final String METACHARACTERS = ".^$|()[]{}";
+    private static final String QUANTIFIERS = "*?+";
+
+    private final Collection<AppliedRule> source;
+    private final Step[] steps;
+
+    private CompiledAgeOffRules(Collection<AppliedRule> source, Step[] steps) {
+        this.source = source;
+        this.steps = steps;
+    }
+
+    /**
+     * Compile a list of rules.
+     *
+     * @param rules
+     *            the rules, in the order they are to be evaluated
+     * @return the compiled rules
+     */
+    public static CompiledAgeOffRules compile(Collection<AppliedRule> rules) {
+        final List<Step> steps = new ArrayList<>();
+        LiteralGroupBuilder group = null;
+        for (AppliedRule rule : rules) {
+            final KeyField field = KeyField.of(rule);
+            final Literal literal = field == null ? null : Literal.parse(((RegexFilterBase) rule).getPatternString());
+            if (literal == null) {
+                if (group != null) {
+                    steps.add(group.build());
+                    group = null;
+                }
+                steps.add(new RuleStep(rule));
+            } else {
+                if (group != null && group.field != field) {
+                    steps.add(group.build());
+                    group = null;
+                }
+                if (group == null) {
+                    group = new LiteralGroupBuilder(field);
+                }
+                group.add(literal, ((RegexFilterBase) rule).getAgeOffPeriod().getCutOffMilliseconds());
+            }
+        }
+        if (group != null) {
+            steps.add(group.build());
+        }
+
+        if (log.isTraceEnabled()) {
+            log.trace("Compiled " + (rules == null ? 0 : rules.size()) + " age off rules into " + steps.size() + " steps");
+        }
+        return new CompiledAgeOffRules(rules, steps.toArray(new Step[0]));
+    }
+
+    /**
+     * @param rules
+     *            a list of rules
+     * @return true if this was compiled from the specified list
+     */
+    public boolean isCompiledFrom(Collection<AppliedRule> rules) {
+        return source == rules;
+    }
+
+    /**
+     * Determine whether a key should be kept.
+     *
+     * @param k
+     *            the key
+     * @param v
+     *            the value
+     * @param defaultCutOffMillis
+     *            the cutoff used when no rule applies to the key
+     * @return true if the key is kept
+     */
+    public boolean accept(Key k, Value v, long defaultCutOffMillis) {
+        for (Step step : steps) {
+            final int result = step.apply(k, v);
+            if (result != NOT_APPLIED) {
+                return result == ACCEPT;
+            }
+        }
+        return k.getTimestamp() > defaultCutOffMillis;
+    }
+
+    /**
+     * The columns a literal group can match against, and the regex rules which decode them
+     */
+    private enum KeyField {
+        COLUMN_FAMILY, COLUMN_QUALIFIER, COLUMN_VISIBILITY;
+
+        static KeyField of(AppliedRule rule) {
+            // subclasses may decode the column differently, so only the rules themselves are compiled
+            final Class<?> ruleClass = rule.getClass();
+            if (ruleClass == ColumnFamilyRegexFilter.class) {
+                return COLUMN_FAMILY;
+            } else if (ruleClass == ColumnQualifierRegexFilter.class) {
+                return COLUMN_QUALIFIER;
+            } else if (ruleClass == ColumnVisibilityRegexFilter.class) {
+                return COLUMN_VISIBILITY;
+            }
+            return null;
+        }
+
+        ByteSequence get(Key k) {
+            switch (this) {
+                case COLUMN_FAMILY:
+                    return k.getColumnFamilyData();
+                case COLUMN_QUALIFIER:
+                    return k.getColumnQualifierData();
+                default:
+                    return k.getColumnVisibilityData();
+            }
+        }
+    }
+
+    /**
+     * A literal pattern, and whether it is anchored to the start of the column
+     */
+    static final class Literal {
+        final byte[] bytes;
+        final boolean anchored;
+
+        Literal(byte[] bytes, boolean anchored) {
+            this.bytes = bytes;
+            this.anchored = anchored;
+        }
+
+        /**
+         * Parse a regex which matches the same inputs as a literal, optionally anchored with {@code ^}. Escaped punctuation is a literal character, and a
+         * trailing quantifier on the last character is dropped (or for {@code +} ignored), since it does not change which inputs the regex finds a match in.
+         *
+         * @param regex
+         *            the regex
+         * @return the literal, or null if the regex is not a literal
+         */
+        static Literal parse(String regex) {
+            if (regex == null) {
+                return null;
+            }
+
+            final boolean anchored = regex.startsWith("^");
+            final StringBuilder literal = new StringBuilder();
+            for (int i = anchored ? 1 : 0; i < regex.length(); i++) {
+                final char c = regex.charAt(i);
+                if (c > 0x7f) {
+                    return null;
+                } else if (c == '\\') {
+                    if (i + 1 == regex.length() || Character.isLetterOrDigit(regex.charAt(i + 1)) || regex.charAt(i + 1) > 0x7f) {
+                        return null;
+                    }
+                    literal.append(regex.charAt(++i));
+                } else if (QUANTIFIERS.indexOf(c) >= 0) {
+                    if (i + 1 != regex.length() || literal.length() == 0) {
+                        return null;
+                    }
+                    if (c != '+') {
+                        literal.setLength(literal.length() - 1);
+                    }
+                } else if (METACHARACTERS.indexOf(c) >= 0) {
+                    return null;
+                } else {
+                    literal.append(c);
+                }
+            }
+
+            final byte[] bytes = new byte[literal.length()];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = (byte) literal.charAt(i);
+            }
+            return new Literal(bytes, anchored);
+        }
+    }
+
+    private abstract static class Step {
+        abstract int apply(Key k, Value v);
+    }
+
+    /**
+     * A rule which is evaluated on its own
+     */
+    private static final class RuleStep extends Step {
+        private final AppliedRule rule;
+
+        RuleStep(AppliedRule rule) {
+            this.rule = rule;
+        }
+
+        @Override
+        int apply(Key k, Value v) {
+            final boolean accept = rule.accept(k, v);
+            if (!rule.isFilterRuleApplied()) {
+                return NOT_APPLIED;
+            }
+            return accept ? ACCEPT : REJECT;
+        }
+    }
+
+    /**
+     * Consecutive literal rules on one column. The anchored literals form a trie which is walked from the start of the column, and the unanchored literals form
+     * an Aho-Corasick automaton with its failure transitions folded into the transition table. The states of both record the first rule matched on reaching
+     * them, as an index into the cutoffs of the group.
+     */
+    private static final class LiteralGroup extends Step {
+        private final KeyField field;
+        private final long[] cutOffs;
+        private final int charClassCount;
+        private final short[] charClasses;
+        private final int[] anchoredTransitions;
+        private final int[] anchoredMatches;
+        private final int[] transitions;
+        private final int[] matches;
+
+        LiteralGroup(KeyField field, long[] cutOffs, int charClassCount, short[] charClasses, int[] anchoredTransitions, int[] anchoredMatches,
+                        int[] transitions, int[] matches) {
+            this.field = field;
+            this.cutOffs = cutOffs;
+            this.charClassCount = charClassCount;
+            this.charClasses = charClasses;
+            this.anchoredTransitions = anchoredTransitions;
+            this.anchoredMatches = anchoredMatches;
+            this.transitions = transitions;
+            this.matches = matches;
+        }
+
+        @Override
+        int apply(Key k, Value v) {
+            final ByteSequence bytes = field.get(k);
+            int match = Math.min(anchoredMatches[0], matches[0]);
+            int anchoredState = 0;
+            int state = 0;
+            // with no unanchored literals the scan ends with the anchored trie
+            final boolean unanchored = transitions.length > charClassCount;
+            for (int i = 0; i < bytes.length() && match != 0 && (unanchored || anchoredState >= 0); i++) {
+                final int charClass = charClasses[0xff & bytes.byteAt(i)];
+                if (anchoredState >= 0) {
+                    anchoredState = anchoredTransitions[anchoredState * charClassCount + charClass];
+                    if (anchoredState >= 0 && anchoredMatches[anchoredState] < match) {
+                        match = anchoredMatches[anchoredState];
+                    }
+                }
+                state = transitions[state * charClassCount + charClass];
+                if (matches[state] < match) {
+                    match = matches[state];
+                }
+            }
+
+            if (match == Integer.MAX_VALUE) {
+                return NOT_APPLIED;
+            }
+            return k.getTimestamp() > cutOffs[match] ? ACCEPT : REJECT;
+        }
+    }
+
+    private static final class LiteralGroupBuilder {
+        private final KeyField field;
+        private final List<Long> cutOffs = new ArrayList<>();
+        private final Trie anchored = new Trie();
+        private final Trie unanchored = new Trie();
+
+        LiteralGroupBuilder(KeyField field) {
+            this.field = field;
+        }
+
+        void add(Literal literal, long cutOff) {
+            (literal.anchored ? anchored : unanchored).add(literal.bytes, cutOffs.size());
+            cutOffs.add(cutOff);
+        }
+
+        LiteralGroup build() {
+            // only the bytes which appear in a literal get a character class, every other byte shares class 0
+            final short[] charClasses = new short[256];
+            short charClassCount = 1;
+            for (Trie trie : Arrays.asList(anchored, unanchored)) {
+                for (Map<Byte,Integer> children : trie.children) {
+                    for (byte b : children.keySet()) {
+                        if (charClasses[0xff & b] == 0) {
+                            charClasses[0xff & b] = charClassCount++;
+                        }
+                    }
+                }
+            }
+
+            final int[] anchoredTransitions = new int[anchored.size() * charClassCount];
+            Arrays.fill(anchoredTransitions, -1);
+            for (int state = 0; state < anchored.size(); state++) {
+                for (Map.Entry<Byte,Integer> child : anchored.children.get(state).entrySet()) {
+                    anchoredTransitions[state * charClassCount + charClasses[0xff & child.getKey()]] = child.getValue();
+                }
+            }
+
+            // breadth first, so that the failure state of every state has been completed before the state itself
+            final int[] transitions = new int[unanchored.size() * charClassCount];
+            final int[] matches = unanchored.matches();
+            final int[] failures = new int[unanchored.size()];
+            final byte[] representatives = new byte[charClassCount];
+            for (int b = 255; b >= 0; b--) {
+                representatives[charClasses[b]] = (byte) b;
+            }
+            final Queue<Integer> queue = new ArrayDeque<>();
+            queue.add(0);
+            while (!queue.isEmpty()) {
+                final int state = queue.poll();
+                final Map<Byte,Integer> children = unanchored.children.get(state);
+                for (int charClass = 0; charClass < charClassCount; charClass++) {
+                    final Integer child = charClass == 0 ? null : children.get(representatives[charClass]);
+                    final int fallback = state == 0 ? 0 : transitions[failures[state] * charClassCount + charClass];
+                    if (child == null) {
+                        transitions[state * charClassCount + charClass] = fallback;
+                    } else {
+                        failures[child] = fallback;
+                        matches[child] = Math.min(matches[child], matches[fallback]);
+                        transitions[state * charClassCount + charClass] = child;
+                        queue.add(child);
+                    }
+                }
+            }
+
+            final long[] cutOffArray = new long[cutOffs.size()];
+            for (int i = 0; i < cutOffArray.length; i++) {
+                cutOffArray[i] = cutOffs.get(i);
+            }
+            return new LiteralGroup(field, cutOffArray, charClassCount, charClasses, anchoredTransitions, anchored.matches(), transitions, matches);
+        }
+    }
+
+    /**
+     * A trie of literals, where each state records the first literal which ends at it
+     */
+    private static final class Trie {
+        private final List<Map<Byte,Integer>> children = new ArrayList<>();
+        private final List<Integer> firstMatches = new ArrayList<>();
+
+        Trie() {
+            children.add(new HashMap<>());
+            firstMatches.add(Integer.MAX_VALUE);
+        }
+
+        int size() {
+            return children.size();
+        }
+
+        void add(byte[] literal, int index) {
+            int state = 0;
+            for (byte b : literal) {
+                Integer next = children.get(state).get(b);
+                if (next == null) {
+                    next = children.size();
+                    children.add(new HashMap<>());
+                    firstMatches.add(Integer.MAX_VALUE);
+                    children.get(state).put(b, next);
+                }
+                state = next;
+            }
+            firstMatches.set(state, Math.min(firstMatches.get(state), index));
+        }
+
+        int[] matches() {
+            return firstMatches.stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+}
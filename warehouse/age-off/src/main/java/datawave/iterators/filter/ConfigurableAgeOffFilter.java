@@ -4,7 +4,6 @@ import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
@@ -120,6 +119,9 @@ public class ConfigurableAgeOffFilter extends Filter implements OptionDescriber
 
     protected Collection<AppliedRule> filterList;
 
+    // filterList compiled for evaluation, see CompiledAgeOffRules
+    private CompiledAgeOffRules compiledRules;
+
     protected long cutOffDateMillis;
     protected long scanStart;
 
@@ -171,24 +173,15 @@ public class ConfigurableAgeOffFilter extends Filter implements OptionDescriber
         if (timeStamp > this.shortCircuitDateMillis)
             return true;
 
-        boolean acceptFlag = false;
-        boolean filterRuleApplied = false;
-
-        Iterator<AppliedRule> iter = this.filterList.iterator();
-
-        while ((!filterRuleApplied) && iter.hasNext()) {
-            AppliedRule filter = iter.next();
-            acceptFlag = filter.accept(k, v);
-            filterRuleApplied = filter.isFilterRuleApplied();
-        }
-
-        // We went through all of the defined filter rules
-        // and none were used, let's apply the default TTL
-        if (!filterRuleApplied) {
-            acceptFlag = timeStamp > this.cutOffDateMillis;
+        // the rules are compiled on first use, and again whenever the rule list is replaced
+        CompiledAgeOffRules rules = this.compiledRules;
+        if (rules == null || !rules.isCompiledFrom(this.filterList)) {
+            rules = CompiledAgeOffRules.compile(this.filterList);
+            this.compiledRules = rules;
         }
 
-        return acceptFlag;
+        // the first rule which applies decides, and the default TTL applies when none do
+        return rules.accept(k, v, this.cutOffDateMillis);
 
     }
 
@@ -134,6 +134,20 @@ public abstract class RegexFilterBase extends AppliedRule {
         return ruleApplied;
     }
 
+    /**
+     * @return the regex this rule matches, used by {@link CompiledAgeOffRules} to compile literal patterns
+     */
+    String getPatternString() {
+        return patternStr;
+    }
+
+    /**
+     * @return the age off period of this rule
+     */
+    AgeOffPeriod getAgeOffPeriod() {
+        return getPeriod();
+    }
+
     @Override
     public String toString() {
         return this.getClass().getSimpleName() + " [patternStr=" + patternStr + ", cutOffDateMillis=" + getPeriod().getCutOffMilliseconds() + "]";
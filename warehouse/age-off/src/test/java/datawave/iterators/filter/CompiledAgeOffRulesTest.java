@@ -0,0 +1,177 @@
+package datawave.iterators.filter;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.junit.Test;
+
+import datawave.iterators.filter.ageoff.AppliedRule;
+import datawave.iterators.filter.ageoff.FilterOptions;
+
+public class CompiledAgeOffRulesTest {
+
+    private static final long MILLIS_IN_DAY = 1000L * 60 * 60 * 24L;
+    private static final Value VALUE = new Value();
+
+    private final long now = System.currentTimeMillis();
+
+    @Test
+    public void testParseLiteral() {
+        assertLiteral("foo", false, "foo");
+        assertLiteral("^foo", true, "foo");
+        assertLiteral("", false, "");
+        assertLiteral("^", true, "");
+        assertLiteral("foo\\.bar", false, "foo.bar");
+        assertLiteral("foo*", false, "fo");
+        assertLiteral("foo?", false, "fo");
+        assertLiteral("foo+", false, "foo");
+        assertLiteral("^fo\\.*", true, "fo");
+        assertLiteral("a_b-c:d", false, "a_b-c:d");
+
+        assertNull(CompiledAgeOffRules.Literal.parse(null));
+        assertNull(CompiledAgeOffRules.Literal.parse("foo.*"));
+        assertNull(CompiledAgeOffRules.Literal.parse("foo$"));
+        assertNull(CompiledAgeOffRules.Literal.parse("foo|bar"));
+        assertNull(CompiledAgeOffRules.Literal.parse("f[o]o"));
+        assertNull(CompiledAgeOffRules.Literal.parse("fo{2}"));
+        assertNull(CompiledAgeOffRules.Literal.parse("(foo)"));
+        assertNull(CompiledAgeOffRules.Literal.parse("\\dfoo"));
+        assertNull(CompiledAgeOffRules.Literal.parse("fo*o"));
+        assertNull(CompiledAgeOffRules.Literal.parse("foo*?"));
+        assertNull(CompiledAgeOffRules.Literal.parse("foo\\"));
+        assertNull(CompiledAgeOffRules.Literal.parse("f\u00f6o"));
+    }
+
+    @Test
+    public void testFirstMatchingRuleDecides() {
+        List<AppliedRule> rules = new ArrayList<>();
+        rules.add(rule(new ColumnFamilyRegexFilter(), "bar", 10));
+        rules.add(rule(new ColumnFamilyRegexFilter(), "^foo", 100));
+        rules.add(rule(new ColumnFamilyRegexFilter(), "o", 1));
+        CompiledAgeOffRules compiled = CompiledAgeOffRules.compile(rules);
+
+        // matches bar and o, bar comes first
+        assertTrue(compiled.accept(new Key("row", "foobar", "cq", daysAgo(5)), VALUE, daysAgo(1000)));
+        assertFalse(compiled.accept(new Key("row", "foobar", "cq", daysAgo(20)), VALUE, daysAgo(1000)));
+        // matches ^foo and o
+        assertTrue(compiled.accept(new Key("row", "food", "cq", daysAgo(50)), VALUE, daysAgo(1000)));
+        // matches only o, because foo is anchored
+        assertFalse(compiled.accept(new Key("row", "xfood", "cq", daysAgo(5)), VALUE, daysAgo(1000)));
+        // matches nothing, so the default applies
+        assertTrue(compiled.accept(new Key("row", "xyz", "cq", daysAgo(500)), VALUE, daysAgo(1000)));
+        assertFalse(compiled.accept(new Key("row", "xyz", "cq", daysAgo(500)), VALUE, daysAgo(100)));
+    }
+
+    @Test
+    public void testMatchesRuleByRuleEvaluation() {
+        Random random = new Random(42);
+        String[] literals = {"a", "ab", "abc", "bc", "c", "ca", "bab", "cab", "aaa", "b.c", "a_c"};
+        String[] patterns = {"a.c", "^b+c$", "(ab|ca)", ".*", "a{2}"};
+
+        for (int trial = 0; trial < 200; trial++) {
+            List<AppliedRule> rules = new ArrayList<>();
+            for (int i = random.nextInt(8); i >= 0; i--) {
+                String pattern;
+                if (random.nextInt(5) == 0) {
+                    pattern = patterns[random.nextInt(patterns.length)];
+                } else {
+                    pattern = (random.nextBoolean() ? "^" : "") + literals[random.nextInt(literals.length)].replace(".", "\\.");
+                }
+
+                int ttl = 1 + random.nextInt(100);
+                switch (random.nextInt(5)) {
+                    case 0:
+                        rules.add(rule(new ColumnQualifierRegexFilter(), pattern, ttl));
+                        break;
+                    case 1:
+                        rules.add(rule(new ColumnVisibilityRegexFilter(), pattern, ttl));
+                        break;
+                    case 2:
+                        // evaluated rule by rule, since it is not a column rule
+                        rules.add(rule(new RowRegexFilter(), pattern, ttl));
+                        break;
+                    default:
+                        rules.add(rule(new ColumnFamilyRegexFilter(), pattern, ttl));
+                }
+            }
+
+            CompiledAgeOffRules compiled = CompiledAgeOffRules.compile(rules);
+            for (int i = 0; i < 100; i++) {
+                Key k = new Key(randomText(random), randomText(random), randomText(random), randomText(random), daysAgo(random.nextInt(120)));
+                long defaultCutOff = daysAgo(60);
+                assertEquals(rules + " " + k, evaluate(rules, k, defaultCutOff), compiled.accept(k, VALUE, defaultCutOff));
+            }
+        }
+    }
+
+    @Test
+    public void testIsCompiledFrom() {
+        List<AppliedRule> rules = new ArrayList<>();
+        rules.add(rule(new ColumnFamilyRegexFilter(), "foo", 10));
+        CompiledAgeOffRules compiled = CompiledAgeOffRules.compile(rules);
+        assertTrue(compiled.isCompiledFrom(rules));
+        assertFalse(compiled.isCompiledFrom(new ArrayList<>(rules)));
+    }
+
+    /**
+     * The rule by rule evaluation of {@link ConfigurableAgeOffFilter#accept(Key, Value)}
+     */
+    private static boolean evaluate(List<AppliedRule> rules, Key k, long defaultCutOff) {
+        Iterator<AppliedRule> iter = rules.iterator();
+        while (iter.hasNext()) {
+            AppliedRule rule = iter.next();
+            boolean accept = rule.accept(k, VALUE);
+            if (rule.isFilterRuleApplied()) {
+                return accept;
+            }
+        }
+        return k.getTimestamp() > defaultCutOff;
+    }
+
+    private AppliedRule rule(AppliedRule rule, String pattern, int ttlDays) {
+        FilterOptions filterOpts = new FilterOptions();
+        filterOpts.setOption(AgeOffConfigParams.MATCHPATTERN, pattern);
+        filterOpts.setTTL(ttlDays);
+        filterOpts.setTTLUnits(AgeOffTtlUnits.DAYS);
+        rule.init(filterOpts);
+        return (AppliedRule) rule.deepCopy(now, null);
+    }
+
+    private static String randomText(Random random) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = random.nextInt(8); i > 0; i--) {
+            builder.append("abc._".charAt(random.nextInt(5)));
+        }
+        return builder.toString();
+    }
+
+    private static void assertLiteral(String regex, boolean anchored, String expected) {
+        CompiledAgeOffRules.Literal literal = CompiledAgeOffRules.Literal.parse(regex);
+        assertNotNull(regex, literal);
+        assertEquals(regex, anchored, literal.anchored);
+        assertArrayEquals(regex, expected.getBytes(), literal.bytes);
+    }
+
+    private long daysAgo(int n) {
+        return now - (MILLIS_IN_DAY * n);
+    }
+
+    public static class RowRegexFilter extends RegexFilterBase {
+
+        @Override
+        protected String getKeyField(Key k, Value v) {
+            return k.getRow().toString();
+        }
+    }
+}
@@ -8,6 +8,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.SortedMap;
 
+import org.apache.accumulo.core.data.ByteSequence;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
@@ -22,7 +23,7 @@ import org.apache.hadoop.io.WritableComparable;
 public class SortedListKeyValueIterator implements SortedKeyValueIterator<Key,Value> {
     private List<Map.Entry<Key,Value>> sourceList;
     private int currentIndex;
-    private Collection columnFamilies;
+    private Collection<ByteSequence> columnFamilies;
     private Range range;
     private boolean inclusive;
 
@@ -115,7 +116,7 @@ public class SortedListKeyValueIterator implements SortedKeyValueIterator<Key,Va
     }
 
     @Override
-    public void seek(Range range, Collection columnFamilies, boolean inclusive) throws IOException {
+    public void seek(Range range, Collection<ByteSequence> columnFamilies, boolean inclusive) throws IOException {
         this.columnFamilies = columnFamilies;
         this.inclusive = inclusive;
         this.range = range;
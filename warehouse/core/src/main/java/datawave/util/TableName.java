@@ -20,6 +20,7 @@ public final class TableName {
     public static final String SHARD = "shard";
     public static final String SHARD_INDEX = "shardIndex";
     public static final String SHARD_RINDEX = "shardReverseIndex";
+    public static final String SHARD_STATS = "shardStats";
 
     private TableName() {}
 }
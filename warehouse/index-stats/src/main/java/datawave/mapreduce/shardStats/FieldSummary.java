@@ -32,4 +32,14 @@ public interface FieldSummary {
      * @return populated {@link StatsCounters}
      */
     StatsCounters toStatsCounters();
+
+    /**
+     * Converts the contents to a {@link StatsCounters} object that also carries the sketch used to estimate the number of unique values, so that unique counts
+     * can be merged at query time.
+     *
+     * @return populated {@link StatsCounters} with the serialized sketch
+     * @throws IOException
+     *             sketch serialization error
+     */
+    StatsCounters toStatsCountersWithSketch() throws IOException;
 }
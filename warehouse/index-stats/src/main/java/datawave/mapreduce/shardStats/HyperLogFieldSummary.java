@@ -43,6 +43,11 @@ class HyperLogFieldSummary implements FieldSummary {
         return new StatsCounters(this.count, this.logPlus.cardinality());
     }
 
+    @Override
+    public StatsCounters toStatsCountersWithSketch() throws IOException {
+        return new StatsCounters(this.count, this.logPlus.cardinality(), this.logPlus.getBytes());
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o)
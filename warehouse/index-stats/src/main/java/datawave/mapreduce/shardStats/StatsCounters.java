@@ -4,11 +4,13 @@ import java.io.ByteArrayOutputStream;
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.Objects;
 
 import org.apache.accumulo.core.data.Value;
+import org.apache.hadoop.io.BytesWritable;
 import org.apache.hadoop.io.VIntWritable;
 import org.apache.hadoop.io.VLongWritable;
 import org.apache.hadoop.io.WritableComparable;
@@ -19,7 +21,10 @@ import org.apache.hadoop.io.WritableComparable;
  * <li>total count of the number of values</li>
  * <li>number of unique values</li>
  * <li>selectivity of the values</li>
+ * <li>optionally, the serialized {@link com.clearspring.analytics.stream.cardinality.HyperLogLogPlus} the number of unique values was estimated from</li>
  * </ul>
+ * The sketch allows the unique counts of several entries, such as the same field over a range of dates, to be merged at query time rather than summed. Values
+ * written without a sketch end after the selectivity, so entries written before sketches were enabled are still read.
  */
 public class StatsCounters implements WritableComparable<StatsCounters> {
 
@@ -28,12 +33,14 @@ public class StatsCounters implements WritableComparable<StatsCounters> {
     private final VLongWritable count;
     private final VLongWritable uniqueCount;
     private final VIntWritable selectivity;
+    private final BytesWritable sketch;
 
     // required for deserialization
     public StatsCounters() {
         this.count = new VLongWritable();
         this.uniqueCount = new VLongWritable();
         this.selectivity = new VIntWritable();
+        this.sketch = new BytesWritable();
     }
 
     /**
@@ -45,6 +52,20 @@ public class StatsCounters implements WritableComparable<StatsCounters> {
      *            total number of unique values
      */
     StatsCounters(long sumCount, long unique) {
+        this(sumCount, unique, null);
+    }
+
+    /**
+     * Creates a shard stats for a field name/datatype pair, along with the sketch used to estimate the number of unique values.
+     *
+     * @param sumCount
+     *            total number of values
+     * @param unique
+     *            total number of unique values
+     * @param sketch
+     *            serialized hyperlog sketch of the values, or null to write the counts only
+     */
+    StatsCounters(long sumCount, long unique, byte[] sketch) {
         this.count = new VLongWritable(sumCount);
         int selVal;
         // hyperlog unique count could be greater than total count
@@ -57,6 +78,7 @@ public class StatsCounters implements WritableComparable<StatsCounters> {
             selVal = SELECTIVITY_MULTIPLIER;
         }
         this.selectivity = new VIntWritable(selVal);
+        this.sketch = null == sketch ? new BytesWritable() : new BytesWritable(sketch);
     }
 
     public long getCount() {
@@ -71,6 +93,15 @@ public class StatsCounters implements WritableComparable<StatsCounters> {
         return selectivity.get();
     }
 
+    /**
+     * Returns the serialized hyperlog sketch of the values.
+     *
+     * @return sketch bytes, or null if the sketch was not written
+     */
+    public byte[] getSketch() {
+        return sketch.getLength() == 0 ? null : sketch.copyBytes();
+    }
+
     public Value getValue() throws IOException {
         return new Value(toByteArray());
     }
@@ -97,6 +128,9 @@ public class StatsCounters implements WritableComparable<StatsCounters> {
         this.count.write(dataOutput);
         this.uniqueCount.write(dataOutput);
         this.selectivity.write(dataOutput);
+        if (this.sketch.getLength() > 0) {
+            this.sketch.write(dataOutput);
+        }
     }
 
     @Override
@@ -104,6 +138,12 @@ public class StatsCounters implements WritableComparable<StatsCounters> {
         this.count.readFields(dataInput);
         this.uniqueCount.readFields(dataInput);
         this.selectivity.readFields(dataInput);
+        try {
+            this.sketch.readFields(dataInput);
+        } catch (EOFException e) {
+            // value was written without a sketch
+            this.sketch.setSize(0);
+        }
     }
 
     @Override
@@ -113,12 +153,13 @@ public class StatsCounters implements WritableComparable<StatsCounters> {
         if (o == null || getClass() != o.getClass())
             return false;
         StatsCounters that = (StatsCounters) o;
-        return Objects.equals(count, that.count) && Objects.equals(uniqueCount, that.uniqueCount) && Objects.equals(selectivity, that.selectivity);
+        return Objects.equals(count, that.count) && Objects.equals(uniqueCount, that.uniqueCount) && Objects.equals(selectivity, that.selectivity)
+                        && Objects.equals(sketch, that.sketch);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(count, uniqueCount, selectivity);
+        return Objects.hash(count, uniqueCount, selectivity, sketch);
     }
 
     @Override
@@ -128,6 +169,7 @@ public class StatsCounters implements WritableComparable<StatsCounters> {
                 "count=" + count +
                 ", uniqueCount=" + uniqueCount +
                 ", selectivity=" + selectivity +
+                ", sketchBytes=" + sketch.getLength() +
                 '}';
         // @formatter:on
     }
@@ -25,10 +25,13 @@ public class StatsHyperLogReducer extends BulkIngestKeyAggregatingReducer<BulkIn
     static final String STATS_REDUCER_COUNTS = "stats.reducer.counts";
     static final String STATS_REDUCER_LOG_LEVEL = "stats.reducer.log.level";
     static final String STATS_REDUCER_VALUE_INTERVAL = "stats.reducer.value.interval";
+    static final String STATS_REDUCER_SKETCH = "shardStats.reducer.sketch";
 
     // default values
     static final int DEFAULT_MIN_COUNT = 0;
     static final int DEFAULT_VALUE_INTERVAL = 20;
+    // largest normal precision for which sketches are written - a normal mode sketch holds 2 ** precision registers
+    static final int MAX_SKETCH_PRECISION = 16;
 
     // debug/diagnostics values
     // total number of keys written to output table
@@ -39,6 +42,8 @@ public class StatsHyperLogReducer extends BulkIngestKeyAggregatingReducer<BulkIn
     private int minCount;
     // produce counts only - do not write to table
     private boolean countsOnly;
+    // write the merged hyperlog sketch with the counts so that unique counts can be merged at query time
+    private boolean writeSketch;
 
     // hyperlog properties
     private int normalPrecision;
@@ -71,6 +76,14 @@ public class StatsHyperLogReducer extends BulkIngestKeyAggregatingReducer<BulkIn
         this.sparsePrecision = conf.getInt(StatsJob.HYPERLOG_SPARSE_OPTION, StatsJob.HYPERLOG_SPARSE_DEFAULT_VALUE);
         log.info("hyperlog sparse precision(" + this.sparsePrecision + ')');
 
+        this.writeSketch = conf.getBoolean(STATS_REDUCER_SKETCH, false);
+        if (this.writeSketch && MAX_SKETCH_PRECISION < this.normalPrecision) {
+            log.warn("hyperlog normal precision(" + this.normalPrecision + ") is greater than the maximum sketch precision(" + MAX_SKETCH_PRECISION
+                            + "), sketches will not be written");
+            this.writeSketch = false;
+        }
+        log.info("write sketch(" + this.writeSketch + ")");
+
         this.timestamp = System.currentTimeMillis();
     }
 
@@ -104,7 +117,7 @@ public class StatsHyperLogReducer extends BulkIngestKeyAggregatingReducer<BulkIn
         if (!this.countsOnly) {
             if (this.minCount <= stats.getCount()) {
                 // write to bulk output
-                StatsCounters counters = stats.toStatsCounters();
+                StatsCounters counters = this.writeSketch ? stats.toStatsCountersWithSketch() : stats.toStatsCounters();
                 // set timestamp
                 Key k = key.getKey();
                 k.setTimestamp(this.timestamp);
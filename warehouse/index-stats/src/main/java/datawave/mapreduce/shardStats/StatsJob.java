@@ -69,6 +69,12 @@ import datawave.util.StringUtils;
  * best to choose values that are the same. All testing using the same sparse and normal precision resulted in consistent results that were within the expected
  * error margin.
  * </p>
+ * <p>
+ * When <code>shardStats.reducer.sketch</code> is set, the merged sketch for each field name/datatype pair is written along with the counts, so that the
+ * unique counts over several dates and datatypes can be merged at query time by the {@link datawave.query.index.stats.ShardStatsSketchIterator} rather than
+ * summed. The error of the merged estimate is that of the normal precision, and since the stored sketch grows with the number of buckets, sketches are only
+ * written for a normal precision of 16 or less; a precision of 14 gives about 0.8% error with sketches of about 11K.
+ * </p>
  */
 public class StatsJob extends IngestJob {
 
@@ -254,7 +260,8 @@ public class StatsJob extends IngestJob {
         MIN_COUNT(StatsHyperLogReducer.STATS_MIN_COUNT, StatsHyperLogReducer.DEFAULT_MIN_COUNT),
         REDUCER_COUNTS(StatsHyperLogReducer.STATS_REDUCER_COUNTS, false),
         REDUCER_VALUE_INTERVAL(StatsHyperLogReducer.STATS_REDUCER_VALUE_INTERVAL, StatsHyperLogReducer.DEFAULT_VALUE_INTERVAL),
-        REDUCER_LOG_LEVEL(StatsHyperLogReducer.STATS_REDUCER_LOG_LEVEL, DEFAULT_LOG_LEVEL),;
+        REDUCER_LOG_LEVEL(StatsHyperLogReducer.STATS_REDUCER_LOG_LEVEL, DEFAULT_LOG_LEVEL),
+        REDUCER_SKETCH(StatsHyperLogReducer.STATS_REDUCER_SKETCH, false),;
 
         static JobArg getOption(String option) {
             while (option.startsWith("-")) {
@@ -62,6 +62,7 @@ import datawave.ingest.mapreduce.job.writer.BulkContextWriter;
 import datawave.ingest.mapreduce.job.writer.ContextWriter;
 import datawave.ingest.mapreduce.job.writer.LiveContextWriter;
 import datawave.ingest.mapreduce.partition.MultiTableRangePartitioner;
+import datawave.ingest.mapreduce.partition.ShardVolumePartitioner;
 import datawave.ingest.metric.IngestInput;
 import datawave.ingest.metric.IngestOutput;
 import datawave.ingest.metric.IngestProcess;
@@ -434,6 +435,7 @@ public class EventMapper<K1,V1 extends RawRecordContainer,K2,V2> extends StatsDE
         // to get the context on a partitioner, and we are only
         // using this to set some counters that collect stats.
         MultiTableRangePartitioner.setContext(context);
+        ShardVolumePartitioner.setContext(context);
 
         // setup the configuration on the event
         // this is automatically done by the sequence reader....
@@ -0,0 +1,104 @@
+package datawave.ingest.mapreduce.handler.facet;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * The column qualifiers of the pre-aggregated facet cubes in the facet table. Every facet entry is written to a daily cube, whose column qualifier is the shard
+ * date ({@code yyyyMMdd}). Entries for pivots configured for rollup are also written to a weekly cube, whose column qualifier is {@value #WEEK_PREFIX}
+ * followed by the date of the Monday starting the week, so that the weekly cubes of a facet sort after all of its daily cubes. All dates are UTC, as are shard
+ * dates.
+ */
+public final class FacetCubes {
+
+    public static final String WEEK_PREFIX = "W";
+
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private FacetCubes() {}
+
+    /**
+     * @param millis
+     *            a time in milliseconds
+     * @return the (UTC) day containing the time
+     */
+    public static LocalDate toDay(long millis) {
+        return Instant.ofEpochMilli(millis).atZone(ZoneOffset.UTC).toLocalDate();
+    }
+
+    /**
+     * @param day
+     *            a day
+     * @return the start of the day in milliseconds
+     */
+    public static long toMillis(LocalDate day) {
+        return day.atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+    }
+
+    /**
+     * @param day
+     *            a day
+     * @return the Monday starting the week containing the day
+     */
+    public static LocalDate weekStart(LocalDate day) {
+        return day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    /**
+     * @param day
+     *            a day
+     * @return the column qualifier of the daily cube for the day
+     */
+    public static String dayQualifier(LocalDate day) {
+        return DAY_FORMAT.format(day);
+    }
+
+    /**
+     * @param day
+     *            a day
+     * @return the column qualifier of the weekly cube for the week containing the day
+     */
+    public static String weekQualifier(LocalDate day) {
+        return WEEK_PREFIX + DAY_FORMAT.format(weekStart(day));
+    }
+
+    /**
+     * @param qualifier
+     *            a facet column qualifier
+     * @return true if the qualifier is that of a weekly cube
+     */
+    public static boolean isWeekQualifier(String qualifier) {
+        return qualifier.startsWith(WEEK_PREFIX);
+    }
+
+    /**
+     * @param qualifier
+     *            the column qualifier of a weekly cube
+     * @return the Monday starting the week
+     */
+    public static LocalDate parseWeekQualifier(String qualifier) {
+        return LocalDate.parse(qualifier.substring(WEEK_PREFIX.length()), DAY_FORMAT);
+    }
+
+    /**
+     * @param begin
+     *            the first day of a date range
+     * @return the first week starting on or after the day
+     */
+    public static LocalDate firstFullWeek(LocalDate begin) {
+        return begin.with(TemporalAdjusters.nextOrSame(DayOfWeek.MONDAY));
+    }
+
+    /**
+     * @param end
+     *            the last day of a date range
+     * @return the last week ending on or before the day, which starts before {@link #firstFullWeek(LocalDate)} when the range holds no full week
+     */
+    public static LocalDate lastFullWeek(LocalDate end) {
+        return end.plusDays(1).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).minusWeeks(1);
+    }
+}
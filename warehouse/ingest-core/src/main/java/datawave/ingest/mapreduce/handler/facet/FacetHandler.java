@@ -1,6 +1,7 @@
 package datawave.ingest.mapreduce.handler.facet;
 
 import java.io.IOException;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -70,6 +71,7 @@ public class FacetHandler<KEYIN,KEYOUT,VALUEOUT> implements ExtendedDataTypeHand
 
     public static final String FACET_CATEGORY_DELIMITER = ".facet.category.delimiter";
     public static final String FACET_FIELD_PREDICATE_CLASS = ".facet.field.predicate.class";
+    public static final String FACET_ROLLUP_PIVOTS = ".facet.rollup.pivots";
 
     public static final String FACET_CATEGORY_PREFIX_REGEX = "\\.facet\\.category\\.name\\..*";
 
@@ -89,6 +91,7 @@ public class FacetHandler<KEYIN,KEYOUT,VALUEOUT> implements ExtendedDataTypeHand
 
     protected int facetHashThreshold;
     protected String categoryDelimiter = DEFAULT_FACET_CATEGORY_DELIMITER;
+    protected Set<String> rollupPivots;
 
     /* Instance variables */
 
@@ -136,6 +139,9 @@ public class FacetHandler<KEYIN,KEYOUT,VALUEOUT> implements ExtendedDataTypeHand
             throw new IllegalStateException("Categories must be specified");
         }
 
+        // the pivots whose facets are also written to weekly cubes, see FacetCubes
+        rollupPivots = new HashSet<>(conf.getTrimmedStringCollection(type.typeName() + FACET_ROLLUP_PIVOTS));
+
         String predClazzStr = conf.get(FACET_FIELD_PREDICATE_CLASS);
         if (null != predClazzStr) {
             try {
@@ -206,6 +212,9 @@ public class FacetHandler<KEYIN,KEYOUT,VALUEOUT> implements ExtendedDataTypeHand
         final Text dateColumnQualifier = new Text(shardDateString);
         final Date shardDate = DateHelper.parse(shardDateString);
         final long timestamp = shardDate.getTime();
+        final LocalDate shardDay = FacetCubes.toDay(timestamp);
+        final Text weekColumnQualifier = new Text(FacetCubes.weekQualifier(shardDay));
+        final long weekTimestamp = FacetCubes.toMillis(FacetCubes.weekStart(shardDay));
 
         Text cv = new Text(flatten(event.getVisibility()));
 
@@ -253,6 +262,7 @@ public class FacetHandler<KEYIN,KEYOUT,VALUEOUT> implements ExtendedDataTypeHand
                 continue;
 
             final Text reflexiveCf = createColumnFamily(pivotFieldName, pivotFieldName);
+            final boolean rollup = rollupPivots.contains(pivotFieldName);
 
             for (NormalizedContentInterface pivotTypes : eventFields.get(pivotFieldName)) {
                 if (HashTableFunction.isReduced(pivotTypes))
@@ -271,6 +281,17 @@ public class FacetHandler<KEYIN,KEYOUT,VALUEOUT> implements ExtendedDataTypeHand
 
                 results.put(pivotIngestKey, sharedValue);
 
+                if (rollup) {
+                    results.put(generateFacetIngestKey(
+                            pivotTypes.getIndexedFieldValue(),
+                            pivotTypes.getIndexedFieldValue(),
+                            event.getDataType(),
+                            reflexiveCf,
+                            weekColumnQualifier,
+                            cv,
+                            weekTimestamp), sharedValue);
+                }
+
                 if (log.isTraceEnabled()) {
                     log.trace("created BulkIngestKey (pivot): " + pivotIngestKey.getKey() +
                             " for " + event.getId().toString() +
@@ -307,6 +328,17 @@ public class FacetHandler<KEYIN,KEYOUT,VALUEOUT> implements ExtendedDataTypeHand
 
                         results.put(facetIngestKey, sharedValue);
 
+                        if (rollup) {
+                            results.put(generateFacetIngestKey(
+                                    pivotTypes.getIndexedFieldValue(),
+                                    facetTypes.getIndexedFieldValue(),
+                                    event.getDataType(),
+                                    facetCf,
+                                    weekColumnQualifier,
+                                    cv,
+                                    weekTimestamp), sharedValue);
+                        }
+
                         if (log.isDebugEnabled()) {
                             log.debug("created BulkIngestKey (facet): " + facetIngestKey.getKey() +
                                     " for " + event.getId().toString() +
@@ -0,0 +1,330 @@
+package datawave.ingest.mapreduce.job;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.file.FileSKVWriter;
+import org.apache.log4j.Logger;
+
+/**
+ * A {@link FileSKVWriter} that hands appends off to a dedicated thread so that encoding and compression of the underlying file happens outside of the calling
+ * (reducer) thread. Appends are collected into batches which are passed through a bounded queue; when the queue is full the caller blocks until the writer
+ * thread catches up, which ties the reducer to the throughput of its slowest file.
+ * <p>
+ * Keys and values handed to {@link #append(Key, Value)} are retained until the writer thread has written them. The key is copied, but shares the component
+ * arrays of the original key, so callers must not modify those arrays after appending.
+ */
+public class AsyncFileSKVWriter implements FileSKVWriter {
+
+    private static final Logger log = Logger.getLogger(AsyncFileSKVWriter.class);
+
+    private static final long OFFER_WAIT_MS = 100;
+
+    /**
+     * A unit of work executed against the delegate writer on the writer thread
+     */
+    private interface Task {
+        void apply(FileSKVWriter writer) throws IOException;
+    }
+
+    private static final Task CLOSE = writer -> {};
+
+    private final String name;
+    private final FileSKVWriter delegate;
+    private final int batchSize;
+    private final BlockingQueue<Task> queue;
+    private final Thread writerThread;
+    private final Metrics metrics = new Metrics();
+
+    private Batch batch;
+    private boolean closing = false;
+    private volatile IOException failure = null;
+
+    /**
+     * Statistics for an asynchronous writer. The values are only guaranteed to be complete once the writer has been closed.
+     */
+    public static class Metrics {
+        private long entries = 0;
+        private long bytes = 0;
+        private long writeNanos = 0;
+        private long stallNanos = 0;
+        private long closeNanos = 0;
+
+        /**
+         * @return the number of entries written to the underlying file
+         */
+        public long getEntries() {
+            return entries;
+        }
+
+        /**
+         * @return the uncompressed number of key and value bytes written to the underlying file
+         */
+        public long getBytes() {
+            return bytes;
+        }
+
+        /**
+         * @return the time the writer thread spent appending to the underlying file
+         */
+        public long getWriteMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(writeNanos);
+        }
+
+        /**
+         * @return the time the calling thread spent blocked waiting for space in the queue
+         */
+        public long getStallMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(stallNanos);
+        }
+
+        /**
+         * @return the time spent flushing and closing the underlying file
+         */
+        public long getCloseMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(closeNanos);
+        }
+
+        /**
+         * Add the statistics from another writer to this one
+         *
+         * @param other
+         *            the other metrics
+         */
+        public void add(Metrics other) {
+            entries += other.entries;
+            bytes += other.bytes;
+            writeNanos += other.writeNanos;
+            stallNanos += other.stallNanos;
+            closeNanos += other.closeNanos;
+        }
+
+        @Override
+        public String toString() {
+            return "entries=" + entries + ", bytes=" + bytes + ", writeMs=" + getWriteMillis() + ", stallMs=" + getStallMillis() + ", closeMs="
+                            + getCloseMillis();
+        }
+    }
+
+    private class Batch implements Task {
+        private final Key[] keys = new Key[batchSize];
+        private final Value[] values = new Value[batchSize];
+        private int size = 0;
+
+        boolean add(Key key, Value value) {
+            keys[size] = key;
+            values[size] = value;
+            size++;
+            return size == batchSize;
+        }
+
+        @Override
+        public void apply(FileSKVWriter writer) throws IOException {
+            long start = System.nanoTime();
+            for (int i = 0; i < size; i++) {
+                writer.append(keys[i], values[i]);
+                metrics.bytes += keys[i].getLength() + (values[i] == null ? 0 : values[i].getSize());
+            }
+            metrics.entries += size;
+            metrics.writeNanos += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Create an asynchronous writer and start its writer thread
+     *
+     * @param name
+     *            a name for the writer, used for the thread name and logging
+     * @param delegate
+     *            the underlying writer
+     * @param queueSize
+     *            the maximum number of batches waiting to be written
+     * @param batchSize
+     *            the number of entries handed to the writer thread at a time
+     */
+    public AsyncFileSKVWriter(String name, FileSKVWriter delegate, int queueSize, int batchSize) {
+        if (queueSize < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("queueSize and batchSize must be positive");
+        }
+        this.name = name;
+        this.delegate = delegate;
+        this.batchSize = batchSize;
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.writerThread = new Thread(this::run, "rfile-writer-" + name);
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    private void run() {
+        boolean closed = false;
+        try {
+            Task task;
+            while ((task = queue.take()) != CLOSE) {
+                task.apply(delegate);
+            }
+            long start = System.nanoTime();
+            closed = true;
+            delegate.close();
+            metrics.closeNanos += System.nanoTime() - start;
+        } catch (IOException e) {
+            log.error("Failed writing to " + name, e);
+            failure = e;
+        } catch (InterruptedException e) {
+            failure = new InterruptedIOException("Interrupted while writing to " + name);
+        } catch (RuntimeException e) {
+            log.error("Failed writing to " + name, e);
+            failure = new IOException(e);
+        } finally {
+            if (!closed) {
+                closeDelegate(delegate, name);
+            }
+        }
+    }
+
+    /**
+     * Close a writer after a failure, logging rather than throwing any error so that the original failure is the one reported
+     *
+     * @param writer
+     *            the writer to close
+     * @param name
+     *            the name of the file being written, for logging
+     */
+    static void closeDelegate(FileSKVWriter writer, String name) {
+        try {
+            writer.close();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to close " + name + " after a failure", e);
+        }
+    }
+
+    private void checkFailure() throws IOException {
+        if (failure != null) {
+            throw new IOException("Asynchronous writer for " + name + " failed", failure);
+        }
+    }
+
+    private void enqueue(Task task) throws IOException {
+        checkFailure();
+        long start = System.nanoTime();
+        try {
+            while (!queue.offer(task, OFFER_WAIT_MS, TimeUnit.MILLISECONDS)) {
+                checkFailure();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting on writer for " + name);
+        } finally {
+            metrics.stallNanos += System.nanoTime() - start;
+        }
+    }
+
+    private void flushBatch() throws IOException {
+        if (batch != null) {
+            Batch full = batch;
+            batch = null;
+            enqueue(full);
+        }
+    }
+
+    /**
+     * Wait for all queued work to be written to the underlying writer
+     */
+    private void sync() throws IOException {
+        flushBatch();
+        CountDownLatch latch = new CountDownLatch(1);
+        enqueue(writer -> latch.countDown());
+        try {
+            while (!latch.await(OFFER_WAIT_MS, TimeUnit.MILLISECONDS)) {
+                checkFailure();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting on writer for " + name);
+        }
+        checkFailure();
+    }
+
+    @Override
+    public boolean supportsLocalityGroups() {
+        return delegate.supportsLocalityGroups();
+    }
+
+    @Override
+    public void startNewLocalityGroup(String name, Set<ByteSequence> columnFamilies) throws IOException {
+        flushBatch();
+        enqueue(writer -> writer.startNewLocalityGroup(name, columnFamilies));
+    }
+
+    @Override
+    public void startDefaultLocalityGroup() throws IOException {
+        flushBatch();
+        enqueue(FileSKVWriter::startDefaultLocalityGroup);
+    }
+
+    @Override
+    public void append(Key key, Value value) throws IOException {
+        if (batch == null) {
+            batch = new Batch();
+        }
+        if (batch.add(new Key(key), value == null ? null : new Value(value.get()))) {
+            flushBatch();
+        }
+    }
+
+    @Override
+    public DataOutputStream createMetaStore(String name) throws IOException {
+        sync();
+        return delegate.createMetaStore(name);
+    }
+
+    @Override
+    public long getLength() throws IOException {
+        sync();
+        return delegate.getLength();
+    }
+
+    /**
+     * Signal the writer thread to flush and close the underlying file without waiting for it to finish. This allows several writers to be closed in parallel.
+     *
+     * @throws IOException
+     *             if the writer has failed
+     */
+    public void startClose() throws IOException {
+        if (!closing) {
+            flushBatch();
+            enqueue(CLOSE);
+            closing = true;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        startClose();
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while closing writer for " + name);
+        }
+        checkFailure();
+        if (log.isDebugEnabled()) {
+            log.debug("Closed " + name + ": " + metrics);
+        }
+    }
+
+    /**
+     * @return the statistics for this writer, complete once the writer has been closed
+     */
+    public Metrics getMetrics() {
+        return metrics;
+    }
+}
@@ -3,7 +3,9 @@ package datawave.ingest.mapreduce.job;
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
+import java.util.Arrays;
 
+import org.apache.accumulo.core.data.ByteSequence;
 import org.apache.accumulo.core.data.Key;
 import org.apache.commons.lang.builder.ToStringBuilder;
 import org.apache.hadoop.io.Text;
@@ -16,14 +18,29 @@ import org.apache.hadoop.io.WritableUtils;
  * <p>
  * <strong>Note:</strong> For serialization and binary comparison, this class does not handle keys with the deleted flag set. This should not be a problem for
  * ingest of new data.
+ * <p>
+ * The serialized form is the table name, row, column family, column qualifier and column visibility (each as a vint length followed by the bytes), then the
+ * timestamp as a vlong and the deleted flag. {@link Comparator} sorts directly on that form. Writing goes straight from the key's backing arrays, and reading
+ * reuses a per-instance buffer for the table name which is then resolved against a shared pool of table names, so the shuffle does not allocate a new
+ * {@link Text} for every record. The table name returned by {@link #getTableName()} may therefore be shared and must not be modified by callers.
+ * <p>
+ * Each record read gets a new {@link Key}, as reducers may hold on to the key of a record while the following records are read into this instance. The parts of
+ * the key are read into a reusable buffer, and a part with the same bytes as in the previous key, such as the row, column family and column visibility of
+ * consecutive sorted keys, shares the previous key's array rather than allocating a new one.
  */
 public class BulkIngestKey implements WritableComparable<BulkIngestKey> {
 
     protected Text tableName = null;
     protected Key key = new Key();
     // computed hashcode. we won't write this through the writable interface
-    // to avoid increasing the size of our spilled data
-    protected int hashCode = 31;
+    // to avoid increasing the size of our spilled data. It is computed lazily
+    // since most keys read in the shuffle are never hashed
+    private int hashCode;
+    private boolean hashCodeComputed = false;
+    // reusable buffer for reading in the table name
+    private byte[] tableNameBuffer = new byte[64];
+    // reusable buffer for reading in the parts of the key
+    private byte[] keyBuffer = new byte[64];
 
     public BulkIngestKey() {
         this.tableName = new Text();
@@ -49,24 +66,29 @@ public class BulkIngestKey implements WritableComparable<BulkIngestKey> {
     }
 
     /**
-     * Build the computed hash code.
+     * Invalidate the computed hash code so that it is rebuilt the next time it is needed.
      */
     protected void buildHashCode() {
+        hashCodeComputed = false;
+    }
+
+    private int computeHashCode() {
         final int prime = 31;
         int result = 1;
         result = prime * result + ((key == null) ? 0 : key.hashCode());
         result = prime * result + ((tableName == null) ? 0 : tableName.hashCode());
-        hashCode = result;
+        return result;
     }
 
     @Override
     public void readFields(DataInput in) throws IOException {
-        tableName = new Text(readText(in));
+        readTableName(in);
 
-        byte[] row = readText(in);
-        byte[] cf = readText(in);
-        byte[] cq = readText(in);
-        byte[] cv = readText(in);
+        Key previous = key;
+        byte[] row = readText(in, previous == null ? null : previous.getRowData());
+        byte[] cf = readText(in, previous == null ? null : previous.getColumnFamilyData());
+        byte[] cq = readText(in, previous == null ? null : previous.getColumnQualifierData());
+        byte[] cv = readText(in, previous == null ? null : previous.getColumnVisibilityData());
 
         long ts = WritableUtils.readVLong(in);
         // pass in copy=false to save double allocation of byte[]s
@@ -75,22 +97,46 @@ public class BulkIngestKey implements WritableComparable<BulkIngestKey> {
         buildHashCode();
     }
 
-    /* Read in byte[] to save Text object creation */
-    private byte[] readText(DataInput in) throws IOException {
-        byte[] data = new byte[WritableUtils.readVInt(in)];
-        in.readFully(data, 0, data.length);
-        return data;
+    /*
+     * Read the table name into the reusable buffer. The current table name is kept if it matches (the common case as keys arrive sorted by table), otherwise
+     * the shared instance for those bytes is used.
+     */
+    private void readTableName(DataInput in) throws IOException {
+        int length = WritableUtils.readVInt(in);
+        if (tableNameBuffer.length < length) {
+            tableNameBuffer = new byte[Math.max(length, tableNameBuffer.length * 2)];
+        }
+        in.readFully(tableNameBuffer, 0, length);
+        if (tableName == null || !TableNamePool.matches(tableName, tableNameBuffer, length)) {
+            tableName = TableNamePool.get(tableNameBuffer, length);
+        }
+    }
+
+    /*
+     * Read in byte[] to save Text object creation. The array of the same part of the previous key is returned when the bytes match, which is safe as a key's
+     * arrays are never modified.
+     */
+    private byte[] readText(DataInput in, ByteSequence previous) throws IOException {
+        int length = WritableUtils.readVInt(in);
+        if (keyBuffer.length < length) {
+            keyBuffer = new byte[Math.max(length, keyBuffer.length * 2)];
+        }
+        in.readFully(keyBuffer, 0, length);
+        if (previous != null && previous.offset() == 0 && previous.length() == length && previous.getBackingArray().length == length
+                        && WritableComparator.compareBytes(previous.getBackingArray(), 0, length, keyBuffer, 0, length) == 0) {
+            return previous.getBackingArray();
+        }
+        return Arrays.copyOf(keyBuffer, length);
     }
 
     @Override
     public void write(DataOutput out) throws IOException {
         writeText(out, tableName);
-        // reuse a text object for writing
-        Text t = new Text();
-        writeText(out, key.getRow(t));
-        writeText(out, key.getColumnFamily(t));
-        writeText(out, key.getColumnQualifier(t));
-        writeText(out, key.getColumnVisibility(t));
+        // write directly from the key's backing arrays to avoid copying each component
+        writeBytes(out, key.getRowData());
+        writeBytes(out, key.getColumnFamilyData());
+        writeBytes(out, key.getColumnQualifierData());
+        writeBytes(out, key.getColumnVisibilityData());
 
         WritableUtils.writeVLong(out, key.getTimestamp());
         out.writeBoolean(key.isDeleted());
@@ -101,6 +147,11 @@ public class BulkIngestKey implements WritableComparable<BulkIngestKey> {
         out.write(t.getBytes(), 0, t.getLength());
     }
 
+    private void writeBytes(DataOutput out, ByteSequence bytes) throws IOException {
+        WritableUtils.writeVInt(out, bytes.length());
+        out.write(bytes.getBackingArray(), bytes.offset(), bytes.length());
+    }
+
     @Override
     public String toString() {
         return new ToStringBuilder(this).append("tableName", tableName).append("key", key.toString()).toString();
@@ -113,7 +164,8 @@ public class BulkIngestKey implements WritableComparable<BulkIngestKey> {
      *            the table name
      */
     public void setTableName(final Text tableName) {
-        this.tableName.set(tableName);
+        // replace rather than modify in place as the current table name may be shared
+        this.tableName = new Text(tableName);
         buildHashCode();
     }
 
@@ -140,9 +192,55 @@ public class BulkIngestKey implements WritableComparable<BulkIngestKey> {
 
     @Override
     public int hashCode() {
+        if (!hashCodeComputed) {
+            hashCode = computeHashCode();
+            hashCodeComputed = true;
+        }
         return hashCode;
     }
 
+    /**
+     * A bounded pool of table name {@link Text} objects shared by all deserialized keys. A job writes to a small number of tables, so this is searched
+     * linearly and replaced copy-on-write when a new table name is seen.
+     */
+    private static class TableNamePool {
+        private static final int MAX_SIZE = 256;
+        private static volatile Text[] pool = new Text[0];
+
+        static boolean matches(Text text, byte[] bytes, int length) {
+            return text.getLength() == length && WritableComparator.compareBytes(text.getBytes(), 0, length, bytes, 0, length) == 0;
+        }
+
+        static Text get(byte[] bytes, int length) {
+            Text text = find(pool, bytes, length);
+            if (text == null) {
+                synchronized (TableNamePool.class) {
+                    Text[] current = pool;
+                    text = find(current, bytes, length);
+                    if (text == null) {
+                        text = new Text();
+                        text.set(bytes, 0, length);
+                        if (current.length < MAX_SIZE) {
+                            Text[] updated = Arrays.copyOf(current, current.length + 1);
+                            updated[current.length] = text;
+                            pool = updated;
+                        }
+                    }
+                }
+            }
+            return text;
+        }
+
+        private static Text find(Text[] texts, byte[] bytes, int length) {
+            for (Text text : texts) {
+                if (matches(text, bytes, length)) {
+                    return text;
+                }
+            }
+            return null;
+        }
+    }
+
     /** A WritableComparator optimized for BulkIngestKey keys. */
     public static class Comparator extends WritableComparator {
         public Comparator() {
@@ -154,17 +252,16 @@ public class BulkIngestKey implements WritableComparable<BulkIngestKey> {
 
             int o1 = s1;
             int o2 = s2;
-            int[] startAndLen = {0, 0};
             // 5 parts to read (all Text... vint gives size of Text):
             // table name, row, col fam, col qual, col vis
             for (int i = 0; i < 5; i++) {
-                startAndLen[0] = o1;
                 // get Text's length in bytes
-                int tl1 = readVInt(b1, startAndLen);
-                o1 += startAndLen[1];
-                startAndLen[0] = o2;
-                int tl2 = readVInt(b2, startAndLen);
-                o2 += startAndLen[1];
+                int vl1 = WritableUtils.decodeVIntSize(b1[o1]);
+                int tl1 = (int) decodeVLong(b1, o1, vl1);
+                o1 += vl1;
+                int vl2 = WritableUtils.decodeVIntSize(b2[o2]);
+                int tl2 = (int) decodeVLong(b2, o2, vl2);
+                o2 += vl2;
 
                 int result = compareBytes(b1, o1, tl1, b2, o2, tl2);
                 if (result != 0) {
@@ -175,12 +272,12 @@ public class BulkIngestKey implements WritableComparable<BulkIngestKey> {
             }
 
             // get timestamps (vlong)
-            startAndLen[0] = o1;
-            long ts1 = readVLong(b1, startAndLen);
-            o1 += startAndLen[1];
-            startAndLen[0] = o2;
-            long ts2 = readVLong(b2, startAndLen);
-            o2 += startAndLen[1];
+            int vl1 = WritableUtils.decodeVIntSize(b1[o1]);
+            long ts1 = decodeVLong(b1, o1, vl1);
+            o1 += vl1;
+            int vl2 = WritableUtils.decodeVIntSize(b2[o2]);
+            long ts2 = decodeVLong(b2, o2, vl2);
+            o2 += vl2;
 
             if (ts1 < ts2) {
                 return 1;
@@ -228,14 +325,29 @@ public class BulkIngestKey implements WritableComparable<BulkIngestKey> {
          * @return the value
          */
         public static long readVLong(byte[] bytes, int[] startAndLen) {
-            byte firstByte = bytes[startAndLen[0]];
-            startAndLen[1] = WritableUtils.decodeVIntSize(firstByte);
-            if (startAndLen[1] == 1) {
+            startAndLen[1] = WritableUtils.decodeVIntSize(bytes[startAndLen[0]]);
+            return decodeVLong(bytes, startAndLen[0], startAndLen[1]);
+        }
+
+        /**
+         * Decodes a Variable Long from a byte[] whose encoded size has already been determined via {@link WritableUtils#decodeVIntSize(byte)}.
+         *
+         * @param bytes
+         *            payload containing variable long
+         * @param start
+         *            the offset into the byte array
+         * @param size
+         *            the encoded size of the variable long
+         * @return the value
+         */
+        private static long decodeVLong(byte[] bytes, int start, int size) {
+            byte firstByte = bytes[start];
+            if (size == 1) {
                 return firstByte;
             }
             long i = 0;
-            for (int idx = 0; idx < startAndLen[1] - 1; idx++) {
-                byte b = bytes[startAndLen[0] + 1 + idx];
+            for (int idx = 0; idx < size - 1; idx++) {
+                byte b = bytes[start + 1 + idx];
                 i = i << 8;
                 i = i | (b & 0xFF);
             }
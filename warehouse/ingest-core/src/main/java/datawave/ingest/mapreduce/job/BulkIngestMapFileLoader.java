@@ -19,12 +19,14 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Observer;
+import java.util.Set;
 import java.util.Stack;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.accumulo.core.client.Accumulo;
 import org.apache.accumulo.core.client.AccumuloClient;
@@ -83,6 +85,9 @@ public final class BulkIngestMapFileLoader implements Runnable {
     private static int SHUTDOWN_PORT = 24111;
     private static boolean FIFO = true;
     private static boolean INGEST_METRICS = true;
+    private static int PIPELINE_DEPTH = 0;
+    private static int MAX_CONCURRENT_IMPORTS = 1;
+    private static long PIPELINE_DRAIN_TIMEOUT = 30 * 60 * 1000; // 30 minutes
 
     public static final String CLEANUP_FILE_MARKER = "job.cleanup";
     public static final String COMPLETE_FILE_MARKER = "job.complete";
@@ -106,6 +111,11 @@ public final class BulkIngestMapFileLoader implements Runnable {
     private volatile boolean running;
     private ExecutorService executor;
     private JobObservable jobObservable;
+    private volatile long lastOnlineTime = 0;
+    private final AtomicInteger fsAccessFailures = new AtomicInteger();
+
+    // the staged pipeline, only used when PIPELINE_DEPTH > 0
+    private JobDirectoryPipeline pipeline;
 
     public static void main(String[] args) throws AccumuloSecurityException, IOException, NoSuchMethodException {
 
@@ -120,7 +130,8 @@ public final class BulkIngestMapFileLoader implements Runnable {
             log.error("usage: BulkIngestMapFileLoader hdfsWorkDir jobDirPattern instanceName zooKeepers username password "
                             + "[-sleepTime sleepTime] [-majcThreshold threshold] [-majcCheckInterval count] [-majcDelay majcDelay] "
                             + " [-seqFileHdfs seqFileSystemUri] [-srcHdfs srcFileSystemURI] [-destHdfs destFileSystemURI] [-jt jobTracker] "
-                            + "[-ingestMetricsDisabled] [-jobObservers jobObserverClasses] [-shutdownPort portNum] confFile [{confFile}]");
+                            + "[-ingestMetricsDisabled] [-jobObservers jobObserverClasses] [-shutdownPort portNum] [-pipelineDepth depth] "
+                            + "[-maxConcurrentImports count] [-pipelineDrainTimeout seconds] confFile [{confFile}]");
             System.exit(-1);
         }
 
@@ -187,6 +198,39 @@ public final class BulkIngestMapFileLoader implements Runnable {
                         log.error("-maxDirectories must be followed a number of directories", e);
                         System.exit(-2);
                     }
+                } else if ("-pipelineDepth".equalsIgnoreCase(args[i])) {
+                    if (i + 2 > args.length) {
+                        log.error("-pipelineDepth must be followed by the number of job directories that may be in flight at once");
+                        System.exit(-2);
+                    }
+                    try {
+                        PIPELINE_DEPTH = Integer.parseInt(args[++i]);
+                    } catch (NumberFormatException e) {
+                        log.error("-pipelineDepth must be followed by the number of job directories that may be in flight at once", e);
+                        System.exit(-2);
+                    }
+                } else if ("-maxConcurrentImports".equalsIgnoreCase(args[i])) {
+                    if (i + 2 > args.length) {
+                        log.error("-maxConcurrentImports must be followed by the number of job directories that may be imported at once");
+                        System.exit(-2);
+                    }
+                    try {
+                        MAX_CONCURRENT_IMPORTS = Integer.parseInt(args[++i]);
+                    } catch (NumberFormatException e) {
+                        log.error("-maxConcurrentImports must be followed by the number of job directories that may be imported at once", e);
+                        System.exit(-2);
+                    }
+                } else if ("-pipelineDrainTimeout".equalsIgnoreCase(args[i])) {
+                    if (i + 2 > args.length) {
+                        log.error("-pipelineDrainTimeout must be followed by the number of seconds to wait for the pipeline on shutdown");
+                        System.exit(-2);
+                    }
+                    try {
+                        PIPELINE_DRAIN_TIMEOUT = Long.parseLong(args[++i]) * 1000;
+                    } catch (NumberFormatException e) {
+                        log.error("-pipelineDrainTimeout must be followed by the number of seconds to wait for the pipeline on shutdown", e);
+                        System.exit(-2);
+                    }
                 } else if ("-numThreads".equalsIgnoreCase(args[i])) {
                     if (i + 2 > args.length) {
                         log.error("-numThreads must be followed by the number of bulk import threads");
@@ -330,6 +374,11 @@ public final class BulkIngestMapFileLoader implements Runnable {
         log.info("Using " + jobtracker + " as the jobtracker");
         log.info("Using " + SHUTDOWN_PORT + " as the shutdown port");
         log.info("Using " + (FIFO ? "FIFO" : "LIFO") + " processing order");
+        if (PIPELINE_DEPTH > 0) {
+            log.info("Pipelining up to " + PIPELINE_DEPTH + " job directories with up to " + MAX_CONCURRENT_IMPORTS + " concurrent imports");
+        } else {
+            log.info("Processing job directories one at a time");
+        }
 
         for (String[] s : properties) {
             conf.set(s[0], s[1]);
@@ -391,6 +440,20 @@ public final class BulkIngestMapFileLoader implements Runnable {
         this.jobtracker = jobtracker;
         this.running = true;
         this.executor = Executors.newFixedThreadPool(numHdfsThreads > 0 ? numHdfsThreads : 1);
+        if (PIPELINE_DEPTH > 0) {
+            JobDirectoryPipeline.ImportGate gate = new JobDirectoryPipeline.ImportGate() {
+                @Override
+                public boolean canOverlap() {
+                    return canBringMapFilesOnline(lastOnlineTime, false);
+                }
+
+                @Override
+                public void finished() {
+                    lastOnlineTime = System.currentTimeMillis();
+                }
+            };
+            this.pipeline = new JobDirectoryPipeline(PIPELINE_DEPTH, MAX_CONCURRENT_IMPORTS, gate, SLEEP_TIME, () -> running);
+        }
         try {
             this.jobObservable = new JobObservable(seqFileHdfs != null ? getFileSystem(seqFileHdfs) : null);
         } catch (IOException e) {
@@ -422,11 +485,10 @@ public final class BulkIngestMapFileLoader implements Runnable {
     @Override
     public void run() {
         log.info("Starting process to monitor map files.");
-        long lastOnlineTime = 0;
         long lastLoadMessageTime = 0;
-        int fsAccessFailures = 0;
         Path[] jobDirectories = new Path[0];
         int nextJobIndex = 0;
+        boolean submittedWork = false;
 
         try {
             cleanJobDirectoriesOnStartup();
@@ -440,9 +502,15 @@ public final class BulkIngestMapFileLoader implements Runnable {
                 try {
                     if (!running)
                         break;
-                    sleep();
+                    // when pipelining, keep the pipeline full as long as there are job directories waiting
+                    if (!submittedWork)
+                        sleep();
+                    submittedWork = false;
                     if (!running)
                         break;
+                    if (pipeline != null) {
+                        writeCompletedStats();
+                    }
                     long loadMessageDelta = System.currentTimeMillis() - lastLoadMessageTime;
                     boolean logMessages = (loadMessageDelta > (5 * 60 * 1000));
                     if (logMessages) {
@@ -464,56 +532,30 @@ public final class BulkIngestMapFileLoader implements Runnable {
                             Path srcJobDirectory = jobDirectories[nextJobIndex++];
                             if (!running)
                                 break;
-                            // take ownership of the job directory if we can
-                            if (takeOwnershipJobDirectory(srcJobDirectory)) {
-                                processedDirectories.add(srcJobDirectory);
-                                Path mapFilesDir = new Path(srcJobDirectory, "mapFiles");
-                                if (INGEST_METRICS) {
-                                    reporter.getCounter("MapFileLoader.StartTimes", srcJobDirectory.getName()).increment(System.currentTimeMillis());
-                                }
-                                Path dstJobDirectory = srcJobDirectory;
-                                URI workingHdfs = srcHdfs;
-
-                                try {
-                                    log.info("Started processing " + mapFilesDir);
-                                    long start = System.currentTimeMillis();
-
-                                    // copy the data if needed
-                                    dstJobDirectory = distCpDirectory(srcJobDirectory);
-                                    workingHdfs = destHdfs;
-
-                                    // recreate the map files directory reference in case it moved filesystems
-                                    mapFilesDir = new Path(dstJobDirectory, "mapFiles");
-
-                                    // now if we have a destination work directory, then move then move the files
-                                    bringMapFilesOnline(mapFilesDir);
-
-                                    // ensure everything got loaded
-                                    verifyNothingLeftBehind(mapFilesDir);
-
-                                    cleanUpJobDirectory(mapFilesDir);
-                                    long end = System.currentTimeMillis();
-                                    log.info("Finished processing " + mapFilesDir + ", duration (sec): " + ((end - start) / 1000));
-
-                                    // now that we actually processed something, reset the last load message time to force a message on the next round
-                                    lastLoadMessageTime = 0;
-                                } catch (Exception e) {
-                                    log.error("Failed to process " + mapFilesDir, e);
-                                    boolean marked = markJobDirectoryFailed(workingHdfs, dstJobDirectory);
-                                    if (!marked) {
-                                        ++fsAccessFailures;
-                                        if (fsAccessFailures >= 3) {
-                                            log.error("Too many failures updating marker files.  Exiting...");
-                                            shutdown();
-                                        } else {
-                                            log.warn("Failed to mark " + dstJobDirectory + " as failed. Sleeping in case this was a transient failure.");
-                                            try {
-                                                Thread.sleep(FAILURE_SLEEP_TIME);
-                                            } catch (InterruptedException ie) {
-                                                log.warn("Interrupted while sleeping.", ie);
-                                            }
-                                        }
+                            // wait for room in the pipeline before taking ownership so that owned directories do not sit idle
+                            if (pipeline != null && !pipeline.acquireSlot())
+                                break;
+                            boolean submitted = false;
+                            try {
+                                // take ownership of the job directory if we can
+                                if (takeOwnershipJobDirectory(srcJobDirectory)) {
+                                    processedDirectories.add(srcJobDirectory);
+                                    if (INGEST_METRICS) {
+                                        reporter.getCounter("MapFileLoader.StartTimes", srcJobDirectory.getName()).increment(System.currentTimeMillis());
                                     }
+
+                                    if (pipeline != null) {
+                                        // the pipeline releases the slot once the job directory has finished
+                                        submitted = true;
+                                        pipeline.submit(new JobLoad(srcJobDirectory));
+                                    } else if (processJobDirectory(srcJobDirectory)) {
+                                        // now that we actually processed something, reset the last load message time to force a message on the next round
+                                        lastLoadMessageTime = 0;
+                                    }
+                                }
+                            } finally {
+                                if (pipeline != null && !submitted) {
+                                    pipeline.releaseSlot();
                                 }
                             }
                             if (nextJobIndex >= jobDirectories.length) {
@@ -523,8 +565,13 @@ public final class BulkIngestMapFileLoader implements Runnable {
 
                         }
                         if (!processedDirectories.isEmpty()) {
-                            writeStats(processedDirectories.toArray(new Path[processedDirectories.size()]));
-                            lastOnlineTime = System.currentTimeMillis();
+                            if (pipeline != null) {
+                                submittedWork = true;
+                                lastLoadMessageTime = 0;
+                            } else {
+                                writeStats(processedDirectories.toArray(new Path[processedDirectories.size()]));
+                                lastOnlineTime = System.currentTimeMillis();
+                            }
                         }
                     }
                 } catch (Exception e) {
@@ -533,6 +580,9 @@ public final class BulkIngestMapFileLoader implements Runnable {
             }
 
         } finally {
+            if (pipeline != null) {
+                drainPipeline();
+            }
             log.info("Shutting down executor service");
             accumuloClient.close();
             executor.shutdown();
@@ -540,6 +590,125 @@ public final class BulkIngestMapFileLoader implements Runnable {
         log.info("Bulk map file loader shutting down.");
     }
 
+    /**
+     * Process a job directory that we own from start to finish: copy it to the destination file system if needed, bring the map files online and clean up.
+     *
+     * @param srcJobDirectory
+     *            the job directory in the source file system
+     * @return true if the job directory was loaded, false if it was marked as failed
+     */
+    private boolean processJobDirectory(Path srcJobDirectory) {
+        JobLoad load = new JobLoad(srcJobDirectory);
+        try {
+            load.prepare();
+            load.bringOnline();
+            load.complete();
+            return true;
+        } catch (Exception e) {
+            load.failed(e);
+            return false;
+        }
+    }
+
+    private void writeCompletedStats() throws IOException {
+        List<Path> completed = pipeline.pollCompleted();
+        if (!completed.isEmpty()) {
+            writeStats(completed.toArray(new Path[completed.size()]));
+        }
+    }
+
+    /**
+     * Let the job directories already in the pipeline finish so none are left marked as loading, then stop the pipeline threads. This gives up after the drain
+     * timeout so that a stuck import cannot hold up shutdown forever.
+     */
+    private void drainPipeline() {
+        pipeline.drain(PIPELINE_DRAIN_TIMEOUT);
+        try {
+            writeCompletedStats();
+        } catch (IOException e) {
+            log.error("Unable to write stats for the completed job directories", e);
+        }
+    }
+
+    /**
+     * The stages of loading a single job directory
+     */
+    private class JobLoad implements JobDirectoryPipeline.Job {
+        private final Path srcJobDirectory;
+        private Path dstJobDirectory;
+        private URI workingHdfs;
+        private Path mapFilesDir;
+        private long start;
+        private boolean collapsed = false;
+
+        JobLoad(Path srcJobDirectory) {
+            this.srcJobDirectory = srcJobDirectory;
+            this.dstJobDirectory = srcJobDirectory;
+            this.workingHdfs = srcHdfs;
+            this.mapFilesDir = new Path(srcJobDirectory, "mapFiles");
+        }
+
+        @Override
+        public Path getDirectory() {
+            return srcJobDirectory;
+        }
+
+        @Override
+        public void prepare() throws Exception {
+            log.info("Started processing " + mapFilesDir);
+            start = System.currentTimeMillis();
+
+            // copy the data if needed
+            dstJobDirectory = distCpDirectory(srcJobDirectory);
+            workingHdfs = destHdfs;
+
+            // recreate the map files directory reference in case it moved filesystems
+            mapFilesDir = new Path(dstJobDirectory, "mapFiles");
+        }
+
+        @Override
+        public void rename() throws IOException {
+            // ensure all of the files are just under each table directory before they are imported
+            collapseTableDirectories(mapFilesDir);
+            collapsed = true;
+        }
+
+        @Override
+        public void bringOnline() throws Exception {
+            // now if we have a destination work directory, then move then move the files
+            bringMapFilesOnline(mapFilesDir, collapsed);
+        }
+
+        @Override
+        public void complete() throws IOException {
+            // ensure everything got loaded
+            verifyNothingLeftBehind(mapFilesDir);
+
+            cleanUpJobDirectory(mapFilesDir);
+            long end = System.currentTimeMillis();
+            log.info("Finished processing " + mapFilesDir + ", duration (sec): " + ((end - start) / 1000));
+        }
+
+        @Override
+        public void failed(Throwable e) {
+            log.error("Failed to process " + mapFilesDir, e);
+            boolean marked = markJobDirectoryFailed(workingHdfs, dstJobDirectory);
+            if (!marked) {
+                if (fsAccessFailures.incrementAndGet() >= 3) {
+                    log.error("Too many failures updating marker files.  Exiting...");
+                    shutdown();
+                } else {
+                    log.warn("Failed to mark " + dstJobDirectory + " as failed. Sleeping in case this was a transient failure.");
+                    try {
+                        Thread.sleep(FAILURE_SLEEP_TIME);
+                    } catch (InterruptedException ie) {
+                        log.warn("Interrupted while sleeping.", ie);
+                    }
+                }
+            }
+        }
+    }
+
     protected void cleanJobDirectoriesOnStartup() throws IOException {
         Path[] cleanupDirectories = getJobDirectories(destHdfs, new Path(workDir, jobDirPattern + '/' + CLEANUP_FILE_MARKER));
         for (int i = 0; i < cleanupDirectories.length; i++) {
@@ -759,6 +928,27 @@ public final class BulkIngestMapFileLoader implements Runnable {
      *             if the table is not found
      */
     public void bringMapFilesOnline(Path mapFilesDir) throws IOException, AccumuloException, AccumuloSecurityException, TableNotFoundException {
+        bringMapFilesOnline(mapFilesDir, false);
+    }
+
+    /**
+     * Bring the map files under the map files directory online
+     *
+     * @param mapFilesDir
+     *            the map files directory
+     * @param collapsed
+     *            true if the table directories have already been collapsed by {@link #collapseTableDirectories(Path)}
+     * @throws IOException
+     *             if there is an issue accessing the filesystem
+     * @throws AccumuloException
+     *             for general accumulo issues
+     * @throws AccumuloSecurityException
+     *             for accumulo auth issues
+     * @throws TableNotFoundException
+     *             if the table is not found
+     */
+    public void bringMapFilesOnline(Path mapFilesDir, boolean collapsed) throws IOException, AccumuloException, AccumuloSecurityException,
+                    TableNotFoundException {
         log.info("Bringing all mapFiles under " + mapFilesDir + " online.");
 
         // By now the map files should be on the local filesystem
@@ -831,7 +1021,7 @@ public final class BulkIngestMapFileLoader implements Runnable {
 
                 priority = tablePriorities.get(stat.getPath().getName());
             }
-            imports.push(startImport(mapFilesDir, tableName, tableDir, accumuloClient));
+            imports.push(startImport(mapFilesDir, tableName, tableDir, accumuloClient, collapsed));
         }
 
         Exception e = null;
@@ -852,8 +1042,91 @@ public final class BulkIngestMapFileLoader implements Runnable {
             throw new IOException(e);
     }
 
+    /**
+     * Collapse the subdirectories of each table directory under a map files directory, so that all of the files are just under their table directory
+     *
+     * @param mapFilesDir
+     *            the map files directory
+     * @throws IOException
+     *             if there is an issue accessing the filesystem
+     */
+    public void collapseTableDirectories(Path mapFilesDir) throws IOException {
+        Set<String> tableNames = accumuloClient.tableOperations().list();
+        for (FileStatus stat : getFileSystem(destHdfs).globStatus(new Path(mapFilesDir, "*"))) {
+            if (stat.isDirectory() && tableNames.contains(stat.getPath().getName())) {
+                collapseTableDirectory(stat.getPath());
+            }
+        }
+    }
+
+    private void collapseTableDirectory(Path tableDir) throws IOException {
+        collapseDirectory(tableDir, tableDir);
+    }
+
+    private void collapseDirectory(Path tableDir, Path dir) throws IOException {
+        // collapse any subdirectories, and then collapse those to the top level
+        FileSystem fileSystem = FileSystem.get(srcHdfs, new Configuration());
+        for (FileStatus file : fileSystem.listStatus(dir)) {
+            if (file.isDirectory()) {
+                Path filePath = file.getPath();
+                log.warn("Found an unexpected subdirectory " + filePath + ".  Collapsing into " + tableDir + ".");
+                collapseDirectory(tableDir, filePath);
+                for (FileStatus subFile : fileSystem.listStatus(filePath)) {
+                    Path subFilePath = subFile.getPath();
+                    Path destFilePath = new Path(tableDir, subFilePath.getName());
+                    // if the dest file already exists, then check if it is the same file
+                    if (fileSystem.exists(destFilePath)) {
+                        FileChecksum subFileCheckSum = fileSystem.getFileChecksum(subFilePath);
+                        FileChecksum destFileCheckSum = fileSystem.getFileChecksum(destFilePath);
+                        if (subFileCheckSum.equals(destFileCheckSum)) {
+                            log.info(subFilePath + " and " + destFilePath + " are identical, removing the former");
+                            fileSystem.delete(subFilePath, false);
+                        } else {
+                            // Attempt to rename the file instead of failing
+                            destFilePath = new Path(tableDir, getNextName(subFilePath.getName()));
+                            while (fileSystem.exists(destFilePath)) {
+                                destFilePath = new Path(tableDir, getNextName(destFilePath.getName()));
+                            }
+                            log.info("Renaming " + subFilePath + " to " + destFilePath);
+                            fileSystem.rename(subFilePath, destFilePath);
+                        }
+                    } else {
+                        log.info("Renaming " + subFilePath + " to " + destFilePath);
+                        fileSystem.rename(subFilePath, destFilePath);
+                    }
+                }
+                // verify the directory is empty
+                if (fileSystem.listStatus(filePath).length > 0) {
+                    log.fatal("Failed to collapse subdirectory " + filePath);
+                    throw new IOException("Failed to collapse subdirectory " + filePath);
+                }
+                fileSystem.delete(filePath, false);
+            }
+        }
+    }
+
+    /**
+     * Return a rfile with .1 appended before the extension. {@code foo.ext -> foo.1.ext foo -> foo.1}
+     *
+     * @param rfile
+     *            the rfile string
+     * @return a rfile with .1 appended before the extension
+     */
+    private static String getNextName(String rfile) {
+        int index = rfile.lastIndexOf('.');
+        if (index < 0) {
+            return rfile + ".1";
+        } else {
+            return rfile.substring(0, index) + ".1" + rfile.substring(index);
+        }
+    }
+
     public ImportRunnable startImport(Path mapFilesDir, String tableName, Path tableDir, AccumuloClient accumuloClient) {
-        ImportRunnable runnable = new ImportRunnable(mapFilesDir, tableName, tableDir, accumuloClient);
+        return startImport(mapFilesDir, tableName, tableDir, accumuloClient, false);
+    }
+
+    private ImportRunnable startImport(Path mapFilesDir, String tableName, Path tableDir, AccumuloClient accumuloClient, boolean collapsed) {
+        ImportRunnable runnable = new ImportRunnable(mapFilesDir, tableName, tableDir, accumuloClient, collapsed);
         Thread thread = new Thread(runnable);
         runnable.setThread(thread);
         thread.start();
@@ -868,8 +1141,10 @@ public final class BulkIngestMapFileLoader implements Runnable {
         private Path mapFilesDir;
         private Exception exception = null;
         private Thread thread = null;
+        private boolean collapsed;
 
-        private ImportRunnable(Path mapFilesDir, String tableName, Path tableDir, AccumuloClient accumuloClient) {
+        private ImportRunnable(Path mapFilesDir, String tableName, Path tableDir, AccumuloClient accumuloClient, boolean collapsed) {
+            this.collapsed = collapsed;
             this.tableName = tableName;
             this.tableDir = tableDir;
             this.accumuloClient = accumuloClient;
@@ -905,7 +1180,9 @@ public final class BulkIngestMapFileLoader implements Runnable {
         public void run() {
             try {
                 // Ensure all of the files put just under tableDir....
-                collapseDirectory();
+                if (!collapsed) {
+                    collapseTableDirectory(tableDir);
+                }
 
                 // create the failures directory
                 String failuresDir = mapFilesDir + "/failures/" + tableName;
@@ -933,68 +1210,6 @@ public final class BulkIngestMapFileLoader implements Runnable {
             }
         }
 
-        private void collapseDirectory() throws IOException {
-            collapseDirectory(tableDir);
-        }
-
-        private void collapseDirectory(Path dir) throws IOException {
-            // collapse any subdirectories, and then collapse those to the top level
-            FileSystem fileSystem = FileSystem.get(srcHdfs, new Configuration());
-            for (FileStatus file : fileSystem.listStatus(dir)) {
-                if (file.isDirectory()) {
-                    Path filePath = file.getPath();
-                    log.warn("Found an unexpected subdirectory " + filePath + ".  Collapsing into " + tableDir + ".");
-                    collapseDirectory(filePath);
-                    for (FileStatus subFile : fileSystem.listStatus(filePath)) {
-                        Path subFilePath = subFile.getPath();
-                        Path destFilePath = new Path(tableDir, subFilePath.getName());
-                        // if the dest file already exists, then check if it is the same file
-                        if (fileSystem.exists(destFilePath)) {
-                            FileChecksum subFileCheckSum = fileSystem.getFileChecksum(subFilePath);
-                            FileChecksum destFileCheckSum = fileSystem.getFileChecksum(destFilePath);
-                            if (subFileCheckSum.equals(destFileCheckSum)) {
-                                log.info(subFilePath + " and " + destFilePath + " are identical, removing the former");
-                                fileSystem.delete(subFilePath, false);
-                            } else {
-                                // Attempt to rename the file instead of failing
-                                destFilePath = new Path(tableDir, getNextName(subFilePath.getName()));
-                                while (fileSystem.exists(destFilePath)) {
-                                    destFilePath = new Path(tableDir, getNextName(destFilePath.getName()));
-                                }
-                                log.info("Renaming " + subFilePath + " to " + destFilePath);
-                                fileSystem.rename(subFilePath, destFilePath);
-                            }
-                        } else {
-                            log.info("Renaming " + subFilePath + " to " + destFilePath);
-                            fileSystem.rename(subFilePath, destFilePath);
-                        }
-                    }
-                    // verify the directory is empty
-                    if (fileSystem.listStatus(filePath).length > 0) {
-                        log.fatal("Failed to collapse subdirectory " + filePath);
-                        throw new IOException("Failed to collapse subdirectory " + filePath);
-                    }
-                    fileSystem.delete(filePath, false);
-                }
-            }
-        }
-
-        /**
-         * Return a rfile with .1 appended before the extension. {@code foo.ext -> foo.1.ext foo -> foo.1}
-         *
-         * @param rfile
-         *            the rfile string
-         * @return a rfile with .1 appended before the extension
-         */
-        private String getNextName(String rfile) {
-            int index = rfile.lastIndexOf('.');
-            if (index < 0) {
-                return rfile + ".1";
-            } else {
-                return rfile.substring(0, index) + ".1" + rfile.substring(index);
-            }
-        }
-
         private void validateComplete() throws IOException {
             FileSystem fileSystem = FileSystem.get(srcHdfs, new Configuration());
             if (fileSystem.listStatus(tableDir).length > 0) {
@@ -0,0 +1,263 @@
+package datawave.ingest.mapreduce.job;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.log4j.Logger;
+
+/**
+ * The staged pipeline used by the {@link BulkIngestMapFileLoader} to load several job directories at once. Each job directory runs through four stages:
+ * <ul>
+ * <li>prepare (distcp to the destination file system), in order on one thread</li>
+ * <li>rename (collapsing the table directories), in order on one thread</li>
+ * <li>import, with up to a maximum number of imports at once</li>
+ * <li>completion (verification, cleanup and marking the source files loaded), in order on one thread</li>
+ * </ul>
+ * The number of job directories in flight is bounded by the pipeline depth. A slot is held by a job directory from {@link #acquireSlot()} until it has
+ * completed or failed, whatever stage it fails in.
+ */
+class JobDirectoryPipeline {
+
+    private static final Logger log = Logger.getLogger(JobDirectoryPipeline.class);
+
+    private static final long SLOT_WAIT_MS = 1000;
+
+    /**
+     * The stages of loading a single job directory
+     */
+    interface Job {
+        Path getDirectory();
+
+        void prepare() throws Exception;
+
+        void rename() throws Exception;
+
+        void bringOnline() throws Exception;
+
+        void complete() throws Exception;
+
+        void failed(Throwable t);
+    }
+
+    /**
+     * Decides when an import may overlap the ones already running
+     */
+    interface ImportGate {
+        /**
+         * @return true if another import may start while others are running
+         */
+        boolean canOverlap();
+
+        /**
+         * Called when an import has finished
+         */
+        void finished();
+    }
+
+    private final int depth;
+    private final Semaphore slots;
+    private final ImportGate gate;
+    private final long importWaitMs;
+    private final BooleanSupplier running;
+    private final ExecutorService prepareExecutor;
+    private final ExecutorService renameExecutor;
+    private final ExecutorService importExecutor;
+    private final ExecutorService completionExecutor;
+    private final Queue<Path> completed = new ConcurrentLinkedQueue<>();
+    private final Set<Path> inFlight = ConcurrentHashMap.newKeySet();
+    private final Object importLock = new Object();
+    private int activeImports = 0;
+
+    /**
+     * @param depth
+     *            the most job directories in flight at once
+     * @param maxConcurrentImports
+     *            the most job directories imported at once
+     * @param gate
+     *            decides when imports may overlap
+     * @param importWaitMs
+     *            how long to wait before asking the gate again
+     * @param running
+     *            whether the loader is still running
+     */
+    JobDirectoryPipeline(int depth, int maxConcurrentImports, ImportGate gate, long importWaitMs, BooleanSupplier running) {
+        this.depth = depth;
+        this.slots = new Semaphore(depth);
+        this.gate = gate;
+        this.importWaitMs = importWaitMs;
+        this.running = running;
+        // one thread each for the in order stages, the imports may overlap
+        this.prepareExecutor = Executors.newSingleThreadExecutor();
+        this.renameExecutor = Executors.newSingleThreadExecutor();
+        this.importExecutor = Executors.newFixedThreadPool(Math.max(1, maxConcurrentImports));
+        this.completionExecutor = Executors.newSingleThreadExecutor();
+    }
+
+    /**
+     * Wait for room in the pipeline, giving up once the loader stops running
+     *
+     * @return true if a slot was acquired, false if the loader is shutting down
+     * @throws InterruptedException
+     *             if interrupted while waiting
+     */
+    boolean acquireSlot() throws InterruptedException {
+        while (running.getAsBoolean()) {
+            if (slots.tryAcquire(SLOT_WAIT_MS, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Give back a slot that was acquired but not used for a job directory
+     */
+    void releaseSlot() {
+        slots.release();
+    }
+
+    /**
+     * Submit a job directory holding a slot to the pipeline. The slot is released once the job directory has completed or been marked as failed, or straight
+     * away if it could not be submitted.
+     *
+     * @param job
+     *            the job directory to load
+     */
+    void submit(Job job) {
+        Path directory = job.getDirectory();
+        inFlight.add(directory);
+        try {
+            // @formatter:off
+            CompletableFuture.runAsync(stage(job::prepare), prepareExecutor)
+                    .thenRunAsync(stage(job::rename), renameExecutor)
+                    .thenRunAsync(stage(() -> {
+                        acquireImport();
+                        try {
+                            job.bringOnline();
+                        } finally {
+                            releaseImport();
+                        }
+                    }), importExecutor)
+                    .thenRunAsync(stage(job::complete), completionExecutor)
+                    .whenComplete((result, t) -> finish(job, t));
+            // @formatter:on
+        } catch (RuntimeException e) {
+            // the pipeline has been stopped
+            finish(job, e);
+        }
+    }
+
+    private void finish(Job job, Throwable t) {
+        try {
+            if (t == null) {
+                completed.add(job.getDirectory());
+            } else {
+                job.failed((t instanceof CompletionException && t.getCause() != null) ? t.getCause() : t);
+            }
+        } finally {
+            inFlight.remove(job.getDirectory());
+            slots.release();
+        }
+    }
+
+    private interface Stage {
+        void run() throws Exception;
+    }
+
+    private static Runnable stage(Stage stage) {
+        return () -> {
+            try {
+                stage.run();
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        };
+    }
+
+    /**
+     * Wait until another import may start. The first import always proceeds, as the loader already checked before taking the job directory. Additional
+     * concurrent imports are only started while the gate allows it.
+     *
+     * @throws InterruptedException
+     *             if interrupted while waiting
+     */
+    private void acquireImport() throws InterruptedException {
+        synchronized (importLock) {
+            while (activeImports > 0 && !gate.canOverlap()) {
+                importLock.wait(importWaitMs);
+            }
+            activeImports++;
+        }
+    }
+
+    private void releaseImport() {
+        synchronized (importLock) {
+            activeImports--;
+            gate.finished();
+            importLock.notifyAll();
+        }
+    }
+
+    /**
+     * @return the job directories completed since the last call
+     */
+    List<Path> pollCompleted() {
+        List<Path> paths = new ArrayList<>();
+        Path p;
+        while ((p = completed.poll()) != null) {
+            paths.add(p);
+        }
+        return paths;
+    }
+
+    /**
+     * Wait for the job directories in the pipeline to finish so none are left marked as loading, then stop the pipeline threads. If they have not finished
+     * within the timeout the pipeline threads are interrupted, and the job directories still in flight are left for the loader to recover on its next start.
+     *
+     * @param timeoutMs
+     *            the longest time to wait
+     * @return true if every job directory finished
+     */
+    boolean drain(long timeoutMs) {
+        log.info("Waiting for " + (depth - slots.availablePermits()) + " job directories in the pipeline to finish");
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        boolean drained = false;
+        try {
+            while (!(drained = slots.tryAcquire(depth, SLOT_WAIT_MS, TimeUnit.MILLISECONDS))) {
+                if (System.currentTimeMillis() >= deadline) {
+                    log.error("Timed out waiting for job directories in the pipeline to finish: " + inFlight);
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            log.warn("Interrupted while waiting for job directories in the pipeline to finish: " + inFlight);
+            Thread.currentThread().interrupt();
+        }
+
+        if (drained) {
+            slots.release(depth);
+            prepareExecutor.shutdown();
+            renameExecutor.shutdown();
+            importExecutor.shutdown();
+            completionExecutor.shutdown();
+        } else {
+            prepareExecutor.shutdownNow();
+            renameExecutor.shutdownNow();
+            importExecutor.shutdownNow();
+            completionExecutor.shutdownNow();
+        }
+        return drained;
+    }
+}
@@ -4,6 +4,9 @@ import static org.apache.accumulo.core.conf.Property.TABLE_CRYPTO_PREFIX;
 
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -49,6 +52,7 @@ import com.google.common.collect.Maps;
 
 import datawave.ingest.data.config.ingest.AccumuloHelper;
 import datawave.ingest.mapreduce.handler.shard.ShardedDataTypeHandler;
+import datawave.ingest.mapreduce.partition.ShardVolumeStats;
 import datawave.marking.MarkingFunctions;
 import datawave.util.StringUtils;
 
@@ -75,6 +79,11 @@ public class MultiRFileOutputFormatter extends FileOutputFormat<BulkIngestKey,Va
     protected static final String MAX_RFILE_UNDEDUPPED_ENTRIES = PREFIX + ".maxRFileUndeduppedEntries";
     protected static final String GENERATE_MAP_FILE_ROW_KEYS = PREFIX + ".generateMapFileRowKeys";
     protected static final String GENERATE_MAP_FILE_PER_SHARD_LOCATION = PREFIX + ".generateMapFilePerShardLocation";
+    protected static final String GENERATE_SHARD_VOLUME_STATS = PREFIX + ".generateShardVolumeStats";
+    protected static final String ASYNC_WRITERS = PREFIX + ".asyncWriters";
+    protected static final String ASYNC_WRITER_QUEUE_SIZE = PREFIX + ".asyncWriterQueueSize";
+    protected static final String ASYNC_WRITER_BATCH_SIZE = PREFIX + ".asyncWriterBatchSize";
+    protected static final String WRITER_COUNTER_GROUP_PREFIX = "RFile Writer: ";
 
     protected static final String BASE = "bulk.output.partition.count.";
     public static final String CONFIGURE_LOCALITY_GROUPS = PREFIX + ".tables";
@@ -100,6 +109,12 @@ public class MultiRFileOutputFormatter extends FileOutputFormat<BulkIngestKey,Va
     protected int maxRFileEntries = 0;
     protected boolean generateMapFileRowKeys = false;
     protected boolean generateMapFilePerShardLocation = false;
+    protected ShardVolumeStats shardVolumeStats = null;
+    protected boolean asyncWriters = false;
+    protected int asyncWriterQueueSize = 16;
+    protected int asyncWriterBatchSize = 1000;
+    // statistics for closed asynchronous writers, by table name
+    protected Map<String,AsyncFileSKVWriter.Metrics> writerMetrics = new HashMap<>();
     private long startWriteTime = 0L;
 
     protected Map<String,Map<Text,String>> columnFamilyToLocalityGroup;
@@ -116,6 +131,37 @@ public class MultiRFileOutputFormatter extends FileOutputFormat<BulkIngestKey,Va
         conf.setBoolean(GENERATE_MAP_FILE_PER_SHARD_LOCATION, generateMapFilePerShardLocation);
     }
 
+    /**
+     * Configure whether the bytes and keys written per shard id of the sharded tables are recorded in a shardVolume file alongside the RFiles. These files can
+     * be used by the {@link datawave.ingest.mapreduce.partition.ShardVolumePartitioner} of later jobs.
+     *
+     * @param conf
+     *            the configuration
+     * @param generateShardVolumeStats
+     *            true to write the shard volume statistics
+     */
+    public static void setGenerateShardVolumeStats(Configuration conf, boolean generateShardVolumeStats) {
+        conf.setBoolean(GENERATE_SHARD_VOLUME_STATS, generateShardVolumeStats);
+    }
+
+    /**
+     * Configure whether each RFile is written on its own thread, fed through a bounded queue, instead of on the calling reducer thread.
+     *
+     * @param conf
+     *            the configuration
+     * @param asyncWriters
+     *            true to write each RFile asynchronously
+     * @param queueSize
+     *            the number of batches that may be queued for a single RFile before the reducer blocks
+     * @param batchSize
+     *            the number of entries handed to a writer thread at a time
+     */
+    public static void setAsyncWriters(Configuration conf, boolean asyncWriters, int queueSize, int batchSize) {
+        conf.setBoolean(ASYNC_WRITERS, asyncWriters);
+        conf.setInt(ASYNC_WRITER_QUEUE_SIZE, queueSize);
+        conf.setInt(ASYNC_WRITER_BATCH_SIZE, batchSize);
+    }
+
     public static void setCompressionType(Configuration conf, String compressionType) {
         if (compressionType != null) {
             if (!("snappy".equals(compressionType) || "lzo".equals(compressionType) || "gz".equals(compressionType) || "zstd".equals(compressionType)
@@ -238,7 +284,12 @@ public class MultiRFileOutputFormatter extends FileOutputFormat<BulkIngestKey,Va
 
         // now create and register the writer
         SizeTrackingWriter writer = openWriter(filename.toString(), tableConf);
-        writer.startDefaultLocalityGroup();
+        try {
+            writer.startDefaultLocalityGroup();
+        } catch (IOException | RuntimeException e) {
+            AsyncFileSKVWriter.closeDelegate(writer, filename.toString());
+            throw e;
+        }
         writers.put(key, writer);
         unusedWriterPaths.put(key, filename);
         writerTableNames.put(key, table);
@@ -251,8 +302,51 @@ public class MultiRFileOutputFormatter extends FileOutputFormat<BulkIngestKey,Va
     protected SizeTrackingWriter openWriter(String filename, AccumuloConfiguration tableConf) throws IOException {
         startWriteTime = System.currentTimeMillis();
         CryptoService cs = CryptoFactoryLoader.getServiceForClient(CryptoEnvironment.Scope.TABLE, tableConf.getAllCryptoProperties());
-        return new SizeTrackingWriter(
-                        FileOperations.getInstance().newWriterBuilder().forFile(filename, fs, conf, cs).withTableConfiguration(tableConf).build());
+        FileSKVWriter writer = FileOperations.getInstance().newWriterBuilder().forFile(filename, fs, conf, cs).withTableConfiguration(tableConf).build();
+        if (asyncWriters) {
+            try {
+                writer = new AsyncFileSKVWriter(new Path(filename).getName(), writer, asyncWriterQueueSize, asyncWriterBatchSize);
+            } catch (RuntimeException e) {
+                AsyncFileSKVWriter.closeDelegate(writer, filename);
+                throw e;
+            }
+        }
+        return new SizeTrackingWriter(writer);
+    }
+
+    /**
+     * Close a writer, accumulating its statistics if it was written asynchronously.
+     *
+     * @param table
+     *            the table the writer was writing to
+     * @param writer
+     *            the writer
+     * @throws IOException
+     *             if there is an issue with read or write
+     */
+    protected void closeWriter(String table, SizeTrackingWriter writer) throws IOException {
+        writer.close();
+        AsyncFileSKVWriter.Metrics metrics = writer.getAsyncMetrics();
+        if (metrics != null) {
+            writerMetrics.computeIfAbsent(table, t -> new AsyncFileSKVWriter.Metrics()).add(metrics);
+        }
+    }
+
+    /**
+     * Record a failure to close a writer, keeping the first failure and adding any others to it as suppressed exceptions.
+     *
+     * @param failure
+     *            the first failure, or null if there was none
+     * @param e
+     *            the failure to record
+     * @return the first failure
+     */
+    private static IOException addFailure(IOException failure, IOException e) {
+        if (failure == null) {
+            return e;
+        }
+        failure.addSuppressed(e);
+        return failure;
     }
 
     /**
@@ -273,7 +367,7 @@ public class MultiRFileOutputFormatter extends FileOutputFormat<BulkIngestKey,Va
             Path filename = usedWriterPaths.get(key);
             // don't bother if this writer has not been used yet
             if (filename != null) {
-                writer.close();
+                closeWriter(table, writer);
                 // pull the index off the filename
                 filename = removeFileCount(filename);
                 createAndRegisterWriter(key, table, filename, tableConfigs.get(table));
@@ -320,6 +414,28 @@ public class MultiRFileOutputFormatter extends FileOutputFormat<BulkIngestKey,Va
             delegate.close();
         }
 
+        /**
+         * Begin closing the underlying writer without waiting if it is written asynchronously, otherwise do nothing.
+         *
+         * @throws IOException
+         *             if there is an issue with read or write
+         */
+        public void startClose() throws IOException {
+            if (delegate instanceof AsyncFileSKVWriter) {
+                ((AsyncFileSKVWriter) delegate).startClose();
+            }
+        }
+
+        /**
+         * @return the statistics of the underlying writer if it is written asynchronously, null otherwise
+         */
+        public AsyncFileSKVWriter.Metrics getAsyncMetrics() {
+            if (delegate instanceof AsyncFileSKVWriter) {
+                return ((AsyncFileSKVWriter) delegate).getMetrics();
+            }
+            return null;
+        }
+
         @Override
         public long getLength() throws IOException {
             return getSize();
@@ -489,6 +605,12 @@ public class MultiRFileOutputFormatter extends FileOutputFormat<BulkIngestKey,Va
 
         generateMapFileRowKeys = conf.getBoolean(GENERATE_MAP_FILE_ROW_KEYS, generateMapFileRowKeys);
         generateMapFilePerShardLocation = conf.getBoolean(GENERATE_MAP_FILE_PER_SHARD_LOCATION, generateMapFilePerShardLocation);
+        if (conf.getBoolean(GENERATE_SHARD_VOLUME_STATS, false)) {
+            shardVolumeStats = new ShardVolumeStats();
+        }
+        asyncWriters = conf.getBoolean(ASYNC_WRITERS, asyncWriters);
+        asyncWriterQueueSize = conf.getInt(ASYNC_WRITER_QUEUE_SIZE, asyncWriterQueueSize);
+        asyncWriterBatchSize = conf.getInt(ASYNC_WRITER_BATCH_SIZE, asyncWriterBatchSize);
 
         // Only do this once.
         if (null == writers) {
@@ -529,9 +651,10 @@ public class MultiRFileOutputFormatter extends FileOutputFormat<BulkIngestKey,Va
             @Override
             public void write(BulkIngestKey key, Value value) throws IOException {
                 String tableName = key.getTableName().toString();
+                Text row = key.getKey().getRow();
                 SizeTrackingWriter writer;
                 try {
-                    writer = getOrCreateWriter(context, tableName, key.getKey().getRow());
+                    writer = getOrCreateWriter(context, tableName, row);
                 } catch (AccumuloException e1) {
                     throw new IOException("Unable to create writer", e1);
                 }
@@ -558,13 +681,42 @@ public class MultiRFileOutputFormatter extends FileOutputFormat<BulkIngestKey,Va
                 }
                 writer.append(key.getKey(), value);
 
+                if (shardVolumeStats != null && shardedTableNames.contains(tableName)) {
+                    shardVolumeStats.add(key.getTableName(), row, key.getKey().getLength() + (value == null ? 0 : value.getSize()), 1);
+                }
             }
 
             @Override
             public void close(TaskAttemptContext context) throws IOException, InterruptedException {
-                // Close all of the Map File Writers
+                // Close all of the Map File Writers. Asynchronous writers are all signalled first so that they flush in parallel. Every writer is
+                // closed even if another fails, so that none is left with an open file or a running writer thread.
+                IOException failure = null;
                 for (SizeTrackingWriter writer : writers.values()) {
-                    writer.close();
+                    try {
+                        writer.startClose();
+                    } catch (IOException e) {
+                        failure = addFailure(failure, e);
+                    }
+                }
+                for (Map.Entry<String,SizeTrackingWriter> entry : writers.entrySet()) {
+                    try {
+                        closeWriter(writerTableNames.get(entry.getKey()), entry.getValue());
+                    } catch (IOException e) {
+                        failure = addFailure(failure, e);
+                    }
+                }
+                if (failure != null) {
+                    throw failure;
+                }
+                for (Map.Entry<String,AsyncFileSKVWriter.Metrics> entry : writerMetrics.entrySet()) {
+                    String group = WRITER_COUNTER_GROUP_PREFIX + entry.getKey();
+                    AsyncFileSKVWriter.Metrics metrics = entry.getValue();
+                    context.getCounter(group, "Entries").increment(metrics.getEntries());
+                    context.getCounter(group, "Bytes").increment(metrics.getBytes());
+                    context.getCounter(group, "Write ms").increment(metrics.getWriteMillis());
+                    context.getCounter(group, "Stall ms").increment(metrics.getStallMillis());
+                    context.getCounter(group, "Close ms").increment(metrics.getCloseMillis());
+                    log.info("Asynchronous writer statistics for " + entry.getKey() + ": " + metrics);
                 }
                 // To verify the file was actually written successfully, we need to reopen it which will reread
                 // the index at the end and verify its integrity.
@@ -591,6 +743,13 @@ public class MultiRFileOutputFormatter extends FileOutputFormat<BulkIngestKey,Va
                     log.info("Nothing written to " + path + ".  Deleting from HDFS.");
                     fs.delete(path, true);
                 }
+                if (shardVolumeStats != null && !shardVolumeStats.isEmpty()) {
+                    Path shardVolumePath = new Path(workDir, getUniqueFile(context, "shardVolume", ".txt"));
+                    log.info("Writing shard volume statistics to " + shardVolumePath);
+                    try (Writer output = new OutputStreamWriter(fs.create(shardVolumePath), StandardCharsets.UTF_8)) {
+                        shardVolumeStats.write(output);
+                    }
+                }
                 if (generateMapFileRowKeys && !shardMapFileRowKeys.isEmpty()) {
                     log.info("Writing mapFileRowKeys");
                     Path shardMapFilePath = new Path(workDir, getUniqueFile(context, "mapFileRowKeys", ".lst"));
@@ -0,0 +1,285 @@
+package datawave.ingest.mapreduce.partition;
+
+import java.io.IOException;
+import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.apache.accumulo.core.data.Value;
+import org.apache.hadoop.conf.Configurable;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.mapreduce.Counter;
+import org.apache.hadoop.mapreduce.Job;
+import org.apache.hadoop.mapreduce.Partitioner;
+import org.apache.hadoop.mapreduce.TaskInputOutputContext;
+import org.apache.log4j.Logger;
+
+import datawave.ingest.mapreduce.job.BulkIngestKey;
+
+/**
+ * The ShardVolumePartitioner assigns shard ids to reducers based on the volume each shard is expected to produce, so that a few hot shards do not create
+ * straggler reducers. Expected volumes are read from shard volume statistics (see {@link ShardVolumeStats}), for example those written by the
+ * MultiRFileOutputFormatter of a previous job. The statistics are from other dates than the ones being ingested, so the volume is keyed by the shard number
+ * (the n of a yyyyMMdd_n shard id) and summed over the dates in the statistics. The shard numbers of all of the tables in the statistics are bin packed onto
+ * the reducers together, largest first, each going to the reducer with the least expected volume so far, and every shard id with that number goes to that
+ * reducer whatever its date. Shard numbers without statistics fall back to hashing the shard id. Like the ShardIdPartitioner, this does not take tablet server
+ * locations into account.
+ * <p>
+ * The assignment is a deterministic function of the statistics and the number of reducers, so every mapper computes the same assignment.
+ */
+public class ShardVolumePartitioner extends Partitioner<BulkIngestKey,Value> implements Configurable, DelegatePartitioner {
+    private static final Logger log = Logger.getLogger(ShardVolumePartitioner.class);
+
+    private static final String PREFIX = ShardVolumePartitioner.class.getName();
+    public static final String STATS_PATH = PREFIX + ".stats.path";
+    public static final String KEY_WEIGHT = PREFIX + ".key.weight";
+    public static final String PARTITION_STATS = PREFIX + ".partitionStats";
+    public static final String COUNTER_GROUP = "Partitions: shard volume";
+
+    static TaskInputOutputContext<?,?,?,?> context = null;
+    // the counters are looked up once per task, and only when statistics are collected
+    private static volatile Counters counters = null;
+
+    private Configuration conf;
+    private ShardVolumeStats stats = null;
+    private volatile Assignment assignment = null;
+    private final ThreadLocal<Text> holder = ThreadLocal.withInitial(Text::new);
+    private final ThreadLocal<Text> shardNumberHolder = ThreadLocal.withInitial(Text::new);
+
+    /**
+     * The partition of each shard number for a given number of reducers. It is replaced rather than modified, so that partitioning needs no lock.
+     */
+    private static class Assignment {
+        private final int numReduceTasks;
+        private final Map<Text,Map<Text,Integer>> partitionsByTable;
+
+        Assignment(int numReduceTasks, Map<Text,Map<Text,Integer>> partitionsByTable) {
+            this.numReduceTasks = numReduceTasks;
+            this.partitionsByTable = partitionsByTable;
+        }
+    }
+
+    /**
+     * The partitioning counters of a task
+     */
+    private static class Counters {
+        private final TaskInputOutputContext<?,?,?,?> context;
+        private final Counter hashed;
+        private final Counter estimated;
+        private final AtomicReferenceArray<Counter> partitions;
+
+        Counters(TaskInputOutputContext<?,?,?,?> context, int numReduceTasks) {
+            this.context = context;
+            this.hashed = context.getCounter(COUNTER_GROUP, "keys.hashed");
+            this.estimated = context.getCounter(COUNTER_GROUP, "keys.estimated");
+            this.partitions = new AtomicReferenceArray<>(Math.max(numReduceTasks, 0));
+        }
+
+        void increment(int partition, boolean estimate) {
+            (estimate ? estimated : hashed).increment(1);
+            if (partition < partitions.length()) {
+                Counter counter = partitions.get(partition);
+                if (counter == null) {
+                    counter = context.getCounter(COUNTER_GROUP, "part." + new DecimalFormat("000").format(partition));
+                    partitions.set(partition, counter);
+                }
+                counter.increment(1);
+            }
+        }
+    }
+
+    public static void setContext(TaskInputOutputContext<?,?,?,?> context) {
+        ShardVolumePartitioner.context = context;
+        if (context != null && context.getConfiguration().getBoolean(PARTITION_STATS, false)) {
+            counters = new Counters(context, context.getNumReduceTasks());
+        } else {
+            counters = null;
+        }
+    }
+
+    @Override
+    public int getPartition(BulkIngestKey key, Value value, int numReduceTasks) {
+        Assignment a = assignment;
+        if (a == null || a.numReduceTasks != numReduceTasks) {
+            // the assignment is deterministic, so a race here only computes the same assignment twice
+            a = getAssignment(numReduceTasks);
+        }
+
+        Text row = holder.get();
+        key.getKey().getRow(row);
+        Map<Text,Integer> partitions = a.partitionsByTable.get(key.getTableName());
+        Integer partition = (partitions == null ? null : partitions.get(getShardNumber(row, shardNumberHolder.get())));
+        boolean estimated = partition != null;
+        if (partition == null) {
+            partition = (row.hashCode() & Integer.MAX_VALUE) % numReduceTasks;
+        }
+
+        Counters c = counters;
+        if (c != null) {
+            c.increment(partition, estimated);
+        }
+        return partition;
+    }
+
+    private synchronized Assignment getAssignment(int numReduceTasks) {
+        Assignment a = assignment;
+        if (a == null || a.numReduceTasks != numReduceTasks) {
+            a = new Assignment(numReduceTasks, assignPartitions(getStats(), numReduceTasks, conf.getLong(KEY_WEIGHT, 64)));
+            assignment = a;
+        }
+        return a;
+    }
+
+    private ShardVolumeStats getStats() {
+        if (stats == null) {
+            String path = conf.get(STATS_PATH);
+            if (path == null) {
+                log.warn(STATS_PATH + " is not configured, all shards will be hashed");
+                stats = new ShardVolumeStats();
+            } else {
+                try {
+                    stats = ShardVolumeStats.load(conf, path);
+                } catch (IOException e) {
+                    throw new RuntimeException("Unable to load shard volume statistics from " + path, e);
+                }
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Get the shard number of a shard id, which is everything after the last underscore, or the whole shard id if there is none.
+     *
+     * @param shardId
+     *            the shard id, in the format yyyyMMdd_n
+     * @param shardNumber
+     *            the text to set to the shard number
+     * @return the shard number
+     */
+    static Text getShardNumber(Text shardId, Text shardNumber) {
+        byte[] bytes = shardId.getBytes();
+        int length = shardId.getLength();
+        int start = length;
+        while (start > 0 && bytes[start - 1] != '_') {
+            start--;
+        }
+        shardNumber.set(bytes, start, length - start);
+        return shardNumber;
+    }
+
+    /**
+     * Bin pack the shard numbers in the statistics onto the partitions, largest expected volume first, each going to the partition with the least expected
+     * volume so far. The volume of a shard number is summed over all of the dates in the statistics. Ties are broken by table name, shard number and partition
+     * number so that the assignment is deterministic.
+     *
+     * @param stats
+     *            the shard volume statistics
+     * @param numPartitions
+     *            the number of partitions
+     * @param keyWeight
+     *            the number of bytes a single key is considered to cost in addition to its size
+     * @return the assigned partition by table name and then shard number
+     */
+    static Map<Text,Map<Text,Integer>> assignPartitions(ShardVolumeStats stats, int numPartitions, long keyWeight) {
+        List<ShardCost> shards = new ArrayList<>();
+        for (Map.Entry<Text,Map<Text,ShardVolumeStats.Volume>> table : stats.getVolumesByTable().entrySet()) {
+            Map<Text,Long> costs = new HashMap<>();
+            for (Map.Entry<Text,ShardVolumeStats.Volume> shard : table.getValue().entrySet()) {
+                long cost = shard.getValue().getBytes() + keyWeight * shard.getValue().getKeys();
+                costs.merge(getShardNumber(shard.getKey(), new Text()), cost, Long::sum);
+            }
+            for (Map.Entry<Text,Long> shard : costs.entrySet()) {
+                shards.add(new ShardCost(table.getKey(), shard.getKey(), shard.getValue()));
+            }
+        }
+        shards.sort(Comparator.comparingLong((ShardCost s) -> s.cost).reversed().thenComparing(s -> s.tableName).thenComparing(s -> s.shardNumber));
+
+        PriorityQueue<PartitionLoad> loads = new PriorityQueue<>(Math.max(1, numPartitions),
+                        Comparator.comparingLong((PartitionLoad l) -> l.cost).thenComparingInt(l -> l.partition));
+        for (int i = 0; i < numPartitions; i++) {
+            loads.add(new PartitionLoad(i));
+        }
+
+        Map<Text,Map<Text,Integer>> partitionsByTable = new HashMap<>();
+        for (ShardCost shard : shards) {
+            PartitionLoad load = loads.poll();
+            partitionsByTable.computeIfAbsent(shard.tableName, t -> new HashMap<>()).put(shard.shardNumber, load.partition);
+            load.cost += shard.cost;
+            loads.add(load);
+        }
+
+        if (log.isInfoEnabled() && !shards.isEmpty()) {
+            long min = Long.MAX_VALUE;
+            long max = 0;
+            long total = 0;
+            for (PartitionLoad load : loads) {
+                min = Math.min(min, load.cost);
+                max = Math.max(max, load.cost);
+                total += load.cost;
+            }
+            log.info("Assigned " + shards.size() + " shard numbers to " + numPartitions + " partitions by volume. Expected cost per partition: min=" + min
+                            + ", max=" + max + ", mean=" + (total / numPartitions));
+        }
+        return partitionsByTable;
+    }
+
+    private static class ShardCost {
+        private final Text tableName;
+        private final Text shardNumber;
+        private final long cost;
+
+        ShardCost(Text tableName, Text shardNumber, long cost) {
+            this.tableName = tableName;
+            this.shardNumber = shardNumber;
+            this.cost = cost;
+        }
+    }
+
+    private static class PartitionLoad {
+        private final int partition;
+        private long cost = 0;
+
+        PartitionLoad(int partition) {
+            this.partition = partition;
+        }
+    }
+
+    @Override
+    public Configuration getConf() {
+        return conf;
+    }
+
+    @Override
+    public void setConf(Configuration conf) {
+        this.conf = conf;
+        this.stats = null;
+        this.assignment = null;
+    }
+
+    @Override
+    public void configureWithPrefix(String prefix) {/* no op */}
+
+    @Override
+    public int getNumPartitions() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public void initializeJob(Job job) {}
+
+    @Override
+    public boolean needSplits() {
+        return false;
+    }
+
+    @Override
+    public boolean needSplitLocations() {
+        return false;
+    }
+}
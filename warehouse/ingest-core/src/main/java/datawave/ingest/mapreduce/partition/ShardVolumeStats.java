@@ -0,0 +1,161 @@
+package datawave.ingest.mapreduce.partition;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.Text;
+import org.apache.log4j.Logger;
+
+/**
+ * The observed volume (bytes and keys) written per shard id for the sharded tables. The statistics are stored as text files with the format:
+ * {@code tableName<tab>shardId<tab>bytes<tab>keys}. Statistics for the same table and shard id appearing more than once, either in one file or across files,
+ * are summed.
+ */
+public class ShardVolumeStats {
+    private static final Logger log = Logger.getLogger(ShardVolumeStats.class);
+
+    private final Map<Text,Map<Text,Volume>> volumesByTable = new HashMap<>();
+
+    /**
+     * The bytes and keys written for one shard id
+     */
+    public static class Volume {
+        private long bytes = 0;
+        private long keys = 0;
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getKeys() {
+            return keys;
+        }
+
+        public void add(long bytes, long keys) {
+            this.bytes += bytes;
+            this.keys += keys;
+        }
+    }
+
+    /**
+     * Add volume for a shard id. The shard id is only copied if this is the first volume seen for it.
+     *
+     * @param tableName
+     *            the table name
+     * @param shardId
+     *            the shard id
+     * @param bytes
+     *            the number of bytes
+     * @param keys
+     *            the number of keys
+     */
+    public void add(Text tableName, Text shardId, long bytes, long keys) {
+        Map<Text,Volume> volumes = volumesByTable.get(tableName);
+        if (volumes == null) {
+            volumes = new HashMap<>();
+            volumesByTable.put(new Text(tableName), volumes);
+        }
+        Volume volume = volumes.get(shardId);
+        if (volume == null) {
+            volume = new Volume();
+            volumes.put(new Text(shardId), volume);
+        }
+        volume.add(bytes, keys);
+    }
+
+    /**
+     * @return the volumes by table name and then shard id
+     */
+    public Map<Text,Map<Text,Volume>> getVolumesByTable() {
+        return volumesByTable;
+    }
+
+    public boolean isEmpty() {
+        return volumesByTable.isEmpty();
+    }
+
+    /**
+     * Write out the statistics in the text format
+     *
+     * @param writer
+     *            the writer
+     * @throws IOException
+     *             if there is an issue with write
+     */
+    public void write(Writer writer) throws IOException {
+        for (Map.Entry<Text,Map<Text,Volume>> table : volumesByTable.entrySet()) {
+            for (Map.Entry<Text,Volume> shard : table.getValue().entrySet()) {
+                writer.write(table.getKey() + "\t" + shard.getKey() + "\t" + shard.getValue().getBytes() + "\t" + shard.getValue().getKeys() + "\n");
+            }
+        }
+    }
+
+    /**
+     * Read the statistics in the text format, ignoring malformed lines
+     *
+     * @param reader
+     *            the reader
+     * @throws IOException
+     *             if there is an issue with read
+     */
+    public void read(BufferedReader reader) throws IOException {
+        Text tableName = new Text();
+        Text shardId = new Text();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String[] parts = line.split("\t");
+            if (parts.length != 4) {
+                log.warn("Ignoring malformed shard volume line: " + line);
+                continue;
+            }
+            try {
+                long bytes = Long.parseLong(parts[2]);
+                long keys = Long.parseLong(parts[3]);
+                tableName.set(parts[0]);
+                shardId.set(parts[1]);
+                add(tableName, shardId, bytes, keys);
+            } catch (NumberFormatException e) {
+                log.warn("Ignoring malformed shard volume line: " + line);
+            }
+        }
+    }
+
+    /**
+     * Load the statistics from all files matching a path or glob
+     *
+     * @param conf
+     *            the configuration used to get the file system
+     * @param pathGlob
+     *            the path or glob of the statistics files
+     * @return the summed statistics, empty if no files match
+     * @throws IOException
+     *             if there is an issue with read
+     */
+    public static ShardVolumeStats load(Configuration conf, String pathGlob) throws IOException {
+        ShardVolumeStats stats = new ShardVolumeStats();
+        Path path = new Path(pathGlob);
+        FileSystem fs = path.getFileSystem(conf);
+        FileStatus[] files = fs.globStatus(path);
+        if (files == null || files.length == 0) {
+            log.warn("No shard volume statistics found at " + pathGlob);
+            return stats;
+        }
+        for (FileStatus file : files) {
+            if (file.isFile()) {
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(fs.open(file.getPath()), StandardCharsets.UTF_8))) {
+                    stats.read(reader);
+                }
+            }
+        }
+        return stats;
+    }
+}
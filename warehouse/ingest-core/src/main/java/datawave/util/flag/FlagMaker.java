@@ -80,6 +80,11 @@ public class FlagMaker implements Runnable, Observer, SizeValidator {
     private FlagSocket flagSocket;
     private final DecimalFormat df = new DecimalFormat("#0.00");
     private DateUtils util = new DateUtils();
+    // lists input directories incrementally when incremental discovery is enabled, null otherwise
+    private final IncrementalInputLister inputLister;
+    // used to wake the main loop early when notified of new input files
+    private final Object cycleLock = new Object();
+    private boolean cycleRequested = false;
 
     protected JobConf config;
 
@@ -91,6 +96,7 @@ public class FlagMaker implements Runnable, Observer, SizeValidator {
         // configure the executor per the FlagMakerConfig input
         this.executor = Executors.newFixedThreadPool(this.fmc.getMaxHdfsThreads());
         this.fd = this.fmc.getFlagDistributor();
+        this.inputLister = (this.fmc.isIncrementalDiscovery() ? new IncrementalInputLister(this.executor) : null);
 
         // build the cache per the default configuration.
         // @formatter:off
@@ -106,9 +112,12 @@ public class FlagMaker implements Runnable, Observer, SizeValidator {
         FlagMakerConfig flagMakerConfig = getFlagMakerConfig(args);
 
         boolean shutdown = false;
+        String notifyPath = null;
         for (int i = 0; i < args.length; i++) {
             if ("-shutdown".equals(args[i])) {
                 shutdown = true;
+            } else if ("-notify".equals(args[i])) {
+                notifyPath = args[++i];
             }
         }
 
@@ -117,6 +126,11 @@ public class FlagMaker implements Runnable, Observer, SizeValidator {
             System.exit(0);
         }
 
+        if (notifyPath != null) {
+            sendCommand(flagMakerConfig.getSocketPort(), "notify " + notifyPath);
+            System.exit(0);
+        }
+
         try {
             FlagMaker m = createFlagMaker(flagMakerConfig);
             m.run();
@@ -198,8 +212,12 @@ public class FlagMaker implements Runnable, Observer, SizeValidator {
     }
 
     private static void shutdown(int port) throws IOException {
+        sendCommand(port, "shutdown");
+    }
+
+    private static void sendCommand(int port, String command) throws IOException {
         try (Socket s = new Socket("localhost", port); PrintWriter pw = new PrintWriter(s.getOutputStream(), true)) {
-            pw.write("shutdown");
+            pw.write(command);
             pw.flush();
         }
     }
@@ -209,6 +227,7 @@ public class FlagMaker implements Runnable, Observer, SizeValidator {
         System.out.println("datawave.ingest.flag.FlagMaker -flagConfig [path to xml config]");
         System.out.println("Optional arguments:");
         System.out.println("\t\t-shutdown\tDescription: shuts down the flag maker using configured socketPort");
+        System.out.println("\t\t-notify [HDFS Path]\tDescription: tells the running flag maker that new files were staged in or under the path");
         System.out.println("\t\t-baseHDFSDirOverride [HDFS Path]\tDescription: overrides baseHDFSDir in xml");
         System.out.println("\t\t-extraIngestArgsOverride [extra ingest args]\tDescription: overrides extraIngestArgs value in xml config");
         System.out.println("\t\t-flagFileDirectoryOverride [local path]\tDescription: overrides flagFileDirectory value in xml config");
@@ -222,7 +241,7 @@ public class FlagMaker implements Runnable, Observer, SizeValidator {
             while (running) {
                 try {
                     processFlags();
-                    Thread.sleep(fmc.getSleepMilliSecs());
+                    waitForNextCycle();
                 } catch (Exception ex) {
                     log.error("An unexpected exception occurred. Exiting", ex);
                     running = false;
@@ -234,6 +253,30 @@ public class FlagMaker implements Runnable, Observer, SizeValidator {
         log.trace(this.getClass().getSimpleName() + " Exiting.");
     }
 
+    /**
+     * Sleep until the next cycle, returning early if a notification of new files was received.
+     *
+     * @throws InterruptedException
+     *             if interrupted while waiting
+     */
+    void waitForNextCycle() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + fmc.getSleepMilliSecs();
+        synchronized (cycleLock) {
+            long remaining;
+            while (!cycleRequested && running && (remaining = deadline - System.currentTimeMillis()) > 0) {
+                cycleLock.wait(remaining);
+            }
+            cycleRequested = false;
+        }
+    }
+
+    private void requestCycle() {
+        synchronized (cycleLock) {
+            cycleRequested = true;
+            cycleLock.notifyAll();
+        }
+    }
+
     /**
      *
      * @throws IOException
@@ -279,7 +322,7 @@ public class FlagMaker implements Runnable, Observer, SizeValidator {
                 if (log.isTraceEnabled()) {
                     log.trace("searching for " + fc.getDataName() + " files in " + folderPattern);
                 }
-                FileStatus[] files = fs.globStatus(new Path(folderPattern));
+                FileStatus[] files = (inputLister == null ? fs.globStatus(new Path(folderPattern)) : inputLister.list(fs, folderPattern));
                 if (files == null || files.length == 0) {
                     continue;
                 }
@@ -486,6 +529,13 @@ public class FlagMaker implements Runnable, Observer, SizeValidator {
             // after we write a file, set the timeout to the forceInterval
             fc.setLast(now + fc.getTimeoutMilliSecs());
 
+            // the flagged files were moved out of their input directories
+            if (inputLister != null) {
+                for (InputFile entry : flagged) {
+                    inputLister.invalidate(entry.getPath());
+                }
+            }
+
             if (fc.isCollectMetrics()) {
                 try {
                     metrics.writeMetrics(this.fmc.getFlagMetricsDirectory(), new Path(baseName).getName());
@@ -627,6 +677,19 @@ public class FlagMaker implements Runnable, Observer, SizeValidator {
         String s = arg.toString();
         if ("shutdown".equals(s)) {
             running = false;
+            requestCycle();
+        }
+        if (s.startsWith("notify")) {
+            String path = s.substring(6).trim();
+            log.debug("Notified of new files in {}", path);
+            if (inputLister != null && !path.isEmpty()) {
+                try {
+                    inputLister.invalidate(getHadoopFS().makeQualified(new Path(path)));
+                } catch (IOException e) {
+                    log.warn("Unable to qualify notified path {}, relying on directory modification times", path, e);
+                }
+            }
+            requestCycle();
         }
         if (s.startsWith("kick")) {
             String dtype = s.substring(4).trim();
@@ -0,0 +1,159 @@
+package datawave.util.flag;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.GlobFilter;
+import org.apache.hadoop.fs.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Lists the input files matching a file pattern without re-listing every directory on each cycle. The directory portion of the pattern (e.g. the date
+ * partitions {@code folder/2*}{@code /*}{@code /*}) is expanded with a single glob, and the file listing of each matching directory is kept along with the
+ * directory's modification time. On later calls only directories that have been modified since they were listed are listed again, and those are listed in
+ * parallel. Adding, moving or removing a file in HDFS updates the modification time of its directory, so the result matches a full glob of the pattern.
+ * <p>
+ * A listing is only trusted once it was taken at least {@link #SAFETY_WINDOW_MILLIS} after the directory was last modified, to guard against changes made
+ * within the same clock tick as the listing or against clock differences with the name node.
+ */
+public class IncrementalInputLister {
+
+    private static final Logger log = LoggerFactory.getLogger(IncrementalInputLister.class);
+
+    static final long SAFETY_WINDOW_MILLIS = 5000L;
+
+    private final ExecutorService executor;
+
+    // directory listings by pattern, each sorted by directory so the date partitions are kept in order
+    private final Map<String,TreeMap<String,Listing>> listingsByPattern = new HashMap<>();
+
+    private static class Listing {
+        private final long modificationTime;
+        private final long listTime;
+        private final FileStatus[] files;
+
+        Listing(long modificationTime, long listTime, FileStatus[] files) {
+            this.modificationTime = modificationTime;
+            this.listTime = listTime;
+            this.files = files;
+        }
+
+        boolean isCurrent(long directoryModificationTime) {
+            return directoryModificationTime == modificationTime && listTime - modificationTime >= SAFETY_WINDOW_MILLIS;
+        }
+    }
+
+    /**
+     * @param executor
+     *            the executor used to list directories in parallel
+     */
+    public IncrementalInputLister(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * List the files and directories matching a pattern, as {@link FileSystem#globStatus(Path)} would.
+     *
+     * @param fs
+     *            the file system
+     * @param pattern
+     *            the file pattern
+     * @return the matching file statuses
+     * @throws IOException
+     *             if a directory cannot be listed
+     */
+    public synchronized FileStatus[] list(FileSystem fs, String pattern) throws IOException {
+        Path patternPath = new Path(pattern);
+        Path directoryPattern = patternPath.getParent();
+        if (directoryPattern == null) {
+            return fs.globStatus(patternPath);
+        }
+        String namePattern = patternPath.getName();
+        GlobFilter filter = new GlobFilter(namePattern);
+
+        FileStatus[] directories = fs.globStatus(directoryPattern);
+        TreeMap<String,Listing> previous = listingsByPattern.get(pattern);
+        TreeMap<String,Listing> current = new TreeMap<>();
+        if (directories == null || directories.length == 0) {
+            listingsByPattern.put(pattern, current);
+            return new FileStatus[0];
+        }
+
+        List<FileStatus> stale = new ArrayList<>();
+        for (FileStatus directory : directories) {
+            if (!directory.isDirectory()) {
+                continue;
+            }
+            String key = directory.getPath().toString();
+            Listing listing = (previous == null ? null : previous.get(key));
+            if (listing != null && listing.isCurrent(directory.getModificationTime())) {
+                current.put(key, listing);
+            } else {
+                stale.add(directory);
+            }
+        }
+
+        List<Future<Listing>> futures = new ArrayList<>(stale.size());
+        for (FileStatus directory : stale) {
+            futures.add(executor.submit(() -> {
+                long listTime = System.currentTimeMillis();
+                return new Listing(directory.getModificationTime(), listTime, fs.listStatus(directory.getPath(), filter));
+            }));
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                current.put(stale.get(i).getPath().toString(), futures.get(i).get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while listing " + stale.get(i).getPath(), e);
+            } catch (ExecutionException e) {
+                throw new IOException("Failed to list " + stale.get(i).getPath(), e.getCause());
+            }
+        }
+        listingsByPattern.put(pattern, current);
+
+        log.trace("Listed {} of {} directories for {}", stale.size(), current.size(), pattern);
+
+        List<FileStatus> files = new ArrayList<>();
+        for (Listing listing : current.values()) {
+            files.addAll(Arrays.asList(listing.files));
+        }
+        return files.toArray(new FileStatus[0]);
+    }
+
+    /**
+     * Discard the listings of a directory and the directories under it, or of the directory containing a file, so that they are listed again on the next call.
+     *
+     * @param path
+     *            a directory or file
+     */
+    public synchronized void invalidate(Path path) {
+        String directory = path.toUri().getPath();
+        String parent = (path.getParent() == null ? null : path.getParent().toUri().getPath());
+        for (TreeMap<String,Listing> listings : listingsByPattern.values()) {
+            listings.keySet().removeIf(key -> {
+                // cached keys are fully qualified, the supplied path may not be
+                String keyPath = new Path(key).toUri().getPath();
+                return keyPath.equals(directory) || keyPath.startsWith(directory + Path.SEPARATOR) || keyPath.equals(parent);
+            });
+        }
+    }
+
+    /**
+     * Discard all listings
+     */
+    public synchronized void invalidateAll() {
+        listingsByPattern.clear();
+    }
+}
@@ -68,6 +68,8 @@ public class FlagMakerConfig {
     protected long directoryCacheTimeout = (2 * 60 * 60 * 1000);
     // implementation of flagmaker to run
     private String flagMakerClass = FlagMaker.class.getName();
+    // only re-list input directories that have changed since the previous cycle instead of globbing every file each cycle
+    private boolean incrementalDiscovery = false;
 
     public FlagDataTypeConfig getDefaultCfg() {
         return defaultCfg;
@@ -213,6 +215,14 @@ public class FlagMakerConfig {
         this.flagMakerClass = flagMakerClass;
     }
 
+    public boolean isIncrementalDiscovery() {
+        return incrementalDiscovery;
+    }
+
+    public void setIncrementalDiscovery(boolean incrementalDiscovery) {
+        this.incrementalDiscovery = incrementalDiscovery;
+    }
+
     /**
      * Gets the list of <code>FlagConfig</code>s
      *
@@ -371,6 +381,7 @@ public class FlagMakerConfig {
         result.append("directoryCacheSize: " + this.getDirectoryCacheSize() + "\n");
         result.append("directoryCacheTimeout: " + this.getDirectoryCacheTimeout() + "\n");
         result.append("flagMakerClass: " + this.getFlagMakerClass() + "\n");
+        result.append("incrementalDiscovery: " + this.isIncrementalDiscovery() + "\n");
         return result.toString();
     }
 }
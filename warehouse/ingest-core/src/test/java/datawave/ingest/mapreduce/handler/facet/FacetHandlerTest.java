@@ -172,6 +172,30 @@ public class FacetHandlerTest {
         evaluateSingleEventResults(keysByTable, expectedFacets, expectedFacetMetadata);
     }
 
+    @Test
+    public void testSingleEventWithRollup() {
+        ctx.getConfiguration().set("test.facet.rollup.pivots", "STYLE");
+
+        ExtendedDataTypeHandler<Text,BulkIngestKey,Value> handler = new FacetHandler<>();
+        handler.setup(ctx);
+
+        helper.setup(ctx.getConfiguration());
+
+        Multimap<String,NormalizedContentInterface> fields = TestData.getDataItem(1);
+        setupTaskAttemptContext();
+        processEvent(event, fields, handler);
+        Multimap<String,FacetResult> keysByTable = collectResults();
+
+        // the facets of the rolled up pivot are also written to the weekly cube for the week starting Monday 2020-03-30
+        Set<String> expectedFacets = Stream.of(TestData.getExpectedFacetData(1)).collect(Collectors.toSet());
+        Stream.of(TestData.getExpectedFacetData(1)).filter(s -> s.contains(" STYLE%00;"))
+                        .map(s -> s.replace(":20200401 [] 1585699200000 ", ":W20200330 [] 1585526400000 ")).forEach(expectedFacets::add);
+        Set<String> expectedFacetMetadata = Stream.of(TestData.getExpectedFacetMetadataData(1)).collect(Collectors.toSet());
+
+        assertEquals(13, expectedFacets.size());
+        evaluateSingleEventResults(keysByTable, expectedFacets, expectedFacetMetadata);
+    }
+
     @Test
     public void testMultipleEvents() {
         ExtendedDataTypeHandler<Text,BulkIngestKey,Value> handler = new FacetHandler<>();
@@ -0,0 +1,149 @@
+package datawave.ingest.mapreduce.job;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.file.FileSKVWriter;
+import org.junit.Test;
+
+public class AsyncFileSKVWriterTest {
+
+    /**
+     * Records the operations performed against it, optionally failing on a given append
+     */
+    private static class RecordingWriter implements FileSKVWriter {
+        private final List<String> operations = Collections.synchronizedList(new ArrayList<>());
+        private final int failOnAppend;
+        private int appends = 0;
+
+        RecordingWriter(int failOnAppend) {
+            this.failOnAppend = failOnAppend;
+        }
+
+        @Override
+        public boolean supportsLocalityGroups() {
+            return true;
+        }
+
+        @Override
+        public void startNewLocalityGroup(String name, Set<ByteSequence> columnFamilies) throws IOException {
+            operations.add("lg:" + name);
+        }
+
+        @Override
+        public void startDefaultLocalityGroup() throws IOException {
+            operations.add("default");
+        }
+
+        @Override
+        public void append(Key key, Value value) throws IOException {
+            if (++appends == failOnAppend) {
+                throw new IOException("failed append");
+            }
+            operations.add(key.getRow().toString() + "=" + value);
+        }
+
+        @Override
+        public DataOutputStream createMetaStore(String name) throws IOException {
+            operations.add("meta:" + name);
+            return null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            operations.add("close");
+        }
+
+        @Override
+        public long getLength() throws IOException {
+            return appends;
+        }
+    }
+
+    @Test
+    public void testOrderIsPreserved() throws IOException {
+        RecordingWriter delegate = new RecordingWriter(-1);
+        AsyncFileSKVWriter writer = new AsyncFileSKVWriter("test", delegate, 2, 3);
+        writer.startDefaultLocalityGroup();
+        for (int i = 0; i < 10; i++) {
+            writer.append(new Key("row" + i), new Value("v" + i));
+        }
+        writer.startNewLocalityGroup("lg1", Collections.emptySet());
+        writer.append(new Key("row10"), new Value("v10"));
+        assertEquals(11, writer.getLength());
+        writer.createMetaStore("meta");
+        writer.close();
+
+        List<String> expected = new ArrayList<>();
+        expected.add("default");
+        for (int i = 0; i < 10; i++) {
+            expected.add("row" + i + "=v" + i);
+        }
+        expected.add("lg:lg1");
+        expected.add("row10=v10");
+        expected.add("meta:meta");
+        expected.add("close");
+        assertEquals(expected, delegate.operations);
+
+        AsyncFileSKVWriter.Metrics metrics = writer.getMetrics();
+        assertEquals(11, metrics.getEntries());
+        assertTrue(metrics.getBytes() > 0);
+    }
+
+    @Test
+    public void testAppendedValuesAreRetained() throws IOException {
+        RecordingWriter delegate = new RecordingWriter(-1);
+        AsyncFileSKVWriter writer = new AsyncFileSKVWriter("test", delegate, 1, 10);
+        Value value = new Value("first");
+        writer.append(new Key("row1"), value);
+        value.set("second".getBytes());
+        writer.append(new Key("row2"), value);
+        writer.close();
+        assertEquals(List.of("row1=first", "row2=second", "close"), delegate.operations);
+    }
+
+    @Test
+    public void testFailureIsPropagated() throws IOException {
+        RecordingWriter delegate = new RecordingWriter(2);
+        AsyncFileSKVWriter writer = new AsyncFileSKVWriter("test", delegate, 1, 1);
+        try {
+            for (int i = 0; i < 1000; i++) {
+                writer.append(new Key("row" + i), new Value("v" + i));
+            }
+            writer.close();
+            fail("Expected the append failure to be propagated");
+        } catch (IOException e) {
+            assertEquals("failed append", e.getCause().getMessage());
+        }
+    }
+
+    @Test
+    public void testDelegateIsClosedOnFailure() {
+        RecordingWriter delegate = new RecordingWriter(1);
+        AsyncFileSKVWriter writer = new AsyncFileSKVWriter("test", delegate, 1, 1);
+        try {
+            writer.append(new Key("row0"), new Value("v0"));
+            writer.close();
+            fail("Expected the append failure to be propagated");
+        } catch (IOException e) {
+            assertEquals("failed append", e.getCause().getMessage());
+        }
+        assertEquals(List.of("close"), delegate.operations);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidQueueSize() {
+        new AsyncFileSKVWriter("test", new RecordingWriter(-1), 0, 1);
+    }
+}
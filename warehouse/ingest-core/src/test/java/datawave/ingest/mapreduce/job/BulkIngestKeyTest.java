@@ -3,6 +3,8 @@ package datawave.ingest.mapreduce.job;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.io.ByteArrayInputStream;
@@ -181,4 +183,97 @@ public class BulkIngestKeyTest {
         assertNotEquals(bik1.hashCode(), bik2.hashCode());
     }
 
+    @Test
+    public void testTableNameReuse() throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        DataOutputStream dos = new DataOutputStream(bos);
+        new BulkIngestKey(new Text("shard"), new Key(new Text("row1"), new Text("cf"), new Text("cq"), new Text("cv"), 10L)).write(dos);
+        new BulkIngestKey(new Text("shard"), new Key(new Text("row2"), new Text("cf"), new Text("cq"), new Text("cv"), 11L)).write(dos);
+        new BulkIngestKey(new Text("shardIndex"), new Key(new Text("row3"), new Text("cf"), new Text("cq"), new Text("cv"), 12L)).write(dos);
+
+        DataInputStream dis = new DataInputStream(new ByteArrayInputStream(bos.toByteArray()));
+        BulkIngestKey reused = new BulkIngestKey();
+        reused.readFields(dis);
+        Text first = reused.getTableName();
+        assertEquals(new Text("shard"), first);
+        assertEquals(new Key(new Text("row1"), new Text("cf"), new Text("cq"), new Text("cv"), 10L), reused.getKey());
+
+        reused.readFields(dis);
+        assertSame(first, reused.getTableName());
+        assertEquals(new Key(new Text("row2"), new Text("cf"), new Text("cq"), new Text("cv"), 11L), reused.getKey());
+
+        reused.readFields(dis);
+        assertEquals(new Text("shardIndex"), reused.getTableName());
+        assertEquals(new Text("shard"), first);
+
+        // keys read separately share the same table name
+        dis = new DataInputStream(new ByteArrayInputStream(bos.toByteArray()));
+        BulkIngestKey other = new BulkIngestKey();
+        other.readFields(dis);
+        assertSame(first, other.getTableName());
+
+        // setting the table name must not modify the shared instance
+        other.setTableName(new Text("shardReverseIndex"));
+        assertEquals(new Text("shard"), first);
+        assertNotSame(first, other.getTableName());
+        assertEquals(new Text("shardReverseIndex"), other.getTableName());
+    }
+
+    @Test
+    public void testKeyPartsShared() throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        DataOutputStream dos = new DataOutputStream(bos);
+        new BulkIngestKey(new Text("shard"), new Key(new Text("row"), new Text("cf"), new Text("cq1"), new Text("cv"), 10L)).write(dos);
+        new BulkIngestKey(new Text("shard"), new Key(new Text("row"), new Text("cf"), new Text("cq2"), new Text("cv"), 11L)).write(dos);
+        new BulkIngestKey(new Text("shard"), new Key(new Text("row"), new Text("cf2"), new Text("cq2"), new Text("cv"), 12L)).write(dos);
+
+        DataInputStream dis = new DataInputStream(new ByteArrayInputStream(bos.toByteArray()));
+        BulkIngestKey reused = new BulkIngestKey();
+        reused.readFields(dis);
+        Key first = reused.getKey();
+
+        reused.readFields(dis);
+        Key second = reused.getKey();
+        // a new key is read, leaving the previous one as it was
+        assertNotSame(first, second);
+        assertEquals(new Key(new Text("row"), new Text("cf"), new Text("cq1"), new Text("cv"), 10L), first);
+        assertEquals(new Key(new Text("row"), new Text("cf"), new Text("cq2"), new Text("cv"), 11L), second);
+        assertSame(first.getRowData().getBackingArray(), second.getRowData().getBackingArray());
+        assertSame(first.getColumnFamilyData().getBackingArray(), second.getColumnFamilyData().getBackingArray());
+        assertNotSame(first.getColumnQualifierData().getBackingArray(), second.getColumnQualifierData().getBackingArray());
+        assertSame(first.getColumnVisibilityData().getBackingArray(), second.getColumnVisibilityData().getBackingArray());
+
+        reused.readFields(dis);
+        Key third = reused.getKey();
+        assertEquals(new Key(new Text("row"), new Text("cf2"), new Text("cq2"), new Text("cv"), 12L), third);
+        assertSame(second.getColumnQualifierData().getBackingArray(), third.getColumnQualifierData().getBackingArray());
+        assertEquals(new Key(new Text("row"), new Text("cf"), new Text("cq2"), new Text("cv"), 11L), second);
+    }
+
+    @Test
+    public void testHashCodeAfterRead() throws IOException {
+        BulkIngestKey expected = new BulkIngestKey(new Text("testTable"), new Key(new Text("row"), new Text("cf"), new Text("cq"), new Text("cv"), 5L));
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        expected.write(new DataOutputStream(bos));
+
+        BulkIngestKey actual = new BulkIngestKey();
+        int emptyHashCode = actual.hashCode();
+        actual.readFields(new DataInputStream(new ByteArrayInputStream(bos.toByteArray())));
+        assertEquals(expected.hashCode(), actual.hashCode());
+        assertNotEquals(emptyHashCode, actual.hashCode());
+    }
+
+    @Test
+    public void testHashCodeAfterSetTableName() {
+        Key key = new Key(new Text("row"), new Text("cf"), new Text("cq"), new Text("cv"), 5L);
+        BulkIngestKey actual = new BulkIngestKey(new Text("testTable"), key);
+        int originalHashCode = actual.hashCode();
+
+        actual.setTableName(new Text("otherTable"));
+        BulkIngestKey expected = new BulkIngestKey(new Text("otherTable"), key);
+        assertEquals(expected, actual);
+        assertEquals(expected.hashCode(), actual.hashCode());
+        assertNotEquals(originalHashCode, actual.hashCode());
+    }
+
 }
@@ -0,0 +1,163 @@
+package datawave.ingest.mapreduce.job;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.hadoop.fs.Path;
+import org.junit.Test;
+
+public class JobDirectoryPipelineTest {
+
+    private final AtomicBoolean running = new AtomicBoolean(true);
+
+    private static final JobDirectoryPipeline.ImportGate ALWAYS = new JobDirectoryPipeline.ImportGate() {
+        @Override
+        public boolean canOverlap() {
+            return true;
+        }
+
+        @Override
+        public void finished() {}
+    };
+
+    /**
+     * Records the stages run for a job directory, optionally failing or blocking the import
+     */
+    private static class TestJob implements JobDirectoryPipeline.Job {
+        private final Path directory;
+        private final List<String> stages = Collections.synchronizedList(new ArrayList<>());
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private final CountDownLatch finished = new CountDownLatch(1);
+        private boolean failImport = false;
+        private CountDownLatch blockImport = null;
+
+        TestJob(String name) {
+            this.directory = new Path("/work/" + name);
+        }
+
+        @Override
+        public Path getDirectory() {
+            return directory;
+        }
+
+        @Override
+        public void prepare() {
+            stages.add("prepare");
+        }
+
+        @Override
+        public void rename() {
+            stages.add("rename");
+        }
+
+        @Override
+        public void bringOnline() throws Exception {
+            stages.add("import");
+            if (blockImport != null) {
+                blockImport.await();
+            }
+            if (failImport) {
+                throw new IOException("import failed");
+            }
+        }
+
+        @Override
+        public void complete() {
+            stages.add("complete");
+            finished.countDown();
+        }
+
+        @Override
+        public void failed(Throwable t) {
+            failure.set(t);
+            finished.countDown();
+        }
+    }
+
+    private JobDirectoryPipeline newPipeline(int depth) {
+        return new JobDirectoryPipeline(depth, 2, ALWAYS, 10, running::get);
+    }
+
+    @Test
+    public void testStagesRunInOrder() throws InterruptedException {
+        JobDirectoryPipeline pipeline = newPipeline(2);
+        TestJob job = new TestJob("job1");
+        assertTrue(pipeline.acquireSlot());
+        pipeline.submit(job);
+
+        assertTrue(pipeline.drain(TimeUnit.SECONDS.toMillis(10)));
+        assertEquals(List.of("prepare", "rename", "import", "complete"), job.stages);
+        assertEquals(List.of(job.getDirectory()), pipeline.pollCompleted());
+    }
+
+    @Test
+    public void testFailingImportReleasesItsSlot() throws InterruptedException {
+        JobDirectoryPipeline pipeline = newPipeline(1);
+        TestJob failing = new TestJob("failing");
+        failing.failImport = true;
+        assertTrue(pipeline.acquireSlot());
+        pipeline.submit(failing);
+        assertTrue(failing.finished.await(10, TimeUnit.SECONDS));
+        assertEquals("import failed", failing.failure.get().getMessage());
+        assertFalse(failing.stages.contains("complete"));
+
+        // the failed job directory gave its slot back, so the next one can run
+        TestJob next = new TestJob("next");
+        assertTrue(pipeline.acquireSlot());
+        pipeline.submit(next);
+
+        assertTrue(pipeline.drain(TimeUnit.SECONDS.toMillis(10)));
+        assertEquals(List.of(next.getDirectory()), pipeline.pollCompleted());
+    }
+
+    @Test
+    public void testAcquireSlotStopsOnShutdown() throws InterruptedException {
+        JobDirectoryPipeline pipeline = newPipeline(1);
+        assertTrue(pipeline.acquireSlot());
+
+        Thread stopper = new Thread(() -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running.set(false);
+        });
+        stopper.start();
+        // no slot is free, so this only returns because the loader stopped running
+        assertFalse(pipeline.acquireSlot());
+        stopper.join();
+
+        pipeline.releaseSlot();
+        assertTrue(pipeline.drain(TimeUnit.SECONDS.toMillis(10)));
+    }
+
+    @Test
+    public void testShutdownGivesUpOnStuckImport() throws InterruptedException {
+        JobDirectoryPipeline pipeline = newPipeline(2);
+        TestJob stuck = new TestJob("stuck");
+        stuck.blockImport = new CountDownLatch(1);
+        assertTrue(pipeline.acquireSlot());
+        pipeline.submit(stuck);
+
+        running.set(false);
+        long start = System.currentTimeMillis();
+        assertFalse(pipeline.drain(500));
+        assertTrue(System.currentTimeMillis() - start < TimeUnit.SECONDS.toMillis(10));
+
+        // the stuck import was interrupted and its job directory marked as failed
+        assertTrue(stuck.finished.await(10, TimeUnit.SECONDS));
+        assertTrue(stuck.failure.get() instanceof InterruptedException);
+        assertTrue(pipeline.pollCompleted().isEmpty());
+    }
+}
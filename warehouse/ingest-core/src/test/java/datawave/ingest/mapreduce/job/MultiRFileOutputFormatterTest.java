@@ -46,6 +46,8 @@ public class MultiRFileOutputFormatterTest {
 
     private static final String JOB_ID = "job_201109071404_1";
     private List<String> filenames = new ArrayList<>();
+    private List<String> closedFilenames = new ArrayList<>();
+    private Set<String> failedCloses = new HashSet<>();
     protected static final Logger logger = Logger.getLogger(MultiRFileOutputFormatterTest.class);
     protected static Map<String,String> mockedConfiguration = new HashMap<>();
 
@@ -359,6 +361,8 @@ public class MultiRFileOutputFormatterTest {
 
     private MultiRFileOutputFormatter createFormatter() {
         this.filenames.clear();
+        this.closedFilenames.clear();
+        this.failedCloses.clear();
         return new MultiRFileOutputFormatter() {
             @Override
             protected Set<String> getTableList() {
@@ -412,7 +416,12 @@ public class MultiRFileOutputFormatterTest {
                     }
 
                     @Override
-                    public void close() throws IOException {}
+                    public void close() throws IOException {
+                        closedFilenames.add(filename);
+                        if (failedCloses.contains(filename)) {
+                            throw new IOException("Unable to close " + filename);
+                        }
+                    }
 
                     @Override
                     public long getLength() throws IOException {
@@ -467,6 +476,26 @@ public class MultiRFileOutputFormatterTest {
         expectShardFiles(4);
     }
 
+    @Test
+    public void testCloseClosesEveryWriterWhenOneFails() throws IOException, InterruptedException {
+        MultiRFileOutputFormatter.setGenerateMapFilePerShardLocation(conf, true);
+        RecordWriter<BulkIngestKey,Value> writer = createWriter(formatter, conf);
+        writeShardPairs(writer, 1);
+        assertNumFileNames(3);
+
+        // both of the shard files fail to close, the shard index file is still closed
+        failedCloses.add(filenames.get(1));
+        failedCloses.add(filenames.get(2));
+        try {
+            writer.close(createContext(conf));
+            Assert.fail("Expected the failures to close the shard files to be thrown");
+        } catch (IOException e) {
+            Assert.assertTrue(e.getMessage(), failedCloses.contains(e.getMessage().substring("Unable to close ".length())));
+            Assert.assertEquals(1, e.getSuppressed().length);
+        }
+        Assert.assertEquals(new HashSet<>(filenames), new HashSet<>(closedFilenames));
+    }
+
     private void expectShardFiles(int num) {
         for (int i = 1; i <= num; i++) {
             assertFileNameForShard(i, "shards", i);
@@ -524,8 +553,11 @@ public class MultiRFileOutputFormatterTest {
     }
 
     private RecordWriter<BulkIngestKey,Value> createWriter(MultiRFileOutputFormatter formatter, Configuration conf) throws IOException, InterruptedException {
-        TaskAttemptContext context = new TaskAttemptContextImpl(conf, new TaskAttemptID(new TaskID(new JobID(JOB_ID, 1), TaskType.MAP, 1), 1));
-        return formatter.getRecordWriter(context);
+        return formatter.getRecordWriter(createContext(conf));
+    }
+
+    private TaskAttemptContext createContext(Configuration conf) {
+        return new TaskAttemptContextImpl(conf, new TaskAttemptID(new TaskID(new JobID(JOB_ID, 1), TaskType.MAP, 1), 1));
     }
 
     private void assertFileNameForShard(int index, String prefix, int shardId) {
@@ -0,0 +1,139 @@
+package datawave.ingest.mapreduce.partition;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.Text;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import datawave.ingest.mapreduce.job.BulkIngestKey;
+
+public class ShardVolumePartitionerTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testHotShardsAreSpread() {
+        ShardVolumeStats stats = new ShardVolumeStats();
+        Text shard = new Text("shard");
+        // two hot shards and many small ones
+        stats.add(shard, new Text("20240101_0"), 1000, 0);
+        stats.add(shard, new Text("20240101_1"), 1000, 0);
+        for (int i = 2; i < 22; i++) {
+            stats.add(shard, new Text("20240101_" + i), 100, 0);
+        }
+
+        Map<Text,Integer> partitions = ShardVolumePartitioner.assignPartitions(stats, 3, 0).get(shard);
+        Assert.assertEquals(22, partitions.size());
+        Assert.assertNotEquals(partitions.get(new Text("0")), partitions.get(new Text("1")));
+
+        long[] loads = new long[3];
+        for (Map.Entry<Text,Integer> entry : partitions.entrySet()) {
+            loads[entry.getValue()] += stats.getVolumesByTable().get(shard).get(new Text("20240101_" + entry.getKey())).getBytes();
+        }
+        // total is 4000 so a perfect split is 1333
+        for (long load : loads) {
+            Assert.assertTrue("Unbalanced load " + load, load >= 1300 && load <= 1400);
+        }
+    }
+
+    @Test
+    public void testVolumeIsSummedAcrossDates() {
+        ShardVolumeStats stats = new ShardVolumeStats();
+        Text shard = new Text("shard");
+        // shard 0 is hot on both days, shard 1 only on the first, and shards 2 and 3 are small
+        stats.add(shard, new Text("20240101_0"), 600, 0);
+        stats.add(shard, new Text("20240102_0"), 600, 0);
+        stats.add(shard, new Text("20240101_1"), 1000, 0);
+        stats.add(shard, new Text("20240102_1"), 10, 0);
+        stats.add(shard, new Text("20240101_2"), 100, 0);
+        stats.add(shard, new Text("20240102_2"), 100, 0);
+        stats.add(shard, new Text("20240101_3"), 50, 0);
+        stats.add(shard, new Text("20240102_3"), 50, 0);
+
+        Map<Text,Integer> partitions = ShardVolumePartitioner.assignPartitions(stats, 2, 0).get(shard);
+        Assert.assertEquals(4, partitions.size());
+
+        // shard 0 (1200) is packed first, then shard 1 (1010) on the other partition, then shards 2 (200) and 3 (100) on the lighter one
+        int hot = partitions.get(new Text("0"));
+        Assert.assertEquals(1 - hot, (int) partitions.get(new Text("1")));
+        Assert.assertEquals(1 - hot, (int) partitions.get(new Text("2")));
+        Assert.assertEquals(hot, (int) partitions.get(new Text("3")));
+    }
+
+    @Test
+    public void testShardNumber() {
+        Text shardNumber = new Text();
+        Assert.assertEquals(new Text("12"), ShardVolumePartitioner.getShardNumber(new Text("20240101_12"), shardNumber));
+        Assert.assertEquals(new Text("3"), ShardVolumePartitioner.getShardNumber(new Text("2024_01_01_3"), shardNumber));
+        Assert.assertEquals(new Text("noShard"), ShardVolumePartitioner.getShardNumber(new Text("noShard"), shardNumber));
+        Assert.assertEquals(new Text(""), ShardVolumePartitioner.getShardNumber(new Text("20240101_"), shardNumber));
+    }
+
+    @Test
+    public void testAssignmentIsDeterministic() {
+        ShardVolumeStats stats1 = new ShardVolumeStats();
+        ShardVolumeStats stats2 = new ShardVolumeStats();
+        for (int i = 0; i < 50; i++) {
+            stats1.add(new Text("shard"), new Text("20240101_" + i), 10, 1);
+            stats2.add(new Text("shard"), new Text("20240101_" + (49 - i)), 10, 1);
+        }
+        Assert.assertEquals(ShardVolumePartitioner.assignPartitions(stats1, 7, 64), ShardVolumePartitioner.assignPartitions(stats2, 7, 64));
+    }
+
+    @Test
+    public void testStatsRoundTrip() throws IOException {
+        ShardVolumeStats stats = new ShardVolumeStats();
+        stats.add(new Text("shard"), new Text("20240101_0"), 10, 1);
+        stats.add(new Text("shard"), new Text("20240101_0"), 20, 2);
+        stats.add(new Text("errorShard"), new Text("20240101_0"), 5, 1);
+
+        StringWriter writer = new StringWriter();
+        stats.write(writer);
+
+        ShardVolumeStats read = new ShardVolumeStats();
+        read.read(new BufferedReader(new StringReader(writer + "malformed line\n")));
+        ShardVolumeStats.Volume volume = read.getVolumesByTable().get(new Text("shard")).get(new Text("20240101_0"));
+        Assert.assertEquals(30, volume.getBytes());
+        Assert.assertEquals(3, volume.getKeys());
+        Assert.assertEquals(5, read.getVolumesByTable().get(new Text("errorShard")).get(new Text("20240101_0")).getBytes());
+    }
+
+    @Test
+    public void testPartitionerUsesStatsFiles() throws IOException {
+        File dir = temporaryFolder.newFolder();
+        Files.write(new File(dir, "shardVolume-r-00000.txt").toPath(), "shard\t20240101_0\t1000\t10\nshard\t20240101_1\t10\t1\n".getBytes(StandardCharsets.UTF_8));
+        Files.write(new File(dir, "shardVolume-r-00001.txt").toPath(), "shard\t20240101_2\t1000\t10\n".getBytes(StandardCharsets.UTF_8));
+
+        Configuration conf = new Configuration();
+        conf.set(ShardVolumePartitioner.STATS_PATH, dir.getAbsolutePath() + "/shardVolume-*.txt");
+        ShardVolumePartitioner partitioner = new ShardVolumePartitioner();
+        partitioner.setConf(conf);
+
+        Text table = new Text("shard");
+        int hot1 = partitioner.getPartition(new BulkIngestKey(table, new Key("20240101_0", "cf", "cq")), null, 2);
+        int hot2 = partitioner.getPartition(new BulkIngestKey(table, new Key("20240101_2", "cf", "cq")), null, 2);
+        Assert.assertNotEquals(hot1, hot2);
+        Assert.assertEquals(hot1, partitioner.getPartition(new BulkIngestKey(table, new Key("20240101_0", "other", "cq")), null, 2));
+
+        // the statistics are from another date, so shards of the dates being ingested are placed by their shard number
+        Assert.assertEquals(hot1, partitioner.getPartition(new BulkIngestKey(table, new Key("20240301_0", "cf", "cq")), null, 2));
+        Assert.assertEquals(hot2, partitioner.getPartition(new BulkIngestKey(table, new Key("20240302_2", "cf", "cq")), null, 2));
+
+        // shard numbers without statistics are hashed
+        int unknown = partitioner.getPartition(new BulkIngestKey(table, new Key("20240301_5", "cf", "cq")), null, 2);
+        Assert.assertEquals((new Text("20240301_5").hashCode() & Integer.MAX_VALUE) % 2, unknown);
+    }
+}
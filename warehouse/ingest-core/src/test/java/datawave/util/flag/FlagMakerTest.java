@@ -15,6 +15,8 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import javax.xml.bind.JAXBException;
@@ -155,6 +157,62 @@ public class FlagMakerTest extends AbstractFlagConfig {
         assertEquals(0, cleanCnt);
     }
 
+    /**
+     * Test of processFlags method with incremental discovery of the input files
+     */
+    @Test
+    public void testProcessFlagsIncremental() throws Exception {
+        log.info("-----  testProcessFlagsIncremental  -----");
+        File f = setUpFlagDir();
+        fmc.setIncrementalDiscovery(true);
+        createTestFiles(2, 5);
+        FlagMaker instance = new TestWrappedFlagMaker(fmc);
+        instance.processFlags();
+        assertEquals(2, f.listFiles((dir, name) -> name.endsWith(".flag")).length);
+
+        // the flagged files were moved, so the next cycle must not flag them again
+        instance.processFlags();
+        assertEquals(2, f.listFiles((dir, name) -> name.endsWith(".flag")).length);
+
+        // notified files are picked up by the next cycle
+        createTestFiles(1, 5);
+        instance.update(null, "notify " + fmc.getBaseHDFSDir());
+        instance.processFlags();
+        assertEquals(3, f.listFiles((dir, name) -> name.endsWith(".flag")).length);
+    }
+
+    /**
+     * Test that a notification wakes the main loop rather than it waiting out the sleep interval
+     */
+    @Test
+    public void testNotifyWakesMainLoop() throws Exception {
+        log.info("-----  testNotifyWakesMainLoop  -----");
+        fmc.setIncrementalDiscovery(true);
+        fmc.setSleepMilliSecs(TimeUnit.MINUTES.toMillis(10));
+        FlagMaker instance = new TestWrappedFlagMaker(fmc);
+
+        CountDownLatch woken = new CountDownLatch(1);
+        Thread waiter = new Thread(() -> {
+            try {
+                instance.waitForNextCycle();
+                woken.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        waiter.setDaemon(true);
+        waiter.start();
+
+        // without a notification the main loop keeps waiting
+        assertFalse(woken.await(500, TimeUnit.MILLISECONDS));
+
+        instance.update(null, "notify " + fmc.getBaseHDFSDir());
+        // far sooner than the sleep interval, so only the notification could have woken it
+        assertTrue("main loop was not woken by the notification", woken.await(10, TimeUnit.SECONDS));
+        waiter.join(TimeUnit.SECONDS.toMillis(10));
+        assertFalse(waiter.isAlive());
+    }
+
     /**
      * Test of time stamps of the flag files
      */
@@ -37,6 +37,9 @@ import datawave.util.ssdeep.BucketAccumuloKeyGenerator;
 import datawave.util.ssdeep.NGramByteHashGenerator;
 import datawave.util.ssdeep.NGramGenerator;
 import datawave.util.ssdeep.NGramTuple;
+import datawave.util.ssdeep.SSDeepEncoding;
+import datawave.util.ssdeep.SSDeepHash;
+import datawave.util.ssdeep.SSDeepMinHashGenerator;
 
 public class SSDeepIndexHandler<KEYIN,KEYOUT,VALUEOUT> implements ExtendedDataTypeHandler<KEYIN,KEYOUT,VALUEOUT> {
 
@@ -66,6 +69,15 @@ public class SSDeepIndexHandler<KEYIN,KEYOUT,VALUEOUT> implements ExtendedDataTy
 
     public static final int DEFAULT_SSDEEP_MIN_HASH_SIZE = NGramGenerator.DEFAULT_MIN_HASH_SIZE;
 
+    /** The number of minhash band keys indexed per chunk alongside the ngrams, zero disables band keys */
+    public static final String SSDEEP_MINHASH_BANDS = ".ssdeepIndex.minhash.bands";
+
+    public static final int DEFAULT_SSDEEP_MINHASH_BANDS = 0;
+
+    public static final String SSDEEP_MINHASH_ROWS_PER_BAND = ".ssdeepIndex.minhash.rows";
+
+    public static final int DEFAULT_SSDEEP_MINHASH_ROWS_PER_BAND = SSDeepMinHashGenerator.DEFAULT_ROWS_PER_BAND;
+
     /** The priority of 40 is arbitrary, based on setting other priorities - this controls the bulk loading process */
     public static final int DEFAULT_SSDEEP_INDEX_TABLE_LOADER_PRIORITY = 40;
     public static final String DEFAULT_SSDEEP_INDEX_TABLE_NAME = "ssdeepIndex";
@@ -80,6 +92,8 @@ public class SSDeepIndexHandler<KEYIN,KEYOUT,VALUEOUT> implements ExtendedDataTy
 
     protected NGramByteHashGenerator nGramGenerator;
     protected BucketAccumuloKeyGenerator accumuloKeyGenerator;
+    protected SSDeepMinHashGenerator minHashGenerator;
+    protected SSDeepEncoding ssDeepEncoder = new SSDeepEncoding();
 
     @Override
     public void setup(TaskAttemptContext context) {
@@ -101,6 +115,12 @@ public class SSDeepIndexHandler<KEYIN,KEYOUT,VALUEOUT> implements ExtendedDataTy
         accumuloKeyGenerator = new BucketAccumuloKeyGenerator(bucketCount, bucketEncodingBase, bucketEncodingLength);
         nGramGenerator = new NGramByteHashGenerator(ngramSize, bucketCount, minHashSize);
 
+        int minHashBands = conf.getInt(type.typeName() + SSDEEP_MINHASH_BANDS, DEFAULT_SSDEEP_MINHASH_BANDS);
+        if (minHashBands > 0) {
+            int minHashRowsPerBand = conf.getInt(type.typeName() + SSDEEP_MINHASH_ROWS_PER_BAND, DEFAULT_SSDEEP_MINHASH_ROWS_PER_BAND);
+            minHashGenerator = new SSDeepMinHashGenerator(ngramSize, SSDeepHash.DEFAULT_MAX_REPEATED_CHARACTERS, minHashSize, minHashBands, minHashRowsPerBand);
+        }
+
         String[] fieldNameArray = conf.getStrings(type.typeName() + SSDEEP_FIELD_SET);
         ssdeepFieldNames = new HashSet<>(List.of(fieldNameArray));
         ssdeepIndexTableName = new Text(ConfigurationHelper.isNull(conf, SSDEEP_INDEX_TABLE_NAME, String.class));
@@ -173,6 +193,19 @@ public class SSDeepIndexHandler<KEYIN,KEYOUT,VALUEOUT> implements ExtendedDataTy
             results.put(indexKey, at.getValue());
             countWritten++;
         }
+
+        // the band keys share the key structure of the ngrams, so they are written to the same table
+        if (minHashGenerator != null) {
+            byte[] encodedHash = null;
+            for (NGramTuple band : minHashGenerator.generateBands(fieldValue)) {
+                if (encodedHash == null) {
+                    encodedHash = ssDeepEncoder.encode(fieldValue);
+                }
+                ImmutablePair<Key,Value> at = accumuloKeyGenerator.call(new ImmutablePair<>(band, encodedHash));
+                results.put(new BulkIngestKey(ssdeepIndexTableName, at.getKey()), at.getValue());
+                countWritten++;
+            }
+        }
         return countWritten;
     }
 }
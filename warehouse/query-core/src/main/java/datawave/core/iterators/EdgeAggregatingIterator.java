@@ -0,0 +1,279 @@
+package datawave.core.iterators;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.IteratorEnvironment;
+import org.apache.accumulo.core.iterators.OptionDescriber;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.accumulo.core.security.ColumnVisibility;
+import org.apache.commons.lang.StringUtils;
+import org.apache.hadoop.io.Text;
+import org.apache.log4j.Logger;
+
+import com.google.common.collect.Sets;
+
+import datawave.edge.model.EdgeModelFields.FieldKey;
+import datawave.edge.util.EdgeKey;
+import datawave.iterators.EdgeCombiner;
+import datawave.marking.MarkingFunctions;
+
+/**
+ * <p>
+ * Iterator used by the EdgeQueryLogic to roll up edges server side. Every edge within a row (i.e. a source and sink, or the source of a stats edge) is grouped
+ * by the requested subset of the edge key fields, the remaining fields are blanked out of the key, and the values of each group are combined with the
+ * {@link EdgeCombiner}. This sums the counts and merges the hour bitmasks of standard edges, the activity and duration histograms of stats edges, and the
+ * hyperloglogs of the stats link edges, so that a client asking for totals across a date range receives one entry per group instead of one per day.
+ * </p>
+ *
+ * <p>
+ * The edge format, stats type and date type are always retained since values of different kinds cannot be combined. The visibility of a rolled up key is the
+ * combination of the visibilities of its edges, and its timestamp is the latest timestamp of its edges. This iterator should be the last one in the stack so
+ * that it only sees the edges which passed the query filters.
+ * </p>
+ */
+public class EdgeAggregatingIterator implements SortedKeyValueIterator<Key,Value>, OptionDescriber {
+    protected static final Logger log = Logger.getLogger(EdgeAggregatingIterator.class);
+
+    public static final String GROUP_FIELDS_OPTION = "group.fields";
+    public static final String MAX_VALUES_OPTION = "max.values";
+
+    /**
+     * The edge key fields which may be used to group edges, the source and sink are always retained as they make up the row
+     */
+    public static final Set<FieldKey> GROUPABLE_FIELDS = Sets.immutableEnumSet(FieldKey.EDGE_TYPE, FieldKey.EDGE_RELATIONSHIP, FieldKey.EDGE_ATTRIBUTE1,
+                    FieldKey.EDGE_ATTRIBUTE2, FieldKey.EDGE_ATTRIBUTE3, FieldKey.DATE);
+
+    private static final int DEFAULT_MAX_VALUES = 1000;
+    private static MarkingFunctions markingFunctions = MarkingFunctions.Factory.createMarkingFunctions();
+
+    protected SortedKeyValueIterator<Key,Value> iterator;
+    protected Set<FieldKey> groupFields = EnumSet.noneOf(FieldKey.class);
+    protected int maxValues = DEFAULT_MAX_VALUES;
+    protected Range range = null;
+    protected Key returnKey = null;
+    protected Value returnValue = null;
+    protected SortedMap<Key,Value> returnCache = new TreeMap<>();
+
+    private final EdgeCombiner combiner = new EdgeCombiner();
+    private final Text row = new Text();
+    private final Text currentRow = new Text();
+
+    public EdgeAggregatingIterator() {}
+
+    public EdgeAggregatingIterator(EdgeAggregatingIterator iter, IteratorEnvironment env) {
+        this();
+        this.iterator = iter.iterator.deepCopy(env);
+        this.groupFields = EnumSet.copyOf(iter.groupFields);
+        this.maxValues = iter.maxValues;
+        this.returnCache.putAll(iter.returnCache);
+    }
+
+    @Override
+    public SortedKeyValueIterator<Key,Value> deepCopy(IteratorEnvironment env) {
+        return new EdgeAggregatingIterator(this, env);
+    }
+
+    @Override
+    public void init(SortedKeyValueIterator<Key,Value> source, Map<String,String> options, IteratorEnvironment env) throws IOException {
+        if (!validateOptions(options))
+            throw new IOException("Iterator options are not correct");
+        this.iterator = source;
+
+        groupFields = EnumSet.noneOf(FieldKey.class);
+        for (String field : StringUtils.split(options.getOrDefault(GROUP_FIELDS_OPTION, ""), ',')) {
+            groupFields.add(FieldKey.valueOf(field.trim()));
+        }
+        if (options.containsKey(MAX_VALUES_OPTION)) {
+            maxValues = Integer.parseInt(options.get(MAX_VALUES_OPTION));
+        }
+    }
+
+    @Override
+    public IteratorOptions describeOptions() {
+        Map<String,String> options = new HashMap<>();
+        options.put(GROUP_FIELDS_OPTION, "comma separated list of the edge fields to group by: " + GROUPABLE_FIELDS);
+        options.put(MAX_VALUES_OPTION, "number of values buffered for a group before they are combined, defaults to " + DEFAULT_MAX_VALUES);
+        return new IteratorOptions(getClass().getSimpleName(), "returns edges combined across the edge fields which are not grouped", options, null);
+    }
+
+    @Override
+    public boolean validateOptions(Map<String,String> options) {
+        try {
+            for (String field : StringUtils.split(options.getOrDefault(GROUP_FIELDS_OPTION, ""), ',')) {
+                if (!GROUPABLE_FIELDS.contains(FieldKey.valueOf(field.trim()))) {
+                    return false;
+                }
+            }
+            return !options.containsKey(MAX_VALUES_OPTION) || Integer.parseInt(options.get(MAX_VALUES_OPTION)) > 0;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean hasTop() {
+        return returnValue != null;
+    }
+
+    @Override
+    public Key getTopKey() {
+        return returnKey;
+    }
+
+    @Override
+    public Value getTopValue() {
+        return returnValue;
+    }
+
+    @Override
+    public void next() throws IOException {
+        returnKey = null;
+        returnValue = null;
+
+        // ensure we have something if there is anything to get
+        findTop();
+
+        // if we got something, then stage the first one to return
+        if (!returnCache.isEmpty()) {
+            returnKey = returnCache.firstKey();
+            returnValue = returnCache.remove(returnKey);
+        }
+    }
+
+    @Override
+    public void seek(Range range, Collection<ByteSequence> columnFamilies, boolean inclusive) throws IOException {
+        if (log.isDebugEnabled()) {
+            log.debug("seek called: " + range);
+        }
+
+        this.range = range;
+        this.returnCache.clear();
+
+        // a rolled up key depends on every edge in its row, so when resuming within a row we start over at the beginning
+        // of the row and skip the rolled up keys which were already returned
+        Range seekRange = range;
+        if (!range.isInfiniteStartKey()) {
+            Key start = range.getStartKey();
+            seekRange = new Range(new Key(start.getRow()), true, range.getEndKey(), range.isEndKeyInclusive());
+        }
+
+        this.iterator.seek(seekRange, columnFamilies, inclusive);
+        next();
+    }
+
+    /**
+     * Rolls up the edges of rows until there is something to return.
+     *
+     * @throws IOException
+     *             if the visibilities of a group cannot be combined
+     */
+    protected void findTop() throws IOException {
+        while (returnCache.isEmpty() && this.iterator.hasTop()) {
+            Map<Key,EdgeGroup> groups = new LinkedHashMap<>();
+
+            this.iterator.getTopKey().getRow(row);
+            while (this.iterator.hasTop() && this.iterator.getTopKey().getRow(currentRow).equals(row)) {
+                Key key = this.iterator.getTopKey();
+                groups.computeIfAbsent(rollUp(key), k -> new EdgeGroup(key)).add(key, this.iterator.getTopValue());
+                this.iterator.next();
+            }
+
+            for (Map.Entry<Key,EdgeGroup> entry : groups.entrySet()) {
+                Key key = entry.getValue().getKey(entry.getKey());
+                if (!range.beforeStartKey(key)) {
+                    returnCache.put(key, entry.getValue().getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates the key identifying the group of an edge, which is the edge key with the ungrouped fields, the visibility and the timestamp cleared.
+     *
+     * @param key
+     *            an edge key
+     * @return the key of the group
+     */
+    protected Key rollUp(Key key) {
+        EdgeKey.EdgeKeyBuilder builder = EdgeKey.newBuilder(EdgeKey.decodeForInternal(key));
+        if (!groupFields.contains(FieldKey.EDGE_TYPE)) {
+            builder.setType("");
+        }
+        if (!groupFields.contains(FieldKey.EDGE_RELATIONSHIP)) {
+            builder.setSourceRelationship("").setSinkRelationship("");
+        }
+        if (!groupFields.contains(FieldKey.EDGE_ATTRIBUTE1)) {
+            builder.setSourceAttribute1("").setSinkAttribute1("");
+        }
+        if (!groupFields.contains(FieldKey.EDGE_ATTRIBUTE2) || builder.getAttribute2() == null) {
+            builder.setAttribute2("");
+        }
+        if (!groupFields.contains(FieldKey.EDGE_ATTRIBUTE3) || builder.getAttribute3() == null) {
+            builder.setAttribute3("");
+        }
+        if (!groupFields.contains(FieldKey.DATE)) {
+            builder.setYyyymmdd("");
+        }
+        builder.setColvis(new Text()).setTimestamp(Long.MAX_VALUE).setDeleted(false);
+        return builder.build().encode();
+    }
+
+    /**
+     * The edges rolled up into a single key
+     */
+    protected class EdgeGroup {
+        // the first edge of the group, used by the combiner to fill in the load date of values which do not have one
+        private final Key firstKey;
+        private final List<Value> values = new ArrayList<>();
+        private final Set<ColumnVisibility> columnVisibilities = Sets.newHashSet();
+        private long timestamp = 0L;
+
+        public EdgeGroup(Key firstKey) {
+            this.firstKey = new Key(firstKey);
+        }
+
+        public void add(Key key, Value value) {
+            columnVisibilities.add(new ColumnVisibility(key.getColumnVisibility()));
+            timestamp = Math.max(timestamp, key.getTimestamp());
+            values.add(new Value(value));
+
+            // the combined edge values are equivalent to the values they were combined from, so bound the buffered values
+            if (values.size() >= maxValues) {
+                Value combined = combiner.reduce(firstKey, values.iterator());
+                values.clear();
+                values.add(combined);
+            }
+        }
+
+        public Key getKey(Key groupKey) throws IOException {
+            try {
+                // Note that the access controls found in the combined ColumnVisibility will be pulled out appropriately here
+                ColumnVisibility cv = markingFunctions.combine(columnVisibilities);
+                return new Key(groupKey.getRow(), groupKey.getColumnFamily(), groupKey.getColumnQualifier(), new Text(cv.getExpression()), timestamp);
+            } catch (Exception e) {
+                // We want to stop the scan when we cannot properly combine ColumnVisibility
+                String message = "Could not create combined ColumnVisibility";
+                log.error(message, e);
+                throw new IOException(message, e);
+            }
+        }
+
+        public Value getValue() {
+            return values.size() == 1 ? values.get(0) : combiner.reduce(firstKey, values.iterator());
+        }
+    }
+}
@@ -180,6 +180,16 @@ public class QueryParameters {
     public static final String GROUP_FIELDS_BATCH_SIZE = "group.fields.batch.size";
     public static final String UNIQUE_FIELDS = "unique.fields";
 
+    /**
+     * Used to specify the fields to order results by, each optionally followed by a direction, e.g. {@code DOCUMENT_DATE/desc,NAME/asc}.
+     */
+    public static final String SORT_FIELDS = "sort.fields";
+
+    /**
+     * Used to specify how many results to return in the order given by {@link #SORT_FIELDS}.
+     */
+    public static final String SORT_LIMIT = "sort.limit";
+
     /**
      * Used to specify fields which are excluded from QueryModel expansion
      */
@@ -0,0 +1,144 @@
+package datawave.query.attributes;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.commons.lang.builder.HashCodeBuilder;
+import org.apache.hadoop.io.WritableUtils;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+import datawave.query.collections.FunctionalSet;
+import datawave.query.jexl.DatawaveJexlContext;
+
+/**
+ * Holds the partially aggregated groups of a #GROUP_BY operation in the compact binary form written by
+ * {@link datawave.query.common.grouping.GroupsCodec}. This is returned by the {@link datawave.query.iterator.GroupingIterator} so that the groups can be
+ * merged on the web server without parsing them back out of individual document entries. It is never evaluated against a query.
+ */
+public class PartialGroups extends Attribute<PartialGroups> implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private byte[] content;
+
+    protected PartialGroups() {
+        super(null, true);
+    }
+
+    public PartialGroups(byte[] content, Key docKey, boolean toKeep) {
+        super(docKey, toKeep);
+        this.content = content;
+    }
+
+    @Override
+    public long sizeInBytes() {
+        return roundUp(12 + content.length) + super.sizeInBytes(4);
+        // 12 for array overhead, 4 for the array reference
+    }
+
+    public byte[] getContent() {
+        return content;
+    }
+
+    @Override
+    public Object getData() {
+        return getContent();
+    }
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        write(out, false);
+    }
+
+    @Override
+    public void write(DataOutput out, boolean reducedResponse) throws IOException {
+        writeMetadata(out, reducedResponse);
+        WritableUtils.writeVInt(out, content.length);
+        out.write(content);
+        WritableUtils.writeVInt(out, toKeep ? 1 : 0);
+    }
+
+    @Override
+    public void readFields(DataInput in) throws IOException {
+        readMetadata(in);
+        content = new byte[WritableUtils.readVInt(in)];
+        in.readFully(content);
+        toKeep = WritableUtils.readVInt(in) != 0;
+    }
+
+    @Override
+    public int compareTo(PartialGroups other) {
+        int cmp = Arrays.compare(content, other.content);
+
+        if (0 == cmp) {
+            // Compare the ColumnVisibility as well
+            return this.compareMetadata(other);
+        }
+
+        return cmp;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (null == o) {
+            return false;
+        }
+
+        if (o instanceof PartialGroups) {
+            return 0 == this.compareTo((PartialGroups) o);
+        }
+
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        HashCodeBuilder hcb = new HashCodeBuilder(2099, 2129);
+        hcb.append(content).append(super.hashCode());
+
+        return hcb.toHashCode();
+    }
+
+    @Override
+    public Collection<ValueTuple> visit(Collection<String> fieldNames, DatawaveJexlContext context) {
+        return FunctionalSet.emptySet();
+    }
+
+    @Override
+    public void write(Kryo kryo, Output output) {
+        write(kryo, output, false);
+    }
+
+    @Override
+    public void write(Kryo kryo, Output output, Boolean reducedResponse) {
+        super.writeMetadata(kryo, output, reducedResponse);
+        output.writeInt(this.content.length, true);
+        output.writeBytes(this.content);
+        output.writeBoolean(this.toKeep);
+    }
+
+    @Override
+    public void read(Kryo kryo, Input input) {
+        super.readMetadata(kryo, input);
+        this.content = input.readBytes(input.readInt(true));
+        this.toKeep = input.readBoolean();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see Attribute#deepCopy()
+     */
+    @Override
+    public PartialGroups copy() {
+        return new PartialGroups(this.getContent(), this.getMetadata(), this.isToKeep());
+    }
+
+}
@@ -0,0 +1,296 @@
+package datawave.query.attributes;
+
+import java.io.Serializable;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import com.google.common.collect.Multimap;
+
+import datawave.query.Constants;
+import datawave.query.jexl.JexlASTHelper;
+import datawave.query.postprocessing.tf.PhraseIndexes;
+import datawave.util.StringUtils;
+
+/**
+ * Represents the fields that results should be ordered by, in order of precedence, and whether each is ordered ascending or descending. The special field
+ * {@link #DOCUMENT_DATE} orders results by the date of the document itself. An instance of {@link SortFields} can easily be captured as a parameter string
+ * using {@link SortFields#toString()}, and transformed back into a {@link SortFields} instance via {@link SortFields#from(String)}. Once remapped through the
+ * query model via {@link #remapFields(Multimap)}, each field is ordered by the value of any of the fields it maps to in a document.
+ */
+public class SortFields implements Serializable {
+
+    private static final long serialVersionUID = -4312783047253457421L;
+
+    /**
+     * Orders results by the timestamp of the document, so that {@code DOCUMENT_DATE/desc} returns the newest documents first.
+     */
+    public static final String DOCUMENT_DATE = "DOCUMENT_DATE";
+
+    private static final String ASC = "asc";
+    private static final String DESC = "desc";
+
+    // the fields in order of precedence, mapped to whether they are ordered descending
+    private LinkedHashMap<String,Boolean> fieldMap;
+
+    // the other fields a field maps to in the query model, whose values in a document are ordered as those of the field
+    private LinkedHashMap<String,Set<String>> mappedFields;
+
+    /**
+     * Returns a new {@link SortFields} parsed from the string. The provided string is expected to have the format returned by {@link SortFields#toString()}.
+     * <ul>
+     * <li>Given null, null will be returned.</li>
+     * <li>Given an empty or blank string, an empty {@link SortFields} will be returned.</li>
+     * <li>Given {@code DOCUMENT_DATE/desc,NAME}, a {@link SortFields} will be returned that orders by the document date descending and then by NAME ascending.
+     * </li>
+     * <li>Given {@code NAME|FIRST_NAME|LAST_NAME/asc}, a {@link SortFields} will be returned that orders by NAME ascending, where NAME maps to FIRST_NAME and
+     * LAST_NAME.</li>
+     * </ul>
+     *
+     * @param string
+     *            the string to parse
+     * @return the parsed {@link SortFields}
+     */
+    @JsonCreator
+    public static SortFields from(String string) {
+        if (string == null) {
+            return null;
+        }
+        // Strip whitespaces.
+        string = PhraseIndexes.whitespacePattern.matcher(string).replaceAll("");
+
+        SortFields sortFields = new SortFields();
+        for (String fieldPart : StringUtils.split(string, Constants.COMMA)) {
+            if (fieldPart.isEmpty()) {
+                continue;
+            }
+            String[] parts = StringUtils.split(fieldPart, Constants.FORWARD_SLASH);
+            boolean descending = false;
+            if (parts.length == 2) {
+                if (DESC.equalsIgnoreCase(parts[1])) {
+                    descending = true;
+                } else if (!ASC.equalsIgnoreCase(parts[1])) {
+                    throw new IllegalArgumentException("Invalid sort direction given: " + parts[1]);
+                }
+            }
+            String[] fields = StringUtils.split(parts[0], '|');
+            sortFields.put(fields[0], descending);
+            for (int i = 1; i < fields.length; i++) {
+                sortFields.addMappedField(fields[0], fields[i]);
+            }
+        }
+        return sortFields;
+    }
+
+    /**
+     * Returns a copy of the given {@link SortFields}
+     *
+     * @param other
+     *            the instance to copy
+     * @return the copy
+     */
+    public static SortFields copyOf(SortFields other) {
+        if (other == null) {
+            return null;
+        }
+        SortFields sortFields = new SortFields();
+        sortFields.fieldMap = new LinkedHashMap<>(other.fieldMap);
+        for (Map.Entry<String,Set<String>> entry : other.mappedFields.entrySet()) {
+            sortFields.mappedFields.put(entry.getKey(), new TreeSet<>(entry.getValue()));
+        }
+        return sortFields;
+    }
+
+    public SortFields() {
+        fieldMap = new LinkedHashMap<>();
+        mappedFields = new LinkedHashMap<>();
+    }
+
+    /**
+     * Return the fields to order by, in order of precedence.
+     *
+     * @return the fields
+     */
+    public Set<String> getFields() {
+        return fieldMap.keySet();
+    }
+
+    /**
+     * Return whether the specified field is ordered descending.
+     *
+     * @param field
+     *            the field
+     * @return true if descending, false if ascending
+     */
+    public boolean isDescending(String field) {
+        return fieldMap.get(field);
+    }
+
+    /**
+     * Return the fields of a document whose values the specified field is ordered by, which are the field itself and any fields it was mapped to by
+     * {@link #remapFields(Multimap)}.
+     *
+     * @param field
+     *            the field
+     * @return the document fields
+     */
+    public Set<String> getDocumentFields(String field) {
+        Set<String> fields = new LinkedHashSet<>();
+        fields.add(field);
+        if (mappedFields.containsKey(field)) {
+            fields.addAll(mappedFields.get(field));
+        }
+        return fields;
+    }
+
+    /**
+     * Return the fields of a document whose values are ordered by, for all fields.
+     *
+     * @return the document fields
+     */
+    public Set<String> getDocumentFields() {
+        Set<String> fields = new LinkedHashSet<>();
+        for (String field : fieldMap.keySet()) {
+            fields.addAll(getDocumentFields(field));
+        }
+        return fields;
+    }
+
+    /**
+     * Add a field to order by, after any fields already added.
+     *
+     * @param field
+     *            the field
+     * @param descending
+     *            whether to order the field descending
+     */
+    public void put(String field, boolean descending) {
+        fieldMap.put(field, descending);
+    }
+
+    /**
+     * Replace a field with another field, keeping its precedence and direction.
+     *
+     * @param field
+     *            the field
+     * @param replacement
+     *            the replacement field
+     */
+    public void replace(String field, String replacement) {
+        if (fieldMap.containsKey(field)) {
+            LinkedHashMap<String,Boolean> replacedMap = new LinkedHashMap<>();
+            for (Map.Entry<String,Boolean> entry : fieldMap.entrySet()) {
+                replacedMap.put(entry.getKey().equals(field) ? replacement : entry.getKey(), entry.getValue());
+            }
+            this.fieldMap = replacedMap;
+            Set<String> mapped = mappedFields.remove(field);
+            if (mapped != null) {
+                mappedFields.put(replacement, mapped);
+            }
+        }
+    }
+
+    /**
+     * Adds the fields each field maps to in the given model, keeping the precedence and direction of each field. The fields themselves are kept, so that
+     * documents are ordered by the value of either the field or any of the fields it maps to.
+     *
+     * @param model
+     *            the map to retrieve alternative field mappings from
+     */
+    public void remapFields(Multimap<String,String> model) {
+        for (String field : fieldMap.keySet()) {
+            String upperCase = field.toUpperCase();
+            if (model.containsKey(upperCase)) {
+                for (String mapped : model.get(upperCase)) {
+                    addMappedField(field, mapped);
+                }
+            }
+        }
+    }
+
+    private void addMappedField(String field, String mapped) {
+        if (!field.equals(mapped)) {
+            mappedFields.computeIfAbsent(field, k -> new TreeSet<>()).add(mapped);
+        }
+    }
+
+    /**
+     * Return whether this {@link SortFields} is empty.
+     *
+     * @return true if empty, or false otherwise
+     */
+    public boolean isEmpty() {
+        return fieldMap.isEmpty();
+    }
+
+    /**
+     * Replaces any field within this {@link SortFields} with their deconstructed version.
+     */
+    public void deconstructFields() {
+        LinkedHashMap<String,Boolean> deconstructedMap = new LinkedHashMap<>();
+        for (Map.Entry<String,Boolean> entry : fieldMap.entrySet()) {
+            deconstructedMap.put(JexlASTHelper.deconstructIdentifier(entry.getKey()), entry.getValue());
+        }
+        this.fieldMap = deconstructedMap;
+
+        LinkedHashMap<String,Set<String>> deconstructedMappings = mappedFields;
+        this.mappedFields = new LinkedHashMap<>();
+        for (Map.Entry<String,Set<String>> entry : deconstructedMappings.entrySet()) {
+            for (String mapped : entry.getValue()) {
+                addMappedField(JexlASTHelper.deconstructIdentifier(entry.getKey()), JexlASTHelper.deconstructIdentifier(mapped));
+            }
+        }
+    }
+
+    /**
+     * Returns this {@link SortFields} as a formatted string that can later be parsed back into a {@link SortFields} using {@link SortFields#from(String)}. This
+     * is also what will be used when serializing a {@link SortFields} to JSON/XML. The string will have the format {@code field/direction,field/direction,...},
+     * e.g. {@code DOCUMENT_DATE/desc,NAME/asc}, where any fields a field maps to follow it separated by a pipe, e.g. {@code NAME|FIRST_NAME|LAST_NAME/asc}.
+     *
+     * @return a formatted string
+     */
+    @JsonValue
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        Iterator<Map.Entry<String,Boolean>> iterator = fieldMap.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String,Boolean> entry = iterator.next();
+            sb.append(entry.getKey());
+            if (mappedFields.containsKey(entry.getKey())) {
+                for (String mapped : mappedFields.get(entry.getKey())) {
+                    sb.append(Constants.PIPE).append(mapped);
+                }
+            }
+            sb.append(Constants.FORWARD_SLASH).append(entry.getValue() ? DESC : ASC);
+            if (iterator.hasNext()) {
+                sb.append(Constants.COMMA);
+            }
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        SortFields that = (SortFields) o;
+        // the order of the fields is significant
+        return Objects.equals(toString(), that.toString());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(toString());
+    }
+}
@@ -30,6 +30,8 @@ public class TypeAttribute<T extends Comparable<T>> extends Attribute<TypeAttrib
 
     private static final Logger log = Logger.getLogger(TypeAttribute.class);
 
+    private static final String CLASS_PREFIX = "class ";
+
     private Type<T> datawaveType;
 
     protected TypeAttribute() {
@@ -63,7 +65,7 @@ public class TypeAttribute<T extends Comparable<T>> extends Attribute<TypeAttrib
 
     @Override
     public void write(DataOutput out, boolean reducedResponse) throws IOException {
-        WritableUtils.writeString(out, datawaveType.getClass().toString());
+        WritableUtils.writeString(out, datawaveType.getClass().getName());
         writeMetadata(out, reducedResponse);
         WritableUtils.writeString(out, datawaveType.getDelegateAsString());
         WritableUtils.writeVInt(out, toKeep ? 1 : 0);
@@ -167,6 +169,10 @@ public class TypeAttribute<T extends Comparable<T>> extends Attribute<TypeAttrib
 
     private void setDatawaveType(String datawaveTypeString)
                     throws InstantiationException, IllegalAccessException, ClassNotFoundException, NoSuchMethodException, InvocationTargetException {
+        // attributes written before the class name was used are prefixed with "class "
+        if (datawaveTypeString.startsWith(CLASS_PREFIX)) {
+            datawaveTypeString = datawaveTypeString.substring(CLASS_PREFIX.length());
+        }
         this.datawaveType = (Type<T>) Class.forName(datawaveTypeString).getDeclaredConstructor().newInstance();
     }
 
@@ -145,6 +145,35 @@ public class AverageAggregator extends AbstractAggregator<BigDecimal> {
         }
     }
 
+    /**
+     * Adds a partial numerator and divisor read from {@link GroupsCodec} into the current average.
+     *
+     * @param partialNumerator
+     *            the partial numerator
+     * @param partialDivisor
+     *            the partial divisor
+     */
+    void mergeNumeratorAndDivisor(BigDecimal partialNumerator, BigDecimal partialDivisor) {
+        if (numerator == null) {
+            numerator = partialNumerator;
+            divisor = partialDivisor;
+        } else {
+            numerator = numerator.add(partialNumerator);
+            divisor = divisor.add(partialDivisor);
+        }
+        average = numerator.divide(divisor, MATH_CONTEXT);
+    }
+
+    /**
+     * Add a column visibility read from {@link GroupsCodec} to the visibilities of this aggregator.
+     *
+     * @param visibility
+     *            the visibility
+     */
+    void addColumnVisibility(ColumnVisibility visibility) {
+        columnVisibilities.add(visibility);
+    }
+
     @Override
     public String toString() {
         return new ToStringBuilder(this).append("field", field).append("average", average).append("numerator", numerator).append("divisor", divisor)
@@ -96,6 +96,26 @@ public class CountAggregator extends AbstractAggregator<Long> {
         }
     }
 
+    /**
+     * Adds a partial count read from {@link GroupsCodec} into the current count.
+     *
+     * @param partialCount
+     *            the partial count
+     */
+    void mergeCount(long partialCount) {
+        count += partialCount;
+    }
+
+    /**
+     * Add a column visibility read from {@link GroupsCodec} to the visibilities of this aggregator.
+     *
+     * @param visibility
+     *            the visibility
+     */
+    void addColumnVisibility(ColumnVisibility visibility) {
+        columnVisibilities.add(visibility);
+    }
+
     @Override
     public String toString() {
         return new ToStringBuilder(this).append("field", field).append("count", count).append("columnVisibilities", columnVisibilities).toString();
@@ -2,6 +2,7 @@ package datawave.query.common.grouping;
 
 import static org.slf4j.LoggerFactory.getLogger;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -31,6 +32,7 @@ import datawave.data.type.Type;
 import datawave.query.attributes.Attribute;
 import datawave.query.attributes.Attributes;
 import datawave.query.attributes.Document;
+import datawave.query.attributes.PartialGroups;
 import datawave.query.attributes.TypeAttribute;
 
 /**
@@ -127,6 +129,7 @@ public class DocumentGrouper {
     public static final String FIELD_AVERAGE_DIVISOR_SUFFIX = "_AVERAGE_DIVISOR";
     public static final String FIELD_AVERAGE_SUFFIX = "_AVERAGE";
     public static final String FIELD_COUNT_SUFFIX = "_COUNT";
+    public static final String PARTIAL_GROUPS = "PARTIAL_GROUPS";
 
     /**
      * Groups and aggregates fields from the entries in the given document and merges the new group information into the given {@link Groups} instance.
@@ -171,9 +174,18 @@ public class DocumentGrouper {
      */
     private void group() {
         log.trace("apply to {} {}", documentKey, document);
-        // If the document contains entries that indicate grouping has already been performed, we are seeing a document that was generated by
-        // GroupingIterator.flatten(). No further grouping can occur. Extract the grouping information from the document and merge them into the current groups.
-        if (isDocumentAlreadyGrouped()) {
+        Attribute<?> partialGroups = document.get(PARTIAL_GROUPS);
+        // If the document contains encoded groups, we are seeing a document that was generated by GroupingIterator. Merge the encoded groups directly into the
+        // current groups.
+        if (partialGroups instanceof PartialGroups) {
+            try {
+                GroupsCodec.merge(((PartialGroups) partialGroups).getContent(), reverseModelMappings, groups);
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Unable to merge partial groups from " + documentKey, e);
+            }
+            // If the document contains entries that indicate grouping has already been performed, we are seeing a document that was flattened by an older
+            // GroupingIterator. No further grouping can occur. Extract the grouping information from the document and merge them into the current groups.
+        } else if (isDocumentAlreadyGrouped()) {
             extractGroupsFromDocument();
         } else { // Otherwise, the document contains entries that have not yet been grouped and counted.
             // Index the document entries.
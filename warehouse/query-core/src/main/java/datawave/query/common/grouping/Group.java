@@ -109,6 +109,28 @@ public class Group {
         this.count++;
     }
 
+    /**
+     * Increment the number of times we have seen this grouping by a partial count read from {@link GroupsCodec}.
+     *
+     * @param partialCount
+     *            the partial count
+     */
+    void incrementCount(int partialCount) {
+        this.count += partialCount;
+    }
+
+    /**
+     * Add a column visibility read from {@link GroupsCodec} to the set of visibilities seen for the given attribute.
+     *
+     * @param attribute
+     *            the attribute
+     * @param visibility
+     *            the visibility
+     */
+    void addAttributeVisibility(GroupingAttribute<?> attribute, ColumnVisibility visibility) {
+        attributeVisibilities.put(attribute, visibility);
+    }
+
     /**
      * Returns the number of times we have seen this grouping.
      *
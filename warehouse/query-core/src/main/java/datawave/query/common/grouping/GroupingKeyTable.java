@@ -0,0 +1,156 @@
+package datawave.query.common.grouping;
+
+import java.util.Arrays;
+
+/**
+ * An open addressing hash table from the encoded form of a grouping, as written by {@link GroupsCodec}, to its {@link Group}. The encoded keys are copied into
+ * a single growing byte array, so looking up a grouping that has already been seen requires no allocation at all, and only the first sighting of each distinct
+ * grouping pays for decoding it into a {@link Grouping}.
+ */
+class GroupingKeyTable {
+
+    private static final int INITIAL_CAPACITY = 1 << 6;
+
+    /**
+     * The group, and the attributes of its grouping in the order they were encoded, for an encoded grouping.
+     */
+    static class Entry {
+        final Group group;
+        final GroupingAttribute<?>[] attributes;
+
+        Entry(Group group, GroupingAttribute<?>[] attributes) {
+            this.group = group;
+            this.attributes = attributes;
+        }
+    }
+
+    private int[] hashes;
+    // the offset of each key in the arena, or -1 for an empty slot
+    private int[] offsets;
+    private int[] lengths;
+    private Entry[] entries;
+    private byte[] arena;
+    private int arenaSize;
+    private int size;
+    // a reusable buffer to read encoded keys into
+    private byte[] buffer = new byte[256];
+
+    GroupingKeyTable() {
+        allocate(INITIAL_CAPACITY);
+        this.arena = new byte[INITIAL_CAPACITY * 32];
+    }
+
+    private void allocate(int capacity) {
+        this.hashes = new int[capacity];
+        this.offsets = new int[capacity];
+        Arrays.fill(this.offsets, -1);
+        this.lengths = new int[capacity];
+        this.entries = new Entry[capacity];
+    }
+
+    /**
+     * Return the entry for the given encoded grouping, or null if it has not been put into this table.
+     *
+     * @param key
+     *            a buffer holding the encoded grouping
+     * @param length
+     *            the length of the encoded grouping in the buffer
+     * @return the entry, or null
+     */
+    Entry get(byte[] key, int length) {
+        int hash = hash(key, length);
+        int mask = offsets.length - 1;
+        for (int slot = hash & mask; offsets[slot] != -1; slot = (slot + 1) & mask) {
+            if (hashes[slot] == hash && lengths[slot] == length && Arrays.equals(arena, offsets[slot], offsets[slot] + length, key, 0, length)) {
+                return entries[slot];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Put the entry for the given encoded grouping, which must not already be in this table.
+     *
+     * @param key
+     *            a buffer holding the encoded grouping
+     * @param length
+     *            the length of the encoded grouping in the buffer
+     * @param entry
+     *            the entry
+     */
+    void put(byte[] key, int length, Entry entry) {
+        if ((size + 1) * 10L > offsets.length * 7L) {
+            rehash(offsets.length << 1);
+        }
+        if (arenaSize + length > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(arena.length << 1, arenaSize + length));
+        }
+        System.arraycopy(key, 0, arena, arenaSize, length);
+        insert(hash(key, length), arenaSize, length, entry);
+        arenaSize += length;
+        size++;
+    }
+
+    private void insert(int hash, int offset, int length, Entry entry) {
+        int mask = offsets.length - 1;
+        int slot = hash & mask;
+        while (offsets[slot] != -1) {
+            slot = (slot + 1) & mask;
+        }
+        hashes[slot] = hash;
+        offsets[slot] = offset;
+        lengths[slot] = length;
+        entries[slot] = entry;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldHashes = hashes;
+        int[] oldOffsets = offsets;
+        int[] oldLengths = lengths;
+        Entry[] oldEntries = entries;
+        allocate(capacity);
+        for (int i = 0; i < oldOffsets.length; i++) {
+            if (oldOffsets[i] != -1) {
+                insert(oldHashes[i], oldOffsets[i], oldLengths[i], oldEntries[i]);
+            }
+        }
+    }
+
+    /**
+     * Return a buffer of at least the given length to read an encoded grouping into. The same buffer is returned until a longer one is needed.
+     *
+     * @param length
+     *            the required length
+     * @return the buffer
+     */
+    byte[] buffer(int length) {
+        if (buffer.length < length) {
+            buffer = new byte[Math.max(buffer.length << 1, length)];
+        }
+        return buffer;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        if (size > 0) {
+            allocate(INITIAL_CAPACITY);
+            arenaSize = 0;
+            size = 0;
+        }
+    }
+
+    private static int hash(byte[] key, int length) {
+        // FNV-1a, with a final mix so that the low bits used for the slot depend on every byte
+        int hash = 0x811c9dc5;
+        for (int i = 0; i < length; i++) {
+            hash = (hash ^ key[i]) * 0x01000193;
+        }
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        return hash;
+    }
+}
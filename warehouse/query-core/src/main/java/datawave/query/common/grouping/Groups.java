@@ -14,6 +14,11 @@ public class Groups {
      */
     private final Map<Grouping,Group> groups = new HashMap<>();
 
+    /**
+     * An index of the groups by their encoded groupings, used when merging encoded groups. This is only created if encoded groups are merged.
+     */
+    private GroupingKeyTable keyTable;
+
     /**
      * Returns the collection of {@link Group} in this {@link Groups}.
      *
@@ -93,6 +98,21 @@ public class Groups {
      */
     public void clear() {
         this.groups.clear();
+        if (this.keyTable != null) {
+            this.keyTable.clear();
+        }
+    }
+
+    /**
+     * Return the index of these groups by their encoded groupings, creating it if necessary.
+     *
+     * @return the index
+     */
+    GroupingKeyTable getKeyTable() {
+        if (this.keyTable == null) {
+            this.keyTable = new GroupingKeyTable();
+        }
+        return this.keyTable;
     }
 
     @Override
@@ -0,0 +1,400 @@
+package datawave.query.common.grouping;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.security.ColumnVisibility;
+import org.apache.hadoop.io.WritableUtils;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.Multimap;
+
+import datawave.data.type.Type;
+import datawave.query.attributes.Attribute;
+
+/**
+ * Writes {@link Groups} in a compact binary form that preserves the mergeable state of each group, and merges that form into other {@link Groups}. This is how
+ * the {@link datawave.query.iterator.GroupingIterator} returns its partial aggregates to the web server.
+ * <P>
+ * The encoding starts with a table of the distinct names (fields and class names) and a table of the distinct column visibilities, which the groups refer to by
+ * index. Each group is then written as:
+ * <ul>
+ * <li>The grouping: the field, type and value of each grouping attribute, sorted so that equal groupings from different tablet servers have identical bytes.
+ * This is what the merge hashes to find the group that it belongs to.</li>
+ * <li>The visibilities seen for each grouping attribute, the count, and the document visibilities.</li>
+ * <li>The state of each aggregator: the sum for {@link SumAggregator}, the count for {@link CountAggregator}, the numerator and divisor for
+ * {@link AverageAggregator}, and the attribute for {@link MinAggregator} and {@link MaxAggregator}.</li>
+ * </ul>
+ * Merging looks up each grouping in the {@link GroupingKeyTable} of the target {@link Groups} by its bytes, and adds the counts and aggregates directly to the
+ * existing group. Only the first sighting of a grouping decodes it into a new {@link Group}.
+ */
+public class GroupsCodec {
+
+    private static final byte VERSION = 1;
+
+    private static final AggregateOperation[] OPERATIONS = AggregateOperation.values();
+
+    private static final Comparator<GroupingAttribute<?>> ATTRIBUTE_ORDER = Comparator.comparing(GroupsCodec::getFieldName)
+                    .thenComparing((GroupingAttribute<?> attribute) -> attribute.getType().getDelegateAsString())
+                    .thenComparing((GroupingAttribute<?> attribute) -> attribute.getType().getClass().getName());
+
+    /**
+     * Return the encoded form of the given groups.
+     *
+     * @param groups
+     *            the groups
+     * @return the encoded groups
+     * @throws IOException
+     *             if an aggregated attribute cannot be written
+     */
+    public static byte[] encode(Groups groups) throws IOException {
+        Encoder encoder = new Encoder();
+        for (Group group : groups.getGroups()) {
+            encoder.writeGroup(group);
+        }
+        return encoder.toByteArray(groups.totalGroups());
+    }
+
+    /**
+     * Merge the encoded groups into the given groups.
+     *
+     * @param encoded
+     *            the encoded groups
+     * @param reverseModelMap
+     *            the reverse model mappings to apply to the fields of each grouping
+     * @param groups
+     *            the groups to merge into
+     * @throws IOException
+     *             if the encoded groups cannot be read
+     */
+    public static void merge(byte[] encoded, Map<String,String> reverseModelMap, Groups groups) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded));
+        byte version = in.readByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported encoding version " + version);
+        }
+
+        String[] names = new String[WritableUtils.readVInt(in)];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = WritableUtils.readString(in);
+        }
+        ColumnVisibility[] visibilities = new ColumnVisibility[WritableUtils.readVInt(in)];
+        for (int i = 0; i < visibilities.length; i++) {
+            byte[] expression = new byte[WritableUtils.readVInt(in)];
+            in.readFully(expression);
+            visibilities[i] = new ColumnVisibility(expression);
+        }
+        // the attribute constructors for any of the names that are class names of aggregated attributes, looked up on first use
+        Constructor<?>[] constructors = new Constructor<?>[names.length];
+
+        GroupingKeyTable table = groups.getKeyTable();
+        int totalGroups = WritableUtils.readVInt(in);
+        for (int i = 0; i < totalGroups; i++) {
+            int keyLength = WritableUtils.readVInt(in);
+            byte[] key = table.buffer(keyLength);
+            in.readFully(key, 0, keyLength);
+
+            Group group;
+            GroupingKeyTable.Entry entry = table.get(key, keyLength);
+            if (entry != null) {
+                group = entry.group;
+                for (GroupingAttribute<?> attribute : entry.attributes) {
+                    for (int j = WritableUtils.readVInt(in); j > 0; j--) {
+                        group.addAttributeVisibility(attribute, visibilities[WritableUtils.readVInt(in)]);
+                    }
+                }
+            } else {
+                GroupingAttribute<?>[] attributes = readGrouping(key, keyLength, reverseModelMap);
+                Multimap<GroupingAttribute<?>,ColumnVisibility> attributeVisibilities = ArrayListMultimap.create();
+                for (GroupingAttribute<?> attribute : attributes) {
+                    for (int j = WritableUtils.readVInt(in); j > 0; j--) {
+                        attributeVisibilities.put(attribute, visibilities[WritableUtils.readVInt(in)]);
+                    }
+                    // the group starts with the visibility of each of its attributes
+                    if (attributeVisibilities.containsKey(attribute)) {
+                        attribute.setColumnVisibility(attributeVisibilities.get(attribute).iterator().next());
+                    }
+                }
+                // The grouping may already have a group under a different encoding, e.g. when its fields were remapped by the model.
+                Grouping grouping = new Grouping(Arrays.asList(attributes));
+                group = groups.getGroup(grouping);
+                if (group == null) {
+                    group = new Group(grouping);
+                    group.setFieldAggregator(new FieldAggregator());
+                    groups.putGroup(group);
+                }
+                for (Map.Entry<GroupingAttribute<?>,ColumnVisibility> visibility : attributeVisibilities.entries()) {
+                    group.addAttributeVisibility(visibility.getKey(), visibility.getValue());
+                }
+                table.put(key, keyLength, new GroupingKeyTable.Entry(group, attributes));
+            }
+
+            group.incrementCount(WritableUtils.readVInt(in));
+            for (int j = WritableUtils.readVInt(in); j > 0; j--) {
+                group.addDocumentVisibility(visibilities[WritableUtils.readVInt(in)]);
+            }
+
+            FieldAggregator fieldAggregator = group.getFieldAggregator();
+            for (int j = WritableUtils.readVInt(in); j > 0; j--) {
+                String field = names[WritableUtils.readVInt(in)];
+                AggregateOperation operation = OPERATIONS[in.readByte()];
+                Aggregator<?> aggregator = fieldAggregator.getAggregator(field, operation);
+                boolean created = aggregator == null || !aggregator.hasAggregation();
+                if (created) {
+                    aggregator = newAggregator(field, operation);
+                }
+                switch (operation) {
+                    case SUM:
+                        SumAggregator sumAggregator = (SumAggregator) aggregator;
+                        sumAggregator.mergeSum(readDecimal(in));
+                        for (int k = WritableUtils.readVInt(in); k > 0; k--) {
+                            sumAggregator.addColumnVisibility(visibilities[WritableUtils.readVInt(in)]);
+                        }
+                        break;
+                    case COUNT:
+                        CountAggregator countAggregator = (CountAggregator) aggregator;
+                        countAggregator.mergeCount(WritableUtils.readVLong(in));
+                        for (int k = WritableUtils.readVInt(in); k > 0; k--) {
+                            countAggregator.addColumnVisibility(visibilities[WritableUtils.readVInt(in)]);
+                        }
+                        break;
+                    case AVERAGE:
+                        AverageAggregator averageAggregator = (AverageAggregator) aggregator;
+                        averageAggregator.mergeNumeratorAndDivisor(readDecimal(in), readDecimal(in));
+                        for (int k = WritableUtils.readVInt(in); k > 0; k--) {
+                            averageAggregator.addColumnVisibility(visibilities[WritableUtils.readVInt(in)]);
+                        }
+                        break;
+                    case MIN:
+                    case MAX:
+                        aggregator.aggregate(readAttribute(in, names, constructors));
+                        break;
+                }
+                if (created) {
+                    fieldAggregator.mergeAggregator(aggregator);
+                }
+            }
+        }
+    }
+
+    private static Aggregator<?> newAggregator(String field, AggregateOperation operation) {
+        switch (operation) {
+            case SUM:
+                return new SumAggregator(field);
+            case COUNT:
+                return new CountAggregator(field);
+            case AVERAGE:
+                return new AverageAggregator(field);
+            case MIN:
+                return new MinAggregator(field);
+            case MAX:
+                return new MaxAggregator(field);
+            default:
+                throw new IllegalArgumentException("Unknown aggregate operation " + operation);
+        }
+    }
+
+    private static GroupingAttribute<?>[] readGrouping(byte[] key, int keyLength, Map<String,String> reverseModelMap) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(key, 0, keyLength));
+        GroupingAttribute<?>[] attributes = new GroupingAttribute<?>[WritableUtils.readVInt(in)];
+        for (int i = 0; i < attributes.length; i++) {
+            String field = WritableUtils.readString(in);
+            String typeClass = WritableUtils.readString(in);
+            String value = WritableUtils.readString(in);
+            Type<?> type;
+            try {
+                type = (Type<?>) Class.forName(typeClass).getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | ClassCastException e) {
+                throw new IOException("Unable to create type " + typeClass, e);
+            }
+            type.setDelegateFromString(value);
+            attributes[i] = new GroupingAttribute<>(type, new Key(reverseModelMap.getOrDefault(field, field)), true);
+        }
+        return attributes;
+    }
+
+    private static Attribute<?> readAttribute(DataInput in, String[] names, Constructor<?>[] constructors) throws IOException {
+        int index = WritableUtils.readVInt(in);
+        Attribute<?> attribute;
+        try {
+            if (constructors[index] == null) {
+                Class<?> clz = Class.forName(names[index]);
+                if (!Attribute.class.isAssignableFrom(clz)) {
+                    throw new IOException("Found class that was not an instance of Attribute: " + names[index]);
+                }
+                constructors[index] = clz.getDeclaredConstructor();
+                constructors[index].setAccessible(true);
+            }
+            attribute = (Attribute<?>) constructors[index].newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IOException("Unable to create attribute " + names[index], e);
+        }
+        attribute.readFields(in);
+        return attribute;
+    }
+
+    private static BigDecimal readDecimal(DataInput in) throws IOException {
+        int scale = WritableUtils.readVInt(in);
+        int length = WritableUtils.readVInt(in);
+        // most unscaled values fit in a long, which avoids creating an intermediate array and BigInteger
+        if (length <= 8) {
+            long unscaled = in.readByte();
+            for (int i = 1; i < length; i++) {
+                unscaled = (unscaled << 8) | (in.readByte() & 0xff);
+            }
+            return BigDecimal.valueOf(unscaled, scale);
+        }
+        byte[] unscaled = new byte[length];
+        in.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+
+    private static String getFieldName(GroupingAttribute<?> attribute) {
+        return attribute.getMetadata().getRow().toString();
+    }
+
+    /**
+     * Writes the groups into a body while collecting the names and visibilities they refer to, which are written ahead of the body.
+     */
+    private static class Encoder {
+        private final Map<String,Integer> names = new HashMap<>();
+        private final Map<ColumnVisibility,Integer> visibilities = new HashMap<>();
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private final ByteArrayOutputStream keyBytes = new ByteArrayOutputStream();
+        private final DataOutputStream keyOut = new DataOutputStream(keyBytes);
+
+        private void writeGroup(Group group) throws IOException {
+            List<GroupingAttribute<?>> attributes = new ArrayList<>(group.getGrouping());
+            attributes.sort(ATTRIBUTE_ORDER);
+
+            keyBytes.reset();
+            WritableUtils.writeVInt(keyOut, attributes.size());
+            for (GroupingAttribute<?> attribute : attributes) {
+                WritableUtils.writeString(keyOut, getFieldName(attribute));
+                WritableUtils.writeString(keyOut, attribute.getType().getClass().getName());
+                WritableUtils.writeString(keyOut, attribute.getType().getDelegateAsString());
+            }
+            WritableUtils.writeVInt(out, keyBytes.size());
+            keyBytes.writeTo(out);
+
+            for (GroupingAttribute<?> attribute : attributes) {
+                writeVisibilities(group.getVisibilitiesForAttribute(attribute));
+            }
+            WritableUtils.writeVInt(out, group.getCount());
+            writeVisibilities(group.getDocumentVisibilities());
+
+            List<Aggregator<?>> aggregators = new ArrayList<>();
+            if (group.getFieldAggregator() != null) {
+                for (Map<AggregateOperation,Aggregator<?>> map : group.getFieldAggregator().getAggregatorMap().values()) {
+                    for (Aggregator<?> aggregator : map.values()) {
+                        if (aggregator.hasAggregation()) {
+                            aggregators.add(aggregator);
+                        }
+                    }
+                }
+            }
+            WritableUtils.writeVInt(out, aggregators.size());
+            for (Aggregator<?> aggregator : aggregators) {
+                WritableUtils.writeVInt(out, nameIndex(aggregator.getField()));
+                out.writeByte(aggregator.getOperation().ordinal());
+                switch (aggregator.getOperation()) {
+                    case SUM:
+                        writeDecimal(out, ((SumAggregator) aggregator).getAggregation());
+                        writeVisibilities(aggregator.getColumnVisibilities());
+                        break;
+                    case COUNT:
+                        WritableUtils.writeVLong(out, ((CountAggregator) aggregator).getAggregation());
+                        writeVisibilities(aggregator.getColumnVisibilities());
+                        break;
+                    case AVERAGE:
+                        writeDecimal(out, ((AverageAggregator) aggregator).getNumerator());
+                        writeDecimal(out, ((AverageAggregator) aggregator).getDivisor());
+                        writeVisibilities(aggregator.getColumnVisibilities());
+                        break;
+                    case MIN:
+                    case MAX:
+                        Attribute<?> attribute = (Attribute<?>) aggregator.getAggregation();
+                        WritableUtils.writeVInt(out, nameIndex(attribute.getClass().getName()));
+                        attribute.write(out);
+                        break;
+                }
+            }
+        }
+
+        private void writeVisibilities(Collection<ColumnVisibility> columnVisibilities) throws IOException {
+            WritableUtils.writeVInt(out, columnVisibilities.size());
+            for (ColumnVisibility visibility : columnVisibilities) {
+                Integer index = visibilities.get(visibility);
+                if (index == null) {
+                    index = visibilities.size();
+                    visibilities.put(visibility, index);
+                }
+                WritableUtils.writeVInt(out, index);
+            }
+        }
+
+        private int nameIndex(String name) {
+            Integer index = names.get(name);
+            if (index == null) {
+                index = names.size();
+                names.put(name, index);
+            }
+            return index;
+        }
+
+        private byte[] toByteArray(int totalGroups) throws IOException {
+            ByteArrayOutputStream encoded = new ByteArrayOutputStream(bytes.size() + 256);
+            DataOutputStream header = new DataOutputStream(encoded);
+            header.writeByte(VERSION);
+
+            String[] nameTable = new String[names.size()];
+            names.forEach((name, index) -> nameTable[index] = name);
+            WritableUtils.writeVInt(header, nameTable.length);
+            for (String name : nameTable) {
+                WritableUtils.writeString(header, name);
+            }
+
+            ColumnVisibility[] visibilityTable = new ColumnVisibility[visibilities.size()];
+            visibilities.forEach((visibility, index) -> visibilityTable[index] = visibility);
+            WritableUtils.writeVInt(header, visibilityTable.length);
+            for (ColumnVisibility visibility : visibilityTable) {
+                byte[] expression = visibility.getExpression();
+                WritableUtils.writeVInt(header, expression.length);
+                header.write(expression);
+            }
+
+            WritableUtils.writeVInt(header, totalGroups);
+            header.flush();
+            bytes.writeTo(encoded);
+            return encoded.toByteArray();
+        }
+    }
+
+    private static void writeDecimal(DataOutput out, BigDecimal value) throws IOException {
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        WritableUtils.writeVInt(out, value.scale());
+        WritableUtils.writeVInt(out, unscaled.length);
+        out.write(unscaled);
+    }
+
+    private GroupsCodec() {
+        throw new UnsupportedOperationException();
+    }
+}
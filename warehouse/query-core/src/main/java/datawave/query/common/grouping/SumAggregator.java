@@ -110,6 +110,26 @@ public class SumAggregator extends AbstractAggregator<BigDecimal> {
         }
     }
 
+    /**
+     * Adds a partial sum read from {@link GroupsCodec} into the current sum.
+     *
+     * @param partialSum
+     *            the partial sum
+     */
+    void mergeSum(BigDecimal partialSum) {
+        sum = (sum == null) ? partialSum : sum.add(partialSum);
+    }
+
+    /**
+     * Add a column visibility read from {@link GroupsCodec} to the visibilities of this aggregator.
+     *
+     * @param visibility
+     *            the visibility
+     */
+    void addColumnVisibility(ColumnVisibility visibility) {
+        columnVisibilities.add(visibility);
+    }
+
     @Override
     public String toString() {
         return new ToStringBuilder(this).append("field", field).append("sum", sum).append("columnVisibilities", columnVisibilities).toString();
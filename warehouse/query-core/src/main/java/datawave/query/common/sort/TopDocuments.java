@@ -0,0 +1,205 @@
+package datawave.query.common.sort;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import org.apache.accumulo.core.data.Key;
+
+import datawave.data.type.util.NumericalEncoder;
+import datawave.query.attributes.Attribute;
+import datawave.query.attributes.Attributes;
+import datawave.query.attributes.Document;
+import datawave.query.attributes.SortFields;
+import datawave.query.attributes.TypeAttribute;
+
+/**
+ * Keeps the first documents in the order given by a {@link SortFields}, up to a limit, without holding on to the rest. Documents are ordered by the value of
+ * each sort field in turn, taking the greatest value of a multi-valued field when it is ordered descending and the least when ascending. Values are compared by
+ * their normalized form, so numbers and dates order naturally. A field mapped to other fields by the query model takes the best value of any of them. Documents
+ * without a value for a field order after those with one, and documents that are otherwise equal are ordered by document key. A document offered again while it
+ * is still kept, as happens when a scan is restarted, is only kept once.
+ */
+public class TopDocuments {
+
+    /**
+     * A document with the values it is sorted by.
+     */
+    private static class SortedDocument {
+        private final Map.Entry<Key,Document> entry;
+        // the row and column family of the document, which identify it whatever the key it is returned under
+        private final Key id;
+        private final String[] values;
+
+        SortedDocument(Map.Entry<Key,Document> entry, String[] values) {
+            this.entry = entry;
+            Key documentKey = entry.getValue().isMetadataSet() ? entry.getValue().getMetadata() : entry.getKey();
+            this.id = new Key(documentKey.getRow(), documentKey.getColumnFamily());
+            this.values = values;
+        }
+    }
+
+    private final String[] fields;
+    // the fields of a document holding the values of each sort field
+    private final String[][] documentFields;
+    private final boolean[] descending;
+    private final int limit;
+    private final Comparator<SortedDocument> comparator = this::compare;
+    // the worst of the documents kept is at the head, so that it can be replaced by a better one
+    private final PriorityQueue<SortedDocument> documents;
+    private final Set<Key> ids = new HashSet<>();
+
+    /**
+     * @param sortFields
+     *            the fields to order by
+     * @param limit
+     *            the most documents to keep
+     */
+    public TopDocuments(SortFields sortFields, int limit) {
+        Set<String> sortFieldNames = sortFields.getFields();
+        this.fields = sortFieldNames.toArray(new String[0]);
+        this.documentFields = new String[fields.length][];
+        this.descending = new boolean[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            documentFields[i] = sortFields.getDocumentFields(fields[i]).toArray(new String[0]);
+            descending[i] = sortFields.isDescending(fields[i]);
+        }
+        this.limit = Math.max(1, limit);
+        this.documents = new PriorityQueue<>(Math.min(this.limit, 1024) + 1, comparator.reversed());
+    }
+
+    /**
+     * Offer a document, keeping it if it is among the first documents seen so far.
+     *
+     * @param entry
+     *            the document and its key
+     * @return true if the document was kept
+     */
+    public boolean offer(Map.Entry<Key,Document> entry) {
+        SortedDocument document = new SortedDocument(entry, values(entry.getValue()));
+        if (ids.contains(document.id)) {
+            return false;
+        }
+        if (documents.size() < limit) {
+            documents.add(document);
+            ids.add(document.id);
+            return true;
+        }
+        if (compare(document, documents.peek()) < 0) {
+            ids.remove(documents.poll().id);
+            documents.add(document);
+            ids.add(document.id);
+            return true;
+        }
+        return false;
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    public boolean isEmpty() {
+        return documents.isEmpty();
+    }
+
+    public void clear() {
+        documents.clear();
+        ids.clear();
+    }
+
+    /**
+     * Remove the documents kept, in sorted order.
+     *
+     * @return the documents
+     */
+    public List<Map.Entry<Key,Document>> drainSorted() {
+        return drain(comparator);
+    }
+
+    /**
+     * Remove the documents kept, in key order.
+     *
+     * @return the documents
+     */
+    public List<Map.Entry<Key,Document>> drainByKey() {
+        return drain(Comparator.comparing(document -> document.entry.getKey()));
+    }
+
+    private List<Map.Entry<Key,Document>> drain(Comparator<SortedDocument> order) {
+        List<SortedDocument> sorted = new ArrayList<>(documents);
+        clear();
+        sorted.sort(order);
+        List<Map.Entry<Key,Document>> entries = new ArrayList<>(sorted.size());
+        for (SortedDocument document : sorted) {
+            entries.add(document.entry);
+        }
+        return entries;
+    }
+
+    private int compare(SortedDocument left, SortedDocument right) {
+        for (int i = 0; i < fields.length; i++) {
+            String leftValue = left.values[i];
+            String rightValue = right.values[i];
+            if (leftValue == null || rightValue == null) {
+                if (leftValue != rightValue) {
+                    // missing values order last
+                    return leftValue == null ? 1 : -1;
+                }
+                continue;
+            }
+            int cmp = leftValue.compareTo(rightValue);
+            if (cmp != 0) {
+                return descending[i] ? -cmp : cmp;
+            }
+        }
+        return left.id.compareTo(right.id);
+    }
+
+    private String[] values(Document document) {
+        String[] values = new String[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            if (SortFields.DOCUMENT_DATE.equals(fields[i])) {
+                values[i] = NumericalEncoder.encode(Long.toString(document.getTimestamp()));
+            } else {
+                for (String field : documentFields[i]) {
+                    values[i] = best(values[i], value(document.get(field), descending[i]), descending[i]);
+                }
+            }
+        }
+        return values;
+    }
+
+    // the greater of two values when descending, otherwise the lesser, ignoring missing values
+    private static String best(String best, String candidate, boolean descending) {
+        if (best == null || (candidate != null && (descending ? candidate.compareTo(best) > 0 : candidate.compareTo(best) < 0))) {
+            return candidate;
+        }
+        return best;
+    }
+
+    // the greatest value when descending, otherwise the least
+    private static String value(Attribute<?> attribute, boolean descending) {
+        if (attribute == null) {
+            return null;
+        }
+        if (attribute instanceof Attributes) {
+            String best = null;
+            for (Attribute<?> value : ((Attributes) attribute).getAttributes()) {
+                best = best(best, value(value, descending), descending);
+            }
+            return best;
+        }
+        if (attribute instanceof TypeAttribute) {
+            return ((TypeAttribute<?>) attribute).getType().getNormalizedValue();
+        }
+        Object data = attribute.getData();
+        if (data instanceof Number) {
+            return NumericalEncoder.encode(data.toString());
+        }
+        return String.valueOf(data);
+    }
+}
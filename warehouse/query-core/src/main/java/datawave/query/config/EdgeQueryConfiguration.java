@@ -1,9 +1,11 @@
 package datawave.query.config;
 
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
+import java.util.stream.Collectors;
 
 import datawave.core.query.configuration.CheckpointableQueryConfiguration;
 import datawave.core.query.configuration.GenericQueryConfiguration;
@@ -42,6 +44,8 @@ public class EdgeQueryConfiguration extends GenericQueryConfiguration implements
 
     public static final String SUMMARIZE = "summarize";
 
+    public static final String AGGREGATE_FIELDS = "aggregate.fields";
+
     // Query model defaults...
     private String modelName = "DATAWAVE_EDGE";
     private String modelTableName = "DatawaveMetadata";
@@ -62,6 +66,9 @@ public class EdgeQueryConfiguration extends GenericQueryConfiguration implements
     // Use to aggregate results will be false by default
     protected boolean aggregateResults = false;
 
+    // The edge fields to roll up the edges by on the tablet servers, null when the edges are returned as is
+    protected List<String> aggregateFields = null;
+
     protected int queryThreads = 8;
 
     protected int dateFilterSkipLimit = DEFAULT_SKIP_LIMIT;
@@ -99,6 +106,7 @@ public class EdgeQueryConfiguration extends GenericQueryConfiguration implements
         setMaxPrefilterValues(other.getMaxPrefilterValues());
         setDateRangeType(other.getDateRangeType());
         setAggregateResults(other.isAggregateResults());
+        setAggregateFields(other.getAggregateFields());
         setDateFilterScanLimit(other.getDateFilterScanLimit());
         setDateFilterSkipLimit(other.getDateFilterSkipLimit());
         setMaxQueryTerms(other.getMaxQueryTerms());
@@ -219,6 +227,7 @@ public class EdgeQueryConfiguration extends GenericQueryConfiguration implements
         includeStats = true;
         dateRangeType = dateType.EVENT;
         aggregateResults = false;
+        aggregateFields = null;
 
         if (settings.getParameters() != null) {
             QueryImpl.Parameter p = settings.findParameter(INCLUDE_STATS);
@@ -256,6 +265,12 @@ public class EdgeQueryConfiguration extends GenericQueryConfiguration implements
             if (p != null && !p.getParameterValue().isEmpty()) {
                 this.aggregateResults = Boolean.parseBoolean(p.getParameterValue());
             }
+
+            p = settings.findParameter(AGGREGATE_FIELDS);
+            if (p != null && !p.getParameterValue().isEmpty()) {
+                this.aggregateFields = Arrays.stream(p.getParameterValue().split(",")).map(String::trim).filter(s -> !s.isEmpty())
+                                .collect(Collectors.toList());
+            }
         }
         return this;
     }
@@ -284,6 +299,14 @@ public class EdgeQueryConfiguration extends GenericQueryConfiguration implements
         this.aggregateResults = aggregateResults;
     }
 
+    public List<String> getAggregateFields() {
+        return aggregateFields;
+    }
+
+    public void setAggregateFields(List<String> aggregateFields) {
+        this.aggregateFields = aggregateFields;
+    }
+
     public EdgeQueryModel getEdgeQueryModel() {
         return this.edgeQueryModel;
     }
@@ -367,6 +390,7 @@ public class EdgeQueryConfiguration extends GenericQueryConfiguration implements
         EdgeQueryConfiguration that = (EdgeQueryConfiguration) o;
         return queryThreads == that.queryThreads && includeStats == that.includeStats && maxQueryTerms == that.maxQueryTerms
                         && maxPrefilterValues == that.maxPrefilterValues && aggregateResults == that.aggregateResults
+                        && Objects.equals(aggregateFields, that.aggregateFields)
                         && Objects.equals(modelName, that.modelName) && Objects.equals(modelTableName, that.modelTableName)
                         && Objects.equals(edgeQueryModel, that.edgeQueryModel) && Objects.equals(dataTypes, that.dataTypes)
                         && dateRangeType == that.dateRangeType && dateFilterScanLimit == that.dateFilterScanLimit
@@ -376,6 +400,6 @@ public class EdgeQueryConfiguration extends GenericQueryConfiguration implements
     @Override
     public int hashCode() {
         return Objects.hash(super.hashCode(), modelName, modelTableName, edgeQueryModel, dataTypes, queryThreads, includeStats, maxQueryTerms,
-                        maxPrefilterValues, dateRangeType, aggregateResults, dateFilterScanLimit, dateFilterSkipLimit);
+                        maxPrefilterValues, dateRangeType, aggregateResults, aggregateFields, dateFilterScanLimit, dateFilterSkipLimit);
     }
 }
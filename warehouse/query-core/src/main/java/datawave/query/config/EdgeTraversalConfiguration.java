@@ -0,0 +1,274 @@
+package datawave.query.config;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Objects;
+
+import datawave.core.query.configuration.QueryData;
+import datawave.microservice.query.Query;
+import datawave.microservice.query.QueryImpl;
+import datawave.query.tables.edge.EdgeTraversalQueryLogic;
+
+public class EdgeTraversalConfiguration extends EdgeQueryConfiguration implements Serializable {
+    private static final long serialVersionUID = 4613587315246741290L;
+
+    public static final String HOPS = "traversal.hops";
+    public static final String HOP_QUERY = "traversal.hop.query";
+    public static final String MAX_FANOUT = "traversal.max.fanout";
+    public static final String RESULTS = "traversal.results";
+
+    // PATHS => return every edge traversed
+    // VERTICES => return only the edge by which each vertex was first reached
+    public enum resultType {
+        PATHS, VERTICES
+    }
+
+    private int defaultHops = 2;
+    private int maxHops = 5;
+    private int defaultMaxFanout = 1000;
+    private int maxVertices = 100000;
+    private int frontierBatchSize = 100;
+    private int maxConcurrentScans = 4;
+    private resultType defaultResultType = resultType.PATHS;
+
+    private int hops = defaultHops;
+    private int maxFanout = defaultMaxFanout;
+    private String hopQuery = null;
+    private resultType results = defaultResultType;
+
+    /**
+     * Default constructor
+     */
+    public EdgeTraversalConfiguration() {
+        super();
+    }
+
+    /**
+     * Performs a deep copy of the provided EdgeTraversalConfiguration into a new instance
+     *
+     * @param other
+     *            - another EdgeTraversalConfiguration instance
+     */
+    public EdgeTraversalConfiguration(EdgeTraversalConfiguration other) {
+
+        // EdgeQueryConfiguration copy first
+        super(other);
+
+        // EdgeTraversalConfiguration copy
+        defaultHops = other.defaultHops;
+        maxHops = other.maxHops;
+        defaultMaxFanout = other.defaultMaxFanout;
+        maxVertices = other.maxVertices;
+        frontierBatchSize = other.frontierBatchSize;
+        maxConcurrentScans = other.maxConcurrentScans;
+        defaultResultType = other.defaultResultType;
+        hops = other.hops;
+        maxFanout = other.maxFanout;
+        hopQuery = other.hopQuery;
+        results = other.results;
+    }
+
+    /**
+     * This constructor is used when we are creating a checkpoint for a set of ranges (i.e. QueryData objects). All configuration required for post planning
+     * needs to be copied over here.
+     *
+     * @param other
+     * @param queries
+     */
+    public EdgeTraversalConfiguration(EdgeTraversalConfiguration other, Collection<QueryData> queries) {
+        this(other);
+
+        this.setQueries(queries);
+
+        // do not preserve the original queries iter. getQueriesIter will create a new
+        // iterator based off of the queries collection if queriesIter is null
+        this.setQueriesIter(null);
+    }
+
+    @Override
+    public EdgeTraversalConfiguration checkpoint() {
+        // Create a new config that only contains what is needed to execute the specified ranges
+        return new EdgeTraversalConfiguration(this, getQueries());
+    }
+
+    /**
+     * Delegates deep copy work to appropriate constructor
+     *
+     * @param logic
+     *            - a EdgeTraversalQueryLogic instance or subclass
+     */
+    public EdgeTraversalConfiguration(EdgeTraversalQueryLogic logic) {
+        this(logic.getConfig());
+    }
+
+    /**
+     * Factory method that instantiates an fresh EdgeTraversalConfiguration
+     *
+     * @return - a clean EdgeTraversalConfiguration
+     */
+    public static EdgeTraversalConfiguration create() {
+        return new EdgeTraversalConfiguration();
+    }
+
+    /**
+     * Factory method that returns a deep copy of the provided EdgeTraversalConfiguration
+     *
+     * @param other
+     *            - another instance of a EdgeTraversalConfiguration
+     * @return - copy of provided EdgeTraversalConfiguration
+     */
+    public static EdgeTraversalConfiguration create(EdgeTraversalConfiguration other) {
+        return new EdgeTraversalConfiguration(other);
+    }
+
+    /**
+     * Factory method that creates a EdgeTraversalConfiguration deep copy from a EdgeTraversalQueryLogic
+     *
+     * @param logic
+     *            - a configured EdgeTraversalQueryLogic
+     * @return - a EdgeTraversalConfiguration
+     */
+    public static EdgeTraversalConfiguration create(EdgeTraversalQueryLogic logic) {
+
+        EdgeTraversalConfiguration config = create(logic.getConfig());
+
+        // Lastly, honor overrides passed in via query parameters
+        config.parseParameters(config.getQuery());
+
+        return config;
+    }
+
+    @Override
+    public EdgeTraversalConfiguration parseParameters(Query settings) {
+        super.parseParameters(settings);
+
+        // first, reset the params to their defaults
+        hops = defaultHops;
+        maxFanout = defaultMaxFanout;
+        hopQuery = null;
+        results = defaultResultType;
+
+        if (settings.getParameters() != null) {
+            QueryImpl.Parameter p = settings.findParameter(HOPS);
+            if (p != null && !p.getParameterValue().isEmpty()) {
+                hops = Integer.parseInt(p.getParameterValue());
+                if (hops < 1 || hops > maxHops) {
+                    throw new IllegalArgumentException("The query parameter " + HOPS + " must be between 1 and " + maxHops + ": " + hops);
+                }
+            }
+
+            p = settings.findParameter(HOP_QUERY);
+            if (p != null && !p.getParameterValue().isEmpty()) {
+                hopQuery = p.getParameterValue();
+            }
+
+            p = settings.findParameter(MAX_FANOUT);
+            if (p != null && !p.getParameterValue().isEmpty()) {
+                // the configured fan out is an upper bound
+                maxFanout = Math.min(Integer.parseInt(p.getParameterValue()), defaultMaxFanout);
+                if (maxFanout < 1) {
+                    throw new IllegalArgumentException("The query parameter " + MAX_FANOUT + " must be positive: " + maxFanout);
+                }
+            }
+
+            p = settings.findParameter(RESULTS);
+            if (p != null && !p.getParameterValue().isEmpty()) {
+                results = resultType.valueOf(p.getParameterValue().toUpperCase());
+            }
+        }
+        return this;
+    }
+
+    public int getDefaultHops() {
+        return defaultHops;
+    }
+
+    public void setDefaultHops(int defaultHops) {
+        this.defaultHops = defaultHops;
+    }
+
+    public int getMaxHops() {
+        return maxHops;
+    }
+
+    public void setMaxHops(int maxHops) {
+        this.maxHops = maxHops;
+    }
+
+    public int getDefaultMaxFanout() {
+        return defaultMaxFanout;
+    }
+
+    public void setDefaultMaxFanout(int defaultMaxFanout) {
+        this.defaultMaxFanout = defaultMaxFanout;
+    }
+
+    public int getMaxVertices() {
+        return maxVertices;
+    }
+
+    public void setMaxVertices(int maxVertices) {
+        this.maxVertices = maxVertices;
+    }
+
+    public int getFrontierBatchSize() {
+        return frontierBatchSize;
+    }
+
+    public void setFrontierBatchSize(int frontierBatchSize) {
+        this.frontierBatchSize = frontierBatchSize;
+    }
+
+    public int getMaxConcurrentScans() {
+        return maxConcurrentScans;
+    }
+
+    public void setMaxConcurrentScans(int maxConcurrentScans) {
+        this.maxConcurrentScans = maxConcurrentScans;
+    }
+
+    public resultType getDefaultResultType() {
+        return defaultResultType;
+    }
+
+    public void setDefaultResultType(resultType defaultResultType) {
+        this.defaultResultType = defaultResultType;
+    }
+
+    public int getHops() {
+        return hops;
+    }
+
+    public int getMaxFanout() {
+        return maxFanout;
+    }
+
+    public String getHopQuery() {
+        return hopQuery;
+    }
+
+    public resultType getResults() {
+        return results;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+        if (!super.equals(o))
+            return false;
+        EdgeTraversalConfiguration that = (EdgeTraversalConfiguration) o;
+        return defaultHops == that.defaultHops && maxHops == that.maxHops && defaultMaxFanout == that.defaultMaxFanout && maxVertices == that.maxVertices
+                        && frontierBatchSize == that.frontierBatchSize && maxConcurrentScans == that.maxConcurrentScans
+                        && defaultResultType == that.defaultResultType && hops == that.hops && maxFanout == that.maxFanout
+                        && Objects.equals(hopQuery, that.hopQuery) && results == that.results;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), defaultHops, maxHops, defaultMaxFanout, maxVertices, frontierBatchSize, maxConcurrentScans, defaultResultType,
+                        hops, maxFanout, hopQuery, results);
+    }
+}
@@ -26,6 +26,9 @@ public class RemoteQueryConfiguration extends GenericQueryConfiguration implemen
 
     private String remoteQueryLogic;
 
+    // the number of pages of the remote query to read ahead of the caller, or 0 to read each page when it is needed
+    private int remotePrefetchPages = 0;
+
     /**
      * Default constructor
      */
@@ -47,6 +50,7 @@ public class RemoteQueryConfiguration extends GenericQueryConfiguration implemen
         // RemoteQueryConfiguration copy
         this.remoteId = other.getRemoteId();
         this.remoteQueryLogic = other.getRemoteQueryLogic();
+        this.remotePrefetchPages = other.getRemotePrefetchPages();
     }
 
     /**
@@ -111,6 +115,14 @@ public class RemoteQueryConfiguration extends GenericQueryConfiguration implemen
         this.remoteQueryLogic = remoteQueryLogic;
     }
 
+    public int getRemotePrefetchPages() {
+        return remotePrefetchPages;
+    }
+
+    public void setRemotePrefetchPages(int remotePrefetchPages) {
+        this.remotePrefetchPages = remotePrefetchPages;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o)
@@ -121,12 +133,12 @@ public class RemoteQueryConfiguration extends GenericQueryConfiguration implemen
             return false;
         RemoteQueryConfiguration that = (RemoteQueryConfiguration) o;
         return Objects.equals(getRemoteId(), that.getRemoteId()) && Objects.equals(getRemoteQueryLogic(), that.getRemoteQueryLogic())
-                        && Objects.equals(getQuery(), that.getQuery());
+                        && getRemotePrefetchPages() == that.getRemotePrefetchPages() && Objects.equals(getQuery(), that.getQuery());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(super.hashCode(), getRemoteId(), getRemoteQueryLogic(), getQuery());
+        return Objects.hash(super.hashCode(), getRemoteId(), getRemoteQueryLogic(), getRemotePrefetchPages(), getQuery());
     }
 
     // Part of the Serializable interface used to initialize any transient members during deserialization
@@ -16,6 +16,7 @@ import datawave.util.ssdeep.IntegerEncoding;
 import datawave.util.ssdeep.NGramGenerator;
 import datawave.util.ssdeep.NGramTuple;
 import datawave.util.ssdeep.SSDeepHash;
+import datawave.util.ssdeep.SSDeepMinHashGenerator;
 
 public class SSDeepSimilarityQueryConfiguration extends GenericQueryConfiguration {
 
@@ -28,6 +29,14 @@ public class SSDeepSimilarityQueryConfiguration extends GenericQueryConfiguratio
     int bucketEncodingBase = BucketAccumuloKeyGenerator.DEFAULT_BUCKET_ENCODING_BASE;
     int bucketEncodingLength = BucketAccumuloKeyGenerator.DEFAULT_BUCKET_ENCODING_LENGTH;
 
+    /** The number of minhash bands to retrieve candidates with instead of ngrams, zero to retrieve candidates by ngram */
+    int minHashBands = 0;
+    int minHashRowsPerBand = SSDeepMinHashGenerator.DEFAULT_ROWS_PER_BAND;
+
+    /** The number of best matches to return for each query hash, zero to return every match which meets the score threshold */
+    int topK = 0;
+    int scoringThreads = Runtime.getRuntime().availableProcessors();
+
     /** Used to encode buckets as characters which are prepended to the ranges used to retrieve ngram tuples */
     private IntegerEncoding bucketEncoder;
     /** Used to encode the chunk size as a character which is included in the ranges used to retrieve ngram tuples */
@@ -121,4 +130,36 @@ public class SSDeepSimilarityQueryConfiguration extends GenericQueryConfiguratio
     public void setBucketEncodingLength(int bucketEncodingLength) {
         this.bucketEncodingLength = bucketEncodingLength;
     }
+
+    public int getMinHashBands() {
+        return minHashBands;
+    }
+
+    public void setMinHashBands(int minHashBands) {
+        this.minHashBands = minHashBands;
+    }
+
+    public int getMinHashRowsPerBand() {
+        return minHashRowsPerBand;
+    }
+
+    public void setMinHashRowsPerBand(int minHashRowsPerBand) {
+        this.minHashRowsPerBand = minHashRowsPerBand;
+    }
+
+    public int getTopK() {
+        return topK;
+    }
+
+    public void setTopK(int topK) {
+        this.topK = topK;
+    }
+
+    public int getScoringThreads() {
+        return scoringThreads;
+    }
+
+    public void setScoringThreads(int scoringThreads) {
+        this.scoringThreads = scoringThreads;
+    }
 }
@@ -47,6 +47,7 @@ import datawave.query.DocumentSerialization;
 import datawave.query.DocumentSerialization.ReturnType;
 import datawave.query.QueryParameters;
 import datawave.query.attributes.ExcerptFields;
+import datawave.query.attributes.SortFields;
 import datawave.query.attributes.UniqueFields;
 import datawave.query.common.grouping.GroupFields;
 import datawave.query.function.DocumentPermutation;
@@ -391,6 +392,15 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
     private int groupFieldsBatchSize;
     private boolean accrueStats = false;
     private UniqueFields uniqueFields = new UniqueFields();
+    /**
+     * The fields to order results by, and the number of results to return in that order. Each scan session keeps only that many results.
+     */
+    private SortFields sortFields = new SortFields();
+    private int sortLimit = 0;
+    /**
+     * The fields added to the projection only so that results can be ordered by them, which are removed before results are returned
+     */
+    private Set<String> sortOnlyFields = new HashSet<>(0);
     private boolean cacheModel = false;
     /**
      * should the sizes of documents be tracked for this query
@@ -717,6 +727,9 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
         this.setGroupFieldsBatchSize(other.getGroupFieldsBatchSize());
         this.setAccrueStats(other.getAccrueStats());
         this.setUniqueFields(UniqueFields.copyOf(other.getUniqueFields()));
+        this.setSortFields(SortFields.copyOf(other.getSortFields()));
+        this.setSortLimit(other.getSortLimit());
+        this.setSortOnlyFields(null == other.getSortOnlyFields() ? null : Sets.newHashSet(other.getSortOnlyFields()));
         this.setCacheModel(other.getCacheModel());
         this.setTrackSizes(other.isTrackSizes());
         this.setContentFieldNames(null == other.getContentFieldNames() ? null : Lists.newArrayList(other.getContentFieldNames()));
@@ -1878,6 +1891,33 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
         }
     }
 
+    public SortFields getSortFields() {
+        return sortFields;
+    }
+
+    public void setSortFields(SortFields sortFields) {
+        this.sortFields = sortFields;
+        if (sortFields != null) {
+            sortFields.deconstructFields();
+        }
+    }
+
+    public int getSortLimit() {
+        return sortLimit;
+    }
+
+    public void setSortLimit(int sortLimit) {
+        this.sortLimit = sortLimit;
+    }
+
+    public Set<String> getSortOnlyFields() {
+        return sortOnlyFields;
+    }
+
+    public void setSortOnlyFields(Set<String> sortOnlyFields) {
+        this.sortOnlyFields = sortOnlyFields;
+    }
+
     public boolean isHitList() {
         return this.hitList;
     }
@@ -2917,6 +2957,9 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
                 getGroupFieldsBatchSize() == that.getGroupFieldsBatchSize() &&
                 getAccrueStats() == that.getAccrueStats() &&
                 Objects.equals(getUniqueFields(), that.getUniqueFields()) &&
+                Objects.equals(getSortFields(), that.getSortFields()) &&
+                getSortLimit() == that.getSortLimit() &&
+                Objects.equals(getSortOnlyFields(), that.getSortOnlyFields()) &&
                 getCacheModel() == that.getCacheModel() &&
                 isTrackSizes() == that.isTrackSizes() &&
                 getEnforceUniqueConjunctionsWithinExpression() == that.getEnforceUniqueConjunctionsWithinExpression() &&
@@ -3184,6 +3227,9 @@ public class ShardQueryConfiguration extends GenericQueryConfiguration implement
                 getAccrueStats(),
                 getGroupFields(),
                 getUniqueFields(),
+                getSortFields(),
+                getSortLimit(),
+                getSortOnlyFields(),
                 getCacheModel(),
                 isTrackSizes(),
                 getContentFieldNames(),
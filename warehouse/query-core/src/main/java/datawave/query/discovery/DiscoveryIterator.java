@@ -36,11 +36,18 @@ public class DiscoveryIterator implements SortedKeyValueIterator<Key,Value> {
     private boolean separateCountsByColVis = false;
     private boolean showReferenceCount = false;
     private boolean reverseIndex = false;
+    private boolean sumCounts = false;
+    // the last key aggregated, which the top key must not sort before
+    private Key lastAggregated;
 
     @Override
     public DiscoveryIterator deepCopy(IteratorEnvironment env) {
         DiscoveryIterator i = new DiscoveryIterator();
         i.itr = itr.deepCopy(env);
+        i.separateCountsByColVis = separateCountsByColVis;
+        i.showReferenceCount = showReferenceCount;
+        i.reverseIndex = reverseIndex;
+        i.sumCounts = sumCounts;
         return i;
     }
 
@@ -80,7 +87,8 @@ public class DiscoveryIterator implements SortedKeyValueIterator<Key,Value> {
     private Multimap<String,TermInfo> aggregateDate() throws IOException {
         Multimap<String,TermInfo> terms = ArrayListMultimap.create();
         Key start = new Key(itr.getTopKey()), key = null;
-        while (itr.hasTop() && start.equals((key = itr.getTopKey()), PartialKey.ROW_COLFAM) && datesMatch(start, key)) {
+        while (itr.hasTop() && start.equals((key = itr.getTopKey()), PartialKey.ROW_COLFAM) && (sumCounts || datesMatch(start, key))) {
+            lastAggregated = key;
             TermInfo ti = new TermInfo(key, itr.getTopValue());
             if (ti.valid)
                 terms.put(ti.datatype, ti);
@@ -111,10 +119,11 @@ public class DiscoveryIterator implements SortedKeyValueIterator<Key,Value> {
         aw.set(returnedThings);
 
         DiscoveredThing thing = things.get(0);
-        // we want the key to be the last possible key for this date. Return the key as it is in the index (reversed if necessary) to
-        // ensure the keys are consistent with the initial seek range.
+        // we want the key to be the last possible key for this date, or for the last entry aggregated when summing across dates. Return the key as it is in
+        // the index (reversed if necessary) to ensure the keys are consistent with the initial seek range.
         String row = (reverseIndex ? new StringBuilder().append(thing.getTerm()).reverse().toString() : thing.getTerm());
-        return new Pair<>(new Key(row, thing.getField(), thing.getDate() + '\uffff'), new Value(WritableUtils.toByteArray(aw)));
+        String last = sumCounts ? lastAggregated.getColumnQualifier().toString() : thing.getDate();
+        return new Pair<>(new Key(row, thing.getField(), last + '\uffff'), new Value(WritableUtils.toByteArray(aw)));
     }
 
     @Override
@@ -132,11 +141,13 @@ public class DiscoveryIterator implements SortedKeyValueIterator<Key,Value> {
         separateCountsByColVis = Boolean.parseBoolean(options.get(DiscoveryLogic.SEPARATE_COUNTS_BY_COLVIS));
         showReferenceCount = Boolean.parseBoolean(options.get(DiscoveryLogic.SHOW_REFERENCE_COUNT));
         reverseIndex = Boolean.parseBoolean(options.get(DiscoveryLogic.REVERSE_INDEX));
+        sumCounts = Boolean.parseBoolean(options.get(DiscoveryLogic.SUM_COUNTS));
 
         if (log.isTraceEnabled()) {
             log.trace("My source is a " + source.getClass().getName());
             log.trace("Separate counts by column visibility = " + separateCountsByColVis);
             log.trace("Show reference count only = " + showReferenceCount);
+            log.trace("Sum counts across dates = " + sumCounts);
         }
     }
 
@@ -12,6 +12,7 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -75,6 +76,8 @@ public class DiscoveryLogic extends ShardIndexQueryTable {
     public static final String SEPARATE_COUNTS_BY_COLVIS = "separate.counts.by.colvis";
     public static final String SHOW_REFERENCE_COUNT = "show.reference.count";
     public static final String REVERSE_INDEX = "reverse.index";
+    public static final String SUM_COUNTS = "sum.counts";
+    public static final String TOP_TERMS = "top.terms";
     private DiscoveryQueryConfiguration config;
     private MetadataHelper metadataHelper;
 
@@ -133,6 +136,27 @@ public class DiscoveryLogic extends ShardIndexQueryTable {
             boolean showReferenceCount = Boolean.valueOf(settings.findParameter(SHOW_REFERENCE_COUNT).getParameterValue().trim());
             getConfig().setShowReferenceCount(showReferenceCount);
         }
+
+        // Check if user would like counts summed across the date range rather than given per date
+        if (null != settings.findParameter(SUM_COUNTS) && !settings.findParameter(SUM_COUNTS).getParameterValue().trim().isEmpty()) {
+            boolean sumCounts = Boolean.valueOf(settings.findParameter(SUM_COUNTS).getParameterValue().trim());
+            getConfig().setSumCounts(sumCounts);
+        }
+
+        // Check if user would like only the terms with the greatest counts
+        if (null != settings.findParameter(TOP_TERMS) && !settings.findParameter(TOP_TERMS).getParameterValue().trim().isEmpty()) {
+            String topTermsValue = settings.findParameter(TOP_TERMS).getParameterValue().trim();
+            int topTerms;
+            try {
+                topTerms = Integer.parseInt(topTermsValue);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(TOP_TERMS + " must be a positive integer, but was " + topTermsValue, e);
+            }
+            if (topTerms <= 0) {
+                throw new IllegalArgumentException(TOP_TERMS + " must be a positive integer, but was " + topTermsValue);
+            }
+            getConfig().setTopTerms(topTerms);
+        }
         setQueryModel(metadataHelper.getQueryModel(getModelTableName(), getModelName(), null));
         // get the data type filter set if any
         if (null != settings.findParameter(QueryParameters.DATATYPE_FILTER_SET)
@@ -204,6 +228,17 @@ public class DiscoveryLogic extends ShardIndexQueryTable {
         return getConfig();
     }
 
+    /**
+     * A query for the top terms is not checkpointable. The top terms are only known once the whole scan has been read, by which point the last result of every
+     * query data is past its ranges, so a checkpoint would resume with nothing left to scan and lose the pending terms.
+     *
+     * @return true if checkpointable and not returning the top terms
+     */
+    @Override
+    public boolean isCheckpointable() {
+        return super.isCheckpointable() && getConfig().getTopTerms() <= 0;
+    }
+
     public List<QueryData> createQueries(DiscoveryQueryConfiguration config) throws QueryException, TableNotFoundException, IOException, ExecutionException {
         final List<QueryData> queries = Lists.newLinkedList();
 
@@ -251,26 +286,43 @@ public class DiscoveryLogic extends ShardIndexQueryTable {
             throw new QueryException("Did not receive a DiscoveryQueryConfiguration instance!!");
         }
         this.config = (DiscoveryQueryConfiguration) genericConfig;
-        final List<Iterator<DiscoveredThing>> iterators = Lists.newArrayList();
 
+        // query data that differ only by their ranges, such as the one per range created when checkpointable, share a single scanner
+        final Map<List<Object>,List<QueryData>> scans = new LinkedHashMap<>();
         for (QueryData qd : config.getQueries()) {
+            scans.computeIfAbsent(Arrays.asList(qd.getTableName(), qd.getSettings(), qd.getColumnFamilies()), k -> new ArrayList<>()).add(qd);
+        }
+
+        // the scanners all start fetching as soon as they are created, so the forward and reverse index are scanned concurrently
+        final List<Iterator<DiscoveredThing>> iterators = Lists.newArrayList();
+        for (List<QueryData> queries : scans.values()) {
+            QueryData first = queries.get(0);
+            List<Range> ranges = new ArrayList<>();
+            for (QueryData qd : queries) {
+                ranges.addAll(qd.getRanges());
+            }
             if (log.isDebugEnabled()) {
-                log.debug("Creating scanner for " + qd);
+                log.debug("Creating scanner for " + ranges.size() + " ranges of " + queries.size() + " query data on " + first.getTableName());
             }
             // scan the table
-            BatchScanner bs = scannerFactory.newScanner(qd.getTableName(), config.getAuthorizations(), config.getNumQueryThreads(), config.getQuery());
+            BatchScanner bs = scannerFactory.newScanner(first.getTableName(), config.getAuthorizations(), config.getNumQueryThreads(), config.getQuery());
 
-            bs.setRanges(qd.getRanges());
-            for (IteratorSetting setting : qd.getSettings()) {
+            bs.setRanges(ranges);
+            for (IteratorSetting setting : first.getSettings()) {
                 bs.addScanIterator(setting);
             }
-            for (String cf : qd.getColumnFamilies()) {
+            for (String cf : first.getColumnFamilies()) {
                 bs.fetchColumnFamily(new Text(cf));
             }
 
-            iterators.add(transformScanner(bs, qd));
+            iterators.add(transformScanner(bs, queries));
+        }
+
+        Iterator<DiscoveredThing> things = concat(iterators.iterator());
+        if (config.getTopTerms() > 0) {
+            things = new TopDiscoveredThingsIterator(things, config.getTopTerms());
         }
-        this.iterator = concat(iterators.iterator());
+        this.iterator = things;
     }
 
     public static List<IteratorSetting> getIteratorSettingsForDiscovery(DiscoveryQueryConfiguration config, Multimap<String,String> literals,
@@ -296,6 +348,9 @@ public class DiscoveryLogic extends ShardIndexQueryTable {
         IteratorSetting discoveryIteratorSetting = new IteratorSetting(config.getBaseIteratorPriority() + 50, DiscoveryIterator.class);
         discoveryIteratorSetting.addOption(REVERSE_INDEX, Boolean.toString(reverseIndex));
         discoveryIteratorSetting.addOption(SEPARATE_COUNTS_BY_COLVIS, config.getSeparateCountsByColVis().toString());
+        if (config.getSumCounts()) {
+            discoveryIteratorSetting.addOption(SUM_COUNTS, config.getSumCounts().toString());
+        }
         if (config.getShowReferenceCount()) {
             discoveryIteratorSetting.addOption(SHOW_REFERENCE_COUNT, config.getShowReferenceCount().toString());
         }
@@ -359,15 +414,39 @@ public class DiscoveryLogic extends ShardIndexQueryTable {
      *
      * @param scanner
      *            a batch scanner
+     * @param queryData
+     *            the query data being scanned
      * @return iterator for discoveredthings
      */
     public static Iterator<DiscoveredThing> transformScanner(final BatchScanner scanner, final QueryData queryData) {
+        return transformScanner(scanner, Collections.singletonList(queryData));
+    }
+
+    /**
+     * Takes in a batch scanner over the ranges of several query data and returns an iterator over the DiscoveredThing objects contained in the value. The last
+     * result of each query data is updated with the results that fall within its ranges.
+     *
+     * @param scanner
+     *            a batch scanner
+     * @param queries
+     *            the query data being scanned
+     * @return iterator for discoveredthings
+     */
+    public static Iterator<DiscoveredThing> transformScanner(final BatchScanner scanner, final List<QueryData> queries) {
+        final List<Pair<Range,QueryData>> ranges = new ArrayList<>();
+        for (QueryData qd : queries) {
+            for (Range range : qd.getRanges()) {
+                ranges.add(Pair.with(range, qd));
+            }
+        }
         return concat(transform(scanner.iterator(), new Function<Entry<Key,Value>,Iterator<DiscoveredThing>>() {
             DataInputBuffer in = new DataInputBuffer();
+            // results tend to arrive in runs from the same range, so the range last matched is tried first
+            int lastMatched = 0;
 
             @Override
             public Iterator<DiscoveredThing> apply(Entry<Key,Value> from) {
-                queryData.setLastResult(from.getKey());
+                setLastResult(from.getKey());
                 Value value = from.getValue();
                 in.reset(value.get(), value.getSize());
                 ArrayWritable aw = new ArrayWritable(DiscoveredThing.class);
@@ -383,6 +462,21 @@ public class DiscoveryLogic extends ShardIndexQueryTable {
                 }
                 return thangs.iterator();
             }
+
+            private void setLastResult(Key key) {
+                if (queries.size() == 1) {
+                    queries.get(0).setLastResult(key);
+                    return;
+                }
+                for (int i = 0; i < ranges.size(); i++) {
+                    int index = (lastMatched + i) % ranges.size();
+                    if (ranges.get(index).getValue0().contains(key)) {
+                        ranges.get(index).getValue1().setLastResult(key);
+                        lastMatched = index;
+                        return;
+                    }
+                }
+            }
         }));
     }
 
@@ -546,6 +640,8 @@ public class DiscoveryLogic extends ShardIndexQueryTable {
     public Set<String> getOptionalQueryParameters() {
         Set<String> params = super.getOptionalQueryParameters();
         params.add(SEPARATE_COUNTS_BY_COLVIS);
+        params.add(SUM_COUNTS);
+        params.add(TOP_TERMS);
         return params;
     }
 
@@ -565,4 +661,20 @@ public class DiscoveryLogic extends ShardIndexQueryTable {
         getConfig().setShowReferenceCount(showReferenceCount);
     }
 
+    public Boolean getSumCounts() {
+        return getConfig().getSumCounts();
+    }
+
+    public void setSumCounts(Boolean sumCounts) {
+        getConfig().setSumCounts(sumCounts);
+    }
+
+    public int getTopTerms() {
+        return getConfig().getTopTerms();
+    }
+
+    public void setTopTerms(int topTerms) {
+        getConfig().setTopTerms(topTerms);
+    }
+
 }
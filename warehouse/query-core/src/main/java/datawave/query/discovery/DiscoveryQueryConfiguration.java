@@ -19,6 +19,8 @@ public class DiscoveryQueryConfiguration extends ShardIndexQueryConfiguration im
     private Multimap<String,LiteralRange<String>> ranges;
     private Boolean separateCountsByColVis = false;
     private Boolean showReferenceCount = false;
+    private Boolean sumCounts = false;
+    private int topTerms = 0;
 
     public DiscoveryQueryConfiguration() {}
 
@@ -26,6 +28,8 @@ public class DiscoveryQueryConfiguration extends ShardIndexQueryConfiguration im
         super(other);
         setSeparateCountsByColVis(other.separateCountsByColVis);
         setShowReferenceCount(other.showReferenceCount);
+        setSumCounts(other.sumCounts);
+        setTopTerms(other.topTerms);
         setLiterals(other.literals);
         setPatterns(other.patterns);
         setRanges(other.ranges);
@@ -40,6 +44,8 @@ public class DiscoveryQueryConfiguration extends ShardIndexQueryConfiguration im
         super(other, queries);
         setSeparateCountsByColVis(other.separateCountsByColVis);
         setShowReferenceCount(other.showReferenceCount);
+        setSumCounts(other.sumCounts);
+        setTopTerms(other.topTerms);
         setLiterals(other.literals);
         setPatterns(other.patterns);
         setRanges(other.ranges);
@@ -133,6 +139,22 @@ public class DiscoveryQueryConfiguration extends ShardIndexQueryConfiguration im
 
     }
 
+    public Boolean getSumCounts() {
+        return sumCounts;
+    }
+
+    public void setSumCounts(Boolean sumCounts) {
+        this.sumCounts = sumCounts;
+    }
+
+    public int getTopTerms() {
+        return topTerms;
+    }
+
+    public void setTopTerms(int topTerms) {
+        this.topTerms = topTerms;
+    }
+
     @Override
     public DiscoveryQueryConfiguration checkpoint() {
         // Create a new config that only contains what is needed to execute the specified ranges
@@ -149,11 +171,12 @@ public class DiscoveryQueryConfiguration extends ShardIndexQueryConfiguration im
             return false;
         DiscoveryQueryConfiguration that = (DiscoveryQueryConfiguration) o;
         return Objects.equals(literals, that.literals) && Objects.equals(patterns, that.patterns) && Objects.equals(ranges, that.ranges)
-                        && Objects.equals(separateCountsByColVis, that.separateCountsByColVis) && Objects.equals(showReferenceCount, that.showReferenceCount);
+                        && Objects.equals(separateCountsByColVis, that.separateCountsByColVis) && Objects.equals(showReferenceCount, that.showReferenceCount)
+                        && Objects.equals(sumCounts, that.sumCounts) && topTerms == that.topTerms;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(super.hashCode(), literals, patterns, ranges, separateCountsByColVis, showReferenceCount);
+        return Objects.hash(super.hashCode(), literals, patterns, ranges, separateCountsByColVis, showReferenceCount, sumCounts, topTerms);
     }
 }
@@ -50,13 +50,16 @@ public class TermInfoAggregation implements Function<Collection<TermInfo>,Discov
      * TermInfos for any given data type should have the following in common: - term - date - data type
      *
      * Therefore, we need to aggregate: - count - columnVisibilities/markings
+     *
+     * When counts are summed across dates, the TermInfos span several dates and the date is given as the range first-last.
      */
     public DiscoveredThing apply(Collection<TermInfo> from) {
         if (from.isEmpty()) {
             return null;
         } else {
             TermInfo info = from.iterator().next();
-            final String term, field = info.fieldName, type = info.datatype, date = info.date;
+            final String term, field = info.fieldName, type = info.datatype;
+            String firstDate = info.date, lastDate = info.date;
             if (reverseIndex) {
                 term = new StringBuilder().append(info.fieldValue).reverse().toString();
             } else {
@@ -73,6 +76,12 @@ public class TermInfoAggregation implements Function<Collection<TermInfo>,Discov
 
                 chosenCount = showReferenceCountInsteadOfTermCount ? referenceCount : termCount;
 
+                if (ti.date.compareTo(firstDate) < 0) {
+                    firstDate = ti.date;
+                } else if (ti.date.compareTo(lastDate) > 0) {
+                    lastDate = ti.date;
+                }
+
                 try {
                     markingFunctions.translateFromColumnVisibility(ti.vis); // just to test parsing
                     columnVisibilities.add(ti.vis);
@@ -98,6 +107,7 @@ public class TermInfoAggregation implements Function<Collection<TermInfo>,Discov
                 }
                 count += chosenCount;
             }
+            final String date = firstDate.equals(lastDate) ? firstDate : firstDate + '-' + lastDate;
             // adjust it so that if we have zero or fewer records
             // do nothing
             if (count <= 0) {
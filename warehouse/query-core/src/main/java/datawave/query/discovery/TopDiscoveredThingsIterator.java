@@ -0,0 +1,66 @@
+package datawave.query.discovery;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Returns only the discovered things with the greatest counts, greatest first. The source is consumed on the first call to {@link #hasNext()}, holding no more
+ * than the requested number of things at any time however many the source returns.
+ */
+public class TopDiscoveredThingsIterator implements Iterator<DiscoveredThing> {
+
+    // greatest count first, with things of the same count in their natural order
+    private static final Comparator<DiscoveredThing> BY_COUNT = Comparator.comparingLong(DiscoveredThing::getCount).reversed()
+                    .thenComparing(Comparator.naturalOrder());
+
+    private final Iterator<DiscoveredThing> source;
+    private final int limit;
+    private Iterator<DiscoveredThing> top = null;
+
+    /**
+     * @param source
+     *            the discovered things
+     * @param limit
+     *            the most things to return
+     */
+    public TopDiscoveredThingsIterator(Iterator<DiscoveredThing> source, int limit) {
+        this.source = source;
+        this.limit = Math.max(1, limit);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (top == null) {
+            // the least of the things kept is at the head, so that it can be replaced by a greater one
+            PriorityQueue<DiscoveredThing> queue = new PriorityQueue<>(Math.min(limit, 1024) + 1, BY_COUNT.reversed());
+            while (source.hasNext()) {
+                DiscoveredThing thing = source.next();
+                if (thing == null) {
+                    continue;
+                }
+                if (queue.size() < limit) {
+                    queue.add(thing);
+                } else if (BY_COUNT.compare(thing, queue.peek()) < 0) {
+                    queue.poll();
+                    queue.add(thing);
+                }
+            }
+            List<DiscoveredThing> things = new ArrayList<>(queue);
+            things.sort(BY_COUNT);
+            top = things.iterator();
+        }
+        return top.hasNext();
+    }
+
+    @Override
+    public DiscoveredThing next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return top.next();
+    }
+}
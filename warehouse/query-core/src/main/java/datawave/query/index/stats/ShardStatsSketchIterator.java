@@ -0,0 +1,142 @@
+package datawave.query.index.stats;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.IteratorEnvironment;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.VIntWritable;
+import org.apache.hadoop.io.VLongWritable;
+import org.apache.log4j.Logger;
+
+import com.clearspring.analytics.stream.cardinality.CardinalityMergeException;
+import com.clearspring.analytics.stream.cardinality.HyperLogLogPlus;
+
+/**
+ * Combines the shard stats entries of each field, one for each date and datatype, into a single {@link IndexStatsRecord}. The total counts are summed, and the
+ * hyperlog sketches written with the counts are merged to estimate the number of unique values over all of the entries, so that a value seen on several dates
+ * or in several datatypes is only counted once. Entries written without a sketch, or with a sketch that cannot be merged with the others, contribute their own
+ * unique count to the sum instead.
+ */
+public class ShardStatsSketchIterator implements SortedKeyValueIterator<Key,Value> {
+    private static final Logger log = Logger.getLogger(ShardStatsSketchIterator.class);
+
+    private SortedKeyValueIterator<Key,Value> src;
+    private Key tk = null;
+    private Value tv = null;
+
+    // optmization
+    private final VLongWritable count = new VLongWritable();
+    private final VLongWritable unique = new VLongWritable();
+    private final VIntWritable selectivity = new VIntWritable();
+    private final BytesWritable sketch = new BytesWritable();
+    private final IndexStatsRecord combinedValues = new IndexStatsRecord();
+
+    @Override
+    public void init(SortedKeyValueIterator<Key,Value> source, Map<String,String> options, IteratorEnvironment env) throws IOException {
+        src = source;
+    }
+
+    @Override
+    public boolean hasTop() {
+        return tk != null;
+    }
+
+    @Override
+    public void next() throws IOException {
+        if (src.hasTop()) {
+            Key srcTK = src.getTopKey();
+            Text workingRow = srcTK.getRow();
+            Text currentRow = srcTK.getRow();
+
+            long sumCount = 0;
+            long sumUnique = 0;
+            HyperLogLogPlus merged = null;
+
+            while (workingRow.equals(currentRow)) {
+                byte[] value = src.getTopValue().get();
+                DataInputStream in = new DataInputStream(new ByteArrayInputStream(value));
+                count.readFields(in);
+                unique.readFields(in);
+                selectivity.readFields(in);
+                sumCount += count.get();
+
+                HyperLogLogPlus entrySketch = null;
+                if (in.available() > 0) {
+                    sketch.readFields(in);
+                    entrySketch = HyperLogLogPlus.Builder.build(sketch.copyBytes());
+                }
+
+                if (null == entrySketch) {
+                    sumUnique += unique.get();
+                } else if (null == merged) {
+                    merged = entrySketch;
+                } else {
+                    try {
+                        merged.addAll(entrySketch);
+                    } catch (CardinalityMergeException e) {
+                        // sketches of differing precisions cannot be merged
+                        log.debug("Could not merge sketch for " + srcTK.toStringNoTime(), e);
+                        sumUnique += unique.get();
+                    }
+                }
+
+                src.next();
+                if (src.hasTop()) {
+                    srcTK = src.getTopKey();
+                    srcTK.getRow(currentRow);
+                } else {
+                    break;
+                }
+            }
+
+            if (null != merged) {
+                sumUnique += merged.cardinality();
+            }
+            // the estimate may exceed the number of values observed
+            combinedValues.setNumberOfUniqueWords(Math.min(sumUnique, sumCount));
+            combinedValues.setWordCount(sumCount);
+            tk = new Key(workingRow);
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            combinedValues.write(new DataOutputStream(baos));
+            tv = new Value(baos.toByteArray());
+        } else {
+            tk = null;
+            tv = null;
+        }
+    }
+
+    @Override
+    public void seek(Range range, Collection<ByteSequence> columnFamilies, boolean inclusive) throws IOException {
+        src.seek(range, columnFamilies, inclusive);
+        next();
+    }
+
+    @Override
+    public Key getTopKey() {
+        return tk;
+    }
+
+    @Override
+    public Value getTopValue() {
+        return tv;
+    }
+
+    @Override
+    public SortedKeyValueIterator<Key,Value> deepCopy(IteratorEnvironment env) {
+        ShardStatsSketchIterator ssi = new ShardStatsSketchIterator();
+        ssi.src = src.deepCopy(env);
+        return ssi;
+    }
+}
@@ -2,6 +2,7 @@ package datawave.query.iterator;
 
 import static org.slf4j.LoggerFactory.getLogger;
 
+import java.io.IOException;
 import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -21,16 +22,23 @@ import com.google.common.collect.Maps;
 import datawave.marking.MarkingFunctions;
 import datawave.query.attributes.Attribute;
 import datawave.query.attributes.Document;
+import datawave.query.attributes.PartialGroups;
 import datawave.query.attributes.TypeAttribute;
 import datawave.query.common.grouping.DocumentGrouper;
 import datawave.query.common.grouping.Group;
 import datawave.query.common.grouping.GroupFields;
 import datawave.query.common.grouping.GroupingUtils;
 import datawave.query.common.grouping.Groups;
+import datawave.query.common.grouping.GroupsCodec;
 
 /**
  * Because the t-server may tear down and start a new iterator at any time after a next() call, there can be no saved state in this class. For that reason, each
- * next call on the t-server will flatten the aggregated data into a single Entry&gt;Key,Document&lt; to return to the web server.
+ * next call on the t-server will encode the partially aggregated groups into a single Entry&gt;Key,Document&lt; to return to the web server, where they are
+ * merged by {@link DocumentGrouper}.
+ * <p>
+ * The groups are only encoded when the web server asks for it with {@link QueryOptions#GROUP_FIELDS_ENCODED}. Otherwise they are flattened into one document
+ * entry per grouping value, count and aggregate as before, so that a web server that cannot merge encoded groups keeps working while the t-servers are upgraded
+ * ahead of it.
  */
 public class GroupingIterator implements Iterator<Map.Entry<Key,Document>> {
 
@@ -59,15 +67,26 @@ public class GroupingIterator implements Iterator<Map.Entry<Key,Document>> {
 
     private final Iterator<Map.Entry<Key,Document>> previousIterators;
 
+    /**
+     * Whether to encode the groups with {@link GroupsCodec}, rather than flatten them.
+     */
+    private final boolean encoded;
+
     Map.Entry<Key,Document> next;
 
     public GroupingIterator(Iterator<Map.Entry<Key,Document>> previousIterators, MarkingFunctions markingFunctions, GroupFields groupFields,
                     int groupFieldsBatchSize, YieldCallback<Key> yieldCallback) {
+        this(previousIterators, markingFunctions, groupFields, groupFieldsBatchSize, yieldCallback, false);
+    }
+
+    public GroupingIterator(Iterator<Map.Entry<Key,Document>> previousIterators, MarkingFunctions markingFunctions, GroupFields groupFields,
+                    int groupFieldsBatchSize, YieldCallback<Key> yieldCallback, boolean encoded) {
         this.previousIterators = previousIterators;
         this.markingFunctions = markingFunctions;
         this.groupFields = groupFields;
         this.groupFieldsBatchSize = groupFieldsBatchSize;
         this.yieldCallback = yieldCallback;
+        this.encoded = encoded;
         this.groups = new Groups();
     }
 
@@ -84,7 +103,7 @@ public class GroupingIterator implements Iterator<Map.Entry<Key,Document>> {
             } else if (yieldCallback != null && yieldCallback.hasYielded()) {
                 log.trace("hasNext is false because yield was called");
                 if (!groups.isEmpty()) {
-                    // reset the yield and use its key in the flattened document prepared below
+                    // reset the yield and use its key in the document prepared below
                     keys.add(yieldCallback.getPositionAndReset());
                 }
                 break;
@@ -94,15 +113,20 @@ public class GroupingIterator implements Iterator<Map.Entry<Key,Document>> {
             }
         }
 
-        LinkedList<Document> documents = new LinkedList<>();
         Document document = null;
         next = null;
 
         if (!groups.isEmpty()) {
-            for (Group group : groups.getGroups()) {
-                documents.add(GroupingUtils.createDocument(group, keys, markingFunctions, GroupingUtils.AverageAggregatorWriteFormat.NUMERATOR_AND_DIVISOR));
+            if (encoded) {
+                document = createDocument();
+            } else {
+                LinkedList<Document> documents = new LinkedList<>();
+                for (Group group : groups.getGroups()) {
+                    documents.add(GroupingUtils.createDocument(group, keys, markingFunctions,
+                                    GroupingUtils.AverageAggregatorWriteFormat.NUMERATOR_AND_DIVISOR));
+                }
+                document = flatten(documents);
             }
-            document = flatten(documents);
         }
 
         if (document != null) {
@@ -205,4 +229,36 @@ public class GroupingIterator implements Iterator<Map.Entry<Key,Document>> {
         log.trace("flattened document: {}", flattened);
         return flattened;
     }
+
+    /**
+     * Create a single document holding the current groups, encoded by {@link GroupsCodec} so that the web server can merge their counts and aggregates without
+     * re-parsing them from individual document entries. The document's visibility is the combined visibility of each document that contributed to the groups.
+     *
+     * @return the document
+     */
+    private Document createDocument() {
+        // Use the last (most recent) key so a new iterator will know where to start.
+        Key key = keys.get(keys.size() - 1);
+        Document document = new Document(key, true);
+
+        Set<ColumnVisibility> visibilities = new HashSet<>();
+        for (Group group : groups.getGroups()) {
+            visibilities.addAll(group.getDocumentVisibilities());
+        }
+        ColumnVisibility visibility = GroupingUtils.combineVisibilities(visibilities, markingFunctions, false);
+
+        byte[] encoded;
+        try {
+            encoded = GroupsCodec.encode(groups);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to encode " + groups.totalGroups() + " groups", e);
+        }
+        PartialGroups partialGroups = new PartialGroups(encoded, key, true);
+        partialGroups.setColumnVisibility(visibility);
+        document.put(DocumentGrouper.PARTIAL_GROUPS, partialGroups, true, false);
+
+        document.setColumnVisibility(visibility);
+        log.trace("encoded {} groups into {} bytes", groups.totalGroups(), encoded.length);
+        return document;
+    }
 }
@@ -165,6 +165,9 @@ public class QueryIterator extends QueryOptions implements YieldingKeyValueItera
 
     private static final Logger log = Logger.getLogger(QueryIterator.class);
 
+    // the bytes of document signatures held by the unique transform of each scan
+    private static final long UNIQUE_PREFILTER_MAX_MEMORY = 8L * 1024 * 1024;
+
     protected SortedKeyValueIterator<Key,Value> source;
     protected SortedKeyValueIterator<Key,Value> sourceForDeepCopies;
     protected Map<String,String> documentOptions;
@@ -486,6 +489,12 @@ public class QueryIterator extends QueryOptions implements YieldingKeyValueItera
                 }
             }
 
+            // keep only the first documents in the requested order, unless grouping which returns aggregates rather than documents
+            boolean grouping = getGroupFields() != null && getGroupFields().hasGroupByFields();
+            if (getSortLimit() > 0 && getSortFields() != null && !getSortFields().isEmpty() && !grouping) {
+                pipelineDocuments = new TopDocumentsIterator(pipelineDocuments, getSortFields(), getSortLimit(), yield);
+            }
+
             pipelineDocuments = Iterators.filter(pipelineDocuments, keyDocumentEntry -> {
                 // last chance before the documents are serialized
                 getActiveQueryLog().get(getQueryId()).recordStats(keyDocumentEntry.getValue(), querySpanCollector.getCombinedQuerySpan(null));
@@ -1568,7 +1577,9 @@ public class QueryIterator extends QueryOptions implements YieldingKeyValueItera
         if (uniqueTransform == null && getUniqueFields() != null && !getUniqueFields().isEmpty()) {
             synchronized (getUniqueFields()) {
                 if (uniqueTransform == null) {
-                    uniqueTransform = new UniqueTransform(getUniqueFields(), getResultTimeout());
+                    // the signatures spill past the budget, so no duplicate within this scan is returned. The run files are unlinked once
+                    // opened, so their space is freed once a discarded iterator is collected.
+                    uniqueTransform = new UniqueTransform(getUniqueFields(), getResultTimeout(), UNIQUE_PREFILTER_MAX_MEMORY);
                 }
             }
         }
@@ -1580,7 +1591,7 @@ public class QueryIterator extends QueryOptions implements YieldingKeyValueItera
             synchronized (getGroupFields()) {
                 if (groupingIterator == null) {
                     groupingIterator = new GroupingIterator(in, MarkingFunctionsFactory.createMarkingFunctions(), getGroupFields(), this.groupFieldsBatchSize,
-                                    this.yield);
+                                    this.yield, this.groupFieldsEncoded);
                 }
             }
         }
@@ -61,6 +61,7 @@ import datawave.query.Constants;
 import datawave.query.DocumentSerialization;
 import datawave.query.attributes.Document;
 import datawave.query.attributes.ExcerptFields;
+import datawave.query.attributes.SortFields;
 import datawave.query.attributes.UniqueFields;
 import datawave.query.common.grouping.GroupFields;
 import datawave.query.composite.CompositeMetadata;
@@ -146,7 +147,10 @@ public class QueryOptions implements OptionDescriber {
     public static final String LIMIT_FIELDS_FIELD = "limit.fields.field";
     public static final String GROUP_FIELDS = "group.fields";
     public static final String GROUP_FIELDS_BATCH_SIZE = "group.fields.batch.size";
+    public static final String GROUP_FIELDS_ENCODED = "group.fields.encoded";
     public static final String UNIQUE_FIELDS = "unique.fields";
+    public static final String SORT_FIELDS = "sort.fields";
+    public static final String SORT_LIMIT = "sort.limit";
     public static final String HITS_ONLY = "hits.only";
     public static final String HIT_LIST = "hit.list";
     public static final String START_TIME = "start.time";
@@ -308,7 +312,10 @@ public class QueryOptions implements OptionDescriber {
 
     protected GroupFields groupFields = new GroupFields();
     protected int groupFieldsBatchSize = Integer.MAX_VALUE;
+    protected boolean groupFieldsEncoded = false;
     protected UniqueFields uniqueFields = new UniqueFields();
+    protected SortFields sortFields = new SortFields();
+    protected int sortLimit = 0;
 
     protected Set<String> hitsOnlySet = new HashSet<>();
 
@@ -525,6 +532,9 @@ public class QueryOptions implements OptionDescriber {
         this.limitFieldsField = other.limitFieldsField;
         this.groupFields = other.groupFields;
         this.groupFieldsBatchSize = other.groupFieldsBatchSize;
+        this.groupFieldsEncoded = other.groupFieldsEncoded;
+        this.sortFields = other.sortFields;
+        this.sortLimit = other.sortLimit;
         this.hitsOnlySet = other.hitsOnlySet;
 
         this.compressedMappings = other.compressedMappings;
@@ -1171,6 +1181,14 @@ public class QueryOptions implements OptionDescriber {
         this.groupFieldsBatchSize = groupFieldsBatchSize;
     }
 
+    public boolean isGroupFieldsEncoded() {
+        return groupFieldsEncoded;
+    }
+
+    public void setGroupFieldsEncoded(boolean groupFieldsEncoded) {
+        this.groupFieldsEncoded = groupFieldsEncoded;
+    }
+
     public UniqueFields getUniqueFields() {
         return uniqueFields;
     }
@@ -1179,6 +1197,22 @@ public class QueryOptions implements OptionDescriber {
         this.uniqueFields = uniqueFields;
     }
 
+    public SortFields getSortFields() {
+        return sortFields;
+    }
+
+    public void setSortFields(SortFields sortFields) {
+        this.sortFields = sortFields;
+    }
+
+    public int getSortLimit() {
+        return sortLimit;
+    }
+
+    public void setSortLimit(int sortLimit) {
+        this.sortLimit = sortLimit;
+    }
+
     public Set<String> getHitsOnlySet() {
         return hitsOnlySet;
     }
@@ -1285,7 +1319,10 @@ public class QueryOptions implements OptionDescriber {
         options.put(MATCHING_FIELD_SETS, "matching field sets (used along with limit fields)");
         options.put(GROUP_FIELDS, "group fields and fields to aggregate");
         options.put(GROUP_FIELDS_BATCH_SIZE, "group fields.batch.size");
+        options.put(GROUP_FIELDS_ENCODED, "whether to return the grouped results encoded for merging rather than flattened");
         options.put(UNIQUE_FIELDS, "unique fields");
+        options.put(SORT_FIELDS, "fields to order results by, each with a direction");
+        options.put(SORT_LIMIT, "the number of results to keep in order for each scan session");
         options.put(HIT_LIST, "hit list");
         options.put(NON_INDEXED_DATATYPES, "Normalizers to apply only at aggregation time");
         options.put(CONTAINS_INDEX_ONLY_TERMS, "Does the query being evaluated contain any terms which are index-only");
@@ -1657,10 +1694,28 @@ public class QueryOptions implements OptionDescriber {
             this.setGroupFieldsBatchSize(batchSize);
         }
 
+        if (options.containsKey(GROUP_FIELDS_ENCODED)) {
+            this.setGroupFieldsEncoded(Boolean.parseBoolean(options.get(GROUP_FIELDS_ENCODED)));
+        }
+
         if (options.containsKey(UNIQUE_FIELDS)) {
             this.setUniqueFields(UniqueFields.from(options.get(UNIQUE_FIELDS)));
         }
 
+        if (options.containsKey(SORT_FIELDS)) {
+            this.setSortFields(SortFields.from(options.get(SORT_FIELDS)));
+        }
+
+        if (options.containsKey(SORT_LIMIT)) {
+            // without a valid limit every document is returned, and the web server still sorts them
+            try {
+                this.setSortLimit(Math.max(0, Integer.parseInt(options.get(SORT_LIMIT))));
+            } catch (NumberFormatException nfe) {
+                log.warn("Ignoring invalid " + SORT_LIMIT + ": " + options.get(SORT_LIMIT));
+                this.setSortLimit(0);
+            }
+        }
+
         if (options.containsKey(HIT_LIST)) {
             log.debug("Adding hitList to QueryOptions? " + options.get(HIT_LIST));
             if (Boolean.parseBoolean(options.get(HIT_LIST))) {
@@ -0,0 +1,77 @@
+package datawave.query.iterator;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.iterators.YieldCallback;
+import org.slf4j.Logger;
+
+import datawave.query.attributes.Document;
+import datawave.query.attributes.SortFields;
+import datawave.query.common.sort.TopDocuments;
+
+/**
+ * Keeps only the first documents of a scan session in the order given by a {@link SortFields}, so that a sorted query with a limit returns at most that many
+ * documents from each scan session rather than every match, and the web server merges them into the final order.
+ * <p>
+ * The documents kept are returned in key order rather than in sorted order. The t-server may tear down the iterator after any document and start a new one
+ * after the last key returned, and since every document kept after that key is also among the first documents of the rest of the range, nothing that belongs
+ * in the final results is lost; at worst the new iterator returns some documents that the web server then drops. When the source yields, the documents kept so
+ * far are returned first and the yield is then passed on at its original position.
+ */
+public class TopDocumentsIterator implements Iterator<Map.Entry<Key,Document>> {
+
+    private static final Logger log = getLogger(TopDocumentsIterator.class);
+
+    private final Iterator<Map.Entry<Key,Document>> source;
+    private final TopDocuments topDocuments;
+    private final YieldCallback<Key> yieldCallback;
+
+    private Iterator<Map.Entry<Key,Document>> results = null;
+    // the position the source yielded at, to yield again once the documents kept have been returned
+    private Key yieldPosition = null;
+
+    public TopDocumentsIterator(Iterator<Map.Entry<Key,Document>> source, SortFields sortFields, int limit, YieldCallback<Key> yieldCallback) {
+        this.source = source;
+        this.topDocuments = new TopDocuments(sortFields, limit);
+        this.yieldCallback = yieldCallback;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (results == null) {
+            while (source.hasNext()) {
+                Map.Entry<Key,Document> entry = source.next();
+                if (entry != null) {
+                    topDocuments.offer(entry);
+                }
+            }
+            if (yieldCallback != null && yieldCallback.hasYielded() && !topDocuments.isEmpty()) {
+                yieldPosition = yieldCallback.getPositionAndReset();
+                log.trace("returning {} documents before yielding at {}", topDocuments.size(), yieldPosition);
+            }
+            results = topDocuments.drainByKey().iterator();
+        }
+
+        if (results.hasNext()) {
+            return true;
+        }
+        if (yieldPosition != null) {
+            yieldCallback.yield(yieldPosition);
+            yieldPosition = null;
+        }
+        return false;
+    }
+
+    @Override
+    public Map.Entry<Key,Document> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return results.next();
+    }
+}
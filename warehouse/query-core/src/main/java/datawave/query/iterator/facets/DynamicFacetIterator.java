@@ -60,6 +60,7 @@ public class DynamicFacetIterator extends FieldIndexOnlyQueryIterator {
     public static final String FACETED_SEARCH_TYPE = "query.facet.type";
     public static final String FACETED_MINIMUM = "query.facet.minimum";
     public static final String FACETED_SEARCH_FIELDS = "query.facet.fields";
+    public static final String FACETED_ROLLUP_PIVOTS = "query.facet.rollup.pivots";
 
     FacetedConfiguration configuration;
 
@@ -76,6 +77,7 @@ public class DynamicFacetIterator extends FieldIndexOnlyQueryIterator {
         options.put(FACETED_SEARCH_TYPE, "Type of faceted search");
         options.put(FACETED_MINIMUM, "Minimum Facet count. Defaults to 0");
         options.put(FACETED_SEARCH_FIELDS, "Comma separated list of facets that we must include. If this is empty, we return all facets");
+        options.put(FACETED_ROLLUP_PIVOTS, "Comma separated list of pivots with weekly cubes in the facet table. If this is empty, only daily cubes are read");
 
         return new IteratorOptions(getClass().getSimpleName(), "Runs a Faceted search against event data", options, null);
     }
@@ -138,6 +140,10 @@ public class DynamicFacetIterator extends FieldIndexOnlyQueryIterator {
 
         configuration.setFacetedFields(facetedFields);
 
+        if (options.containsKey(FACETED_ROLLUP_PIVOTS)) {
+            configuration.setRollupPivots(Sets.newTreeSet(Splitter.on(",").omitEmptyStrings().trimResults().split(options.get(FACETED_ROLLUP_PIVOTS))));
+        }
+
         // assign the options for later use by the document iterator
         documenIteratorOptions = options;
 
@@ -0,0 +1,338 @@
+package datawave.query.iterator.facets;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.PartialKey;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.hadoop.io.Text;
+import org.apache.log4j.Logger;
+
+import com.google.common.collect.Maps;
+
+import datawave.ingest.mapreduce.handler.facet.FacetCubes;
+import datawave.query.util.SortedKeyValueIteratorToIterator.IteratorException;
+
+/**
+ * Returns the facet table entries needed to cover a date range, choosing the coarsest cubes available. For each facet (row and column family) within the range,
+ * the weekly cube of every week wholly within the date range is used where one exists, and the daily cubes are used for the rest of the date range. Weeks
+ * without a weekly cube, such as those ingested before the pivot was configured for rollup, are therefore still counted from their daily cubes. The earliest
+ * weekly cube of a facet is never used, as rollup may have been configured part way through that week, and the daily cubes are used for that week instead.
+ * <p>
+ * Weekly cubes are only looked for when the pivot of the facet is one of the rolled up pivots, as configured for ingest, so a facet whose pivot is not rolled
+ * up costs a single seek for its daily cubes. The weekly cubes of a facet are found with a single seek running to the end of the range. When the facet has
+ * none, that seek lands on the next facet, which is then used without seeking for it again. Likewise the seek for the last daily cubes of a facet runs to the
+ * end of the range, and the next facet is found by reading on through a few more entries before falling back to a seek.
+ */
+public class FacetCubeIterator implements Iterator<Entry<Key,Value>> {
+
+    private static final Logger log = Logger.getLogger(FacetCubeIterator.class);
+
+    public static final int DEFAULT_MAX_NEXT_COUNT = 32;
+
+    private final SortedKeyValueIterator<Key,Value> source;
+    private final Range range;
+    private final Collection<ByteSequence> columnFamilies;
+    private final boolean inclusive;
+    private final LocalDate beginDay;
+    private final LocalDate endDay;
+    private final LocalDate firstWeek;
+    private final LocalDate lastWeek;
+    private final Set<String> rollupPivots;
+    private int maxNextCount = DEFAULT_MAX_NEXT_COUNT;
+
+    // the weekly cubes read for the current facet
+    private final Deque<Entry<Key,Value>> weeks = new ArrayDeque<>();
+    // the ranges of daily cubes still to read for the current facet
+    private final Deque<Range> days = new ArrayDeque<>();
+    private boolean readingDays = false;
+    // the last range of daily cubes of the current facet, whose seek runs on to look for the next facet, or null if it has been found
+    private Range lastDays = null;
+    // whether the source is reading the last range of daily cubes on towards the next facet
+    private boolean runningOn = false;
+    private Key facet = null;
+    // where the next facet starts, or null before the first
+    private Key nextFacet = null;
+    // the first key of the next facet when already found, or null if it must be sought
+    private Key pendingFacet = null;
+    // whether the source was found to hold no more facets
+    private boolean lastFacet = false;
+    private boolean exhausted = false;
+    private Entry<Key,Value> next = null;
+
+    /**
+     * @param source
+     *            the facet table
+     * @param range
+     *            the facets to return
+     * @param columnFamilies
+     *            the column families to seek with
+     * @param inclusive
+     *            whether the column families are included or excluded
+     * @param beginTime
+     *            the start of the date range in milliseconds
+     * @param endTime
+     *            the end of the date range in milliseconds
+     * @param rollupPivots
+     *            the pivot fields with weekly cubes
+     */
+    public FacetCubeIterator(SortedKeyValueIterator<Key,Value> source, Range range, Collection<ByteSequence> columnFamilies, boolean inclusive,
+                    long beginTime, long endTime, Set<String> rollupPivots) {
+        this.source = source;
+        this.range = range;
+        this.columnFamilies = columnFamilies;
+        this.inclusive = inclusive;
+        this.beginDay = FacetCubes.toDay(beginTime);
+        this.endDay = FacetCubes.toDay(endTime);
+        this.firstWeek = FacetCubes.firstFullWeek(beginDay);
+        this.lastWeek = FacetCubes.lastFullWeek(endDay);
+        this.rollupPivots = rollupPivots;
+    }
+
+    /**
+     * Sets how many entries are read past the daily cubes of a facet looking for the next facet, before seeking to it instead.
+     *
+     * @param maxNextCount
+     *            the maximum number of entries to read
+     */
+    public void setMaxNextCount(int maxNextCount) {
+        this.maxNextCount = maxNextCount;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !exhausted) {
+            try {
+                next = findNext();
+            } catch (IOException e) {
+                throw new IteratorException(e);
+            }
+            exhausted = next == null;
+        }
+        return next != null;
+    }
+
+    @Override
+    public Entry<Key,Value> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Entry<Key,Value> top = next;
+        next = null;
+        return top;
+    }
+
+    private Entry<Key,Value> findNext() throws IOException {
+        while (true) {
+            if (!weeks.isEmpty()) {
+                return weeks.poll();
+            }
+            if (readingDays && source.hasTop() && !(runningOn && lastDays.afterEndKey(source.getTopKey()))) {
+                Entry<Key,Value> top = copyTop();
+                source.next();
+                return top;
+            }
+            if (runningOn) {
+                findNextFacet();
+            }
+            if (!days.isEmpty()) {
+                Range dayRange = days.poll();
+                runningOn = lastDays != null && days.isEmpty();
+                if (runningOn) {
+                    dayRange = new Range(dayRange.getStartKey(), dayRange.isStartKeyInclusive(), range.getEndKey(), range.isEndKeyInclusive());
+                }
+                seek(dayRange);
+                readingDays = true;
+                continue;
+            }
+            readingDays = false;
+            if (!nextFacet()) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Find the next facet within the range, reading its weekly cubes and planning the ranges of daily cubes for the rest of the date range.
+     *
+     * @return false if there are no more facets
+     * @throws IOException
+     *             if the source cannot be read
+     */
+    private boolean nextFacet() throws IOException {
+        lastDays = null;
+        if (pendingFacet != null) {
+            facet = pendingFacet;
+            pendingFacet = null;
+        } else {
+            if (lastFacet) {
+                return false;
+            } else if (nextFacet == null) {
+                seek(range);
+            } else if (range.afterEndKey(nextFacet)) {
+                return false;
+            } else {
+                seek(new Range(nextFacet, true, range.getEndKey(), range.isEndKeyInclusive()));
+            }
+            if (!source.hasTop()) {
+                return false;
+            }
+            facet = new Key(source.getTopKey());
+        }
+
+        Text row = facet.getRow();
+        Text cf = facet.getColumnFamily();
+        nextFacet = facet.followingKey(PartialKey.ROW_COLFAM);
+
+        // the weekly cubes sort after the daily cubes, and are read first so that only the days they don't cover need be read. There is no need to look for
+        // them when the date range holds no full week, or when the pivot of the facet is not rolled up.
+        LocalDate day = beginDay;
+        if (!firstWeek.isAfter(lastWeek) && rollupPivots.contains(pivot(cf))) {
+            day = readWeeks(facet, row, cf);
+        }
+        if (!day.isAfter(endDay)) {
+            addDays(row, cf, day, endDay);
+        }
+
+        // unless the next facet has already been found, the last seek for daily cubes runs on so that the next facet may be found without seeking
+        if (pendingFacet == null && !lastFacet) {
+            lastDays = days.peekLast();
+        }
+
+        if (log.isTraceEnabled()) {
+            log.trace("Reading " + weeks.size() + " weekly cubes and " + days.size() + " ranges of daily cubes for " + facet.toStringNoTime());
+        }
+        return true;
+    }
+
+    /**
+     * Read the weekly cubes of a facet for the full weeks of the date range, planning the ranges of daily cubes for the days before and between them. The
+     * seek for the weekly cubes runs on to the end of the range, so that when the facet has no more weekly cubes the source is left on the next facet.
+     *
+     * @param facet
+     *            the first key of the facet
+     * @param row
+     *            the row of the facet
+     * @param cf
+     *            the column family of the facet
+     * @return the first day not covered by a weekly cube or planned daily cubes
+     * @throws IOException
+     *             if the source cannot be read
+     */
+    private LocalDate readWeeks(Key facet, Text row, Text cf) throws IOException {
+        LocalDate day = beginDay;
+        Range weekRange = range.clip(new Range(new Key(row, cf, new Text(FacetCubes.WEEK_PREFIX)), true, range.getEndKey(), range.isEndKeyInclusive()), true);
+        if (weekRange == null) {
+            return day;
+        }
+        seek(weekRange);
+        if (!source.hasTop() || !isWeekOf(facet)) {
+            atNextFacet(facet);
+            return day;
+        }
+
+        // the earliest weekly cube may only cover the days after rollup was configured
+        LocalDate rollupStart = FacetCubes.parseWeekQualifier(source.getTopKey().getColumnQualifier().toString());
+        if (rollupStart.isBefore(firstWeek)) {
+            Key weekStart = new Key(row, cf, new Text(FacetCubes.weekQualifier(firstWeek)));
+            weekRange = range.clip(new Range(weekStart, true, range.getEndKey(), range.isEndKeyInclusive()), true);
+            if (weekRange == null) {
+                return day;
+            }
+            seek(weekRange);
+        }
+
+        LocalDate lastCovered = null;
+        while (source.hasTop() && isWeekOf(facet)) {
+            LocalDate week = FacetCubes.parseWeekQualifier(source.getTopKey().getColumnQualifier().toString());
+            if (week.isAfter(lastWeek)) {
+                return day;
+            }
+            if (week.equals(rollupStart)) {
+                source.next();
+                continue;
+            }
+            weeks.add(copyTop());
+            source.next();
+            if (week.equals(lastCovered)) {
+                // another visibility of the same week
+                continue;
+            }
+            if (day.isBefore(week)) {
+                addDays(row, cf, day, week.minusDays(1));
+            }
+            day = week.plusWeeks(1);
+            lastCovered = week;
+        }
+        atNextFacet(facet);
+        return day;
+    }
+
+    /**
+     * Read on from the end of the daily cubes of the current facet to the first key of the next facet, giving up and leaving it to be sought after reading
+     * {@link #maxNextCount} entries.
+     */
+    private void findNextFacet() throws IOException {
+        runningOn = false;
+        for (int i = 0; source.hasTop() && i < maxNextCount; i++) {
+            if (!source.getTopKey().equals(facet, PartialKey.ROW_COLFAM)) {
+                pendingFacet = new Key(source.getTopKey());
+                return;
+            }
+            source.next();
+        }
+        if (!source.hasTop()) {
+            lastFacet = true;
+        }
+    }
+
+    // the pivot field of a facet column family
+    private static String pivot(Text cf) {
+        String fields = cf.toString();
+        int end = fields.indexOf('\0');
+        return end < 0 ? fields : fields.substring(0, end);
+    }
+
+    // whether the top of the source is a weekly cube of the facet
+    private boolean isWeekOf(Key facet) {
+        Key top = source.getTopKey();
+        return top.equals(facet, PartialKey.ROW_COLFAM) && FacetCubes.isWeekQualifier(top.getColumnQualifier().toString());
+    }
+
+    // the source has run past the weekly cubes of a facet, onto the next facet if there is one
+    private void atNextFacet(Key facet) {
+        if (!source.hasTop()) {
+            lastFacet = true;
+        } else if (!source.getTopKey().equals(facet, PartialKey.ROW_COLFAM)) {
+            pendingFacet = new Key(source.getTopKey());
+        }
+    }
+
+    private void addDays(Text row, Text cf, LocalDate first, LocalDate last) {
+        Key start = new Key(row, cf, new Text(FacetCubes.dayQualifier(first)));
+        Key end = new Key(row, cf, new Text(FacetCubes.dayQualifier(last))).followingKey(PartialKey.ROW_COLFAM_COLQUAL);
+        Range clipped = range.clip(new Range(start, true, end, false), true);
+        if (clipped != null) {
+            days.add(clipped);
+        }
+    }
+
+    private void seek(Range seekRange) throws IOException {
+        source.seek(seekRange, columnFamilies, inclusive);
+    }
+
+    private Entry<Key,Value> copyTop() {
+        return Maps.immutableEntry(new Key(source.getTopKey()), new Value(source.getTopValue()));
+    }
+}
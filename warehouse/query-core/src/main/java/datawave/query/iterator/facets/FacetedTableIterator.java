@@ -18,7 +18,6 @@ import com.google.common.collect.Iterators;
 
 import datawave.query.attributes.Document;
 import datawave.query.tables.facets.FacetTableFunction;
-import datawave.query.util.SortedKeyValueIteratorToIterator;
 
 public class FacetedTableIterator extends DynamicFacetIterator {
 
@@ -46,13 +45,14 @@ public class FacetedTableIterator extends DynamicFacetIterator {
 
     }
 
-    @SuppressWarnings({"unchecked", "rawtypes"})
     @Override
     public Iterator<Entry<Key,Document>> getDocumentIterator(Range range, Collection<ByteSequence> columnFamilies, boolean inclusive) throws IOException {
 
-        facetSource.seek(range, columnFamilies, inclusive);
+        // only the cubes covering the query dates are read, weekly where available and daily otherwise
+        Iterator<Entry<Key,Value>> cubes = new FacetCubeIterator(facetSource, range, columnFamilies, inclusive, startTime, endTime,
+                        configuration.getRollupPivots());
 
-        return Iterators.transform(new SortedKeyValueIteratorToIterator(facetSource), function);
+        return Iterators.transform(cubes, function);
 
     }
 }
@@ -5,9 +5,14 @@ import static datawave.query.jexl.DatawaveInterpreter.isMatched;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
+import org.apache.accumulo.core.data.ArrayByteSequence;
+import org.apache.accumulo.core.data.ByteSequence;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.iterators.Filter;
@@ -18,7 +23,6 @@ import org.apache.commons.jexl3.JexlBuilder;
 import org.apache.commons.jexl3.JexlContext;
 import org.apache.commons.jexl3.JexlExpression;
 import org.apache.commons.jexl3.MapContext;
-import org.apache.commons.jexl3.internal.Engine;
 import org.apache.commons.jexl3.introspection.JexlPermissions;
 import org.apache.log4j.Logger;
 
@@ -37,6 +41,9 @@ import datawave.query.jexl.DefaultArithmetic;
  * pair the returned values from that iterator stack down to only those that actually do adhere to the full JEXL expression.
  * <p>
  * Prefiltering is an optional component that can determine quickly if a key will fail using an allowlist of accepted values parsed from the jexl
+ * <p>
+ * Where possible the expressions are compiled into an {@link EdgeKeyPredicate} which is evaluated directly against the bytes of the key, so that the common
+ * expressions do not require the key to be decoded into Strings and a jexl context. Keys the compiled predicate cannot decide are evaluated with jexl.
  */
 public class EdgeFilterIterator extends Filter {
     public static final Logger log = Logger.getLogger(EdgeFilterIterator.class);
@@ -47,15 +54,22 @@ public class EdgeFilterIterator extends Filter {
     public static final String JEXL_STATS_OPTION = "jexlStatsQuery";
     public static final String PREFILTER_ALLOWLIST = "prefilter";
 
-    private static final Engine jexlEngine;
+    private static final DatawaveJexlEngine jexlEngine;
 
     private boolean protobuffFormat;
     private boolean includeStatsEdges;
     private JexlExpression expression = null;
     private JexlExpression statsExpression = null;
+    private EdgeKeyPredicate predicate = null;
+    private EdgeKeyPredicate statsPredicate = null;
     private JexlContext ctx = new MapContext();
 
     private HashMultimap<String,String> preFilterValues;
+    // the allowlist as bytes, keyed by field, for prefiltering the undecoded key
+    private Map<FieldKey,Set<ByteSequence>> preFilterBytes;
+
+    private final EdgeKeyFields fields = new EdgeKeyFields();
+    private final MutableByteSequence fieldBytes = new MutableByteSequence();
 
     static {
         jexlEngine = ArithmeticJexlEngines.getEngine(new DefaultArithmetic());
@@ -65,8 +79,13 @@ public class EdgeFilterIterator extends Filter {
     public SortedKeyValueIterator<Key,Value> deepCopy(IteratorEnvironment env) {
         EdgeFilterIterator result = (EdgeFilterIterator) super.deepCopy(env);
         result.protobuffFormat = this.protobuffFormat;
+        result.includeStatsEdges = this.includeStatsEdges;
         result.expression = this.expression;
+        result.statsExpression = this.statsExpression;
+        result.predicate = (this.predicate == null ? null : this.predicate.copy());
+        result.statsPredicate = (this.statsPredicate == null ? null : this.statsPredicate.copy());
         result.preFilterValues = this.preFilterValues;
+        result.preFilterBytes = this.preFilterBytes;
 
         return result;
     }
@@ -157,6 +176,7 @@ public class EdgeFilterIterator extends Filter {
         // to stay consistent with the rest of the query engine, support case-insensitive boolean operators.
         String caseFixQuery = jexl.toLowerCase();
         expression = jexlEngine.createExpression(caseFixQuery);
+        predicate = EdgeKeyPredicate.compile(jexlEngine, caseFixQuery);
 
         String protobuff = options.get(PROTOBUF_OPTION);
         if (null == protobuff) {
@@ -174,6 +194,7 @@ public class EdgeFilterIterator extends Filter {
 
         if (jexlStats != null) {
             statsExpression = jexlEngine.createExpression(jexlStats.toLowerCase());
+            statsPredicate = EdgeKeyPredicate.compile(jexlEngine, jexlStats.toLowerCase());
         }
 
         String inPrefilter = options.get(PREFILTER_ALLOWLIST);
@@ -192,6 +213,25 @@ public class EdgeFilterIterator extends Filter {
                 log.error("Class not found for allowlist value.");
             }
         }
+        preFilterBytes = getPreFilterBytes(preFilterValues);
+    }
+
+    private static Map<FieldKey,Set<ByteSequence>> getPreFilterBytes(HashMultimap<String,String> preFilterValues) {
+        if (preFilterValues == null) {
+            return null;
+        }
+        Map<FieldKey,Set<ByteSequence>> preFilterBytes = new EnumMap<>(FieldKey.class);
+        for (FieldKey field : FieldKey.values()) {
+            Set<String> values = preFilterValues.get(field.name());
+            if (values != null && !values.isEmpty()) {
+                Set<ByteSequence> bytes = new HashSet<>();
+                for (String value : values) {
+                    bytes.add(new ArrayByteSequence(value.getBytes(StandardCharsets.UTF_8)));
+                }
+                preFilterBytes.put(field, bytes);
+            }
+        }
+        return preFilterBytes;
     }
 
     /**
@@ -222,6 +262,37 @@ public class EdgeFilterIterator extends Filter {
         return retVal;
     }
 
+    /**
+     * Method to perform prefilter against a allowlist using the undecoded key fields
+     *
+     * @param fields
+     *            the located key fields
+     * @return {@link EdgeKeyPredicate#TRUE} if the key passes, {@link EdgeKeyPredicate#FALSE} if we can ignore the key, or {@link EdgeKeyPredicate#UNKNOWN} if
+     *         the key must be decoded to tell
+     */
+    private int prefilter(EdgeKeyFields fields) {
+        if (preFilterBytes == null) {
+            return EdgeKeyPredicate.TRUE;
+        }
+        int retVal = EdgeKeyPredicate.TRUE;
+        for (Map.Entry<FieldKey,Set<ByteSequence>> entry : preFilterBytes.entrySet()) {
+            FieldKey field = entry.getKey();
+            if (!fields.isPresent(field)) {
+                continue;
+            } else if (fields.isOpaque(field)) {
+                retVal = EdgeKeyPredicate.UNKNOWN;
+                continue;
+            }
+            fieldBytes.set(fields.getData(field), fields.getOffset(field), fields.getLength(field));
+            boolean allowed = entry.getValue().contains(fieldBytes);
+            fieldBytes.set(null, 0, 0);
+            if (!allowed) {
+                return EdgeKeyPredicate.FALSE;
+            }
+        }
+        return retVal;
+    }
+
     @Override
     public void init(org.apache.accumulo.core.iterators.SortedKeyValueIterator<org.apache.accumulo.core.data.Key,org.apache.accumulo.core.data.Value> source,
                     java.util.Map<java.lang.String,java.lang.String> options, org.apache.accumulo.core.iterators.IteratorEnvironment env)
@@ -256,6 +327,37 @@ public class EdgeFilterIterator extends Filter {
      */
     @Override
     public boolean accept(Key k, Value V) {
+        if (fields.set(k, protobuffFormat)) {
+            int result = prefilter(fields);
+            if (result == EdgeKeyPredicate.FALSE) {
+                return false;
+            } else if (result == EdgeKeyPredicate.TRUE) {
+                if (fields.isStats()) {
+                    if (!includeStatsEdges) {
+                        return false;
+                    } else if (statsExpression == null) {
+                        return true;
+                    }
+                    result = (statsPredicate == null ? EdgeKeyPredicate.UNKNOWN : statsPredicate.evaluate(fields));
+                } else {
+                    result = (predicate == null ? EdgeKeyPredicate.UNKNOWN : predicate.evaluate(fields));
+                }
+                if (result != EdgeKeyPredicate.UNKNOWN) {
+                    return result == EdgeKeyPredicate.TRUE;
+                }
+            }
+        }
+        return acceptDecoded(k);
+    }
+
+    /**
+     * Determines if the edge key satisfies the conditions by decoding the key and evaluating the JEXL query string.
+     *
+     * @param k
+     *            a key
+     * @return boolean - true if it is a match.
+     */
+    private boolean acceptDecoded(Key k) {
         boolean value = false;
 
         Map<FieldKey,String> keyComponents = EdgeKeyUtil.dissasembleKey(k, protobuffFormat);
@@ -282,4 +384,21 @@ public class EdgeFilterIterator extends Filter {
 
         return value;
     }
+
+    /**
+     * A ByteSequence that can be pointed at the bytes of each key, for allowlist lookups without copying
+     */
+    private static class MutableByteSequence extends ArrayByteSequence {
+        private static final long serialVersionUID = 1L;
+
+        MutableByteSequence() {
+            super(new byte[0]);
+        }
+
+        void set(byte[] data, int offset, int length) {
+            this.data = data;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
 }
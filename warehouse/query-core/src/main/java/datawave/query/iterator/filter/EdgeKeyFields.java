@@ -0,0 +1,247 @@
+package datawave.query.iterator.filter;
+
+import java.nio.charset.StandardCharsets;
+
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+
+import datawave.edge.model.EdgeModelFields.FieldKey;
+import datawave.edge.util.EdgeKeyUtil;
+
+/**
+ * A reusable view of the fields of an edge key. The fields are located using the same rules as {@link EdgeKeyUtil#dissasembleKey(Key, boolean)}, but are left
+ * as ranges of the row, column family and column qualifier bytes rather than being decoded into Strings, so that no objects are created per key.
+ * <p>
+ * A field that cannot be compared byte for byte with the decoded String value (it contains non ASCII bytes, or it is a source or sink containing an escape
+ * sequence) is marked as opaque. If the row cannot be split unambiguously the whole key is marked as not decodable. Callers should fall back to
+ * {@link EdgeKeyUtil#dissasembleKey(Key, boolean)} in those cases.
+ */
+class EdgeKeyFields {
+    private static final int NUM_FIELDS = FieldKey.values().length;
+    // the maximum number of column family or qualifier parts referenced by the edge key formats
+    private static final int MAX_PARTS = 5;
+    private static final byte[] STATS = "STATS".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] TRUE = "true".getBytes(StandardCharsets.UTF_8);
+
+    private final byte[][] data = new byte[NUM_FIELDS][];
+    private final int[] offsets = new int[NUM_FIELDS];
+    private final int[] lengths = new int[NUM_FIELDS];
+    private final boolean[] opaque = new boolean[NUM_FIELDS];
+    private boolean decodable;
+    private boolean stats;
+
+    // scratch space for splitting the column family and qualifier
+    private final int[] partStarts = new int[MAX_PARTS];
+    private final int[] partEnds = new int[MAX_PARTS];
+
+    /**
+     * Locate the fields of an edge key
+     *
+     * @param key
+     *            the edge key
+     * @param protobuffFormat
+     *            whether the key is in the protocol buffer edge format
+     * @return false if the key could not be decoded
+     */
+    public boolean set(Key key, boolean protobuffFormat) {
+        for (int i = 0; i < NUM_FIELDS; i++) {
+            data[i] = null;
+            opaque[i] = false;
+        }
+
+        ByteSequence row = key.getRowData();
+        ByteSequence colFam = key.getColumnFamilyData();
+        ByteSequence colQual = key.getColumnQualifierData();
+
+        decodable = setRow(row.getBackingArray(), row.offset(), row.length());
+        if (!decodable) {
+            return false;
+        }
+
+        byte[] cf = colFam.getBackingArray();
+        int cfOffset = colFam.offset();
+        int cfLength = colFam.length();
+        byte[] cq = colQual.getBackingArray();
+        int cqOffset = colQual.offset();
+        int cqLength = colQual.length();
+
+        stats = startsWith(cf, cfOffset, cfLength, STATS);
+        if (!stats) {
+            int cfParts = split(cf, cfOffset, cfLength);
+            if (cfParts >= 2) {
+                setPart(FieldKey.EDGE_TYPE, cf, 0);
+                setPart(FieldKey.EDGE_RELATIONSHIP, cf, 1);
+            }
+            if (protobuffFormat) {
+                setQualifierParts(cq, cqOffset, cqLength);
+            } else {
+                if (cfParts >= 3) {
+                    setPart(FieldKey.EDGE_ATTRIBUTE1, cf, 2);
+                }
+                if (cfParts >= 4) {
+                    setPart(FieldKey.EDGE_ATTRIBUTE2, cf, 3);
+                }
+                if (cfParts >= 5) {
+                    setPart(FieldKey.EDGE_ATTRIBUTE3, cf, 4);
+                }
+                setField(FieldKey.DATE, cq, cqOffset, cqLength);
+            }
+        } else {
+            setField(FieldKey.STATS_EDGE, TRUE, 0, TRUE.length);
+            if (protobuffFormat) {
+                int cfParts = split(cf, cfOffset, cfLength);
+                if (cfParts >= 4) {
+                    // the first two parts are STATS and the stats type
+                    setPart(FieldKey.EDGE_TYPE, cf, 2);
+                    setPart(FieldKey.EDGE_RELATIONSHIP, cf, 3);
+                }
+                setQualifierParts(cq, cqOffset, cqLength);
+            }
+        }
+        return true;
+    }
+
+    private void setQualifierParts(byte[] cq, int offset, int length) {
+        int cqParts = split(cq, offset, length);
+        if (cqParts >= 1) {
+            setPart(FieldKey.DATE, cq, 0);
+        }
+        if (cqParts >= 2) {
+            setPart(FieldKey.EDGE_ATTRIBUTE1, cq, 1);
+        }
+        if (cqParts >= 3) {
+            setPart(FieldKey.EDGE_ATTRIBUTE2, cq, 2);
+        }
+        if (cqParts >= 4) {
+            setPart(FieldKey.EDGE_ATTRIBUTE3, cq, 3);
+        }
+    }
+
+    /**
+     * Split the row into the source and sink. Only rows with a single non-empty part, or two non-empty parts separated by a single null byte are decodable.
+     */
+    private boolean setRow(byte[] row, int offset, int length) {
+        int separator = -1;
+        for (int i = offset; i < offset + length; i++) {
+            if (row[i] == 0) {
+                if (separator >= 0) {
+                    return false;
+                }
+                separator = i;
+            }
+        }
+        if (separator < 0) {
+            if (length == 0) {
+                return false;
+            }
+            setVertex(FieldKey.EDGE_SOURCE, row, offset, length);
+        } else {
+            if (separator == offset || separator == offset + length - 1) {
+                return false;
+            }
+            setVertex(FieldKey.EDGE_SOURCE, row, offset, separator - offset);
+            setVertex(FieldKey.EDGE_SINK, row, separator + 1, offset + length - separator - 1);
+        }
+        return true;
+    }
+
+    private void setVertex(FieldKey field, byte[] bytes, int offset, int length) {
+        setField(field, bytes, offset, length);
+        // the source and sink are unescaped when decoded
+        for (int i = offset; i < offset + length; i++) {
+            if (bytes[i] == '\\') {
+                opaque[field.ordinal()] = true;
+                break;
+            }
+        }
+    }
+
+    private void setPart(FieldKey field, byte[] bytes, int part) {
+        setField(field, bytes, partStarts[part], partEnds[part] - partStarts[part]);
+    }
+
+    private void setField(FieldKey field, byte[] bytes, int offset, int length) {
+        int i = field.ordinal();
+        data[i] = bytes;
+        offsets[i] = offset;
+        lengths[i] = length;
+        for (int j = offset; j < offset + length; j++) {
+            if (bytes[j] < 0) {
+                opaque[i] = true;
+                break;
+            }
+        }
+    }
+
+    /**
+     * Split on '/' with the semantics of {@link String#split(String)}: trailing empty parts are dropped, except that an empty input is a single empty part.
+     * The bounds of the first {@link #MAX_PARTS} parts are kept in the scratch arrays.
+     *
+     * @return the number of parts
+     */
+    private int split(byte[] bytes, int offset, int length) {
+        if (length == 0) {
+            partStarts[0] = offset;
+            partEnds[0] = offset;
+            return 1;
+        }
+        int parts = 0;
+        int lastNonEmpty = -1;
+        int start = offset;
+        int end = offset + length;
+        for (int i = offset; i <= end; i++) {
+            if (i == end || bytes[i] == '/') {
+                if (parts < MAX_PARTS) {
+                    partStarts[parts] = start;
+                    partEnds[parts] = i;
+                }
+                if (i > start) {
+                    lastNonEmpty = parts;
+                }
+                parts++;
+                start = i + 1;
+            }
+        }
+        return lastNonEmpty + 1;
+    }
+
+    private static boolean startsWith(byte[] bytes, int offset, int length, byte[] prefix) {
+        if (length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (bytes[offset + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean isDecodable() {
+        return decodable;
+    }
+
+    public boolean isStats() {
+        return stats;
+    }
+
+    public boolean isPresent(FieldKey field) {
+        return data[field.ordinal()] != null;
+    }
+
+    public boolean isOpaque(FieldKey field) {
+        return opaque[field.ordinal()];
+    }
+
+    public byte[] getData(FieldKey field) {
+        return data[field.ordinal()];
+    }
+
+    public int getOffset(FieldKey field) {
+        return offsets[field.ordinal()];
+    }
+
+    public int getLength(FieldKey field) {
+        return lengths[field.ordinal()];
+    }
+}
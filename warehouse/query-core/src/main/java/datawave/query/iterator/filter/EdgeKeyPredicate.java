@@ -0,0 +1,398 @@
+package datawave.query.iterator.filter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.jexl3.JexlException;
+import org.apache.commons.jexl3.parser.ASTAndNode;
+import org.apache.commons.jexl3.parser.ASTEQNode;
+import org.apache.commons.jexl3.parser.ASTERNode;
+import org.apache.commons.jexl3.parser.ASTGENode;
+import org.apache.commons.jexl3.parser.ASTGTNode;
+import org.apache.commons.jexl3.parser.ASTIdentifier;
+import org.apache.commons.jexl3.parser.ASTJexlScript;
+import org.apache.commons.jexl3.parser.ASTLENode;
+import org.apache.commons.jexl3.parser.ASTLTNode;
+import org.apache.commons.jexl3.parser.ASTNENode;
+import org.apache.commons.jexl3.parser.ASTNRNode;
+import org.apache.commons.jexl3.parser.ASTNotNode;
+import org.apache.commons.jexl3.parser.ASTOrNode;
+import org.apache.commons.jexl3.parser.ASTReferenceExpression;
+import org.apache.commons.jexl3.parser.ASTStringLiteral;
+import org.apache.commons.jexl3.parser.JexlNode;
+import org.apache.log4j.Logger;
+
+import datawave.edge.model.EdgeModelFields.FieldKey;
+import datawave.query.jexl.DatawaveJexlEngine;
+import datawave.query.jexl.JexlPatternCache;
+
+/**
+ * A JEXL edge filter expression compiled into predicates that run directly against the bytes of an edge key (see {@link EdgeKeyFields}). Only the expression
+ * shapes generated by the edge query logic are compiled: conjunctions, disjunctions and negations of equality, regex and comparison terms between one of the
+ * edge fields and a string literal. Any other expression is not compiled and should be evaluated with JEXL.
+ * <p>
+ * The compiled predicate gives the same answer as evaluating the expression against the lowercased, decoded key fields. Where it cannot (a referenced field
+ * is opaque), it answers {@link #UNKNOWN} and the caller should evaluate the key with JEXL instead. Instances hold matchers and are not thread
+ * safe, use {@link #copy()} for each iterator.
+ */
+class EdgeKeyPredicate {
+    private static final Logger log = Logger.getLogger(EdgeKeyPredicate.class);
+
+    static final int FALSE = 0;
+    static final int TRUE = 1;
+    static final int UNKNOWN = 2;
+
+    // the fields put into the jexl context by the EdgeFilterIterator
+    private static final Set<FieldKey> CONTEXT_FIELDS = EnumSet.of(FieldKey.EDGE_SOURCE, FieldKey.EDGE_SINK, FieldKey.EDGE_TYPE, FieldKey.EDGE_RELATIONSHIP,
+                    FieldKey.EDGE_ATTRIBUTE1, FieldKey.EDGE_ATTRIBUTE2, FieldKey.EDGE_ATTRIBUTE3, FieldKey.DATE);
+
+    private final Node root;
+
+    private EdgeKeyPredicate(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Compile a lowercased edge filter expression
+     *
+     * @param engine
+     *            the engine used to parse the expression, which should be the one used to evaluate it
+     * @param query
+     *            the lowercased JEXL expression
+     * @return the compiled predicate, or null if the expression cannot be compiled
+     */
+    public static EdgeKeyPredicate compile(DatawaveJexlEngine engine, String query) {
+        try {
+            ASTJexlScript script = engine.parse(query);
+            Node root = (script.jjtGetNumChildren() == 1 ? compile(script.jjtGetChild(0)) : null);
+            if (root == null) {
+                log.debug("Unable to compile edge filter expression, it will be evaluated with JEXL: " + query);
+                return null;
+            }
+            return new EdgeKeyPredicate(root);
+        } catch (JexlException e) {
+            log.debug("Unable to parse edge filter expression, it will be evaluated with JEXL: " + query, e);
+            return null;
+        }
+    }
+
+    private static Node compile(JexlNode node) {
+        if (node instanceof ASTReferenceExpression) {
+            return (node.jjtGetNumChildren() == 1 ? compile(node.jjtGetChild(0)) : null);
+        } else if (node instanceof ASTAndNode || node instanceof ASTOrNode) {
+            Node[] children = new Node[node.jjtGetNumChildren()];
+            for (int i = 0; i < children.length; i++) {
+                children[i] = compile(node.jjtGetChild(i));
+                if (children[i] == null) {
+                    return null;
+                }
+            }
+            return (node instanceof ASTAndNode ? new And(children) : new Or(children));
+        } else if (node instanceof ASTNotNode) {
+            Node child = (node.jjtGetNumChildren() == 1 ? compile(node.jjtGetChild(0)) : null);
+            return (child == null ? null : new Not(child));
+        } else if (node.jjtGetNumChildren() == 2 && node.jjtGetChild(0) instanceof ASTIdentifier && node.jjtGetChild(1) instanceof ASTStringLiteral) {
+            FieldKey field = getField(((ASTIdentifier) node.jjtGetChild(0)).getName());
+            if (field == null) {
+                return null;
+            }
+            String literal = ((ASTStringLiteral) node.jjtGetChild(1)).getLiteral();
+            if (node instanceof ASTEQNode) {
+                return new Compare(field, literal, Compare.EQ);
+            } else if (node instanceof ASTNENode) {
+                return new Not(new Compare(field, literal, Compare.EQ));
+            } else if (node instanceof ASTLTNode) {
+                return new Compare(field, literal, Compare.LT);
+            } else if (node instanceof ASTLENode) {
+                return new Compare(field, literal, Compare.LE);
+            } else if (node instanceof ASTGTNode) {
+                return new Compare(field, literal, Compare.GT);
+            } else if (node instanceof ASTGENode) {
+                return new Compare(field, literal, Compare.GE);
+            } else if (node instanceof ASTERNode) {
+                return new Matches(field, JexlPatternCache.getPattern(literal));
+            } else if (node instanceof ASTNRNode) {
+                return new Not(new Matches(field, JexlPatternCache.getPattern(literal)));
+            }
+        }
+        return null;
+    }
+
+    private static FieldKey getField(String identifier) {
+        for (FieldKey field : CONTEXT_FIELDS) {
+            if (field.name().toLowerCase().equals(identifier)) {
+                return field;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return a copy of this predicate for use by another iterator
+     */
+    public EdgeKeyPredicate copy() {
+        return new EdgeKeyPredicate(root.copy());
+    }
+
+    /**
+     * Evaluate the predicate against the fields of an edge key
+     *
+     * @param fields
+     *            the located fields of a decodable edge key
+     * @return {@link #TRUE}, {@link #FALSE}, or {@link #UNKNOWN} if the key must be evaluated with JEXL
+     */
+    public int evaluate(EdgeKeyFields fields) {
+        return root.evaluate(fields);
+    }
+
+    private abstract static class Node {
+        abstract int evaluate(EdgeKeyFields fields);
+
+        abstract Node copy();
+    }
+
+    private static class And extends Node {
+        private final Node[] children;
+
+        And(Node[] children) {
+            this.children = children;
+        }
+
+        @Override
+        int evaluate(EdgeKeyFields fields) {
+            int result = TRUE;
+            for (Node child : children) {
+                int value = child.evaluate(fields);
+                if (value == FALSE) {
+                    return FALSE;
+                } else if (value == UNKNOWN) {
+                    result = UNKNOWN;
+                }
+            }
+            return result;
+        }
+
+        @Override
+        Node copy() {
+            Node[] copies = new Node[children.length];
+            for (int i = 0; i < children.length; i++) {
+                copies[i] = children[i].copy();
+            }
+            return new And(copies);
+        }
+    }
+
+    private static class Or extends Node {
+        private final Node[] children;
+
+        Or(Node[] children) {
+            this.children = children;
+        }
+
+        @Override
+        int evaluate(EdgeKeyFields fields) {
+            int result = FALSE;
+            for (Node child : children) {
+                int value = child.evaluate(fields);
+                if (value == TRUE) {
+                    return TRUE;
+                } else if (value == UNKNOWN) {
+                    result = UNKNOWN;
+                }
+            }
+            return result;
+        }
+
+        @Override
+        Node copy() {
+            Node[] copies = new Node[children.length];
+            for (int i = 0; i < children.length; i++) {
+                copies[i] = children[i].copy();
+            }
+            return new Or(copies);
+        }
+    }
+
+    private static class Not extends Node {
+        private final Node child;
+
+        Not(Node child) {
+            this.child = child;
+        }
+
+        @Override
+        int evaluate(EdgeKeyFields fields) {
+            int value = child.evaluate(fields);
+            return (value == UNKNOWN ? UNKNOWN : (value == TRUE ? FALSE : TRUE));
+        }
+
+        @Override
+        Node copy() {
+            return new Not(child.copy());
+        }
+    }
+
+    /**
+     * Compares the lowercased field with a literal using String ordering, which is how the JEXL arithmetic compares two strings
+     */
+    private static class Compare extends Node {
+        static final int EQ = 0;
+        static final int LT = 1;
+        static final int LE = 2;
+        static final int GT = 3;
+        static final int GE = 4;
+
+        private final FieldKey field;
+        private final String literal;
+        private final byte[] literalBytes;
+        private final boolean asciiLiteral;
+        private final int op;
+
+        Compare(FieldKey field, String literal, int op) {
+            this.field = field;
+            this.literal = literal;
+            this.literalBytes = literal.getBytes(StandardCharsets.UTF_8);
+            this.asciiLiteral = (literalBytes.length == literal.length());
+            this.op = op;
+        }
+
+        @Override
+        int evaluate(EdgeKeyFields fields) {
+            if (!fields.isPresent(field)) {
+                // the lenient arithmetic does not match null against anything
+                return FALSE;
+            } else if (fields.isOpaque(field)) {
+                return UNKNOWN;
+            }
+            byte[] data = fields.getData(field);
+            int offset = fields.getOffset(field);
+            int length = fields.getLength(field);
+
+            if (op == EQ) {
+                if (!asciiLiteral || length != literalBytes.length) {
+                    // an ascii field cannot equal a non ascii literal
+                    return FALSE;
+                }
+                for (int i = 0; i < length; i++) {
+                    if (toLowerCase(data[offset + i]) != literalBytes[i]) {
+                        return FALSE;
+                    }
+                }
+                return TRUE;
+            }
+
+            if (!asciiLiteral) {
+                return UNKNOWN;
+            }
+            int cmp = 0;
+            int n = Math.min(length, literalBytes.length);
+            for (int i = 0; i < n && cmp == 0; i++) {
+                cmp = toLowerCase(data[offset + i]) - literalBytes[i];
+            }
+            if (cmp == 0) {
+                cmp = length - literalBytes.length;
+            }
+            switch (op) {
+                case LT:
+                    return (cmp < 0 ? TRUE : FALSE);
+                case LE:
+                    return (cmp <= 0 ? TRUE : FALSE);
+                case GT:
+                    return (cmp > 0 ? TRUE : FALSE);
+                default:
+                    return (cmp >= 0 ? TRUE : FALSE);
+            }
+        }
+
+        @Override
+        Node copy() {
+            return new Compare(field, literal, op);
+        }
+    }
+
+    /**
+     * Matches the lowercased field against a pattern from the {@link JexlPatternCache}, as the JEXL arithmetic does for the =~ operator
+     */
+    private static class Matches extends Node {
+        private final FieldKey field;
+        private final Pattern pattern;
+        private final AsciiSequence sequence = new AsciiSequence();
+        private final Matcher matcher;
+
+        Matches(FieldKey field, Pattern pattern) {
+            this.field = field;
+            this.pattern = pattern;
+            this.matcher = pattern.matcher("");
+        }
+
+        @Override
+        int evaluate(EdgeKeyFields fields) {
+            if (!fields.isPresent(field)) {
+                // the lenient arithmetic does not match null against anything
+                return FALSE;
+            } else if (fields.isOpaque(field)) {
+                return UNKNOWN;
+            }
+            sequence.set(fields.getData(field), fields.getOffset(field), fields.getLength(field));
+            boolean matches = matcher.reset(sequence).matches();
+            // do not hold on to the key
+            matcher.reset("");
+            sequence.set(null, 0, 0);
+            return (matches ? TRUE : FALSE);
+        }
+
+        @Override
+        Node copy() {
+            return new Matches(field, pattern);
+        }
+    }
+
+    /**
+     * A lowercased view of ascii bytes as a CharSequence
+     */
+    private static class AsciiSequence implements CharSequence {
+        private byte[] data;
+        private int offset;
+        private int length;
+
+        void set(byte[] data, int offset, int length) {
+            this.data = data;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException("index " + index + " is out of bounds for length " + length);
+            }
+            return (char) toLowerCase(data[offset + index]);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return toString().substring(start, end);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder(length);
+            for (int i = 0; i < length; i++) {
+                builder.append(charAt(i));
+            }
+            return builder.toString();
+        }
+    }
+
+    private static int toLowerCase(byte b) {
+        return (b >= 'A' && b <= 'Z') ? b + ('a' - 'A') : b;
+    }
+}
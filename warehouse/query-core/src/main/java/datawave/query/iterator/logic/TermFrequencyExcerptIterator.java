@@ -5,8 +5,11 @@ import java.nio.charset.CharacterCodingException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.SortedSet;
 import java.util.StringJoiner;
 import java.util.TreeSet;
@@ -56,6 +59,11 @@ public class TermFrequencyExcerptIterator implements SortedKeyValueIterator<Key,
 
     private static final String BLANK_EXCERPT_MESSAGE = "YOUR EXCERPT WAS BLANK! Maybe bad field or size?";
 
+    /**
+     * The default number of term frequency keys to read past, when moving forward to a later document of the same row, before seeking to it instead.
+     */
+    public static final int DEFAULT_MAX_NEXT_COUNT = 32;
+
     /**
      * Encapsulates the configuration of the HitExcerptIterator. The Iterator constructor guarantees one is set per instance of the iterator, method are
      * provided to initialize this from an external options map or perform a deep copy from another instance.
@@ -94,6 +102,7 @@ public class TermFrequencyExcerptIterator implements SortedKeyValueIterator<Key,
             direction = Direction.BOTH;
             origHalfSize = 0;
             trimExcerpt = false;
+            cachedFields = Collections.emptySet();
         }
 
         /** deep copy the configuration of another excerpt configuration into this one */
@@ -105,6 +114,7 @@ public class TermFrequencyExcerptIterator implements SortedKeyValueIterator<Key,
             direction = other.direction;
             origHalfSize = other.origHalfSize;
             trimExcerpt = other.trimExcerpt;
+            cachedFields = other.cachedFields;
         }
 
         /** the field name */
@@ -132,6 +142,12 @@ public class TermFrequencyExcerptIterator implements SortedKeyValueIterator<Key,
         /** The size of half of the original desired excerpt length. Used during trimming. */
         private float origHalfSize;
 
+        /**
+         * The fields whose term frequencies are kept when a document is scanned for one of them, so that further excerpts from the same document for any of
+         * these fields are generated without scanning it again.
+         */
+        private Set<String> cachedFields;
+
         public List<String> getHitTermsList() {
             return hitTermsList;
         }
@@ -162,6 +178,18 @@ public class TermFrequencyExcerptIterator implements SortedKeyValueIterator<Key,
     /** encapsulates the configuration for the TermFrequencyExcerptIterator */
     protected final Configuration config;
 
+    /** the term frequencies of the cached fields for the last document scanned */
+    private CachedDocument cachedDocument;
+
+    /**
+     * The last key read from a source seeked to the end of its row, when reading the cached fields, so that a later document of the row can be read by moving
+     * forward rather than seeking. Null when the source is not positioned for this.
+     */
+    private Key lastReadKey;
+
+    /** the number of keys to read past to reach a later document of the row before seeking to it */
+    private int maxNextCount = DEFAULT_MAX_NEXT_COUNT;
+
     public TermFrequencyExcerptIterator() {
         this.config = new Configuration(); // excerpt config will never be null;
     }
@@ -229,10 +257,19 @@ public class TermFrequencyExcerptIterator implements SortedKeyValueIterator<Key,
 
     @Override
     public void init(SortedKeyValueIterator<Key,Value> source, Map<String,String> options, IteratorEnvironment env) throws IOException {
-        this.source = source;
+        setSource(source);
         config.init(options);
     }
 
+    private void setSource(SortedKeyValueIterator<Key,Value> source) {
+        // the cached document and the position of the source are only valid for the source they were read from
+        if (this.source != source) {
+            this.cachedDocument = null;
+            this.lastReadKey = null;
+        }
+        this.source = source;
+    }
+
     @Override
     public Key getTopKey() {
         return tk;
@@ -307,8 +344,21 @@ public class TermFrequencyExcerptIterator implements SortedKeyValueIterator<Key,
             return;
         }
 
+        // if the range covers just one document and the field is cached, then generate the excerpt from the cached document, reading it if needed
+        if (isDocumentRange(startKey, endKey) && config.cachedFields.contains(config.fieldName)) {
+            this.scanRange = null;
+            if (loadDocument(startKey, endKey)) {
+                nextFromCache();
+            } else {
+                this.tk = null;
+                this.tv = null;
+            }
+            return;
+        }
+
         // set our term frequency scan range
         this.scanRange = new Range(startKey, false, endKey, false);
+        this.lastReadKey = null;
 
         if (log.isDebugEnabled()) {
             log.debug("{} seek'ing to: {} from requested range {}", this, this.scanRange, range);
@@ -326,6 +376,11 @@ public class TermFrequencyExcerptIterator implements SortedKeyValueIterator<Key,
         tk = null;
         tv = null;
 
+        // the range was exhausted or answered from the cached document
+        if (scanRange == null) {
+            return;
+        }
+
         if (log.isTraceEnabled()) {
             log.trace("{} calling next on {}", source.hasTop(), scanRange);
         }
@@ -349,15 +404,12 @@ public class TermFrequencyExcerptIterator implements SortedKeyValueIterator<Key,
             return;
         }
 
-        final int startOffset = config.startOffset;
-        final int endOffset = config.endOffset;
-        final List<String> hitTermsList = config.hitTermsList;
         final String fieldName = config.fieldName;
 
         Key top = source.getTopKey();
 
         // set the size of the array to the number of offsets that we will try to fill for the potential excerpt
-        WordsAndScores[] wordsAndScoresArr = new WordsAndScores[endOffset - startOffset];
+        WordsAndScores[] wordsAndScoresArr = new WordsAndScores[config.endOffset - config.startOffset];
 
         // while we have term frequencies for the same document
         while (source.hasTop() && dtUid.equals(getDtUidFromTfKey(source.getTopKey()))) {
@@ -372,43 +424,10 @@ public class TermFrequencyExcerptIterator implements SortedKeyValueIterator<Key,
                     // get the protobuf that contains all the extra information for the TFs from the value
                     TermWeight.Info info = TermWeight.Info.parseFrom(source.getTopValue().get());
 
-                    // check if the number of scores is equal to the number of offsets
-                    boolean useScores = info.getScoreCount() == info.getTermOffsetCount();
-                    List<Integer> scoreList = null;
-                    // if the number of scores and offsets is the same, check to see if all the scores are negative or not
-                    if (useScores) {
-                        scoreList = info.getScoreList();
-                        useScores = !hasOnlyNegativeScores(scoreList, info, startOffset, endOffset);
-                    }
-
-                    // for each offset, gather all the terms in our range
-                    for (int i = 0, termOffsetCount = info.getTermOffsetCount(); i < termOffsetCount; i++) {
-                        int offset = info.getTermOffset(i);
-                        // if the offset is within our range
-                        if (offset >= startOffset && offset < endOffset) {
-                            // calculate the index in our value list
-                            int index = offset - startOffset;
-                            // if the current index has no words/scores yet, initialize an object at the index
-                            if (wordsAndScoresArr[index] == null) {
-                                wordsAndScoresArr[index] = new WordsAndScores();
-                            }
-                            boolean stopFound;
-                            // if we are using scores, add the word and score to the object, if not then only add the word
-                            if (useScores) {
-                                stopFound = wordsAndScoresArr[index].addTerm(fieldAndValue[1], scoreList.get(i), hitTermsList);
-                            } else {
-                                stopFound = wordsAndScoresArr[index].addTerm(fieldAndValue[1], hitTermsList);
-                            }
-                            // if we encounter a stop word, and we're not in trim mode, fail-fast and create an entry
-                            // to return the special marker token. When seeing this, the transform will run this again
-                            // in trim mode with an expanded offset range.
-                            if (stopFound && !config.trimExcerpt) {
-                                tk = new Key(top.getRow(), new Text(dtUid), new Text(fieldName + Constants.NULL + WORD_SKIPPED_MARKER + Constants.NULL
-                                                + WORD_SKIPPED_MARKER + Constants.NULL + WORD_SKIPPED_MARKER), top.getColumnVisibility(), top.getTimestamp());
-                                tv = new Value();
-                                return;
-                            }
-                        }
+                    if (addTerm(wordsAndScoresArr, fieldAndValue[1], info)) {
+                        tk = createWordSkippedKey(top, dtUid, fieldName);
+                        tv = new Value();
+                        return;
                     }
                 } catch (InvalidProtocolBufferException e) {
                     log.warn("Value found in tf column was not a valid TermWeight.Info, skipping", e);
@@ -419,11 +438,264 @@ public class TermFrequencyExcerptIterator implements SortedKeyValueIterator<Key,
         }
         // Now that the words and scores array is populated with all the tf data, it's time to generate an excerpt and
         // create a key that contains all of our excerpts to be read by the ExcerptTransform
-        tk = new Key(top.getRow(), new Text(dtUid), new Text(fieldName + Constants.NULL + generateExcerpt(wordsAndScoresArr)), top.getColumnVisibility(),
-                        top.getTimestamp());
+        tk = createExcerptKey(top, dtUid, fieldName, generateExcerpt(wordsAndScoresArr));
+        tv = new Value();
+    }
+
+    /**
+     * Add the offsets of a term that fall within the excerpt range to the words and scores.
+     *
+     * @param wordsAndScoresArr
+     *            the words and scores for each offset in the excerpt range
+     * @param term
+     *            the term
+     * @param info
+     *            the term frequencies of the term
+     * @return true if a stop word was found and we are not in trim mode, in which case the excerpt should be retried with a larger range
+     */
+    private boolean addTerm(WordsAndScores[] wordsAndScoresArr, String term, TermWeight.Info info) {
+        final int startOffset = config.startOffset;
+        final int endOffset = config.endOffset;
+        final List<String> hitTermsList = config.hitTermsList;
+
+        // check if the number of scores is equal to the number of offsets
+        boolean useScores = info.getScoreCount() == info.getTermOffsetCount();
+        List<Integer> scoreList = null;
+        // if the number of scores and offsets is the same, check to see if all the scores are negative or not
+        if (useScores) {
+            scoreList = info.getScoreList();
+            useScores = !hasOnlyNegativeScores(scoreList, info, startOffset, endOffset);
+        }
+
+        // for each offset, gather all the terms in our range
+        for (int i = 0, termOffsetCount = info.getTermOffsetCount(); i < termOffsetCount; i++) {
+            int offset = info.getTermOffset(i);
+            // if the offset is within our range
+            if (offset >= startOffset && offset < endOffset) {
+                // calculate the index in our value list
+                int index = offset - startOffset;
+                // if the current index has no words/scores yet, initialize an object at the index
+                if (wordsAndScoresArr[index] == null) {
+                    wordsAndScoresArr[index] = new WordsAndScores();
+                }
+                boolean stopFound;
+                // if we are using scores, add the word and score to the object, if not then only add the word
+                if (useScores) {
+                    stopFound = wordsAndScoresArr[index].addTerm(term, scoreList.get(i), hitTermsList);
+                } else {
+                    stopFound = wordsAndScoresArr[index].addTerm(term, hitTermsList);
+                }
+                // if we encounter a stop word, and we're not in trim mode, fail-fast so that the caller can return
+                // the special marker token. When seeing this, the transform will run this again
+                // in trim mode with an expanded offset range.
+                if (stopFound && !config.trimExcerpt) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Create the key returned when a stop word was removed from the excerpt.
+     *
+     * @param tfKey
+     *            the term frequency key of the stop word
+     * @param dtUid
+     *            the dt and uid of the document
+     * @param fieldName
+     *            the field being excerpted
+     * @return the key holding the {@value #WORD_SKIPPED_MARKER}
+     */
+    private static Key createWordSkippedKey(Key tfKey, String dtUid, String fieldName) {
+        return createExcerptKey(tfKey, dtUid, fieldName, WORD_SKIPPED_MARKER + Constants.NULL + WORD_SKIPPED_MARKER + Constants.NULL + WORD_SKIPPED_MARKER);
+    }
+
+    /**
+     * Create the key returned with an excerpt. Whether or not the document was cached, the visibility and timestamp are those of the last term frequency key
+     * read for the document, or of the stop word's key for the {@value #WORD_SKIPPED_MARKER}.
+     *
+     * @param tfKey
+     *            the term frequency key
+     * @param dtUid
+     *            the dt and uid of the document
+     * @param fieldName
+     *            the field being excerpted
+     * @param excerpts
+     *            the excerpts, separated by nulls
+     * @return the key holding the excerpts
+     */
+    private static Key createExcerptKey(Key tfKey, String dtUid, String fieldName, String excerpts) {
+        return new Key(tfKey.getRow(), new Text(dtUid), new Text(fieldName + Constants.NULL + excerpts), tfKey.getColumnVisibility(), tfKey.getTimestamp());
+    }
+
+    /**
+     * Get the term frequencies of a term in one of the cached fields of a document, reading the cached fields of the document unless they were the last read.
+     *
+     * @param source
+     *            the source of the term frequencies
+     * @param cachedFields
+     *            the fields to cache
+     * @param docKey
+     *            the key of the document, whose column family starts with its dt and uid
+     * @param field
+     *            the field
+     * @param term
+     *            the term
+     * @return the term frequencies, or null if the document has none for the term
+     * @throws IOException
+     *             for issues with read/write
+     */
+    public TermWeight.Info getTermWeight(SortedKeyValueIterator<Key,Value> source, Set<String> cachedFields, Key docKey, String field, String term)
+                    throws IOException {
+        setSource(source);
+        config.cachedFields = cachedFields;
+        this.columnFamilies = Collections.emptySortedSet();
+        this.inclusive = false;
+
+        String dtUid = getDtUid(docKey.getColumnFamily().toString());
+        Key startKey = new Key(docKey.getRow(), Constants.TERM_FREQUENCY_COLUMN_FAMILY, new Text(dtUid + Constants.NULL));
+        Key endKey = new Key(docKey.getRow(), Constants.TERM_FREQUENCY_COLUMN_FAMILY, new Text(dtUid + Constants.NULL + Constants.MAX_UNICODE_STRING));
+        if (cachedFields.contains(field) && loadDocument(startKey, endKey)) {
+            for (CachedTerm cachedTerm : cachedDocument.getTerms(field)) {
+                if (cachedTerm.term.equals(term)) {
+                    return cachedTerm.info;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Make the document of a term frequency range the cached document. Unless it already is, the source is seeked to the end of the row, so that a later
+     * document of the row is then read by moving forward, reading past up to {@link #setMaxNextCount(int)} keys of the documents between, instead of seeking.
+     *
+     * @param startKey
+     *            the exclusive start key of the document's term frequencies
+     * @param endKey
+     *            the exclusive end key of the document's term frequencies
+     * @return true if the document has term frequencies, and is now the cached document
+     * @throws IOException
+     *             for issues with read/write
+     */
+    private boolean loadDocument(Key startKey, Key endKey) throws IOException {
+        String dtUid = getDtUid(startKey.getColumnQualifier().toString());
+        if (cachedDocument != null && cachedDocument.row.equals(startKey.getRow()) && cachedDocument.dtUid.equals(dtUid)
+                        && cachedDocument.fields.containsAll(config.cachedFields)) {
+            if (log.isDebugEnabled()) {
+                log.debug("{} using the cached term frequencies for {}", this, dtUid);
+            }
+            return columnFamilies.contains(dtUid) == inclusive;
+        }
+        if (columnFamilies.contains(dtUid) != inclusive) {
+            return false;
+        }
+
+        if (!moveForwardTo(startKey)) {
+            Key rowEndKey = new Key(startKey.getRow(), Constants.TERM_FREQUENCY_COLUMN_FAMILY, new Text(Constants.MAX_UNICODE_STRING));
+            Range rowRange = new Range(startKey, false, rowEndKey, false);
+            if (log.isDebugEnabled()) {
+                log.debug("{} seek'ing to: {}", this, rowRange);
+            }
+            source.seek(rowRange, TERM_FREQUENCY_COLUMN_FAMILY_BYTE_SEQUENCE, true);
+            lastReadKey = startKey;
+        }
+
+        if (!source.hasTop() || source.getTopKey().compareTo(endKey) >= 0) {
+            return false;
+        }
+        cacheDocument(dtUid);
+        return true;
+    }
+
+    /**
+     * Move the source forward to the first key after a start key, if the source is still seeked to the end of the start key's row and has not read past it.
+     *
+     * @param startKey
+     *            the exclusive start key
+     * @return true if the source is now at the first key after the start key, or exhausted
+     * @throws IOException
+     *             for issues with read/write
+     */
+    private boolean moveForwardTo(Key startKey) throws IOException {
+        if (lastReadKey == null || maxNextCount <= 0 || !lastReadKey.getRow().equals(startKey.getRow()) || lastReadKey.compareTo(startKey) > 0) {
+            return false;
+        }
+        int nexts = 0;
+        while (source.hasTop() && source.getTopKey().compareTo(startKey) <= 0) {
+            if (++nexts > maxNextCount) {
+                return false;
+            }
+            source.next();
+        }
+        if (log.isTraceEnabled()) {
+            log.trace("{} moved forward past {} keys to {}", this, nexts, startKey);
+        }
+        return true;
+    }
+
+    /**
+     * Read the term frequencies of the cached fields for the document at the top of the source, leaving the source at the next document.
+     *
+     * @param dtUid
+     *            the dt and uid of the document
+     */
+    private void cacheDocument(String dtUid) throws IOException {
+        cachedDocument = new CachedDocument(new Text(source.getTopKey().getRow()), dtUid, config.cachedFields);
+        while (source.hasTop() && dtUid.equals(getDtUidFromTfKey(source.getTopKey()))) {
+            Key top = source.getTopKey();
+            String[] fieldAndValue = getFieldAndValue(top);
+            if (cachedDocument.fields.contains(fieldAndValue[0])) {
+                try {
+                    cachedDocument.add(fieldAndValue[0], new CachedTerm(new Key(top), fieldAndValue[1], TermWeight.Info.parseFrom(source.getTopValue().get())));
+                } catch (InvalidProtocolBufferException e) {
+                    log.warn("Value found in tf column was not a valid TermWeight.Info, skipping", e);
+                }
+            }
+            cachedDocument.lastKey = new Key(top);
+            source.next();
+        }
+        lastReadKey = cachedDocument.lastKey;
+    }
+
+    /**
+     * Generate the excerpt for the configured field and offsets from the cached document.
+     */
+    private void nextFromCache() {
+        final String fieldName = config.fieldName;
+        WordsAndScores[] wordsAndScoresArr = new WordsAndScores[config.endOffset - config.startOffset];
+        for (CachedTerm term : cachedDocument.getTerms(fieldName)) {
+            if (addTerm(wordsAndScoresArr, term.term, term.info)) {
+                tk = createWordSkippedKey(term.key, cachedDocument.dtUid, fieldName);
+                tv = new Value();
+                return;
+            }
+        }
+
+        tk = createExcerptKey(cachedDocument.lastKey, cachedDocument.dtUid, fieldName, generateExcerpt(wordsAndScoresArr));
         tv = new Value();
     }
 
+    /**
+     * Determine whether a term frequency scan range covers exactly one document.
+     *
+     * @param startKey
+     *            the exclusive start key of the term frequency scan range
+     * @param endKey
+     *            the exclusive end key of the term frequency scan range
+     * @return true if the range is the term frequencies of a single document
+     */
+    private static boolean isDocumentRange(Key startKey, Key endKey) {
+        if (startKey == null || endKey == null || !startKey.getRow().equals(endKey.getRow())) {
+            return false;
+        }
+        String start = startKey.getColumnQualifier().toString();
+        if (!start.endsWith(Constants.NULL)) {
+            return false;
+        }
+        return endKey.getColumnQualifier().toString().equals(start + Constants.MAX_UNICODE_STRING) && getDtUid(start).length() == start.length() - 1;
+    }
+
     /** Checks whether the passed in list has only negative scores or not within the iterator range. */
     private static boolean hasOnlyNegativeScores(List<Integer> scoreList, TermWeight.Info info, int startOffset, int endOffset) {
         // check each score and if it is positive and within the offsets we are looking at, return false
@@ -859,6 +1131,7 @@ public class TermFrequencyExcerptIterator implements SortedKeyValueIterator<Key,
         }
 
         source.seek(this.scanRange, Collections.singleton(new ArrayByteSequence(Constants.TERM_FREQUENCY_COLUMN_FAMILY.getBytes())), true);
+        this.lastReadKey = null;
     }
 
     /**
@@ -963,9 +1236,64 @@ public class TermFrequencyExcerptIterator implements SortedKeyValueIterator<Key,
         this.config.trimExcerpt = trimExcerpt;
     }
 
+    public void setCachedFields(Set<String> cachedFields) {
+        this.config.cachedFields = cachedFields;
+    }
+
+    /**
+     * Set the number of term frequency keys to read past, when reading the cached fields of a later document of the same row, before seeking to it instead. A
+     * count of 0 always seeks.
+     *
+     * @param maxNextCount
+     *            the number of keys
+     */
+    public void setMaxNextCount(int maxNextCount) {
+        this.maxNextCount = maxNextCount;
+    }
+
     @Override
     public String toString() {
         return "TermFrequencyExcerptIterator: " + config;
     }
 
+    /**
+     * The term frequencies of some fields of a single document, in the order they were scanned.
+     */
+    private static class CachedDocument {
+        private final Text row;
+        private final String dtUid;
+        private final Set<String> fields;
+        private final Map<String,List<CachedTerm>> terms = new HashMap<>();
+        // the last term frequency key of the document, for the visibility and timestamp of the excerpt key
+        private Key lastKey;
+
+        CachedDocument(Text row, String dtUid, Set<String> fields) {
+            this.row = row;
+            this.dtUid = dtUid;
+            this.fields = new HashSet<>(fields);
+        }
+
+        void add(String field, CachedTerm term) {
+            terms.computeIfAbsent(field, k -> new ArrayList<>()).add(term);
+        }
+
+        List<CachedTerm> getTerms(String field) {
+            return terms.getOrDefault(field, Collections.emptyList());
+        }
+    }
+
+    /**
+     * A term and its term frequencies within a field of a cached document.
+     */
+    private static class CachedTerm {
+        private final Key key;
+        private final String term;
+        private final TermWeight.Info info;
+
+        CachedTerm(Key key, String term, TermWeight.Info info) {
+            this.key = key;
+            this.term = term;
+            this.info = info;
+        }
+    }
 }
@@ -11,7 +11,6 @@ import org.apache.log4j.Logger;
 
 import com.google.common.collect.LinkedListMultimap;
 import com.google.common.collect.ListMultimap;
-import com.google.common.collect.Lists;
 
 import datawave.ingest.protobuf.TermWeightPosition;
 import datawave.query.postprocessing.tf.TermOffsetMap;
@@ -66,7 +65,8 @@ public abstract class ContentFunctionEvaluator {
     }
 
     /**
-     * Evaluate the function based on the list of offset lists. The lists are expected to be ordered, and there is one offset list per term.
+     * Evaluate the function based on the list of offset lists. The lists are expected to be ordered, and there is one offset list per term. Offsets with a
+     * score greater than the max score are ignored.
      *
      * @param field
      *            the field where the offsets were found
@@ -74,9 +74,29 @@ public abstract class ContentFunctionEvaluator {
      *            the event id (see @TermFrequencyList.getEventId(Key))
      * @param offsets
      *            the offset lists
-     * @return List of offset matching the query, often just the first match for efficiency
+     * @return true if the offsets satisfy the function
      */
-    protected abstract boolean evaluate(String field, String eventId, List<List<TermWeightPosition>> offsets);
+    protected boolean evaluate(String field, String eventId, List<List<TermWeightPosition>> offsets) {
+        TermPositions[] positions = new TermPositions[offsets.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = TermPositions.of(offsets.get(i), maxScore);
+        }
+        return evaluate(field, eventId, positions);
+    }
+
+    /**
+     * Evaluate the function based on the positions of each term. The positions are expected to be ordered, and there is one set of positions per term, which
+     * have already had any positions with a score greater than the max score removed.
+     *
+     * @param field
+     *            the field where the positions were found
+     * @param eventId
+     *            the event id (see @TermFrequencyList.getEventId(Key))
+     * @param positions
+     *            the positions of each term
+     * @return true if the positions satisfy the function
+     */
+    protected abstract boolean evaluate(String field, String eventId, TermPositions[] positions);
 
     /**
      * Validate and initialize this class. This will validate the arguments and setup other members.
@@ -120,7 +140,7 @@ public abstract class ContentFunctionEvaluator {
                 }
                 return false;
             }
-            if (tfList.fetchOffsets().isEmpty()) {
+            if (tfList.isEmpty()) {
                 if (log.isTraceEnabled()) {
                     log.trace("Failing process() because of an empty offset list for " + term);
                 }
@@ -161,7 +181,7 @@ public abstract class ContentFunctionEvaluator {
 
             // now for each event, lets process the terms
             for (String eventId : eventIds) {
-                ListMultimap<String,List<TermWeightPosition>> offsetsByField = LinkedListMultimap.create();
+                ListMultimap<String,TermPositions> offsetsByField = LinkedListMultimap.create();
                 for (String term : terms) {
                     TermFrequencyList tfList = termOffsetMap.getTermFrequencyList(term);
 
@@ -169,15 +189,15 @@ public abstract class ContentFunctionEvaluator {
                     // and group the lists together
                     for (String field : tfList.fields()) {
                         TermFrequencyList.Zone zone = new TermFrequencyList.Zone(field, true, eventId);
-                        Collection<TermWeightPosition> offsets = tfList.fetchOffsets().get(zone);
+                        TermPositions offsets = tfList.getPositions(zone);
                         // if no offsets, but we are explicitly looking for this field (i.e. not unfielded), then check for a non-content expansion zone
-                        if (offsets.isEmpty() && (fields != null && fields.contains(field))) {
+                        if (offsets == null && (fields != null && fields.contains(field))) {
                             zone = new TermFrequencyList.Zone(field, false, eventId);
-                            offsets = tfList.fetchOffsets().get(zone);
+                            offsets = tfList.getPositions(zone);
                         }
                         // not all field/event pairs will have offsets
                         if (offsets != null && !offsets.isEmpty()) {
-                            offsetsByField.put(field, Lists.newArrayList(offsets));
+                            offsetsByField.put(field, offsets.withMaxScore(maxScore));
                         }
                     }
                 }
@@ -193,7 +213,7 @@ public abstract class ContentFunctionEvaluator {
                     if (!fields.isEmpty() && !fields.contains(field)) {
                         continue;
                     }
-                    List<List<TermWeightPosition>> offsets = offsetsByField.get(field);
+                    List<TermPositions> offsets = offsetsByField.get(field);
                     if (offsets == null || offsets.isEmpty()) {
                         continue;
                     }
@@ -223,7 +243,7 @@ public abstract class ContentFunctionEvaluator {
                     }
 
                     // evaluate the offsets
-                    if (evaluate(field, eventId, offsets)) {
+                    if (evaluate(field, eventId, offsets.toArray(new TermPositions[0]))) {
                         if (log.isTraceEnabled()) {
                             log.trace(logPrefix + " satisfied the content function");
                         }
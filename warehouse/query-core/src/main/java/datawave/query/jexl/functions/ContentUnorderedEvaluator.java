@@ -1,19 +1,9 @@
 package datawave.query.jexl.functions;
 
-import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Map;
-import java.util.Optional;
-import java.util.PriorityQueue;
 import java.util.Set;
 
 import org.apache.log4j.Logger;
 
-import datawave.ingest.protobuf.TermWeightPosition;
 import datawave.query.postprocessing.tf.TermOffsetMap;
 
 /**
@@ -50,224 +40,186 @@ public class ContentUnorderedEvaluator extends ContentFunctionEvaluator {
     }
 
     /**
-     * Evaluate a list of offsets in an unordered kind of way.
+     * Evaluate the positions of each term in an unordered kind of way. The terms are walked from their lowest positions, always advancing the term with the
+     * lowest current position, until the lowest and highest current positions are within the distance.
      *
-     * @param offsets
-     *            a list of offsets
      * @param field
      *            the field string
      * @param eventId
      *            the eventid string
+     * @param positions
+     *            the positions of each term
      * @return true if we found an unordered list within the specified distance for the specified set of offsets.
+     * @throws IllegalArgumentException
+     *             if there are fewer terms than sets of positions
      */
     @Override
-    public boolean evaluate(String field, String eventId, List<List<TermWeightPosition>> offsets) {
-        filterOffsets(offsets);
-        MultiOffsetMatcher mlIter = new MultiOffsetMatcher(distance, terms, offsets, field, eventId, termOffsetMap);
-        return mlIter.findMatch();
-    }
-
-    private void filterOffsets(List<List<TermWeightPosition>> offsets) {
-        // if max score is maximum possible value short circuit
-        if (maxScore == DEFAULT_MAX_SCORE) {
-            return;
+    protected boolean evaluate(String field, String eventId, TermPositions[] positions) {
+        // Quick short-circuit -- if we have fewer offsets than terms in the phrase/adjacency/within
+        // we're evaluating, we know there are no results
+        if (terms.length > positions.length) {
+            return false;
+        } else if (terms.length < positions.length) {
+            throw new IllegalArgumentException("Less terms than the number of offset lists received");
         }
 
-        for (List<TermWeightPosition> offset : offsets) {
-            Iterator<TermWeightPosition> twpIter = offset.iterator();
-            while (twpIter.hasNext()) {
-                Integer score = twpIter.next().getScore();
-                if (null == score || score > maxScore) {
-                    twpIter.remove();
+        int termCount = terms.length;
+
+        // the positions of each term, a term that appears more than once shares the positions (and cursor) of its first appearance
+        int[] canonical = new int[termCount];
+        // the index of the next unused position in the positions of each canonical term
+        int[] cursors = new int[termCount];
+        // the index of the current position of each term
+        int[] current = new int[termCount];
+        // the highest offset left in the positions of each term at the time it took its first position
+        int[] maxOffsets = new int[termCount];
+
+        // the highest current position
+        int maxLowOffset = 0;
+        int maxOffset = 0;
+
+        for (int i = 0; i < termCount; i++) {
+            canonical[i] = i;
+            for (int j = 0; j < i; j++) {
+                if (terms[j].equals(terms[i])) {
+                    canonical[i] = canonical[j];
+                    break;
                 }
             }
-        }
-    }
 
-    private static class OffsetList implements Comparable<OffsetList> {
-        private final String term;
-        private final List<TermWeightPosition> offsets;
-        private TermWeightPosition minOffset;
-        private TermWeightPosition maxOffset = null;
-
-        public OffsetList(String term, List<TermWeightPosition> o) {
-            this.term = term;
-            this.offsets = o;
-
-            // as long as there is at least one term, grab the last item for a max
-            if (!o.isEmpty()) {
-                // offsets with skip words will sort based on min so for max we need to loop over all offsets
-                maxOffset = Collections.max(offsets, new TermWeightPosition.MaxOffsetComparator());
+            TermPositions termPositions = positions[canonical[i]];
+            int cursor = cursors[canonical[i]];
+            if (termPositions == null || cursor == termPositions.size()) {
+                if (log.isTraceEnabled()) {
+                    log.trace("The offset list for " + terms[i] + " is null or has no elements: " + termPositions + ". Exiting");
+                }
+                return false;
             }
 
-            nextOffset();
-        }
-
-        public TermWeightPosition getMinOffset() {
-            return minOffset;
-        }
-
-        /**
-         *
-         * @return the highest value in this list
-         */
-        public TermWeightPosition getMaxOffset() {
-            return maxOffset;
-        }
-
-        public Optional<TermWeightPosition> nextOffset() {
-            if (offsets.isEmpty()) {
-                return Optional.empty();
-            } else {
-                minOffset = offsets.remove(0);
-                return Optional.of(minOffset);
+            // offsets with skip words are ordered by low offset so for max we need to loop over the remaining offsets
+            int max = Integer.MIN_VALUE;
+            for (int k = cursor; k < termPositions.size(); k++) {
+                max = Math.max(max, termPositions.getOffset(k));
             }
-        }
-
-        @Override
-        public int compareTo(OffsetList o) {
-            return this.getMinOffset().compareTo(o.getMinOffset());
-        }
+            maxOffsets[i] = max;
 
-        @Override
-        public boolean equals(Object o) {
-            return minOffset == ((OffsetList) o).minOffset;
+            current[i] = cursor;
+            cursors[canonical[i]] = cursor + 1;
+            if (i == 0 || compare(termPositions.getLowOffset(cursor), termPositions.getOffset(cursor), maxLowOffset, maxOffset) > 0) {
+                maxLowOffset = termPositions.getLowOffset(cursor);
+                maxOffset = termPositions.getOffset(cursor);
+            }
         }
 
-        @Override
-        public String toString() {
-            return term + ";" + minOffset + ":" + maxOffset;
+        TermQueue queue = new TermQueue(positions, canonical, current);
+        for (int i = 0; i < termCount; i++) {
+            queue.add(i);
         }
-    }
-
-    private static class MultiOffsetMatcher {
-        int distance = 0;
-
-        final String[] terms;
-
-        final PriorityQueue<OffsetList> offsetQueue = new PriorityQueue<>();
-        Optional<TermWeightPosition> maxOffset = Optional.empty();
-        final String field;
-        final String eventId;
-        final TermOffsetMap termOffsetMap;
-
-        /**
-         * At the end of this method, terms will contain the query terms. currentOffsets will contain the minimum offset for each term and offsetLists will
-         * contain the remaining offsets for each term.
-         *
-         * The indexes of terms, offsetLists and currentOffsets are parallel in that the i'th item in currentOffsets corresponds to the i'th item in offsetLists
-         * and term[i].
-         *
-         * @param distance
-         *            the maximum acceptable distance between terms.
-         * @param terms
-         *            the query terms.
-         * @param field
-         *            the field
-         * @param eventId
-         *            the event id (see @TermFrequencyList.getEventId(Key))
-         * @param termOffsets
-         *            the offsets for the specified terms, these lists will not be modified in any way.
-         * @param termOffsetMap
-         *            the term offset map
-         * @throws IllegalArgumentException
-         *             if the number of terms does not match the number of offset lists.
-         */
-        public MultiOffsetMatcher(int distance, String[] terms, Collection<List<TermWeightPosition>> termOffsets, String field, String eventId,
-                        TermOffsetMap termOffsetMap) {
-            this.distance = distance;
-            this.terms = terms;
-            this.field = field;
-            this.eventId = eventId;
-            this.termOffsetMap = termOffsetMap;
-            if (terms.length > termOffsets.size()) {
-                // more terms than offsets, no match, falls through to quick short-circuit in findMatch.
-                return;
-            } else if (terms.length < termOffsets.size()) {
-                throw new IllegalArgumentException("Less terms than the number of offset lists received");
-            }
-
-            int termPos = 0;
-
-            // holds the (canonical) offset list for of each term
-            final Map<String,List<TermWeightPosition>> termsSeen = new HashMap<>();
 
-            for (List<TermWeightPosition> offsetList : termOffsets) {
-                String term = terms[termPos++];
+        while (true) {
+            int min = queue.remove();
+            TermPositions termPositions = positions[canonical[min]];
+            int minOffset = termPositions.getOffset(current[min]);
 
-                if (offsetList != null) {
-                    if (!termsSeen.containsKey(term)) {
-                        // new term, create a defensive copy that's safe to modify.
-                        offsetList = new LinkedList<>(offsetList);
-                        termsSeen.put(term, offsetList);
-                    } else {
-                        // already seen term, all matching terms should reference the same list.
-                        offsetList = termsSeen.get(term);
-                    }
-                }
-
-                if (offsetList == null || offsetList.isEmpty()) {
+            if (maxLowOffset - minOffset <= distance) {
+                // Only record the phrase index if this is a targeted excerpt field.
+                if (termOffsetMap.shouldRecordPhraseIndex(field)) {
+                    // Track the start and end offset for the phrase.
+                    termOffsetMap.addPhraseIndexTriplet(field, eventId, minOffset, maxLowOffset);
                     if (log.isTraceEnabled()) {
-                        log.trace("The offset list for " + term + " is null or has no elements: " + offsetList + ". Exiting");
+                        log.trace("Adding phrase indexes [" + minOffset + "," + maxLowOffset + "] for field " + field + " to jexl context");
                     }
-
-                    offsetQueue.clear();
-                    return;
                 }
+                return true;
+            }
 
-                OffsetList entry = new OffsetList(term, offsetList);
-                if ((!maxOffset.isPresent()) || (entry.getMinOffset().compareTo(maxOffset.get()) > 0)) {
-                    maxOffset = Optional.of(entry.getMinOffset());
-                }
-                offsetQueue.add(entry);
+            // if the maxOffset is more than distance from the largest value in this list, there is no way to satisfy
+            if (maxLowOffset - maxOffsets[min] > distance) {
+                return false;
             }
-        }
 
-        public boolean findMatch() {
-            // Quick short-circuit -- if we have fewer offsets than terms in the phrase/adjacency/within
-            // we're evaluating, we know there are no results
-            if (terms.length > offsetQueue.size() || (!maxOffset.isPresent())) {
+            // no more offsets from this list
+            int next = cursors[canonical[min]];
+            if (next == termPositions.size()) {
                 return false;
             }
+            cursors[canonical[min]] = next + 1;
+            current[min] = next;
 
-            while (true) {
-                OffsetList o = offsetQueue.remove();
+            if (compare(termPositions.getLowOffset(next), termPositions.getOffset(next), maxLowOffset, maxOffset) > 0) {
+                maxLowOffset = termPositions.getLowOffset(next);
+                maxOffset = termPositions.getOffset(next);
+            }
 
-                if (maxOffset.get().getLowOffset() - o.getMinOffset().getOffset() <= distance) {
-                    // Only record the phrase index if this is a targeted excerpt field.
-                    if (termOffsetMap.shouldRecordPhraseIndex(field)) {
-                        // Track the start and end offset for the phrase.
-                        int startOffset = o.getMinOffset().getOffset();
-                        int endOffset = maxOffset.get().getLowOffset();
-                        termOffsetMap.addPhraseIndexTriplet(field, eventId, startOffset, endOffset);
-                        if (log.isTraceEnabled()) {
-                            log.trace("Adding phrase indexes [" + startOffset + "," + endOffset + "] for field " + field + " to jexl context");
-                        }
-                    }
-                    return true;
-                }
+            queue.add(min);
+        }
+    }
 
-                // if the maxOffset is more than distance from the largest value in this list, there is no way to satisfy
-                if (maxOffset.get().getLowOffset() - o.getMaxOffset().getOffset() > distance) {
-                    return false;
-                }
+    private static int compare(int lowOffset, int offset, int otherLowOffset, int otherOffset) {
+        int result = Integer.compare(lowOffset, otherLowOffset);
+        if (result != 0) {
+            return result;
+        }
+        return Integer.compare(offset, otherOffset);
+    }
 
-                Optional<TermWeightPosition> nextOffset = o.nextOffset();
-                if (!nextOffset.isPresent()) { // no more offsets from this list
-                    return false;
-                }
+    /**
+     * A binary heap of term indexes ordered by the current position of each term. This mirrors a {@link java.util.PriorityQueue}, including the order in which
+     * terms at equal positions are removed, without boxing the term indexes or allocating per position.
+     */
+    private static class TermQueue {
+        private final TermPositions[] positions;
+        private final int[] canonical;
+        private final int[] current;
+        private final int[] heap;
+        private int size;
+
+        TermQueue(TermPositions[] positions, int[] canonical, int[] current) {
+            this.positions = positions;
+            this.canonical = canonical;
+            this.current = current;
+            this.heap = new int[current.length];
+        }
 
-                if (nextOffset.get().compareTo(maxOffset.get()) > 0) {
-                    maxOffset = nextOffset;
+        void add(int term) {
+            int k = size++;
+            while (k > 0) {
+                int parent = (k - 1) >>> 1;
+                if (compare(term, heap[parent]) >= 0) {
+                    break;
                 }
+                heap[k] = heap[parent];
+                k = parent;
+            }
+            heap[k] = term;
+        }
 
-                offsetQueue.add(o);
+        int remove() {
+            int result = heap[0];
+            int n = --size;
+            int term = heap[n];
+            int k = 0;
+            int half = n >>> 1;
+            while (k < half) {
+                int child = (k << 1) + 1;
+                int right = child + 1;
+                if (right < n && compare(heap[child], heap[right]) > 0) {
+                    child = right;
+                }
+                if (compare(term, heap[child]) <= 0) {
+                    break;
+                }
+                heap[k] = heap[child];
+                k = child;
+            }
+            if (n > 0) {
+                heap[k] = term;
             }
+            return result;
         }
 
-        @Override
-        public String toString() {
-            return "MultiOffsetMatcher; dis:" + distance + " max: " + maxOffset + " queue: " + offsetQueue;
+        private int compare(int term, int other) {
+            return positions[canonical[term]].compare(current[term], positions[canonical[other]], current[other]);
         }
     }
 }
@@ -7,19 +7,19 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.TreeMap;
 
 import org.apache.accumulo.core.data.ByteSequence;
 import org.apache.accumulo.core.data.Key;
 
-import com.google.common.base.Predicate;
-import com.google.common.collect.Multimaps;
+import com.google.common.collect.Lists;
 import com.google.common.collect.TreeMultimap;
 
 import datawave.ingest.protobuf.TermWeightPosition;
 
 /**
- * Represents a List of offsets represented as TermWeightPositions, corresponding to word positions, in a given field, for a term. This is intended to be used
- * in the scope of a Map from term to {@link TermFrequencyList}
+ * Represents the offsets, corresponding to word positions, of a term in each field it appears in, held as {@link TermPositions}. This is intended to be used in
+ * the scope of a Map from term to {@link TermFrequencyList}
  */
 public class TermFrequencyList {
 
@@ -110,12 +110,14 @@ public class TermFrequencyList {
         return eventId.toString();
     }
 
-    protected final TreeMultimap<Zone,TermWeightPosition> offsetsPerField;
+    protected final TreeMap<Zone,TermPositions> positionsPerField = new TreeMap<>();
+
+    public TermFrequencyList() {}
 
     public TermFrequencyList(TreeMultimap<Zone,TermWeightPosition> offsetsByField) {
         checkNotNull(offsetsByField);
 
-        this.offsetsPerField = offsetsByField;
+        addOffsets(offsetsByField);
     }
 
     public TermFrequencyList(Entry<Zone,Iterable<TermWeightPosition>> offsetsPerField) {
@@ -129,23 +131,52 @@ public class TermFrequencyList {
     public TermFrequencyList(Iterable<Entry<Zone,Iterable<TermWeightPosition>>> offsetsPerField) {
         checkNotNull(offsetsPerField);
 
-        this.offsetsPerField = TreeMultimap.create();
-
         addOffsets(offsetsPerField);
     }
 
     public static TermFrequencyList merge(TermFrequencyList list1, TermFrequencyList list2) {
-        TreeMultimap<Zone,TermWeightPosition> offsetsPerField = TreeMultimap.create();
-        offsetsPerField.putAll(list1.offsetsPerField);
-        offsetsPerField.putAll(list2.offsetsPerField);
-        return new TermFrequencyList(offsetsPerField);
+        TermFrequencyList merged = new TermFrequencyList();
+        merged.addPositions(list1);
+        merged.addPositions(list2);
+        return merged;
+    }
+
+    /**
+     * Add the positions of the term in a zone, merging them with any positions already in the zone as a sorted set would.
+     *
+     * @param field
+     *            the zone
+     * @param positions
+     *            the positions
+     */
+    public void addPositions(Zone field, TermPositions positions) {
+        checkNotNull(field);
+        checkNotNull(positions);
+
+        if (!positions.isEmpty()) {
+            this.positionsPerField.merge(field, positions.distinct(), TermPositions::merge);
+        }
+    }
+
+    /**
+     * Add the positions of every zone of another list.
+     *
+     * @param other
+     *            the other list
+     */
+    public void addPositions(TermFrequencyList other) {
+        checkNotNull(other);
+
+        for (Entry<Zone,TermPositions> entry : other.positionsPerField.entrySet()) {
+            addPositions(entry.getKey(), entry.getValue());
+        }
     }
 
     public void addOffsets(Zone field, Iterable<TermWeightPosition> offsets) {
         checkNotNull(field);
         checkNotNull(offsets);
 
-        this.offsetsPerField.putAll(field, offsets);
+        addPositions(field, TermPositions.of(Lists.newArrayList(offsets)));
     }
 
     public void addOffsets(Entry<Zone,Iterable<TermWeightPosition>> offsetForField) {
@@ -171,25 +202,23 @@ public class TermFrequencyList {
     }
 
     /**
-     * Return an <code>Immutable</code> copy of the entire mapping
+     * Return the positions of the term in a zone, sorted and distinct.
      *
-     * @return a copy of all offsets
+     * @param field
+     *            the zone
+     * @return the positions, or null if the term has no positions in the zone
      */
-    public TreeMultimap<Zone,TermWeightPosition> fetchOffsets() {
-        return this.offsetsPerField;
+    public TermPositions getPositions(Zone field) {
+        return this.positionsPerField.get(field);
     }
 
     /**
-     * Return only offsets for a limited set of fields
+     * Let clients ask whether the term has any positions.
      *
-     * @param fields
-     *            a set of fields
-     * @return offsets filtered by the provided fields
+     * @return true if there are no positions in any zone
      */
-    public TreeMultimap<Zone,TermWeightPosition> fetchOffsets(Set<Zone> fields) {
-        checkNotNull(fields);
-
-        return (TreeMultimap<Zone,TermWeightPosition>) Multimaps.filterKeys(this.offsetsPerField, new FieldFilterPredicate(fields));
+    public boolean isEmpty() {
+        return this.positionsPerField.isEmpty();
     }
 
     /**
@@ -198,11 +227,11 @@ public class TermFrequencyList {
      * @return a set of fields
      */
     public Set<String> fields() {
-        if (this.offsetsPerField.isEmpty()) {
+        if (this.positionsPerField.isEmpty()) {
             return Collections.emptySet();
         } else {
             Set<String> fields = new HashSet<>();
-            for (Zone zone : this.offsetsPerField.keySet()) {
+            for (Zone zone : this.positionsPerField.keySet()) {
                 fields.add(zone.getZone());
             }
             return fields;
@@ -215,11 +244,11 @@ public class TermFrequencyList {
      * @return a set of ids
      */
     public Set<String> eventIds() {
-        if (this.offsetsPerField.isEmpty()) {
+        if (this.positionsPerField.isEmpty()) {
             return Collections.emptySet();
         } else {
             Set<String> eventIds = new HashSet<>();
-            for (Zone zone : this.offsetsPerField.keySet()) {
+            for (Zone zone : this.positionsPerField.keySet()) {
                 eventIds.add(zone.getEventId());
             }
             return eventIds;
@@ -232,17 +261,17 @@ public class TermFrequencyList {
      * @return a set of zones
      */
     public Set<Zone> zones() {
-        return this.offsetsPerField.isEmpty() ? Collections.emptySet() : Collections.unmodifiableSet(this.offsetsPerField.keySet());
+        return this.positionsPerField.isEmpty() ? Collections.emptySet() : Collections.unmodifiableSet(this.positionsPerField.keySet());
     }
 
     @Override
     public String toString() {
-        return this.offsetsPerField.toString();
+        return this.positionsPerField.toString();
     }
 
     @Override
     public int hashCode() {
-        return this.offsetsPerField.hashCode();
+        return this.positionsPerField.hashCode();
     }
 
     @Override
@@ -250,29 +279,9 @@ public class TermFrequencyList {
         if (o instanceof TermFrequencyList) {
             TermFrequencyList other = (TermFrequencyList) o;
 
-            return this.offsetsPerField.equals(other.offsetsPerField);
+            return this.positionsPerField.equals(other.positionsPerField);
         }
 
         return false;
     }
-
-    private class FieldFilterPredicate implements Predicate<Zone> {
-        private final Set<Zone> fieldNames;
-
-        public FieldFilterPredicate(Set<Zone> fieldNames) {
-            this.fieldNames = fieldNames;
-        }
-
-        /*
-         * (non-Javadoc)
-         *
-         * @see com.google.common.base.Predicate#apply(java.lang.Object)
-         */
-        @Override
-        public boolean apply(Zone input) {
-            // Retain results which have the given field name
-            return this.fieldNames.contains(input);
-        }
-
-    }
 }
@@ -0,0 +1,320 @@
+package datawave.query.jexl.functions;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import datawave.ingest.protobuf.TermWeight;
+import datawave.ingest.protobuf.TermWeightPosition;
+
+/**
+ * The positions of a single term within a field of a document, held in parallel primitive arrays rather than as {@link TermWeightPosition} objects. The term
+ * frequency protobufs are decoded straight into these arrays, and the content function evaluators walk them with index cursors, so evaluating a phrase or
+ * within function over a long document allocates nothing per position.
+ * <p>
+ * Each position has an offset, the lowest offset it may be considered at with respect to previous skip words (see {@link TermWeightPosition#getLowOffset()}),
+ * whether it may match another term at the same offset, and a score. Positions are ordered the same way as
+ * {@link TermWeightPosition#compareTo(TermWeightPosition)}: by low offset, and then by offset.
+ */
+public class TermPositions {
+
+    private static final TermPositions EMPTY = new TermPositions(new int[0], new int[0], new boolean[0], new int[0], 0);
+
+    private final int[] offsets;
+    private final int[] lowOffsets;
+    private final boolean[] zeroOffsetMatch;
+    private final int[] scores;
+    private final int size;
+
+    private TermPositions(int[] offsets, int[] lowOffsets, boolean[] zeroOffsetMatch, int[] scores, int size) {
+        this.offsets = offsets;
+        this.lowOffsets = lowOffsets;
+        this.zeroOffsetMatch = zeroOffsetMatch;
+        this.scores = scores;
+        this.size = size;
+    }
+
+    /**
+     * Copy the positions, in iteration order.
+     *
+     * @param positions
+     *            the term weight positions
+     * @return the term positions
+     */
+    public static TermPositions of(Collection<TermWeightPosition> positions) {
+        return of(positions, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Copy the positions, in iteration order, whose score does not exceed the max score.
+     *
+     * @param positions
+     *            the term weight positions
+     * @param maxScore
+     *            the max term weight score to keep
+     * @return the term positions
+     */
+    public static TermPositions of(Collection<TermWeightPosition> positions, int maxScore) {
+        if (positions == null || positions.isEmpty()) {
+            return EMPTY;
+        }
+
+        Builder builder = new Builder(positions.size());
+        for (TermWeightPosition position : positions) {
+            if (position.getScore() <= maxScore) {
+                builder.add(position.getOffset(), position.getLowOffset(), position.getZeroOffsetMatch(), position.getScore());
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Decode the positions of a term frequency protobuf, in the order they were written. This applies the same rules as
+     * {@link TermWeightPosition.Builder#setTermWeightOffsetInfo(TermWeight.Info, int)} without building a position object per offset.
+     *
+     * @param info
+     *            the term weight info
+     * @return the term positions
+     */
+    public static TermPositions of(TermWeight.Info info) {
+        int count = info.getTermOffsetCount();
+        if (count == 0) {
+            return EMPTY;
+        }
+
+        // skips and scores are only linked to the offsets by index when their counts match
+        boolean hasPrevSkips = info.getPrevSkipsCount() == count;
+        boolean hasScores = info.getScoreCount() == count;
+        boolean zeroOffsetMatch = info.getZeroOffsetMatch();
+
+        Builder builder = new Builder(count);
+        for (int i = 0; i < count; i++) {
+            int offset = info.getTermOffset(i);
+            int prevSkips = hasPrevSkips ? info.getPrevSkips(i) : TermWeightPosition.DEFAULT_PREV_SKIPS;
+            int score = hasScores ? info.getScore(i) : TermWeightPosition.DEFAULT_SCORE;
+            builder.add(offset, prevSkips >= 0 ? offset - prevSkips : offset, zeroOffsetMatch, score);
+        }
+        return builder.build();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int getOffset(int index) {
+        return offsets[index];
+    }
+
+    public int getLowOffset(int index) {
+        return lowOffsets[index];
+    }
+
+    public boolean getZeroOffsetMatch(int index) {
+        return zeroOffsetMatch[index];
+    }
+
+    public int getScore(int index) {
+        return scores[index];
+    }
+
+    /**
+     * Compare the position at an index of these positions with the position at an index of other positions, in the same way as
+     * {@link TermWeightPosition#compareTo(TermWeightPosition)}.
+     *
+     * @param index
+     *            the index of the position in these positions
+     * @param other
+     *            the other positions
+     * @param otherIndex
+     *            the index of the position in the other positions
+     * @return a negative number, zero, or a positive number as this position is less than, equal to, or greater than the other
+     */
+    public int compare(int index, TermPositions other, int otherIndex) {
+        int result = Integer.compare(lowOffsets[index], other.lowOffsets[otherIndex]);
+        if (result != 0) {
+            return result;
+        }
+        return Integer.compare(offsets[index], other.offsets[otherIndex]);
+    }
+
+    /**
+     * Return the positions whose score does not exceed the max score.
+     *
+     * @param maxScore
+     *            the max term weight score to keep
+     * @return these positions if none exceed the max score, otherwise a copy without them
+     */
+    public TermPositions withMaxScore(int maxScore) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (scores[i] <= maxScore) {
+                kept++;
+            }
+        }
+        if (kept == size) {
+            return this;
+        }
+
+        Builder builder = new Builder(kept);
+        for (int i = 0; i < size; i++) {
+            if (scores[i] <= maxScore) {
+                builder.add(offsets[i], lowOffsets[i], zeroOffsetMatch[i], scores[i]);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Return these positions followed by the other positions, in order with equal positions removed, as if both were added to one sorted set.
+     *
+     * @param other
+     *            the other positions
+     * @return the sorted and distinct positions of both
+     */
+    public TermPositions merge(TermPositions other) {
+        if (other.isEmpty()) {
+            return distinct();
+        }
+        if (isEmpty()) {
+            return other.distinct();
+        }
+
+        Builder builder = new Builder(size + other.size);
+        for (int i = 0; i < size; i++) {
+            builder.add(offsets[i], lowOffsets[i], zeroOffsetMatch[i], scores[i]);
+        }
+        for (int i = 0; i < other.size; i++) {
+            builder.add(other.offsets[i], other.lowOffsets[i], other.zeroOffsetMatch[i], other.scores[i]);
+        }
+        return builder.build().distinct();
+    }
+
+    /**
+     * Return these positions in order with equal positions removed, keeping the first of any equal positions as a sorted set would. The term frequency offsets
+     * are written in order, so in practice this is a single pass that returns these positions as they are.
+     *
+     * @return the sorted and distinct positions
+     */
+    public TermPositions distinct() {
+        boolean sorted = true;
+        for (int i = 1; sorted && i < size; i++) {
+            sorted = compare(i - 1, this, i) < 0;
+        }
+        if (sorted) {
+            return this;
+        }
+
+        // a stable sort of the indexes keeps equal positions in the order they were added
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        sort(order, new int[size], 0, size);
+
+        Builder builder = new Builder(size);
+        for (int i = 0; i < size; i++) {
+            int index = order[i];
+            if (i == 0 || compare(order[i - 1], this, index) != 0) {
+                builder.add(offsets[index], lowOffsets[index], zeroOffsetMatch[index], scores[index]);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Merge sort a range of indexes by the positions at those indexes
+     */
+    private void sort(int[] order, int[] buffer, int start, int end) {
+        if (end - start < 2) {
+            return;
+        }
+        int middle = (start + end) >>> 1;
+        sort(order, buffer, start, middle);
+        sort(order, buffer, middle, end);
+
+        int left = start, right = middle, out = start;
+        while (left < middle && right < end) {
+            buffer[out++] = compare(order[right], this, order[left]) < 0 ? order[right++] : order[left++];
+        }
+        while (left < middle) {
+            buffer[out++] = order[left++];
+        }
+        while (right < end) {
+            buffer[out++] = order[right++];
+        }
+        System.arraycopy(buffer, start, order, start, end - start);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TermPositions)) {
+            return false;
+        }
+        TermPositions other = (TermPositions) o;
+        return size == other.size && Arrays.equals(offsets, 0, size, other.offsets, 0, size)
+                        && Arrays.equals(lowOffsets, 0, size, other.lowOffsets, 0, size)
+                        && Arrays.equals(zeroOffsetMatch, 0, size, other.zeroOffsetMatch, 0, size)
+                        && Arrays.equals(scores, 0, size, other.scores, 0, size);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = size;
+        for (int i = 0; i < size; i++) {
+            result = 31 * result + offsets[i];
+            result = 31 * result + lowOffsets[i];
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(lowOffsets[i]).append('-').append(offsets[i]);
+            if (!zeroOffsetMatch[i]) {
+                sb.append('!');
+            }
+        }
+        return sb.append(']').toString();
+    }
+
+    private static class Builder {
+        private final int[] offsets;
+        private final int[] lowOffsets;
+        private final boolean[] zeroOffsetMatch;
+        private final int[] scores;
+        private int size;
+
+        Builder(int capacity) {
+            this.offsets = new int[capacity];
+            this.lowOffsets = new int[capacity];
+            this.zeroOffsetMatch = new boolean[capacity];
+            this.scores = new int[capacity];
+        }
+
+        void add(int offset, int lowOffset, boolean zeroOffsetMatch, int score) {
+            offsets[size] = offset;
+            lowOffsets[size] = lowOffset;
+            this.zeroOffsetMatch[size] = zeroOffsetMatch;
+            scores[size] = score;
+            size++;
+        }
+
+        TermPositions build() {
+            if (size == 0) {
+                return EMPTY;
+            }
+            return new TermPositions(offsets, lowOffsets, zeroOffsetMatch, scores, size);
+        }
+    }
+}
@@ -73,6 +73,7 @@ import datawave.query.CloseableIterable;
 import datawave.query.Constants;
 import datawave.query.QueryParameters;
 import datawave.query.attributes.ExcerptFields;
+import datawave.query.attributes.SortFields;
 import datawave.query.attributes.UniqueFields;
 import datawave.query.common.grouping.GroupFields;
 import datawave.query.composite.CompositeMetadata;
@@ -533,7 +534,11 @@ public class DefaultQueryPlanner extends QueryPlanner implements Cloneable {
         addOption(cfg, QueryOptions.MATCHING_FIELD_SETS, config.getMatchingFieldSetsAsString(), false);
         addOption(cfg, QueryOptions.GROUP_FIELDS, config.getGroupFields().toString(), true);
         addOption(cfg, QueryOptions.GROUP_FIELDS_BATCH_SIZE, config.getGroupFieldsBatchSizeAsString(), true);
+        // the DocumentGrouper here merges encoded groups, so the t-servers need not flatten them
+        addOption(cfg, QueryOptions.GROUP_FIELDS_ENCODED, Boolean.toString(true), false);
         addOption(cfg, QueryOptions.UNIQUE_FIELDS, config.getUniqueFields().toString(), true);
+        addOption(cfg, QueryOptions.SORT_FIELDS, config.getSortFields().toString(), true);
+        addOption(cfg, QueryOptions.SORT_LIMIT, Integer.toString(config.getSortLimit()), false);
         addOption(cfg, QueryOptions.HIT_LIST, Boolean.toString(config.isHitList()), false);
         addOption(cfg, QueryOptions.TERM_FREQUENCY_FIELDS, Joiner.on(',').join(config.getQueryTermFrequencyFields()), false);
         addOption(cfg, QueryOptions.TERM_FREQUENCIES_REQUIRED, Boolean.toString(config.isTermFrequenciesRequired()), false);
@@ -774,6 +779,9 @@ public class DefaultQueryPlanner extends QueryPlanner implements Cloneable {
 
         config.setQueryTree(timedApplyQueryModel(timers, config.getQueryTree(), config, metadataHelper, queryModel));
 
+        // Ensure that the fields results are ordered by are returned, they will be removed again once the results are sorted
+        addSortFieldsToProjection(config);
+
         // +-------------------------------------+
         // | Post Query Model Expansion Clean Up |
         // +-------------------------------------+
@@ -1816,6 +1824,11 @@ public class DefaultQueryPlanner extends QueryPlanner implements Cloneable {
             Sets.newHashSet(excerptFields.getFields()).stream().forEach(s -> excerptFields.replace(s, s.toUpperCase()));
         }
 
+        SortFields sortFields = config.getSortFields();
+        if (sortFields != null && !sortFields.isEmpty()) {
+            Sets.newHashSet(sortFields.getFields()).stream().forEach(s -> sortFields.replace(s, s.toUpperCase()));
+        }
+
         Set<String> userProjection = config.getRenameFields();
         if (userProjection != null && !userProjection.isEmpty()) {
             config.setRenameFields(upcase(userProjection));
@@ -1834,6 +1847,36 @@ public class DefaultQueryPlanner extends QueryPlanner implements Cloneable {
         return (CaseSensitivityVisitor.upperCaseIdentifiers(config, metadataHelper, script));
     }
 
+    /**
+     * Add the fields that results are ordered by to the projection, if one is set, so that they are returned from the tablet servers. The fields added are
+     * recorded as the sort only fields, to be removed from the results once they have been sorted.
+     *
+     * @param config
+     *            the query configuration
+     */
+    protected void addSortFieldsToProjection(ShardQueryConfiguration config) {
+        Set<String> sortOnlyFields = new HashSet<>();
+        SortFields sortFields = config.getSortFields();
+        Set<String> projectFields = config.getProjectFields();
+        boolean grouped = config.getGroupFields() != null && config.getGroupFields().hasGroupByFields();
+        if (sortFields != null && !sortFields.isEmpty() && config.getSortLimit() > 0 && !grouped && projectFields != null && !projectFields.isEmpty()) {
+            for (String field : sortFields.getDocumentFields()) {
+                if (!SortFields.DOCUMENT_DATE.equals(field) && !projectFields.contains(field)) {
+                    sortOnlyFields.add(field);
+                }
+            }
+            if (!sortOnlyFields.isEmpty()) {
+                Set<String> updatedProjection = new HashSet<>(projectFields);
+                updatedProjection.addAll(sortOnlyFields);
+                config.setProjectFields(updatedProjection);
+                if (log.isTraceEnabled()) {
+                    log.trace("Added sort fields to the projection: " + sortOnlyFields);
+                }
+            }
+        }
+        config.setSortOnlyFields(sortOnlyFields);
+    }
+
     // Overwrite projection and disallowlist properties if the query model is
     // being used
     protected ASTJexlScript applyQueryModel(MetadataHelper metadataHelper, ShardQueryConfiguration config, ASTJexlScript script, QueryModel queryModel) {
@@ -1877,6 +1920,15 @@ public class DefaultQueryPlanner extends QueryPlanner implements Cloneable {
             config.setUniqueFields(uniqueFields);
         }
 
+        SortFields sortFields = config.getSortFields();
+        if (sortFields != null && !sortFields.isEmpty()) {
+            sortFields.remapFields(inverseReverseModel);
+            if (log.isTraceEnabled()) {
+                log.trace("Updated sort fields using query model to: " + sortFields);
+            }
+            config.setSortFields(sortFields);
+        }
+
         ExcerptFields excerptFields = config.getExcerptFields();
         if (excerptFields != null && !excerptFields.isEmpty()) {
             excerptFields.expandFields(inverseReverseModel);
@@ -70,6 +70,7 @@ public class FacetedQueryPlanner extends IndexQueryPlanner {
         cfg.addOption(DynamicFacetIterator.FACETED_SEARCH_TYPE, facetedConfig.getType().toString());
         cfg.addOption(DynamicFacetIterator.FACETED_MINIMUM, Integer.toString(facetedConfig.getMinimumFacetCount()));
         cfg.addOption(DynamicFacetIterator.FACETED_SEARCH_FIELDS, Joiner.on(",").join(facetedConfig.getFacetedFields()));
+        cfg.addOption(DynamicFacetIterator.FACETED_ROLLUP_PIVOTS, Joiner.on(",").join(facetedConfig.getRollupPivots()));
 
         if (log.isTraceEnabled())
             log.trace("Configuration is " + facetedConfig);
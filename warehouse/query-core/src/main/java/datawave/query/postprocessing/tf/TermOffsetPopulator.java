@@ -34,17 +34,16 @@ import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
-import com.google.common.collect.TreeMultimap;
 import com.google.protobuf.InvalidProtocolBufferException;
 
 import datawave.core.iterators.TermFrequencyIterator;
 import datawave.ingest.protobuf.TermWeight;
-import datawave.ingest.protobuf.TermWeightPosition;
 import datawave.query.Constants;
 import datawave.query.attributes.Content;
 import datawave.query.attributes.Document;
 import datawave.query.data.parsers.TermFrequencyKey;
 import datawave.query.jexl.functions.TermFrequencyList;
+import datawave.query.jexl.functions.TermPositions;
 import datawave.query.jexl.visitors.LiteralNodeSubsetVisitor;
 import datawave.query.predicate.EventDataQueryFilter;
 
@@ -155,7 +154,6 @@ public class TermOffsetPopulator {
         }
 
         TermFrequencyKey parser = new TermFrequencyKey();
-        TermWeightPosition.Builder position = new TermWeightPosition.Builder();
         Map<String,TermFrequencyList> termOffsetMap = Maps.newHashMap();
 
         while (tfSource.hasTop()) {
@@ -167,21 +165,18 @@ public class TermOffsetPopulator {
 
             this.document.put(parser.getField(), attr);
 
-            TreeMultimap<TermFrequencyList.Zone,TermWeightPosition> offsets = TreeMultimap.create();
+            TermFrequencyList.Zone twZone;
+            TermPositions positions;
             try {
                 TermWeight.Info twInfo = TermWeight.Info.parseFrom(tfSource.getTopValue().get());
 
                 // if no content expansion fields then assume every field is permitted for unfielded content functions
                 boolean isContentExpansionField = contentExpansionFields == null || contentExpansionFields.isEmpty()
                                 || contentExpansionFields.contains(parser.getField());
-                TermFrequencyList.Zone twZone = new TermFrequencyList.Zone(parser.getField(), isContentExpansionField, TermFrequencyList.getEventId(key));
-
-                for (int i = 0; i < twInfo.getTermOffsetCount(); i++) {
-                    position.setTermWeightOffsetInfo(twInfo, i);
-                    offsets.put(twZone, position.build());
-                    position.reset();
-                }
+                twZone = new TermFrequencyList.Zone(parser.getField(), isContentExpansionField, TermFrequencyList.getEventId(key));
 
+                // decode the offsets straight into primitive arrays rather than a position object per offset
+                positions = TermPositions.of(twInfo);
             } catch (InvalidProtocolBufferException e) {
                 log.error("Could not deserialize TermWeight protocol buffer for: " + source.getTopKey());
                 return Collections.emptyMap();
@@ -190,12 +185,12 @@ public class TermOffsetPopulator {
             // First time looking up this term in a field
             TermFrequencyList tfl = termOffsetMap.get(parser.getValue());
             if (null == tfl) {
-                termOffsetMap.put(parser.getValue(), new TermFrequencyList(offsets));
-            } else {
-                // Merge in the offsets for the current field+term with all previous
-                // offsets from other fields in the same term
-                tfl.addOffsets(offsets);
+                tfl = new TermFrequencyList();
+                termOffsetMap.put(parser.getValue(), tfl);
             }
+            // Merge in the offsets for the current field+term with all previous
+            // offsets from other fields in the same term
+            tfl.addPositions(twZone, positions);
 
             try {
                 tfSource.next();
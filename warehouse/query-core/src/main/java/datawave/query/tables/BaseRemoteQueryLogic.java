@@ -97,6 +97,20 @@ public abstract class BaseRemoteQueryLogic<T> extends BaseQueryLogic<T> implemen
         getConfig().setRemoteQueryLogic(remoteQueryLogic);
     }
 
+    public int getRemotePrefetchPages() {
+        return getConfig().getRemotePrefetchPages();
+    }
+
+    /**
+     * Set the number of pages of the remote query to read ahead of the caller. When zero, each page is requested when the caller needs it.
+     *
+     * @param remotePrefetchPages
+     *            the number of pages to read ahead
+     */
+    public void setRemotePrefetchPages(int remotePrefetchPages) {
+        getConfig().setRemotePrefetchPages(remotePrefetchPages);
+    }
+
     @Override
     public GenericQueryConfiguration initialize(AccumuloClient connection, Query settings, Set<Authorizations> auths) throws Exception {
         Map<String,List<String>> parms = settings.toMap();
@@ -17,9 +17,11 @@ import datawave.core.query.logic.BaseQueryLogic;
 import datawave.core.query.logic.QueryLogicTransformer;
 import datawave.marking.MarkingFunctions;
 import datawave.microservice.query.Query;
+import datawave.query.tables.remote.RemoteQueryPagePrefetcher;
 import datawave.query.transformer.EventQueryTransformerSupport;
 import datawave.webservice.query.result.event.EventBase;
 import datawave.webservice.query.result.event.ResponseObjectFactory;
+import datawave.webservice.result.BaseQueryResponse;
 import datawave.webservice.result.EventQueryResponseBase;
 
 /**
@@ -55,6 +57,15 @@ public class RemoteEventQueryLogic extends BaseRemoteQueryLogic<EventBase> {
         iterator = new RemoteQueryLogicIterator();
     }
 
+    @Override
+    public void close() {
+        // stop reading ahead before the remote query is closed
+        if (iterator instanceof RemoteQueryLogicIterator) {
+            ((RemoteQueryLogicIterator) iterator).close();
+        }
+        super.close();
+    }
+
     @Override
     public QueryLogicTransformer<EventBase,EventBase> createTransformer(Query settings, MarkingFunctions markingFunctions,
                     ResponseObjectFactory responseObjectFactory) {
@@ -81,15 +92,43 @@ public class RemoteEventQueryLogic extends BaseRemoteQueryLogic<EventBase> {
         return new ShardQueryLogic().getExampleQueries();
     }
 
+    /**
+     * Determine whether a page is the last page of the remote query, after which no more pages should be requested.
+     *
+     * @param response
+     *            a page of the remote query
+     * @return true if the page has no events and is not a partial result, or is not an event page at all
+     */
+    private static boolean isLastPage(BaseQueryResponse response) {
+        if (!(response instanceof EventQueryResponseBase)) {
+            return true;
+        }
+        Long returnedEvents = ((EventQueryResponseBase) response).getReturnedEvents();
+        return returnedEvents == null || (returnedEvents == 0 && !response.isPartialResults());
+    }
+
     private class RemoteQueryLogicIterator implements Iterator<EventBase> {
         private Queue<EventBase> data = new LinkedList<>();
         private boolean complete = false;
+        // reads the remote pages ahead of this iterator, if configured to
+        private final RemoteQueryPagePrefetcher prefetcher;
+
+        public RemoteQueryLogicIterator() {
+            int prefetchPages = getRemotePrefetchPages();
+            if (prefetchPages > 0) {
+                prefetcher = new RemoteQueryPagePrefetcher(() -> remoteQueryService.next(getRemoteId(), currentUser), RemoteEventQueryLogic::isLastPage,
+                                prefetchPages);
+            } else {
+                prefetcher = null;
+            }
+        }
 
         @Override
         public boolean hasNext() {
             if (data.isEmpty() && !complete) {
                 try {
-                    EventQueryResponseBase response = (EventQueryResponseBase) remoteQueryService.next(getRemoteId(), currentUser);
+                    BaseQueryResponse nextPage = prefetcher != null ? prefetcher.take() : remoteQueryService.next(getRemoteId(), currentUser);
+                    EventQueryResponseBase response = (EventQueryResponseBase) nextPage;
                     if (response != null) {
                         if (response.getReturnedEvents() == 0) {
                             if (response.isPartialResults()) {
@@ -120,6 +159,12 @@ public class RemoteEventQueryLogic extends BaseRemoteQueryLogic<EventBase> {
         public EventBase next() {
             return data.poll();
         }
+
+        public void close() {
+            if (prefetcher != null) {
+                prefetcher.close();
+            }
+        }
     }
 
     private class EventBaseTransformer extends EventQueryTransformerSupport<EventBase,EventBase> {
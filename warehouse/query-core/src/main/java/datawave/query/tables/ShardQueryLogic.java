@@ -63,6 +63,7 @@ import datawave.query.Constants;
 import datawave.query.DocumentSerialization;
 import datawave.query.QueryParameters;
 import datawave.query.attributes.ExcerptFields;
+import datawave.query.attributes.SortFields;
 import datawave.query.attributes.UniqueFields;
 import datawave.query.cardinality.CardinalityConfiguration;
 import datawave.query.common.grouping.GroupFields;
@@ -96,6 +97,7 @@ import datawave.query.transformer.DocumentTransformer;
 import datawave.query.transformer.EventQueryDataDecoratorTransformer;
 import datawave.query.transformer.FieldRenameTransform;
 import datawave.query.transformer.GroupingTransform;
+import datawave.query.transformer.SortTransform;
 import datawave.query.transformer.UniqueTransform;
 import datawave.query.util.DateIndexHelper;
 import datawave.query.util.DateIndexHelperFactory;
@@ -278,6 +280,7 @@ public class ShardQueryLogic extends BaseQueryLogic<Entry<Key,Value>> implements
 
     @Override
     public GenericQueryConfiguration initialize(AccumuloClient client, Query settings, Set<Authorizations> auths) throws Exception {
+        closeTransformer();
         this.transformerInstance = null;
         this.config = ShardQueryConfiguration.create(this, settings);
         if (log.isTraceEnabled())
@@ -685,7 +688,16 @@ public class ShardQueryLogic extends BaseQueryLogic<Entry<Key,Value>> implements
     }
 
     public boolean isLongRunningQuery() {
-        return getConfig().getGroupFields().hasGroupByFields() || !getUniqueFields().isEmpty();
+        return getConfig().getGroupFields().hasGroupByFields() || !getUniqueFields().isEmpty() || isSorted();
+    }
+
+    /**
+     * Sorting is only applied when there is a limit to sort to, and is not applied to grouped results.
+     *
+     * @return whether the results are sorted
+     */
+    private boolean isSorted() {
+        return getSortFields() != null && !getSortFields().isEmpty() && getSortLimit() > 0 && !getConfig().getGroupFields().hasGroupByFields();
     }
 
     /**
@@ -717,6 +729,17 @@ public class ShardQueryLogic extends BaseQueryLogic<Entry<Key,Value>> implements
                 }
             }
 
+            if (isSorted()) {
+                DocumentTransform alreadyExists = ((DocumentTransformer) this.transformerInstance).containsTransform(SortTransform.class);
+                if (alreadyExists != null) {
+                    ((SortTransform) alreadyExists).updateConfig(getSortFields(), getSortLimit(), getConfig().getSortOnlyFields());
+                } else {
+                    ((DocumentTransformer) this.transformerInstance)
+                                    .addTransform(new SortTransform(getSortFields(), getSortLimit(), getConfig().getSortOnlyFields(),
+                                                    this.getQueryExecutionForPageTimeout()));
+                }
+            }
+
             if (getConfig().getRenameFields() != null && !getConfig().getRenameFields().isEmpty()) {
                 DocumentTransform alreadyExists = ((DocumentTransformer) this.transformerInstance).containsTransform(FieldRenameTransform.class);
                 if (alreadyExists != null) {
@@ -977,6 +1000,32 @@ public class ShardQueryLogic extends BaseQueryLogic<Entry<Key,Value>> implements
             }
         }
 
+        // Get the SORT_FIELDS parameter if given
+        String sortFieldsParam = settings.findParameter(QueryParameters.SORT_FIELDS).getParameterValue().trim();
+        if (StringUtils.isNotBlank(sortFieldsParam)) {
+            SortFields sortFields = SortFields.from(sortFieldsParam);
+            // Only set the sort fields if we were actually given some
+            if (!sortFields.isEmpty()) {
+                this.setSortFields(sortFields);
+                config.setSortFields(sortFields);
+            }
+        }
+
+        String sortLimitString = settings.findParameter(QueryParameters.SORT_LIMIT).getParameterValue().trim();
+        if (StringUtils.isNotBlank(sortLimitString)) {
+            int sortLimit;
+            try {
+                sortLimit = Integer.parseInt(sortLimitString);
+            } catch (NumberFormatException e) {
+                sortLimit = 0;
+            }
+            if (sortLimit <= 0) {
+                throw new QueryException(QueryParameters.SORT_LIMIT + " must be a positive integer, but was " + sortLimitString);
+            }
+            this.setSortLimit(sortLimit);
+            config.setSortLimit(sortLimit);
+        }
+
         // Get the EXCERPT_FIELDS parameter if given
         String excerptFieldsParam = settings.findParameter(QueryParameters.EXCERPT_FIELDS).getParameterValue().trim();
         if (StringUtils.isNotBlank(excerptFieldsParam)) {
@@ -1278,6 +1327,8 @@ public class ShardQueryLogic extends BaseQueryLogic<Entry<Key,Value>> implements
 
         log.debug("Closing ShardQueryLogic: " + System.identityHashCode(this));
 
+        closeTransformer();
+
         if (null == scannerFactory) {
             log.debug("ScannerFactory was never initialized because, therefore there are no connections to close: " + System.identityHashCode(this));
         } else {
@@ -1347,6 +1398,15 @@ public class ShardQueryLogic extends BaseQueryLogic<Entry<Key,Value>> implements
 
     }
 
+    /**
+     * Close the document transforms of the transformer, such as a {@link UniqueTransform} which may have spilled to local disk
+     */
+    private void closeTransformer() {
+        if (this.transformerInstance instanceof DocumentTransformer) {
+            ((DocumentTransformer) this.transformerInstance).closeTransforms();
+        }
+    }
+
     @Override
     public ShardQueryConfiguration getConfig() {
         if (config == null) {
@@ -1493,6 +1553,22 @@ public class ShardQueryLogic extends BaseQueryLogic<Entry<Key,Value>> implements
         getConfig().setUniqueFields(uniqueFields);
     }
 
+    public SortFields getSortFields() {
+        return getConfig().getSortFields();
+    }
+
+    public void setSortFields(SortFields sortFields) {
+        getConfig().setSortFields(sortFields);
+    }
+
+    public int getSortLimit() {
+        return getConfig().getSortLimit();
+    }
+
+    public void setSortLimit(int sortLimit) {
+        getConfig().setSortLimit(sortLimit);
+    }
+
     public Set<String> getNoExpansionFields() {
         return getConfig().getNoExpansionFields();
     }
@@ -2297,6 +2373,8 @@ public class ShardQueryLogic extends BaseQueryLogic<Entry<Key,Value>> implements
         optionalParams.add(QueryParameters.MATCHING_FIELD_SETS);
         optionalParams.add(QueryParameters.GROUP_FIELDS);
         optionalParams.add(QueryParameters.UNIQUE_FIELDS);
+        optionalParams.add(QueryParameters.SORT_FIELDS);
+        optionalParams.add(QueryParameters.SORT_LIMIT);
         optionalParams.add(QueryOptions.LOG_TIMING_DETAILS);
         optionalParams.add(datawave.microservice.query.QueryParameters.QUERY_PAGESIZE);
         optionalParams.add(datawave.microservice.query.QueryParameters.QUERY_PAGETIMEOUT);
@@ -46,6 +46,7 @@ import com.google.common.collect.Lists;
 import datawave.core.common.connection.AccumuloConnectionFactory.Priority;
 import datawave.core.iterators.ColumnQualifierRangeIterator;
 import datawave.core.iterators.ColumnRangeIterator;
+import datawave.core.iterators.EdgeAggregatingIterator;
 import datawave.core.query.configuration.GenericQueryConfiguration;
 import datawave.core.query.configuration.QueryData;
 import datawave.core.query.logic.BaseQueryLogic;
@@ -154,21 +155,39 @@ public class EdgeQueryLogic extends BaseQueryLogic<Entry<Key,Value>> implements
         config.setEndDate(settings.getEndDate());
         scannerFactory = new ScannerFactory(config);
 
-        prefilterValues = null;
-        EdgeQueryConfiguration.dateType dateFilterType = config.getDateRangeType();
-
         log.debug("Performing edge table query: " + config.getQueryString());
 
-        boolean includeStats = config.includeStats();
-
         MetadataHelper metadataHelper = prepareMetadataHelper(config.getClient(), config.getMetadataTableName(), config.getAuthorizations());
 
         loadQueryModel(metadataHelper, config);
 
+        config.setQueryString(queryString = fixQueryString(queryString));
+
+        config.setQueries(Collections.singletonList(createQueryData(config, queryString)));
+
+        return config;
+    }
+
+    /**
+     * Builds the ranges, column families and filter iterators that answer an edge query string.
+     *
+     * @param config
+     *            the edge query config
+     * @param queryString
+     *            the jexl query string
+     * @return the query data
+     * @throws Exception
+     *             if the query cannot be planned
+     */
+    protected QueryData createQueryData(EdgeQueryConfiguration config, String queryString) throws Exception {
+        prefilterValues = null;
+        EdgeQueryConfiguration.dateType dateFilterType = config.getDateRangeType();
+
+        boolean includeStats = config.includeStats();
+
         String normalizedQuery = null;
         String statsNormalizedQuery = null;
 
-        config.setQueryString(queryString = fixQueryString(queryString));
         Set<Range> ranges = configureRanges(queryString);
 
         VisitationContext context = null;
@@ -224,9 +243,46 @@ public class EdgeQueryLogic extends BaseQueryLogic<Entry<Key,Value>> implements
 
         addCustomFilters(qData, currentIteratorPriority);
 
-        config.setQueries(Collections.singletonList(qData));
+        // the edges are rolled up last so that only the edges which passed the filters are combined
+        if (config.getAggregateFields() != null) {
+            addIterator(qData, getAggregatingIterator(config.getAggregateFields(), currentIteratorPriority));
+        }
 
-        return config;
+        return qData;
+    }
+
+    /**
+     * Create the iterator which rolls up the edges of each row by the requested edge fields, combining their values across the remaining fields.
+     *
+     * @param aggregateFields
+     *            the edge field names to group by, the source and sink are always retained
+     * @param priority
+     *            priority to associate with this iterator
+     * @return the aggregating iterator
+     * @throws IllegalArgumentException
+     *             if a field cannot be grouped by
+     */
+    protected IteratorSetting getAggregatingIterator(List<String> aggregateFields, int priority) {
+        Set<EdgeModelFields.FieldKey> groupFields = new TreeSet<>();
+        for (String field : aggregateFields) {
+            EdgeModelFields.FieldKey key = null;
+            try {
+                key = getEdgeFields().parse(field.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                // not an edge field, reported below
+            }
+            if (key == EdgeModelFields.FieldKey.EDGE_SOURCE || key == EdgeModelFields.FieldKey.EDGE_SINK) {
+                continue;
+            }
+            if (!EdgeAggregatingIterator.GROUPABLE_FIELDS.contains(key)) {
+                throw new IllegalArgumentException("Edges cannot be aggregated by " + field + ", expected one of " + EdgeAggregatingIterator.GROUPABLE_FIELDS);
+            }
+            groupFields.add(key);
+        }
+
+        IteratorSetting setting = new IteratorSetting(priority, EdgeAggregatingIterator.class.getSimpleName() + "_" + priority, EdgeAggregatingIterator.class);
+        setting.addOption(EdgeAggregatingIterator.GROUP_FIELDS_OPTION, org.apache.commons.lang.StringUtils.join(groupFields, ','));
+        return setting;
     }
 
     public String getJexlQueryString(Query settings) throws datawave.query.language.parser.ParseException {
@@ -845,6 +901,7 @@ public class EdgeQueryLogic extends BaseQueryLogic<Entry<Key,Value>> implements
         optionalParams.add(QueryParameters.DATATYPE_FILTER_SET);
         optionalParams.add(EdgeQueryConfiguration.INCLUDE_STATS);
         optionalParams.add(EdgeQueryConfiguration.DATE_RANGE_TYPE);
+        optionalParams.add(EdgeQueryConfiguration.AGGREGATE_FIELDS);
         optionalParams.add(datawave.microservice.query.QueryParameters.QUERY_PAGETIMEOUT);
         optionalParams.add(datawave.microservice.query.QueryParameters.QUERY_EXPIRATION);
         optionalParams.add(datawave.microservice.query.QueryParameters.QUERY_MAX_RESULTS_OVERRIDE);
@@ -0,0 +1,395 @@
+package datawave.query.tables.edge;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.accumulo.core.client.AccumuloClient;
+import org.apache.accumulo.core.client.BatchScanner;
+import org.apache.accumulo.core.client.IteratorSetting;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.security.Authorizations;
+import org.apache.hadoop.io.Text;
+import org.apache.log4j.Logger;
+
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import datawave.core.query.configuration.GenericQueryConfiguration;
+import datawave.core.query.configuration.QueryData;
+import datawave.edge.model.EdgeModelFields.FieldKey;
+import datawave.edge.util.EdgeKeyUtil;
+import datawave.microservice.query.Query;
+import datawave.query.config.EdgeTraversalConfiguration;
+import datawave.query.exceptions.DatawaveFatalQueryException;
+import datawave.query.jexl.JexlASTHelper;
+import datawave.query.language.parser.jexl.JexlNode;
+
+/**
+ * An edge query that follows edges breadth first for a number of hops. The first hop is the edge query supplied by the user, planned exactly as the
+ * {@link EdgeQueryLogic} would plan it. Each following hop queries the edges whose source is one of the sinks reached by the previous hop, optionally
+ * restricted by a hop query (e.g. {@code TYPE == 'AdjacentPlanets'}). The sinks are queried in batches, which are planned with the same range building as the
+ * first hop and scanned concurrently.
+ * <p>
+ * Each vertex is expanded at most once. The set of reached vertices is bounded by {@link EdgeTraversalConfiguration#getMaxVertices()}, beyond which no new
+ * vertices are expanded, and at most {@link EdgeTraversalConfiguration#getMaxFanout()} edges are followed from each vertex on each hop. Either every traversed
+ * edge is returned, or only the edge by which each vertex was first reached (see {@link EdgeTraversalConfiguration.resultType}).
+ */
+public class EdgeTraversalQueryLogic extends EdgeQueryLogic {
+    private static final Logger log = Logger.getLogger(EdgeTraversalQueryLogic.class);
+
+    protected ExecutorService executor;
+
+    public EdgeTraversalQueryLogic() {
+        super();
+    }
+
+    public EdgeTraversalQueryLogic(EdgeTraversalQueryLogic other) {
+        super(other);
+
+        // Set EdgeTraversalConfiguration variables
+        this.config = EdgeTraversalConfiguration.create(other);
+    }
+
+    @Override
+    public EdgeTraversalConfiguration getConfig() {
+        if (config == null) {
+            config = new EdgeTraversalConfiguration();
+        }
+        return (EdgeTraversalConfiguration) config;
+    }
+
+    @Override
+    public EdgeTraversalQueryLogic clone() {
+        return new EdgeTraversalQueryLogic(this);
+    }
+
+    @Override
+    public GenericQueryConfiguration initialize(AccumuloClient client, Query settings, Set<Authorizations> auths) throws Exception {
+        EdgeTraversalConfiguration config = (EdgeTraversalConfiguration) super.initialize(client, settings, auths);
+
+        // fail now rather than after the first hop if the hop query is invalid
+        if (config.getHopQuery() != null) {
+            try {
+                JexlASTHelper.parseJexlQuery(config.getHopQuery());
+            } catch (Exception e) {
+                throw new IllegalArgumentException("Invalid " + EdgeTraversalConfiguration.HOP_QUERY + " supplied. " + e.getMessage(), e);
+            }
+        }
+
+        return config;
+    }
+
+    @Override
+    public void setupQuery(GenericQueryConfiguration configuration) throws Exception {
+        config = (EdgeTraversalConfiguration) configuration;
+
+        log.debug("Configuring edge traversal: tableName: " + getConfig().getTableName() + ", hops: " + getConfig().getHops() + ", auths: "
+                        + getConfig().getAuthorizations());
+
+        executor = Executors.newFixedThreadPool(getConfig().getMaxConcurrentScans(),
+                        new ThreadFactoryBuilder().setDaemon(true).setNameFormat("EdgeTraversal-%d").build());
+
+        this.iterator = new TraversalIterator(getConfig());
+    }
+
+    /**
+     * Builds the query data for the next hop from the vertices reached by the previous one.
+     *
+     * @param config
+     *            the traversal config
+     * @param frontier
+     *            the vertices to expand
+     * @return the query data, one per batch of vertices
+     * @throws Exception
+     *             if a hop query cannot be planned
+     */
+    protected List<QueryData> planHop(EdgeTraversalConfiguration config, Collection<String> frontier) throws Exception {
+        List<QueryData> queries = new ArrayList<>();
+        for (List<String> batch : Iterables.partition(frontier, config.getFrontierBatchSize())) {
+            StringBuilder query = new StringBuilder("(");
+            for (String vertex : batch) {
+                if (query.length() > 1) {
+                    query.append(" || ");
+                }
+                query.append(getEdgeFields().getSourceFieldName()).append(" == '").append(JexlNode.jexlEscapeSelector(vertex)).append("'");
+            }
+            query.append(")");
+            if (config.getHopQuery() != null) {
+                query.append(" && (").append(config.getHopQuery()).append(")");
+            }
+
+            currentIteratorPriority = super.getBaseIteratorPriority() + 30;
+            queries.add(createQueryData(config, fixQueryString(query.toString())));
+        }
+        return queries;
+    }
+
+    /**
+     * Scans the query data of one hop concurrently, keeping at most the maximum fan out of edges for each source vertex. The edges kept for a vertex are the
+     * first ones in key order.
+     *
+     * @param config
+     *            the traversal config
+     * @param queries
+     *            the query data for the hop
+     * @return the edges, sorted by key
+     */
+    protected List<Entry<Key,Value>> scanHop(EdgeTraversalConfiguration config, Collection<QueryData> queries) {
+        List<Future<List<Entry<Key,Value>>>> futures = new ArrayList<>(queries.size());
+        for (QueryData qd : queries) {
+            // each task creates its own scanner, so the batches cancelled below never open one
+            futures.add(executor.submit(() -> scan(config, qd)));
+        }
+
+        List<Entry<Key,Value>> results = new ArrayList<>();
+        try {
+            for (Future<List<Entry<Key,Value>>> future : futures) {
+                results.addAll(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DatawaveFatalQueryException("Interrupted while traversing edges", e);
+        } catch (ExecutionException e) {
+            throw new DatawaveFatalQueryException("Failed to scan edges", e.getCause());
+        } finally {
+            for (Future<List<Entry<Key,Value>>> future : futures) {
+                future.cancel(true);
+            }
+        }
+
+        // the batches are scanned concurrently, sort so that the vertices are reached in a repeatable order
+        results.sort(Entry.comparingByKey());
+        return results;
+    }
+
+    private List<Entry<Key,Value>> scan(EdgeTraversalConfiguration config, QueryData qd) throws IOException {
+        BatchScanner bs = createBatchScanner(config);
+        // close through the scanner factory so that it also stops tracking the scanner
+        try (Closeable scanner = () -> scannerFactory.close(bs)) {
+            log.debug("Using the following ranges: " + qd.getRanges());
+
+            bs.setRanges(qd.getRanges());
+            for (IteratorSetting setting : qd.getSettings()) {
+                bs.addScanIterator(setting);
+            }
+
+            for (String cf : qd.getColumnFamilies()) {
+                bs.fetchColumnFamily(new Text(cf));
+            }
+
+            List<Entry<Key,Value>> edges = new ArrayList<>();
+            for (Entry<Key,Value> entry : bs) {
+                edges.add(entry);
+            }
+
+            // the batch scanner returns the ranges in any order, so sort to follow the same edges from a vertex every time
+            edges.sort(Entry.comparingByKey());
+
+            List<Entry<Key,Value>> results = new ArrayList<>();
+            Map<Text,Integer> fanout = new HashMap<>();
+            int maxFanout = config.getMaxFanout();
+            for (Entry<Key,Value> entry : edges) {
+                Text source = getSource(entry.getKey());
+                // stats edges do not lead anywhere, so they do not count towards the fan out
+                if (source == null || fanout.merge(source, 1, Integer::sum) <= maxFanout) {
+                    results.add(entry);
+                }
+            }
+            return results;
+        }
+    }
+
+    /**
+     * @return the escaped source portion of the row of an edge key, or null for a stats edge key
+     */
+    private static Text getSource(Key key) {
+        Text row = key.getRow();
+        byte[] bytes = row.getBytes();
+        for (int i = 0; i < row.getLength(); i++) {
+            if (bytes[i] == 0) {
+                Text source = new Text();
+                source.set(bytes, 0, i);
+                return source;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Runs one hop at a time, returning the edges of a hop before the next hop is scanned.
+     */
+    private class TraversalIterator extends AbstractIterator<Entry<Key,Value>> {
+        private final EdgeTraversalConfiguration config;
+        private final Set<String> visited = new HashSet<>();
+        private Collection<String> frontier = Collections.emptyList();
+        private Iterator<Entry<Key,Value>> hopResults = Collections.emptyIterator();
+        private int hop = 0;
+        private boolean truncated = false;
+
+        TraversalIterator(EdgeTraversalConfiguration config) {
+            this.config = config;
+        }
+
+        @Override
+        protected Entry<Key,Value> computeNext() {
+            while (!hopResults.hasNext()) {
+                if (hop >= config.getHops() || (hop > 0 && frontier.isEmpty())) {
+                    return endOfData();
+                }
+                hopResults = nextHop().iterator();
+            }
+            return hopResults.next();
+        }
+
+        private List<Entry<Key,Value>> nextHop() {
+            Collection<QueryData> queries;
+            if (hop == 0) {
+                queries = config.getQueries();
+            } else {
+                try {
+                    queries = planHop(config, frontier);
+                } catch (Exception e) {
+                    throw new DatawaveFatalQueryException("Unable to plan hop " + (hop + 1) + " of the edge traversal", e);
+                }
+            }
+            hop++;
+
+            List<Entry<Key,Value>> edges = scanHop(config, queries);
+            List<Map<FieldKey,String>> fields = new ArrayList<>(edges.size());
+            for (Entry<Key,Value> edge : edges) {
+                fields.add(EdgeKeyUtil.dissasembleKey(edge.getKey(), true));
+            }
+            if (hop == 1) {
+                // the sources of the first hop are where the traversal starts
+                for (Map<FieldKey,String> edgeFields : fields) {
+                    visit(edgeFields.get(FieldKey.EDGE_SOURCE));
+                }
+            }
+
+            boolean allPaths = (config.getResults() == EdgeTraversalConfiguration.resultType.PATHS);
+            List<Entry<Key,Value>> results = new ArrayList<>();
+            List<String> reached = new ArrayList<>();
+            for (int i = 0; i < edges.size(); i++) {
+                String sink = fields.get(i).get(FieldKey.EDGE_SINK);
+                boolean newVertex = (sink != null && visit(sink));
+                if (newVertex) {
+                    reached.add(sink);
+                }
+                if (allPaths || newVertex) {
+                    results.add(edges.get(i));
+                }
+            }
+            frontier = reached;
+
+            log.debug("Edge traversal hop " + hop + " scanned " + edges.size() + " edges and reached " + reached.size() + " new vertices");
+            return results;
+        }
+
+        /**
+         * @return true if the vertex had not been visited and has been added to the visited vertices
+         */
+        private boolean visit(String vertex) {
+            if (visited.contains(vertex)) {
+                return false;
+            }
+            if (visited.size() >= config.getMaxVertices()) {
+                if (!truncated) {
+                    log.warn("Edge traversal reached the maximum of " + config.getMaxVertices() + " vertices, no further vertices will be expanded");
+                    truncated = true;
+                }
+                return false;
+            }
+            visited.add(vertex);
+            return true;
+        }
+    }
+
+    @Override
+    public void close() {
+        super.close();
+
+        if (null != executor) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isCheckpointable() {
+        // the traversal state (visited vertices and frontier) is not captured by a checkpoint
+        return false;
+    }
+
+    @Override
+    public Set<String> getOptionalQueryParameters() {
+        Set<String> optionalParams = super.getOptionalQueryParameters();
+        optionalParams.add(EdgeTraversalConfiguration.HOPS);
+        optionalParams.add(EdgeTraversalConfiguration.HOP_QUERY);
+        optionalParams.add(EdgeTraversalConfiguration.MAX_FANOUT);
+        optionalParams.add(EdgeTraversalConfiguration.RESULTS);
+        return optionalParams;
+    }
+
+    public int getDefaultHops() {
+        return getConfig().getDefaultHops();
+    }
+
+    public void setDefaultHops(int defaultHops) {
+        getConfig().setDefaultHops(defaultHops);
+    }
+
+    public int getMaxHops() {
+        return getConfig().getMaxHops();
+    }
+
+    public void setMaxHops(int maxHops) {
+        getConfig().setMaxHops(maxHops);
+    }
+
+    public int getDefaultMaxFanout() {
+        return getConfig().getDefaultMaxFanout();
+    }
+
+    public void setDefaultMaxFanout(int defaultMaxFanout) {
+        getConfig().setDefaultMaxFanout(defaultMaxFanout);
+    }
+
+    public int getMaxVertices() {
+        return getConfig().getMaxVertices();
+    }
+
+    public void setMaxVertices(int maxVertices) {
+        getConfig().setMaxVertices(maxVertices);
+    }
+
+    public int getFrontierBatchSize() {
+        return getConfig().getFrontierBatchSize();
+    }
+
+    public void setFrontierBatchSize(int frontierBatchSize) {
+        getConfig().setFrontierBatchSize(frontierBatchSize);
+    }
+
+    public int getMaxConcurrentScans() {
+        return getConfig().getMaxConcurrentScans();
+    }
+
+    public void setMaxConcurrentScans(int maxConcurrentScans) {
+        getConfig().setMaxConcurrentScans(maxConcurrentScans);
+    }
+}
@@ -14,6 +14,7 @@ public class FacetedConfiguration {
 
     public FacetedConfiguration() {
         facetedFields = Sets.newTreeSet();
+        rollupPivots = Sets.newTreeSet();
     }
 
     public static final String MINIMUM_COUNT = "facet.minimum.count";
@@ -38,6 +39,8 @@ public class FacetedConfiguration {
 
     protected SortedSet<String> facetedFields;
 
+    protected SortedSet<String> rollupPivots;
+
     protected int maximumFacetGroupCount = Integer.MAX_VALUE;
 
     protected boolean isStreaming = true;
@@ -133,6 +136,26 @@ public class FacetedConfiguration {
         return facetedFields.add(field);
     }
 
+    /**
+     * Sets the pivot fields whose facets are rolled up into weekly cubes in the facet table. This should match the {@code facet.rollup.pivots} ingest
+     * configuration, as weekly cubes are only looked for in the facets of these pivots.
+     *
+     * @param pivots
+     *            the rolled up pivot fields
+     */
+    public void setRollupPivots(final Set<String> pivots) {
+        this.rollupPivots = Sets.newTreeSet(pivots);
+    }
+
+    /**
+     * Return the sorted set of rolled up pivot fields.
+     *
+     * @return sorted set of rolled up pivot fields
+     */
+    public SortedSet<String> getRollupPivots() {
+        return rollupPivots;
+    }
+
     /**
      * Sets the maximum facet group count.
      *
@@ -197,7 +220,7 @@ public class FacetedConfiguration {
     @Override
     public String toString() {
         return "Maximum FacetGroupCount : " + maximumFacetGroupCount + "\n" + "Minimum Facet Count : " + minimumFacetCount + "\n" + "Faceted Fields: "
-                        + facetedFields + "\n" + "Faceted Table Name: " + facetTableName + "\n" + "Faceted Metadata Table Name: " + facetMetadataTableName
-                        + "\n" + "Faceted Hash Table Name: " + facetHashTableName + "\n";
+                        + facetedFields + "\n" + "Rollup Pivots: " + rollupPivots + "\n" + "Faceted Table Name: " + facetTableName + "\n"
+                        + "Faceted Metadata Table Name: " + facetMetadataTableName + "\n" + "Faceted Hash Table Name: " + facetHashTableName + "\n";
     }
 }
@@ -200,6 +200,14 @@ public class FacetedQueryLogic extends IndexQueryLogic {
         facetedConfig.setMaximumFacetGroupCount(maxGroup);
     }
 
+    /**
+     * @param rollupPivots
+     *            the pivot fields rolled up into weekly cubes at ingest
+     */
+    public void setRollupPivots(Set<String> rollupPivots) {
+        facetedConfig.setRollupPivots(rollupPivots);
+    }
+
     public void setFacetTableName(String facetTableName) {
         facetedConfig.setFacetTableName(facetTableName);
     }
@@ -0,0 +1,181 @@
+package datawave.query.tables.remote;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+import datawave.webservice.result.BaseQueryResponse;
+
+/**
+ * Reads the pages of a remote query ahead of the caller, so that the round trip for the next page overlaps with the caller working through the pages already
+ * read. A remote query serves its pages in order, so only one page is requested at a time, but up to the configured number of pages are held waiting for the
+ * caller. The fetcher holds a thread of a pool shared by every remote query only while there is room for another page, and is scheduled again as pages are
+ * taken, so a slow caller holds back the remote query rather than buffering its results.
+ */
+public class RemoteQueryPagePrefetcher {
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
+    // threads are created as fetchers need them, and expire once idle
+    private static final ExecutorService fetchers = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "RemoteQuery-prefetch-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Callable<BaseQueryResponse> nextPage;
+    private final Predicate<BaseQueryResponse> lastPage;
+    private final int capacity;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final ArrayDeque<BaseQueryResponse> pages;
+    private boolean fetching = false;
+    private boolean exhausted = false;
+    private boolean closed = false;
+    private Exception failure = null;
+
+    /**
+     * @param nextPage
+     *            requests the next page from the remote query, returning null when there are no more pages
+     * @param lastPage
+     *            whether a page is the last page of the remote query
+     * @param capacity
+     *            the most pages to read ahead
+     */
+    public RemoteQueryPagePrefetcher(Callable<BaseQueryResponse> nextPage, Predicate<BaseQueryResponse> lastPage, int capacity) {
+        this.nextPage = nextPage;
+        this.lastPage = lastPage;
+        this.capacity = Math.max(1, capacity);
+        this.pages = new ArrayDeque<>(this.capacity);
+        lock.lock();
+        try {
+            schedule();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Start a fetcher if there is room for another page and none is running. Must be called while holding the lock.
+     */
+    private void schedule() {
+        if (!fetching && !exhausted && !closed && pages.size() < capacity) {
+            fetching = true;
+            fetchers.execute(this::fetch);
+        }
+    }
+
+    private void fetch() {
+        try {
+            while (true) {
+                lock.lock();
+                try {
+                    if (closed || pages.size() >= capacity) {
+                        fetching = false;
+                        available.signalAll();
+                        return;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+
+                BaseQueryResponse page = nextPage.call();
+
+                lock.lock();
+                try {
+                    if (closed) {
+                        fetching = false;
+                        available.signalAll();
+                        return;
+                    }
+                    if (page != null) {
+                        pages.add(page);
+                    }
+                    if (page == null || lastPage.test(page)) {
+                        exhausted = true;
+                        fetching = false;
+                        available.signalAll();
+                        return;
+                    }
+                    available.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        } catch (Throwable t) {
+            lock.lock();
+            try {
+                failure = t instanceof Exception ? (Exception) t : new RuntimeException(t);
+                exhausted = true;
+                fetching = false;
+                available.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Take the next page, waiting for it to be read if need be. The pages read before a failure are returned before the failure is thrown.
+     *
+     * @return the next page, or null if there are no more pages
+     * @throws Exception
+     *             if reading the page failed, or if interrupted while waiting for it
+     */
+    public BaseQueryResponse take() throws Exception {
+        lock.lock();
+        try {
+            while (pages.isEmpty() && !exhausted && !closed) {
+                available.await();
+            }
+            if (!pages.isEmpty()) {
+                BaseQueryResponse page = pages.poll();
+                schedule();
+                return page;
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of pages read ahead
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return pages.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drop the pages read ahead and stop the fetcher, waiting for any page request in flight so that the remote query may then be closed.
+     */
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            pages.clear();
+            available.signalAll();
+            while (fetching) {
+                available.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -23,6 +23,7 @@ import org.apache.accumulo.core.client.ScannerBase;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
 import org.apache.accumulo.core.security.Authorizations;
 import org.apache.commons.lang.StringUtils;
 import org.apache.log4j.Logger;
@@ -123,11 +124,26 @@ public class IndexStatsQueryLogic extends BaseQueryLogic<FieldStat> {
 
         StatsMonkey monkey = new StatsMonkey();
         monkey.client = client;
-        monkey.table = TableName.INDEX_STATS;
+        monkey.table = getStatsTableName();
+        monkey.combiner = getStatsCombiner();
         List<FieldStat> stats = monkey.getStat(fields, qConf.getDatatypeFilter(), qConf.getBeginDate(), qConf.getEndDate());
         this.iterator = stats.iterator();
     }
 
+    /**
+     * @return the table the stats are read from
+     */
+    protected String getStatsTableName() {
+        return TableName.INDEX_STATS;
+    }
+
+    /**
+     * @return the iterator that combines the stats entries of each field into a single {@link IndexStatsRecord}
+     */
+    protected Class<? extends SortedKeyValueIterator<Key,Value>> getStatsCombiner() {
+        return IndexStatsSummingIterator.class;
+    }
+
     @Override
     public Object clone() throws CloneNotSupportedException {
         return new IndexStatsQueryLogic();
@@ -136,6 +152,7 @@ public class IndexStatsQueryLogic extends BaseQueryLogic<FieldStat> {
     private static class StatsMonkey {
         AccumuloClient client;
         String table;
+        Class<? extends SortedKeyValueIterator<Key,Value>> combiner;
 
         public List<FieldStat> getStat(Set<String> fields, Set<String> dataTypes, Date start, Date end) throws IOException {
             TreeSet<String> dates = new TreeSet<>();
@@ -201,7 +218,7 @@ public class IndexStatsQueryLogic extends BaseQueryLogic<FieldStat> {
             /*
              * considers the date ranges and datatypes when calculating a weight for a given field
              */
-            scanner.addScanIterator(new IteratorSetting(32, "issi", IndexStatsSummingIterator.class));
+            scanner.addScanIterator(new IteratorSetting(32, "issi", combiner));
         }
 
         public LinkedList<FieldStat> scanResults(Iterable<Entry<Key,Value>> data) {
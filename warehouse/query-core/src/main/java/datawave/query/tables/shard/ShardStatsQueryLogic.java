@@ -0,0 +1,39 @@
+package datawave.query.tables.shard;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+
+import datawave.query.index.stats.ShardStatsSketchIterator;
+import datawave.util.TableName;
+
+/**
+ * Returns the approximate count and number of unique values of each field over the queried dates and datatypes, read from the stats written by the shard stats
+ * job rather than counted from the index at query time. When the job writes its hyperlog sketches, the sketches of each field are merged on the tablet
+ * servers, so the number of unique values is estimated to within the error of the job's precision rather than summed over every date and datatype.
+ */
+public class ShardStatsQueryLogic extends IndexStatsQueryLogic {
+
+    private String statsTableName = TableName.SHARD_STATS;
+
+    @Override
+    protected String getStatsTableName() {
+        return statsTableName;
+    }
+
+    public void setStatsTableName(String statsTableName) {
+        this.statsTableName = statsTableName;
+    }
+
+    @Override
+    protected Class<? extends SortedKeyValueIterator<Key,Value>> getStatsCombiner() {
+        return ShardStatsSketchIterator.class;
+    }
+
+    @Override
+    public Object clone() throws CloneNotSupportedException {
+        ShardStatsQueryLogic logic = new ShardStatsQueryLogic();
+        logic.setStatsTableName(statsTableName);
+        return logic;
+    }
+}
@@ -4,4 +4,8 @@ public class SSDeepRuntimeQueryException extends RuntimeException {
     public SSDeepRuntimeQueryException(String message) {
         super(message);
     }
+
+    public SSDeepRuntimeQueryException(String message, Throwable cause) {
+        super(message, cause);
+    }
 }
@@ -2,6 +2,7 @@ package datawave.query.tables.ssdeep;
 
 import java.util.Collection;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Stream;
@@ -19,7 +20,7 @@ import datawave.util.ssdeep.ChunkSizeEncoding;
 import datawave.util.ssdeep.IntegerEncoding;
 import datawave.util.ssdeep.NGramTuple;
 import datawave.util.ssdeep.SSDeepHash;
-import datawave.util.ssdeep.SSDeepHashEditDistanceScorer;
+import datawave.util.ssdeep.SSDeepHashBatchEditDistanceScorer;
 import datawave.util.ssdeep.SSDeepHashScorer;
 import datawave.util.ssdeep.SSDeepNGramOverlapScorer;
 
@@ -57,7 +58,7 @@ public class SSDeepScoringFunction implements Function<Map.Entry<Key,Value>,Stre
     /** We'll toss out any matches that have scores less than this value. If set to 0 or less we'll keep all hashes */
     private final int minScoreThreshold;
 
-    private final SSDeepHashScorer<Integer> editDistanceScorer;
+    private final SSDeepHashBatchEditDistanceScorer editDistanceScorer;
 
     private final SSDeepHashScorer<Set<NGramTuple>> ngramOverlapScorer;
 
@@ -73,7 +74,7 @@ public class SSDeepScoringFunction implements Function<Map.Entry<Key,Value>,Stre
 
         this.minScoreThreshold = readOptionalMinScoreThreshold(config.getQuery());
 
-        this.editDistanceScorer = new SSDeepHashEditDistanceScorer(maxRepeatedCharacters);
+        this.editDistanceScorer = new SSDeepHashBatchEditDistanceScorer(maxRepeatedCharacters);
         this.ngramOverlapScorer = new SSDeepNGramOverlapScorer(config.getNGramSize(), maxRepeatedCharacters, config.getMinHashSize());
     }
 
@@ -121,35 +122,90 @@ public class SSDeepScoringFunction implements Function<Map.Entry<Key,Value>,Stre
         // generally, the rowid consists of a:
         // - bucket; first two characters based on a hash of the original ssdeep
         // - chunk; third character,
-        // - ngram; the rest of the rowid.
+        // - ngram; the rest of the rowid, or a minhash band key when the index was built with SSDeepMinHashGenerator.
         // the column family holds the chunk size.
         // the column qualifier holds the original ssdeep hash from which the ngram was extracted.
         final Key k = entry.getKey();
+        final SSDeepHash matchingHash = getMatchingHash(k);
+
+        // score the match between each query ssdeep and matching hash, keep those that exceed the match
+        // threshold.
+        return getQueryHashes(k).stream().flatMap(queryHash -> score(queryHash, matchingHash).stream());
+    }
+
+    /**
+     * Extract the matching SSDeep hash from the column qualifier of a key returned by Accumulo.
+     *
+     * @param k
+     *            a key that follows the SSDeep bucket index format
+     * @return the matching ssdeep hash
+     */
+    public SSDeepHash getMatchingHash(Key k) {
+        return SSDeepHash.parse(k.getColumnQualifier().toString());
+    }
+
+    /**
+     * Extract the query SSDeep hashes that caused a key to be retrieved, using the ngram or band key and chunk size in its rowId.
+     *
+     * @param k
+     *            a key that follows the SSDeep bucket index format
+     * @return the query ssdeep hashes that contain the ngram or band key of the row
+     */
+    public Collection<SSDeepHash> getQueryHashes(Key k) {
         final String row = k.getRow().toString();
 
         // strip off the bucketing to extract the matching ngram and chunk size from the rowId.
         int chunkSize = chunkSizeEncoding.decode(row.substring(chunkStart, chunkEnd));
         String ngram = row.substring(chunkEnd);
 
-        // extract the matching ssdeep hash from the column qualifier
-        final String matchingHashString = k.getColumnQualifier().toString();
-        final SSDeepHash matchingHash = SSDeepHash.parse(matchingHashString);
-
         // extract the query ssdeeps that contained this ngram from the query map.
-        final NGramTuple matchingNgram = new NGramTuple(chunkSize, ngram);
-        Collection<SSDeepHash> queryHashes = queryMap.get(matchingNgram);
+        return queryMap.get(new NGramTuple(chunkSize, ngram));
+    }
 
-        // score the match between each query ssdeep and matching hash, keep those that exceed the match
-        // threshold.
-        return queryHashes.stream().flatMap(queryHash -> {
+    /**
+     * Score the match between a query ssdeep and a matching hash.
+     *
+     * @param queryHash
+     *            the query ssdeep
+     * @param matchingHash
+     *            the matching ssdeep
+     * @return the scored pair, or empty if its score does not exceed the minimum score threshold
+     */
+    public Optional<ScoredSSDeepPair> score(SSDeepHash queryHash, SSDeepHash matchingHash) {
+        return score(queryHash, matchingHash, scoreEditDistance(queryHash, matchingHash));
+    }
+
+    /**
+     * Calculate the edit distance score between a query ssdeep and a matching hash, without applying the minimum score threshold.
+     *
+     * @param queryHash
+     *            the query ssdeep
+     * @param matchingHash
+     *            the matching ssdeep
+     * @return the weighted score of the pair
+     */
+    public int scoreEditDistance(SSDeepHash queryHash, SSDeepHash matchingHash) {
+        return editDistanceScorer.apply(queryHash, matchingHash);
+    }
+
+    /**
+     * Complete the match between a query ssdeep and a matching hash whose weighted score was already calculated.
+     *
+     * @param queryHash
+     *            the query ssdeep
+     * @param matchingHash
+     *            the matching ssdeep
+     * @param weightedScore
+     *            the edit distance score of the pair
+     * @return the scored pair, or empty if its score does not exceed the minimum score threshold
+     */
+    public Optional<ScoredSSDeepPair> score(SSDeepHash queryHash, SSDeepHash matchingHash, int weightedScore) {
+        if (minScoreThreshold <= 0 || weightedScore > minScoreThreshold) {
             Set<NGramTuple> overlappingNGrams = ngramOverlapScorer.apply(queryHash, matchingHash);
-            int weightedScore = editDistanceScorer.apply(queryHash, matchingHash);
-            if (minScoreThreshold <= 0 || weightedScore > minScoreThreshold) {
-                return Stream.of(new ScoredSSDeepPair(queryHash, matchingHash, overlappingNGrams, weightedScore));
-            } else {
-                return Stream.empty();
-            }
-        });
+            return Optional.of(new ScoredSSDeepPair(queryHash, matchingHash, overlappingNGrams, weightedScore));
+        } else {
+            return Optional.empty();
+        }
     }
 
 }
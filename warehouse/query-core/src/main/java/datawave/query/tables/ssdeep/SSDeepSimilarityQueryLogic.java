@@ -22,6 +22,7 @@ import datawave.core.query.configuration.GenericQueryConfiguration;
 import datawave.core.query.logic.BaseQueryLogic;
 import datawave.core.query.logic.QueryLogicTransformer;
 import datawave.microservice.query.Query;
+import datawave.microservice.query.QueryImpl;
 import datawave.query.config.SSDeepSimilarityQueryConfiguration;
 import datawave.query.tables.ScannerFactory;
 import datawave.util.ssdeep.ChunkSizeEncoding;
@@ -29,12 +30,16 @@ import datawave.util.ssdeep.IntegerEncoding;
 import datawave.util.ssdeep.NGramGenerator;
 import datawave.util.ssdeep.NGramTuple;
 import datawave.util.ssdeep.SSDeepHash;
+import datawave.util.ssdeep.SSDeepMinHashGenerator;
 import datawave.webservice.query.exception.QueryException;
 
 public class SSDeepSimilarityQueryLogic extends BaseQueryLogic<ScoredSSDeepPair> {
 
     private static final Logger log = Logger.getLogger(SSDeepSimilarityQueryLogic.class);
 
+    /** Query parameter used to limit the results to the best matches of each query hash */
+    public static final String TOP_K_PARAMETER = "topK";
+
     private SSDeepSimilarityQueryConfiguration config;
 
     ScannerFactory scannerFactory;
@@ -64,6 +69,7 @@ public class SSDeepSimilarityQueryLogic extends BaseQueryLogic<ScoredSSDeepPair>
         config.setClient(accumuloClient);
         config.setAuthorizations(auths);
         this.scannerFactory = new ScannerFactory(config);
+        readOptionalTopK(settings, config);
         setupRanges(settings, config);
         return config;
     }
@@ -85,7 +91,12 @@ public class SSDeepSimilarityQueryLogic extends BaseQueryLogic<ScoredSSDeepPair>
             // must be called after setRanges so that we get the query map from the config.
             final SSDeepScoringFunction scoringFunction = new SSDeepScoringFunction(config);
 
-            this.iterator = scanner.stream().flatMap(scoringFunction).distinct().iterator();
+            if (config.getTopK() > 0) {
+                final SSDeepTopKScorer scorer = new SSDeepTopKScorer(scoringFunction, config.getTopK(), config.getScoringThreads());
+                this.iterator = scorer.iterator(scanner.iterator());
+            } else {
+                this.iterator = scanner.stream().flatMap(scoringFunction).distinct().iterator();
+            }
             this.scanner = scanner;
 
         } catch (TableNotFoundException e) {
@@ -93,9 +104,35 @@ public class SSDeepSimilarityQueryLogic extends BaseQueryLogic<ScoredSSDeepPair>
         }
     }
 
+    /**
+     * Extract the number of best matches to return for each query hash from the query parameters, if present.
+     *
+     * @param settings
+     *            the query that has the parameters we want to read.
+     * @param config
+     *            write the number of matches to this object.
+     */
+    private void readOptionalTopK(Query settings, SSDeepSimilarityQueryConfiguration config) {
+        QueryImpl.Parameter topKParameter = settings.findParameter(TOP_K_PARAMETER);
+        if (topKParameter != null) {
+            String topKString = topKParameter.getParameterValue();
+            try {
+                int topK = Integer.parseInt(topKString);
+                if (topK < 0) {
+                    log.warn("Ssdeep topK must not be negative, but was " + topKString + ", ignoring " + TOP_K_PARAMETER + " parameter.");
+                } else {
+                    config.setTopK(topK);
+                }
+            } catch (NumberFormatException e) {
+                log.warn("Number format exception encountered when parsing topK of '" + topKString + "' ignoring " + TOP_K_PARAMETER + " parameter.");
+            }
+        }
+    }
+
     /**
      * Process the query to create the ngrams for the ranges to scan in accumulo. Store these in the configs along with a map that can be used to identify which
-     * SSDeepHash each query ngram originated from.
+     * SSDeepHash each query ngram originated from. When minhash bands are configured, the band keys of the query hashes are scanned instead of their ngrams,
+     * which retrieves far fewer candidates that share only a handful of common ngrams with the query.
      *
      * @param settings
      *            the query we will be running.
@@ -117,7 +154,14 @@ public class SSDeepSimilarityQueryLogic extends BaseQueryLogic<ScoredSSDeepPair>
             queries = queries.stream().map(h -> h.normalize(maxRepeatedCharacters)).collect(Collectors.toSet());
         }
 
-        final Multimap<NGramTuple,SSDeepHash> queryMap = nGramEngine.preprocessQueries(queries);
+        final Multimap<NGramTuple,SSDeepHash> queryMap;
+        if (config.getMinHashBands() > 0) {
+            final SSDeepMinHashGenerator minHashEngine = new SSDeepMinHashGenerator(config.getNGramSize(), maxRepeatedCharacters, config.getMinHashSize(),
+                            config.getMinHashBands(), config.getMinHashRowsPerBand());
+            queryMap = minHashEngine.preprocessQueries(queries);
+        } else {
+            queryMap = nGramEngine.preprocessQueries(queries);
+        }
         final Set<Range> ranges = new TreeSet<>();
 
         final IntegerEncoding bucketEncoder = new IntegerEncoding(config.getBucketEncodingBase(), config.getBucketEncodingLength());
@@ -186,7 +230,7 @@ public class SSDeepSimilarityQueryLogic extends BaseQueryLogic<ScoredSSDeepPair>
 
     @Override
     public Set<String> getOptionalQueryParameters() {
-        return Collections.emptySet();
+        return Collections.singleton(TOP_K_PARAMETER);
     }
 
     @Override
@@ -218,4 +262,20 @@ public class SSDeepSimilarityQueryLogic extends BaseQueryLogic<ScoredSSDeepPair>
     public void setBucketEncodingLength(int bucketEncodingLength) {
         getConfig().setBucketEncodingLength(bucketEncodingLength);
     }
+
+    public void setMinHashBands(int minHashBands) {
+        getConfig().setMinHashBands(minHashBands);
+    }
+
+    public void setMinHashRowsPerBand(int minHashRowsPerBand) {
+        getConfig().setMinHashRowsPerBand(minHashRowsPerBand);
+    }
+
+    public void setTopK(int topK) {
+        getConfig().setTopK(topK);
+    }
+
+    public void setScoringThreads(int scoringThreads) {
+        getConfig().setScoringThreads(scoringThreads);
+    }
 }
@@ -0,0 +1,206 @@
+package datawave.query.tables.ssdeep;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.log4j.Logger;
+
+import com.google.common.collect.AbstractIterator;
+
+import datawave.util.ssdeep.SSDeepHash;
+
+/**
+ * Scores the candidates retrieved by an SSDeep similarity query and keeps only the best <code>topK</code> matches for each query hash.
+ * <p>
+ * The candidates are streamed from the scanner in batches of pairs of query and matching hash. The edit distances of a batch are spread across a fork-join pool
+ * of the configured number of threads, and each pair is then offered to a bounded min-heap of the best candidates of its query hash, so no more than a batch of
+ * pairs and <code>topK</code> candidates per query hash are held at once. A pair that shares several ngrams or band keys with a query is retrieved several
+ * times, but it only ever holds one place in the heap, and a pair that was rejected once is rejected again with the same score. The ngram overlap, which is
+ * much more expensive than the edit distance, is only calculated for the candidates which are returned.
+ */
+public class SSDeepTopKScorer {
+
+    private static final Logger log = Logger.getLogger(SSDeepTopKScorer.class);
+
+    /** The number of pairs of query and matching hash whose edit distances are calculated together */
+    private static final int BATCH_SIZE = 1024;
+
+    private final SSDeepScoringFunction scoringFunction;
+    private final int topK;
+    private final int threads;
+
+    public SSDeepTopKScorer(SSDeepScoringFunction scoringFunction, int topK, int threads) {
+        this.scoringFunction = scoringFunction;
+        this.topK = topK;
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Score the candidates retrieved from Accumulo once the first result is requested, rather than when the query is set up.
+     *
+     * @param entries
+     *            the entries retrieved from the SSDeep index
+     * @return the best matches of each query hash, ordered by query hash and then by descending score
+     */
+    public Iterator<ScoredSSDeepPair> iterator(final Iterator<Map.Entry<Key,Value>> entries) {
+        return new AbstractIterator<>() {
+            private Iterator<ScoredSSDeepPair> results;
+
+            @Override
+            protected ScoredSSDeepPair computeNext() {
+                if (results == null) {
+                    try {
+                        results = score(entries).iterator();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SSDeepRuntimeQueryException("Interrupted while scoring ssdeep candidates", e);
+                    }
+                }
+                return results.hasNext() ? results.next() : endOfData();
+            }
+        };
+    }
+
+    /**
+     * Score the candidates retrieved from Accumulo.
+     *
+     * @param entries
+     *            the entries retrieved from the SSDeep index
+     * @return the best matches of each query hash, ordered by query hash and then by descending score
+     * @throws InterruptedException
+     *             if interrupted while waiting for the scoring threads
+     */
+    public List<ScoredSSDeepPair> score(Iterator<Map.Entry<Key,Value>> entries) throws InterruptedException {
+        final SortedMap<SSDeepHash,TopCandidates> candidates = new TreeMap<>();
+        final SSDeepHash[] queryHashes = new SSDeepHash[BATCH_SIZE];
+        final SSDeepHash[] matchingHashes = new SSDeepHash[BATCH_SIZE];
+        final int[] scores = new int[BATCH_SIZE];
+        long pairs = 0;
+
+        // the edit distances are calculated in the pool of the thread that runs the parallel stream, so use a pool of our own
+        final ForkJoinPool pool = threads > 1 ? new ForkJoinPool(threads) : null;
+        try {
+            int size = 0;
+            while (entries.hasNext()) {
+                final Key k = entries.next().getKey();
+                final Collection<SSDeepHash> keyQueryHashes = scoringFunction.getQueryHashes(k);
+                if (keyQueryHashes.isEmpty()) {
+                    continue;
+                }
+
+                final SSDeepHash matchingHash = scoringFunction.getMatchingHash(k);
+                for (SSDeepHash queryHash : keyQueryHashes) {
+                    queryHashes[size] = queryHash;
+                    matchingHashes[size] = matchingHash;
+                    if (++size == BATCH_SIZE) {
+                        scoreBatch(pool, queryHashes, matchingHashes, scores, size, candidates);
+                        pairs += size;
+                        size = 0;
+                    }
+                }
+            }
+            scoreBatch(pool, queryHashes, matchingHashes, scores, size, candidates);
+            pairs += size;
+        } finally {
+            if (pool != null) {
+                pool.shutdownNow();
+            }
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug("Scored " + pairs + " candidate pairs for " + candidates.size() + " query hashes with " + threads + " threads");
+        }
+
+        final List<ScoredSSDeepPair> results = new ArrayList<>();
+        for (Map.Entry<SSDeepHash,TopCandidates> entry : candidates.entrySet()) {
+            entry.getValue().addTo(entry.getKey(), results);
+        }
+        return results;
+    }
+
+    private void scoreBatch(ForkJoinPool pool, SSDeepHash[] queryHashes, SSDeepHash[] matchingHashes, int[] scores, int size,
+                    SortedMap<SSDeepHash,TopCandidates> candidates) throws InterruptedException {
+        if (pool == null || size < 2) {
+            for (int i = 0; i < size; i++) {
+                scores[i] = scoringFunction.scoreEditDistance(queryHashes[i], matchingHashes[i]);
+            }
+        } else {
+            try {
+                pool.submit(() -> IntStream.range(0, size).parallel()
+                                .forEach(i -> scores[i] = scoringFunction.scoreEditDistance(queryHashes[i], matchingHashes[i]))).get();
+            } catch (ExecutionException e) {
+                throw new SSDeepRuntimeQueryException("Unable to score ssdeep candidates", e.getCause());
+            }
+        }
+
+        for (int i = 0; i < size; i++) {
+            candidates.computeIfAbsent(queryHashes[i], q -> new TopCandidates()).offer(matchingHashes[i], scores[i]);
+        }
+    }
+
+    /**
+     * A matching hash and the edit distance score of its pair with a query hash
+     */
+    private static class Candidate {
+        private final SSDeepHash matchingHash;
+        private final int score;
+
+        Candidate(SSDeepHash matchingHash, int score) {
+            this.matchingHash = matchingHash;
+            this.score = score;
+        }
+    }
+
+    /**
+     * The best candidates of a single query hash
+     */
+    private class TopCandidates {
+        // the head of the heap is the worst of the best candidates, ties are broken in favor of the lowest matching hash
+        private final Comparator<Candidate> order = Comparator.<Candidate> comparingInt(c -> c.score)
+                        .thenComparing(c -> c.matchingHash, Comparator.reverseOrder());
+        private final PriorityQueue<Candidate> heap = new PriorityQueue<>(order);
+        private final Set<SSDeepHash> members = new HashSet<>();
+
+        void offer(SSDeepHash matchingHash, int score) {
+            if (members.contains(matchingHash)) {
+                return;
+            }
+
+            final Candidate candidate = new Candidate(matchingHash, score);
+            if (heap.size() < topK) {
+                heap.add(candidate);
+                members.add(matchingHash);
+            } else if (order.compare(candidate, heap.peek()) > 0) {
+                members.remove(heap.poll().matchingHash);
+                heap.add(candidate);
+                members.add(matchingHash);
+            }
+        }
+
+        void addTo(SSDeepHash queryHash, List<ScoredSSDeepPair> results) {
+            // the heap yields the candidates from worst to best
+            final List<ScoredSSDeepPair> best = new ArrayList<>(heap.size());
+            while (!heap.isEmpty()) {
+                final Candidate candidate = heap.poll();
+                scoringFunction.score(queryHash, candidate.matchingHash, candidate.score).ifPresent(best::add);
+            }
+            for (int i = best.size() - 1; i >= 0; i--) {
+                results.add(best.get(i));
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package datawave.query.transformer;
 
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.text.SimpleDateFormat;
@@ -594,12 +595,34 @@ public abstract class DocumentTransformerSupport<I,O> extends EventQueryTransfor
         transform.initialize(settings, markingFunctions);
 
         if (replacementIndex != -1) {
-            transforms.set(replacementIndex, transform);
+            DocumentTransform replaced = transforms.set(replacementIndex, transform);
+            if (replaced != transform) {
+                closeTransform(replaced);
+            }
         } else {
             transforms.add(transform);
         }
     }
 
+    /**
+     * Close the document transforms which hold resources, such as the signatures spilled to local disk by a {@link UniqueTransform}
+     */
+    public void closeTransforms() {
+        for (DocumentTransform transform : transforms) {
+            closeTransform(transform);
+        }
+    }
+
+    private void closeTransform(DocumentTransform transform) {
+        if (transform instanceof Closeable) {
+            try {
+                ((Closeable) transform).close();
+            } catch (IOException e) {
+                log.warn("Failed to close document transform " + transform.getClass().getSimpleName(), e);
+            }
+        }
+    }
+
     /**
      * Determine whether the list of transforms already contains an instance of the specified DocumentTransform type
      *
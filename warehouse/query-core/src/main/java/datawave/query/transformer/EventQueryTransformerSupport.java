@@ -150,6 +150,14 @@ public abstract class EventQueryTransformerSupport<I,O> extends BaseQueryLogicTr
         return response;
     }
 
+    /**
+     * The response of a page is its events as they are, unless it is enriched
+     */
+    @Override
+    public boolean isStreamable() {
+        return getResponseEnricher() == null;
+    }
+
     protected FieldBase<?> makeField(String name, Map<String,String> markings, String columnVisibility, Long timestamp, Object value) {
         FieldBase<?> field = this.responseObjectFactory.getField();
         field.setName(name);
@@ -29,7 +29,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.collect.Iterators;
-import com.google.protobuf.InvalidProtocolBufferException;
 
 import datawave.common.util.ArgumentChecker;
 import datawave.ingest.protobuf.TermWeight;
@@ -46,6 +45,11 @@ import datawave.query.iterator.logic.TermFrequencyExcerptIterator;
 import datawave.query.postprocessing.tf.PhraseIndexes;
 import datawave.query.postprocessing.tf.PhraseOffset;
 
+/**
+ * Adds excerpts of the hit terms and phrases of the excerpt fields to each document. The term frequencies of the excerpt fields of a document are read once,
+ * for both its hit term offsets and its excerpts, and as the documents of a tablet arrive in key order a later document of the same row is read by moving
+ * forward over the term frequencies rather than seeking to it. Documents from concurrent evaluation pipelines are excerpted one at a time.
+ */
 public class ExcerptTransform extends DocumentTransform.DefaultDocumentTransform {
 
     private static final Logger log = LoggerFactory.getLogger(ExcerptTransform.class);
@@ -78,7 +82,7 @@ public class ExcerptTransform extends DocumentTransform.DefaultDocumentTransform
 
     @Nullable
     @Override
-    public Entry<Key,Document> apply(@Nullable Entry<Key,Document> entry) {
+    public synchronized Entry<Key,Document> apply(@Nullable Entry<Key,Document> entry) {
         if (entry != null) {
             Document document = entry.getValue();
             // Do not bother adding excerpts to transient documents.
@@ -161,19 +165,12 @@ public class ExcerptTransform extends DocumentTransform.DefaultDocumentTransform
         String fieldName = hitTuple.getFieldName();
         String eventId = keyToEventId(docKey);
 
-        // get the key at which we would find the term frequencies
-        Key tfKey = new Key(docKey.getRow().toString(), Constants.TERM_FREQUENCY_COLUMN_FAMILY.toString(),
-                        docKey.getColumnFamily().toString() + '\u0000' + hitTuple.getValue() + '\u0000' + hitTuple.getFieldName());
-        Range range = new Range(tfKey, tfKey.followingKey(PartialKey.ROW_COLFAM_COLQUAL));
         try {
-            // seek directly to that key
-            source.seek(range, Collections.emptyList(), false);
-            if (source.hasTop()) {
+            // read the term frequencies of the excerpt fields of the document, which are kept for its excerpts
+            TermWeight.Info twInfo = excerptIterator.getTermWeight(source, excerptFields.getFields(), docKey, fieldName, String.valueOf(hitTuple.getValue()));
+            if (twInfo != null) {
                 TermWeightPosition pos = null;
 
-                // parse the term frequencies
-                TermWeight.Info twInfo = TermWeight.Info.parseFrom(source.getTopValue().get());
-
                 // if we have phrase indexes, then find one that overlaps if any
                 if (phraseIndexes != null) {
                     pos = phraseIndexes.getOverlappingPosition(fieldName, eventId, twInfo);
@@ -189,10 +186,8 @@ public class ExcerptTransform extends DocumentTransform.DefaultDocumentTransform
                 return pos;
             }
 
-        } catch (InvalidProtocolBufferException e) {
-            log.error("Value passed to aggregator was not of type TermWeight.Info for {}", tfKey, e);
         } catch (IOException e) {
-            log.error("Failed to scan for term frequencies at {}", tfKey, e);
+            log.error("Failed to scan for term frequencies of {} in {} for {}", fieldName, eventId.replace('\u0000', '/'), hitTuple.getValue(), e);
         }
         return null;
     }
@@ -339,6 +334,9 @@ public class ExcerptTransform extends DocumentTransform.DefaultDocumentTransform
                 excerptIterator.setHitTermsList(hitTermValues);
                 excerptIterator.setDirection(excerptFields.getDirection(field).toUpperCase().trim());
                 excerptIterator.setOrigHalfSize(origHalfSize);
+                // keep the term frequencies of every excerpt field for this document, so that the other phrases, fields, and a second attempt
+                // for the same document do not have to scan it again
+                excerptIterator.setCachedFields(excerptFields.getFields());
                 // if this is the second attempt, we want the iterator to trim the excerpt down to the size we want.
                 // (remember we run the iterator with an expanded range the second time so we can potentially have a bigger excerpt than needed even after
                 // removing stop words)
@@ -163,6 +163,12 @@ public class FacetedTransformer extends DocumentTransformerSupport<Entry<Key,Val
         return facetedResponse;
     }
 
+    @Override
+    public boolean isStreamable() {
+        // the results of a page are facets rather than events
+        return false;
+    }
+
     @Override
     public BaseQueryResponse createResponse(List<Object> resultList) {
         FacetQueryResponseBase response = responseObjectFactory.getFacetQueryResponse();
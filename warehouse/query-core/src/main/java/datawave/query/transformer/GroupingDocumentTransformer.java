@@ -68,6 +68,12 @@ public class GroupingDocumentTransformer extends DocumentTransformer {
         }
     }
 
+    @Override
+    public boolean isStreamable() {
+        // the events of a page are aggregated
+        return false;
+    }
+
     @Override
     /**
      * count the desired fields and create a new response with one event.
@@ -0,0 +1,136 @@
+package datawave.query.transformer;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import org.apache.accumulo.core.data.Key;
+import org.slf4j.Logger;
+
+import com.google.common.collect.Maps;
+
+import datawave.query.attributes.Document;
+import datawave.query.attributes.SortFields;
+import datawave.query.common.sort.TopDocuments;
+import datawave.query.iterator.profile.FinalDocumentTrackingIterator;
+import datawave.query.jexl.JexlASTHelper;
+
+/**
+ * SortTransform mimics ORDER BY with a LIMIT in SQL. Each scan session returns only its own first documents in the order given by the sort fields, and this
+ * transform keeps the first of those across all scan sessions, returning them in sorted order once every scan session has finished. At most the limit of
+ * documents are held at once, however many the query matches. Fields returned only so that the documents could be ordered by them are removed from the sorted
+ * documents.
+ */
+public class SortTransform extends DocumentTransform.DefaultDocumentTransform {
+
+    private static final Logger log = getLogger(SortTransform.class);
+
+    /**
+     * the fields (user provided) to order by
+     */
+    private SortFields sortFields;
+
+    /**
+     * the most documents to return
+     */
+    private int limit;
+
+    /**
+     * the fields added to the projection only to order by, which are removed before the documents are returned
+     */
+    private Set<String> sortOnlyFields = Collections.emptySet();
+
+    private TopDocuments topDocuments;
+
+    /**
+     * the documents to return in sorted order, set once the results have been exhausted
+     */
+    private Iterator<Entry<Key,Document>> sorted = null;
+
+    /**
+     * Length of time in milliseconds that a client will wait while results are collected. If a full page is not collected before the timeout, a blank page will
+     * be returned to signal the request is still in progress.
+     */
+    private final long queryExecutionForPageTimeout;
+
+    /**
+     * Constructor
+     *
+     * @param sortFields
+     *            the fields (user provided) to order by
+     * @param limit
+     *            the most documents to return
+     * @param sortOnlyFields
+     *            the fields to remove from the documents once sorted
+     * @param queryExecutionForPageTimeout
+     *            how long (in milliseconds) to let a page of results to collect before signaling to return a blank page to the client
+     */
+    public SortTransform(SortFields sortFields, int limit, Set<String> sortOnlyFields, long queryExecutionForPageTimeout) {
+        this.queryExecutionForPageTimeout = queryExecutionForPageTimeout;
+        updateConfig(sortFields, limit, sortOnlyFields);
+    }
+
+    public void updateConfig(SortFields sortFields, int limit, Set<String> sortOnlyFields) {
+        this.sortOnlyFields = sortOnlyFields == null ? Collections.emptySet() : sortOnlyFields;
+        if (!sortFields.equals(this.sortFields) || limit != this.limit) {
+            this.sortFields = sortFields;
+            this.limit = limit;
+            this.topDocuments = new TopDocuments(sortFields, limit);
+            this.sorted = null;
+        }
+    }
+
+    @Nullable
+    @Override
+    public Entry<Key,Document> apply(@Nullable Entry<Key,Document> keyDocumentEntry) {
+        if (keyDocumentEntry != null) {
+            // If this is a final document, pass it through without keeping it
+            if (FinalDocumentTrackingIterator.isFinalDocumentKey(keyDocumentEntry.getKey())) {
+                return keyDocumentEntry;
+            }
+
+            log.trace("offering {}", keyDocumentEntry);
+            topDocuments.offer(keyDocumentEntry);
+        }
+
+        long elapsedExecutionTimeForCurrentPage = System.currentTimeMillis() - this.queryExecutionForPageStartTime;
+        if (elapsedExecutionTimeForCurrentPage > this.queryExecutionForPageTimeout) {
+            log.debug("Generating intermediate result because over {}ms has been reached since {}", this.queryExecutionForPageTimeout,
+                            this.queryExecutionForPageStartTime);
+            Document intermediateResult = new Document();
+            intermediateResult.setIntermediateResult(true);
+            return Maps.immutableEntry(new Key(), intermediateResult);
+        }
+
+        return null;
+    }
+
+    @Override
+    public Entry<Key,Document> flush() {
+        if (sorted == null) {
+            log.debug("flushing {} sorted documents", topDocuments.size());
+            sorted = topDocuments.drainSorted().iterator();
+        }
+        if (sorted.hasNext()) {
+            Entry<Key,Document> entry = sorted.next();
+            removeSortOnlyFields(entry.getValue());
+            return entry;
+        }
+        return null;
+    }
+
+    private void removeSortOnlyFields(Document document) {
+        if (!sortOnlyFields.isEmpty()) {
+            for (String field : Set.copyOf(document.getDictionary().keySet())) {
+                if (sortOnlyFields.contains(JexlASTHelper.removeGroupingContext(field))) {
+                    document.remove(field);
+                }
+            }
+        }
+    }
+}
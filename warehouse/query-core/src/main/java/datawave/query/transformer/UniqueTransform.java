@@ -1,16 +1,16 @@
 package datawave.query.transformer;
 
 import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.TreeSet;
-import java.util.stream.Collectors;
 
 import javax.annotation.Nullable;
 
@@ -22,7 +22,6 @@ import com.google.common.base.Predicate;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
-import com.google.common.hash.BloomFilter;
 import com.google.common.hash.Funnel;
 import com.google.common.hash.PrimitiveSink;
 
@@ -34,19 +33,38 @@ import datawave.query.attributes.UniqueFields;
 import datawave.query.iterator.profile.FinalDocumentTrackingIterator;
 import datawave.query.model.QueryModel;
 import datawave.query.tables.ShardQueryLogic;
+import datawave.query.util.sortedset.SpillingByteArraySet;
 
 /**
  * This iterator will filter documents based on uniqueness across a set of configured fields. Only the first instance of an event with a unique set of those
- * fields will be returned. This transform is thread safe.
+ * fields will be returned. The signatures of the documents seen are kept exactly, in a {@link SpillingByteArraySet}, which is deleted from local disk when
+ * this transform is closed. Each signature is written into one reused buffer, so checking a document only allocates its transformed values. This transform is
+ * thread safe.
  */
-public class UniqueTransform extends DocumentTransform.DefaultDocumentTransform {
+public class UniqueTransform extends DocumentTransform.DefaultDocumentTransform implements Closeable {
 
     private static final Logger log = Logger.getLogger(UniqueTransform.class);
 
-    private BloomFilter<byte[]> bloom;
+    /**
+     * The default number of bytes of document signatures to hold in memory
+     */
+    public static final long DEFAULT_MAX_MEMORY = 64L * 1024 * 1024;
+
+    private final long maxMemory;
+    private SpillingByteArraySet signatures;
     private UniqueFields uniqueFields;
     private Multimap<String,String> modelMapping;
 
+    // cached for the document fields which match no unique field, and compared by identity
+    private static final String NO_UNIQUE_FIELD = new String("");
+
+    // the unique field for each document field seen
+    private final Map<String,String> uniqueFieldCache = new HashMap<>();
+    // reused to build the signature of each document, guarded by this
+    private final SignatureBuffer signature = new SignatureBuffer();
+    private final DataOutputStream signatureOutput = new DataOutputStream(signature);
+    private final List<String> signatureValues = new ArrayList<>();
+
     /**
      * Length of time in milliseconds that a client will wait while results are collected. If a full page is not collected before the timeout, a blank page will
      * be returned to signal the request is still in progress.
@@ -54,8 +72,8 @@ public class UniqueTransform extends DocumentTransform.DefaultDocumentTransform
     private final long queryExecutionForPageTimeout;
 
     /**
-     * Create a new {@link UniqueTransform} that will use a bloom filter to return on those results that are unique per the uniqueFields. Special uniqueness can
-     * be requested for date/time fields (@see UniqueFields).
+     * Create a new {@link UniqueTransform} that will return only those results that are unique per the uniqueFields, spilling the signatures of the results
+     * seen to local disk once they pass {@link #DEFAULT_MAX_MEMORY}. Special uniqueness can be requested for date/time fields (@see UniqueFields).
      *
      * @param uniqueFields
      *            The unique fields
@@ -64,19 +82,35 @@ public class UniqueTransform extends DocumentTransform.DefaultDocumentTransform
      *            for the next unique result.
      */
     public UniqueTransform(UniqueFields uniqueFields, long queryExecutionForPageTimeout) {
+        this(uniqueFields, queryExecutionForPageTimeout, DEFAULT_MAX_MEMORY);
+    }
+
+    /**
+     * Create a new {@link UniqueTransform} that will return only those results that are unique per the uniqueFields. Special uniqueness can be requested for
+     * date/time fields (@see UniqueFields).
+     *
+     * @param uniqueFields
+     *            The unique fields
+     * @param queryExecutionForPageTimeout
+     *            If this timeout is passed before since the last result was returned, then an "intermediate" result is returned denoting we are still looking
+     *            for the next unique result.
+     * @param maxMemory
+     *            The number of bytes of document signatures to hold in memory before spilling them to local disk
+     */
+    public UniqueTransform(UniqueFields uniqueFields, long queryExecutionForPageTimeout, long maxMemory) {
         this.queryExecutionForPageTimeout = queryExecutionForPageTimeout;
         this.uniqueFields = uniqueFields;
         this.uniqueFields.deconstructIdentifierFields();
-        this.bloom = BloomFilter.create(new ByteFunnel(), 500000, 1e-15);
+        this.maxMemory = maxMemory;
+        this.signatures = new SpillingByteArraySet(maxMemory);
         if (log.isTraceEnabled()) {
             log.trace("unique fields: " + this.uniqueFields.getFields());
         }
     }
 
     /**
-     * Create a new {@link UniqueTransform} that will use a bloom filter to return on those results that are unique per the uniqueFields. Special uniqueness can
-     * be requested for date/time fields (@see UniqueFields). The logic will be used to get a query model to include the reverse mappings in the unique field
-     * set
+     * Create a new {@link UniqueTransform} that will return only those results that are unique per the uniqueFields. Special uniqueness can be requested for
+     * date/time fields (@see UniqueFields). The logic will be used to get a query model to include the reverse mappings in the unique field set
      *
      * @param logic
      *            The query logic from whih to pull the query model
@@ -98,13 +132,14 @@ public class UniqueTransform extends DocumentTransform.DefaultDocumentTransform
         }
     }
 
-    public void updateConfig(UniqueFields uniqueFields, QueryModel model) {
+    public synchronized void updateConfig(UniqueFields uniqueFields, QueryModel model) {
+        uniqueFieldCache.clear();
         if (this.uniqueFields != uniqueFields) {
             uniqueFields.deconstructIdentifierFields();
             if (!this.uniqueFields.equals(uniqueFields)) {
                 this.uniqueFields = uniqueFields;
                 log.info("Resetting unique fields on the unique transform");
-                this.bloom = BloomFilter.create(new ByteFunnel(), 500000, 1e-15);
+                resetSignatures();
                 if (log.isTraceEnabled()) {
                     log.trace("unique fields: " + this.uniqueFields.getFields());
                 }
@@ -150,7 +185,7 @@ public class UniqueTransform extends DocumentTransform.DefaultDocumentTransform
                     return keyDocumentEntry;
                 }
             } catch (IOException ioe) {
-                log.error("Failed to convert document to bytes.  Returning document as unique.", ioe);
+                log.error("Failed to check the uniqueness of a document.  Returning document as unique.", ioe);
             }
         }
 
@@ -173,15 +208,22 @@ public class UniqueTransform extends DocumentTransform.DefaultDocumentTransform
      * @throws IOException
      *             for issues with read/write
      */
-    private boolean isDuplicate(Document document) throws IOException {
-        byte[] bytes = getBytes(document);
-        synchronized (bloom) {
-            if (bloom.mightContain(bytes)) {
-                return true;
-            }
-            bloom.put(bytes);
-        }
-        return false;
+    private synchronized boolean isDuplicate(Document document) throws IOException {
+        writeSignature(document);
+        return !signatures.add(signature.getBuffer(), 0, signature.size());
+    }
+
+    private synchronized void resetSignatures() {
+        signatures.close();
+        signatures = new SpillingByteArraySet(maxMemory);
+    }
+
+    /**
+     * Forget the signatures of the documents seen, deleting any spilled to local disk
+     */
+    @Override
+    public synchronized void close() {
+        signatures.close();
     }
 
     /**
@@ -193,40 +235,37 @@ public class UniqueTransform extends DocumentTransform.DefaultDocumentTransform
      * @throws IOException
      *             if we failed to generate the byte array
      */
-    byte[] getBytes(Document document) throws IOException {
-        // we need to pull the fields out of the document.
-        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
-        DataOutputStream output = new DataOutputStream(bytes);
-        outputSortedFieldValues(document, output);
-        return bytes.toByteArray();
+    synchronized byte[] getBytes(Document document) throws IOException {
+        writeSignature(document);
+        return signature.toByteArray();
     }
 
     /**
-     * Take the fields from the document configured for the unique transform and output them to the data output stream.
+     * Write the fields from the document configured for the unique transform, sorted, to the signature buffer.
      *
      * @param document
      *            a document
-     * @param output
-     *            the output stream
      * @throws IOException
      *             if we failed to generate the byte array
      */
-    private void outputSortedFieldValues(Document document, DataOutputStream output) throws IOException {
+    private void writeSignature(Document document) throws IOException {
+        signature.reset();
         int count = 0;
         String lastField = "";
-        List<String> values = new ArrayList<>();
-        for (String documentField : new TreeSet<>(document.getDictionary().keySet())) {
-            String field = getUniqueField(documentField);
+        List<String> values = signatureValues;
+        values.clear();
+        // the dictionary is already sorted by field
+        for (Map.Entry<String,Attribute<? extends Comparable<?>>> entry : document.getDictionary().entrySet()) {
+            String field = getUniqueField(entry.getKey());
             if (field != null) {
                 if (!field.equals(lastField)) {
-                    count = dumpValues(count, lastField, values, output);
+                    count = dumpValues(count, lastField, values, signatureOutput);
                     lastField = field;
                 }
-                addValues(field, document.get(documentField), values);
+                addValues(field, entry.getValue(), values);
             }
         }
-        dumpValues(count, lastField, values, output);
-        output.flush();
+        dumpValues(count, lastField, values, signatureOutput);
     }
 
     /**
@@ -247,17 +286,62 @@ public class UniqueTransform extends DocumentTransform.DefaultDocumentTransform
     private int dumpValues(int count, String field, List<String> values, DataOutputStream output) throws IOException {
         if (!values.isEmpty()) {
             Collections.sort(values);
-            String separator = "f-" + field + '/' + (count++) + ":";
-            for (String value : values) {
-                output.writeUTF(separator);
-                output.writeUTF(value);
-                separator = ",";
+            writeFieldSeparator(field, count++, output);
+            output.writeUTF(values.get(0));
+            for (int i = 1; i < values.size(); i++) {
+                output.writeUTF(",");
+                output.writeUTF(values.get(i));
             }
             values.clear();
         }
         return count;
     }
 
+    /**
+     * Write the separator before the values of a field, which is the modified UTF-8 that {@link DataOutputStream#writeUTF(String)} would write for
+     * <code>"f-" + field + '/' + count + ":"</code>, without building the string.
+     *
+     * @param field
+     *            a field
+     * @param count
+     *            the field count
+     * @param output
+     *            the output stream
+     * @throws IOException
+     *             for issues with read/write
+     */
+    private static void writeFieldSeparator(String field, int count, DataOutputStream output) throws IOException {
+        int length = 4 + Integer.toString(count).length();
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            length += (c >= 0x0001 && c <= 0x007F) ? 1 : (c <= 0x07FF ? 2 : 3);
+        }
+        if (length > 0xFFFF) {
+            // let writeUTF report the overlong field
+            output.writeUTF("f-" + field + '/' + count + ":");
+            return;
+        }
+        output.writeShort(length);
+        output.write('f');
+        output.write('-');
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c >= 0x0001 && c <= 0x007F) {
+                output.write(c);
+            } else if (c <= 0x07FF) {
+                output.write(0xC0 | ((c >> 6) & 0x1F));
+                output.write(0x80 | (c & 0x3F));
+            } else {
+                output.write(0xE0 | ((c >> 12) & 0x0F));
+                output.write(0x80 | ((c >> 6) & 0x3F));
+                output.write(0x80 | (c & 0x3F));
+            }
+        }
+        output.write('/');
+        output.writeBytes(Integer.toString(count));
+        output.write(':');
+    }
+
     // Return the set of values for the provided attribute.
     private void addValues(final String field, Attribute<?> attribute, List<String> values) {
         if (attribute instanceof Attributes) {
@@ -273,7 +357,12 @@ public class UniqueTransform extends DocumentTransform.DefaultDocumentTransform
     // Return the query-specified field that the provided document matches, if one exists, or otherwise return null.
     private String getUniqueField(String documentField) {
         String baseDocumentField = getFieldWithoutGrouping(documentField);
-        return uniqueFields.getFields().stream().filter((field) -> isMatchingField(baseDocumentField, field)).findFirst().orElse(null);
+        String field = uniqueFieldCache.get(baseDocumentField);
+        if (field == null) {
+            field = uniqueFields.getFields().stream().filter((f) -> isMatchingField(baseDocumentField, f)).findFirst().orElse(NO_UNIQUE_FIELD);
+            uniqueFieldCache.put(baseDocumentField, field);
+        }
+        return field == NO_UNIQUE_FIELD ? null : field;
     }
 
     // Return the provided field with any grouping context removed.
@@ -294,6 +383,19 @@ public class UniqueTransform extends DocumentTransform.DefaultDocumentTransform
         return field.equals(baseField) || (modelMapping != null && modelMapping.get(field).contains(baseField));
     }
 
+    /**
+     * A byte array output stream whose buffer can be read without copying it
+     */
+    private static class SignatureBuffer extends ByteArrayOutputStream {
+        byte[] getBuffer() {
+            return buf;
+        }
+    }
+
+    /**
+     * @deprecated signatures are no longer kept in a bloom filter, and this funnel is kept only for callers which still reference it
+     */
+    @Deprecated
     public static class ByteFunnel implements Funnel<byte[]>, Serializable {
 
         private static final long serialVersionUID = -2126172579955897986L;
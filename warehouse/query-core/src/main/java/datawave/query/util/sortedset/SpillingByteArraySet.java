@@ -0,0 +1,499 @@
+package datawave.query.util.sortedset;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.apache.log4j.Logger;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+
+/**
+ * An exact set of byte arrays. Up to a memory budget the arrays are held in an open addressing hash table over a single byte arena, and past the budget the
+ * table is spilled to a local file as a run of records sorted by hash. A run is checked with a bloom filter of its hashes, and a hit is confirmed by reading
+ * the one block of the run which could hold the hash, so that unlike a bloom filter alone no array is ever mistaken for another. Once there are more than a
+ * few runs they are merged into one.
+ * <p>
+ * A run file is unlinked as soon as it is opened, where the file system allows it, so its space is released when the set is closed, or when the process
+ * exits if the set never is. This set is not thread safe.
+ */
+public class SpillingByteArraySet implements Closeable {
+    private static final Logger log = Logger.getLogger(SpillingByteArraySet.class);
+
+    private static final int INITIAL_CAPACITY = 1 << 6;
+    // the arena is indexed by int, so the budget is capped well below 2GB
+    private static final long MAX_MEMORY_CAP = 1L << 30;
+    private static final int BLOCK_SIZE = 16 * 1024;
+    private static final int MAX_RUNS = 8;
+    private static final double RUN_FALSE_POSITIVE_RATE = 0.01;
+
+    private final long maxMemory;
+
+    // the slots of the table, where a hash of 0 marks an empty slot
+    private long[] hashes = new long[INITIAL_CAPACITY];
+    private int[] offsets = new int[INITIAL_CAPACITY];
+    private int entries = 0;
+
+    // the arrays in the table, each preceded by its length
+    private byte[] arena = new byte[INITIAL_CAPACITY * 16];
+    private int arenaLength = 0;
+
+    private final List<Run> runs = new ArrayList<>();
+    private long size = 0;
+
+    /**
+     * @param maxMemory
+     *            the most bytes to hold in memory before spilling to a local file, capped at 1GB
+     */
+    public SpillingByteArraySet(long maxMemory) {
+        this.maxMemory = Math.min(maxMemory, MAX_MEMORY_CAP);
+    }
+
+    /**
+     * Add an array to the set.
+     *
+     * @param bytes
+     *            the array, which is not modified or retained
+     * @return true if the array was added, false if the set already contained it
+     * @throws IOException
+     *             if a run could not be written or read
+     */
+    public boolean add(byte[] bytes) throws IOException {
+        return add(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Add part of an array to the set, so that callers can reuse a buffer.
+     *
+     * @param bytes
+     *            the array, which is not modified or retained
+     * @param offset
+     *            the start of the part to add
+     * @param length
+     *            the length of the part to add
+     * @return true if the part was added, false if the set already contained it
+     * @throws IOException
+     *             if a run could not be written or read
+     */
+    public boolean add(byte[] bytes, int offset, int length) throws IOException {
+        long hash = hash(bytes, offset, length);
+        int slot = find(hash, bytes, offset, length);
+        if (hashes[slot] != 0) {
+            return false;
+        }
+        for (Run run : runs) {
+            if (run.contains(hash, bytes, offset, length)) {
+                return false;
+            }
+        }
+
+        insert(slot, hash, bytes, offset, length);
+        size++;
+
+        if (getMemoryUsed() > maxMemory) {
+            spill();
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of arrays added
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * @return the number of runs on disk
+     */
+    public int getRunCount() {
+        return runs.size();
+    }
+
+    /**
+     * @return the bytes held by the table and its arena
+     */
+    public long getMemoryUsed() {
+        return hashes.length * 12L + arena.length;
+    }
+
+    /**
+     * Remove every array, deleting any runs.
+     */
+    public void clear() {
+        clearTable();
+        for (Run run : runs) {
+            run.delete();
+        }
+        runs.clear();
+        size = 0;
+    }
+
+    @Override
+    public void close() {
+        clear();
+    }
+
+    static long hash(byte[] bytes, int offset, int length) {
+        // FNV-1a, finished with the murmur3 mix so that the low bits which pick a slot depend on every byte
+        long h = 0xcbf29ce484222325L;
+        for (int i = offset; i < offset + length; i++) {
+            h ^= (bytes[i] & 0xff);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        // 0 marks an empty slot
+        return h == 0 ? 1 : h;
+    }
+
+    /**
+     * @return the slot holding the array, or else the empty slot where it belongs
+     */
+    private int find(long hash, byte[] bytes, int offset, int length) {
+        int mask = hashes.length - 1;
+        int slot = (int) hash & mask;
+        while (hashes[slot] != 0 && (hashes[slot] != hash || !arenaEquals(offsets[slot], bytes, offset, length))) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private boolean arenaEquals(int arenaOffset, byte[] bytes, int offset, int length) {
+        return readInt(arena, arenaOffset) == length && Arrays.equals(arena, arenaOffset + 4, arenaOffset + 4 + length, bytes, offset, offset + length);
+    }
+
+    private void insert(int slot, long hash, byte[] bytes, int offset, int length) {
+        int needed = arenaLength + 4 + length;
+        if (needed > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(needed, arena.length * 2));
+        }
+        writeInt(arena, arenaLength, length);
+        System.arraycopy(bytes, offset, arena, arenaLength + 4, length);
+        hashes[slot] = hash;
+        offsets[slot] = arenaLength;
+        arenaLength = needed;
+
+        // keep the table at most 70% full
+        if (++entries * 10L > hashes.length * 7L) {
+            rehash(hashes.length * 2);
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] oldHashes = hashes;
+        int[] oldOffsets = offsets;
+        hashes = new long[capacity];
+        offsets = new int[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldHashes.length; i++) {
+            if (oldHashes[i] != 0) {
+                int slot = (int) oldHashes[i] & mask;
+                while (hashes[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                hashes[slot] = oldHashes[i];
+                offsets[slot] = oldOffsets[i];
+            }
+        }
+    }
+
+    private void clearTable() {
+        // the table is only cleared once it is spilled or the set is cleared, so it is not worth keeping its arrays to fill again
+        hashes = new long[INITIAL_CAPACITY];
+        offsets = new int[INITIAL_CAPACITY];
+        arena = new byte[INITIAL_CAPACITY * 16];
+        entries = 0;
+        arenaLength = 0;
+    }
+
+    private void spill() throws IOException {
+        long[] sorted = new long[entries];
+        int n = 0;
+        for (long hash : hashes) {
+            if (hash != 0) {
+                sorted[n++] = hash;
+            }
+        }
+        Arrays.sort(sorted);
+
+        Run run = new Run(entries);
+        try (RunWriter writer = run.writer()) {
+            int mask = hashes.length - 1;
+            for (int i = 0; i < n; i++) {
+                if (i > 0 && sorted[i] == sorted[i - 1]) {
+                    continue;
+                }
+                // write every entry with this hash, which are all in the same cluster of the table
+                for (int slot = (int) sorted[i] & mask; hashes[slot] != 0; slot = (slot + 1) & mask) {
+                    if (hashes[slot] == sorted[i]) {
+                        int offset = offsets[slot];
+                        writer.write(sorted[i], arena, offset + 4, readInt(arena, offset));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            run.delete();
+            throw e;
+        }
+        runs.add(run);
+        if (log.isDebugEnabled()) {
+            log.debug("Spilled " + entries + " entries to " + run);
+        }
+        clearTable();
+
+        if (runs.size() > MAX_RUNS) {
+            merge();
+        }
+    }
+
+    private void merge() throws IOException {
+        long count = 0;
+        for (Run run : runs) {
+            count += run.count;
+        }
+
+        Run merged = new Run(count);
+        List<RunCursor> cursors = new ArrayList<>();
+        try {
+            PriorityQueue<RunCursor> queue = new PriorityQueue<>(Comparator.comparingLong((RunCursor c) -> c.hash));
+            for (Run run : runs) {
+                RunCursor cursor = new RunCursor(run);
+                cursors.add(cursor);
+                if (cursor.next()) {
+                    queue.add(cursor);
+                }
+            }
+            // each array was only ever added to one run, so there is nothing to drop
+            try (RunWriter writer = merged.writer()) {
+                while (!queue.isEmpty()) {
+                    RunCursor cursor = queue.poll();
+                    writer.write(cursor.hash, cursor.bytes, 0, cursor.length);
+                    if (cursor.next()) {
+                        queue.add(cursor);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            merged.delete();
+            throw e;
+        } finally {
+            for (RunCursor cursor : cursors) {
+                cursor.close();
+            }
+        }
+
+        for (Run run : runs) {
+            run.delete();
+        }
+        runs.clear();
+        runs.add(merged);
+        if (log.isDebugEnabled()) {
+            log.debug("Merged runs into " + merged);
+        }
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xff) << 24) | ((bytes[offset + 1] & 0xff) << 16) | ((bytes[offset + 2] & 0xff) << 8) | (bytes[offset + 3] & 0xff);
+    }
+
+    private static void writeInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+
+    private static long readLong(byte[] bytes, int offset) {
+        return ((long) readInt(bytes, offset) << 32) | (readInt(bytes, offset + 4) & 0xffffffffL);
+    }
+
+    /**
+     * A file of records sorted by hash, each a hash, a length, and an array. The file is split into blocks, each starting with a new hash, and the first hash
+     * and offset of each block are kept in memory so that a lookup reads a single block. The file is written and read through the one descriptor opened when
+     * the run is created.
+     */
+    private static class Run {
+        private final File runFile;
+        private final RandomAccessFile file;
+        private final long count;
+        private final BloomFilter<Long> bloom;
+        private long[] blockHashes = new long[16];
+        private long[] blockOffsets = new long[16];
+        private int blocks = 0;
+        private long length = 0;
+        private boolean unlinked;
+        private byte[] block = new byte[BLOCK_SIZE];
+
+        Run(long count) throws IOException {
+            // like a SortedSetTempFileHandler, but without creating a file system for every run
+            this.runFile = File.createTempFile("SpillingByteArraySet", ".bin");
+            try {
+                this.file = new RandomAccessFile(runFile, "rw");
+            } catch (IOException e) {
+                runFile.delete();
+                throw e;
+            }
+            // the open descriptor keeps the data, and the space is freed when it is closed
+            this.unlinked = runFile.delete();
+            this.count = count;
+            this.bloom = BloomFilter.create(Funnels.longFunnel(), Math.max(1, count), RUN_FALSE_POSITIVE_RATE);
+        }
+
+        RunWriter writer() throws IOException {
+            return new RunWriter(this);
+        }
+
+        boolean contains(long hash, byte[] bytes, int offset, int length) throws IOException {
+            if (!bloom.mightContain(hash)) {
+                return false;
+            }
+
+            // find the last block starting at or before the hash
+            int low = 0;
+            int high = blocks - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (blockHashes[mid] <= hash) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            if (high < 0) {
+                return false;
+            }
+
+            long start = blockOffsets[high];
+            int blockLength = (int) ((high + 1 < blocks ? blockOffsets[high + 1] : this.length) - start);
+            if (block.length < blockLength) {
+                block = new byte[blockLength];
+            }
+            file.seek(start);
+            file.readFully(block, 0, blockLength);
+
+            int position = 0;
+            while (position < blockLength) {
+                long recordHash = readLong(block, position);
+                int recordLength = readInt(block, position + 8);
+                if (recordHash > hash) {
+                    break;
+                } else if (recordHash == hash && recordLength == length
+                                && Arrays.equals(block, position + 12, position + 12 + recordLength, bytes, offset, offset + length)) {
+                    return true;
+                }
+                position += 12 + recordLength;
+            }
+            return false;
+        }
+
+        void addBlock(long hash, long offset) {
+            if (blocks == blockHashes.length) {
+                blockHashes = Arrays.copyOf(blockHashes, blocks * 2);
+                blockOffsets = Arrays.copyOf(blockOffsets, blocks * 2);
+            }
+            blockHashes[blocks] = hash;
+            blockOffsets[blocks] = offset;
+            blocks++;
+        }
+
+        void delete() {
+            try {
+                file.close();
+            } catch (IOException e) {
+                log.warn("Failed to close " + runFile, e);
+            }
+            // some file systems will not unlink an open file, which leaves it to be deleted here
+            if (!unlinked && !runFile.delete()) {
+                log.warn("Failed to delete " + runFile);
+            }
+            unlinked = true;
+        }
+
+        @Override
+        public String toString() {
+            return runFile + " (" + count + " entries in " + blocks + " blocks)";
+        }
+    }
+
+    private static class RunWriter implements Closeable {
+        private final Run run;
+        private final DataOutputStream out;
+        private long blockStart = 0;
+        private long lastHash = 0;
+
+        RunWriter(Run run) throws IOException {
+            this.run = run;
+            run.file.seek(0);
+            this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(run.file.getChannel()), BLOCK_SIZE));
+        }
+
+        void write(long hash, byte[] bytes, int offset, int length) throws IOException {
+            // a block only starts with a new hash, so that every record with a hash is in one block
+            if (run.blocks == 0 || (run.length - blockStart >= BLOCK_SIZE && hash != lastHash)) {
+                run.addBlock(hash, run.length);
+                blockStart = run.length;
+            }
+            out.writeLong(hash);
+            out.writeInt(length);
+            out.write(bytes, offset, length);
+            run.length += 12 + length;
+            run.bloom.put(hash);
+            lastHash = hash;
+        }
+
+        @Override
+        public void close() throws IOException {
+            // closing the stream would close the run's descriptor
+            out.flush();
+        }
+    }
+
+    private static class RunCursor implements Closeable {
+        private final DataInputStream in;
+        private long remaining;
+        private long hash;
+        private byte[] bytes = new byte[64];
+        private int length;
+
+        RunCursor(Run run) throws IOException {
+            run.file.seek(0);
+            this.in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(run.file.getChannel()), BLOCK_SIZE));
+            this.remaining = run.count;
+        }
+
+        boolean next() throws IOException {
+            if (remaining == 0) {
+                return false;
+            }
+            remaining--;
+            hash = in.readLong();
+            length = in.readInt();
+            if (bytes.length < length) {
+                bytes = new byte[Math.max(length, bytes.length * 2)];
+            }
+            in.readFully(bytes, 0, length);
+            return true;
+        }
+
+        @Override
+        public void close() {
+            // the run's descriptor is closed when the run is deleted
+        }
+    }
+}
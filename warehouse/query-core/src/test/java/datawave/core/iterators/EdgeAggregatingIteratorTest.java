@@ -0,0 +1,159 @@
+package datawave.core.iterators;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iteratorsImpl.system.SortedMapIterator;
+import org.apache.accumulo.core.security.ColumnVisibility;
+import org.junit.Before;
+import org.junit.Test;
+
+import datawave.edge.util.EdgeKey;
+import datawave.edge.util.EdgeValue;
+import datawave.edge.util.EdgeValueHelper;
+
+public class EdgeAggregatingIteratorTest {
+
+    private final TreeMap<Key,Value> data = new TreeMap<>();
+
+    @Before
+    public void setup() {
+        addEdge("source", "sink", "TYPE1", "20240101", 1L, 2L);
+        addEdge("source", "sink", "TYPE1", "20240102", 3L, 5L);
+        addEdge("source", "sink", "TYPE2", "20240101", 4L, 1L);
+        addEdge("source", "sink2", "TYPE1", "20240103", 7L, 1L);
+        addStatsEdge("source", "TYPE1", "20240101", 2, 1L);
+        addStatsEdge("source", "TYPE1", "20240102", 2, 2L);
+        addStatsEdge("source", "TYPE1", "20240103", 5, 3L);
+    }
+
+    @Test
+    public void testGroupByType() throws IOException {
+        List<Map.Entry<Key,Value>> results = aggregate("EDGE_TYPE", new Range());
+        assertEquals(4, results.size());
+
+        // the stats edge of source, then source\0sink TYPE1 and TYPE2, then source\0sink2 TYPE1
+        EdgeKey stats = EdgeKey.decode(results.get(0).getKey());
+        assertTrue(stats.isStatsKey());
+        assertEquals("TYPE1", stats.getType());
+        assertEquals("", stats.getYyyymmdd());
+        assertEquals(3L, results.get(0).getKey().getTimestamp());
+        List<Long> hours = EdgeValueHelper.decodeActivityHistogram(results.get(0).getValue());
+        assertEquals(Long.valueOf(2L), hours.get(2));
+        assertEquals(Long.valueOf(1L), hours.get(5));
+
+        assertEdge(results.get(1), "source", "sink", "TYPE1", 4L, 5L);
+        assertEdge(results.get(2), "source", "sink", "TYPE2", 4L, 1L);
+        assertEdge(results.get(3), "source", "sink2", "TYPE1", 7L, 1L);
+    }
+
+    @Test
+    public void testGroupByRow() throws IOException {
+        List<Map.Entry<Key,Value>> results = aggregate("", new Range());
+        assertEquals(3, results.size());
+        assertEdge(results.get(1), "source", "sink", "", 8L, 5L);
+        assertEdge(results.get(2), "source", "sink2", "", 7L, 1L);
+    }
+
+    @Test
+    public void testGroupByDate() throws IOException {
+        List<Map.Entry<Key,Value>> results = aggregate("DATE", new Range("source\0sink"));
+        assertEquals(2, results.size());
+        assertEquals("20240101", EdgeKey.decode(results.get(0).getKey()).getYyyymmdd());
+        assertEquals(5L, EdgeValue.decode(results.get(0).getValue()).getCount().longValue());
+        assertEquals("20240102", EdgeKey.decode(results.get(1).getKey()).getYyyymmdd());
+        assertEquals(3L, EdgeValue.decode(results.get(1).getValue()).getCount().longValue());
+    }
+
+    @Test
+    public void testReseekWithinRow() throws IOException {
+        List<Map.Entry<Key,Value>> results = aggregate("EDGE_TYPE", new Range());
+        List<Map.Entry<Key,Value>> resumed = aggregate("EDGE_TYPE", new Range(results.get(1).getKey(), false, null, true));
+        assertEquals(results.subList(2, results.size()), resumed);
+    }
+
+    @Test
+    public void testBufferedValuesAreCombined() throws IOException {
+        Map<String,String> options = new HashMap<>();
+        options.put(EdgeAggregatingIterator.GROUP_FIELDS_OPTION, "EDGE_TYPE");
+        options.put(EdgeAggregatingIterator.MAX_VALUES_OPTION, "1");
+        List<Map.Entry<Key,Value>> expected = aggregate("EDGE_TYPE", new Range());
+        List<Map.Entry<Key,Value>> results = aggregate(options, new Range());
+        assertEquals(expected.size(), results.size());
+        for (int i = 1; i < results.size(); i++) {
+            assertEquals(expected.get(i).getKey(), results.get(i).getKey());
+            assertEquals(EdgeValue.decode(expected.get(i).getValue()).getCount(), EdgeValue.decode(results.get(i).getValue()).getCount());
+        }
+        assertEquals(EdgeValueHelper.decodeActivityHistogram(expected.get(0).getValue()), EdgeValueHelper.decodeActivityHistogram(results.get(0).getValue()));
+    }
+
+    @Test
+    public void testValidateOptions() {
+        EdgeAggregatingIterator iterator = new EdgeAggregatingIterator();
+        assertTrue(iterator.validateOptions(Collections.singletonMap(EdgeAggregatingIterator.GROUP_FIELDS_OPTION, "EDGE_TYPE,DATE")));
+        assertFalse(iterator.validateOptions(Collections.singletonMap(EdgeAggregatingIterator.GROUP_FIELDS_OPTION, "EDGE_SOURCE")));
+        assertFalse(iterator.validateOptions(Collections.singletonMap(EdgeAggregatingIterator.GROUP_FIELDS_OPTION, "UNKNOWN")));
+        assertFalse(iterator.validateOptions(Collections.singletonMap(EdgeAggregatingIterator.MAX_VALUES_OPTION, "0")));
+    }
+
+    private void addEdge(String source, String sink, String type, String date, long count, long timestamp) {
+        EdgeKey.EdgeKeyBuilder builder = EdgeKey.newBuilder(EdgeKey.EDGE_FORMAT.STANDARD).setSourceData(source).setSinkData(sink).setType(type)
+                        .setSourceRelationship("FROM").setSinkRelationship("TO").setSourceAttribute1("ATTR1").setSinkAttribute1("ATTR2")
+                        .setYyyymmdd(date).setColvis(new ColumnVisibility("A")).setTimestamp(timestamp);
+        EdgeValue.EdgeValueBuilder value = EdgeValue.newBuilder();
+        value.setCount(count);
+        value.setLoadDate(date);
+        data.put(builder.build().encode(), value.build().encode());
+    }
+
+    private void addStatsEdge(String source, String type, String date, int hour, long timestamp) {
+        EdgeKey.EdgeKeyBuilder builder = EdgeKey.newBuilder(EdgeKey.EDGE_FORMAT.STATS).setStatsType(EdgeKey.STATS_TYPE.ACTIVITY).setSourceData(source)
+                        .setType(type).setSourceRelationship("FROM").setSourceAttribute1("ATTR1").setYyyymmdd(date)
+                        .setColvis(new ColumnVisibility("A")).setTimestamp(timestamp);
+        EdgeValue.EdgeValueBuilder value = EdgeValue.newBuilder();
+        value.setHours(EdgeValueHelper.getLongListForHour(hour, false));
+        value.setLoadDate(date);
+        data.put(builder.build().encode(), value.build().encode());
+    }
+
+    private static void assertEdge(Map.Entry<Key,Value> entry, String source, String sink, String type, long count, long timestamp) throws IOException {
+        EdgeKey key = EdgeKey.decode(entry.getKey());
+        assertEquals(source, key.getSourceData());
+        assertEquals(sink, key.getSinkData());
+        assertEquals(type, key.getType());
+        assertEquals("", key.getYyyymmdd());
+        assertEquals("A", entry.getKey().getColumnVisibility().toString());
+        assertEquals(timestamp, entry.getKey().getTimestamp());
+        assertEquals(count, EdgeValue.decode(entry.getValue()).getCount().longValue());
+    }
+
+    private List<Map.Entry<Key,Value>> aggregate(String groupFields, Range range) throws IOException {
+        return aggregate(Collections.singletonMap(EdgeAggregatingIterator.GROUP_FIELDS_OPTION, groupFields), range);
+    }
+
+    private List<Map.Entry<Key,Value>> aggregate(Map<String,String> options, Range range) throws IOException {
+        EdgeAggregatingIterator iterator = new EdgeAggregatingIterator();
+        iterator.init(new SortedMapIterator(data), options, null);
+        iterator.seek(range, Collections.emptyList(), false);
+
+        List<Map.Entry<Key,Value>> results = new ArrayList<>();
+        while (iterator.hasTop()) {
+            results.add(new AbstractMap.SimpleImmutableEntry<>(iterator.getTopKey(), iterator.getTopValue()));
+            iterator.next();
+        }
+        return results;
+    }
+}
@@ -1,9 +1,12 @@
 package datawave.query.attributes;
 
+import static org.junit.Assert.assertEquals;
+
 import org.apache.accumulo.core.data.Key;
 import org.junit.Test;
 
 import datawave.data.type.NoOpType;
+import datawave.data.type.NumberType;
 
 public class TypeAttributeTest extends AttributeTest {
 
@@ -18,4 +21,13 @@ public class TypeAttributeTest extends AttributeTest {
         attr = new TypeAttribute<>(type, docKey, true);
         testToKeep(attr, true);
     }
+
+    @Test
+    public void testSerializationKeepsType() {
+        Key docKey = new Key("shard", "datatype\0uid");
+        TypeAttribute<?> attr = new TypeAttribute<>(new NumberType("42"), docKey, true);
+
+        assertEquals(attr.getType(), ((TypeAttribute<?>) serialize(attr)).getType());
+        assertEquals(attr.getType(), ((TypeAttribute<?>) serializeKryo(attr)).getType());
+    }
 }
@@ -0,0 +1,157 @@
+package datawave.query.common.grouping;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.security.ColumnVisibility;
+import org.junit.Before;
+import org.junit.Test;
+
+import datawave.data.type.LcNoDiacriticsType;
+import datawave.data.type.NumberType;
+import datawave.data.type.Type;
+import datawave.query.attributes.TypeAttribute;
+
+public class GroupsCodecTest {
+
+    private static final ColumnVisibility COLVIS_A = new ColumnVisibility("A");
+    private static final ColumnVisibility COLVIS_B = new ColumnVisibility("B");
+
+    private Groups merged;
+
+    @Before
+    public void setUp() {
+        merged = new Groups();
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Groups groups = new Groups();
+        Group male = givenGroup(groups, 2, COLVIS_A, textKey("GENDER", "MALE", COLVIS_A), numericKey("AGE", "20", COLVIS_B));
+        aggregate(male, "20", COLVIS_A);
+        aggregate(male, "30", COLVIS_B);
+        Group female = givenGroup(groups, 1, COLVIS_B, textKey("GENDER", "FEMALE", COLVIS_B), numericKey("AGE", "20", COLVIS_B));
+        aggregate(female, "1.5", COLVIS_B);
+
+        GroupsCodec.merge(GroupsCodec.encode(groups), Collections.emptyMap(), merged);
+
+        assertEquals(2, merged.totalGroups());
+        Group group = assertGroup(2, textKey("GENDER", "MALE", COLVIS_A), numericKey("AGE", "20", COLVIS_B));
+        assertEquals(Collections.singleton(COLVIS_A), new HashSet<>(group.getVisibilitiesForAttribute(textKey("GENDER", "MALE", COLVIS_A))));
+        assertEquals(Collections.singleton(COLVIS_B), new HashSet<>(group.getVisibilitiesForAttribute(numericKey("AGE", "20", COLVIS_B))));
+        assertEquals(Collections.singleton(COLVIS_A), group.getDocumentVisibilities());
+        assertAggregates(group, "50", 2L, "25", "20", "30");
+        assertEquals(new HashSet<>(Arrays.asList(COLVIS_A, COLVIS_B)), group.getFieldAggregator().getAggregator("HEIGHT", AggregateOperation.SUM)
+                        .getColumnVisibilities());
+
+        group = assertGroup(1, textKey("GENDER", "FEMALE", COLVIS_B), numericKey("AGE", "20", COLVIS_B));
+        assertAggregates(group, "1.5", 1L, "1.5", "1.5", "1.5");
+    }
+
+    @Test
+    public void testMergeAcrossEncodings() throws IOException {
+        // A huge value, which does not fit in a long, and an empty grouping.
+        Groups first = new Groups();
+        aggregate(givenGroup(first, 3, COLVIS_A, textKey("GENDER", "MALE", COLVIS_A), numericKey("AGE", "20", COLVIS_A)), "123456789012345678901234567890",
+                        COLVIS_A);
+        givenGroup(first, 4, COLVIS_A);
+
+        // The same grouping with its attributes added in a different order and seen with another visibility.
+        Groups second = new Groups();
+        aggregate(givenGroup(second, 5, COLVIS_B, numericKey("AGE", "20", COLVIS_B), textKey("GENDER", "MALE", COLVIS_B)), "-10", COLVIS_B);
+        givenGroup(second, 1, COLVIS_B, textKey("GENDER", "FEMALE", COLVIS_B));
+
+        GroupsCodec.merge(GroupsCodec.encode(first), Collections.emptyMap(), merged);
+        GroupsCodec.merge(GroupsCodec.encode(second), Collections.emptyMap(), merged);
+        GroupsCodec.merge(GroupsCodec.encode(second), Collections.emptyMap(), merged);
+
+        assertEquals(3, merged.getKeyTable().size());
+        assertEquals(3, merged.totalGroups());
+        Group group = assertGroup(13, textKey("GENDER", "MALE", COLVIS_A), numericKey("AGE", "20", COLVIS_A));
+        assertEquals(new HashSet<>(Arrays.asList(COLVIS_A, COLVIS_B)), new HashSet<>(group.getVisibilitiesForAttribute(textKey("GENDER", "MALE", COLVIS_A))));
+        assertEquals(new HashSet<>(Arrays.asList(COLVIS_A, COLVIS_B)), group.getDocumentVisibilities());
+        assertAggregates(group, "123456789012345678901234567870", 3L, "4.115226300E+28", "-10", "123456789012345678901234567890");
+
+        assertGroup(4);
+        assertGroup(2, textKey("GENDER", "FEMALE", COLVIS_B));
+
+        // Clearing the groups also clears the encoded groupings.
+        merged.clear();
+        assertEquals(0, merged.getKeyTable().size());
+        GroupsCodec.merge(GroupsCodec.encode(first), Collections.emptyMap(), merged);
+        assertGroup(3, textKey("GENDER", "MALE", COLVIS_A), numericKey("AGE", "20", COLVIS_A));
+    }
+
+    @Test
+    public void testMergeWithModelMapping() throws IOException {
+        Groups groups = new Groups();
+        givenGroup(groups, 2, COLVIS_A, numericKey("AGE", "20", COLVIS_A));
+        givenGroup(groups, 3, COLVIS_B, numericKey("ETA", "20", COLVIS_B));
+
+        Map<String,String> reverseModelMap = new HashMap<>();
+        reverseModelMap.put("AGE", "AG");
+        reverseModelMap.put("ETA", "AG");
+        GroupsCodec.merge(GroupsCodec.encode(groups), reverseModelMap, merged);
+
+        // Both encoded groupings are merged into the same group.
+        assertEquals(1, merged.totalGroups());
+        assertEquals(2, merged.getKeyTable().size());
+        Group group = assertGroup(5, numericKey("AG", "20", COLVIS_A));
+        assertEquals(new HashSet<>(Arrays.asList(COLVIS_A, COLVIS_B)), new HashSet<>(group.getVisibilitiesForAttribute(numericKey("AG", "20", COLVIS_A))));
+    }
+
+    private Group givenGroup(Groups groups, int count, ColumnVisibility documentVisibility, GroupingAttribute<?>... attributes) {
+        Group group = new Group(new Grouping(Arrays.asList(attributes)), count);
+        group.setFieldAggregator(new FieldAggregator.Factory().withSumFields("HEIGHT").withCountFields("HEIGHT").withAverageFields("HEIGHT")
+                        .withMinFields("HEIGHT").withMaxFields("HEIGHT").newInstance());
+        group.addDocumentVisibility(documentVisibility);
+        groups.putGroup(group);
+        return group;
+    }
+
+    private void aggregate(Group group, String value, ColumnVisibility visibility) {
+        TypeAttribute<?> attribute = new TypeAttribute<>(new NumberType(value), new Key("HEIGHT"), true);
+        attribute.setColumnVisibility(visibility);
+        group.aggregateAll(Collections.singleton(new Field("HEIGHT", null, null, attribute)));
+    }
+
+    private Group assertGroup(int count, GroupingAttribute<?>... attributes) {
+        Group group = merged.getGroup(new Grouping(Arrays.asList(attributes)));
+        assertNotNull(group);
+        assertEquals(count, group.getCount());
+        return group;
+    }
+
+    private void assertAggregates(Group group, String sum, long count, String average, String min, String max) {
+        FieldAggregator aggregator = group.getFieldAggregator();
+        assertEquals(new BigDecimal(sum), aggregator.getAggregator("HEIGHT", AggregateOperation.SUM).getAggregation());
+        assertEquals(count, aggregator.getAggregator("HEIGHT", AggregateOperation.COUNT).getAggregation());
+        assertEquals(0, new BigDecimal(average).compareTo((BigDecimal) aggregator.getAggregator("HEIGHT", AggregateOperation.AVERAGE).getAggregation()));
+        assertEquals(new NumberType(min), ((TypeAttribute<?>) aggregator.getAggregator("HEIGHT", AggregateOperation.MIN).getAggregation()).getType());
+        assertEquals(new NumberType(max), ((TypeAttribute<?>) aggregator.getAggregator("HEIGHT", AggregateOperation.MAX).getAggregation()).getType());
+        assertEquals(1, aggregator.getAggregator("HEIGHT", AggregateOperation.MIN).getColumnVisibilities().size());
+    }
+
+    private GroupingAttribute<?> numericKey(String key, String value, ColumnVisibility visibility) {
+        return createGroupingAttribute(key, new NumberType(value), visibility);
+    }
+
+    private GroupingAttribute<?> textKey(String key, String value, ColumnVisibility visibility) {
+        return createGroupingAttribute(key, new LcNoDiacriticsType(value), visibility);
+    }
+
+    private GroupingAttribute<?> createGroupingAttribute(String key, Type<?> type, ColumnVisibility visibility) {
+        GroupingAttribute<?> attribute = new GroupingAttribute<>(type, new Key(key), true);
+        attribute.setColumnVisibility(visibility);
+        return attribute;
+    }
+}
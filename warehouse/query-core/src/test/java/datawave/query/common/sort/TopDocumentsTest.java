@@ -0,0 +1,115 @@
+package datawave.query.common.sort;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.accumulo.core.data.Key;
+import org.junit.Test;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
+
+import datawave.query.attributes.Content;
+import datawave.query.attributes.Document;
+import datawave.query.attributes.SortFields;
+
+public class TopDocumentsTest {
+
+    @Test
+    public void testKeepsFirstDocumentsInSortedOrder() {
+        TopDocuments topDocuments = new TopDocuments(SortFields.from("NAME/desc"), 3);
+        String[] names = {"bob", "alice", "erin", "carol", "dave"};
+        for (int i = 0; i < names.length; i++) {
+            topDocuments.offer(document("uid" + i, "NAME", names[i]));
+        }
+
+        assertEquals(3, topDocuments.size());
+        assertEquals(List.of("erin", "dave", "carol"), values(topDocuments.drainSorted(), "NAME"));
+        assertTrue(topDocuments.isEmpty());
+    }
+
+    @Test
+    public void testDrainByKey() {
+        TopDocuments topDocuments = new TopDocuments(SortFields.from("NAME"), 2);
+        topDocuments.offer(document("uid2", "NAME", "alice"));
+        topDocuments.offer(document("uid0", "NAME", "carol"));
+        topDocuments.offer(document("uid1", "NAME", "bob"));
+
+        assertEquals(List.of("bob", "alice"), values(topDocuments.drainByKey(), "NAME"));
+    }
+
+    @Test
+    public void testMissingValuesOrderLast() {
+        TopDocuments topDocuments = new TopDocuments(SortFields.from("NAME/asc,COLOR/desc"), 10);
+        topDocuments.offer(document("uid0", "COLOR", "red"));
+        topDocuments.offer(document("uid1", "NAME", "bob"));
+        Map.Entry<Key,Document> both = document("uid2", "NAME", "bob");
+        both.getValue().put("COLOR", new Content("blue", both.getKey(), true));
+        topDocuments.offer(both);
+
+        List<Map.Entry<Key,Document>> sorted = topDocuments.drainSorted();
+        assertEquals(List.of("uid2", "uid1", "uid0"), uids(sorted));
+    }
+
+    @Test
+    public void testDuplicateDocumentsAreKeptOnce() {
+        TopDocuments topDocuments = new TopDocuments(SortFields.from("NAME"), 10);
+        assertTrue(topDocuments.offer(document("uid0", "NAME", "alice")));
+        assertFalse(topDocuments.offer(document("uid0", "NAME", "alice")));
+        assertTrue(topDocuments.offer(document("uid1", "NAME", "alice")));
+
+        assertEquals(2, topDocuments.size());
+    }
+
+    @Test
+    public void testOrdersAliasByModelMappedFields() {
+        SortFields sortFields = SortFields.from("NAME/desc");
+        Multimap<String,String> model = HashMultimap.create();
+        model.put("NAME", "FIRST_NAME");
+        model.put("NAME", "NICKNAME");
+        sortFields.remapFields(model);
+        assertEquals("NAME|FIRST_NAME|NICKNAME/desc", sortFields.toString());
+
+        // the remapped fields are passed to the tablet servers as a string
+        TopDocuments topDocuments = new TopDocuments(SortFields.from(sortFields.toString()), 10);
+        topDocuments.offer(document("uid0", "FIRST_NAME", "bob"));
+        topDocuments.offer(document("uid1", "NICKNAME", "dave"));
+        topDocuments.offer(document("uid2", "NAME", "carol"));
+        topDocuments.offer(document("uid3", "COLOR", "red"));
+        Map.Entry<Key,Document> both = document("uid4", "FIRST_NAME", "alice");
+        both.getValue().put("NICKNAME", new Content("erin", both.getKey(), true));
+        topDocuments.offer(both);
+
+        assertEquals(List.of("uid4", "uid1", "uid2", "uid0", "uid3"), uids(topDocuments.drainSorted()));
+    }
+
+    private static Map.Entry<Key,Document> document(String uid, String field, String value) {
+        Key key = new Key("20240101_0", "datatype\0" + uid);
+        Document document = new Document(key, true);
+        document.put(field, new Content(value, key, true));
+        return Maps.immutableEntry(key, document);
+    }
+
+    private static List<String> values(List<Map.Entry<Key,Document>> entries, String field) {
+        List<String> values = new ArrayList<>();
+        for (Map.Entry<Key,Document> entry : entries) {
+            values.add(String.valueOf(entry.getValue().get(field).getData()));
+        }
+        return values;
+    }
+
+    private static List<String> uids(List<Map.Entry<Key,Document>> entries) {
+        List<String> uids = new ArrayList<>();
+        for (Map.Entry<Key,Document> entry : entries) {
+            String cf = entry.getKey().getColumnFamily().toString();
+            uids.add(cf.substring(cf.indexOf('\0') + 1));
+        }
+        return uids;
+    }
+}
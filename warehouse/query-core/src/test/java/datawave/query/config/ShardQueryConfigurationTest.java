@@ -39,6 +39,7 @@ import datawave.microservice.query.Query;
 import datawave.microservice.query.QueryImpl;
 import datawave.query.DocumentSerialization;
 import datawave.query.attributes.ExcerptFields;
+import datawave.query.attributes.SortFields;
 import datawave.query.attributes.UniqueFields;
 import datawave.query.common.grouping.GroupFields;
 import datawave.query.iterator.ivarator.IvaratorCacheDirConfig;
@@ -445,6 +446,12 @@ public class ShardQueryConfigurationTest {
         updatedValues.put("compositeFilterFunctionsEnabled", true);
         defaultValues.put("uniqueFields", new UniqueFields());
         updatedValues.put("uniqueFields", UniqueFields.from("FIELD_U,FIELD_V"));
+        defaultValues.put("sortFields", new SortFields());
+        updatedValues.put("sortFields", SortFields.from("DOCUMENT_DATE/desc,FIELD_S"));
+        defaultValues.put("sortLimit", 0);
+        updatedValues.put("sortLimit", 100);
+        defaultValues.put("sortOnlyFields", Sets.newHashSet());
+        updatedValues.put("sortOnlyFields", Sets.newHashSet("FIELD_S"));
         defaultValues.put("cacheModel", false);
         updatedValues.put("cacheModel", true);
         defaultValues.put("trackSizes", true);
@@ -1,8 +1,15 @@
 package datawave.query.discovery;
 
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.mock;
+import static org.easymock.EasyMock.replay;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
 
 import java.text.SimpleDateFormat;
+import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
@@ -10,17 +17,25 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.accumulo.core.client.AccumuloClient;
+import org.apache.accumulo.core.client.BatchScanner;
 import org.apache.accumulo.core.client.BatchWriter;
 import org.apache.accumulo.core.client.BatchWriterConfig;
+import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.security.Authorizations;
 import org.apache.accumulo.core.security.ColumnVisibility;
+import org.apache.hadoop.io.ArrayWritable;
+import org.apache.hadoop.io.MapWritable;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.io.WritableUtils;
 import org.apache.log4j.Logger;
 import org.javatuples.Pair;
 import org.junit.Before;
@@ -31,6 +46,8 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 
 import datawave.core.query.configuration.GenericQueryConfiguration;
+import datawave.core.query.configuration.QueryData;
+import datawave.core.query.logic.QueryKey;
 import datawave.core.query.result.event.DefaultResponseObjectFactory;
 import datawave.data.type.LcNoDiacriticsType;
 import datawave.ingest.protobuf.Uid;
@@ -112,6 +129,10 @@ public class DiscoveryLogicTest {
     }
 
     protected void insertIndex(Pair<String,String> valueField) throws Throwable {
+        insertIndex(valueField, 24);
+    }
+
+    protected void insertIndex(Pair<String,String> valueField, int count) throws Throwable {
         BatchWriterConfig config = new BatchWriterConfig().setMaxMemory(1024L).setMaxLatency(1, TimeUnit.SECONDS).setMaxWriteThreads(1);
         ColumnVisibility viz = new ColumnVisibility("FOO");
 
@@ -135,7 +156,7 @@ public class DiscoveryLogicTest {
                 for (Date date : dates) {
                     String shard = dateFormatter.format(date);
                     m.put(valueField.getValue1().toUpperCase(), shard + "_" + i + "\u0000datatype", viz, date.getTime(),
-                                    new Value(makeUidList(24).toByteArray()));
+                                    new Value(makeUidList(count).toByteArray()));
                 }
             }
             writer.addMutation(m);
@@ -148,7 +169,7 @@ public class DiscoveryLogicTest {
                 for (Date date : dates) {
                     String shard = dateFormatter.format(date);
                     m.put(valueField.getValue1().toUpperCase(), shard + "_" + i + "\u0000datatype", viz, date.getTime(),
-                                    new Value(makeUidList(24).toByteArray()));
+                                    new Value(makeUidList(count).toByteArray()));
                 }
             }
             writer.addMutation(m);
@@ -283,4 +304,122 @@ public class DiscoveryLogicTest {
         assertEquals(ImmutableSet.of(Pair.with("xxx.skydiver", "OCCUPATION"), Pair.with("yyy.skydiver", "OCCUPATION")), matches);
     }
 
+    @Test
+    public void testSumCounts() throws Throwable {
+        Map<String,String> params = new HashMap<>();
+        params.put(DiscoveryLogic.SUM_COUNTS, "true");
+
+        Set<Pair<String,String>> matches = Sets.newHashSet();
+        for (Iterator<DiscoveredThing> it = runTestQuery("bbc OR onyx", params, dateFormatter.parse("20130101"), dateFormatter.parse("20130102")); it
+                        .hasNext();) {
+            DiscoveredThing thing = it.next();
+            // one result per term and field, covering both dates
+            assertTrue(matches.add(Pair.with(thing.getTerm(), thing.getField())));
+            assertEquals("20130101-20130102", thing.getDate());
+            assertEquals(480L, thing.getCount());
+        }
+        assertEquals(ImmutableSet.of(Pair.with("bbc", "NETWORK"), Pair.with("onyx", "POKEMON"), Pair.with("onyx", "ROCK"), Pair.with("onyx", "ROOSTER")),
+                        matches);
+    }
+
+    @Test
+    public void testTopTerms() throws Throwable {
+        Map<String,String> params = new HashMap<>();
+        params.put(DiscoveryLogic.SUM_COUNTS, "true");
+        params.put(DiscoveryLogic.TOP_TERMS, "2");
+
+        List<Pair<String,String>> matches = new ArrayList<>();
+        for (Iterator<DiscoveredThing> it = runTestQuery("bbc OR onyx", params, dateFormatter.parse("20130101"), dateFormatter.parse("20130102")); it
+                        .hasNext();) {
+            DiscoveredThing thing = it.next();
+            matches.add(Pair.with(thing.getTerm(), thing.getField()));
+        }
+        // every term has the same count, so ties are broken by the natural order of the terms
+        assertEquals(List.of(Pair.with("bbc", "NETWORK"), Pair.with("onyx", "POKEMON")), matches);
+    }
+
+    @Test
+    public void testTopTermsByCount() throws Throwable {
+        insertIndex(Pair.with("quartz", "mineral"), 5);
+        insertIndex(Pair.with("quartz", "crystal"), 30);
+        insertIndex(Pair.with("quartzite", "mineral"), 50);
+
+        Map<String,String> params = new HashMap<>();
+        params.put(DiscoveryLogic.SUM_COUNTS, "true");
+        params.put(DiscoveryLogic.TOP_TERMS, "2");
+
+        List<Pair<String,String>> matches = new ArrayList<>();
+        List<Long> counts = new ArrayList<>();
+        for (Iterator<DiscoveredThing> it = runTestQuery("quartz*", params, dateFormatter.parse("20130101"), dateFormatter.parse("20130102")); it
+                        .hasNext();) {
+            DiscoveredThing thing = it.next();
+            matches.add(Pair.with(thing.getTerm(), thing.getField()));
+            counts.add(thing.getCount());
+        }
+        // the highest counts are returned first, which is the reverse of the natural order of the terms
+        assertEquals(List.of(Pair.with("quartzite", "MINERAL"), Pair.with("quartz", "CRYSTAL")), matches);
+        assertEquals(List.of(1000L, 600L), counts);
+    }
+
+    @Test
+    public void testTopTermsNotCheckpointable() throws Throwable {
+        logic.setCheckpointable(true);
+        runTestQuery("bbc OR onyx");
+        assertTrue(logic.isCheckpointable());
+        // one query data per range, so that each may be checkpointed on its own
+        assertEquals(2, logic.getConfig().getQueries().size());
+
+        Map<String,String> params = new HashMap<>();
+        params.put(DiscoveryLogic.TOP_TERMS, "2");
+        runTestQuery("bbc OR onyx", params, dateFormatter.parse("20130101"), dateFormatter.parse("20130102"));
+        assertFalse(logic.isCheckpointable());
+        assertEquals(1, logic.getConfig().getQueries().size());
+        assertThrows(UnsupportedOperationException.class, () -> logic.checkpoint(new QueryKey("default", "query", "logic")));
+    }
+
+    @Test
+    public void testTopTermsMustBePositive() throws Throwable {
+        for (String topTerms : List.of("0", "-1", "ten")) {
+            Map<String,String> params = new HashMap<>();
+            params.put(DiscoveryLogic.TOP_TERMS, topTerms);
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                            () -> runTestQuery("bbc OR onyx", params, dateFormatter.parse("20130101"), dateFormatter.parse("20130102")));
+            assertTrue(e.getMessage(), e.getMessage().contains(DiscoveryLogic.TOP_TERMS));
+        }
+    }
+
+    @Test
+    public void testTransformScannerSharedByQueries() throws Throwable {
+        QueryData first = new QueryData(TableName.SHARD_INDEX, "first", List.of(new Range("apple"), new Range("cherry")), Collections.emptyList(),
+                        Collections.emptyList());
+        QueryData second = new QueryData(TableName.SHARD_INDEX, "second", List.of(new Range("banana")), Collections.emptyList(), Collections.emptyList());
+
+        // results from the ranges of both queries are interleaved, as they are when the queries share a batch scanner
+        List<Entry<Key,Value>> results = new ArrayList<>();
+        results.add(makeResult("apple", "FRUIT"));
+        results.add(makeResult("banana", "FRUIT"));
+        results.add(makeResult("cherry", "FRUIT"));
+        results.add(makeResult("banana", "PLANT"));
+
+        BatchScanner scanner = mock(BatchScanner.class);
+        expect(scanner.iterator()).andReturn(results.iterator());
+        replay(scanner);
+
+        List<String> discovered = new ArrayList<>();
+        for (Iterator<DiscoveredThing> it = DiscoveryLogic.transformScanner(scanner, List.of(first, second)); it.hasNext();) {
+            discovered.add(it.next().getTerm());
+        }
+
+        assertEquals(List.of("apple", "banana", "cherry", "banana"), discovered);
+        assertEquals(results.get(2).getKey(), first.getLastResult());
+        assertEquals(results.get(3).getKey(), second.getLastResult());
+    }
+
+    private Entry<Key,Value> makeResult(String term, String field) {
+        DiscoveredThing thing = new DiscoveredThing(term, field, "datatype", "20130101", "FOO", 24L, new MapWritable());
+        ArrayWritable aw = new ArrayWritable(DiscoveredThing.class);
+        aw.set(new Writable[] {thing});
+        return new SimpleImmutableEntry<>(new Key(term, field, "20130101\uffff"), new Value(WritableUtils.toByteArray(aw)));
+    }
+
 }
@@ -0,0 +1,108 @@
+package datawave.query.index.stats;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.TreeMap;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iteratorsImpl.system.SortedMapIterator;
+import org.apache.hadoop.io.BytesWritable;
+import org.apache.hadoop.io.VIntWritable;
+import org.apache.hadoop.io.VLongWritable;
+import org.junit.Test;
+
+import com.clearspring.analytics.stream.cardinality.HyperLogLogPlus;
+
+public class ShardStatsSketchIteratorTest {
+
+    private static final int PRECISION = 14;
+
+    @Test
+    public void testMergeSketchesAcrossDates() throws IOException {
+        TreeMap<Key,Value> data = new TreeMap<>();
+        // the same 1000 values are seen on both dates, with another 1000 only seen on the second date
+        data.put(new Key("FIELD", "20240101", "datatype"), value(1000, sketch(0, 1000)));
+        data.put(new Key("FIELD", "20240102", "datatype"), value(2000, sketch(0, 2000)));
+        data.put(new Key("OTHER", "20240101", "datatype"), value(10, sketch(0, 10)));
+
+        ShardStatsSketchIterator iterator = new ShardStatsSketchIterator();
+        iterator.init(new SortedMapIterator(data), Collections.emptyMap(), null);
+        iterator.seek(new Range(), Collections.emptyList(), false);
+
+        assertTrue(iterator.hasTop());
+        assertEquals("FIELD", iterator.getTopKey().getRow().toString());
+        IndexStatsRecord record = record(iterator.getTopValue());
+        assertEquals(3000, record.getWordCount().get());
+        // summing the unique counts would give 3000, the merged sketch estimates 2000 to within a few percent
+        assertEquals(2000, record.getNumberOfUniqueWords().get(), 100);
+
+        iterator.next();
+        assertTrue(iterator.hasTop());
+        assertEquals("OTHER", iterator.getTopKey().getRow().toString());
+        record = record(iterator.getTopValue());
+        assertEquals(10, record.getWordCount().get());
+        assertEquals(10, record.getNumberOfUniqueWords().get());
+
+        iterator.next();
+        assertFalse(iterator.hasTop());
+    }
+
+    @Test
+    public void testEntriesWithoutSketchesAreSummed() throws IOException {
+        TreeMap<Key,Value> data = new TreeMap<>();
+        data.put(new Key("FIELD", "20240101", "datatype"), value(1000, sketch(0, 1000)));
+        data.put(new Key("FIELD", "20240102", "datatype"), value(2000, sketch(0, 2000)));
+        // written before sketches were enabled, so its unique count is added to the merged estimate
+        data.put(new Key("FIELD", "20240103", "datatype"), value(500, 50, null));
+
+        ShardStatsSketchIterator iterator = new ShardStatsSketchIterator();
+        iterator.init(new SortedMapIterator(data), Collections.emptyMap(), null);
+        iterator.seek(new Range(), Collections.emptyList(), false);
+
+        assertTrue(iterator.hasTop());
+        IndexStatsRecord record = record(iterator.getTopValue());
+        assertEquals(3500, record.getWordCount().get());
+        assertEquals(2050, record.getNumberOfUniqueWords().get(), 100);
+    }
+
+    private static HyperLogLogPlus sketch(int first, int last) {
+        HyperLogLogPlus sketch = new HyperLogLogPlus(PRECISION, PRECISION);
+        for (int i = first; i < last; i++) {
+            sketch.offer("value" + i);
+        }
+        return sketch;
+    }
+
+    private static Value value(long count, HyperLogLogPlus sketch) throws IOException {
+        return value(count, sketch.cardinality(), sketch.getBytes());
+    }
+
+    // written as by the shard stats job
+    private static Value value(long count, long unique, byte[] sketch) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(baos);
+        new VLongWritable(count).write(out);
+        new VLongWritable(unique).write(out);
+        new VIntWritable((int) (unique * 100 / count)).write(out);
+        if (null != sketch) {
+            new BytesWritable(sketch).write(out);
+        }
+        return new Value(baos.toByteArray());
+    }
+
+    private static IndexStatsRecord record(Value value) throws IOException {
+        IndexStatsRecord record = new IndexStatsRecord();
+        record.readFields(new DataInputStream(new ByteArrayInputStream(value.get())));
+        return record;
+    }
+}
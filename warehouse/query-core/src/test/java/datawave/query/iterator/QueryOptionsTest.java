@@ -7,6 +7,7 @@ import static datawave.query.iterator.QueryOptions.FI_FIELD_SEEK;
 import static datawave.query.iterator.QueryOptions.FI_NEXT_SEEK;
 import static datawave.query.iterator.QueryOptions.QUERY;
 import static datawave.query.iterator.QueryOptions.SEEKING_EVENT_AGGREGATION;
+import static datawave.query.iterator.QueryOptions.SORT_LIMIT;
 import static datawave.query.iterator.QueryOptions.TERM_FREQUENCY_AGGREGATION_THRESHOLD_MS;
 import static datawave.query.iterator.QueryOptions.TF_FIELD_SEEK;
 import static datawave.query.iterator.QueryOptions.TF_NEXT_SEEK;
@@ -155,6 +156,26 @@ public class QueryOptionsTest {
         assertTrue(options.isSeekingEventAggregation());
     }
 
+    @Test
+    public void testSortLimit() {
+        Map<String,String> optionsMap = new HashMap<>();
+        optionsMap.put(QUERY, "query option required to validate");
+        QueryOptions options = new QueryOptions();
+
+        optionsMap.put(SORT_LIMIT, "25");
+        options.validateOptions(optionsMap);
+        assertEquals(25, options.getSortLimit());
+
+        // an invalid limit keeps every document rather than failing the scan
+        optionsMap.put(SORT_LIMIT, "-5");
+        options.validateOptions(optionsMap);
+        assertEquals(0, options.getSortLimit());
+
+        optionsMap.put(SORT_LIMIT, "ten");
+        options.validateOptions(optionsMap);
+        assertEquals(0, options.getSortLimit());
+    }
+
     @Test
     public void testDocumentAndTermOffsetAggregationThresholds() {
         Map<String,String> optionsMap = new HashMap<>();
@@ -0,0 +1,193 @@
+package datawave.query.iterator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.PartialKey;
+import org.apache.accumulo.core.iterators.YieldCallback;
+import org.junit.Test;
+
+import com.google.common.collect.Maps;
+
+import datawave.query.attributes.Content;
+import datawave.query.attributes.Document;
+import datawave.query.attributes.SortFields;
+import datawave.query.common.sort.TopDocuments;
+
+public class TopDocumentsIteratorTest {
+
+    private static final String[] NAMES = {"mike", "bob", "zoe", "alice", "yan", "carol", "xavier", "dave", "wendy", "erin"};
+    private static final int LIMIT = 3;
+
+    private final SortFields sortFields = SortFields.from("NAME/desc");
+
+    @Test
+    public void testReturnsFirstDocumentsInKeyOrder() {
+        TopDocumentsIterator iterator = new TopDocumentsIterator(documents(0, NAMES.length).iterator(), sortFields, LIMIT, null);
+
+        // zoe, yan and xavier are the first three by descending name
+        assertEquals(List.of("uid02", "uid04", "uid06"), uids(drain(iterator)));
+    }
+
+    @Test
+    public void testYieldReturnsKeptDocumentsThenResumes() {
+        List<Map.Entry<Key,Document>> documents = documents(0, NAMES.length);
+        YieldCallback<Key> yieldCallback = new YieldCallback<>();
+
+        // the source yields after the fifth document, while the heap holds zoe, yan and mike
+        Key yieldKey = documents.get(4).getKey().followingKey(PartialKey.ROW_COLFAM);
+        TopDocumentsIterator first = new TopDocumentsIterator(new YieldingIterator(documents, 5, yieldKey, yieldCallback), sortFields, LIMIT, yieldCallback);
+
+        assertTrue(first.hasNext());
+        assertFalse("the yield is held back until the documents kept are returned", yieldCallback.hasYielded());
+        List<Map.Entry<Key,Document>> firstSession = drain(first);
+        assertEquals(List.of("uid00", "uid02", "uid04"), uids(firstSession));
+        assertTrue(yieldCallback.hasYielded());
+        assertEquals(yieldKey, yieldCallback.getPositionAndReset());
+
+        // the tablet server resumes the scan after the yield position
+        TopDocumentsIterator second = new TopDocumentsIterator(after(documents, yieldKey).iterator(), sortFields, LIMIT, yieldCallback);
+        List<Map.Entry<Key,Document>> secondSession = drain(second);
+        assertEquals(List.of("uid06", "uid08", "uid09"), uids(secondSession));
+        assertFalse(yieldCallback.hasYielded());
+
+        assertMergedFirstDocuments(documents, firstSession, secondSession);
+    }
+
+    @Test
+    public void testTeardownAfterEachDocumentResumesWithoutLosingDocuments() {
+        List<Map.Entry<Key,Document>> documents = documents(0, NAMES.length);
+        List<Map.Entry<Key,Document>> returned = new ArrayList<>();
+
+        // the tablet server tears down the iterator after every document and restarts it after the last key returned
+        Key last = null;
+        int sessions = 0;
+        while (true) {
+            List<Map.Entry<Key,Document>> remaining = last == null ? documents : after(documents, last);
+            TopDocumentsIterator iterator = new TopDocumentsIterator(remaining.iterator(), sortFields, LIMIT, null);
+            if (!iterator.hasNext()) {
+                break;
+            }
+            Map.Entry<Key,Document> entry = iterator.next();
+            returned.add(entry);
+            last = entry.getKey();
+            sessions++;
+        }
+
+        // every document returned is after the one before it, so none is returned twice
+        assertEquals(sessions, new HashSet<>(uids(returned)).size());
+        assertMergedFirstDocuments(documents, returned);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testNextWhenExhausted() {
+        TopDocumentsIterator iterator = new TopDocumentsIterator(documents(0, 0).iterator(), sortFields, LIMIT, null);
+        assertFalse(iterator.hasNext());
+        iterator.next();
+    }
+
+    /**
+     * Merge the documents returned by each session as the web server does, and check that they are the first documents of the whole range
+     */
+    @SafeVarargs
+    private void assertMergedFirstDocuments(List<Map.Entry<Key,Document>> documents, List<Map.Entry<Key,Document>>... sessions) {
+        TopDocuments expected = new TopDocuments(sortFields, LIMIT);
+        documents.forEach(expected::offer);
+
+        TopDocuments merged = new TopDocuments(sortFields, LIMIT);
+        Set<String> seen = new HashSet<>();
+        for (List<Map.Entry<Key,Document>> session : sessions) {
+            for (Map.Entry<Key,Document> entry : session) {
+                assertTrue("document returned twice: " + entry.getKey(), seen.add(uid(entry)));
+                merged.offer(entry);
+            }
+        }
+        assertEquals(uids(expected.drainSorted()), uids(merged.drainSorted()));
+    }
+
+    private static List<Map.Entry<Key,Document>> documents(int start, int end) {
+        List<Map.Entry<Key,Document>> documents = new ArrayList<>();
+        for (int i = start; i < end; i++) {
+            Key key = new Key("20240101_0", String.format("datatype\0uid%02d", i));
+            Document document = new Document(key, true);
+            document.put("NAME", new Content(NAMES[i], key, true));
+            documents.add(Maps.immutableEntry(key, document));
+        }
+        return documents;
+    }
+
+    private static List<Map.Entry<Key,Document>> after(List<Map.Entry<Key,Document>> documents, Key position) {
+        List<Map.Entry<Key,Document>> after = new ArrayList<>();
+        for (Map.Entry<Key,Document> entry : documents) {
+            if (entry.getKey().compareTo(position) > 0) {
+                after.add(entry);
+            }
+        }
+        return after;
+    }
+
+    private static List<Map.Entry<Key,Document>> drain(Iterator<Map.Entry<Key,Document>> iterator) {
+        List<Map.Entry<Key,Document>> entries = new ArrayList<>();
+        while (iterator.hasNext()) {
+            entries.add(iterator.next());
+        }
+        return entries;
+    }
+
+    private static String uid(Map.Entry<Key,Document> entry) {
+        String cf = entry.getKey().getColumnFamily().toString();
+        return cf.substring(cf.indexOf('\0') + 1);
+    }
+
+    private static List<String> uids(List<Map.Entry<Key,Document>> entries) {
+        List<String> uids = new ArrayList<>();
+        for (Map.Entry<Key,Document> entry : entries) {
+            uids.add(uid(entry));
+        }
+        return uids;
+    }
+
+    /**
+     * Returns the first documents of a list, and then yields at a position rather than returning the rest
+     */
+    private static class YieldingIterator implements Iterator<Map.Entry<Key,Document>> {
+        private final Iterator<Map.Entry<Key,Document>> documents;
+        private final Key yieldKey;
+        private final YieldCallback<Key> yieldCallback;
+        private int remaining;
+
+        YieldingIterator(List<Map.Entry<Key,Document>> documents, int count, Key yieldKey, YieldCallback<Key> yieldCallback) {
+            this.documents = documents.iterator();
+            this.remaining = count;
+            this.yieldKey = yieldKey;
+            this.yieldCallback = yieldCallback;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (remaining == 0) {
+                if (!yieldCallback.hasYielded()) {
+                    yieldCallback.yield(yieldKey);
+                }
+                return false;
+            }
+            return documents.hasNext();
+        }
+
+        @Override
+        public Map.Entry<Key,Document> next() {
+            remaining--;
+            return documents.next();
+        }
+    }
+}
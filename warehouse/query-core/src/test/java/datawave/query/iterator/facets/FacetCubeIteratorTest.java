@@ -0,0 +1,179 @@
+package datawave.query.iterator.facets;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iteratorsImpl.system.SortedMapIterator;
+import org.junit.Before;
+import org.junit.Test;
+
+import datawave.ingest.mapreduce.handler.facet.FacetCubes;
+
+public class FacetCubeIteratorTest {
+
+    private static final String FACET = "paris\0europe\0cities";
+    private static final String OTHER_FACET = "paris\0france\0cities";
+    private static final String CF = "CITY\0CONTINENT";
+
+    private SortedMap<Key,Value> data;
+    private Set<String> rollupPivots;
+    private int maxNextCount;
+    private int seeks;
+
+    @Before
+    public void setup() {
+        data = new TreeMap<>();
+        rollupPivots = Collections.singleton("CITY");
+        maxNextCount = FacetCubeIterator.DEFAULT_MAX_NEXT_COUNT;
+        // daily cubes for every day of January 2024, the first of which is a Monday
+        for (LocalDate day = LocalDate.of(2024, 1, 1); day.getMonthValue() == 1; day = day.plusDays(1)) {
+            put(FACET, FacetCubes.dayQualifier(day));
+            put(OTHER_FACET, FacetCubes.dayQualifier(day));
+        }
+        // weekly cubes for the first three weeks of one facet only, the first being when rollup was configured
+        put(FACET, FacetCubes.weekQualifier(LocalDate.of(2024, 1, 1)));
+        put(FACET, FacetCubes.weekQualifier(LocalDate.of(2024, 1, 8)));
+        put(FACET, FacetCubes.weekQualifier(LocalDate.of(2024, 1, 15)));
+    }
+
+    @Test
+    public void testWeeklyCubesReplaceTheirDays() throws IOException {
+        List<String> cubes = cubes(LocalDate.of(2024, 1, 5), LocalDate.of(2024, 1, 23));
+
+        List<String> expected = new ArrayList<>();
+        expected.add(FACET + " 20240105");
+        expected.add(FACET + " 20240106");
+        expected.add(FACET + " 20240107");
+        expected.add(FACET + " 20240122");
+        expected.add(FACET + " 20240123");
+        expected.add(FACET + " W20240108");
+        expected.add(FACET + " W20240115");
+        for (int day = 5; day <= 23; day++) {
+            expected.add(OTHER_FACET + " " + String.format("202401%02d", day));
+        }
+        Collections.sort(expected);
+        assertEquals(expected, cubes);
+    }
+
+    @Test
+    public void testPartialWeeksUseDailyCubes() throws IOException {
+        List<String> cubes = cubes(LocalDate.of(2024, 1, 9), LocalDate.of(2024, 1, 20));
+
+        List<String> expected = new ArrayList<>();
+        for (int day = 9; day <= 20; day++) {
+            expected.add(FACET + " " + String.format("202401%02d", day));
+            expected.add(OTHER_FACET + " " + String.format("202401%02d", day));
+        }
+        Collections.sort(expected);
+        assertEquals(expected, cubes);
+    }
+
+    @Test
+    public void testFirstWeekOfRollupUsesDailyCubes() throws IOException {
+        List<String> cubes = cubes(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 21));
+
+        List<String> expected = new ArrayList<>();
+        for (int day = 1; day <= 7; day++) {
+            expected.add(FACET + " " + String.format("202401%02d", day));
+        }
+        expected.add(FACET + " W20240108");
+        expected.add(FACET + " W20240115");
+        for (int day = 1; day <= 21; day++) {
+            expected.add(OTHER_FACET + " " + String.format("202401%02d", day));
+        }
+        Collections.sort(expected);
+        assertEquals(expected, cubes);
+    }
+
+    @Test
+    public void testPivotNotRolledUpUsesDailyCubes() throws IOException {
+        rollupPivots = Collections.emptySet();
+        List<String> cubes = cubes(LocalDate.of(2024, 1, 5), LocalDate.of(2024, 1, 23));
+
+        List<String> expected = new ArrayList<>();
+        for (int day = 5; day <= 23; day++) {
+            expected.add(FACET + " " + String.format("202401%02d", day));
+            expected.add(OTHER_FACET + " " + String.format("202401%02d", day));
+        }
+        Collections.sort(expected);
+        assertEquals(expected, cubes);
+        // FACET is found, then its daily cubes are sought, reading on to OTHER_FACET, whose daily cubes are sought and read on to the end of the source
+        assertEquals(3, seeks);
+    }
+
+    @Test
+    public void testWeeklyCubeSeekFindsTheNextFacet() throws IOException {
+        cubes(LocalDate.of(2024, 1, 5), LocalDate.of(2024, 1, 23));
+        // FACET is found, then its weekly cubes, which start before the date range, so are sought again, then its two ranges of daily cubes. The seek for
+        // the weekly cubes of OTHER_FACET finds none and runs off the end of the range, so only its daily cubes are sought.
+        assertEquals(7, seeks);
+    }
+
+    @Test
+    public void testNoWeeklyCubeSeekWithoutFullWeek() throws IOException {
+        cubes(LocalDate.of(2024, 1, 9), LocalDate.of(2024, 1, 20));
+        // FACET is found, then its daily cubes are sought, reading on to OTHER_FACET, whose daily cubes are sought and read on to the end of the source
+        assertEquals(3, seeks);
+    }
+
+    @Test
+    public void testNextFacetSoughtAfterMaxNextCount() throws IOException {
+        maxNextCount = 4;
+        List<String> cubes = cubes(LocalDate.of(2024, 1, 9), LocalDate.of(2024, 1, 20));
+
+        assertEquals(24, cubes.size());
+        // reading on past the daily cubes of each facet gives up before the next facet, so each facet is found by a seek, as is the end of the range
+        assertEquals(5, seeks);
+    }
+
+    @Test
+    public void testFullWeeks() {
+        assertEquals(LocalDate.of(2024, 1, 8), FacetCubes.firstFullWeek(LocalDate.of(2024, 1, 2)));
+        assertEquals(LocalDate.of(2024, 1, 8), FacetCubes.firstFullWeek(LocalDate.of(2024, 1, 8)));
+        assertEquals(LocalDate.of(2024, 1, 8), FacetCubes.lastFullWeek(LocalDate.of(2024, 1, 14)));
+        assertEquals(LocalDate.of(2024, 1, 8), FacetCubes.lastFullWeek(LocalDate.of(2024, 1, 20)));
+        assertEquals("W20240108", FacetCubes.weekQualifier(LocalDate.of(2024, 1, 14)));
+    }
+
+    private void put(String row, String cq) {
+        data.put(new Key(row, CF, cq), new Value(new byte[0]));
+    }
+
+    private List<String> cubes(LocalDate begin, LocalDate end) throws IOException {
+        seeks = 0;
+        SortedMapIterator source = new SortedMapIterator(data) {
+            @Override
+            public void seek(Range range, Collection<ByteSequence> columnFamilies, boolean inclusive) throws IOException {
+                seeks++;
+                super.seek(range, columnFamilies, inclusive);
+            }
+        };
+        Range range = new Range("paris\0", "paris\uffff");
+        long beginTime = FacetCubes.toMillis(begin);
+        long endTime = FacetCubes.toMillis(end.plusDays(1)) - 1;
+
+        List<String> cubes = new ArrayList<>();
+        FacetCubeIterator iterator = new FacetCubeIterator(source, range, Collections.emptyList(), false, beginTime, endTime, rollupPivots);
+        iterator.setMaxNextCount(maxNextCount);
+        while (iterator.hasNext()) {
+            Key key = iterator.next().getKey();
+            cubes.add(key.getRow() + " " + key.getColumnQualifier());
+        }
+        Collections.sort(cubes);
+        return cubes;
+    }
+}
@@ -0,0 +1,116 @@
+package datawave.query.iterator.filter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.accumulo.core.data.Key;
+import org.junit.Test;
+
+import datawave.edge.model.EdgeModelFields.FieldKey;
+import datawave.query.jexl.ArithmeticJexlEngines;
+import datawave.query.jexl.DatawaveJexlEngine;
+import datawave.query.jexl.DefaultArithmetic;
+
+public class EdgeFilterIteratorTest {
+
+    private static final DatawaveJexlEngine engine = ArithmeticJexlEngines.getEngine(new DefaultArithmetic());
+
+    private static final Key PROTOBUF_KEY = new Key("Source\0Sink", "TYPE/FROM-TO", "20240101/ATTR1/ATTR2");
+    private static final Key LEGACY_KEY = new Key("source\0sink", "type/from-to/attr1", "20240101");
+    private static final Key STATS_KEY = new Key("source", "STATS/ACTIVITY/TYPE/FROM", "20240101/attr1");
+    private static final Key ESCAPED_KEY = new Key("sou\\u0072ce\0sink", "type/from-to", "20240101/attr1");
+
+    @Test
+    public void testEquality() throws IOException {
+        assertTrue(accept("EDGE_SOURCE == 'source' && EDGE_SINK == 'sink'", PROTOBUF_KEY, true));
+        assertFalse(accept("EDGE_SOURCE == 'source' && EDGE_SINK == 'other'", PROTOBUF_KEY, true));
+        assertTrue(accept("EDGE_SOURCE == 'other' || EDGE_TYPE == 'type'", PROTOBUF_KEY, true));
+        assertTrue(accept("EDGE_SOURCE != 'other'", PROTOBUF_KEY, true));
+        assertFalse(accept("!(EDGE_RELATIONSHIP == 'from-to')", PROTOBUF_KEY, true));
+        assertTrue(accept("EDGE_ATTRIBUTE1 == 'attr1' and EDGE_ATTRIBUTE2 == 'attr2'", PROTOBUF_KEY, true));
+        assertTrue(accept("EDGE_ATTRIBUTE1 == 'attr1' && DATE == '20240101'", LEGACY_KEY, false));
+    }
+
+    @Test
+    public void testMissingFields() throws IOException {
+        assertFalse(accept("EDGE_ATTRIBUTE3 == 'attr3'", PROTOBUF_KEY, true));
+        assertTrue(accept("EDGE_ATTRIBUTE3 != 'attr3'", PROTOBUF_KEY, true));
+        assertFalse(accept("EDGE_ATTRIBUTE2 == 'attr2'", LEGACY_KEY, false));
+    }
+
+    @Test
+    public void testRegexAndRanges() throws IOException {
+        assertTrue(accept("EDGE_SOURCE =~ 'sou.*' && EDGE_SINK !~ 'x.*'", PROTOBUF_KEY, true));
+        assertFalse(accept("EDGE_SOURCE =~ 'sin.*'", PROTOBUF_KEY, true));
+        assertTrue(accept("DATE >= '20240101' && DATE < '20240102'", PROTOBUF_KEY, true));
+        assertFalse(accept("DATE > '20240101'", PROTOBUF_KEY, true));
+        assertFalse(accept("DATE <= '2024'", PROTOBUF_KEY, true));
+    }
+
+    @Test
+    public void testStatsEdges() throws IOException {
+        assertTrue(accept("EDGE_SOURCE == 'other'", STATS_KEY, true));
+
+        Map<String,String> options = options("EDGE_SOURCE == 'other'", true);
+        options.put(EdgeFilterIterator.JEXL_STATS_OPTION, "EDGE_TYPE == 'type' && DATE == '20240101'");
+        assertTrue(accept(options, STATS_KEY));
+        options.put(EdgeFilterIterator.JEXL_STATS_OPTION, "EDGE_TYPE == 'other'");
+        assertFalse(accept(options, STATS_KEY));
+
+        options.put(EdgeFilterIterator.INCLUDE_STATS_OPTION, "false");
+        assertFalse(accept(options, STATS_KEY));
+    }
+
+    @Test
+    public void testEscapedVertexFallsBackToJexl() throws IOException {
+        EdgeKeyFields fields = new EdgeKeyFields();
+        assertTrue(fields.set(ESCAPED_KEY, true));
+        assertTrue(fields.isOpaque(FieldKey.EDGE_SOURCE));
+        assertFalse(fields.isOpaque(FieldKey.EDGE_SINK));
+
+        EdgeKeyPredicate predicate = EdgeKeyPredicate.compile(engine, "edge_source == 'source'");
+        assertNotNull(predicate);
+        assertEquals(EdgeKeyPredicate.UNKNOWN, predicate.evaluate(fields));
+        assertTrue(accept("EDGE_SOURCE == 'source'", ESCAPED_KEY, true));
+    }
+
+    @Test
+    public void testUnsupportedExpressionsAreNotCompiled() {
+        assertNotNull(EdgeKeyPredicate.compile(engine, "(edge_source == 'a' || edge_source == 'b') && !(edge_type =~ 'c.*')"));
+        assertNull(EdgeKeyPredicate.compile(engine, "edge_source == edge_sink"));
+        assertNull(EdgeKeyPredicate.compile(engine, "unknown_field == 'a'"));
+        assertNull(EdgeKeyPredicate.compile(engine, "filter:includeregex(edge_source, 'a.*')"));
+    }
+
+    @Test
+    public void testUndecodableRowFallsBackToJexl() throws IOException {
+        Key key = new Key("source\0\0sink", "type/from-to", "20240101");
+        assertFalse(new EdgeKeyFields().set(key, true));
+        assertTrue(accept("EDGE_SOURCE == 'source' && EDGE_SINK == 'sink'", key, true));
+    }
+
+    private static Map<String,String> options(String query, boolean protobuff) {
+        Map<String,String> options = new HashMap<>();
+        options.put(EdgeFilterIterator.JEXL_OPTION, query);
+        options.put(EdgeFilterIterator.PROTOBUF_OPTION, Boolean.toString(protobuff));
+        options.put(EdgeFilterIterator.INCLUDE_STATS_OPTION, "true");
+        return options;
+    }
+
+    private static boolean accept(String query, Key key, boolean protobuff) throws IOException {
+        return accept(options(query, protobuff), key);
+    }
+
+    private static boolean accept(Map<String,String> options, Key key) throws IOException {
+        EdgeFilterIterator iterator = new EdgeFilterIterator();
+        iterator.init(null, options);
+        return iterator.accept(key, null);
+    }
+}
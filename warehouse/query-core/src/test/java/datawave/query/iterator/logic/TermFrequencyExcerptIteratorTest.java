@@ -10,12 +10,15 @@ import static org.junit.Assert.assertTrue;
 import java.io.IOException;
 import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
+import org.apache.accumulo.core.data.ByteSequence;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.PartialKey;
 import org.apache.accumulo.core.data.Range;
@@ -537,4 +540,183 @@ public class TermFrequencyExcerptIteratorTest extends EasyMockSupport {
                         + Constants.NULL + "one dos three [four(89)] [cinco(88)] seis siete ocho nine diez" + Constants.NULL
                         + "one dos three [four] five seis siete ocho nine diez"), topKey.getColumnQualifier());
     }
+
+    /**
+     * Verify that further excerpts from the same document for the cached fields are generated without seeking the source again, and that they match the
+     * excerpts that would be generated by scanning the document.
+     */
+    @Test
+    public void testCachedFieldsScanDocumentOnce() throws IOException {
+        SeekCountingIterator counting = new SeekCountingIterator(source);
+        Key startKey = new Key(row, new Text("email" + Constants.NULL + "111.222.333"));
+        Range range = new Range(startKey, true, startKey.followingKey(PartialKey.ROW_COLFAM), false);
+
+        givenOptions("BODY", 1, 5);
+        iterator.init(counting, options, env);
+        iterator.setHitTermsList(new ArrayList<>(List.of("")));
+        iterator.setCachedFields(Set.of("BODY", "CONTENT"));
+        iterator.seek(range, Collections.emptyList(), false);
+
+        assertTrue(iterator.hasTop());
+        assertEquals(new Text(
+                        "BODY" + Constants.NULL + "XXXWESKIPPEDAWORDXXX" + Constants.NULL + "XXXWESKIPPEDAWORDXXX" + Constants.NULL + "XXXWESKIPPEDAWORDXXX"),
+                        iterator.getTopKey().getColumnQualifier());
+        iterator.next();
+        assertFalse(iterator.hasTop());
+        assertEquals(1, counting.seeks);
+
+        // the second attempt with a larger range and trimming
+        givenOptions("BODY", 0, 6);
+        iterator.init(counting, options, env);
+        iterator.setHitTermsList(new ArrayList<>(List.of("")));
+        iterator.setTrimExcerpt(true);
+        iterator.setOrigHalfSize(20);
+        iterator.setCachedFields(Set.of("BODY", "CONTENT"));
+        iterator.seek(range, Collections.emptyList(), false);
+
+        assertTrue(iterator.hasTop());
+        Key topKey = iterator.getTopKey();
+        assertEquals(row, topKey.getRow());
+        assertEquals(new Text("email" + Constants.NULL + "111.222.333"), topKey.getColumnFamily());
+        assertEquals(new Text("BODY" + Constants.NULL + "XXXNOTSCOREDXXX" + Constants.NULL + "the coldest tale ever told" + Constants.NULL + "XXXNOTSCOREDXXX"),
+                        topKey.getColumnQualifier());
+
+        // another cached field of the same document
+        givenOptions("CONTENT", 0, 3);
+        iterator.init(counting, options, env);
+        iterator.setHitTermsList(new ArrayList<>(List.of("far")));
+        iterator.setTrimExcerpt(true);
+        iterator.setOrigHalfSize(20);
+        iterator.setCachedFields(Set.of("BODY", "CONTENT"));
+        iterator.seek(range, Collections.emptyList(), false);
+
+        assertTrue(iterator.hasTop());
+        assertEquals(new Text("CONTENT" + Constants.NULL + "XXXNOTSCOREDXXX" + Constants.NULL + "somewhere [far] along" + Constants.NULL + "XXXNOTSCOREDXXX"),
+                        iterator.getTopKey().getColumnQualifier());
+        assertEquals(1, counting.seeks);
+
+        // a later document of the row is read by moving forward rather than seeking
+        startKey = new Key(row, new Text("email" + Constants.NULL + "123.456.789"));
+        range = new Range(startKey, true, startKey.followingKey(PartialKey.ROW_COLFAM), false);
+        givenOptions("BODY", 1, 5);
+        iterator.init(counting, options, env);
+        iterator.setHitTermsList(new ArrayList<>(List.of("")));
+        iterator.setCachedFields(Set.of("BODY", "CONTENT"));
+        iterator.seek(range, Collections.emptyList(), false);
+
+        assertTrue(iterator.hasTop());
+        assertEquals(new Text("BODY" + Constants.NULL + "XXXNOTSCOREDXXX" + Constants.NULL + "quick brown fox jumped" + Constants.NULL + "XXXNOTSCOREDXXX"),
+                        iterator.getTopKey().getColumnQualifier());
+        assertEquals(1, counting.seeks);
+
+        // an earlier document is seeked to
+        startKey = new Key(row, new Text("email" + Constants.NULL + "111.222.333"));
+        range = new Range(startKey, true, startKey.followingKey(PartialKey.ROW_COLFAM), false);
+        givenOptions("CONTENT", 0, 3);
+        iterator.init(counting, options, env);
+        iterator.setHitTermsList(new ArrayList<>(List.of("far")));
+        iterator.setCachedFields(Set.of("BODY", "CONTENT"));
+        iterator.seek(range, Collections.emptyList(), false);
+
+        assertTrue(iterator.hasTop());
+        assertEquals(new Text("CONTENT" + Constants.NULL + "XXXNOTSCOREDXXX" + Constants.NULL + "somewhere [far] along" + Constants.NULL + "XXXNOTSCOREDXXX"),
+                        iterator.getTopKey().getColumnQualifier());
+        assertEquals(2, counting.seeks);
+    }
+
+    /**
+     * Verify that a later document is seeked to once more keys than the max next count lie between it and the last document read.
+     */
+    @Test
+    public void testMaxNextCountSeeksToLaterDocument() throws IOException {
+        SeekCountingIterator counting = new SeekCountingIterator(source);
+        iterator.setMaxNextCount(5);
+
+        // the first document of the row
+        Key startKey = new Key(row, new Text("email" + Constants.NULL + "111.222.333"));
+        givenOptions("BODY", 0, 6);
+        iterator.init(counting, options, env);
+        iterator.setHitTermsList(new ArrayList<>(List.of("")));
+        iterator.setTrimExcerpt(true);
+        iterator.setCachedFields(Set.of("BODY"));
+        iterator.seek(new Range(startKey, true, startKey.followingKey(PartialKey.ROW_COLFAM), false), Collections.emptyList(), false);
+        assertTrue(iterator.hasTop());
+        assertEquals(1, counting.seeks);
+
+        // the documents after it have more than 5 keys, so the last is seeked to
+        startKey = new Key(row, new Text("email" + Constants.NULL + "888.777.666"));
+        givenOptions("BODY", 0, 3);
+        iterator.init(counting, options, env);
+        iterator.setHitTermsList(new ArrayList<>(List.of("")));
+        iterator.setCachedFields(Set.of("BODY"));
+        iterator.seek(new Range(startKey, true, startKey.followingKey(PartialKey.ROW_COLFAM), false), Collections.emptyList(), false);
+        assertTrue(iterator.hasTop());
+        assertEquals(new Text("email" + Constants.NULL + "888.777.666"), iterator.getTopKey().getColumnFamily());
+        assertEquals(2, counting.seeks);
+    }
+
+    /**
+     * Verify that the excerpt key is the same whether or not the document's term frequencies were cached.
+     */
+    @Test
+    public void testCachedAndUncachedExcerptKeysMatch() throws IOException {
+        Key startKey = new Key(row, new Text("scan" + Constants.NULL + "987.654.321"));
+        Range range = new Range(startKey, true, startKey.followingKey(PartialKey.ROW_COLFAM), false);
+
+        givenOptions("TITLE", 0, 3);
+        initIterator();
+        iterator.setHitTermsList(new ArrayList<>(List.of("scan")));
+        iterator.seek(range, Collections.emptyList(), false);
+        assertTrue(iterator.hasTop());
+        Key uncached = iterator.getTopKey();
+
+        TermFrequencyExcerptIterator cachingIterator = new TermFrequencyExcerptIterator();
+        cachingIterator.init(new SortedListKeyValueIterator(source), options, env);
+        cachingIterator.setHitTermsList(new ArrayList<>(List.of("scan")));
+        cachingIterator.setCachedFields(Set.of("TITLE", "CONTENT"));
+        cachingIterator.seek(range, Collections.emptyList(), false);
+        assertTrue(cachingIterator.hasTop());
+
+        assertEquals(uncached, cachingIterator.getTopKey());
+        assertEquals(uncached.getTimestamp(), cachingIterator.getTopKey().getTimestamp());
+    }
+
+    /**
+     * Verify that the term frequencies of a hit term are read with the rest of the document's cached fields, which then answer its excerpts.
+     */
+    @Test
+    public void testGetTermWeightCachesDocument() throws IOException {
+        SeekCountingIterator counting = new SeekCountingIterator(source);
+        Key docKey = new Key(row, new Text("email" + Constants.NULL + "123.456.789"));
+
+        TermWeight.Info info = iterator.getTermWeight(counting, Set.of("BODY", "CONTENT"), docKey, "BODY", "fox");
+        assertEquals(List.of(3), info.getTermOffsetList());
+        assertEquals(null, iterator.getTermWeight(counting, Set.of("BODY", "CONTENT"), docKey, "BODY", "star"));
+        assertEquals(List.of(10, 13), iterator.getTermWeight(counting, Set.of("BODY", "CONTENT"), docKey, "CONTENT", "star").getTermOffsetList());
+        assertEquals(1, counting.seeks);
+
+        givenOptions("BODY", 1, 5);
+        iterator.init(counting, options, env);
+        iterator.setHitTermsList(new ArrayList<>(List.of("fox")));
+        iterator.setCachedFields(Set.of("BODY", "CONTENT"));
+        iterator.seek(new Range(docKey, true, docKey.followingKey(PartialKey.ROW_COLFAM), false), Collections.emptyList(), false);
+        assertTrue(iterator.hasTop());
+        assertEquals(new Text("BODY" + Constants.NULL + "XXXNOTSCOREDXXX" + Constants.NULL + "quick brown [fox] jumped" + Constants.NULL + "XXXNOTSCOREDXXX"),
+                        iterator.getTopKey().getColumnQualifier());
+        assertEquals(1, counting.seeks);
+    }
+
+    private static class SeekCountingIterator extends SortedListKeyValueIterator {
+        private int seeks;
+
+        SeekCountingIterator(List<Map.Entry<Key,Value>> sourceList) {
+            super(sourceList);
+        }
+
+        @Override
+        public void seek(Range range, Collection<ByteSequence> columnFamilies, boolean inclusive) throws IOException {
+            seeks++;
+            super.seek(range, columnFamilies, inclusive);
+        }
+    }
 }
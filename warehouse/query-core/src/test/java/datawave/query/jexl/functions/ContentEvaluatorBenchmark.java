@@ -0,0 +1,156 @@
+package datawave.query.jexl.functions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import datawave.ingest.protobuf.TermWeight;
+import datawave.ingest.protobuf.TermWeightPosition;
+import datawave.query.postprocessing.tf.TermOffsetMap;
+
+/**
+ * Measures the {@link ContentOrderedEvaluator} and {@link ContentUnorderedEvaluator} over the term frequencies of a single long document, both from the
+ * {@link TermWeightPosition} lists they are given and from {@link TermPositions} decoded straight from the term frequencies, along with the cost of each
+ * decode. The document is drawn from a Zipf-like vocabulary with some skip words, and the function terms are two very common words and a rare word that only
+ * appears once near the end of the document, so every evaluation walks most of the positions before it matches. Run with <code>mvn test-compile exec:java
+ * -Dexec.classpathScope=test -Dexec.mainClass=datawave.query.jexl.functions.ContentEvaluatorBenchmark</code> or through the main method from an IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContentEvaluatorBenchmark {
+
+    private static final String FIELD = "BODY";
+    private static final String EVENT_ID = "20240101_0\u0000datatype\u0000uid";
+    private static final int VOCABULARY_SIZE = 5000;
+    private static final int RARE_RANK = 500;
+    private static final String[] TERMS = {"the", "of", "rare"};
+    private static final int[] RANKS = {1, 2, RARE_RANK};
+
+    @Param({"1000", "100000"})
+    public int documentLength;
+
+    private List<List<TermWeightPosition>> offsets;
+    private TermWeight.Info[] infos;
+    private TermPositions[] positions;
+
+    private ContentOrderedEvaluator phrase;
+    private ContentUnorderedEvaluator within;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+
+        // the rank of the word at each position, a rank of zero is a skip word
+        int[] document = new int[documentLength];
+        for (int i = 0; i < documentLength; i++) {
+            if (random.nextInt(10) == 0) {
+                document[i] = 0;
+            } else {
+                int rank = (int) Math.exp(random.nextDouble() * Math.log(VOCABULARY_SIZE));
+                document[i] = rank == RARE_RANK ? RARE_RANK + 1 : rank;
+            }
+        }
+        int end = documentLength - 10;
+        document[end - 2] = RANKS[0];
+        document[end - 1] = RANKS[1];
+        document[end] = RARE_RANK;
+
+        offsets = new ArrayList<>(TERMS.length);
+        infos = new TermWeight.Info[TERMS.length];
+        for (int t = 0; t < TERMS.length; t++) {
+            TermWeight.Info.Builder info = TermWeight.Info.newBuilder().setZeroOffsetMatch(true);
+            int offset = 0;
+            int skips = 0;
+            for (int rank : document) {
+                if (rank == 0) {
+                    skips++;
+                    continue;
+                }
+                if (rank == RANKS[t]) {
+                    info.addTermOffset(offset).addPrevSkips(skips).addScore(random.nextInt(1000000));
+                }
+                offset++;
+                skips = 0;
+            }
+            infos[t] = info.build();
+            offsets.add(decode(infos[t]));
+        }
+        positions = decodeTermPositions();
+
+        TermOffsetMap termOffsetMap = new TermOffsetMap();
+        phrase = new ContentOrderedEvaluator(Collections.singleton(FIELD), 1, Float.NEGATIVE_INFINITY, termOffsetMap, TERMS);
+        within = new ContentUnorderedEvaluator(Collections.singleton(FIELD), 3, Float.NEGATIVE_INFINITY, termOffsetMap, TERMS);
+    }
+
+    @Benchmark
+    public boolean phraseFromPositions() {
+        return phrase.evaluate(FIELD, EVENT_ID, offsets);
+    }
+
+    @Benchmark
+    public boolean phraseFromTermPositions() {
+        return phrase.evaluate(FIELD, EVENT_ID, positions);
+    }
+
+    @Benchmark
+    public boolean withinFromPositions() {
+        return within.evaluate(FIELD, EVENT_ID, offsets);
+    }
+
+    @Benchmark
+    public boolean withinFromTermPositions() {
+        return within.evaluate(FIELD, EVENT_ID, positions);
+    }
+
+    @Benchmark
+    public void decodePositions(Blackhole blackhole) {
+        for (TermWeight.Info info : infos) {
+            blackhole.consume(decode(info));
+        }
+    }
+
+    @Benchmark
+    public TermPositions[] decodeTermPositions() {
+        TermPositions[] positions = new TermPositions[infos.length];
+        for (int i = 0; i < infos.length; i++) {
+            positions[i] = TermPositions.of(infos[i]);
+        }
+        return positions;
+    }
+
+    private static List<TermWeightPosition> decode(TermWeight.Info info) {
+        List<TermWeightPosition> positions = new ArrayList<>(info.getTermOffsetCount());
+        TermWeightPosition.Builder builder = new TermWeightPosition.Builder();
+        for (int i = 0; i < info.getTermOffsetCount(); i++) {
+            positions.add(builder.setTermWeightOffsetInfo(info, i).build());
+            builder.reset();
+        }
+        return positions;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ContentEvaluatorBenchmark.class.getSimpleName()).build()).run();
+    }
+}
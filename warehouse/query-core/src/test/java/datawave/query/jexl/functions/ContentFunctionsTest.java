@@ -28,6 +28,7 @@ import org.junit.Test;
 
 import com.google.common.collect.TreeMultimap;
 
+import datawave.ingest.protobuf.TermWeight;
 import datawave.ingest.protobuf.TermWeightPosition;
 import datawave.query.Constants;
 import datawave.query.jexl.ArithmeticJexlEngines;
@@ -2036,4 +2037,118 @@ public class ContentFunctionsTest {
         String[] terms = new String[] {"blue", "fish"};
         assertEquals(Set.of(), ContentFunctions.phrase("BODY", termOffsetMap, terms));
     }
+
+    private TermWeight.Info info(boolean zeroOffsetMatch, List<Integer> offsets, List<Integer> skips) {
+        return TermWeight.Info.newBuilder().addAllTermOffset(offsets).addAllPrevSkips(skips).setZeroOffsetMatch(zeroOffsetMatch).build();
+    }
+
+    private TermWeight.Info info(List<Integer> offsets, List<Integer> skips, List<Float> scores) {
+        TermWeight.Info.Builder builder = TermWeight.Info.newBuilder().addAllTermOffset(offsets).addAllPrevSkips(skips);
+        for (float score : scores) {
+            builder.addScore(TermWeightPosition.positionScoreToTermWeightScore(score));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Build a term frequency list the same way the term offset populator does, decoding each term frequency value for the zone in turn
+     */
+    private TermFrequencyList termFrequencies(Zone zone, TermWeight.Info... infos) {
+        TermFrequencyList list = new TermFrequencyList();
+        for (TermWeight.Info info : infos) {
+            list.addPositions(zone, TermPositions.of(info));
+        }
+        return list;
+    }
+
+    @Test
+    public void testWithinFromTermFrequencies() {
+        String query = buildFunction(ContentFunctions.CONTENT_WITHIN_FUNCTION_NAME, "1", Constants.TERM_OFFSET_MAP_JEXL_VARIABLE_NAME, "'dog'", "'cat'");
+        JexlExpression expr = engine.createExpression(query);
+
+        Zone zone = new Zone("CONTENT", true, eventId);
+        termOffSetMap.putTermFrequencyList("dog", termFrequencies(zone, info(true, List.of(1, 2, 3), List.of(0, 0, 0))));
+        termOffSetMap.putTermFrequencyList("cat", termFrequencies(zone, info(true, List.of(5, 6, 7), List.of(0, 2, 0))));
+        termOffSetMap.setExcerptFields(Set.of("CONTENT"));
+
+        context.set(Constants.TERM_OFFSET_MAP_JEXL_VARIABLE_NAME, termOffSetMap);
+        Object o = expr.evaluate(context);
+
+        assertTrue(expect(o, true));
+        assertPhraseOffset("CONTENT", 3, 4);
+    }
+
+    @Test
+    public void testPhraseFromUnorderedAndRepeatedTermFrequencies() {
+        String query = buildFunction(phraseFunction, Constants.TERM_OFFSET_MAP_JEXL_VARIABLE_NAME, "'dog'", "'cat'");
+        JexlExpression expr = engine.createExpression(query);
+
+        // the dog offsets arrive out of order and the second value repeats offset 2
+        Zone zone = new Zone("CONTENT", true, eventId);
+        termOffSetMap.putTermFrequencyList("dog",
+                        termFrequencies(zone, info(true, List.of(9, 2), List.of(0, 0)), info(true, List.of(2, 5), List.of(0, 0))));
+        termOffSetMap.putTermFrequencyList("cat", termFrequencies(zone, info(true, List.of(3), List.of(0))));
+        termOffSetMap.setExcerptFields(Set.of("CONTENT"));
+
+        assertEquals("[2-2, 5-5, 9-9]", termOffSetMap.getTermFrequencyList("dog").getPositions(zone).toString());
+
+        context.set(Constants.TERM_OFFSET_MAP_JEXL_VARIABLE_NAME, termOffSetMap);
+        Object o = expr.evaluate(context);
+
+        assertTrue(expect(o, true));
+        assertPhraseOffset("CONTENT", 2, 3);
+    }
+
+    @Test
+    public void testPhraseTermOverlapWithSkipsFromTermFrequencies() {
+        String query = buildFunction(phraseFunction, Constants.TERM_OFFSET_MAP_JEXL_VARIABLE_NAME, "'cat'", "'rat'", "'dog'");
+        JexlExpression expr = engine.createExpression(query);
+
+        Zone zone = new Zone("CONTENT", true, eventId);
+        termOffSetMap.putTermFrequencyList("dog", termFrequencies(zone, info(false, List.of(135), List.of(6))));
+        termOffSetMap.putTermFrequencyList("cat", termFrequencies(zone, info(true, List.of(135), List.of(6))));
+        termOffSetMap.putTermFrequencyList("rat", termFrequencies(zone, info(true, List.of(1), List.of(1))));
+        termOffSetMap.setExcerptFields(Set.of("CONTENT"));
+
+        context.set(Constants.TERM_OFFSET_MAP_JEXL_VARIABLE_NAME, termOffSetMap);
+        Object o = expr.evaluate(context);
+
+        assertTrue(expect(o, false));
+        assertPhraseOffsetsEmpty();
+    }
+
+    @Test
+    public void testScoredPhraseFromTermFrequencies() {
+        String query = buildFunction(scoredPhraseFunction, "'CONTENT'", "-0.200", Constants.TERM_OFFSET_MAP_JEXL_VARIABLE_NAME, "'dog'", "'cat'");
+        JexlExpression expr = engine.createExpression(query);
+
+        Zone zone = new Zone("CONTENT", true, eventId);
+        termOffSetMap.putTermFrequencyList("dog", termFrequencies(zone, info(List.of(1, 2, 3), List.of(0, 0, 0), List.of(-0.223f, -1.4339f, -0.0001f))));
+        termOffSetMap.putTermFrequencyList("cat", termFrequencies(zone, info(List.of(3, 4, 5), List.of(0, 0, 0), List.of(-0.001f, -1.4339f, -0.2001f))));
+        termOffSetMap.setExcerptFields(Set.of("CONTENT"));
+
+        context.set(Constants.TERM_OFFSET_MAP_JEXL_VARIABLE_NAME, termOffSetMap);
+        Object o = expr.evaluate(context);
+
+        assertTrue(expect(o, true));
+        assertPhraseOffset("CONTENT", 3, 3);
+    }
+
+    @Test
+    public void testScoredPhraseFromTermFrequenciesFail() {
+        String query = buildFunction(scoredPhraseFunction, "'CONTENT'", "-0.200", Constants.TERM_OFFSET_MAP_JEXL_VARIABLE_NAME, "'dog'", "'cat'");
+        JexlExpression expr = engine.createExpression(query);
+
+        // the only dog at offset 3 scores below the threshold
+        Zone zone = new Zone("CONTENT", true, eventId);
+        termOffSetMap.putTermFrequencyList("dog", termFrequencies(zone, info(List.of(1, 2, 3), List.of(0, 0, 0), List.of(-0.223f, -1.4339f, -0.2001f))));
+        termOffSetMap.putTermFrequencyList("cat", termFrequencies(zone, info(List.of(3, 4, 5), List.of(0, 0, 0), List.of(-0.001f, -1.4339f, -0.2001f))));
+        termOffSetMap.setExcerptFields(Set.of("CONTENT"));
+
+        context.set(Constants.TERM_OFFSET_MAP_JEXL_VARIABLE_NAME, termOffSetMap);
+        Object o = expr.evaluate(context);
+
+        assertTrue(expect(o, false));
+        assertPhraseOffsetsEmpty();
+    }
 }
@@ -0,0 +1,107 @@
+package datawave.query.jexl.functions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import datawave.ingest.protobuf.TermWeight;
+import datawave.ingest.protobuf.TermWeightPosition;
+
+public class TermPositionsTest {
+
+    @Test
+    public void testOfPositions() {
+        List<TermWeightPosition> positions = Arrays.asList(position(3, -1, 10, true), position(7, 2, 60, true), position(9, -1, 20, true));
+        TermPositions termPositions = TermPositions.of(positions, 50);
+
+        assertEquals("[3-3, 9-9]", termPositions.toString());
+        assertEquals(3, termPositions.getOffset(0));
+        assertEquals(9, termPositions.getLowOffset(1));
+        assertTrue(termPositions.getZeroOffsetMatch(0));
+
+        assertTrue(TermPositions.of(Collections.emptyList(), 50).isEmpty());
+        assertTrue(TermPositions.of(positions, 5).isEmpty());
+    }
+
+    @Test
+    public void testDistinct() {
+        TermPositions sorted = TermPositions.of(Arrays.asList(position(1, -1, -1, true), position(5, 2, -1, true), position(6, -1, -1, true)),
+                        Integer.MAX_VALUE);
+        assertSame(sorted, sorted.distinct());
+
+        TermPositions unsorted = TermPositions.of(Arrays.asList(position(9, -1, -1, true), position(-2, -1, -1, true), position(5, 2, -1, true),
+                        position(3, -1, -1, true), position(9, -1, -1, true)), Integer.MAX_VALUE);
+        assertEquals("[-2--2, 3-3, 3-5, 9-9]", unsorted.distinct().toString());
+    }
+
+    @Test
+    public void testDistinctKeepsFirstOfEqualPositions() {
+        TermPositions unsorted = TermPositions.of(Arrays.asList(position(9, -1, -1, true), position(4, -1, -1, false), position(4, -1, -1, true),
+                        position(1, -1, -1, true)), Integer.MAX_VALUE);
+        assertEquals("[1-1, 4-4!, 9-9]", unsorted.distinct().toString());
+    }
+
+    @Test
+    public void testOfInfo() {
+        TermWeight.Info info = TermWeight.Info.newBuilder().addTermOffset(2).addTermOffset(5).addTermOffset(8).addPrevSkips(0).addPrevSkips(2)
+                        .addPrevSkips(0).addScore(10).addScore(30).addScore(20).setZeroOffsetMatch(false).build();
+        TermPositions termPositions = TermPositions.of(info);
+
+        assertEquals("[2-2!, 3-5!, 8-8!]", termPositions.toString());
+        assertEquals(30, termPositions.getScore(1));
+        assertFalse(termPositions.getZeroOffsetMatch(2));
+
+        // the same positions as decoding through the term weight position builder
+        TermWeightPosition.Builder builder = new TermWeightPosition.Builder();
+        for (int i = 0; i < info.getTermOffsetCount(); i++) {
+            builder.setTermWeightOffsetInfo(info, i);
+            TermWeightPosition position = builder.build();
+            assertEquals(position.getOffset(), termPositions.getOffset(i));
+            assertEquals(position.getLowOffset(), termPositions.getLowOffset(i));
+            assertEquals(position.getScore(), termPositions.getScore(i));
+            builder.reset();
+        }
+    }
+
+    @Test
+    public void testOfInfoIgnoresMismatchedSkipsAndScores() {
+        TermWeight.Info info = TermWeight.Info.newBuilder().addTermOffset(4).addTermOffset(6).addPrevSkips(1).addScore(10).build();
+        TermPositions termPositions = TermPositions.of(info);
+
+        assertEquals("[4-4, 6-6]", termPositions.toString());
+        assertEquals(TermWeightPosition.DEFAULT_SCORE, termPositions.getScore(0));
+        assertTrue(TermPositions.of(TermWeight.Info.getDefaultInstance()).isEmpty());
+    }
+
+    @Test
+    public void testWithMaxScore() {
+        TermPositions termPositions = TermPositions.of(Arrays.asList(position(3, -1, 10, true), position(7, 2, 60, true), position(9, -1, 20, true)));
+
+        assertSame(termPositions, termPositions.withMaxScore(60));
+        assertEquals("[3-3, 9-9]", termPositions.withMaxScore(50).toString());
+        assertTrue(termPositions.withMaxScore(5).isEmpty());
+    }
+
+    @Test
+    public void testMerge() {
+        TermPositions first = TermPositions.of(Arrays.asList(position(1, -1, 10, true), position(5, -1, 20, true)));
+        TermPositions second = TermPositions.of(Arrays.asList(position(3, -1, 30, true), position(5, -1, 40, true), position(7, 2, 50, true)));
+        TermPositions merged = first.merge(second);
+
+        assertEquals("[1-1, 3-3, 5-5, 5-7]", merged.toString());
+        // the first of two equal positions is kept
+        assertEquals(20, merged.getScore(2));
+        assertSame(first, first.merge(TermPositions.of(Collections.emptyList())));
+    }
+
+    private static TermWeightPosition position(int offset, int prevSkips, int score, boolean zeroOffsetMatch) {
+        return new TermWeightPosition.Builder().setOffset(offset).setPrevSkips(prevSkips).setScore(score).setZeroOffsetMatch(zeroOffsetMatch).build();
+    }
+}
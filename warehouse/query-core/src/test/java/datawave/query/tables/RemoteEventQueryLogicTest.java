@@ -78,6 +78,23 @@ public class RemoteEventQueryLogicTest {
         assertEquals(2, events.size());
     }
 
+    @Test
+    public void testRemoteQueryWithPrefetch() throws Exception {
+        logic.setRemotePrefetchPages(2);
+        GenericQueryConfiguration config = logic.initialize(null, new QueryImpl(), null);
+        logic.setupQuery(config);
+        Iterator<EventBase> t = logic.iterator();
+        List<EventBase> events = new ArrayList();
+        while (t.hasNext()) {
+            events.add(t.next());
+        }
+        assertEquals(2, events.size());
+
+        // no pages are requested after the last page
+        assertEquals(3, ((TestRemoteQueryService) logic.getRemoteQueryService()).getNextCalls());
+        logic.close();
+    }
+
     @Test
     public void testProxiedHeaders() throws Exception {
         SubjectIssuerDNPair userDN = SubjectIssuerDNPair.of("userDN", "issuerDN");
@@ -106,6 +123,7 @@ public class RemoteEventQueryLogicTest {
     public static class TestRemoteQueryService implements RemoteQueryService {
         GenericResponse<String> createResponse;
         LinkedList<BaseQueryResponse> nextResponses;
+        int nextCalls = 0;
 
         public TestRemoteQueryService(GenericResponse<String> createResponse, BaseQueryResponse response1, BaseQueryResponse response2,
                         BaseQueryResponse response3) {
@@ -128,9 +146,14 @@ public class RemoteEventQueryLogicTest {
 
         @Override
         public BaseQueryResponse next(String id, ProxiedUserDetails callerObject) {
+            nextCalls++;
             return nextResponses.poll();
         }
 
+        public int getNextCalls() {
+            return nextCalls;
+        }
+
         @Override
         public VoidResponse close(String id, ProxiedUserDetails callerObject) {
             return new VoidResponse();
@@ -2,6 +2,7 @@ package datawave.query.tables.edge;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -9,12 +10,15 @@ import java.util.Set;
 
 import javax.inject.Inject;
 
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.security.Authorizations;
 import org.jboss.arquillian.container.test.api.Deployment;
 import org.jboss.arquillian.junit.Arquillian;
 import org.jboss.shrinkwrap.api.ShrinkWrap;
 import org.jboss.shrinkwrap.api.asset.StringAsset;
 import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -24,7 +28,9 @@ import org.springframework.context.ApplicationContext;
 import datawave.core.query.configuration.GenericQueryConfiguration;
 import datawave.core.query.logic.QueryLogic;
 import datawave.core.query.logic.QueryLogicFactory;
+import datawave.edge.util.EdgeKey;
 import datawave.microservice.query.QueryImpl;
+import datawave.query.config.EdgeQueryConfiguration;
 import datawave.security.authorization.ProxiedUserDetails;
 import datawave.webservice.edgedictionary.RemoteEdgeDictionary;
 import datawave.webservice.query.exception.DatawaveErrorCode;
@@ -526,6 +532,64 @@ public class EdgeQueryFunctionalTest extends BaseEdgeQueryTest {
         compareResults(logic, factory, expected);
     }
 
+    @Test
+    public void testAggregateByType() throws Exception {
+        // the edges of all three dates are rolled up into one edge per type
+        QueryImpl q = configQuery("(SOURCE == 'PLUTO')", auths);
+        q.setEndDate(simpleFormat.parse("20191231"));
+        q.addParameter("stats", "false");
+        q.addParameter(EdgeQueryConfiguration.AGGREGATE_FIELDS, "TYPE");
+        EdgeQueryLogic logic = runLogic(q, auths);
+
+        List<String> expected = new ArrayList<>();
+        expected.add("pluto charon AdjacentCelestialBodies -");
+        expected.add("pluto neptune AdjacentDwarfPlanets -");
+        expected.add("pluto neptune AdjacentPlanets -");
+        Assert.assertEquals(expected, aggregatedEdges(logic));
+    }
+
+    @Test
+    public void testAggregateByDate() throws Exception {
+        // the types of each date are rolled up into one edge per date
+        QueryImpl q = configQuery("(SOURCE == 'PLUTO')", auths);
+        q.setEndDate(simpleFormat.parse("20191231"));
+        q.addParameter("stats", "false");
+        q.addParameter(EdgeQueryConfiguration.AGGREGATE_FIELDS, "date");
+        EdgeQueryLogic logic = runLogic(q, auths);
+
+        List<String> expected = new ArrayList<>();
+        for (String sink : new String[] {"charon", "neptune"}) {
+            for (String date : new String[] {"20150713", "20170713", "20190713"}) {
+                expected.add("pluto " + sink + " - " + date);
+            }
+        }
+        Assert.assertEquals(expected, aggregatedEdges(logic));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAggregateByUnknownField() throws Exception {
+        QueryImpl q = configQuery("(SOURCE == 'PLUTO')", auths);
+        q.addParameter(EdgeQueryConfiguration.AGGREGATE_FIELDS, "EDGE_TYPE,COLOR");
+        runLogic(q, auths);
+    }
+
+    /**
+     * Describe each returned edge by its source, sink, type and date, with a dash for the fields which were rolled up, in sorted order
+     */
+    private List<String> aggregatedEdges(EdgeQueryLogic logic) {
+        List<String> edges = new ArrayList<>();
+        for (Map.Entry<Key,Value> entry : logic) {
+            EdgeKey edgeKey = EdgeKey.decode(entry.getKey());
+            edges.add(edgeKey.getSourceData() + " " + edgeKey.getSinkData() + " " + dash(edgeKey.getType()) + " " + dash(edgeKey.getYyyymmdd()));
+        }
+        Collections.sort(edges);
+        return edges;
+    }
+
+    private static String dash(String field) {
+        return field.isEmpty() ? "-" : field;
+    }
+
     public class TestQueryLogicFactory implements QueryLogicFactory {
 
         @Override
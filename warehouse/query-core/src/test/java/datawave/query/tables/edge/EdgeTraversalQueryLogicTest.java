@@ -0,0 +1,129 @@
+package datawave.query.tables.edge;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import javax.inject.Inject;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.security.Authorizations;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.context.ApplicationContext;
+
+import com.google.common.collect.Sets;
+
+import datawave.core.query.configuration.GenericQueryConfiguration;
+import datawave.edge.model.EdgeModelFields.FieldKey;
+import datawave.edge.util.EdgeKeyUtil;
+import datawave.microservice.query.QueryImpl;
+import datawave.query.config.EdgeTraversalConfiguration;
+import datawave.webservice.edgedictionary.RemoteEdgeDictionary;
+
+@RunWith(Arquillian.class)
+public class EdgeTraversalQueryLogicTest extends BaseEdgeQueryTest {
+
+    @Inject
+    protected ApplicationContext applicationContext;
+
+    @Deployment
+    public static JavaArchive createDeployment() throws Exception {
+        return ShrinkWrap.create(JavaArchive.class)
+                        .addPackages(true, "org.apache.deltaspike", "io.astefanutti.metrics.cdi", "datawave.query", "datawave.webservice.query.result.event",
+                                        "datawave.core.query.result.event")
+                        .deleteClass(DefaultEdgeEventQueryLogic.class).deleteClass(RemoteEdgeDictionary.class)
+                        .deleteClass(datawave.query.metrics.QueryMetricQueryLogic.class)
+                        .addAsManifestResource(new StringAsset(
+                                        "<alternatives>" + "<stereotype>datawave.query.tables.edge.MockAlternative</stereotype>" + "</alternatives>"),
+                                        "beans.xml");
+    }
+
+    private EdgeTraversalQueryLogic runLogic(QueryImpl q, Set<Authorizations> auths) throws Exception {
+        EdgeTraversalQueryLogic logic = (EdgeTraversalQueryLogic) applicationContext.getBean("EdgeTraversalQuery");
+        GenericQueryConfiguration config = logic.initialize(client, q, auths);
+        logic.setupQuery(config);
+        return logic;
+    }
+
+    private static Set<String> getSinks(EdgeTraversalQueryLogic logic) {
+        Set<String> sinks = new HashSet<>();
+        for (Map.Entry<Key,Value> entry : logic) {
+            String sink = EdgeKeyUtil.dissasembleKey(entry.getKey(), protobufEdgeFormat).get(FieldKey.EDGE_SINK);
+            Assert.assertTrue("Vertex reached more than once: " + sink, sinks.add(sink));
+        }
+        logic.close();
+        return sinks;
+    }
+
+    @Test
+    public void testReachedVertices() throws Exception {
+        QueryImpl q = configQuery("SOURCE == 'EARTH'", auths);
+        q.addParameter(EdgeTraversalConfiguration.RESULTS, "VERTICES");
+
+        // earth -> moon, venus, mars -> mercury, ceres, asteroid_belt, jupiter
+        Assert.assertEquals(Sets.newHashSet("moon", "venus", "mars", "mercury", "ceres", "asteroid_belt", "jupiter"), getSinks(runLogic(q, auths)));
+    }
+
+    @Test
+    public void testHopQuery() throws Exception {
+        QueryImpl q = configQuery("SOURCE == 'EARTH' && TYPE == 'AdjacentPlanets'", auths);
+        q.addParameter(EdgeTraversalConfiguration.RESULTS, "VERTICES");
+        q.addParameter(EdgeTraversalConfiguration.HOP_QUERY, "TYPE == 'AdjacentPlanets'");
+
+        Assert.assertEquals(Sets.newHashSet("venus", "mars", "mercury", "jupiter"), getSinks(runLogic(q, auths)));
+    }
+
+    @Test
+    public void testSingleHop() throws Exception {
+        QueryImpl q = configQuery("SOURCE == 'EARTH'", auths);
+        q.addParameter(EdgeTraversalConfiguration.RESULTS, "VERTICES");
+        q.addParameter(EdgeTraversalConfiguration.HOPS, "1");
+
+        Assert.assertEquals(Sets.newHashSet("moon", "venus", "mars"), getSinks(runLogic(q, auths)));
+    }
+
+    @Test
+    public void testFanout() throws Exception {
+        QueryImpl q = configQuery("SOURCE == 'EARTH'", auths);
+        q.addParameter(EdgeTraversalConfiguration.RESULTS, "VERTICES");
+        q.addParameter(EdgeTraversalConfiguration.MAX_FANOUT, "1");
+        q.addParameter(EdgeTraversalConfiguration.HOPS, "3");
+
+        // the first edge in key order is followed from each vertex: earth -> mars -> asteroid_belt -> ceres
+        Assert.assertEquals(Sets.newHashSet("mars", "asteroid_belt", "ceres"), getSinks(runLogic(q, auths)));
+    }
+
+    @Test
+    public void testPathsIncludeEveryEdge() throws Exception {
+        QueryImpl q = configQuery("SOURCE == 'VENUS'", auths);
+        q.addParameter(EdgeTraversalConfiguration.HOPS, "2");
+
+        EdgeTraversalQueryLogic logic = runLogic(q, auths);
+        int edges = 0;
+        Set<String> sources = new HashSet<>();
+        for (Map.Entry<Key,Value> entry : logic) {
+            sources.add(EdgeKeyUtil.dissasembleKey(entry.getKey(), protobufEdgeFormat).get(FieldKey.EDGE_SOURCE));
+            edges++;
+        }
+        logic.close();
+
+        // venus -> mercury, earth; mercury -> sun, venus; earth -> moon, venus, mars
+        Assert.assertEquals(Sets.newHashSet("venus", "mercury", "earth"), sources);
+        Assert.assertTrue(edges > 3);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooManyHops() throws Exception {
+        QueryImpl q = configQuery("SOURCE == 'EARTH'", auths);
+        q.addParameter(EdgeTraversalConfiguration.HOPS, "50");
+        runLogic(q, auths);
+    }
+}
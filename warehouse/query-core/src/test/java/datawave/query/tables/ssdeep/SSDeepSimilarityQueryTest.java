@@ -43,6 +43,7 @@ import datawave.query.testframework.AbstractDataTypeConfig;
 import datawave.security.authorization.DatawavePrincipal;
 import datawave.security.authorization.DatawaveUser;
 import datawave.security.authorization.SubjectIssuerDNPair;
+import datawave.util.ssdeep.SSDeepMinHashGenerator;
 import datawave.webservice.query.result.event.EventBase;
 import datawave.webservice.query.runner.RunningQuery;
 import datawave.webservice.result.EventQueryResponseBase;
@@ -106,6 +107,37 @@ public class SSDeepSimilarityQueryTest {
         runSingleQuery(true);
     }
 
+    @SuppressWarnings("rawtypes")
+    @Test
+    public void testMinHashQuery() throws Exception {
+        logic.setMinHashBands(SSDeepMinHashGenerator.DEFAULT_BANDS);
+        String query = "CHECKSUM_SSDEEP:" + TEST_SSDEEPS[2];
+
+        EventQueryResponseBase response = runSSDeepQuery(query, 67);
+        Map<String,Map<String,String>> observedEvents = SSDeepTestUtil.extractObservedEvents(response.getEvents());
+
+        // the band keys retrieve the same matches as the ngrams, and the overlaps are still reported in terms of ngrams
+        Assert.assertEquals(2, response.getEvents().size());
+        SSDeepTestUtil.assertSSDeepSimilarityMatch(TEST_SSDEEPS[2], TEST_SSDEEPS[2], "67", EXPECTED_2_2_OVERLAPS, "100", observedEvents);
+        SSDeepTestUtil.assertSSDeepSimilarityMatch(TEST_SSDEEPS[2], TEST_SSDEEPS[3], "53", EXPECTED_2_3_OVERLAPS, "96", observedEvents);
+    }
+
+    @SuppressWarnings("rawtypes")
+    @Test
+    public void testTopKQuery() throws Exception {
+        logic.setScoringThreads(4);
+        String query = "CHECKSUM_SSDEEP:" + TEST_SSDEEPS[2] + " OR CHECKSUM_SSDEEP:" + TEST_SSDEEPS[3];
+
+        EventQueryResponseBase response = runSSDeepQuery(query, 0, 1);
+        Map<String,Map<String,String>> observedEvents = SSDeepTestUtil.extractObservedEvents(response.getEvents());
+
+        // only the best match of each query hash, which is the hash itself
+        Assert.assertEquals(2, response.getEvents().size());
+        Assert.assertTrue(observedEvents.containsKey(TEST_SSDEEPS[2] + "#" + TEST_SSDEEPS[2]));
+        Assert.assertTrue(observedEvents.containsKey(TEST_SSDEEPS[3] + "#" + TEST_SSDEEPS[3]));
+        Assert.assertEquals("100", observedEvents.get(TEST_SSDEEPS[2] + "#" + TEST_SSDEEPS[2]).get("WEIGHTED_SCORE"));
+    }
+
     private static void logSSDeepTestData() throws TableNotFoundException {
         Scanner scanner = accumuloClient.createScanner(SSDeepIndexHandler.DEFAULT_SSDEEP_INDEX_TABLE_NAME, auths);
         Iterator<Map.Entry<Key,Value>> iterator = scanner.iterator();
@@ -145,6 +177,11 @@ public class SSDeepSimilarityQueryTest {
 
     @SuppressWarnings("rawtypes")
     public EventQueryResponseBase runSSDeepQuery(String query, int minScoreThreshold) throws Exception {
+        return runSSDeepQuery(query, minScoreThreshold, 0);
+    }
+
+    @SuppressWarnings("rawtypes")
+    public EventQueryResponseBase runSSDeepQuery(String query, int minScoreThreshold, int topK) throws Exception {
 
         QueryImpl q = new QueryImpl();
         q.setQuery(query);
@@ -156,6 +193,10 @@ public class SSDeepSimilarityQueryTest {
             q.addParameter(SSDeepScoringFunction.MIN_SSDEEP_SCORE_PARAMETER, String.valueOf(minScoreThreshold));
         }
 
+        if (topK > 0) {
+            q.addParameter(SSDeepSimilarityQueryLogic.TOP_K_PARAMETER, String.valueOf(topK));
+        }
+
         RunningQuery runner = new RunningQuery(accumuloClient, AccumuloConnectionFactory.Priority.NORMAL, this.logic, q, "", principal,
                         new QueryMetricFactoryImpl());
         TransformIterator transformIterator = runner.getTransformIterator();
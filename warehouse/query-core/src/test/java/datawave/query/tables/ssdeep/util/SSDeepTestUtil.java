@@ -25,6 +25,8 @@ import datawave.util.ssdeep.BucketAccumuloKeyGenerator;
 import datawave.util.ssdeep.NGramByteHashGenerator;
 import datawave.util.ssdeep.NGramGenerator;
 import datawave.util.ssdeep.NGramTuple;
+import datawave.util.ssdeep.SSDeepEncoding;
+import datawave.util.ssdeep.SSDeepMinHashGenerator;
 import datawave.webservice.query.result.event.EventBase;
 import datawave.webservice.query.result.event.FieldBase;
 
@@ -61,6 +63,8 @@ public class SSDeepTestUtil {
         // processing
         final NGramByteHashGenerator nGramGenerator = new NGramByteHashGenerator(ngramSize, BUCKET_COUNT, minHashSize);
         final BucketAccumuloKeyGenerator accumuloKeyGenerator = new BucketAccumuloKeyGenerator(BUCKET_COUNT, BUCKET_ENCODING_BASE, BUCKET_ENCODING_LENGTH);
+        final SSDeepMinHashGenerator minHashGenerator = new SSDeepMinHashGenerator();
+        final SSDeepEncoding ssDeepEncoder = new SSDeepEncoding();
 
         // output
         BatchWriterConfig batchWriterConfig = new BatchWriterConfig();
@@ -72,12 +76,11 @@ public class SSDeepTestUtil {
                 Iterator<ImmutablePair<NGramTuple,byte[]>> it = nGramGenerator.call(s);
                 while (it.hasNext()) {
                     ImmutablePair<NGramTuple,byte[]> nt = it.next();
-                    ImmutablePair<Key,Value> at = accumuloKeyGenerator.call(nt);
-                    Key k = at.getKey();
-                    Mutation m = new Mutation(k.getRow());
-                    ColumnVisibility cv = new ColumnVisibility(k.getColumnVisibility());
-                    m.put(k.getColumnFamily(), k.getColumnQualifier(), cv, k.getTimestamp(), at.getValue());
-                    bw.addMutation(m);
+                    bw.addMutation(toMutation(accumuloKeyGenerator.call(nt)));
+                }
+                // the band keys are indexed alongside the ngrams, as the SSDeepIndexHandler does when minhash bands are enabled
+                for (NGramTuple band : minHashGenerator.generateBands(s)) {
+                    bw.addMutation(toMutation(accumuloKeyGenerator.call(new ImmutablePair<>(band, ssDeepEncoder.encode(s)))));
                 }
                 bw.flush();
             } catch (Exception e) {
@@ -89,6 +92,14 @@ public class SSDeepTestUtil {
         bw.close();
     }
 
+    private static Mutation toMutation(ImmutablePair<Key,Value> at) {
+        Key k = at.getKey();
+        Mutation m = new Mutation(k.getRow());
+        ColumnVisibility cv = new ColumnVisibility(k.getColumnVisibility());
+        m.put(k.getColumnFamily(), k.getColumnQualifier(), cv, k.getTimestamp(), at.getValue());
+        return m;
+    }
+
     /**
      * assert that a match exists between the specified query and matching ssdeep and that the match has the expected properties
      *
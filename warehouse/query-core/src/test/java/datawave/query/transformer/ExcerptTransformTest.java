@@ -361,6 +361,7 @@ public class ExcerptTransformTest extends EasyMockSupport {
         iterator.setHitTermsList(hitTerms);
         iterator.setDirection("BOTH");
         iterator.setOrigHalfSize((float) ((end + 1) - start) / 2);
+        iterator.setCachedFields(excerptFields.getFields());
         iterator.seek(anyObject(), anyObject(), eq(false));
         if (phrase != null) {
             expect(iterator.hasTop()).andReturn(true);
@@ -380,11 +381,7 @@ public class ExcerptTransformTest extends EasyMockSupport {
             builder.addScore(1);
         }
 
-        Value tfpb = new Value(builder.build().toByteArray());
-
-        source.seek(anyObject(), anyObject(), eq(false));
-        expect(source.hasTop()).andReturn(true);
-        expect(source.getTopValue()).andReturn(tfpb);
+        expect(iterator.getTermWeight(eq(source), eq(excerptFields.getFields()), anyObject(), eq(field), eq(value))).andReturn(builder.build());
     }
 
     private Map<String,String> getOptions(String field, int start, int end) {
@@ -0,0 +1,75 @@
+package datawave.query.transformer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.accumulo.core.data.Key;
+import org.junit.Test;
+
+import com.google.common.collect.Maps;
+
+import datawave.query.attributes.Content;
+import datawave.query.attributes.Document;
+import datawave.query.attributes.SortFields;
+
+public class SortTransformTest {
+
+    @Test
+    public void testReturnsDocumentsInSortedOrder() {
+        SortTransform transform = new SortTransform(SortFields.from("NAME/asc"), 2, Collections.emptySet(), Long.MAX_VALUE);
+        assertNull(transform.apply(document("uid0", "carol", "red")));
+        assertNull(transform.apply(document("uid1", "alice", "blue")));
+        assertNull(transform.apply(document("uid2", "bob", "green")));
+
+        List<Document> sorted = flush(transform);
+        assertEquals(2, sorted.size());
+        assertEquals("alice", value(sorted.get(0), "NAME"));
+        assertEquals("bob", value(sorted.get(1), "NAME"));
+        assertEquals("blue", value(sorted.get(0), "COLOR"));
+    }
+
+    @Test
+    public void testRemovesFieldsOnlyNeededToSort() {
+        // COLOR was not in the projection, so was only returned so that the documents could be sorted by it
+        SortTransform transform = new SortTransform(SortFields.from("COLOR/desc"), 10, Set.of("COLOR"), Long.MAX_VALUE);
+        transform.apply(document("uid0", "carol", "blue"));
+        transform.apply(document("uid1", "alice", "red"));
+        transform.apply(document("uid2", "bob", "green"));
+
+        List<Document> sorted = flush(transform);
+        assertEquals(3, sorted.size());
+        List<String> names = new ArrayList<>();
+        for (Document document : sorted) {
+            names.add(value(document, "NAME"));
+            assertNull(document.get("COLOR"));
+        }
+        assertEquals(List.of("alice", "bob", "carol"), names);
+    }
+
+    private static List<Document> flush(SortTransform transform) {
+        List<Document> documents = new ArrayList<>();
+        Map.Entry<Key,Document> entry;
+        while ((entry = transform.flush()) != null) {
+            documents.add(entry.getValue());
+        }
+        return documents;
+    }
+
+    private static Map.Entry<Key,Document> document(String uid, String name, String color) {
+        Key key = new Key("20240101_0", "datatype\0" + uid);
+        Document document = new Document(key, true);
+        document.put("NAME", new Content(name, key, true));
+        document.put("COLOR", new Content(color, key, true));
+        return Maps.immutableEntry(key, document);
+    }
+
+    private static String value(Document document, String field) {
+        return String.valueOf(document.get(field).getData());
+    }
+}
@@ -1,10 +1,13 @@
 package datawave.query.transformer;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
@@ -477,6 +480,35 @@ public class UniqueTransformTest {
         assertOrderedFieldValues();
     }
 
+    @Test
+    public void testCloseDeletesSpilledSignatures() {
+        for (int i = 0; i < 10; i++) {
+            givenInputDocument().withKeyValue("ATTR0", randomValues.get(0) + i);
+        }
+        givenValueTransformerForFields(UniqueGranularity.ALL, "Attr0");
+
+        Set<File> before = getSpilledFiles();
+        // a budget this small spills the signatures on every document
+        UniqueTransform uniqueTransform = new UniqueTransform(uniqueFields, Long.MAX_VALUE, 1);
+        for (Document document : inputDocuments) {
+            assertNotNull(uniqueTransform.apply(Maps.immutableEntry(document.getMetadata(), document)));
+        }
+        // the spilled runs are unlinked as soon as they are opened
+        Set<File> spilled = getSpilledFiles();
+        spilled.removeAll(before);
+        assertTrue(spilled + " were not unlinked", spilled.isEmpty());
+
+        uniqueTransform.close();
+        spilled = getSpilledFiles();
+        spilled.removeAll(before);
+        assertTrue(spilled + " were not deleted", spilled.isEmpty());
+    }
+
+    private Set<File> getSpilledFiles() {
+        File[] files = new File(System.getProperty("java.io.tmpdir")).listFiles((dir, name) -> name.startsWith("SpillingByteArraySet"));
+        return files == null ? new HashSet<>() : new HashSet<>(Arrays.asList(files));
+    }
+
     private void assertUniqueDocuments() {
         List<Document> actual = getUniqueDocumentsWithUpdateConfigCalls(inputDocuments);
         Collections.sort(expectedUniqueDocuments);
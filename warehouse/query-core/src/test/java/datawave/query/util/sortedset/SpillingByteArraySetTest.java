@@ -0,0 +1,92 @@
+package datawave.query.util.sortedset;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class SpillingByteArraySetTest {
+
+    @Test
+    public void testInMemory() throws IOException {
+        try (SpillingByteArraySet set = new SpillingByteArraySet(64 * 1024 * 1024)) {
+            assertExact(set, 20000, 7);
+            assertEquals(0, set.getRunCount());
+        }
+    }
+
+    @Test
+    public void testSpillAndMerge() throws IOException {
+        try (SpillingByteArraySet set = new SpillingByteArraySet(32 * 1024)) {
+            assertExact(set, 50000, 11);
+            // enough spills to have merged the runs at least once
+            assertTrue(set.getRunCount() > 0);
+            assertTrue(set.getRunCount() <= 8);
+            assertTrue(set.getMemoryUsed() < 64 * 1024);
+
+            set.clear();
+            assertEquals(0, set.getRunCount());
+            assertTrue(set.add(bytes(1)));
+        }
+    }
+
+    @Test
+    public void testEmptyAndLongArrays() throws IOException {
+        try (SpillingByteArraySet set = new SpillingByteArraySet(4 * 1024)) {
+            assertTrue(set.add(new byte[0]));
+            assertFalse(set.add(new byte[0]));
+            byte[] large = new byte[100000];
+            new Random(3).nextBytes(large);
+            assertTrue(set.add(large));
+            // a run now holds a record larger than a block
+            assertTrue(set.getRunCount() > 0);
+            assertFalse(set.add(large.clone()));
+            large[large.length - 1]++;
+            assertTrue(set.add(large));
+            assertFalse(set.add(new byte[0]));
+        }
+    }
+
+    @Test
+    public void testAddPartOfArray() throws IOException {
+        try (SpillingByteArraySet set = new SpillingByteArraySet(4 * 1024)) {
+            byte[] buffer = new byte[64];
+            for (int i = 0; i < 1000; i++) {
+                byte[] bytes = bytes(i);
+                System.arraycopy(bytes, 0, buffer, i % 32, bytes.length);
+                assertTrue(set.add(buffer, i % 32, bytes.length));
+            }
+            assertTrue(set.getRunCount() > 0);
+            for (int i = 0; i < 1000; i++) {
+                assertFalse(set.add(bytes(i)));
+            }
+        }
+    }
+
+    private static void assertExact(SpillingByteArraySet set, int count, int seed) throws IOException {
+        Random random = new Random(seed);
+        Set<ByteBuffer> expected = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            // about a third of the arrays are repeats, of varying lengths
+            byte[] bytes = new byte[1 + random.nextInt(40)];
+            int value = random.nextInt(count * 2 / 3);
+            for (int j = 0; j < bytes.length; j++) {
+                bytes[j] = (byte) (value >>> (8 * (j % 4)));
+            }
+            bytes[0] = (byte) bytes.length;
+            assertEquals(expected.add(ByteBuffer.wrap(bytes)), set.add(bytes));
+        }
+        assertEquals(expected.size(), set.size());
+    }
+
+    private static byte[] bytes(int i) {
+        return ByteBuffer.allocate(4).putInt(i).array();
+    }
+}
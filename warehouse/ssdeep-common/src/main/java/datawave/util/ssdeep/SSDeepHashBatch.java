@@ -0,0 +1,56 @@
+package datawave.util.ssdeep;
+
+import java.util.List;
+
+/**
+ * A batch of SSDeep hashes packed into flat arrays so that they can be scored against a query hash without touching the SSDeepHash objects or allocating per
+ * pair. Each chunk is normalized when the batch is packed and is stored as bytes in a fixed width slot, {@link SSDeepHash#CHUNK_LENGTH} bytes wide for the
+ * chunks and {@link SSDeepHash#DOUBLE_CHUNK_LENGTH} bytes wide for the double chunks.
+ */
+public class SSDeepHashBatch {
+
+    final int size;
+    final int[] chunkSizes;
+    final int[] chunkLengths;
+    final int[] doubleChunkLengths;
+    final byte[] chunks;
+    final byte[] doubleChunks;
+
+    /**
+     * Pack a list of hashes
+     *
+     * @param hashes
+     *            the hashes to pack, the index of a hash in the list is its index in the batch
+     * @param maxRepeatedCharacters
+     *            the max number of repeated characters - uses normalization to replace any run of repeated characters longer than this with this many
+     *            characters. If zero, no normalization will be performed
+     */
+    public SSDeepHashBatch(List<SSDeepHash> hashes, int maxRepeatedCharacters) {
+        this.size = hashes.size();
+        this.chunkSizes = new int[size];
+        this.chunkLengths = new int[size];
+        this.doubleChunkLengths = new int[size];
+        this.chunks = new byte[size * SSDeepHash.CHUNK_LENGTH];
+        this.doubleChunks = new byte[size * SSDeepHash.DOUBLE_CHUNK_LENGTH];
+
+        int i = 0;
+        for (SSDeepHash hash : hashes) {
+            chunkSizes[i] = hash.getChunkSize();
+            chunkLengths[i] = pack(SSDeepHash.normalizeSSDeepChunk(hash.getChunk(), maxRepeatedCharacters), chunks, i * SSDeepHash.CHUNK_LENGTH);
+            doubleChunkLengths[i] = pack(SSDeepHash.normalizeSSDeepChunk(hash.getDoubleChunk(), maxRepeatedCharacters), doubleChunks,
+                            i * SSDeepHash.DOUBLE_CHUNK_LENGTH);
+            i++;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static int pack(String chunk, byte[] buffer, int offset) {
+        for (int i = 0; i < chunk.length(); i++) {
+            buffer[offset + i] = (byte) chunk.charAt(i);
+        }
+        return chunk.length();
+    }
+}
@@ -0,0 +1,342 @@
+package datawave.util.ssdeep;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Calculates the same similarity scores as the {@link SSDeepHashEditDistanceScorer} for one query hash and a batch of candidate hashes.
+ * <p>
+ * The edit distances are computed with Myers' bit-parallel algorithm: the query chunk, which is at most {@link SSDeepHash#CHUNK_LENGTH} characters long, is
+ * compiled once into a table of 64 bit character masks and each character of a candidate chunk then advances a whole column of the edit distance matrix with a
+ * handful of word operations. Scoring a candidate allocates nothing. Batches of at least {@link #DEFAULT_SPLIT_THRESHOLD} candidates are split into fork-join
+ * tasks, which run in the pool of the calling thread when it is a fork-join worker and in the common pool otherwise.
+ * <p>
+ * The compiled masks of the most recently used query hashes are kept, so that scoring the candidates of a query one pair at a time compiles the query once.
+ * A single pair is scored straight from the candidate chunks without packing it into a batch.
+ */
+public class SSDeepHashBatchEditDistanceScorer implements SSDeepHashScorer<Integer> {
+
+    /** The number of candidates below which a batch is scored on the calling thread */
+    public static final int DEFAULT_SPLIT_THRESHOLD = 1024;
+
+    /** The number of compiled query hashes that are kept */
+    public static final int PATTERN_CACHE_SIZE = 64;
+
+    private static final int ALPHABET_SIZE = 256;
+
+    private final int maxRepeatedCharacters;
+    private final int splitThreshold;
+    private final Map<SSDeepHash,Pattern> patterns = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<SSDeepHash,Pattern> eldest) {
+            return size() > PATTERN_CACHE_SIZE;
+        }
+    });
+
+    public SSDeepHashBatchEditDistanceScorer() {
+        this(SSDeepHash.DEFAULT_MAX_REPEATED_CHARACTERS);
+    }
+
+    public SSDeepHashBatchEditDistanceScorer(int maxRepeatedCharacters) {
+        this(maxRepeatedCharacters, DEFAULT_SPLIT_THRESHOLD);
+    }
+
+    public SSDeepHashBatchEditDistanceScorer(int maxRepeatedCharacters, int splitThreshold) {
+        this.maxRepeatedCharacters = maxRepeatedCharacters;
+        this.splitThreshold = Math.max(1, splitThreshold);
+    }
+
+    /**
+     * Pack the candidate hashes into a batch, normalizing them the way this scorer normalizes the query hashes.
+     *
+     * @param hashes
+     *            the candidate hashes
+     * @return the packed batch
+     */
+    public SSDeepHashBatch pack(List<SSDeepHash> hashes) {
+        return new SSDeepHashBatch(hashes, maxRepeatedCharacters);
+    }
+
+    /**
+     * Compare two ssdeep hashes, returning a score between 0 to 100 that indicates similarity.
+     *
+     * @param signature1
+     *            the first object to be compared.
+     * @param signature2
+     *            the second object to be compared.
+     * @return an integer between 0 and 100
+     */
+    @Override
+    public Integer apply(SSDeepHash signature1, SSDeepHash signature2) {
+        if ((null == signature1) || (null == signature2)) {
+            return -1;
+        }
+        return pattern(signature1).score(signature2);
+    }
+
+    /**
+     * Compare a query hash to each hash of a batch.
+     *
+     * @param query
+     *            the query hash
+     * @param candidates
+     *            the packed candidate hashes
+     * @return the score of each candidate, between 0 and 100, at the index of the candidate in the batch
+     */
+    public int[] apply(SSDeepHash query, SSDeepHashBatch candidates) {
+        final int[] scores = new int[candidates.size()];
+        apply(query, candidates, scores);
+        return scores;
+    }
+
+    /**
+     * Compare a query hash to each hash of a batch, writing the scores into the provided array.
+     *
+     * @param query
+     *            the query hash
+     * @param candidates
+     *            the packed candidate hashes
+     * @param scores
+     *            receives the score of each candidate at the index of the candidate in the batch, must be at least as long as the batch
+     */
+    public void apply(SSDeepHash query, SSDeepHashBatch candidates, int[] scores) {
+        final Pattern pattern = pattern(query);
+        if (candidates.size() < splitThreshold) {
+            pattern.score(candidates, scores, 0, candidates.size());
+        } else {
+            new ScoreTask(pattern, candidates, scores, 0, candidates.size()).invoke();
+        }
+    }
+
+    /**
+     * Get the compiled masks of a query hash, compiling them if they are not cached
+     */
+    private Pattern pattern(SSDeepHash query) {
+        Pattern pattern = patterns.get(query);
+        if (pattern == null) {
+            pattern = new Pattern(query);
+            patterns.put(query, pattern);
+        }
+        return pattern;
+    }
+
+    /**
+     * Scores a range of the batch, splitting it in half until it is smaller than the split threshold
+     */
+    private class ScoreTask extends RecursiveAction {
+        private final Pattern pattern;
+        private final SSDeepHashBatch candidates;
+        private final int[] scores;
+        private final int start;
+        private final int end;
+
+        ScoreTask(Pattern pattern, SSDeepHashBatch candidates, int[] scores, int start, int end) {
+            this.pattern = pattern;
+            this.candidates = candidates;
+            this.scores = scores;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start < splitThreshold) {
+                pattern.score(candidates, scores, start, end);
+            } else {
+                final int middle = (start + end) >>> 1;
+                invokeAll(new ScoreTask(pattern, candidates, scores, start, middle), new ScoreTask(pattern, candidates, scores, middle, end));
+            }
+        }
+    }
+
+    /**
+     * The chunks of a query hash, compiled into the character masks used by the bit-parallel edit distance
+     */
+    private class Pattern {
+        private final int chunkSize;
+        private final int chunkLength;
+        private final int doubleChunkLength;
+        private final long[] chunkMasks;
+        private final long[] doubleChunkMasks;
+
+        Pattern(SSDeepHash query) {
+            final String chunk = SSDeepHash.normalizeSSDeepChunk(query.getChunk(), maxRepeatedCharacters);
+            final String doubleChunk = SSDeepHash.normalizeSSDeepChunk(query.getDoubleChunk(), maxRepeatedCharacters);
+            this.chunkSize = query.getChunkSize();
+            this.chunkLength = chunk.length();
+            this.doubleChunkLength = doubleChunk.length();
+            this.chunkMasks = compile(chunk);
+            this.doubleChunkMasks = compile(doubleChunk);
+        }
+
+        /**
+         * Chooses which chunks to compare in the same way as {@link SSDeepHashEditDistanceScorer#apply(SSDeepHash, SSDeepHash)}
+         */
+        int score(SSDeepHash candidate) {
+            final int candidateChunkSize = candidate.getChunkSize();
+
+            if (chunkSize == candidateChunkSize) {
+                final int score1 = scoreChunks(chunkMasks, chunkLength, normalize(candidate.getChunk()), chunkSize);
+                final int score2 = scoreChunks(doubleChunkMasks, doubleChunkLength, normalize(candidate.getDoubleChunk()), candidateChunkSize);
+                return Math.max(score1, score2);
+            } else if (chunkSize == (candidateChunkSize * 2)) {
+                return scoreChunks(chunkMasks, chunkLength, normalize(candidate.getDoubleChunk()), chunkSize);
+            } else if (candidateChunkSize == (chunkSize * 2)) {
+                return scoreChunks(doubleChunkMasks, doubleChunkLength, normalize(candidate.getChunk()), candidateChunkSize);
+            } else {
+                return 0;
+            }
+        }
+
+        private String normalize(String chunk) {
+            return SSDeepHash.normalizeSSDeepChunk(chunk, maxRepeatedCharacters);
+        }
+
+        void score(SSDeepHashBatch candidates, int[] scores, int start, int end) {
+            for (int i = start; i < end; i++) {
+                scores[i] = score(candidates, i);
+            }
+        }
+
+        /**
+         * Chooses which chunks to compare in the same way as {@link SSDeepHashEditDistanceScorer#apply(SSDeepHash, SSDeepHash)}
+         */
+        private int score(SSDeepHashBatch candidates, int i) {
+            final int candidateChunkSize = candidates.chunkSizes[i];
+            final int chunkOffset = i * SSDeepHash.CHUNK_LENGTH;
+            final int doubleChunkOffset = i * SSDeepHash.DOUBLE_CHUNK_LENGTH;
+
+            if (chunkSize == candidateChunkSize) {
+                final int score1 = scoreChunks(chunkMasks, chunkLength, candidates.chunks, chunkOffset, candidates.chunkLengths[i], chunkSize);
+                final int score2 = scoreChunks(doubleChunkMasks, doubleChunkLength, candidates.doubleChunks, doubleChunkOffset,
+                                candidates.doubleChunkLengths[i], candidateChunkSize);
+                return Math.max(score1, score2);
+            } else if (chunkSize == (candidateChunkSize * 2)) {
+                return scoreChunks(chunkMasks, chunkLength, candidates.doubleChunks, doubleChunkOffset, candidates.doubleChunkLengths[i], chunkSize);
+            } else if (candidateChunkSize == (chunkSize * 2)) {
+                return scoreChunks(doubleChunkMasks, doubleChunkLength, candidates.chunks, chunkOffset, candidates.chunkLengths[i], candidateChunkSize);
+            } else {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Builds the mask of each character, with bit i set where the character appears at position i of the chunk
+     */
+    private static long[] compile(String chunk) {
+        final long[] masks = new long[ALPHABET_SIZE];
+        for (int i = 0; i < chunk.length() && i < Long.SIZE; i++) {
+            masks[chunk.charAt(i) & 0xff] |= 1L << i;
+        }
+        return masks;
+    }
+
+    /**
+     * The chunk scoring algorithm of {@link SSDeepHashEditDistanceScorer}, over a compiled query chunk and a packed candidate chunk.
+     */
+    private static int scoreChunks(long[] masks, int len1, byte[] chunks, int offset, int len2, int chunkSize) {
+        if ((len1 > SSDeepHash.CHUNK_LENGTH) || (len2 > SSDeepHash.CHUNK_LENGTH) || (len1 + len2 == 0)) {
+            return 0;
+        }
+        return scale(editDistance(masks, len1, chunks, offset, len2), len1, len2, chunkSize);
+    }
+
+    /**
+     * The chunk scoring algorithm of {@link SSDeepHashEditDistanceScorer}, over a compiled query chunk and a normalized candidate chunk.
+     */
+    private static int scoreChunks(long[] masks, int len1, String chunk, int chunkSize) {
+        final int len2 = chunk.length();
+        if ((len1 > SSDeepHash.CHUNK_LENGTH) || (len2 > SSDeepHash.CHUNK_LENGTH) || (len1 + len2 == 0)) {
+            return 0;
+        }
+        return scale(editDistance(masks, len1, chunk), len1, len2, chunkSize);
+    }
+
+    private static int scale(int editDistance, int len1, int len2, int chunkSize) {
+        // Scale the edit distance by the lengths of the two chunks, then rescale to 0-100
+        int score = (editDistance * SSDeepHash.CHUNK_LENGTH) / (len1 + len2);
+        score = (100 * score) / SSDeepHash.CHUNK_LENGTH;
+        if (score >= 100) {
+            return 0;
+        }
+
+        // Invert the score with 0 being a poor match and 100 being a excellent match.
+        score = 100 - score;
+
+        // When the chunk size is small we don't want to exaggerate the match.
+        final int threshold = (int) (chunkSize / SSDeepHash.MIN_CHUNK_SIZE * Math.min(len1, len2));
+        return Math.min(score, threshold);
+    }
+
+    /**
+     * Myers' bit-parallel Levenshtein distance between a compiled pattern of at most 64 characters and a span of bytes.
+     */
+    static int editDistance(long[] masks, int patternLength, byte[] text, int offset, int textLength) {
+        if (patternLength == 0) {
+            return textLength;
+        }
+
+        final EditDistance distance = new EditDistance(patternLength);
+        for (int j = offset; j < offset + textLength; j++) {
+            distance.advance(masks[text[j] & 0xff]);
+        }
+        return distance.distance;
+    }
+
+    /**
+     * Myers' bit-parallel Levenshtein distance between a compiled pattern of at most 64 characters and a string of single byte characters.
+     */
+    static int editDistance(long[] masks, int patternLength, String text) {
+        if (patternLength == 0) {
+            return text.length();
+        }
+
+        final EditDistance distance = new EditDistance(patternLength);
+        for (int j = 0; j < text.length(); j++) {
+            distance.advance(masks[text.charAt(j) & 0xff]);
+        }
+        return distance.distance;
+    }
+
+    /**
+     * The state of Myers' algorithm. The vertical deltas of the current column of the edit distance matrix are held in the positive and negative bit vectors,
+     * and the distance is tracked in the last row. Escape analysis keeps this on the stack.
+     */
+    private static final class EditDistance {
+        private final long last;
+        private long positive = -1L;
+        private long negative = 0L;
+        private int distance;
+
+        EditDistance(int patternLength) {
+            this.last = 1L << (patternLength - 1);
+            this.distance = patternLength;
+        }
+
+        /**
+         * Advance one column of the matrix for the next character of the text, given the mask of the positions where it appears in the pattern
+         */
+        void advance(long match) {
+            final long vertical = match | negative;
+            final long horizontal = (((match & positive) + positive) ^ positive) | match;
+            long horizontalPositive = negative | ~(horizontal | positive);
+            long horizontalNegative = positive & horizontal;
+
+            if ((horizontalPositive & last) != 0) {
+                distance++;
+            } else if ((horizontalNegative & last) != 0) {
+                distance--;
+            }
+
+            // the first row of the matrix increases by one with each character of the text
+            horizontalPositive = (horizontalPositive << 1) | 1L;
+            horizontalNegative = horizontalNegative << 1;
+            positive = horizontalNegative | ~(vertical | horizontalPositive);
+            negative = horizontalPositive & vertical;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package datawave.util.ssdeep;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.Multimap;
+import com.google.common.collect.TreeMultimap;
+
+/**
+ * Generates locality sensitive hashing (LSH) band keys for SSDeep hashes, based on the minhash signature of the ngrams of each chunk of the hash.
+ * <p>
+ * A signature of <code>bands * rowsPerBand</code> minhashes is computed from the set of ngrams generated for a chunk, and each band of
+ * <code>rowsPerBand</code> consecutive minhashes is hashed into a band key. Two chunks share a band key with probability
+ * <code>1 - (1 - J^rowsPerBand)^bands</code>, where J is the jaccard similarity of their ngram sets, so similar hashes are very likely to share at least one
+ * band while dissimilar hashes rarely do. Unlike a single ngram, a band key is not shared by large numbers of unrelated hashes, which bounds the number of
+ * candidates retrieved for a query.
+ * <p>
+ * Band keys are emitted as NGramTuples so that they can be indexed and queried with the same key structure as the ngrams. The chunk of a band key starts with
+ * {@link #BAND_PREFIX}, which never appears in an ssdeep ngram, followed by the encoded band number and band hash.
+ */
+public class SSDeepMinHashGenerator implements Serializable {
+
+    /** The default number of bands, each of which yields a band key per chunk */
+    public static final int DEFAULT_BANDS = 20;
+
+    /** The default number of minhashes per band */
+    public static final int DEFAULT_ROWS_PER_BAND = 3;
+
+    /** The character that distinguishes a band key from an ngram, it is not part of the base64 alphabet used by ssdeep */
+    public static final char BAND_PREFIX = '#';
+
+    /** The number of characters used to encode the band hash, at 6 bits per character */
+    public static final int BAND_HASH_LENGTH = 10;
+
+    private static final int MAX_BANDS = HashReverse.LEXICAL_B64_TABLE.length;
+    private static final long SEED = 0x5DEECE66DL;
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private static final Logger log = LoggerFactory.getLogger(SSDeepMinHashGenerator.class);
+
+    final NGramGenerator nGramEngine;
+    final int bands;
+    final int rowsPerBand;
+
+    /** The seeds of the hash functions of the minhash signature */
+    final long[] seeds;
+
+    public SSDeepMinHashGenerator() {
+        this(NGramGenerator.DEFAULT_NGRAM_SIZE, SSDeepHash.DEFAULT_MAX_REPEATED_CHARACTERS, NGramGenerator.DEFAULT_MIN_HASH_SIZE, DEFAULT_BANDS,
+                        DEFAULT_ROWS_PER_BAND);
+    }
+
+    /**
+     * Generate band keys from the ngrams of the specified size
+     *
+     * @param ngramSize
+     *            the size of the ngrams the minhash signature is computed from
+     * @param maxRepeatedChars
+     *            the max number of repeated characters - uses normalization to replace any run of repeated characters longer than this with this many
+     *            characters. If zero, no normalization will be performed
+     * @param minHashSize
+     *            do not generate band keys for hashes smaller than this size
+     * @param bands
+     *            the number of bands, at most 64
+     * @param rowsPerBand
+     *            the number of minhashes hashed into each band key
+     */
+    public SSDeepMinHashGenerator(int ngramSize, int maxRepeatedChars, int minHashSize, int bands, int rowsPerBand) {
+        if (bands < 1 || bands > MAX_BANDS) {
+            throw new IllegalArgumentException("bands was " + bands + " but must be between 1 and " + MAX_BANDS);
+        }
+        if (rowsPerBand < 1) {
+            throw new IllegalArgumentException("rowsPerBand was " + rowsPerBand + " but must be greater than 0");
+        }
+        this.nGramEngine = new NGramGenerator(ngramSize, maxRepeatedChars, minHashSize);
+        this.bands = bands;
+        this.rowsPerBand = rowsPerBand;
+
+        this.seeds = new long[bands * rowsPerBand];
+        for (int i = 0; i < seeds.length; i++) {
+            seeds[i] = mix(SEED + i * GOLDEN_GAMMA);
+        }
+    }
+
+    public int getBands() {
+        return bands;
+    }
+
+    public int getRowsPerBand() {
+        return rowsPerBand;
+    }
+
+    /**
+     * @param queries
+     *            expected to be a collection of SSDeep hashes in chunkSize:chunk:doubleChunk format
+     * @return a multimap of band keys mapped to the SSDeepHash from which they originated.
+     */
+    public Multimap<NGramTuple,SSDeepHash> preprocessQueries(Collection<SSDeepHash> queries) {
+        Multimap<NGramTuple,SSDeepHash> queryMap = TreeMultimap.create();
+
+        for (SSDeepHash queryHash : queries) {
+            generateBands(queryHash).forEach(t -> queryMap.put(t, queryHash));
+        }
+
+        return queryMap;
+    }
+
+    /**
+     * @param ssDeepHashString
+     *            expected to be an SSDeep hash in chunkSize:chunk:doubleChunk format. This will normalize the hash by removing repeated characters if
+     *            maxRepeatedChars is greater than zero.
+     * @return the band keys generated from both the chunk and doubleChunk portions of the input ssdeep hash. If the ssdeep can't be parsed this method will
+     *         catch and log the parse exception.
+     */
+    public Set<NGramTuple> generateBands(String ssDeepHashString) {
+        try {
+            return generateBands(SSDeepHash.parseAndNormalize(ssDeepHashString, nGramEngine.getMaxRepeatedChars()), nGramEngine.getMinHashSize());
+        } catch (SSDeepParseException ex) {
+            log.debug(ex.getMessage());
+        }
+        return Collections.emptySet();
+    }
+
+    public Set<NGramTuple> generateBands(SSDeepHash ssDeepHash) {
+        return generateBands(ssDeepHash, 0);
+    }
+
+    /**
+     * @param ssDeepHash
+     *            expected to be an SSDeep hash in chunkSize:chunk:doubleChunk format. Assumes that no normalization will be performed on the SSDeepHash.
+     * @param minHashSize
+     *            the minimum size (chunkSize * chunkLength) required for input hashes. If set to zero, we will generate band keys for all hashes.
+     * @return the band keys generated from both the chunk and doubleChunk portions of the ssdeep hash.
+     */
+    public Set<NGramTuple> generateBands(SSDeepHash ssDeepHash, int minHashSize) {
+        final Set<NGramTuple> output = new HashSet<>();
+
+        final int hashSize = ssDeepHash.getChunkSize() * ssDeepHash.getChunk().length();
+        if (minHashSize > 0 && hashSize < minHashSize) {
+            log.debug("Skipping {}, SSDeep Hash Size {} is less than minimum {}", ssDeepHash, hashSize, minHashSize);
+        } else {
+            generateBands(ssDeepHash.getChunkSize(), ssDeepHash.getChunk(), output);
+
+            if (ssDeepHash.hasDoubleChunk()) {
+                generateBands(ssDeepHash.getDoubleChunkSize(), ssDeepHash.getDoubleChunk(), output);
+            }
+        }
+        return output;
+    }
+
+    /**
+     * Generate the band keys of a chunk and store them in the provided <code>output</code> collection. Chunks which are too short to yield an ngram do not
+     * yield band keys.
+     *
+     * @param chunkSize
+     *            the chunkSize that corresponds to the chunk, this will be encoded into the output tuples.
+     * @param chunk
+     *            the chunk of the ssdeep hash for which we are generating band keys
+     * @param output
+     *            a collection that is used to collect the band keys.
+     */
+    public void generateBands(int chunkSize, String chunk, Set<NGramTuple> output) {
+        final Set<NGramTuple> ngrams = new HashSet<>();
+        nGramEngine.generateNgrams(chunkSize, chunk, ngrams);
+        if (ngrams.isEmpty()) {
+            return;
+        }
+
+        // the minhash signature, using one hash function per seed
+        final long[] signature = new long[seeds.length];
+        Arrays.fill(signature, Long.MAX_VALUE);
+        for (NGramTuple ngram : ngrams) {
+            final long hash = hash(ngram.getChunk());
+            for (int i = 0; i < seeds.length; i++) {
+                final long value = mix(hash ^ seeds[i]);
+                if (value < signature[i]) {
+                    signature[i] = value;
+                }
+            }
+        }
+
+        for (int band = 0; band < bands; band++) {
+            long bandHash = band;
+            for (int row = 0; row < rowsPerBand; row++) {
+                bandHash = mix(bandHash * GOLDEN_GAMMA ^ signature[band * rowsPerBand + row]);
+            }
+
+            final char[] key = new char[BAND_HASH_LENGTH + 2];
+            key[0] = BAND_PREFIX;
+            key[1] = (char) HashReverse.LEXICAL_B64_TABLE[band];
+            for (int i = 0; i < BAND_HASH_LENGTH; i++) {
+                key[i + 2] = (char) HashReverse.LEXICAL_B64_TABLE[(int) (bandHash >>> (6 * i)) & 0x3f];
+            }
+            output.add(new NGramTuple(chunkSize, new String(key)));
+        }
+    }
+
+    /**
+     * @param chunk
+     *            the chunk of an NGramTuple
+     * @return true if the chunk is a band key rather than an ngram
+     */
+    public static boolean isBand(String chunk) {
+        return !chunk.isEmpty() && chunk.charAt(0) == BAND_PREFIX;
+    }
+
+    /** A 64-bit FNV-1a hash of an ngram */
+    private static long hash(String ngram) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < ngram.length(); i++) {
+            hash ^= ngram.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /** The splitmix64 finalizer, used to derive the hash functions of the signature from the ngram hash */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
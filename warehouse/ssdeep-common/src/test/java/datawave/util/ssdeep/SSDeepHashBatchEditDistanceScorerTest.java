@@ -0,0 +1,153 @@
+package datawave.util.ssdeep;
+
+import static datawave.util.ssdeep.SSDeepHashEditDistanceScorerTest.expectedScores;
+import static datawave.util.ssdeep.SSDeepHashEditDistanceScorerTest.testData;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SSDeepHashBatchEditDistanceScorerTest {
+
+    private static final String B64 = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+
+    @Test
+    public void testCompare() {
+        SSDeepHashScorer<Integer> scorer = new SSDeepHashBatchEditDistanceScorer(SSDeepHash.DEFAULT_MAX_REPEATED_CHARACTERS);
+        for (int i = 0; i < testData.length; i++) {
+            SSDeepHash queryHash = SSDeepHash.parse(testData[i][0]);
+            SSDeepHash targetHash = SSDeepHash.parse(testData[i][1]);
+            int score = scorer.apply(queryHash, targetHash);
+            Assert.assertEquals("Expected score of " + expectedScores[i] + " for query: " + queryHash + ", target: " + targetHash, expectedScores[i], score);
+        }
+    }
+
+    @Test
+    public void testBatch() {
+        SSDeepHashBatchEditDistanceScorer scorer = new SSDeepHashBatchEditDistanceScorer();
+        SSDeepHash queryHash = SSDeepHash.parse(testData[0][0]);
+        List<SSDeepHash> candidates = new ArrayList<>();
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            candidates.add(SSDeepHash.parse(testData[i][1]));
+            expected.add(scorer.apply(queryHash, candidates.get(i)));
+        }
+
+        int[] scores = scorer.apply(queryHash, scorer.pack(candidates));
+        for (int i = 0; i < scores.length; i++) {
+            Assert.assertEquals(expected.get(i).intValue(), scores[i]);
+        }
+        Assert.assertEquals(100, scores[0]);
+    }
+
+    @Test
+    public void testSplitBatch() {
+        Random random = new Random(42);
+        SSDeepHash queryHash = randomHash(random, 3072);
+        List<SSDeepHash> candidates = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            candidates.add(mutate(random, queryHash, random.nextInt(20)));
+        }
+
+        SSDeepHashBatchEditDistanceScorer scorer = new SSDeepHashBatchEditDistanceScorer();
+        SSDeepHashBatchEditDistanceScorer splittingScorer = new SSDeepHashBatchEditDistanceScorer(SSDeepHash.DEFAULT_MAX_REPEATED_CHARACTERS, 16);
+        Assert.assertArrayEquals(scorer.apply(queryHash, scorer.pack(candidates)), splittingScorer.apply(queryHash, splittingScorer.pack(candidates)));
+    }
+
+    @Test
+    public void testPairsMatchBatch() {
+        Random random = new Random(11);
+        SSDeepHashScorer<Integer> pairwiseScorer = new SSDeepHashEditDistanceScorer();
+        SSDeepHashBatchEditDistanceScorer scorer = new SSDeepHashBatchEditDistanceScorer();
+        // more query hashes than the scorer keeps compiled, each scored against the same candidates twice
+        List<SSDeepHash> queryHashes = new ArrayList<>();
+        for (int i = 0; i < SSDeepHashBatchEditDistanceScorer.PATTERN_CACHE_SIZE * 2; i++) {
+            queryHashes.add(randomHash(random, 3072 << random.nextInt(2)));
+        }
+        List<SSDeepHash> candidates = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            candidates.add(mutate(random, queryHashes.get(random.nextInt(queryHashes.size())), random.nextInt(20)));
+        }
+        candidates.add(randomHash(random, 12288));
+
+        SSDeepHashBatch batch = scorer.pack(candidates);
+        for (int pass = 0; pass < 2; pass++) {
+            for (SSDeepHash queryHash : queryHashes) {
+                int[] scores = scorer.apply(queryHash, batch);
+                for (int i = 0; i < candidates.size(); i++) {
+                    Assert.assertEquals(scores[i], scorer.apply(queryHash, candidates.get(i)).intValue());
+                    Assert.assertEquals(pairwiseScorer.apply(queryHash, candidates.get(i)), scorer.apply(queryHash, candidates.get(i)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testEditDistance() {
+        Random random = new Random(7);
+        for (int i = 0; i < 1000; i++) {
+            String pattern = randomChunk(random, random.nextInt(SSDeepHash.CHUNK_LENGTH + 1));
+            String text = randomChunk(random, random.nextInt(SSDeepHash.CHUNK_LENGTH + 1));
+            long[] masks = new long[256];
+            for (int j = 0; j < pattern.length(); j++) {
+                masks[pattern.charAt(j)] |= 1L << j;
+            }
+            byte[] bytes = new SSDeepEncoding().encode("xx" + text);
+            Assert.assertEquals(pattern + " " + text, levenshtein(pattern, text),
+                            SSDeepHashBatchEditDistanceScorer.editDistance(masks, pattern.length(), bytes, 2, text.length()));
+            Assert.assertEquals(pattern + " " + text, levenshtein(pattern, text),
+                            SSDeepHashBatchEditDistanceScorer.editDistance(masks, pattern.length(), text));
+        }
+    }
+
+    private static int levenshtein(String s1, String s2) {
+        int[] previous = new int[s2.length() + 1];
+        int[] current = new int[s2.length() + 1];
+        for (int j = 0; j <= s2.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= s1.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= s2.length(); j++) {
+                int cost = s1.charAt(i - 1) == s2.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[s2.length()];
+    }
+
+    private static String randomChunk(Random random, int length) {
+        // a small alphabet so that the chunks share characters
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            builder.append(B64.charAt(random.nextInt(8)));
+        }
+        return builder.toString();
+    }
+
+    private static SSDeepHash randomHash(Random random, int chunkSize) {
+        StringBuilder chunk = new StringBuilder();
+        for (int i = 0; i < SSDeepHash.CHUNK_LENGTH; i++) {
+            chunk.append(B64.charAt(random.nextInt(B64.length())));
+        }
+        StringBuilder doubleChunk = new StringBuilder();
+        for (int i = 0; i < SSDeepHash.DOUBLE_CHUNK_LENGTH; i++) {
+            doubleChunk.append(B64.charAt(random.nextInt(B64.length())));
+        }
+        return new SSDeepHash(chunkSize, chunk.toString(), doubleChunk.toString());
+    }
+
+    private static SSDeepHash mutate(Random random, SSDeepHash hash, int edits) {
+        StringBuilder chunk = new StringBuilder(hash.getChunk());
+        for (int i = 0; i < edits; i++) {
+            chunk.setCharAt(random.nextInt(chunk.length()), B64.charAt(random.nextInt(B64.length())));
+        }
+        return new SSDeepHash(hash.getChunkSize(), chunk.toString(), hash.getDoubleChunk());
+    }
+}
@@ -0,0 +1,111 @@
+package datawave.util.ssdeep;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares scoring a query hash against a set of candidates one pair at a time with the {@link SSDeepHashEditDistanceScorer} to scoring them one pair at a
+ * time and as a batch with the {@link SSDeepHashBatchEditDistanceScorer}. Run with <code>mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=datawave.util.ssdeep.SSDeepHashScorerBenchmark</code> or through the main method from an IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SSDeepHashScorerBenchmark {
+
+    private static final String B64 = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+
+    @Param({"100", "10000"})
+    public int candidateCount;
+
+    private SSDeepHash query;
+    private List<SSDeepHash> candidates;
+    private SSDeepHashBatch batch;
+    private int[] scores;
+
+    private final SSDeepHashEditDistanceScorer scorer = new SSDeepHashEditDistanceScorer();
+    private final SSDeepHashBatchEditDistanceScorer batchScorer = new SSDeepHashBatchEditDistanceScorer();
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        query = randomHash(random);
+        candidates = new ArrayList<>(candidateCount);
+        for (int i = 0; i < candidateCount; i++) {
+            // a mix of near duplicates of the query and unrelated hashes
+            candidates.add(i % 2 == 0 ? mutate(random, query) : randomHash(random));
+        }
+        batch = batchScorer.pack(candidates);
+        scores = new int[candidateCount];
+    }
+
+    @Benchmark
+    public void pairwise(Blackhole blackhole) {
+        for (SSDeepHash candidate : candidates) {
+            blackhole.consume(scorer.apply(query, candidate));
+        }
+    }
+
+    @Benchmark
+    public void pairwiseCompiled(Blackhole blackhole) {
+        for (SSDeepHash candidate : candidates) {
+            blackhole.consume(batchScorer.apply(query, candidate));
+        }
+    }
+
+    @Benchmark
+    public int[] batch() {
+        batchScorer.apply(query, batch, scores);
+        return scores;
+    }
+
+    @Benchmark
+    public int[] packAndBatch() {
+        return batchScorer.apply(query, batchScorer.pack(candidates));
+    }
+
+    private static SSDeepHash randomHash(Random random) {
+        return new SSDeepHash(3072, randomChunk(random, SSDeepHash.CHUNK_LENGTH), randomChunk(random, SSDeepHash.DOUBLE_CHUNK_LENGTH));
+    }
+
+    private static SSDeepHash mutate(Random random, SSDeepHash hash) {
+        StringBuilder chunk = new StringBuilder(hash.getChunk());
+        for (int i = random.nextInt(16); i >= 0; i--) {
+            chunk.setCharAt(random.nextInt(chunk.length()), B64.charAt(random.nextInt(B64.length())));
+        }
+        return new SSDeepHash(hash.getChunkSize(), chunk.toString(), hash.getDoubleChunk());
+    }
+
+    private static String randomChunk(Random random, int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append(B64.charAt(random.nextInt(B64.length())));
+        }
+        return builder.toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SSDeepHashScorerBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,77 @@
+package datawave.util.ssdeep;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Sets;
+
+public class SSDeepMinHashGeneratorTest {
+
+    private static final String HASH = "3072:02irbxzGAFYDMxud7fKg3dXVmbOn5u46Kjnz/G8VYrs123D6pIJLIOSP:02MKlWQ7Sg3d4bO968rm7JO";
+    private static final String SIMILAR_HASH = "3072:03jscyaGAFYDMxud7fKg3dXVmbOn5u46Kjnz/G8VYrs123D6pIJLIOSP:03NLmXR7Sg3d4bO968rm7JO";
+    private static final String DIFFERENT_HASH = "6144:02C3nq73v1kHGhs6y7ppFj93NRW6/ftZTgC6e8o4toHZmk6ZxoXb0ns:02C4cGCLjj9Swfj9koHEk6/Fns";
+
+    private final SSDeepMinHashGenerator generator = new SSDeepMinHashGenerator();
+
+    @Test
+    public void testBandKeys() {
+        Set<NGramTuple> bands = generator.generateBands(HASH);
+
+        // one band key per band for both the chunk and the double chunk
+        assertEquals(2 * SSDeepMinHashGenerator.DEFAULT_BANDS, bands.size());
+        for (NGramTuple band : bands) {
+            assertTrue(SSDeepMinHashGenerator.isBand(band.getChunk()));
+            assertEquals(SSDeepMinHashGenerator.BAND_HASH_LENGTH + 2, band.getChunk().length());
+            assertTrue(band.getChunkSize() == 3072 || band.getChunkSize() == 6144);
+        }
+        assertEquals(bands, new SSDeepMinHashGenerator().generateBands(HASH));
+    }
+
+    @Test
+    public void testNGramsAreNotBands() {
+        for (NGramTuple ngram : new NGramGenerator().generateNgrams(HASH)) {
+            assertFalse(SSDeepMinHashGenerator.isBand(ngram.getChunk()));
+        }
+    }
+
+    @Test
+    public void testSimilarHashesShareBands() {
+        Set<NGramTuple> bands = generator.generateBands(HASH);
+        assertFalse(Sets.intersection(bands, generator.generateBands(SIMILAR_HASH)).isEmpty());
+        assertTrue(Sets.intersection(bands, generator.generateBands(DIFFERENT_HASH)).isEmpty());
+    }
+
+    @Test
+    public void testShortChunksHaveNoBands() {
+        Set<NGramTuple> bands = new HashSet<>();
+        generator.generateBands(3072, "02MKlW", bands);
+        assertTrue(bands.isEmpty());
+
+        // the hash is smaller than the minimum hash size
+        assertTrue(generator.generateBands("3:abcdefghij:abcdefghij").isEmpty());
+    }
+
+    @Test
+    public void testPreprocessQueries() {
+        SSDeepHash hash = SSDeepHash.parse(HASH);
+        SSDeepHash other = SSDeepHash.parse(DIFFERENT_HASH);
+        Multimap<NGramTuple,SSDeepHash> queryMap = generator.preprocessQueries(Arrays.asList(hash, other));
+        assertEquals(4 * SSDeepMinHashGenerator.DEFAULT_BANDS, queryMap.size());
+        for (NGramTuple band : generator.generateBands(hash)) {
+            assertTrue(queryMap.containsEntry(band, hash));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooManyBands() {
+        new SSDeepMinHashGenerator(7, 3, 64, 65, 3);
+    }
+}
@@ -1,5 +1,9 @@
 package datawave.webservice.query.database;
 
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -7,6 +11,7 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
@@ -29,6 +34,8 @@ import org.apache.log4j.Logger;
 
 import datawave.configuration.spring.SpringBean;
 import datawave.core.query.cachedresults.CachedResultsQueryParameters;
+import datawave.core.query.cachedresults.ColumnarCachedResultsWriter;
+import datawave.webservice.results.cached.CachedRunningQuery;
 
 /**
  * Removes tables and views from the MySQL database that have been there for 24 hours so that we don't have to purge data from them.
@@ -108,6 +115,28 @@ public class CachedResultsCleanupBean {
         } catch (SQLException e) {
             log.error("Error cleaning up cached result objects: " + e.getMessage());
         }
+        cleanupColumnar();
+    }
+
+    /**
+     * Removes the columnar stores of cached results that were loaded more than daysToLive days ago
+     */
+    private void cleanupColumnar() {
+        Path directory = CachedRunningQuery.getColumnarDirectory();
+        if (directory == null || !Files.isDirectory(directory)) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(cachedResultsCleanupConfiguration.getDaysToLive());
+        try (DirectoryStream<Path> views = Files.newDirectoryStream(directory, "v*")) {
+            for (Path view : views) {
+                if (Files.getLastModifiedTime(view).toMillis() < cutoff) {
+                    ColumnarCachedResultsWriter.delete(view);
+                    removeCrqRow(view.getFileName().toString());
+                }
+            }
+        } catch (IOException e) {
+            log.error("Error cleaning up columnar cached results: " + e.getMessage());
+        }
     }
 
     private void removeCrqRow(String id) {
@@ -7,6 +7,7 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.file.Path;
 import java.security.Principal;
 import java.sql.BatchUpdateException;
 import java.sql.Connection;
@@ -22,12 +23,14 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
 
 import javax.annotation.PostConstruct;
@@ -44,6 +47,7 @@ import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
 import javax.ejb.TransactionManagement;
 import javax.ejb.TransactionManagementType;
+import javax.enterprise.concurrent.ManagedExecutorService;
 import javax.inject.Inject;
 import javax.interceptor.Interceptors;
 import javax.sql.DataSource;
@@ -88,6 +92,7 @@ import datawave.core.common.connection.AccumuloConnectionFactory;
 import datawave.core.query.cache.ResultsPage;
 import datawave.core.query.cachedresults.CacheableLogic;
 import datawave.core.query.cachedresults.CachedResultsQueryParameters;
+import datawave.core.query.cachedresults.ColumnarCachedResultsWriter;
 import datawave.core.query.logic.QueryLogic;
 import datawave.core.query.logic.QueryLogicFactory;
 import datawave.core.query.predict.QueryPredictor;
@@ -206,6 +211,9 @@ public class CachedResultsBean {
     @Inject
     private QueryPredictor predictor;
 
+    @Resource
+    private ManagedExecutorService executor;
+
     protected static final String BASE_COLUMNS = StringUtils.join(CacheableQueryRow.getFixedColumnSet(), ",");
 
     @Inject
@@ -240,6 +248,7 @@ public class CachedResultsBean {
 
     private static Map<String,RunningQuery> loadingQueryMap = Collections.synchronizedMap(new HashMap<>());
     private static Set<String> loadingQueries = Collections.synchronizedSet(new HashSet<>());
+    private static Map<String,ParallelBatchLoader<?>> loadingProgressMap = new ConcurrentHashMap<>();
     private URL importFileUrl = null;
     private CachedResultsQueryParameters cp = new CachedResultsQueryParameters();
 
@@ -263,6 +272,7 @@ public class CachedResultsBean {
         CachedRunningQuery.setDatasource(ds);
         CachedRunningQuery.setQueryFactory(queryFactory);
         CachedRunningQuery.setResponseObjectFactory(responseObjectFactory);
+        CachedRunningQuery.setColumnarDirectory(cachedResultsConfiguration.getColumnarDirectory());
 
         String template = null;
         try (Connection con = ds.getConnection(); Statement s = con.createStatement()) {
@@ -333,6 +343,129 @@ public class CachedResultsBean {
 
     }
 
+    /**
+     * Add a row to a columnar store, with the same columns as the row {@link #loadBatch} inserts into the cached results table. Values are not truncated.
+     */
+    protected void loadColumnarRow(ColumnarCachedResultsWriter writer, String owner, String queryId, String logicName, Map<String,Integer> fieldMap,
+                    CacheableQueryRow cqo) throws IOException {
+        Map<String,String> row = new LinkedHashMap<>();
+        row.put("_user_", owner);
+        row.put("_queryId_", queryId);
+        row.put("_logicName_", logicName);
+        row.put("_datatype_", cqo.getDataType());
+        row.put("_eventId_", cqo.getEventId());
+        row.put("_row_", cqo.getRow());
+        row.put("_colf_", cqo.getColFam());
+        row.put("_markings_", MarkingFunctions.Encoding.toString(new TreeMap<>(cqo.getMarkings())));
+        for (Entry<String,String> e : cqo.getColumnValues().entrySet()) {
+            // number the column as the cached results table would, for the column markings and timestamps
+            if (!fieldMap.containsKey(e.getKey())) {
+                fieldMap.put(e.getKey(), CacheableQueryRow.getFixedColumnSet().size() + fieldMap.size() + 1);
+            }
+            row.put(e.getKey(), e.getValue());
+        }
+        row.put("_column_markings_", cqo.getColumnSecurityMarkingString(fieldMap));
+        row.put("_column_timestamps_", cqo.getColumnTimestampString(fieldMap));
+        writer.add(row);
+    }
+
+    /**
+     * Inserts the batches of a {@link ParallelBatchLoader} worker into the cached results table over a connection of its own
+     */
+    private class TableBatchWriter implements ParallelBatchLoader.BatchWriter<CacheableQueryRow> {
+
+        private final Connection con;
+        private final PreparedStatement ps;
+        private final String owner;
+        private final String queryId;
+        private final String logicName;
+        private final Map<String,Integer> fieldMap;
+
+        TableBatchWriter(String insert, String owner, String queryId, String logicName, Map<String,Integer> fieldMap) throws SQLException {
+            this.con = ds.getConnection();
+            try {
+                this.ps = con.prepareStatement(insert);
+            } catch (SQLException e) {
+                DbUtils.closeQuietly(con);
+                throw e;
+            }
+            this.owner = owner;
+            this.queryId = queryId;
+            this.logicName = logicName;
+            this.fieldMap = fieldMap;
+        }
+
+        @Override
+        public int write(List<CacheableQueryRow> batch) throws SQLException, QueryException {
+            int rowsWritten = 0;
+            int maxLength = 0;
+            for (CacheableQueryRow cacheableQueryRow : batch) {
+                Collection<String> values = cacheableQueryRow.getColumnValues().values();
+                int maxValueLength = 0;
+                for (String s : values) {
+                    if (s.length() > maxValueLength) {
+                        maxValueLength = s.length();
+                    }
+                }
+
+                boolean dataWritten = false;
+                // If a successful maxLength has been determined, then don't change it.
+                if (maxLength == 0)
+                    maxLength = maxValueLength + 1;
+                else if (maxValueLength > maxLength) {
+                    maxLength = maxValueLength;
+                }
+
+                int attempt = 0;
+                SQLException loadBatchException = null; // exception;
+                while (dataWritten == false && attempt < 10) {
+                    try {
+                        loadBatch(ps, owner, queryId, logicName, fieldMap, cacheableQueryRow, maxLength);
+                        dataWritten = true;
+                        rowsWritten++;
+                    } catch (SQLException e) {
+                        loadBatchException = e;
+                        String msg = e.getMessage();
+                        if (msg.startsWith("Table") && msg.endsWith("doesn't exist")) {
+                            throw new QueryException(DatawaveErrorCode.CACHE_TABLE_MISSING, MessageFormat.format("message: {0}", msg));
+                        } else {
+                            log.info("Caught other SQLException:" + msg + " writing batch with maxLength:" + maxLength);
+                            maxLength = maxLength / 2;
+                        }
+                    }
+                    attempt++;
+                }
+
+                if (dataWritten == false) {
+                    String message = (loadBatchException == null) ? "unknown" : loadBatchException.getMessage();
+
+                    log.error("Batch write FAILED - last exception = " + message + "record = " + cacheableQueryRow.getColumnValues().entrySet(),
+                                    loadBatchException);
+                }
+            }
+
+            if (rowsWritten > 0) {
+                persistBatch(ps);
+                ps.clearBatch();
+            }
+            return rowsWritten;
+        }
+
+        @Override
+        public void close() {
+            DbUtils.closeQuietly(con, ps, null);
+        }
+    }
+
+    private void stopLoader(ParallelBatchLoader<?> loader, String queryId) {
+        try {
+            loader.close();
+        } catch (InterruptedException e) {
+            log.error("Interrupted waiting for the loader of " + queryId + " to stop", e);
+            Thread.currentThread().interrupt();
+        }
+    }
+
     protected GenericResponse<String> load(@Required("queryId") String queryId, String alias, String nameBase) {
 
         GenericResponse<String> response = new GenericResponse<>();
@@ -359,7 +492,10 @@ public class CachedResultsBean {
         String tableName = "t" + nameBase;
         String viewName = "v" + nameBase;
         Connection con = null;
-        PreparedStatement ps = null;
+        ParallelBatchLoader<CacheableQueryRow> loader = null;
+        // results are written to a columnar store instead of a table when a columnar directory is configured
+        Path columnarDirectory = CachedRunningQuery.getColumnarDirectory(viewName);
+        ColumnarCachedResultsWriter columnarWriter = null;
         boolean tableCreated = false;
         boolean viewCreated = false;
         CachedRunningQuery crq = null;
@@ -493,32 +629,53 @@ public class CachedResultsBean {
                 throw new IllegalArgumentException(logic.getLogicName() + " does not support CachedResults calls");
             }
 
-            try {
-                con = ds.getConnection();
-                // Create the result table for this query
-                Statement s = con.createStatement();
-                String createTable = cachedResultsConfiguration.getParameters().get("CREATE_TABLE");
-                createTable = createTable.replace(TABLE, tableName);
-                s.execute(createTable);
-                s.close();
-                tableCreated = true;
-                // Parse the PreparedStatement
-                String insert = cachedResultsConfiguration.getParameters().get("INSERT");
-                insert = insert.replace(TABLE, tableName);
-                ps = con.prepareStatement(insert);
-            } catch (SQLException sqle) {
-                throw new QueryException(DatawaveErrorCode.CACHED_RESULTS_TABLE_CREATE_ERROR, sqle);
+            if (columnarDirectory != null) {
+                try {
+                    columnarWriter = new ColumnarCachedResultsWriter(columnarDirectory, cachedResultsConfiguration.getRowsPerSegment());
+                } catch (IOException e) {
+                    throw new QueryException(DatawaveErrorCode.CACHED_RESULTS_TABLE_CREATE_ERROR, e);
+                }
+            } else {
+                try {
+                    con = ds.getConnection();
+                    // Create the result table for this query
+                    Statement s = con.createStatement();
+                    String createTable = cachedResultsConfiguration.getParameters().get("CREATE_TABLE");
+                    createTable = createTable.replace(TABLE, tableName);
+                    s.execute(createTable);
+                    s.close();
+                    tableCreated = true;
+                } catch (SQLException sqle) {
+                    throw new QueryException(DatawaveErrorCode.CACHED_RESULTS_TABLE_CREATE_ERROR, sqle);
+                }
             }
 
             // Object for keeping track of which fields are placed in which
             // table columns
-            // Key is fieldName, value is column number
-            Map<String,Integer> fieldMap = new HashMap<>();
+            // Key is fieldName, value is column number. Only this thread adds to it, before handing rows to the loader.
+            Map<String,Integer> fieldMap = new ConcurrentHashMap<>();
+
+            // Page through the results on this thread while the loader persists the previous pages
+            String logicName = logic.getLogicName();
+            if (columnarWriter != null) {
+                // the columnar writer is not thread safe, so it has a single worker
+                ColumnarCachedResultsWriter writer = columnarWriter;
+                loader = new ParallelBatchLoader<>(executor, () -> batch -> {
+                    for (CacheableQueryRow cacheableQueryRow : batch) {
+                        loadColumnarRow(writer, owner, queryId, logicName, fieldMap, cacheableQueryRow);
+                    }
+                    return batch.size();
+                }, 1, cachedResultsConfiguration.getLoadQueueSize());
+            } else {
+                // each worker prepares the insert on a connection of its own
+                String insert = cachedResultsConfiguration.getParameters().get("INSERT").replace(TABLE, tableName);
+                loader = new ParallelBatchLoader<>(executor, () -> new TableBatchWriter(insert, owner, queryId, logicName, fieldMap),
+                                cachedResultsConfiguration.getLoadThreads(), cachedResultsConfiguration.getLoadQueueSize());
+            }
+            CachedResultsBean.loadingProgressMap.put(queryId, loader);
 
-            // Loop over the results and put them into the database.
             ResultsPage results = null;
 
-            int rowsWritten = 0;
             boolean go = true;
             while (go) {
 
@@ -532,65 +689,26 @@ public class CachedResultsBean {
                     break;
                 }
 
-                int maxLength = 0;
+                List<CacheableQueryRow> batch = new ArrayList<>();
                 for (Object o : results.getResults()) {
                     CacheableQueryRow cacheableQueryRow = cacheableLogic.writeToCache(o);
-
-                    Collection<String> values = cacheableQueryRow.getColumnValues().values();
-                    int maxValueLength = 0;
-                    for (String s : values) {
-                        if (s.length() > maxValueLength) {
-                            maxValueLength = s.length();
-                        }
-                    }
-
-                    boolean dataWritten = false;
-                    // If a successful maxLength has been determined, then don't change it.
-                    if (maxLength == 0)
-                        maxLength = maxValueLength + 1;
-                    else if (maxValueLength > maxLength) {
-                        maxLength = maxValueLength;
-                    }
-
-                    int attempt = 0;
-                    SQLException loadBatchException = null; // exception;
-                    while (dataWritten == false && attempt < 10) {
-                        try {
-                            loadBatch(ps, owner, queryId, logic.getLogicName(), fieldMap, cacheableQueryRow, maxLength);
-                            dataWritten = true;
-                            rowsWritten++;
-                        } catch (SQLException e) {
-                            loadBatchException = e;
-                            String msg = e.getMessage();
-                            if (msg.startsWith("Table") && msg.endsWith("doesn't exist")) {
-                                throw new QueryException(DatawaveErrorCode.CACHE_TABLE_MISSING, MessageFormat.format("message: {0}", msg));
-                            } else {
-                                log.info("Caught other SQLException:" + msg + " writing batch with maxLength:" + maxLength);
-                                maxLength = maxLength / 2;
-                            }
+                    for (String columnName : cacheableQueryRow.getColumnValues().keySet()) {
+                        if (!fieldMap.containsKey(columnName)) {
+                            fieldMap.put(columnName, CacheableQueryRow.getFixedColumnSet().size() + fieldMap.size() + 1);
                         }
-                        attempt++;
                     }
-
-                    if (dataWritten == false) {
-                        String message = (loadBatchException == null) ? "unknown" : loadBatchException.getMessage();
-
-                        log.error("Batch write FAILED - last exception = " + message + "record = " + cacheableQueryRow.getColumnValues().entrySet(),
-                                        loadBatchException);
-                    } else if (rowsWritten >= rowsPerBatch) {
-                        persistBatch(ps);
-                        ps.clearBatch();
-                        rowsWritten = 0;
+                    batch.add(cacheableQueryRow);
+                    if (batch.size() >= rowsPerBatch) {
+                        loader.add(batch);
+                        batch = new ArrayList<>();
                     }
                 }
+                loader.add(batch);
             } // End of inserts into table
 
-            // commit the last batch
-            if (rowsWritten > 0) {
-                persistBatch(ps);
-                ps.clearBatch();
-                rowsWritten = 0;
-            }
+            // wait for the last batches to be persisted
+            loader.finish();
+            log.info("Loaded query " + queryId + " into " + viewName + ": " + loader);
 
             // Dump the fieldMap for debugging
             if (log.isTraceEnabled()) {
@@ -599,8 +717,12 @@ public class CachedResultsBean {
                 }
             }
 
-            // Create the view of the table
-            viewCreated = createView(tableName, viewName, con, viewCreated, fieldMap);
+            if (columnarWriter != null) {
+                columnarWriter.commit(fieldMap);
+            } else {
+                // Create the view of the table
+                viewCreated = createView(tableName, viewName, con, viewCreated, fieldMap);
+            }
 
             // create the CachedRunningQuery and store it under the originalQueryName, but do not activate it
             crq = new CachedRunningQuery(q, logic, viewName, alias, owner, viewName, cachedResultsConfiguration.getDefaultPageSize(), queryId,
@@ -667,6 +789,10 @@ public class CachedResultsBean {
             } else {
                 log.error(t.getMessage(), t);
             }
+            if (loader != null) {
+                // the workers must not insert into the table once it is dropped
+                stopLoader(loader, queryId);
+            }
             if (con != null) {
                 Statement s = null;
                 try {
@@ -705,7 +831,20 @@ public class CachedResultsBean {
             }
             throw new DatawaveWebApplicationException(t, response, statusCode);
         } finally {
-            DbUtils.closeQuietly(con, ps, null);
+            if (loader != null) {
+                // stops the workers if the load failed, before the writer is closed
+                stopLoader(loader, queryId);
+                CachedResultsBean.loadingProgressMap.remove(queryId);
+            }
+            DbUtils.closeQuietly(con);
+            if (columnarWriter != null) {
+                // deletes the columnar store unless it was committed
+                try {
+                    columnarWriter.close();
+                } catch (IOException e) {
+                    log.error("Unable to close the columnar store " + columnarDirectory, e);
+                }
+            }
             if (queryLockedException == false) {
                 CachedResultsBean.loadingQueryMap.remove(queryId);
                 CachedResultsBean.loadingQueries.remove(queryId);
@@ -796,6 +935,12 @@ public class CachedResultsBean {
             response.addMessage(crq.getStatusMessage());
         }
 
+        // report the progress of a load which is still running
+        ParallelBatchLoader<?> loader = crq.getOriginalQueryId() == null ? null : loadingProgressMap.get(crq.getOriginalQueryId());
+        if (loader != null) {
+            response.addMessage(loader.toString());
+        }
+
         return response;
     }
 
@@ -3,6 +3,8 @@ package datawave.webservice.results.cached;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.security.Principal;
 import java.sql.Blob;
 import java.sql.Connection;
@@ -18,6 +20,7 @@ import java.util.Date;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.UUID;
@@ -37,6 +40,7 @@ import datawave.core.query.cache.ResultsPage;
 import datawave.core.query.cachedresults.CacheableLogic;
 import datawave.core.query.cachedresults.CacheableQueryRowReader;
 import datawave.core.query.cachedresults.CachedResultsQueryParameters;
+import datawave.core.query.cachedresults.ColumnarCachedResultsReader;
 import datawave.core.query.logic.QueryLogic;
 import datawave.core.query.logic.QueryLogicFactory;
 import datawave.core.query.logic.QueryLogicTransformer;
@@ -61,10 +65,18 @@ public class CachedRunningQuery extends AbstractRunningQuery {
     private static final long serialVersionUID = 1L;
 
     private static ResponseObjectFactory responseObjectFactory;
+    private static Path columnarDirectory = null;
     private transient Connection connection = null;
     private transient CachedRowSet crs = null;
     private transient Statement statement = null;
 
+    // set instead of the row set when the results were loaded into a columnar store
+    private transient ColumnarCachedResultsReader columnarReader = null;
+    private transient ColumnarCachedResultsReader.Selection columnarSelection = null;
+    private transient int columnarPage = -1;
+    // whether the results were loaded into a columnar store, resolved when the query is activated
+    private transient Boolean columnar = null;
+
     private transient CacheableLogic cacheableLogic = null;
     private transient QueryLogic<?> queryLogic = null;
     private transient QueryLogicTransformer transformer = null;
@@ -331,7 +343,7 @@ public class CachedRunningQuery extends AbstractRunningQuery {
         if (null != fixedFieldsInEvent) {
             this.fixedFieldsInEvent = fixedFieldsInEvent;
         }
-        this.sqlQuery = generateSql(this.view, this.fields, this.conditions, this.grouping, this.order, this.user, this.connection);
+        this.sqlQuery = generateQuery(this.connection);
         // if the CRQ is created through this constructor and is retrieved from the cache (and not from MySql)
         // then the first call to next() or previous() will cause the CachedResultsBean to get a MySql connection
         // and activate the CRQ. After the first call to nex() or previous() shouldAutoActivate willbe false.
@@ -527,7 +539,7 @@ public class CachedRunningQuery extends AbstractRunningQuery {
             if (this.view != null) {
 
                 if (fieldChanged == true) {
-                    newSql = generateSql(this.view, this.fields, this.conditions, this.grouping, this.order, this.user, this.connection);
+                    newSql = generateQuery(this.connection);
                     // only if changed
                     if (!newSql.equals(this.sqlQuery)) {
                         mustInitialize = true;
@@ -550,7 +562,9 @@ public class CachedRunningQuery extends AbstractRunningQuery {
     }
 
     public boolean isActivated() {
-        if (this.connection != null && this.statement != null && this.crs != null) {
+        if (this.connection != null && this.columnarSelection != null) {
+            return true;
+        } else if (this.connection != null && this.statement != null && this.crs != null) {
             return true;
         } else {
             return false;
@@ -594,7 +608,11 @@ public class CachedRunningQuery extends AbstractRunningQuery {
                 log.trace("activating CRS on host:" + host + ", " + this);
             }
 
-            this.statement = this.connection.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+            // the view may have been loaded since this query was last activated
+            this.columnar = null;
+            if (!isColumnar()) {
+                this.statement = this.connection.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+            }
             initialize();
         } catch (SQLException e) {
             log.error(e.getMessage(), e);
@@ -609,9 +627,14 @@ public class CachedRunningQuery extends AbstractRunningQuery {
 
     private void initialize() throws SQLException {
 
-        this.sqlQuery = this.generateSql(this.view, this.fields, this.conditions, this.grouping, this.order, this.user, this.connection);
+        this.sqlQuery = generateQuery(this.connection);
         this.getMetric().setQuery(sqlQuery);
 
+        if (isColumnar()) {
+            initializeColumnar();
+            return;
+        }
+
         this.crs = RowSetProvider.newFactory().createCachedRowSet();
         this.crs.setCommand(this.sqlQuery);
 
@@ -641,6 +664,74 @@ public class CachedRunningQuery extends AbstractRunningQuery {
         this.currentRow = position.BEFORE_FIRST;
     }
 
+    /**
+     * Generate the query for the current fields, conditions, grouping and order, which is SQL unless the results were loaded into a columnar store
+     */
+    private String generateQuery(Connection connection) throws SQLException {
+        if (!isColumnar()) {
+            return generateSql(this.view, this.fields, this.conditions, this.grouping, this.order, this.user, connection);
+        }
+
+        if (StringUtils.isNotBlank(this.grouping)) {
+            throw new IllegalArgumentException("Grouping is not supported for results loaded into a columnar store");
+        }
+        // reject fields the store cannot return before any rows are read
+        getColumnarFields();
+        StringBuilder buf = new StringBuilder();
+        buf.append("SELECT ").append(StringUtils.isBlank(this.fields) ? "*" : this.fields).append(" FROM ").append(this.view);
+        buf.append(" WHERE _user_ = '").append(this.user).append("'");
+        if (StringUtils.isNotBlank(this.conditions)) {
+            buf.append(" AND (").append(this.conditions).append(")");
+        }
+        if (StringUtils.isNotBlank(this.order)) {
+            buf.append(" ORDER BY ").append(this.order);
+        }
+        return buf.toString();
+    }
+
+    /**
+     * Select the rows from the columnar store. The conditions and order are evaluated in process, and any the store does not support are rejected.
+     */
+    private void initializeColumnar() throws SQLException {
+        try {
+            this.columnarReader = new ColumnarCachedResultsReader(getColumnarDirectory(this.view));
+            this.columnarSelection = this.columnarReader.select(this.user, this.conditions, this.order);
+        } catch (IOException e) {
+            throw new SQLException("Unable to read the columnar store of " + this.view, e);
+        }
+        this.totalRows = this.columnarSelection.size();
+        this.columnarPage = -1;
+        this.currentRow = position.BEFORE_FIRST;
+
+        if (log.isTraceEnabled()) {
+            log.trace("Selected " + this.totalRows + " rows from the columnar store of " + this.view);
+        }
+    }
+
+    private int getColumnarPageCount() {
+        return (int) Math.ceil((float) this.totalRows / (float) this.pagesize);
+    }
+
+    /**
+     * @return the columns requested by the fields of this query, or null for every column
+     */
+    private List<String> getColumnarFields() {
+        if (StringUtils.isBlank(this.fields)) {
+            return null;
+        }
+        List<String> columns = new ArrayList<>(CacheableQueryRow.getFixedColumnSet());
+        for (String field : tokenizeOutsideParens(this.fields, ',')) {
+            field = field.replace("`", "").trim();
+            if (field.equals("*")) {
+                return null;
+            } else if (field.contains(LPAREN)) {
+                throw new IllegalArgumentException("Functions are not supported for results loaded into a columnar store");
+            }
+            columns.add(field);
+        }
+        return columns;
+    }
+
     public String getUser() {
         return this.user;
     }
@@ -672,6 +763,14 @@ public class CachedRunningQuery extends AbstractRunningQuery {
         }
 
         ResultsPage resultList;
+        if (this.columnarSelection != null) {
+            resultList = convert(this.columnarSelection, rowBegin - 1, rowEnd, pageByteTrigger);
+            long now = System.currentTimeMillis();
+            this.getMetric().addPageTime(resultList.getResults().size(), (now - pageStartTime), pageStartTime, now);
+            updateTimestamp();
+            return resultList;
+        }
+
         int pagesize = (rowEnd - rowBegin) + 1;
 
         try (PreparedStatement ps = connection.prepareStatement(query.toString()); CachedRowSet crs = RowSetProvider.newFactory().createCachedRowSet()) {
@@ -753,7 +852,10 @@ public class CachedRunningQuery extends AbstractRunningQuery {
         }
 
         ResultsPage resultList = new ResultsPage();
-        if (nextPageOfResults()) {
+        if (this.columnarSelection != null) {
+            this.columnarPage = (currentRow == position.BEFORE_FIRST) ? 0 : Math.min(this.columnarPage + 1, getColumnarPageCount());
+            resultList = convert(this.columnarSelection, this.columnarPage * this.pagesize, (this.columnarPage + 1) * this.pagesize, pageByteTrigger);
+        } else if (nextPageOfResults()) {
             resultList = convert(this.crs, pageByteTrigger);
         }
 
@@ -794,7 +896,12 @@ public class CachedRunningQuery extends AbstractRunningQuery {
         }
 
         ResultsPage resultList = new ResultsPage();
-        if (previousPageOfResults()) {
+        if (this.columnarSelection != null) {
+            this.columnarPage = (currentRow == position.AFTER_LAST) ? getColumnarPageCount() - 1 : Math.max(this.columnarPage - 1, -1);
+            if (this.columnarPage >= 0) {
+                resultList = convert(this.columnarSelection, this.columnarPage * this.pagesize, (this.columnarPage + 1) * this.pagesize, pageByteTrigger);
+            }
+        } else if (previousPageOfResults()) {
             resultList = convert(this.crs, pageByteTrigger);
         }
 
@@ -886,10 +993,60 @@ public class CachedRunningQuery extends AbstractRunningQuery {
         }
     }
 
+    /**
+     * Convert a range of the rows selected from the columnar store into a result list.
+     *
+     * @param selection
+     *            the selected rows
+     * @param begin
+     *            the position of the first row, from 0
+     * @param end
+     *            the position after the last row
+     * @param pageByteTrigger
+     *            the page byte
+     * @return ResultsPage
+     * @throws SQLException
+     *             if the columnar store cannot be read
+     */
+    private ResultsPage convert(ColumnarCachedResultsReader.Selection selection, int begin, int end, long pageByteTrigger) throws SQLException {
+        boolean hitPageByteTrigger = false;
+        List<Object> results = new ArrayList<>();
+        List<Map<String,String>> rows;
+        try {
+            rows = selection.getRows(begin, end, getColumnarFields());
+        } catch (IOException e) {
+            // a page which could not be read must fail rather than be returned short
+            throw new SQLException("Unable to read the columnar store of " + this.view, e);
+        }
+        long resultBytes = 0;
+        for (Map<String,String> columns : rows) {
+            if (hitPageByteTrigger) {
+                break;
+            }
+            CacheableQueryRow row = CacheableQueryRowReader.createRow(columns, this.columnarReader.getColumnNumbers(), this.fixedFieldsInEvent,
+                            this.responseObjectFactory, queryLogic.getMarkingFunctions());
+            results.add(this.cacheableLogic.readFromCache(row));
+            if (pageByteTrigger != 0) {
+                resultBytes += ObjectSizeOf.Sizer.getObjectSize(row);
+                if (resultBytes >= pageByteTrigger) {
+                    hitPageByteTrigger = true;
+                }
+            }
+        }
+
+        if (this.cacheableLogic == null) {
+            return new ResultsPage();
+        } else {
+            return new ResultsPage(results, (hitPageByteTrigger ? ResultsPage.Status.PARTIAL : ResultsPage.Status.COMPLETE));
+        }
+    }
+
     public void resetConnection() {
         this.connection = null;
         this.statement = null;
         this.crs = null;
+        this.columnarReader = null;
+        this.columnarSelection = null;
     }
 
     public Connection getConnection() {
@@ -1272,6 +1429,7 @@ public class CachedRunningQuery extends AbstractRunningQuery {
 
     public void setView(String view) {
         this.view = CachedResultsQueryParameters.validate(view);
+        this.columnar = null;
     }
 
     public String getTableName() {
@@ -1370,6 +1528,40 @@ public class CachedRunningQuery extends AbstractRunningQuery {
         CachedRunningQuery.responseObjectFactory = responseObjectFactory;
     }
 
+    /**
+     * Set the directory which results are loaded into when they are loaded into a columnar store rather than the cached results database.
+     *
+     * @param columnarDirectory
+     *            the local directory, or null if results are loaded into the cached results database
+     */
+    public static void setColumnarDirectory(String columnarDirectory) {
+        CachedRunningQuery.columnarDirectory = columnarDirectory == null ? null : Paths.get(columnarDirectory);
+    }
+
+    public static Path getColumnarDirectory() {
+        return CachedRunningQuery.columnarDirectory;
+    }
+
+    /**
+     * @param view
+     *            a view
+     * @return the directory of the columnar store of a view, or null if results are loaded into the cached results database
+     */
+    public static Path getColumnarDirectory(String view) {
+        return columnarDirectory == null ? null : columnarDirectory.resolve(CachedResultsQueryParameters.validate(view));
+    }
+
+    /**
+     * @return true if the results of this query were loaded into a columnar store
+     */
+    public boolean isColumnar() {
+        if (this.columnar == null) {
+            Path directory = this.view == null ? null : getColumnarDirectory(this.view);
+            this.columnar = directory != null && ColumnarCachedResultsReader.exists(directory);
+        }
+        return this.columnar;
+    }
+
     public boolean getShouldAutoActivate() {
         return this.shouldAutoActivate;
     }
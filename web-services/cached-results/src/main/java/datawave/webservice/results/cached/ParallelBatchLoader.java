@@ -0,0 +1,191 @@
+package datawave.webservice.results.cached;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Persists batches of rows on a number of worker threads while the caller produces the next batches, so that loading a result set takes about as long as the
+ * slower of producing and persisting it rather than the sum of the two. The caller hands batches to {@link #add(List)}, which blocks while the queue of
+ * waiting batches is full, and calls {@link #finish()} once every batch has been added. Each worker writes with its own {@link BatchWriter}, so that, for
+ * example, every worker inserts over its own database connection.
+ * <p>
+ * The first failure of a worker stops the other workers and is rethrown to the caller by the next call to {@link #add(List)} or {@link #finish()}. Closing a
+ * loader which has not finished stops the workers and waits for them to close their writers.
+ *
+ * @param <T>
+ *            the type of row
+ */
+public class ParallelBatchLoader<T> implements AutoCloseable {
+
+    private static Logger log = Logger.getLogger(ParallelBatchLoader.class);
+
+    private static final long POLL_MILLIS = 100;
+
+    /**
+     * Writes the batches taken by one worker. A writer is only used by the worker that created it.
+     *
+     * @param <T>
+     *            the type of row
+     */
+    public interface BatchWriter<T> extends AutoCloseable {
+
+        /**
+         * @param batch
+         *            the rows to persist
+         * @return the number of rows persisted
+         * @throws Exception
+         *             if the batch cannot be persisted, which stops the load
+         */
+        int write(List<T> batch) throws Exception;
+
+        @Override
+        default void close() throws Exception {}
+    }
+
+    public interface BatchWriterFactory<T> {
+        BatchWriter<T> create() throws Exception;
+    }
+
+    // added once per worker to tell it that no more batches are coming
+    private final List<T> end = new ArrayList<>(0);
+
+    private final BlockingQueue<List<T>> queue;
+    private final List<Future<?>> workers = new ArrayList<>();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final AtomicLong rowsLoaded = new AtomicLong();
+    private final long startMillis = System.currentTimeMillis();
+    private volatile long finishMillis = 0;
+    private volatile boolean stopped = false;
+
+    /**
+     * @param executor
+     *            the executor to run the workers on
+     * @param factory
+     *            creates the writer of each worker, on the thread of the worker
+     * @param threads
+     *            the number of workers
+     * @param queueSize
+     *            the number of batches which may wait for a worker before {@link #add(List)} blocks
+     */
+    public ParallelBatchLoader(ExecutorService executor, BatchWriterFactory<T> factory, int threads, int queueSize) {
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueSize));
+        for (int i = 0; i < Math.max(1, threads); i++) {
+            workers.add(executor.submit(() -> work(factory)));
+        }
+    }
+
+    private void work(BatchWriterFactory<T> factory) {
+        try (BatchWriter<T> writer = factory.create()) {
+            while (!stopped) {
+                List<T> batch = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (batch == end) {
+                    return;
+                } else if (batch != null) {
+                    rowsLoaded.addAndGet(writer.write(batch));
+                }
+            }
+        } catch (Throwable t) {
+            if (failure.compareAndSet(null, t)) {
+                log.error("Stopping load after failing to write a batch: " + t.getMessage());
+            }
+            stopped = true;
+        }
+    }
+
+    /**
+     * Queue a batch, waiting for room in the queue if need be.
+     *
+     * @param batch
+     *            the rows to persist
+     * @throws Exception
+     *             the failure of a worker, if one has failed
+     */
+    public void add(List<T> batch) throws Exception {
+        if (batch.isEmpty()) {
+            return;
+        }
+        checkFailure();
+        while (!queue.offer(batch, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+            checkFailure();
+        }
+    }
+
+    /**
+     * Wait for the workers to persist every queued batch and close their writers.
+     *
+     * @throws Exception
+     *             the failure of a worker, if one has failed
+     */
+    public void finish() throws Exception {
+        for (int i = 0; i < workers.size(); i++) {
+            while (!queue.offer(end, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                checkFailure();
+            }
+        }
+        awaitWorkers();
+        finishMillis = System.currentTimeMillis();
+        checkFailure();
+    }
+
+    /**
+     * Stop the workers, if they have not finished, and wait for them to close their writers.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        if (finishMillis == 0) {
+            stopped = true;
+            queue.clear();
+            awaitWorkers();
+            finishMillis = System.currentTimeMillis();
+        }
+    }
+
+    private void awaitWorkers() throws InterruptedException {
+        for (Future<?> worker : workers) {
+            try {
+                worker.get();
+            } catch (ExecutionException e) {
+                // work() catches everything, so this is unexpected
+                failure.compareAndSet(null, e.getCause());
+            }
+        }
+    }
+
+    private void checkFailure() throws Exception {
+        Throwable t = failure.get();
+        if (t instanceof Exception) {
+            throw (Exception) t;
+        } else if (t instanceof Error) {
+            throw (Error) t;
+        } else if (t != null) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    public long getRowsLoaded() {
+        return rowsLoaded.get();
+    }
+
+    /**
+     * @return the rate at which rows have been persisted since this loader was created, up to when it finished
+     */
+    public double getRowsPerSecond() {
+        long elapsed = (finishMillis == 0 ? System.currentTimeMillis() : finishMillis) - startMillis;
+        return rowsLoaded.get() * 1000.0 / Math.max(1, elapsed);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d rows loaded at %.1f rows/sec", getRowsLoaded(), getRowsPerSecond());
+    }
+}
@@ -0,0 +1,120 @@
+package datawave.webservice.results.cached;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParallelBatchLoaderTest {
+
+    private ExecutorService executor;
+    private final Set<Integer> written = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger opened = new AtomicInteger();
+    private final AtomicInteger closed = new AtomicInteger();
+
+    @Before
+    public void setup() {
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void teardown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testLoad() throws Exception {
+        try (ParallelBatchLoader<Integer> loader = new ParallelBatchLoader<>(executor, () -> writer(null), 4, 2)) {
+            for (int i = 0; i < 100; i++) {
+                loader.add(Collections.nCopies(10, i));
+            }
+            loader.add(Collections.emptyList());
+            loader.finish();
+
+            Assert.assertEquals(1000, loader.getRowsLoaded());
+            Assert.assertTrue(loader.getRowsPerSecond() > 0);
+            Assert.assertTrue(loader.toString(), loader.toString().startsWith("1000 rows loaded at "));
+        }
+        Assert.assertEquals(100, written.size());
+        Assert.assertEquals(4, opened.get());
+        Assert.assertEquals(4, closed.get());
+    }
+
+    @Test
+    public void testFailure() throws Exception {
+        SQLException failure = new SQLException("table is missing");
+        try (ParallelBatchLoader<Integer> loader = new ParallelBatchLoader<>(executor, () -> writer(failure), 3, 1)) {
+            try {
+                for (int i = 0; i < 1000; i++) {
+                    loader.add(Collections.singletonList(i));
+                }
+                loader.finish();
+                Assert.fail("Expected the failure of the writer");
+            } catch (SQLException e) {
+                Assert.assertSame(failure, e);
+            }
+        }
+        Assert.assertFalse(written.contains(13));
+        Assert.assertEquals(3, closed.get());
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        ParallelBatchLoader<Integer> loader = new ParallelBatchLoader<>(executor, () -> {
+            opened.incrementAndGet();
+            return new ParallelBatchLoader.BatchWriter<Integer>() {
+                @Override
+                public int write(List<Integer> batch) throws Exception {
+                    started.countDown();
+                    Thread.sleep(10);
+                    return batch.size();
+                }
+
+                @Override
+                public void close() {
+                    closed.incrementAndGet();
+                }
+            };
+        }, 2, 100);
+        for (int i = 0; i < 100; i++) {
+            loader.add(Collections.singletonList(i));
+        }
+        started.await();
+        loader.close();
+
+        // the queued batches were dropped, and every writer was closed before close returned
+        Assert.assertTrue(loader.getRowsLoaded() < 100);
+        Assert.assertEquals(opened.get(), closed.get());
+    }
+
+    private ParallelBatchLoader.BatchWriter<Integer> writer(Exception failure) {
+        opened.incrementAndGet();
+        return new ParallelBatchLoader.BatchWriter<Integer>() {
+            @Override
+            public int write(List<Integer> batch) throws Exception {
+                if (failure != null && batch.get(0) == 13) {
+                    throw failure;
+                }
+                // every batch is written exactly once
+                Assert.assertTrue(written.add(batch.get(0)));
+                return batch.size();
+            }
+
+            @Override
+            public void close() {
+                closed.incrementAndGet();
+            }
+        };
+    }
+}
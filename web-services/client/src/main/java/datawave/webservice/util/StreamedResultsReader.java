@@ -0,0 +1,250 @@
+package datawave.webservice.util;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import datawave.webservice.result.BaseQueryResponse;
+import io.protostuff.ProtobufIOUtil;
+import io.protostuff.Schema;
+
+/**
+ * Reads the results of a query execute call made with one of the streaming media types, decoding each result as it arrives rather than waiting for the
+ * response to be read in full. With {@link #NDJSON_MEDIA_TYPE} the results are written one JSON object per line, and with
+ * {@link #PROTOBUF_DELIMITED_MEDIA_TYPE} as a sequence of length delimited protobuf messages.
+ * <p>
+ * The results of each page are followed by the response of the page without its results, which holds the metadata of the page such as whether it is partial
+ * and any exceptions. With {@link #NDJSON_MEDIA_TYPE} it is written as a line holding an object with the single field {@value #NDJSON_PAGE_FIELD}, and with
+ * {@link #PROTOBUF_DELIMITED_MEDIA_TYPE} as a zero length message followed by the length delimited page. The pages are not returned as results, but are
+ * collected by {@link #getPages()} when a decoder for them is given.
+ *
+ * @param <T>
+ *            the type of result
+ */
+public class StreamedResultsReader<T> implements Iterator<T>, Closeable {
+
+    public static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+    public static final String PROTOBUF_DELIMITED_MEDIA_TYPE = "application/x-protobuf-delimited";
+    public static final String NDJSON_PAGE_FIELD = "Page";
+
+    private static final String NDJSON_PAGE_PREFIX = "{\"" + NDJSON_PAGE_FIELD + "\":";
+
+    /**
+     * Decodes one line of a newline delimited JSON stream, for example with the {@code readValue} method of a Jackson {@code ObjectReader}.
+     *
+     * @param <T>
+     *            the type of result
+     */
+    public interface Decoder<T> {
+        T decode(String line) throws IOException;
+    }
+
+    private interface Source<T> {
+        // returns null at the end of the stream
+        T read() throws IOException;
+    }
+
+    private final Closeable stream;
+    private final Source<T> source;
+    private final List<BaseQueryResponse> pages;
+    private T next = null;
+    private boolean done = false;
+
+    private StreamedResultsReader(Closeable stream, Source<T> source, List<BaseQueryResponse> pages) {
+        this.stream = stream;
+        this.source = source;
+        this.pages = pages;
+    }
+
+    /**
+     * @param in
+     *            the response body
+     * @param decoder
+     *            decodes each line
+     * @param <T>
+     *            the type of result
+     * @return a reader of newline delimited JSON results, which skips the pages
+     */
+    public static <T> StreamedResultsReader<T> ndjson(InputStream in, Decoder<T> decoder) {
+        return ndjson(in, decoder, null);
+    }
+
+    /**
+     * @param in
+     *            the response body
+     * @param decoder
+     *            decodes each line
+     * @param pageDecoder
+     *            decodes the response of each page, or null to skip them
+     * @param <T>
+     *            the type of result
+     * @return a reader of newline delimited JSON results
+     */
+    public static <T> StreamedResultsReader<T> ndjson(InputStream in, Decoder<T> decoder, Decoder<? extends BaseQueryResponse> pageDecoder) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        List<BaseQueryResponse> pages = new ArrayList<>();
+        return new StreamedResultsReader<>(reader, () -> {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(NDJSON_PAGE_PREFIX)) {
+                    if (pageDecoder != null) {
+                        pages.add(pageDecoder.decode(line.substring(NDJSON_PAGE_PREFIX.length(), line.lastIndexOf('}'))));
+                    }
+                } else if (!line.isEmpty()) {
+                    return decoder.decode(line);
+                }
+            }
+            return null;
+        }, pages);
+    }
+
+    /**
+     * @param in
+     *            the response body
+     * @param schema
+     *            the schema of the results
+     * @param <T>
+     *            the type of result
+     * @return a reader of length delimited protobuf results, which skips the pages
+     */
+    public static <T> StreamedResultsReader<T> protobuf(InputStream in, Schema<T> schema) {
+        return protobuf(in, schema, null);
+    }
+
+    /**
+     * @param in
+     *            the response body
+     * @param schema
+     *            the schema of the results
+     * @param pageSchema
+     *            the schema of the response of each page, or null to skip them
+     * @param <T>
+     *            the type of result
+     * @return a reader of length delimited protobuf results
+     */
+    public static <T> StreamedResultsReader<T> protobuf(InputStream in, Schema<T> schema, Schema<? extends BaseQueryResponse> pageSchema) {
+        PushbackInputStream pushback = new PushbackInputStream(in);
+        List<BaseQueryResponse> pages = new ArrayList<>();
+        return new StreamedResultsReader<>(pushback, () -> {
+            while (true) {
+                // the stream may only end between messages, so check for the end before reading the length of the next one
+                int b = pushback.read();
+                if (b == -1) {
+                    return null;
+                } else if (b == 0) {
+                    // a zero length message marks the page which follows
+                    if (pageSchema != null) {
+                        pages.add(readPage(pushback, pageSchema));
+                    } else {
+                        skip(pushback, readVarint(pushback));
+                    }
+                    continue;
+                }
+                pushback.unread(b);
+                T message = schema.newMessage();
+                ProtobufIOUtil.mergeDelimitedFrom(pushback, message, schema);
+                return message;
+            }
+        }, pages);
+    }
+
+    private static <P extends BaseQueryResponse> P readPage(InputStream in, Schema<P> pageSchema) throws IOException {
+        P page = pageSchema.newMessage();
+        ProtobufIOUtil.mergeDelimitedFrom(in, page, pageSchema);
+        return page;
+    }
+
+    /**
+     * Write the length of a message, as the varint which precedes each length delimited message
+     *
+     * @param out
+     *            the stream to write to
+     * @param length
+     *            the length
+     * @throws IOException
+     *             if the length cannot be written
+     */
+    public static void writeLength(OutputStream out, int length) throws IOException {
+        while ((length & ~0x7f) != 0) {
+            out.write((length & 0x7f) | 0x80);
+            length >>>= 7;
+        }
+        out.write(length);
+    }
+
+    private static int readVarint(InputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.read();
+            if (b == -1) {
+                throw new EOFException("Truncated message length");
+            }
+            value |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed message length");
+    }
+
+    private static void skip(InputStream in, int length) throws IOException {
+        for (int remaining = length; remaining > 0; remaining--) {
+            if (in.read() == -1) {
+                throw new EOFException("Truncated page");
+            }
+        }
+    }
+
+    /**
+     * @return the responses of the pages read so far, without their results, if a decoder for them was given
+     */
+    public List<BaseQueryResponse> getPages() {
+        return Collections.unmodifiableList(pages);
+    }
+
+    /**
+     * @throws UncheckedIOException
+     *             if the next result cannot be read
+     */
+    @Override
+    public boolean hasNext() {
+        if (next == null && !done) {
+            try {
+                next = source.read();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            done = (next == null);
+        }
+        return next != null;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        T result = next;
+        next = null;
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        done = true;
+        next = null;
+        stream.close();
+    }
+}
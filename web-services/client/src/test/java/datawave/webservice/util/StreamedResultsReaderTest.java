@@ -0,0 +1,160 @@
+package datawave.webservice.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import datawave.webservice.query.exception.QueryException;
+import datawave.webservice.query.result.event.DefaultEvent;
+import datawave.webservice.query.result.event.DefaultField;
+import datawave.webservice.result.BaseQueryResponse;
+import datawave.webservice.result.DefaultEventQueryResponse;
+import io.protostuff.LinkedBuffer;
+import io.protostuff.ProtobufIOUtil;
+
+public class StreamedResultsReaderTest {
+
+    @Test
+    public void testProtobuf() throws IOException {
+        List<DefaultEvent> events = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            DefaultEvent event = new DefaultEvent();
+            event.setMarkings(Collections.singletonMap("columnVisibility", "A&B"));
+            event.setFields(Arrays.asList(new DefaultField("NAME", "A", Collections.singletonMap("columnVisibility", "A"), (long) i, "name" + i),
+                            new DefaultField("COUNT", "B", Collections.singletonMap("columnVisibility", "B"), (long) i, Integer.toString(i))));
+            events.add(event);
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        LinkedBuffer buffer = LinkedBuffer.allocate(4096);
+        for (DefaultEvent event : events) {
+            ProtobufIOUtil.writeDelimitedTo(out, event, event.cachedSchema(), buffer);
+            buffer.clear();
+        }
+
+        List<DefaultEvent> read = new ArrayList<>();
+        try (StreamedResultsReader<DefaultEvent> reader = StreamedResultsReader.protobuf(new ByteArrayInputStream(out.toByteArray()),
+                        new DefaultEvent().cachedSchema())) {
+            reader.forEachRemaining(read::add);
+            assertFalse(reader.hasNext());
+        }
+        assertEquals(events, read);
+
+        // a truncated stream fails rather than ending early
+        byte[] truncated = Arrays.copyOf(out.toByteArray(), out.size() - 3);
+        try (StreamedResultsReader<DefaultEvent> reader = StreamedResultsReader.protobuf(new ByteArrayInputStream(truncated),
+                        new DefaultEvent().cachedSchema())) {
+            while (reader.hasNext()) {
+                reader.next();
+            }
+            fail("Expected the truncated message to fail");
+        } catch (UncheckedIOException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testNdjson() throws IOException {
+        String body = "{\"a\":1}\n{\"b\":2}\n\n{\"c\":3}\n";
+        List<String> read = new ArrayList<>();
+        try (StreamedResultsReader<String> reader = StreamedResultsReader.ndjson(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)),
+                        String::trim)) {
+            reader.forEachRemaining(read::add);
+        }
+        assertEquals(Arrays.asList("{\"a\":1}", "{\"b\":2}", "{\"c\":3}"), read);
+    }
+
+    @Test
+    public void testProtobufPages() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        LinkedBuffer buffer = LinkedBuffer.allocate(4096);
+        for (int page = 0; page < 2; page++) {
+            for (int i = 0; i < 3; i++) {
+                DefaultEvent event = new DefaultEvent();
+                event.setFields(Collections.singletonList(new DefaultField("NAME", "A", Collections.emptyMap(), (long) i, "name" + page + i)));
+                ProtobufIOUtil.writeDelimitedTo(out, event, event.cachedSchema(), buffer);
+                buffer.clear();
+            }
+            // the page follows a zero length message
+            DefaultEventQueryResponse response = new DefaultEventQueryResponse();
+            response.setQueryId("query");
+            response.setReturnedEvents(3L);
+            if (page == 1) {
+                response.addMessage("partial");
+                response.addException(new QueryException("failed"));
+            }
+            out.write(0);
+            ProtobufIOUtil.writeDelimitedTo(out, response, response.cachedSchema(), buffer);
+            buffer.clear();
+        }
+
+        List<DefaultEvent> read = new ArrayList<>();
+        try (StreamedResultsReader<DefaultEvent> reader = StreamedResultsReader.protobuf(new ByteArrayInputStream(out.toByteArray()),
+                        new DefaultEvent().cachedSchema(), new DefaultEventQueryResponse().cachedSchema())) {
+            reader.forEachRemaining(read::add);
+
+            List<BaseQueryResponse> pages = reader.getPages();
+            assertEquals(2, pages.size());
+            assertEquals("query", pages.get(0).getQueryId());
+            assertEquals(Long.valueOf(3), ((DefaultEventQueryResponse) pages.get(0)).getReturnedEvents());
+            assertNull(pages.get(0).getExceptions());
+            assertEquals(Collections.singletonList("partial"), pages.get(1).getMessages());
+            assertEquals(1, pages.get(1).getExceptions().size());
+        }
+        assertEquals(6, read.size());
+        assertEquals("name12", read.get(5).getFields().get(0).getValueString());
+
+        // without a schema for them the pages are skipped
+        read.clear();
+        try (StreamedResultsReader<DefaultEvent> reader = StreamedResultsReader.protobuf(new ByteArrayInputStream(out.toByteArray()),
+                        new DefaultEvent().cachedSchema())) {
+            reader.forEachRemaining(read::add);
+            assertTrue(reader.getPages().isEmpty());
+        }
+        assertEquals(6, read.size());
+    }
+
+    @Test
+    public void testNdjsonPages() throws IOException {
+        String body = "{\"a\":1}\n{\"Page\":{\"QueryId\":\"one\"}}\n{\"b\":2}\n{\"Page\":{\"QueryId\":\"two\"}}\n";
+        StreamedResultsReader.Decoder<DefaultEventQueryResponse> pageDecoder = line -> {
+            DefaultEventQueryResponse response = new DefaultEventQueryResponse();
+            response.setQueryId(line);
+            return response;
+        };
+
+        List<String> read = new ArrayList<>();
+        try (StreamedResultsReader<String> reader = StreamedResultsReader.ndjson(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)),
+                        String::trim, pageDecoder)) {
+            reader.forEachRemaining(read::add);
+
+            List<BaseQueryResponse> pages = reader.getPages();
+            assertEquals(2, pages.size());
+            assertEquals("{\"QueryId\":\"one\"}", pages.get(0).getQueryId());
+            assertEquals("{\"QueryId\":\"two\"}", pages.get(1).getQueryId());
+        }
+        assertEquals(Arrays.asList("{\"a\":1}", "{\"b\":2}"), read);
+
+        // without a decoder for them the pages are skipped
+        read.clear();
+        try (StreamedResultsReader<String> reader = StreamedResultsReader.ndjson(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)),
+                        String::trim)) {
+            reader.forEachRemaining(read::add);
+        }
+        assertEquals(Arrays.asList("{\"a\":1}", "{\"b\":2}"), read);
+    }
+}
@@ -9,6 +9,12 @@ public class CachedResultsConfiguration {
     private int maxPageSize = 0;
     private long pageByteTrigger = 0;
     private Map<String,String> parameters = new HashMap<>();
+    // when set, results are loaded into columnar segments under this local directory instead of a table of the cached results database
+    private String columnarDirectory = null;
+    private int rowsPerSegment = 65536;
+    // the number of threads persisting batches while the query is paged, and the number of batches that may wait for them
+    private int loadThreads = 4;
+    private int loadQueueSize = 8;
 
     public int getDefaultPageSize() {
         return defaultPageSize;
@@ -45,4 +51,36 @@ public class CachedResultsConfiguration {
     public int getRowsPerBatch() {
         return Integer.parseInt(getParameters().get("ROWS_PER_BATCH"));
     }
+
+    public String getColumnarDirectory() {
+        return columnarDirectory;
+    }
+
+    public void setColumnarDirectory(String columnarDirectory) {
+        this.columnarDirectory = columnarDirectory;
+    }
+
+    public int getRowsPerSegment() {
+        return rowsPerSegment;
+    }
+
+    public void setRowsPerSegment(int rowsPerSegment) {
+        this.rowsPerSegment = rowsPerSegment;
+    }
+
+    public int getLoadThreads() {
+        return loadThreads;
+    }
+
+    public void setLoadThreads(int loadThreads) {
+        this.loadThreads = loadThreads;
+    }
+
+    public int getLoadQueueSize() {
+        return loadQueueSize;
+    }
+
+    public void setLoadQueueSize(int loadQueueSize) {
+        this.loadQueueSize = loadQueueSize;
+    }
 }
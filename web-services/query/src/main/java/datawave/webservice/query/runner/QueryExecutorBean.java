@@ -4,6 +4,7 @@ import static datawave.webservice.query.annotation.EnrichQueryMetrics.MethodType
 import static datawave.webservice.query.cache.QueryTraceCache.CacheListener;
 import static datawave.webservice.query.cache.QueryTraceCache.PatternWrapper;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.lang.reflect.Method;
@@ -19,6 +20,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
@@ -152,6 +154,8 @@ import datawave.webservice.query.exception.QueryException;
 import datawave.webservice.query.exception.UnauthorizedQueryException;
 import datawave.webservice.query.factory.Persister;
 import datawave.webservice.query.metric.QueryMetricsBean;
+import datawave.webservice.query.result.event.EventBase;
+import datawave.webservice.query.result.event.FieldBase;
 import datawave.webservice.query.result.event.ResponseObjectFactory;
 import datawave.webservice.query.result.logic.QueryLogicDescription;
 import datawave.webservice.query.util.GetUUIDCriteria;
@@ -163,10 +167,12 @@ import datawave.webservice.query.util.QueryUncaughtExceptionHandler;
 import datawave.webservice.query.util.UIDQueryCriteria;
 import datawave.webservice.result.BaseQueryResponse;
 import datawave.webservice.result.BaseResponse;
+import datawave.webservice.result.EventQueryResponseBase;
 import datawave.webservice.result.GenericResponse;
 import datawave.webservice.result.QueryImplListResponse;
 import datawave.webservice.result.QueryLogicResponse;
 import datawave.webservice.result.VoidResponse;
+import datawave.webservice.util.StreamedResultsReader;
 import io.protostuff.LinkedBuffer;
 import io.protostuff.Message;
 import io.protostuff.ProtobufIOUtil;
@@ -1391,10 +1397,19 @@ public class QueryExecutorBean implements QueryExecutor {
     }
 
     private BaseQueryResponse _next(RunningQuery query, String queryId, Collection<String> proxyServers) throws Exception {
+        return _next(query, queryId, proxyServers, null);
+    }
+
+    /**
+     * @param listener
+     *            receives each result of the page as it is read, in which case the response holds none of them, or null to return them in the response
+     */
+    private BaseQueryResponse _next(RunningQuery query, String queryId, Collection<String> proxyServers, RunningQuery.ResultListener listener)
+                    throws Exception {
 
         ResultsPage resultsPage;
         try {
-            resultsPage = query.next();
+            resultsPage = (listener == null) ? query.next() : query.next(listener);
         } catch (RejectedExecutionException e) {
             // - race condition, query expired while user called next
             throw new PreConditionFailedQueryException(DatawaveErrorCode.QUERY_TIMEOUT_OR_SERVER_ERROR, e, MessageFormat.format("id = {0}", queryId));
@@ -3218,6 +3233,13 @@ public class QueryExecutorBean implements QueryExecutor {
     }
 
     /**
+     * Create a query and write every page of its results to the response. The results of event queries may also be requested as
+     * {@value StreamedResultsReader#NDJSON_MEDIA_TYPE} or {@value StreamedResultsReader#PROTOBUF_DELIMITED_MEDIA_TYPE}, which write each event on its own
+     * rather than each page, and which a client can read incrementally with a {@link StreamedResultsReader}. Where the transformer of the query logic
+     * {@link QueryLogicTransformer#isStreamable() allows it} each event is written as soon as it is read, rather than once its page is full. The events of each
+     * page are followed by the page without its events, which holds its metadata such as the partial results flag, its messages and any exceptions, including
+     * one raised after events have already been written.
+     *
      * @param logicName
      *            the logic name
      * @param queryParameters
@@ -3260,6 +3282,8 @@ public class QueryExecutorBean implements QueryExecutor {
 
         final MediaType PB_MEDIA_TYPE = new MediaType("application", "x-protobuf");
         final MediaType YAML_MEDIA_TYPE = new MediaType("application", "x-yaml");
+        final MediaType NDJSON_MEDIA_TYPE = MediaType.valueOf(StreamedResultsReader.NDJSON_MEDIA_TYPE);
+        final MediaType PB_DELIMITED_MEDIA_TYPE = MediaType.valueOf(StreamedResultsReader.PROTOBUF_DELIMITED_MEDIA_TYPE);
         final VoidResponse response = new VoidResponse();
 
         // HttpHeaders.getAcceptableMediaTypes returns a priority sorted list of acceptable response types.
@@ -3267,7 +3291,7 @@ public class QueryExecutorBean implements QueryExecutor {
         MediaType responseType = null;
         for (MediaType type : httpHeaders.getAcceptableMediaTypes()) {
             if (type.equals(MediaType.APPLICATION_XML_TYPE) || type.equals(MediaType.APPLICATION_JSON_TYPE) || type.equals(PB_MEDIA_TYPE)
-                            || type.equals(YAML_MEDIA_TYPE)) {
+                            || type.equals(YAML_MEDIA_TYPE) || type.equals(NDJSON_MEDIA_TYPE) || type.equals(PB_DELIMITED_MEDIA_TYPE)) {
                 responseType = type;
                 break;
             }
@@ -3326,6 +3350,17 @@ public class QueryExecutorBean implements QueryExecutor {
                 throw new DatawaveWebApplicationException(qe, response, MediaType.APPLICATION_XML_TYPE);
             }
             s = SerializationType.YAML;
+        } else if (responseType.equals(NDJSON_MEDIA_TYPE) || responseType.equals(PB_DELIMITED_MEDIA_TYPE)) {
+            // events are streamed one at a time, so the page must be a list of events
+            boolean pb = responseType.equals(PB_DELIMITED_MEDIA_TYPE);
+            if (!EventQueryResponseBase.class.isAssignableFrom(responseClass)
+                            || (pb && !(Message.class.isAssignableFrom(responseClass) && responseObjectFactory.getEvent() instanceof Message))) {
+                QueryException qe = new QueryException(DatawaveErrorCode.BAD_RESPONSE_CLASS, MessageFormat.format("Response  class: {0}", responseClass));
+                response.setHasResults(false);
+                response.addException(qe);
+                throw new DatawaveWebApplicationException(qe, response, MediaType.APPLICATION_XML_TYPE);
+            }
+            s = pb ? SerializationType.PB_EVENTS : SerializationType.JSON_EVENTS;
         } else {
             QueryException qe = new QueryException(DatawaveErrorCode.INVALID_FORMAT, MessageFormat.format("format: {0}", responseType.toString()));
             response.setHasResults(false);
@@ -3501,7 +3536,9 @@ public class QueryExecutorBean implements QueryExecutor {
     }
 
     private enum SerializationType {
-        JSON, XML, PB, YAML;
+        JSON, XML, PB, YAML,
+        // each event of each page, as newline delimited JSON or length delimited protobuf messages
+        JSON_EVENTS, PB_EVENTS;
     }
 
     public class ExecuteStreamingOutputResponse implements StreamingOutput {
@@ -3554,16 +3591,17 @@ public class QueryExecutorBean implements QueryExecutor {
                     boolean sentResults = false;
                     boolean done = false;
                     List<PageMetric> pageMetrics = rq.getMetric().getPageTimes();
+                    boolean eventStream = serializationType == SerializationType.JSON_EVENTS || serializationType == SerializationType.PB_EVENTS;
+                    boolean streamEvents = eventStream && rq.getLogic().getEnrichedTransformer(rq.getSettings()).isStreamable();
 
                     do {
-                        try {
+                        // Wrap the output stream so that we can get a byte count
+                        CountingOutputStream countingStream = new CountingOutputStream(out);
+                        try (EventStreamWriter eventWriter = eventStream ? new EventStreamWriter(countingStream, jsonSerializer, buffer) : null) {
                             long callStart = System.nanoTime();
-                            BaseQueryResponse page = _next(rq, queryId, proxies);
+                            BaseQueryResponse page = streamEvents ? _next(rq, queryId, proxies, eventWriter) : _next(rq, queryId, proxies);
                             PageMetric pm = pageMetrics.get(pageMetrics.size() - 1);
 
-                            // Wrap the output stream so that we can get a byte count
-                            CountingOutputStream countingStream = new CountingOutputStream(out);
-
                             long serializationStart = System.nanoTime();
                             switch (serializationType) {
                                 case XML:
@@ -3595,9 +3633,15 @@ public class QueryExecutorBean implements QueryExecutor {
                                     YamlIOUtil.writeTo(countingStream, page, yamlSchema, buffer);
                                     buffer.clear();
                                     break;
+                                case JSON_EVENTS:
+                                case PB_EVENTS:
+                                    // streamed events have already been written, otherwise they are written from the page
+                                    eventWriter.finishPage((EventQueryResponseBase) page, !streamEvents);
+                                    break;
                             }
                             countingStream.flush();
-                            long serializationTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - serializationStart);
+                            long serializationNanos = System.nanoTime() - serializationStart + (eventWriter != null ? eventWriter.getStreamedNanos() : 0);
+                            long serializationTime = TimeUnit.NANOSECONDS.toMillis(serializationNanos);
                             pm.setSerializationTime(serializationTime);
                             long pageCallTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - callStart);
                             pm.setCallTime(pageCallTime);
@@ -3609,6 +3653,10 @@ public class QueryExecutorBean implements QueryExecutor {
                                 done = true;
                                 break; // probably redundant
                             } else {
+                                if (eventStream && (sentResults || countingStream.getCount() > 0)) {
+                                    // the response has been committed, so the failure can only be reported in the stream
+                                    writeFailedPage(countingStream, jsonSerializer, buffer, e);
+                                }
                                 throw e;
                             }
                         }
@@ -3643,6 +3691,127 @@ public class QueryExecutorBean implements QueryExecutor {
             }
         }
 
+        private void writeFailedPage(OutputStream out, ObjectMapper jsonSerializer, LinkedBuffer buffer, Exception e) {
+            try (EventStreamWriter eventWriter = new EventStreamWriter(out, jsonSerializer, buffer)) {
+                BaseQueryResponse page = rq.getLogic().getEnrichedTransformer(rq.getSettings()).createResponse(new ResultsPage());
+                page.setLogicName(rq.getLogic().getLogicName());
+                page.setQueryId(queryId);
+                QueryException qe = (e instanceof QueryException) ? (QueryException) e
+                                : new QueryException(DatawaveErrorCode.QUERY_NEXT_ERROR, e, MessageFormat.format("query_id: {0}", queryId));
+                page.addException(qe.getBottomQueryException());
+                eventWriter.finishPage((EventQueryResponseBase) page, false);
+            } catch (Exception writeFailure) {
+                log.error("Unable to write the failure of query " + queryId + " to the stream", writeFailure);
+            }
+        }
+
+        /**
+         * Writes the events of a page one at a time, as newline delimited JSON or as length delimited protobuf messages, followed by the page without its
+         * events. See {@link StreamedResultsReader} for the format of the page.
+         */
+        private class EventStreamWriter implements RunningQuery.ResultListener, Closeable {
+            private final OutputStream out;
+            private final ObjectMapper jsonSerializer;
+            private final JsonGenerator generator;
+            private final LinkedBuffer buffer;
+            private final Set<String> fields = new TreeSet<>();
+            private long count = 0;
+            private long streamedNanos = 0;
+
+            EventStreamWriter(OutputStream out, ObjectMapper jsonSerializer, LinkedBuffer buffer) throws IOException {
+                this.out = out;
+                this.jsonSerializer = jsonSerializer;
+                this.buffer = buffer;
+                if (serializationType == SerializationType.JSON_EVENTS) {
+                    // events are written to the stream as they are encoded, which is flushed at the end of the page
+                    this.generator = jsonSerializer.getFactory().createGenerator(out, JsonEncoding.UTF8);
+                    this.generator.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+                    this.generator.setRootValueSeparator(null);
+                } else {
+                    this.generator = null;
+                }
+            }
+
+            @Override
+            public void result(Object result) throws IOException {
+                long start = System.nanoTime();
+                write((EventBase<?,?>) result);
+                streamedNanos += System.nanoTime() - start;
+            }
+
+            private void write(EventBase<?,?> event) throws IOException {
+                if (event.getFields() != null) {
+                    for (FieldBase<?> field : event.getFields()) {
+                        fields.add(field.getName());
+                    }
+                }
+                if (generator != null) {
+                    jsonSerializer.writeValue(generator, event);
+                    generator.writeRaw('\n');
+                } else {
+                    // unlike a whole page, only one event at a time needs to be buffered to compute its length
+                    @SuppressWarnings("unchecked")
+                    Message<Object> message = (Message<Object>) event;
+                    byte[] bytes = ProtobufIOUtil.toByteArray(event, message.cachedSchema(), buffer);
+                    buffer.clear();
+                    if (bytes.length == 0) {
+                        // an event holding nothing would be read as the marker preceding a page
+                        return;
+                    }
+                    StreamedResultsReader.writeLength(out, bytes.length);
+                    out.write(bytes);
+                }
+                count++;
+            }
+
+            /**
+             * Write the page without its events, after writing its events if they were not streamed
+             *
+             * @param page
+             *            the page
+             * @param writeEvents
+             *            whether to write the events of the page first
+             * @throws IOException
+             *             if the page cannot be written
+             */
+            void finishPage(EventQueryResponseBase page, boolean writeEvents) throws IOException {
+                if (writeEvents && page.getEvents() != null) {
+                    for (EventBase event : page.getEvents()) {
+                        write(event);
+                    }
+                }
+                page.setEvents(new ArrayList<>());
+                page.setFields(new ArrayList<>(fields));
+                page.setReturnedEvents(count);
+                if (generator != null) {
+                    generator.writeStartObject();
+                    generator.writeObjectField(StreamedResultsReader.NDJSON_PAGE_FIELD, page);
+                    generator.writeEndObject();
+                    generator.writeRaw('\n');
+                    generator.flush();
+                } else {
+                    @SuppressWarnings("unchecked")
+                    Message<Object> message = (Message<Object>) page;
+                    out.write(0);
+                    ProtobufIOUtil.writeDelimitedTo(out, page, message.cachedSchema(), buffer);
+                    buffer.clear();
+                }
+            }
+
+            /**
+             * @return the time spent writing events as they were read
+             */
+            long getStreamedNanos() {
+                return streamedNanos;
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (generator != null) {
+                    generator.close();
+                }
+            }
+        }
     }
 
     private void testForUncaughtException(Query settings, ResultsPage resultList) throws QueryException {
@@ -0,0 +1,215 @@
+package datawave.webservice.query.runner;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * A bounded buffer of results read ahead from the iterator of a running query. A producer fills the buffer on a thread of a pool shared by every query while
+ * there is room, and gives the thread back when the buffer is full or the iterator is exhausted, so that a query waiting for its next call holds no thread.
+ * Taking a result from a full buffer schedules the producer again.
+ * <p>
+ * The iterator is only ever used by one producer at a time, and must not be used by anything else until the buffer is closed.
+ */
+class ResultsPrefetchBuffer {
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
+    // threads are created as producers need them, and expire once idle
+    private static final ExecutorService producers = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "RunningQuery-prefetch-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // stands in for a null result, which the deque cannot hold
+    private static final Object NULL_RESULT = new Object();
+
+    private final Iterator<?> iter;
+    private final int capacity;
+    private final boolean skipNullResults;
+    private final Runnable afterNext;
+    private final Consumer<Exception> failureHandler;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final ArrayDeque<Object> results;
+    private boolean producing = false;
+    private boolean exhausted = false;
+    private boolean closed = false;
+    private Future<?> producer = null;
+
+    /**
+     * @param iter
+     *            the iterator to read ahead
+     * @param capacity
+     *            the most results to read ahead
+     * @param skipNullResults
+     *            whether to drop null results rather than handing them out
+     * @param afterNext
+     *            run by the producer after every call to next on the iterator
+     * @param failureHandler
+     *            given the exception which stops the producer, if the iterator fails
+     */
+    ResultsPrefetchBuffer(Iterator<?> iter, int capacity, boolean skipNullResults, Runnable afterNext, Consumer<Exception> failureHandler) {
+        this.iter = iter;
+        this.capacity = Math.max(1, capacity);
+        this.results = new ArrayDeque<>(this.capacity);
+        this.skipNullResults = skipNullResults;
+        this.afterNext = afterNext;
+        this.failureHandler = failureHandler;
+        lock.lock();
+        try {
+            schedule();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Start a producer if there is room in the buffer and none is running. Must be called while holding the lock.
+     */
+    private void schedule() {
+        if (!producing && !exhausted && !closed && results.size() < capacity) {
+            producing = true;
+            producer = producers.submit(this::produce);
+        }
+    }
+
+    private void produce() {
+        try {
+            while (true) {
+                lock.lock();
+                try {
+                    if (closed || results.size() >= capacity) {
+                        producing = false;
+                        return;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+
+                boolean hasNext = iter.hasNext();
+                Object o = hasNext ? iter.next() : null;
+                if (hasNext) {
+                    afterNext.run();
+                }
+
+                lock.lock();
+                try {
+                    if (!hasNext) {
+                        exhausted = true;
+                        producing = false;
+                        available.signalAll();
+                        return;
+                    } else if (o != null || !skipNullResults) {
+                        results.add(o == null ? NULL_RESULT : o);
+                        available.signalAll();
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        } catch (Throwable t) {
+            boolean report;
+            lock.lock();
+            try {
+                exhausted = true;
+                producing = false;
+                report = !closed;
+                available.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            // a closed buffer may have interrupted the iterator
+            if (report) {
+                failureHandler.accept(t instanceof Exception ? (Exception) t : new RuntimeException(t));
+            }
+        }
+    }
+
+    /**
+     * Wait for a result to be available.
+     *
+     * @param timeoutMillis
+     *            the longest to wait
+     * @return true if a result is available, false if the iterator is exhausted, the buffer is closed, or the wait was interrupted
+     * @throws TimeoutException
+     *             if no result was available in time
+     */
+    boolean hasNext(long timeoutMillis) throws TimeoutException {
+        lock.lock();
+        try {
+            long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            while (results.isEmpty() && !exhausted && !closed) {
+                if (remaining <= 0) {
+                    throw new TimeoutException("Timed out waiting for the next result");
+                }
+                try {
+                    remaining = available.awaitNanos(remaining);
+                } catch (InterruptedException e) {
+                    // if we got interrupted, then just return false
+                    return false;
+                }
+            }
+            return !results.isEmpty();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Take the next result, which presumes that {@link #hasNext(long)} has returned true.
+     *
+     * @return the next result, which may be null
+     */
+    Object next() {
+        lock.lock();
+        try {
+            Object o = results.poll();
+            schedule();
+            return o == NULL_RESULT ? null : o;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of results read ahead
+     */
+    int size() {
+        lock.lock();
+        try {
+            return results.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drop the buffered results and stop the producer, interrupting it if it is waiting on the iterator.
+     */
+    void close() {
+        Future<?> current;
+        lock.lock();
+        try {
+            closed = true;
+            results.clear();
+            available.signalAll();
+            current = producing ? producer : null;
+        } finally {
+            lock.unlock();
+        }
+        if (current != null) {
+            current.cancel(true);
+        }
+    }
+}
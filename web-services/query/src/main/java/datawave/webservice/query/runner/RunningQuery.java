@@ -6,14 +6,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 import java.util.concurrent.TimeoutException;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.accumulo.core.client.AccumuloClient;
 import org.apache.accumulo.core.security.Authorizations;
@@ -71,12 +64,9 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
     private volatile boolean canceled = false;
     private transient QueryMetricsBean queryMetrics = null;
     private transient RunningQueryTiming timing = null;
-    private ExecutorService executor = null;
-    private volatile Future<Object> future = null;
-    private final BlockingQueue<Object> resultsThreadQueue = new ArrayBlockingQueue<>(1);
-    private final AtomicInteger hasNext = new AtomicInteger(0);
-    private final AtomicInteger gotNext = new AtomicInteger(0);
-    private final AtomicBoolean running = new AtomicBoolean(false);
+    private transient volatile ResultsPrefetchBuffer prefetch = null;
+    private volatile Exception prefetchFailure = null;
+    private int prefetchDepth = 1;
     private QueryPredictor predictor = null;
     private long maxResults = 0;
     private int currentTimeoutcount = 0;
@@ -139,7 +129,6 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
                                         : userOperations.getRemoteUser((DatawavePrincipal) principal);
         this.calculatedAuths = WSAuthorizationsUtil.getDowngradedAuthorizations(methodAuths, overallPrincipal, queryPrincipal);
         this.timing = timing;
-        this.executor = Executors.newSingleThreadExecutor();
         this.predictor = predictor;
         // set the metric information
         this.getMetric().populate(this.settings);
@@ -204,6 +193,7 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
             this.logic.setupQuery(configuration);
             this.iter = this.logic.getTransformIterator(this.settings);
             this.allowShortCircuitTimeouts = logic.isLongRunningQuery();
+            this.prefetchDepth = (this.logic instanceof BaseQueryLogic) ? ((BaseQueryLogic<?>) this.logic).getPrefetchDepth() : 1;
             // the configuration query string should now hold the planned query
             this.getMetric().setPlan(configuration.getQueryString());
             this.getMetric().setSetupTime((System.currentTimeMillis() - start));
@@ -235,69 +225,29 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
     }
 
     /**
-     * This is the results thread which will pull results from the iterator and add them to a blocking queue. The blocking queue will be of size 1 which means
-     * that the main RunningQuery.next() loop will have to pull the results before the next one can be retrieved. The hasNext and gotNext counters keep track of
-     * the calls to hasNext and next on the underlying iterator. They will be decremented once a result is acknowledged in the RunningQuery.next() loop. The
-     * running boolean will allow the graceful termination of this thread.
+     * Results are read ahead on a shared thread for long running queries, so that a page can be returned when the short circuit timeout is reached while the
+     * iterator is still waiting on a result, and for query logics with a prefetch depth above 1, so that results are read while pages are returned.
      *
-     * @return running (with a value of false)
+     * @return whether results are read through a {@link ResultsPrefetchBuffer}
      */
-    private Object getResultsThread() {
-        try {
-            while (running.get() && !this.finished && !this.canceled && this.iter.hasNext()) {
-                synchronized (hasNext) {
-                    hasNext.incrementAndGet();
-                    hasNext.notifyAll();
-                }
-                // wait until the queue is emptied
-                while (running.get() && !this.finished && !this.canceled && !resultsThreadQueue.isEmpty()) {
-                    try {
-                        Thread.sleep(1);
-                    } catch (InterruptedException e) {
-                        throw new RuntimeException(e);
-                    }
-                }
-                // if the queue is available and we are still running, then get the next result
-                if (running.get() && !this.finished && !this.canceled && resultsThreadQueue.isEmpty()) {
-                    Object o = this.iter.next();
-                    if (o != null) {
-                        resultsThreadQueue.offer(o);
-                        synchronized (gotNext) {
-                            gotNext.incrementAndGet();
-                            gotNext.notifyAll();
-                        }
-                    }
+    private boolean isPrefetching() {
+        return this.allowShortCircuitTimeouts || this.prefetchDepth > 1;
+    }
 
-                    // regardless whether the transform iterator returned a result, it may have updated the metrics (next/seek calls etc.)
-                    if (iter.getTransformer() instanceof WritesQueryMetrics) {
-                        ((WritesQueryMetrics) iter.getTransformer()).writeQueryMetrics(this.getMetric());
-                    }
-                }
-            }
-        } catch (Exception e) {
-            if (settings.getUncaughtExceptionHandler() != null) {
-                settings.getUncaughtExceptionHandler().uncaughtException(Thread.currentThread(), e);
-            } else {
-                running.set(false);
-                synchronized (hasNext) {
-                    hasNext.notifyAll();
-                }
-                synchronized (gotNext) {
-                    gotNext.notifyAll();
-                }
-                throw new RuntimeException(e);
-            }
+    private void writeQueryMetrics() {
+        // regardless whether the transform iterator returned a result, it may have updated the metrics (next/seek calls etc.)
+        if (iter.getTransformer() instanceof WritesQueryMetrics) {
+            ((WritesQueryMetrics) iter.getTransformer()).writeQueryMetrics(this.getMetric());
         }
+    }
 
-        running.set(false);
-        synchronized (hasNext) {
-            hasNext.notifyAll();
-        }
-        synchronized (gotNext) {
-            gotNext.notifyAll();
+    private void prefetchFailed(Exception e) {
+        if (settings.getUncaughtExceptionHandler() != null) {
+            settings.getUncaughtExceptionHandler().uncaughtException(Thread.currentThread(), e);
+        } else {
+            log.error("Failed to read ahead the results of the query", e);
+            this.prefetchFailure = e;
         }
-
-        return running;
     }
 
     /**
@@ -308,94 +258,67 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
      * @return true if hasNext()
      * @throws TimeoutException
      *             if there is a timeout
+     * @throws QueryException
+     *             if reading ahead failed and there is no uncaught exception handler to report it
      */
-    private boolean hasNext(long pageStartTime) throws TimeoutException {
-        if (allowShortCircuitTimeouts) {
-            synchronized (hasNext) {
-                if (hasNext.get() == 0 && running.get() && !this.finished && !this.canceled) {
-                    long timeout = (timing != null ? Math.max(1, (timing.getPageShortCircuitTimeoutMs() - (System.currentTimeMillis() - pageStartTime)))
-                                    : Long.MAX_VALUE);
-                    try {
-                        hasNext.wait(timeout);
-                    } catch (InterruptedException e) {
-                        // if we got interrupted, then just return false
-                        return false;
-                    }
-                    if (running.get() && (hasNext.get() == 0)) {
-                        throw new TimeoutException("hasNext timed out");
-                    }
-                }
-                if (hasNext.get() == 0) {
-                    log.debug("hasNext returned false.  No more results");
-                    return false;
-                } else {
-                    return true;
-                }
-            }
-        } else {
-            if (!this.finished && !this.canceled && this.iter.hasNext()) {
-                hasNext.incrementAndGet();
+    private boolean hasNext(long pageStartTime) throws TimeoutException, QueryException {
+        // read once, as a cancel may drop the buffer at any time
+        ResultsPrefetchBuffer buffer = prefetch;
+        if (buffer != null) {
+            long timeout = (allowShortCircuitTimeouts && timing != null)
+                            ? Math.max(1, (timing.getPageShortCircuitTimeoutMs() - (System.currentTimeMillis() - pageStartTime)))
+                            : Long.MAX_VALUE;
+            if (buffer.hasNext(timeout)) {
                 return true;
-            } else {
-                return false;
             }
+            if (prefetchFailure != null) {
+                throw new QueryException(prefetchFailure);
+            }
+            log.debug("hasNext returned false.  No more results");
+            return false;
+        } else {
+            return !this.finished && !this.canceled && this.iter.hasNext();
         }
     }
 
     /**
-     * This method will get the next object from the results thread queue. This presumes that hasNext has returned true. A timeout exception will be thrown if
-     * the page short circuit timeout has been reached.
+     * This method will get the next object, from the prefetch buffer if results are read ahead. This presumes that hasNext has returned true.
      *
-     * @param pageStartTime
-     *            the page start time
      * @return the next object (could be null)
-     * @throws TimeoutException
-     *             if there is a timeout
      */
-    private Object getNext(long pageStartTime) throws TimeoutException {
-        if (allowShortCircuitTimeouts) {
-            synchronized (gotNext) {
-                if (gotNext.get() == 0 && running.get() && !this.finished && !this.canceled) {
-                    long timeout = (timing != null ? Math.max(1, (timing.getPageShortCircuitTimeoutMs() - (System.currentTimeMillis() - pageStartTime)))
-                                    : Long.MAX_VALUE);
-                    try {
-                        gotNext.wait(timeout);
-                    } catch (InterruptedException e) {
-                        // if we got interrupted, then just return null
-                        return null;
-                    }
-                    if (running.get() && (gotNext.get() == 0)) {
-                        throw new TimeoutException("gotNext timed out");
-                    }
-                }
-                return resultsThreadQueue.poll();
-            }
+    private Object getNext() {
+        ResultsPrefetchBuffer buffer = prefetch;
+        if (buffer != null) {
+            return buffer.next();
         } else {
             Object o = iter.next();
-            gotNext.incrementAndGet();
-
-            // regardless whether the transform iterator returned a result, it may have updated the metrics (next/seek calls etc.)
-            if (iter.getTransformer() instanceof WritesQueryMetrics) {
-                ((WritesQueryMetrics) iter.getTransformer()).writeQueryMetrics(this.getMetric());
-            }
-
+            writeQueryMetrics();
             return o;
         }
     }
 
     /**
-     * terminate the results thread.
+     * terminate the results thread, dropping any results read ahead.
      */
     public void terminateResultsThread() {
-        running.set(false);
-        if (future != null) {
-            future.cancel(false);
-            while (!future.isDone()) {
-                future.cancel(true);
-            }
-            future = null;
+        ResultsPrefetchBuffer buffer = prefetch;
+        prefetch = null;
+        if (buffer != null) {
+            buffer.close();
         }
-        executor.shutdown();
+    }
+
+    /**
+     * Receives the results of a page as they are read
+     */
+    public interface ResultListener {
+        /**
+         * @param result
+         *            the next (transformed) result of the page
+         * @throws Exception
+         *             if the result cannot be handled, which fails the page
+         */
+        void result(Object result) throws Exception;
     }
 
     /**
@@ -406,27 +329,44 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
      *             if there are issues
      */
     public ResultsPage next() throws Exception {
+        return next(null);
+    }
+
+    /**
+     * Get the next results page, optionally handing each result to a listener as it is read instead of collecting the page
+     *
+     * @param listener
+     *            receives each result of the page, or null to return them in the page
+     * @return a results page, whose results are empty if a listener was given
+     * @throws Exception
+     *             if there are issues
+     */
+    public ResultsPage next(ResultListener listener) throws Exception {
         // update AbstractRunningQuery.lastUsed
         touch();
         long pageStartTime = System.currentTimeMillis();
         this.logic.setPageProcessingStartTime(pageStartTime);
         List<Object> resultList = new ArrayList<>();
+        int currentPageCount = 0;
         boolean hitPageByteTrigger = false;
         boolean hitPageTimeTrigger = false;
         boolean hitIntermediateResult = false;
         boolean hitShortCircuitForLongRunningQuery = false;
         try {
             addNDC();
-            int currentPageCount = 0;
             long currentPageBytes = 0;
 
             // test for any exceptions prior to loop as hasNext() would likely be false;
-            testForUncaughtException(resultList.size());
-
-            // start up the results thread if needed
-            if (this.allowShortCircuitTimeouts && future == null && !this.canceled && !this.finished) {
-                running.set(true);
-                future = executor.submit(() -> getResultsThread());
+            testForUncaughtException(currentPageCount);
+
+            // start reading ahead if needed. Long running queries drop null results, since a null does not end them.
+            if (isPrefetching() && prefetch == null && !this.canceled && !this.finished) {
+                prefetch = new ResultsPrefetchBuffer(this.iter, this.prefetchDepth, this.allowShortCircuitTimeouts, this::writeQueryMetrics,
+                                this::prefetchFailed);
+                // a cancel which raced the creation of the buffer did not see it
+                if (this.canceled) {
+                    terminateResultsThread();
+                }
             }
 
             try {
@@ -485,11 +425,7 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
                     }
 
                     // now get the next object
-                    Object o = getNext(pageStartTime);
-
-                    // now that we got the next object, acknowledge via the counters
-                    hasNext.decrementAndGet();
-                    gotNext.decrementAndGet();
+                    Object o = getNext();
 
                     if (o instanceof EventBase && ((EventBase) o).isIntermediateResult()) {
                         log.info("Received an intermediate result");
@@ -505,14 +441,18 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
                         break;
                     }
 
-                    resultList.add(o);
                     if (this.logic.getPageByteTrigger() > 0) {
                         currentPageBytes += ObjectSizeOf.Sizer.getObjectSize(o);
                     }
+                    if (listener != null) {
+                        listener.result(o);
+                    } else {
+                        resultList.add(o);
+                    }
                     currentPageCount++;
                     numResults++;
 
-                    testForUncaughtException(resultList.size());
+                    testForUncaughtException(currentPageCount);
                 }
             } catch (TimeoutException te) {
                 log.info("Hit the timeout waiting for a result");
@@ -522,20 +462,20 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
                 if (allowShortCircuitTimeouts) {
                     log.info("Short circuiting the long running query");
                     hitShortCircuitForLongRunningQuery = true;
-                } else if (resultList.isEmpty()) {
+                } else if (currentPageCount == 0) {
                     log.warn("Query timed out waiting for next result");
                     terminateResultsThread();
                     throw new QueryException(DatawaveErrorCode.QUERY_TIMEOUT, "Query timed out waiting for next result");
                 }
             }
             // if the last hasNext() call failed, then we would catch the exception here
-            testForUncaughtException(resultList.size());
+            testForUncaughtException(currentPageCount);
 
             // Update the metric
             long now = System.currentTimeMillis();
             this.getMetric().addPageTime(currentPageCount, now - pageStartTime, pageStartTime, now);
             this.lastPageNumber++;
-            if (!resultList.isEmpty()) {
+            if (currentPageCount > 0) {
                 this.getMetric().setLifecycle(QueryMetric.Lifecycle.RESULTS);
             }
         } catch (Exception e) {
@@ -557,7 +497,7 @@ public class RunningQuery extends AbstractRunningQuery implements Runnable {
             }
         }
 
-        if (!resultList.isEmpty()) {
+        if (currentPageCount > 0) {
             log.info("Returning page of results");
             // we have results!
             return new ResultsPage(resultList,
@@ -12,6 +12,9 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.accumulo.core.client.AccumuloClient;
 import org.apache.accumulo.core.data.Key;
@@ -36,6 +39,7 @@ import datawave.core.query.logic.BaseQueryLogic;
 import datawave.core.query.logic.BaseQueryLogicTransformer;
 import datawave.core.query.logic.QueryLogic;
 import datawave.core.query.logic.QueryLogicTransformer;
+import datawave.core.query.logic.composite.CompositeDelegateStats;
 import datawave.core.query.logic.composite.CompositeLogicException;
 import datawave.core.query.logic.composite.CompositeQueryLogic;
 import datawave.core.query.logic.filtered.FilteredQueryLogic;
@@ -471,6 +475,56 @@ public class CompositeQueryLogicTest {
         }
     }
 
+    /**
+     * A query logic that counts the results read from it and records when it is closed. If blocking, reading its first result waits until interrupted.
+     */
+    public static class TrackedQueryLogic extends TestQueryLogic2 {
+        private final boolean blocking;
+        private final CountDownLatch reading = new CountDownLatch(1);
+        private final CountDownLatch stopped = new CountDownLatch(1);
+        private final AtomicInteger reads = new AtomicInteger();
+        private volatile boolean closed = false;
+
+        public TrackedQueryLogic(boolean blocking) {
+            this.blocking = blocking;
+        }
+
+        @Override
+        public Iterator<Entry<Key,Value>> iterator() {
+            Iterator<Entry<Key,Value>> data = super.iterator();
+            return new Iterator<Entry<Key,Value>>() {
+                @Override
+                public boolean hasNext() {
+                    if (!blocking) {
+                        return data.hasNext();
+                    }
+                    reading.countDown();
+                    try {
+                        new CountDownLatch(1).await();
+                        return false;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RuntimeException(e);
+                    } finally {
+                        stopped.countDown();
+                    }
+                }
+
+                @Override
+                public Entry<Key,Value> next() {
+                    reads.incrementAndGet();
+                    return data.next();
+                }
+            };
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            super.close();
+        }
+    }
+
     @Before
     public void setup() {
         System.setProperty(DnUtils.NPE_OU_PROPERTY, "iamnotaperson");
@@ -921,6 +975,253 @@ public class CompositeQueryLogicTest {
 
     }
 
+    @Test
+    public void testQueryLogicWithFullDelegateBuffers() throws Exception {
+        Map<String,QueryLogic<?>> logics = new HashMap<>();
+        TestQueryLogic logic1 = new TestQueryLogic();
+        TestQueryLogic2 logic2 = new TestQueryLogic2();
+        logics.put("TestQueryLogic", logic1);
+        logics.put("TestQueryLogic2", logic2);
+
+        logic1.getData().put(key1, value1);
+        logic1.getData().put(key2, value2);
+        logic2.getData().put(key3, value3);
+        logic2.getData().put(key4, value4);
+        logic1.getData().put(key5, value5);
+        logic1.getData().put(key6, value6);
+        logic2.getData().put(key7, value7);
+        logic2.getData().put(key8, value8);
+
+        // a page size of 1 leaves room for a single result per delegate, so each delegate stalls until its result is taken
+        QueryImpl settings = new QueryImpl();
+        settings.setPagesize(1);
+        settings.setQueryAuthorizations(auths.toString());
+        settings.setQuery("FOO == 'BAR'");
+        settings.setParameters(new HashSet<>());
+        settings.setId(UUID.randomUUID());
+
+        CompositeQueryLogic c = new CompositeQueryLogic();
+        logic1.setMaxResults(-1);
+        logic2.setMaxResults(-1);
+        c.setQueryLogics(logics);
+        c.setCurrentUser(principal);
+        c.initialize(null, settings, Collections.singleton(auths));
+        c.setupQuery(null);
+        TransformIterator iter = c.getTransformIterator(settings);
+
+        List<Object> results = new ArrayList<>();
+        while (iter.hasNext()) {
+            Object o = iter.next();
+            if (null == o)
+                break;
+            Assert.assertTrue(o instanceof TestQueryResponse);
+            results.add(o);
+        }
+        Assert.assertEquals(8, results.size());
+
+        Map<String,CompositeDelegateStats> stats = c.getDelegateStats();
+        Assert.assertEquals(2, stats.size());
+        for (String logicName : Arrays.asList("TestQueryLogic", "TestQueryLogic2")) {
+            Assert.assertEquals(4, stats.get(logicName).getResultCount());
+            Assert.assertTrue(stats.get(logicName).isFinished());
+        }
+
+        c.close();
+    }
+
+    @Test
+    public void testQueryLogicWithOneDelegateThread() throws Exception {
+        Map<String,QueryLogic<?>> logics = new HashMap<>();
+        TestQueryLogic logic1 = new TestQueryLogic();
+        TestQueryLogic2 logic2 = new TestQueryLogic2();
+        logics.put("TestQueryLogic", logic1);
+        logics.put("TestQueryLogic2", logic2);
+
+        logic1.getData().put(key1, value1);
+        logic1.getData().put(key2, value2);
+        logic2.getData().put(key3, value3);
+        logic2.getData().put(key4, value4);
+        logic1.getData().put(key5, value5);
+        logic1.getData().put(key6, value6);
+        logic2.getData().put(key7, value7);
+        logic2.getData().put(key8, value8);
+
+        QueryImpl settings = new QueryImpl();
+        settings.setPagesize(1);
+        settings.setQueryAuthorizations(auths.toString());
+        settings.setQuery("FOO == 'BAR'");
+        settings.setParameters(new HashSet<>());
+        settings.setId(UUID.randomUUID());
+
+        CompositeQueryLogic c = new CompositeQueryLogic();
+        // the delegates take turns on a single thread, as each gives it back when its buffer is full
+        c.setMaxDelegateThreads(1);
+        try {
+            Assert.assertEquals(1, c.getMaxDelegateThreads());
+            // the threads are shared by every composite query logic
+            Assert.assertEquals(1, new CompositeQueryLogic().getMaxDelegateThreads());
+            logic1.setMaxResults(-1);
+            logic2.setMaxResults(-1);
+            c.setQueryLogics(logics);
+            c.setCurrentUser(principal);
+            c.initialize(null, settings, Collections.singleton(auths));
+            c.setupQuery(null);
+            TransformIterator iter = c.getTransformIterator(settings);
+
+            List<Object> results = new ArrayList<>();
+            while (iter.hasNext()) {
+                Object o = iter.next();
+                if (null == o)
+                    break;
+                Assert.assertTrue(o instanceof TestQueryResponse);
+                results.add(o);
+            }
+            Assert.assertEquals(8, results.size());
+
+            c.close();
+        } finally {
+            c.setMaxDelegateThreads(CompositeQueryLogic.DEFAULT_MAX_DELEGATE_THREADS);
+        }
+    }
+
+    @Test
+    public void testSetupWithDelegateThreadsHeldByBlockedDelegates() throws Exception {
+        QueryImpl settings = new QueryImpl();
+        settings.setPagesize(100);
+        settings.setQueryAuthorizations(auths.toString());
+        settings.setQuery("FOO == 'BAR'");
+        settings.setParameters(new HashSet<>());
+        settings.setId(UUID.randomUUID());
+
+        // every delegate thread is held by a delegate blocked reading from its query logic
+        CompositeQueryLogic c = new CompositeQueryLogic();
+        c.setMaxDelegateThreads(2);
+        List<CompositeQueryLogic> blockedQueries = new ArrayList<>();
+        try {
+            for (int i = 0; i < 2; i++) {
+                TrackedQueryLogic blocked = new TrackedQueryLogic(true);
+                blocked.setMaxResults(-1);
+                Map<String,QueryLogic<?>> blockedLogics = new HashMap<>();
+                blockedLogics.put("Blocked", blocked);
+                CompositeQueryLogic blockedQuery = new CompositeQueryLogic();
+                blockedQuery.setQueryLogics(blockedLogics);
+                blockedQuery.setCurrentUser(principal);
+                blockedQuery.initialize(null, settings, Collections.singleton(auths));
+                blockedQuery.setupQuery(null);
+                blockedQueries.add(blockedQuery);
+                Assert.assertTrue(blocked.reading.await(10, TimeUnit.SECONDS));
+            }
+
+            Map<String,QueryLogic<?>> logics = new HashMap<>();
+            TestQueryLogic logic1 = new TestQueryLogic();
+            TestQueryLogic2 logic2 = new TestQueryLogic2();
+            logics.put("TestQueryLogic", logic1);
+            logics.put("TestQueryLogic2", logic2);
+            logic1.getData().put(key1, value1);
+            logic1.getData().put(key2, value2);
+            logic2.getData().put(key3, value3);
+            logic2.getData().put(key4, value4);
+            logic1.setMaxResults(-1);
+            logic2.setMaxResults(-1);
+            c.setQueryLogics(logics);
+            c.setCurrentUser(principal);
+            c.initialize(null, settings, Collections.singleton(auths));
+
+            // setup returns while the delegates wait for a thread, rather than hanging until one is given back
+            Thread setup = new Thread(() -> {
+                try {
+                    c.setupQuery(null);
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            setup.start();
+            setup.join(TimeUnit.SECONDS.toMillis(10));
+            Assert.assertFalse(setup.isAlive());
+            Assert.assertEquals(0, c.getStartLatch().getCount());
+            for (CompositeDelegateStats stats : c.getDelegateStats().values()) {
+                Assert.assertEquals(0, stats.getResultCount());
+            }
+
+            // once the blocked queries are closed, their threads are given back and the waiting delegates run
+            for (CompositeQueryLogic blockedQuery : blockedQueries) {
+                blockedQuery.close();
+            }
+            blockedQueries.clear();
+
+            TransformIterator iter = c.getTransformIterator(settings);
+            List<Object> results = new ArrayList<>();
+            while (iter.hasNext()) {
+                Object o = iter.next();
+                if (null == o)
+                    break;
+                Assert.assertTrue(o instanceof TestQueryResponse);
+                results.add(o);
+            }
+            Assert.assertEquals(4, results.size());
+        } finally {
+            for (CompositeQueryLogic blockedQuery : blockedQueries) {
+                blockedQuery.close();
+            }
+            c.close();
+            c.setMaxDelegateThreads(CompositeQueryLogic.DEFAULT_MAX_DELEGATE_THREADS);
+        }
+    }
+
+    @Test
+    public void testCloseStopsStalledAndBlockedDelegates() throws Exception {
+        Map<String,QueryLogic<?>> logics = new HashMap<>();
+        TrackedQueryLogic full = new TrackedQueryLogic(false);
+        TrackedQueryLogic blocked = new TrackedQueryLogic(true);
+        logics.put("Full", full);
+        logics.put("Blocked", blocked);
+
+        full.getData().put(key1, value1);
+        full.getData().put(key2, value2);
+        full.getData().put(key3, value3);
+        full.getData().put(key4, value4);
+
+        // a page size of 1 leaves room for a single result per delegate
+        QueryImpl settings = new QueryImpl();
+        settings.setPagesize(1);
+        settings.setQueryAuthorizations(auths.toString());
+        settings.setQuery("FOO == 'BAR'");
+        settings.setParameters(new HashSet<>());
+        settings.setId(UUID.randomUUID());
+
+        CompositeQueryLogic c = new CompositeQueryLogic();
+        full.setMaxResults(-1);
+        blocked.setMaxResults(-1);
+        c.setQueryLogics(logics);
+        c.setCurrentUser(principal);
+        c.initialize(null, settings, Collections.singleton(auths));
+        c.setupQuery(null);
+
+        // wait for one delegate to fill its buffer and the other to block reading from its query logic
+        Assert.assertTrue(blocked.reading.await(10, TimeUnit.SECONDS));
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (c.getDelegateStats().get("Full").getResultCount() < 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(1, c.getDelegateStats().get("Full").getResultCount());
+
+        // close from another thread so that a close that never returns fails the test rather than hanging it
+        Thread closer = new Thread(c::close);
+        closer.start();
+        closer.join(TimeUnit.SECONDS.toMillis(10));
+        Assert.assertFalse(closer.isAlive());
+
+        // the blocked delegate was interrupted and had left its query logic by the time close returned
+        Assert.assertEquals(0, blocked.stopped.getCount());
+        Assert.assertTrue(full.closed);
+        Assert.assertTrue(blocked.closed);
+
+        // the stalled delegate was not resumed
+        Assert.assertEquals(1, full.reads.get());
+        Assert.assertFalse(c.getDelegateStats().get("Full").isFinished());
+        Assert.assertFalse(c.getDelegateStats().get("Blocked").isFinished());
+    }
+
     @Test
     public void testQueryLogicWithEmptyEvent() throws Exception {
         Map<String,QueryLogic<?>> logics = new HashMap<>();
@@ -7,6 +7,7 @@ import static org.easymock.EasyMock.expectLastCall;
 import static org.easymock.EasyMock.isA;
 import static org.easymock.EasyMock.notNull;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
@@ -14,6 +15,8 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.powermock.reflect.Whitebox.setInternalState;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -28,6 +31,7 @@ import java.util.Set;
 import java.util.TreeSet;
 import java.util.UUID;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.ejb.EJBContext;
 import javax.enterprise.concurrent.ManagedExecutorService;
@@ -62,6 +66,8 @@ import org.powermock.modules.junit4.PowerMockRunner;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
@@ -83,6 +89,7 @@ import datawave.microservice.query.QueryImpl;
 import datawave.microservice.query.QueryParameters;
 import datawave.microservice.query.QueryPersistence;
 import datawave.microservice.query.config.QueryExpirationProperties;
+import datawave.microservice.querymetric.BaseQueryMetric.PageMetric;
 import datawave.microservice.querymetric.QueryMetric;
 import datawave.microservice.querymetric.QueryMetricFactory;
 import datawave.microservice.querymetric.QueryMetricFactoryImpl;
@@ -111,6 +118,8 @@ import datawave.webservice.query.exception.DatawaveErrorCode;
 import datawave.webservice.query.exception.NoResultsQueryException;
 import datawave.webservice.query.exception.QueryException;
 import datawave.webservice.query.factory.Persister;
+import datawave.webservice.query.result.event.DefaultEvent;
+import datawave.webservice.query.result.event.DefaultField;
 import datawave.webservice.query.logic.QueryLogicFactoryImpl;
 import datawave.webservice.query.metric.QueryMetricsBean;
 import datawave.webservice.query.result.event.ResponseObjectFactory;
@@ -124,6 +133,7 @@ import datawave.webservice.result.GenericResponse;
 import datawave.webservice.result.QueryImplListResponse;
 import datawave.webservice.result.QueryLogicResponse;
 import datawave.webservice.result.VoidResponse;
+import datawave.webservice.util.StreamedResultsReader;
 
 @RunWith(PowerMockRunner.class)
 @PowerMockIgnore("javax.security.auth.Subject")
@@ -3732,6 +3742,175 @@ public class ExtendedQueryExecutorBeanTest {
         assertNotNull("Expected a non-null response", result1);
     }
 
+    @Test
+    public void testExecute_StreamsJsonEvents() throws Exception {
+        List<ResultsPage> pages = eventPages();
+        byte[] body = executeAndWrite(MediaType.valueOf(StreamedResultsReader.NDJSON_MEDIA_TYPE), true, pages);
+
+        ObjectMapper mapper = new ObjectMapper();
+        StreamedResultsReader.Decoder<DefaultEventQueryResponse> pageDecoder = line -> {
+            JsonNode node = mapper.readTree(line);
+            DefaultEventQueryResponse page = new DefaultEventQueryResponse();
+            page.setReturnedEvents(node.get("ReturnedEvents").asLong());
+            page.setPartialResults(node.get("PartialResults").asBoolean());
+            return page;
+        };
+        List<String> events = new ArrayList<>();
+        List<BaseQueryResponse> read;
+        try (StreamedResultsReader<String> reader = StreamedResultsReader.ndjson(new ByteArrayInputStream(body), String::trim, pageDecoder)) {
+            reader.forEachRemaining(events::add);
+            read = reader.getPages();
+        }
+
+        // every event was written on its own line, followed by the page it was read in
+        assertEquals(3, events.size());
+        for (int i = 0; i < events.size(); i++) {
+            assertTrue(events.get(i), events.get(i).contains("value" + i));
+        }
+        assertEquals(2, read.size());
+        assertEquals(Long.valueOf(2), ((DefaultEventQueryResponse) read.get(0)).getReturnedEvents());
+        assertTrue(read.get(0).isPartialResults());
+        assertEquals(Long.valueOf(1), ((DefaultEventQueryResponse) read.get(1)).getReturnedEvents());
+        assertFalse(read.get(1).isPartialResults());
+    }
+
+    @Test
+    public void testExecute_StreamsProtobufEvents() throws Exception {
+        List<ResultsPage> pages = eventPages();
+        List<Object> expected = new ArrayList<>();
+        for (ResultsPage page : pages) {
+            expected.addAll(page.getResults());
+        }
+        // the page is not streamable, so its events are written once it is complete
+        byte[] body = executeAndWrite(MediaType.valueOf(StreamedResultsReader.PROTOBUF_DELIMITED_MEDIA_TYPE), false, pages);
+
+        List<DefaultEvent> events = new ArrayList<>();
+        List<BaseQueryResponse> read;
+        try (StreamedResultsReader<DefaultEvent> reader = StreamedResultsReader.protobuf(new ByteArrayInputStream(body), new DefaultEvent().cachedSchema(),
+                        new DefaultEventQueryResponse().cachedSchema())) {
+            reader.forEachRemaining(events::add);
+            read = reader.getPages();
+        }
+
+        assertEquals(expected, events);
+        assertEquals(2, read.size());
+        assertEquals(Long.valueOf(2), ((DefaultEventQueryResponse) read.get(0)).getReturnedEvents());
+        assertEquals(Collections.singletonList("partial"), read.get(0).getMessages());
+        assertEquals(Long.valueOf(1), ((DefaultEventQueryResponse) read.get(1)).getReturnedEvents());
+        assertEquals("queryLogicName", read.get(1).getLogicName());
+    }
+
+    /**
+     * @return a partial page of two events and a complete page of one, followed by the end of the results
+     */
+    private List<ResultsPage> eventPages() {
+        List<Object> events = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            DefaultEvent event = new DefaultEvent();
+            Map<String,String> markings = Collections.singletonMap("columnVisibility", "A");
+            event.setMarkings(markings);
+            event.setFields(Collections.singletonList(new DefaultField("FIELD", "A", markings, (long) i, "value" + i)));
+            events.add(event);
+        }
+        List<ResultsPage> pages = new ArrayList<>();
+        pages.add(new ResultsPage(new ArrayList<>(events.subList(0, 2)), ResultsPage.Status.PARTIAL));
+        pages.add(new ResultsPage(new ArrayList<>(events.subList(2, 3)), ResultsPage.Status.COMPLETE));
+        pages.add(new ResultsPage(new ArrayList<>(), ResultsPage.Status.NONE));
+        return pages;
+    }
+
+    /**
+     * Execute a query with an event streaming media type, and write its results
+     *
+     * @param mediaType
+     *            the media type
+     * @param streamable
+     *            whether the transformer allows the events to be written as they are read
+     * @param pages
+     *            the pages of results
+     * @return the response body
+     * @throws Exception
+     *             if the query fails
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private byte[] executeAndWrite(MediaType mediaType, boolean streamable, List<ResultsPage> pages) throws Exception {
+        String queryLogicName = "queryLogicName";
+        UUID queryId = UUID.randomUUID();
+        GenericResponse<String> createResponse = new GenericResponse<>();
+        createResponse.setResult(queryId.toString());
+        MultivaluedMap<String,String> params = new MultivaluedMapImpl<>();
+        List<PageMetric> pageMetrics = new ArrayList<>();
+        pageMetrics.add(new PageMetric("localhost", 0, 0, 0, 0, -1, -1, -1, -1));
+
+        QueryExecutorBean subject = PowerMock.createPartialMock(QueryExecutorBean.class, "createQuery");
+
+        // Set expectations of the create logic
+        expect(this.context.getCallerPrincipal()).andReturn(this.principal).anyTimes();
+        expect(this.principal.getProxyServers()).andReturn(new ArrayList<>(0)).anyTimes();
+        expect(this.httpHeaders.getAcceptableMediaTypes()).andReturn(Collections.singletonList(mediaType));
+        expect(this.queryLogicFactory.getQueryLogic(queryLogicName, principal)).andReturn((QueryLogic) this.queryLogic1);
+        expect(this.queryLogic1.getEnrichedTransformer(isA(Query.class))).andReturn(this.transformer).anyTimes();
+        expect(this.queryLogic1.getLogicName()).andReturn(queryLogicName).anyTimes();
+        // the response of a page holds its results, as the event query transformers do
+        expect(this.transformer.createResponse(isA(ResultsPage.class))).andAnswer(() -> {
+            ResultsPage page = (ResultsPage) EasyMock.getCurrentArguments()[0];
+            DefaultEventQueryResponse response = new DefaultEventQueryResponse();
+            response.setEvents(new ArrayList(page.getResults()));
+            if (page.getStatus() == ResultsPage.Status.PARTIAL) {
+                response.addMessage("partial");
+                response.setPartialResults(true);
+            }
+            return response;
+        }).anyTimes();
+        expect(this.transformer.isStreamable()).andReturn(streamable);
+        expect(this.responseObjectFactory.getQueryImpl()).andReturn(new QueryImpl());
+        expect(this.responseObjectFactory.getEvent()).andReturn(new DefaultEvent()).anyTimes();
+        expect(subject.createQuery(queryLogicName, params, httpHeaders)).andReturn(createResponse);
+        expect(this.cache.get(eq(queryId.toString()))).andReturn(this.runningQuery);
+        expect(this.runningQuery.getMetric()).andReturn(this.queryMetric).anyTimes();
+        this.queryMetric.setCreateCallTime(EasyMock.geq(0L));
+
+        // Set expectations of writing the results
+        AtomicInteger pageNumber = new AtomicInteger();
+        expect(this.queryMetric.getPageTimes()).andReturn(pageMetrics);
+        expect(this.runningQuery.getLogic()).andReturn((QueryLogic) this.queryLogic1).anyTimes();
+        expect(this.runningQuery.getSettings()).andReturn(this.query).anyTimes();
+        if (streamable) {
+            expect(this.runningQuery.next(isA(RunningQuery.ResultListener.class))).andAnswer(() -> {
+                RunningQuery.ResultListener listener = (RunningQuery.ResultListener) EasyMock.getCurrentArguments()[0];
+                ResultsPage page = pages.get(pageNumber.getAndIncrement());
+                for (Object result : page.getResults()) {
+                    listener.result(result);
+                }
+                return new ResultsPage(new ArrayList<>(), page.getStatus());
+            }).times(pages.size());
+        } else {
+            expect(this.runningQuery.next()).andAnswer(() -> pages.get(pageNumber.getAndIncrement())).times(pages.size());
+        }
+        expect(this.runningQuery.getLastPageNumber()).andAnswer(() -> (long) pageNumber.get()).times(pages.size());
+        this.queryMetric.setProxyServers(anyObject());
+        expectLastCall().times(pages.size());
+        expect(this.query.getUncaughtExceptionHandler()).andReturn(new QueryUncaughtExceptionHandler()).anyTimes();
+        expect(this.query.getId()).andReturn(queryId).anyTimes();
+        this.runningQuery.closeConnection(this.connectionFactory);
+        this.cache.remove(queryId.toString());
+
+        // Run the test
+        PowerMock.replayAll();
+        setInternalState(subject, EJBContext.class, context);
+        setInternalState(subject, AccumuloConnectionFactory.class, connectionFactory);
+        setInternalState(subject, ResponseObjectFactory.class, responseObjectFactory);
+        setInternalState(subject, QueryCache.class, cache);
+        setInternalState(subject, QueryLogicFactory.class, queryLogicFactory);
+        setInternalState(subject, QueryMetricFactory.class, new QueryMetricFactoryImpl());
+        StreamingOutput output = subject.execute(queryLogicName, params, httpHeaders);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        output.write(out);
+        PowerMock.verifyAll();
+
+        return out.toByteArray();
+    }
+
     @Test
     public void testExecute_InvalidMediaType() throws Exception {
         // Set local test input
@@ -0,0 +1,138 @@
+package datawave.webservice.query.runner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+public class ResultsPrefetchBufferTest {
+
+    private final AtomicInteger nextCalls = new AtomicInteger();
+    private final AtomicReference<Exception> failure = new AtomicReference<>();
+
+    @Test
+    public void testReadsAhead() throws Exception {
+        List<Object> results = Arrays.asList("a", null, "b", "c", null);
+
+        ResultsPrefetchBuffer buffer = new ResultsPrefetchBuffer(results.iterator(), 2, false, nextCalls::incrementAndGet, failure::set);
+        assertEquals(results, drain(buffer));
+        assertEquals(results.size(), nextCalls.get());
+
+        buffer = new ResultsPrefetchBuffer(results.iterator(), 2, true, nextCalls::incrementAndGet, failure::set);
+        assertEquals(Arrays.asList("a", "b", "c"), drain(buffer));
+        assertNull(failure.get());
+    }
+
+    @Test
+    public void testBounded() throws Exception {
+        AtomicInteger produced = new AtomicInteger();
+        Iterator<Object> iter = new Iterator<Object>() {
+            @Override
+            public boolean hasNext() {
+                return produced.get() < 100;
+            }
+
+            @Override
+            public Object next() {
+                return produced.incrementAndGet();
+            }
+        };
+
+        ResultsPrefetchBuffer buffer = new ResultsPrefetchBuffer(iter, 5, false, () -> {}, failure::set);
+        for (int consumed = 0; consumed < 100; consumed++) {
+            assertTrue(buffer.hasNext(10000));
+            assertEquals(consumed + 1, buffer.next());
+            // the producer never gets more than the capacity ahead, plus the result it is waiting to add
+            assertTrue(produced.get() - consumed - 1 <= 6);
+            Thread.sleep(1);
+        }
+        assertFalse(buffer.hasNext(10000));
+    }
+
+    @Test
+    public void testTimeoutAndClose() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        Iterator<Object> iter = new Iterator<Object>() {
+            @Override
+            public boolean hasNext() {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                    throw new IllegalStateException(e);
+                }
+                return true;
+            }
+
+            @Override
+            public Object next() {
+                return "late";
+            }
+        };
+
+        ResultsPrefetchBuffer buffer = new ResultsPrefetchBuffer(iter, 1, false, () -> {}, failure::set);
+        try {
+            try {
+                buffer.hasNext(20);
+                fail("Expected a timeout");
+            } catch (TimeoutException e) {
+                // expected
+            }
+
+            // closing interrupts the waiting iterator, which is not reported as a failure
+            buffer.close();
+            assertTrue("The producer was not interrupted", interrupted.await(10, TimeUnit.SECONDS));
+            assertFalse(buffer.hasNext(20));
+            assertNull(failure.get());
+        } finally {
+            // never leave the producer waiting, whatever failed
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void testFailure() throws Exception {
+        IllegalStateException expected = new IllegalStateException("scan failed");
+        Iterator<Object> iter = new Iterator<Object>() {
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public Object next() {
+                if (nextCalls.incrementAndGet() > 3) {
+                    throw expected;
+                }
+                return nextCalls.get();
+            }
+        };
+
+        ResultsPrefetchBuffer buffer = new ResultsPrefetchBuffer(iter, 10, false, () -> {}, failure::set);
+        assertEquals(Arrays.asList(1, 2, 3), drain(buffer));
+        assertSame(expected, failure.get());
+    }
+
+    private static List<Object> drain(ResultsPrefetchBuffer buffer) throws TimeoutException {
+        List<Object> results = new ArrayList<>();
+        while (buffer.hasNext(10000)) {
+            results.add(buffer.next());
+        }
+        return results;
+    }
+}
@@ -115,6 +115,7 @@ public class RunningQueryTest {
         expect(logic.getCollectQueryMetrics()).andReturn(Boolean.FALSE);
         expect(logic.getTransformIterator(settings)).andReturn(iter);
         expect(logic.isLongRunningQuery()).andReturn(false);
+        expect(((BaseQueryLogic<?>) logic).getPrefetchDepth()).andReturn(1);
         expect(logic.getResultLimit(settings)).andReturn(-1L);
         expect(logic.getMaxResults()).andReturn(-1L);
         logic.preInitialize(settings, AuthorizationsUtil.buildAuthorizations(null));